@@ -0,0 +1,217 @@
+package com.cablemanagement.benchmarks;
+
+import com.cablemanagement.database.DataGenerator;
+import com.cablemanagement.database.DbLog;
+import com.cablemanagement.database.SQLiteDatabase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+/**
+ * A throwaway database for the benchmarks: a temp file with the app's schema
+ * and migrations, filled by {@link DataGenerator} with a year (2024) of
+ * business.
+ *
+ * Scale 1 is a small shop's year: 200 customers, 40 suppliers, 300 products
+ * and about 12,000 sales invoices, with the purchases, production runs,
+ * returns, payments and cash book around them. Every count grows linearly
+ * with the scale. The rows come from a fixed seed, so two runs at the same
+ * scale read the same database. Products are then topped up with more stock
+ * than any run can sell, and costed in one opening layer each.
+ *
+ * Build with mvn -B package -DskipTests from the repository root and run
+ * the jar; the schema comes with it. Every database suite takes the scale
+ * as a parameter:
+ *   java -jar benchmarks/target/benchmarks.jar -p scale=10 -prof gc
+ */
+public final class BenchmarkDatabase {
+
+    public static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    public static final LocalDate LAST_DAY = LocalDate.of(2024, 12, 31);
+
+    /** Name of the customer seeded with a given number of ledger rows, see {@link #open(int, int...)}. */
+    public static String ledgerCustomer(int transactions) {
+        return "Ledger Customer " + transactions;
+    }
+
+    private static final long SEED = 20240101L;
+
+    private final Path file;
+    private final SQLiteDatabase database;
+    private final int salesInvoices;
+    private final int busiestCustomerId;
+
+    private BenchmarkDatabase(Path file, SQLiteDatabase database, int salesInvoices, int busiestCustomerId) {
+        this.file = file;
+        this.database = database;
+        this.salesInvoices = salesInvoices;
+        this.busiestCustomerId = busiestCustomerId;
+    }
+
+    /**
+     * Create, seed and open a database in a new temp file.
+     * @param scale Multiplier of the row counts, 1 or more
+     * @param ledgerCustomers For each entry, one more customer with that many ledger rows,
+     *                        named by {@link #ledgerCustomer(int)}
+     */
+    public static BenchmarkDatabase open(int scale, int... ledgerCustomers) throws IOException, SQLException {
+        if (scale < 1) {
+            throw new IllegalArgumentException("Scale must be 1 or more: " + scale);
+        }
+        // Startup and per-call logging would end up in the measurements
+        DbLog.setLevel(DbLog.Level.OFF);
+
+        Path file = Files.createTempFile("cablemanagement-bench-", ".db");
+        try {
+            SQLiteDatabase seeding = new SQLiteDatabase(file.toString());
+            int salesInvoices;
+            int busiestCustomerId;
+            try {
+                DataGenerator.Summary summary = DataGenerator.generate(
+                    seeding, DataGenerator.Profile.of(scale, 1, SEED).withStartDate(FIRST_DAY));
+                if (summary == null) {
+                    throw new SQLException("Could not generate the benchmark database");
+                }
+                salesInvoices = summary.rows().get("Sales_Invoice").intValue();
+                busiestCustomerId = finishSeeding(seeding, ledgerCustomers);
+            } finally {
+                seeding.disconnect();
+            }
+            // Reopened, so every suite starts from the caches the app starts with
+            return new BenchmarkDatabase(file, new SQLiteDatabase(file.toString()), salesInvoices, busiestCustomerId);
+        } catch (SQLException | RuntimeException e) {
+            deleteFiles(file);
+            throw e;
+        }
+    }
+
+    public SQLiteDatabase db() {
+        return database;
+    }
+
+    /** Number of sales invoices seeded; they are numbered SI-001 up to this. */
+    public int salesInvoices() {
+        return salesInvoices;
+    }
+
+    /** The customer with the most sales invoices. */
+    public int busiestCustomerId() {
+        return busiestCustomerId;
+    }
+
+    /** Close the database and delete its files. */
+    public void close() throws IOException {
+        database.disconnect();
+        deleteFiles(file);
+    }
+
+    private static void deleteFiles(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + "-wal"));
+        Files.deleteIfExists(Path.of(file + "-shm"));
+    }
+
+    /**
+     * Top up the stock and add the ledger customers.
+     * @return The busiest customer's id
+     */
+    private static int finishSeeding(SQLiteDatabase database, int[] ledgerCustomers) throws SQLException {
+        Random random = new Random(SEED);
+        for (int transactions : ledgerCustomers) {
+            String name = ledgerCustomer(transactions);
+            if (!database.insertCustomer(name, "0300-0000000", "Nowshera")) {
+                throw new SQLException("Could not insert " + name);
+            }
+        }
+
+        Connection connection = database.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("UPDATE ProductionStock SET quantity = 1000000000");
+            }
+            for (int transactions : ledgerCustomers) {
+                addLedger(connection, random, database.getCustomerIdByName(ledgerCustomer(transactions)), transactions);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        if (!database.rebuildCostLayers()) {
+            throw new SQLException("Could not cost the topped up stock");
+        }
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT customer_id FROM Sales_Invoice " +
+                                              "GROUP BY customer_id ORDER BY COUNT(*) DESC, customer_id LIMIT 1")) {
+            if (!rs.next()) {
+                throw new SQLException("No sales invoices were generated");
+            }
+            return rs.getInt(1);
+        }
+    }
+
+    /** A ledger of charges and payments spread over the year, opening at 50,000. */
+    private static void addLedger(Connection connection, Random random, int customerId, int transactions)
+            throws SQLException {
+        long days = ChronoUnit.DAYS.between(FIRST_DAY, LAST_DAY) + 1;
+        double balance = 0;
+        try (PreparedStatement ledger = connection.prepareStatement(
+                "INSERT INTO Customer_Transaction (customer_id, transaction_date, transaction_type, amount, " +
+                "description, reference_invoice_number, balance_after_transaction) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int t = 0; t < transactions; t++) {
+                String day = FIRST_DAY.plusDays((long) t * days / transactions).toString();
+                if (t == 0) {
+                    balance = 50_000;
+                    addLedgerRow(ledger, customerId, day, "opening_balance", balance, "Opening balance", null, balance);
+                } else if (t % 3 == 0) {
+                    double payment = 1000 + random.nextInt(20_000);
+                    balance -= payment;
+                    addLedgerRow(ledger, customerId, day, "payment_received", payment, "Cash received", null, balance);
+                } else {
+                    double charge = 1000 + random.nextInt(30_000);
+                    balance += charge;
+                    addLedgerRow(ledger, customerId, day, "invoice_charge", charge, "Sales invoice",
+                                 "LC-" + transactions + "-" + t, balance);
+                }
+                if (t % 1000 == 999) {
+                    ledger.executeBatch();
+                }
+            }
+            ledger.executeBatch();
+        }
+
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE Customer SET balance = ? WHERE customer_id = ?")) {
+            update.setDouble(1, balance);
+            update.setInt(2, customerId);
+            update.executeUpdate();
+        }
+    }
+
+    private static void addLedgerRow(PreparedStatement ledger, int customerId, String day, String type,
+                                     double amount, String description, String reference,
+                                     double balanceAfter) throws SQLException {
+        ledger.setInt(1, customerId);
+        ledger.setString(2, day);
+        ledger.setString(3, type);
+        ledger.setDouble(4, amount);
+        ledger.setString(5, description);
+        ledger.setString(6, reference);
+        ledger.setDouble(7, balanceAfter);
+        ledger.addBatch();
+    }
+}
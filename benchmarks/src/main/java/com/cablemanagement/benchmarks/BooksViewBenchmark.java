@@ -0,0 +1,85 @@
+package com.cablemanagement.benchmarks;
+
+import com.cablemanagement.database.SQLiteDatabase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the Books views for the whole seeded year: every row with
+ * getViewData, and the first page the Books tables show with getViewDataPage.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar BooksViewBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BooksViewBenchmark {
+
+    // PagedTableSource.DEFAULT_PAGE_SIZE
+    private static final int PAGE_SIZE = 200;
+
+    @Param({"1"})
+    public int scale;
+
+    @Param({"View_Purchase_Book", "View_Return_Purchase_Book", "View_Raw_Stock_Book",
+            "View_Production_Book", "View_Return_Production_Book"})
+    public String view;
+
+    private BenchmarkDatabase database;
+    private SQLiteDatabase db;
+    private Map<String, String> filters;
+    private boolean onePerInvoice;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = BenchmarkDatabase.open(scale);
+        db = database.db();
+        filters = new HashMap<>();
+        // The production books have no date filter and list every item row, as in BooksContent
+        onePerInvoice = !view.contains("Production");
+        if (onePerInvoice) {
+            filters.put("fromDate", BenchmarkDatabase.FIRST_DAY.toString());
+            filters.put("toDate", BenchmarkDatabase.LAST_DAY.toString());
+        }
+        if (db.getViewData(view, filters).isEmpty()) {
+            throw new IllegalStateException(view + " has no rows");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Object[]> getViewData() {
+        return db.getViewData(view, filters);
+    }
+
+    @Benchmark
+    public List<Object[]> getViewDataFirstPage() {
+        return db.getViewDataPage(view, filters, 0, PAGE_SIZE, onePerInvoice);
+    }
+}
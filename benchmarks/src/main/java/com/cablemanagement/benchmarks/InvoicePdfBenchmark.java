@@ -0,0 +1,87 @@
+package com.cablemanagement.benchmarks;
+
+import com.cablemanagement.invoice.InvoiceData;
+import com.cablemanagement.invoice.InvoiceGenerator;
+import com.cablemanagement.invoice.Item;
+import com.cablemanagement.invoice.SalesInvoiceGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice PDFs written per second, for the invoice layouts the app prints.
+ *
+ * Run with allocation figures:
+ *   java -jar benchmarks/target/benchmarks.jar InvoicePdfBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InvoicePdfBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int lines;
+
+    private InvoiceData invoice;
+    private String filename;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(new Item("Copper Cable 3/29 " + (i % 7 + 1) + " Core - Coil " + (i + 1), 10 + i % 40, 1250.75 + i, i % 4 * 2.5));
+        }
+        invoice = new InvoiceData(InvoiceData.TYPE_SALE, "INV-2024-00417", "2024-11-05",
+                                  "Ali Traders", "Main Bazaar, Nowshera", items, 15750.0);
+        invoice.setMetadata("contact", "0333-1234567");
+        invoice.setMetadata("tehsil", "Nowshera");
+        invoice.setPaidAmount(20000.0);
+
+        File file = File.createTempFile("invoice-bench", ".pdf");
+        file.deleteOnExit();
+        filename = file.getAbsolutePath();
+
+        // The generators log every PDF they write
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+        new File(filename).delete();
+    }
+
+    @Benchmark
+    public void generatePdf() {
+        InvoiceGenerator.generatePDF(invoice, filename);
+    }
+
+    @Benchmark
+    public void generateSalesInvoicePdf() {
+        SalesInvoiceGenerator.generateSalesInvoicePDF(invoice, filename);
+    }
+}
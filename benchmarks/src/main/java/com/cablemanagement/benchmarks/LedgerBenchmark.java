@@ -0,0 +1,76 @@
+package com.cablemanagement.benchmarks;
+
+import com.cablemanagement.database.SQLiteDatabase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading one customer's ledger: the whole of it with getCustomerLedger, as
+ * the ledger export does, and its first screenful with getCustomerLedgerPage,
+ * as the ledger table does.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar LedgerBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LedgerBenchmark {
+
+    // PagedTableSource.DEFAULT_PAGE_SIZE
+    private static final int PAGE_SIZE = 200;
+
+    @Param({"1"})
+    public int scale;
+
+    @Param({"10000", "100000"})
+    public int transactions;
+
+    private BenchmarkDatabase database;
+    private SQLiteDatabase db;
+    private String customerName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = BenchmarkDatabase.open(scale, transactions);
+        db = database.db();
+        customerName = BenchmarkDatabase.ledgerCustomer(transactions);
+        if (db.getCustomerLedger(customerName).size() != transactions) {
+            throw new IllegalStateException("Ledger of " + customerName + " was not seeded");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Object[]> getCustomerLedger() {
+        return db.getCustomerLedger(customerName);
+    }
+
+    @Benchmark
+    public List<Object[]> getCustomerLedgerFirstPage() {
+        return db.getCustomerLedgerPage(customerName, null, null, 0, PAGE_SIZE);
+    }
+}
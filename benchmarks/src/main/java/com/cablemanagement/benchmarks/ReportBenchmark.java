@@ -0,0 +1,74 @@
+package com.cablemanagement.benchmarks;
+
+import com.cablemanagement.database.ReportSpec;
+import com.cablemanagement.database.SQLiteDatabase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports over the whole seeded year, streamed the way the Reports page
+ * reads them: the profit report (what getProfitReport used to return), the
+ * summary and the brand-wise sales report.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar ReportBenchmark -p scale=10 -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+    @Param({"1"})
+    public int scale;
+
+    private BenchmarkDatabase database;
+    private SQLiteDatabase db;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = BenchmarkDatabase.open(scale);
+        db = database.db();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public int profitReport(Blackhole blackhole) throws SQLException {
+        return db.streamReport(ReportSpec.profit(BenchmarkDatabase.FIRST_DAY, BenchmarkDatabase.LAST_DAY),
+                               row -> { blackhole.consume(row); return true; });
+    }
+
+    @Benchmark
+    public int summaryReport(Blackhole blackhole) throws SQLException {
+        return db.streamReport(ReportSpec.summary(BenchmarkDatabase.FIRST_DAY, BenchmarkDatabase.LAST_DAY),
+                               row -> { blackhole.consume(row); return true; });
+    }
+
+    @Benchmark
+    public int brandSalesReport(Blackhole blackhole) throws SQLException {
+        return db.streamReport(ReportSpec.sales(BenchmarkDatabase.FIRST_DAY, BenchmarkDatabase.LAST_DAY, "Brand-wise Report"),
+                               row -> { blackhole.consume(row); return true; });
+    }
+}
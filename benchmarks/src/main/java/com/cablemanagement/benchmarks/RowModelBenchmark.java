@@ -0,0 +1,119 @@
+package com.cablemanagement.benchmarks;
+
+import com.cablemanagement.database.ProductionStockTable;
+import com.cablemanagement.database.RawStockTable;
+import com.cablemanagement.database.SQLiteDatabase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The boxed Object[] stock lists against the columnar stock tables: loading
+ * the production and raw stock both ways, and the brand + text filter the
+ * Production Stock page runs over each. Run with the GC profiler, whose
+ * gc.alloc.rate.norm is the bytes each load or filter pass allocates:
+ *
+ *   java -jar benchmarks/target/benchmarks.jar RowModelBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowModelBenchmark {
+
+    private static final String SEARCH = "a";
+
+    @Param({"1"})
+    public int scale;
+
+    private BenchmarkDatabase database;
+    private SQLiteDatabase db;
+    private List<Object[]> productionRows;
+    private ProductionStockTable productionTable;
+    private String brand;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = BenchmarkDatabase.open(scale);
+        db = database.db();
+        productionRows = db.getAllProductionStocks();
+        productionTable = db.getProductionStockTable();
+        if (productionTable.size() == 0 || db.getRawStockTable().size() == 0) {
+            throw new IllegalStateException("No stock was seeded");
+        }
+        brand = productionTable.getBrand(productionTable.size() / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Object[]> loadProductionStockRows() {
+        return db.getAllProductionStocks();
+    }
+
+    @Benchmark
+    public ProductionStockTable loadProductionStockTable() {
+        return db.getProductionStockTable();
+    }
+
+    @Benchmark
+    public List<Object[]> loadRawStockRows() {
+        return db.getAllRawStocks();
+    }
+
+    @Benchmark
+    public RawStockTable loadRawStockTable() {
+        return db.getRawStockTable();
+    }
+
+    @Benchmark
+    public int filterProductionStockRows() {
+        return filterRows(productionRows, SEARCH, brand);
+    }
+
+    @Benchmark
+    public int[] filterProductionStockTable() {
+        return productionTable.filter(SEARCH, brand);
+    }
+
+    /**
+     * The filter loop the Production Stock page ran before the columnar table.
+     */
+    private static int filterRows(List<Object[]> rows, String searchText, String brandFilter) {
+        int count = 0;
+        String search = searchText.toLowerCase(Locale.ROOT);
+        for (Object[] stock : rows) {
+            String productName = (String) stock[1];
+            String brandName = (String) stock[3];
+            boolean matchesSearch = productName.toLowerCase().contains(search)
+                                    || brandName.toLowerCase().contains(search);
+            boolean matchesBrand = brandFilter == null || brandName.equals(brandFilter);
+            if (matchesSearch && matchesBrand) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+package com.cablemanagement.benchmarks;
+
+import com.cablemanagement.database.SQLiteDatabase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sales invoices posted per second through insertSalesInvoice: invoice row,
+ * lines, stock decrements and ledger entry in one transaction, committed to
+ * a file in WAL mode. Every call posts a new invoice, so the tables keep
+ * growing over the run.
+ *
+ * Run with allocation figures, at a larger database:
+ *   java -jar benchmarks/target/benchmarks.jar SalesInvoiceBenchmark -p scale=10 -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SalesInvoiceBenchmark {
+
+    @Param({"1"})
+    public int scale;
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private BenchmarkDatabase database;
+    private SQLiteDatabase db;
+    private List<Object[]> items;
+    private double total;
+    private int customerId;
+    private int nextNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = BenchmarkDatabase.open(scale);
+        db = database.db();
+        items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            double quantity = 1 + i % 10;
+            double unitPrice = 1500.0 + i * 25;
+            items.add(new Object[] {1 + i % 50, quantity, unitPrice, 0.0, 0.0});
+            total += quantity * unitPrice;
+        }
+        customerId = database.busiestCustomerId();
+        nextNumber = database.salesInvoices() + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public void insertSalesInvoice() {
+        String invoiceNumber = "SI-" + nextNumber++;
+        if (!db.insertSalesInvoice(invoiceNumber, customerId, "2024-12-31", total, 0.0, total / 2, items)) {
+            throw new IllegalStateException("Sales invoice " + invoiceNumber + " was not saved");
+        }
+    }
+}
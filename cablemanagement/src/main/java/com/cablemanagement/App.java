@@ -2,24 +2,59 @@ package com.cablemanagement;
 
 import com.cablemanagement.views.signin_page;
 import com.cablemanagement.views.home_page;
+import com.cablemanagement.database.DbMetrics;
+import com.cablemanagement.database.LedgerVerifier;
+import com.cablemanagement.database.QueryExecutor;
+import com.cablemanagement.database.SQLiteDatabase;
+import com.cablemanagement.database.StatementCounter;
 
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import javafx.stage.Stage;
+import java.nio.file.Paths;
 import java.util.Optional;
 
 public class App extends Application {
+
+    // Per-method db timings for the Diagnostics page; -Dcablemanagement.metrics=false turns them off
+    private static final boolean METRICS = !"false".equalsIgnoreCase(System.getProperty("cablemanagement.metrics"));
+    private static final long METRICS_DUMP_SECONDS = Long.getLong("cablemanagement.metricsDumpSeconds", 300);
+
     public static void main(String[] args) {
         System.out.println("Hello, World!");
-        // initialize database
-        config.database.connect(null, null, null);
 
         // Launch JavaFX application
         launch(args);
     }
 
+    @Override
+    public void init() throws Exception {
+        // Open the shared database (connection pool + schema) once for the whole app
+        if (config.database == null) {
+            if (METRICS) {
+                StatementCounter.setEnabled(true); // must be on before the pool opens its connections
+            }
+            SQLiteDatabase database = new SQLiteDatabase();
+            config.database = METRICS ? DbMetrics.instrument(database) : database;
+            if (METRICS && METRICS_DUMP_SECONDS > 0) {
+                DbMetrics.startPeriodicDump(Paths.get("db-metrics.txt"), METRICS_DUMP_SECONDS);
+            }
+            // Recheck the customer/supplier running balances; drift is only reported
+            new LedgerVerifier(database.getConnectionPool()).verifyInBackground();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        QueryExecutor.shutdown();
+        DbMetrics.stopPeriodicDump();
+        if (config.database != null && config.database.isConnected()) {
+            config.database.disconnect();
+        }
+    }
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         // Set up close confirmation for the primary stage
@@ -1,8 +1,9 @@
 package com.cablemanagement;
 
-import com.cablemanagement.database.SQLiteDatabase;
 import com.cablemanagement.database.db;
 
 public class config {
-    public static db database = new SQLiteDatabase();
+    // Shared database instance for every page. Opened in App.init() and
+    // closed in App.stop(); pages must not create their own SQLiteDatabase.
+    public static db database;
 }
@@ -0,0 +1,61 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
+
+/**
+ * Waits from a commit hook until the commit it reports can be read.
+ *
+ * SQLite calls the commit hook before it writes the commit, so a reader
+ * queried from the hook, or from a thread the hook handed work to, can still
+ * see the old rows. sqlite-jdbc runs every statement, COMMIT included, while
+ * holding the monitor of the connection's {@link DB}, and the hook is called
+ * inside that call. Taking the same monitor after the hook has returned
+ * therefore waits until the statement that committed has returned, by which
+ * time new read transactions on other connections see the commit.
+ */
+final class AfterCommit {
+
+    private static final ExecutorService RUNNER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread t = new Thread(runnable, "db-after-commit");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private AfterCommit() {
+    }
+
+    /**
+     * The object to wait on for commits of the writer connection.
+     */
+    static DB monitor(Connection writer) throws SQLException {
+        return writer.unwrap(SQLiteConnection.class).getDatabase();
+    }
+
+    /**
+     * Block until the statement running on the writer has returned. Never
+     * call it from the commit hook itself; the hook's thread already holds
+     * the monitor and would not wait.
+     */
+    static void await(DB monitor) {
+        synchronized (monitor) {
+            // Nothing to do; acquiring the monitor is the wait
+        }
+    }
+
+    /**
+     * Run a task on a background thread once the commit being reported to
+     * the calling hook can be read.
+     */
+    static void run(DB monitor, Runnable task) {
+        RUNNER.execute(() -> {
+            await(monitor);
+            task.run();
+        });
+    }
+}
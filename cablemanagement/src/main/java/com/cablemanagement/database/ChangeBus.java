@@ -0,0 +1,278 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sqlite.SQLiteCommitListener;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteUpdateListener;
+import org.sqlite.core.DB;
+
+/**
+ * Tells subscribers which rows each committed write changed, so open views
+ * and caches can apply just those rows instead of reloading whole tables.
+ *
+ * Like {@link TableSnapshotCache}, the bus listens to SQLite's update and
+ * commit hooks on the writer connection, so every db write method is covered
+ * without announcing itself. Changes are collected per transaction, one per
+ * row (an insert followed by updates stays an INSERT, an insert followed by
+ * a delete is dropped), and handed to the subscribers of their tables once
+ * the transaction commits; a rollback discards them. Only tables somebody
+ * subscribed to are collected at all. The commit hook fires before the
+ * commit is written, so delivery first waits for it to be readable (see
+ * {@link AfterCommit}); a subscriber that reloads the rows sees them.
+ *
+ * Subscribers are called in commit order on the bus's own thread and may
+ * query the database from there, on a {@link ConnectionPool#borrowReader()
+ * reader}: by then the writer may be inside its next transaction, whose rows
+ * a read on it would see even if it rolls back. Views move to the JavaFX
+ * thread themselves.
+ * The id of a change is the row's rowid, i.e. the INTEGER PRIMARY KEY of the
+ * table. SQLite does not report WITHOUT ROWID tables or writes made by other
+ * processes. A transaction that changes more than {@value #MAX_ROWS_PER_TABLE}
+ * rows of one table reports that table as one {@link #ALL_ROWS} change.
+ *
+ * Every table also has a version, bumped after each delivery of a commit
+ * that changed it whether anyone subscribed or not, so a view that stopped
+ * listening can tell later whether it missed anything.
+ */
+public class ChangeBus {
+
+    /** Id of a change that stands for the whole table, e.g. after a bulk load. */
+    public static final long ALL_ROWS = -1;
+    public static final int MAX_ROWS_PER_TABLE = 1000;
+
+    public enum Operation { INSERT, UPDATE, DELETE }
+
+    /**
+     * One row changed by a committed transaction.
+     * @param table The table name as the schema spells it
+     * @param id The rowid, or {@link #ALL_ROWS}
+     */
+    public record Change(String table, long id, Operation operation) {
+
+        public boolean isAllRows() {
+            return id == ALL_ROWS;
+        }
+    }
+
+    public interface Listener {
+        /**
+         * @param changes The changes of one transaction to the tables subscribed to, never empty
+         */
+        void onChanges(List<Change> changes);
+    }
+
+    /** Ends a subscription; closing it twice is harmless. */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private volatile Set<String> watchedTables = Set.of();
+
+    // Filled by the update hook, drained by the commit hook; keyed by lower-case table name
+    private final Map<String, Map<Long, Operation>> pending = new LinkedHashMap<>();
+    private final Map<String, String> tableNames = new HashMap<>();
+    private final Map<String, String> tableKeys = new HashMap<>();
+    private final Set<String> overflowed = new HashSet<>();
+    private final Set<String> touched = new HashSet<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private volatile DB writerMonitor;
+
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(runnable -> {
+        Thread t = new Thread(runnable, "db-change-bus");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Listen for writes on the writer connection.
+     */
+    public void attach(Connection writer) throws SQLException {
+        SQLiteConnection sqlite = writer.unwrap(SQLiteConnection.class);
+        writerMonitor = AfterCommit.monitor(writer);
+        sqlite.addUpdateListener(new SQLiteUpdateListener() {
+            @Override
+            public void onUpdate(Type type, String database, String table, long rowId) {
+                record(table, rowId, type);
+            }
+        });
+        sqlite.addCommitListener(new SQLiteCommitListener() {
+            @Override
+            public void onCommit() {
+                publish();
+            }
+
+            @Override
+            public void onRollback() {
+                synchronized (pending) {
+                    clearPending();
+                }
+            }
+        });
+    }
+
+    /**
+     * Receive the changes to some tables from now on.
+     * @param tables Table names, in any case
+     */
+    public Subscription subscribe(Listener listener, String... tables) {
+        Set<String> names = new HashSet<>();
+        for (String table : tables) {
+            names.add(table.toLowerCase(Locale.ROOT));
+        }
+        Registration registration = new Registration(names, listener);
+        registrations.add(registration);
+        updateWatchedTables();
+        return () -> {
+            if (registrations.remove(registration)) {
+                updateWatchedTables();
+            }
+        };
+    }
+
+    public int getSubscriberCount() {
+        return registrations.size();
+    }
+
+    /**
+     * How many committed transactions changing a table have been delivered.
+     * Read it when a subscription is closed; a different value later means
+     * changes were missed in between.
+     */
+    public long getVersion(String table) {
+        AtomicLong version = versions.get(table.toLowerCase(Locale.ROOT));
+        return version != null ? version.get() : 0;
+    }
+
+    private void updateWatchedTables() {
+        Set<String> tables = new HashSet<>();
+        for (Registration registration : registrations) {
+            tables.addAll(registration.tables);
+        }
+        watchedTables = Set.copyOf(tables);
+    }
+
+    private void record(String table, long rowId, SQLiteUpdateListener.Type type) {
+        if (table == null) {
+            return;
+        }
+        Operation operation = type == SQLiteUpdateListener.Type.INSERT ? Operation.INSERT
+                            : type == SQLiteUpdateListener.Type.DELETE ? Operation.DELETE
+                            : Operation.UPDATE;
+        synchronized (pending) {
+            String key = tableKeys.computeIfAbsent(table, name -> name.toLowerCase(Locale.ROOT));
+            touched.add(key);
+            if (!watchedTables.contains(key) || overflowed.contains(key)) {
+                return;
+            }
+            tableNames.putIfAbsent(key, table);
+            Map<Long, Operation> rows = pending.computeIfAbsent(key, k -> new LinkedHashMap<>());
+            rows.compute(rowId, (id, before) -> merge(before, operation));
+            if (rows.size() > MAX_ROWS_PER_TABLE) {
+                rows.clear();
+                overflowed.add(key);
+            }
+        }
+    }
+
+    /**
+     * What a row's changes in one transaction amount to; null if nothing.
+     */
+    private static Operation merge(Operation before, Operation now) {
+        if (before == null) {
+            return now;
+        }
+        if (before == Operation.INSERT) {
+            return now == Operation.DELETE ? null : Operation.INSERT;
+        }
+        // A delete and re-insert of the same rowid (INSERT OR REPLACE) is an update
+        return now == Operation.DELETE ? Operation.DELETE : Operation.UPDATE;
+    }
+
+    private void publish() {
+        List<Change> changes = new ArrayList<>();
+        Set<String> committed;
+        synchronized (pending) {
+            for (String key : overflowed) {
+                changes.add(new Change(tableNames.get(key), ALL_ROWS, Operation.UPDATE));
+            }
+            for (Map.Entry<String, Map<Long, Operation>> table : pending.entrySet()) {
+                if (overflowed.contains(table.getKey())) {
+                    continue;
+                }
+                String name = tableNames.get(table.getKey());
+                for (Map.Entry<Long, Operation> row : table.getValue().entrySet()) {
+                    changes.add(new Change(name, row.getKey(), row.getValue()));
+                }
+            }
+            committed = touched.isEmpty() ? Set.of() : new HashSet<>(touched);
+            clearPending();
+        }
+        if (!committed.isEmpty()) {
+            // Versions move after the delivery, so a subscriber closed before it sees the new version
+            DB monitor = writerMonitor;
+            delivery.execute(() -> {
+                AfterCommit.await(monitor);
+                deliver(changes);
+                for (String table : committed) {
+                    versions.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void clearPending() {
+        pending.clear();
+        overflowed.clear();
+        touched.clear();
+    }
+
+    private void deliver(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Registration registration : registrations) {
+            List<Change> matching = new ArrayList<>();
+            for (Change change : changes) {
+                if (registration.tables.contains(change.table().toLowerCase(Locale.ROOT))) {
+                    matching.add(change);
+                }
+            }
+            if (matching.isEmpty()) {
+                continue;
+            }
+            try {
+                registration.listener.onChanges(matching);
+            } catch (RuntimeException e) {
+                System.err.println("ERROR: Change listener failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static final class Registration {
+        private final Set<String> tables;
+        private final Listener listener;
+
+        private Registration(Set<String> tables, Listener listener) {
+            this.tables = tables;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of SQLite connections for a single database file.
+ *
+ * SQLite allows only one writer at a time, so the pool keeps exactly one
+ * writer connection that is owned by {@link SQLiteDatabase} for its whole
+ * lifetime, plus a fixed number of read-only connections that are borrowed
+ * for queries and returned afterwards. In WAL mode the readers never block
+ * the writer and always see the last committed state.
+ *
+ * WAL checkpoints are taken off the writer by a {@link WalCheckpointer}.
+ */
+public class ConnectionPool {
+
+    public static final int DEFAULT_READERS = 3;
+    private static final long BORROW_TIMEOUT_MS = 30000;
+
+    private final String jdbcUrl;
+    private final Connection writer;
+    private final List<Connection> readers = new ArrayList<>();
+    private final List<StatementCache> statementCaches = new ArrayList<>();
+    private final BlockingQueue<Connection> idleReaders;
+    private final WalCheckpointer checkpointer;
+    private volatile boolean closed = false;
+
+    // Borrow metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    public ConnectionPool(String databasePath, int readerCount) throws SQLException {
+        this.jdbcUrl = "jdbc:sqlite:" + databasePath;
+        this.idleReaders = new ArrayBlockingQueue<>(Math.max(1, readerCount));
+
+        this.writer = open(true);
+        configure(writer, false);
+
+        for (int i = 0; i < readerCount; i++) {
+            Connection reader = open(false);
+            configure(reader, true);
+            readers.add(reader);
+            idleReaders.add(reader);
+        }
+
+        this.checkpointer = WalCheckpointer.start(databasePath, writer);
+    }
+
+    /**
+     * Open a pool connection, with statement caching and counting as configured.
+     * The writer begins its transactions IMMEDIATE: a deferred one that has
+     * already read fails at once with SQLITE_BUSY when it goes to write while
+     * another connection holds the write lock (as a TRUNCATE checkpoint does),
+     * whereas taking the lock up front waits out busy_timeout.
+     */
+    private Connection open(boolean forWriting) throws SQLException {
+        Properties properties = new Properties();
+        if (forWriting) {
+            properties.setProperty("transaction_mode", "IMMEDIATE");
+        }
+        Connection conn = DriverManager.getConnection(jdbcUrl, properties);
+        StatementCache cache = StatementCache.create(conn);
+        if (cache != null) {
+            statementCaches.add(cache);
+            conn = cache.connection();
+        }
+        return StatementCounter.wrap(conn);
+    }
+
+    private void configure(Connection conn, boolean readOnly) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("PRAGMA busy_timeout = 30000");
+            if (!readOnly) {
+                // journal_mode is persistent, setting it once on the writer is enough
+                stmt.execute("PRAGMA journal_mode = WAL");
+            }
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA cache_size = 10000");
+            stmt.execute("PRAGMA temp_store = memory");
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        }
+    }
+
+    /**
+     * The single writer connection. It is never handed out through
+     * {@link #borrowReader()} and is closed together with the pool.
+     */
+    public Connection getWriter() {
+        return writer;
+    }
+
+    /**
+     * Borrow a read-only connection, waiting if all readers are in use.
+     * Every successful borrow must be paired with {@link #release(Connection)}.
+     * The writer is never handed out instead: it may be inside the FX
+     * thread's open transaction.
+     * @throws SQLException If no reader became free within the borrow timeout
+     */
+    public Connection borrowReader() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        Connection conn;
+        try {
+            conn = idleReaders.poll(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a reader connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (conn == null) {
+            timeoutCount.incrementAndGet();
+            throw new SQLException("No reader connection became free within " + BORROW_TIMEOUT_MS + " ms");
+        }
+        return conn;
+    }
+
+    /**
+     * Return a connection obtained from {@link #borrowReader()}.
+     */
+    public void release(Connection conn) {
+        if (conn == null || conn == writer) {
+            return;
+        }
+        if (closed) {
+            closeQuietly(conn);
+            return;
+        }
+        idleReaders.offer(conn);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public int getReaderCount() {
+        return readers.size();
+    }
+
+    public int getIdleReaderCount() {
+        return idleReaders.size();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0.0 : totalWaitNanos.get() / (double) count / 1_000_000.0;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Prepared statements served from the statement caches, across all connections.
+     */
+    public long getStatementCacheHits() {
+        long total = 0;
+        for (StatementCache cache : statementCaches) {
+            total += cache.getHitCount();
+        }
+        return total;
+    }
+
+    /**
+     * Prepared statements that had to be compiled, across all connections.
+     */
+    public long getStatementCacheMisses() {
+        long total = 0;
+        for (StatementCache cache : statementCaches) {
+            total += cache.getMissCount();
+        }
+        return total;
+    }
+
+    /**
+     * One-line summary of the borrow, statement cache and checkpoint metrics, for logs and diagnostics.
+     */
+    public String getStats() {
+        String stats = String.format("readers=%d idle=%d borrows=%d avgWait=%.3fms maxWait=%.3fms timeouts=%d " +
+                "stmtCacheHits=%d stmtCacheMisses=%d",
+                getReaderCount(), getIdleReaderCount(), getBorrowCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getTimeoutCount(),
+                getStatementCacheHits(), getStatementCacheMisses());
+        return checkpointer != null ? stats + " " + checkpointer.getStats() : stats;
+    }
+
+    /**
+     * Close the writer and every reader. Readers that are still borrowed
+     * are closed when they are released. The writer goes last so SQLite
+     * checkpoints the remaining WAL on the way out.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (checkpointer != null) {
+            checkpointer.close();
+        }
+        Connection conn;
+        while ((conn = idleReaders.poll()) != null) {
+            closeQuietly(conn);
+        }
+        closeQuietly(writer);
+    }
+
+    private void closeQuietly(Connection conn) {
+        try {
+            if (conn != null && !conn.isClosed()) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Per-day totals of sales, purchases, returns, sale value and cost
+ * (migration V006): Daily_Rollup per day, Daily_Brand_Rollup per day and
+ * brand, Daily_Customer_Rollup per day and customer. Sales returns take
+ * their sale value and cost back out on the day of the return (V010).
+ *
+ * Triggers on the invoice and return tables add every insert to its day in
+ * the same transaction, so the summary, profit, brand and customer sales
+ * reports read one row per day whatever the range. Nothing in the app
+ * updates or deletes an invoice; if one is changed by hand, or the tables
+ * are suspected to have drifted, rebuild them from the invoices:
+ *   java -cp ... com.cablemanagement.database.DailyRollups database.db
+ */
+public final class DailyRollups {
+
+    private static final String SALE_VALUE =
+        "sii.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE sii.unit_price END)";
+    // The cost stamped on the line when it was sold (V008), the product's cost for older lines
+    private static final String COST =
+        "sii.quantity * COALESCE(sii.unit_cost, ps.unit_cost)";
+    // A returned line (V010) is valued as sold, at the cost stamped on the original invoice's line
+    private static final String RETURN_SALE_VALUE =
+        "srii.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE srii.unit_price END)";
+    private static final String RETURN_COST =
+        "srii.quantity * COALESCE((SELECT sii.unit_cost FROM Sales_Invoice_Item sii " +
+        "WHERE sii.sales_invoice_id = sri.original_sales_invoice_id " +
+        "AND sii.production_stock_id = srii.production_stock_id " +
+        "AND sii.unit_cost IS NOT NULL LIMIT 1), ps.unit_cost)";
+    private static final String RETURN_ITEMS =
+        "FROM Sales_Return_Invoice_Item srii " +
+        "JOIN Sales_Return_Invoice sri ON sri.sales_return_invoice_id = srii.sales_return_invoice_id " +
+        "JOIN ProductionStock ps ON ps.production_id = srii.production_stock_id ";
+
+    private static final String[] REBUILD_SQL = {
+        "DELETE FROM Daily_Rollup",
+        "DELETE FROM Daily_Brand_Rollup",
+        "DELETE FROM Daily_Customer_Rollup",
+
+        "INSERT INTO Daily_Rollup (day, sales_count, sales_amount, sale_value, cost_amount, " +
+        "sales_return_amount, purchase_amount, purchase_return_amount) " +
+        "SELECT day, SUM(sales_count), SUM(sales_amount), SUM(sale_value), SUM(cost_amount), " +
+        "SUM(sales_return_amount), SUM(purchase_amount), SUM(purchase_return_amount) FROM (" +
+        "SELECT sales_date AS day, 1 AS sales_count, total_amount AS sales_amount, 0 AS sale_value, 0 AS cost_amount, " +
+        "0 AS sales_return_amount, 0 AS purchase_amount, 0 AS purchase_return_amount FROM Sales_Invoice " +
+        "UNION ALL " +
+        "SELECT si.sales_date, 0, 0, " + SALE_VALUE + ", " + COST + ", 0, 0, 0 " +
+        "FROM Sales_Invoice_Item sii " +
+        "JOIN Sales_Invoice si ON si.sales_invoice_id = sii.sales_invoice_id " +
+        "JOIN ProductionStock ps ON ps.production_id = sii.production_stock_id " +
+        "UNION ALL " +
+        "SELECT return_date, 0, 0, 0, 0, total_return_amount, 0, 0 FROM Sales_Return_Invoice " +
+        "UNION ALL " +
+        "SELECT sri.return_date, 0, 0, -" + RETURN_SALE_VALUE + ", -" + RETURN_COST + ", 0, 0, 0 " +
+        RETURN_ITEMS +
+        "UNION ALL " +
+        "SELECT invoice_date, 0, 0, 0, 0, 0, total_amount, 0 FROM Raw_Purchase_Invoice " +
+        "UNION ALL " +
+        "SELECT return_date, 0, 0, 0, 0, 0, 0, total_return_amount FROM Raw_Purchase_Return_Invoice" +
+        ") GROUP BY day",
+
+        "INSERT INTO Daily_Brand_Rollup (day, brand_id, quantity, sales_amount, sale_value, cost_amount) " +
+        "SELECT day, brand_id, SUM(quantity), SUM(sales_amount), SUM(sale_value), SUM(cost_amount) FROM (" +
+        "SELECT si.sales_date AS day, ps.brand_id, sii.quantity, sii.total_price AS sales_amount, " +
+        SALE_VALUE + " AS sale_value, " + COST + " AS cost_amount " +
+        "FROM Sales_Invoice_Item sii " +
+        "JOIN Sales_Invoice si ON si.sales_invoice_id = sii.sales_invoice_id " +
+        "JOIN ProductionStock ps ON ps.production_id = sii.production_stock_id " +
+        "UNION ALL " +
+        "SELECT sri.return_date, ps.brand_id, 0, 0, -" + RETURN_SALE_VALUE + ", -" + RETURN_COST + " " +
+        RETURN_ITEMS +
+        ") GROUP BY day, brand_id",
+
+        "INSERT INTO Daily_Customer_Rollup (day, customer_id, invoice_count, sales_amount, paid_amount, return_amount) " +
+        "SELECT day, customer_id, SUM(invoice_count), SUM(sales_amount), SUM(paid_amount), SUM(return_amount) FROM (" +
+        "SELECT sales_date AS day, customer_id, 1 AS invoice_count, total_amount AS sales_amount, " +
+        "paid_amount, 0 AS return_amount FROM Sales_Invoice " +
+        "UNION ALL " +
+        "SELECT return_date, customer_id, 0, 0, 0, total_return_amount FROM Sales_Return_Invoice" +
+        ") GROUP BY day, customer_id",
+    };
+
+    private DailyRollups() {}
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: DailyRollups <database file>");
+            System.exit(2);
+        }
+        SQLiteDatabase database = new SQLiteDatabase(args[0]);
+        boolean rebuilt;
+        try {
+            rebuilt = database.rebuildRollups();
+        } finally {
+            database.disconnect();
+        }
+        if (!rebuilt) {
+            System.err.println("Rollup rebuild failed, the old totals were kept");
+            System.exit(1);
+        }
+        System.out.println("Daily rollups rebuilt from the invoices");
+    }
+
+    /**
+     * Recompute every rollup row from the invoice and return tables, in one
+     * transaction: readers see either the old totals or the new ones.
+     */
+    static void rebuild(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : REBUILD_SQL) {
+                stmt.executeUpdate(sql);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
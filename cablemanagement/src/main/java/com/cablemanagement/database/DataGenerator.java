@@ -0,0 +1,1079 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Fills an empty database with years of made-up but consistent business,
+ * for scale and performance testing without going through the forms.
+ *
+ * The reference graph (provinces, districts, tehsils, categories,
+ * manufacturers, brands, customers, suppliers, raw and production stock,
+ * banks, designations and employees) is created through the {@link db}
+ * methods the forms call. Day to day business is then written over the
+ * writer connection in batches, one transaction per month: production runs
+ * with their raw material usage, purchases, sales, returns of each, raw
+ * stock issues, customer and supplier payments, cash and bank transactions
+ * and attendance. Those rows are the ones the app's own posting paths
+ * write: ledger rows carry running balances, stock never goes negative and
+ * the rollup triggers fire as usual. The search index on the ledgers, cash
+ * and bank transactions is filled once at the end instead of per row.
+ *
+ * The same profile and seed always give the same rows. Sales follow the
+ * season, a slow yearly growth and a few large customers; the shop is
+ * closed on Sundays. Scale 1 is about 100k rows a year.
+ *
+ *   java -cp ... com.cablemanagement.database.DataGenerator new.db [scale] [years] [seed]
+ */
+public final class DataGenerator {
+
+    public static final LocalDate DEFAULT_START = LocalDate.of(2016, 1, 1);
+    public static final long DEFAULT_SEED = 42L;
+
+    // Province, district, then the district's tehsils
+    private static final String[][] PLACES = {
+        {"Khyber Pakhtunkhwa", "Nowshera", "Nowshera", "Pabbi", "Jehangira"},
+        {"Khyber Pakhtunkhwa", "Peshawar", "Peshawar City", "Shah Alam"},
+        {"Khyber Pakhtunkhwa", "Mardan", "Mardan", "Takht Bhai"},
+        {"Khyber Pakhtunkhwa", "Charsadda", "Charsadda", "Tangi"},
+        {"Punjab", "Attock", "Attock", "Hazro"},
+        {"Punjab", "Rawalpindi", "Rawalpindi", "Taxila"},
+    };
+    private static final String[] CATEGORIES = {
+        "Copper Wire", "Aluminium Wire", "Flexible Cable", "Armoured Cable", "PVC Compound", "Copper Rod"};
+    private static final String[] MANUFACTURERS = {
+        "Khyber Cable Works", "Indus Wire Industries", "Frontier Conductors",
+        "Margalla Cables", "Swat Copper Mills", "Attock Wire Co."};
+    private static final String[] BRANDS = {
+        "Gold", "Silver", "Royal", "Star", "Crown", "Eagle", "Falcon", "Super", "Prime", "Classic", "Power", "Shield"};
+    private static final String[] GAUGES = {"1/18", "3/29", "7/29", "7/36", "7/44", "7/52", "19/52", "37/83"};
+    private static final String[] CABLE_TYPES = {"Flexible", "Single", "Twin Flat", "Armoured"};
+    private static final String[] MATERIALS = {
+        "Copper Rod 8mm", "Aluminium Rod 9.5mm", "PVC Granules", "XLPE Compound",
+        "Tinned Copper", "Steel Armour Tape", "Nylon Filler", "Master Batch"};
+    private static final String[] SHOPS = {
+        "Madina", "Bilal", "Al-Noor", "Khan", "Afridi", "Yousafzai", "Haq", "Rehman", "Ittefaq",
+        "Shaheen", "Al-Fatah", "Zam Zam", "Usman", "Hamza", "Sarhad", "Waheed"};
+    private static final String[] TRADES = {
+        "Electric Store", "Electronics", "Traders", "Hardware", "Builders", "Power House", "Electric Works"};
+    private static final String[] SUPPLIER_TRADES = {"Industries", "Metals", "Polymers", "Copper House", "Trading Co."};
+    private static final String[] FIRST_NAMES = {
+        "Ali", "Umar", "Bilal", "Hamza", "Imran", "Zahid", "Naveed", "Asif", "Fazal", "Sajid", "Tariq", "Waqas"};
+    private static final String[] LAST_NAMES = {"Khan", "Shah", "Ahmad", "Afridi", "Jan", "Gul", "Hussain", "Iqbal"};
+    private static final String[] DESIGNATIONS = {
+        "Machine Operator", "Helper", "Supervisor", "Salesman", "Accountant", "Driver"};
+    private static final String[] BANKS = {"Habib Bank", "Meezan Bank", "Bank of Khyber"};
+    private static final String[] EXPENSES = {
+        "Electricity bill", "Diesel for generator", "Loading and unloading", "Tea and refreshments",
+        "Vehicle fuel", "Machine repair", "Stationery"};
+    private static final double[] MONTH_FACTOR = {0.8, 0.85, 1.0, 1.1, 1.2, 1.2, 1.0, 0.9, 1.0, 1.1, 1.0, 0.85};
+
+    private DataGenerator() {}
+
+    /**
+     * How much business to generate.
+     * @param salesPerDay Sales invoices on an average working day of the first year
+     */
+    public record Profile(long seed, LocalDate startDate, int years, int customers, int suppliers,
+                          int products, int rawItems, int employees, int salesPerDay) {
+
+        /**
+         * A wire and cable shop: at scale 1, 200 customers, 40 suppliers,
+         * 300 products, 80 raw materials, 20 employees and 40 sales a day;
+         * every count grows linearly with the scale.
+         */
+        public static Profile of(int scale, int years, long seed) {
+            if (scale < 1 || years < 1) {
+                throw new IllegalArgumentException("Scale and years must be 1 or more");
+            }
+            return new Profile(seed, DEFAULT_START, years, 200 * scale, 40 * scale,
+                               300 * scale, 80 * scale, 20 * scale, 40 * scale);
+        }
+
+        public Profile withStartDate(LocalDate start) {
+            return new Profile(seed, start, years, customers, suppliers, products, rawItems, employees, salesPerDay);
+        }
+
+        public LocalDate endDate() {
+            return startDate.plusYears(years).minusDays(1);
+        }
+    }
+
+    /**
+     * What was generated.
+     * @param rows Rows inserted per table, in insert order
+     */
+    public record Summary(LocalDate from, LocalDate to, Map<String, Long> rows, long millis) {
+        public long totalRows() {
+            long total = 0;
+            for (long count : rows.values()) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: DataGenerator <new database file> [scale] [years] [seed]");
+            System.exit(2);
+        }
+        int scale = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int years = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+
+        SQLiteDatabase database = new SQLiteDatabase(args[0]);
+        Summary summary;
+        try {
+            summary = generate(database, Profile.of(scale, years, seed));
+        } finally {
+            database.disconnect();
+        }
+        if (summary == null) {
+            System.exit(1);
+        }
+        System.out.printf("Generated %,d rows for %s to %s in %.1f s%n", summary.totalRows(),
+                          summary.from(), summary.to(), summary.millis() / 1000.0);
+        for (Map.Entry<String, Long> table : summary.rows().entrySet()) {
+            System.out.printf("  %-36s %,12d%n", table.getKey(), table.getValue());
+        }
+    }
+
+    /**
+     * Generate the profile's business into a database that has no customers,
+     * suppliers or invoices yet.
+     * @return What was generated, or null if the database was not empty or generation failed
+     */
+    public static Summary generate(SQLiteDatabase database, Profile profile) {
+        long started = System.nanoTime();
+        Connection connection = database.getConnection();
+        try {
+            if (hasBusiness(connection)) {
+                System.err.println("ERROR: DataGenerator needs a database without customers, suppliers or invoices");
+                return null;
+            }
+            Random random = new Random(profile.seed());
+            Map<String, Long> rows = new LinkedHashMap<>();
+            referenceData(database, profile, random, rows);
+
+            Business business = new Business(connection, profile, random);
+            business.run();
+            business.counts(rows);
+            business.advanceSequences(database.getInvoiceSequence());
+            // The generated stock levels were written directly, so cost them afresh
+            StockCosting.rebuild(connection);
+
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            return new Summary(profile.startDate(), profile.endDate(), rows, millis);
+        } catch (SQLException e) {
+            System.err.println("ERROR: Data generation failed: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static boolean hasBusiness(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM Customer) OR EXISTS (SELECT 1 FROM Supplier) " +
+                                              "OR EXISTS (SELECT 1 FROM Sales_Invoice) OR EXISTS (SELECT 1 FROM Raw_Purchase_Invoice)")) {
+            return rs.next() && rs.getInt(1) != 0;
+        }
+    }
+
+    /**
+     * Everything the forms set up before the first invoice, one db call per
+     * row as the forms make them.
+     */
+    private static void referenceData(db database, Profile profile, Random random, Map<String, Long> rows)
+            throws SQLException {
+        Set<String> provinces = new HashSet<>();
+        List<String[]> tehsils = new ArrayList<>(); // province, district, tehsil
+        for (String[] place : PLACES) {
+            if (provinces.add(place[0])) {
+                require(database.insertProvince(place[0]), "province " + place[0]);
+            }
+            require(database.insertDistrict(place[1], place[0]), "district " + place[1]);
+            for (int t = 2; t < place.length; t++) {
+                require(database.insertTehsil(place[t], place[1]), "tehsil " + place[t]);
+                tehsils.add(new String[] {place[0], place[1], place[t]});
+            }
+        }
+        for (String category : CATEGORIES) {
+            require(database.insertCategory(category), "category " + category);
+        }
+        for (int m = 0; m < MANUFACTURERS.length; m++) {
+            String[] place = tehsils.get(m % tehsils.size());
+            require(database.insertManufacturer(MANUFACTURERS[m], place[0], place[1], place[2]),
+                    "manufacturer " + MANUFACTURERS[m]);
+        }
+        for (String brand : BRANDS) {
+            String[] place = tehsils.get(0);
+            require(database.insertBrand(brand + " Cable", place[0], place[1], place[2]), "brand " + brand);
+        }
+
+        Set<String> names = new HashSet<>();
+        for (int c = 0; c < profile.customers(); c++) {
+            String tehsil = tehsils.get(random.nextInt(tehsils.size()))[2];
+            String name = unique(names, pick(random, SHOPS) + " " + pick(random, TRADES) + ", " + tehsil);
+            require(database.insertCustomer(name, phone(random), tehsil), "customer " + name);
+        }
+        for (int s = 0; s < profile.suppliers(); s++) {
+            String tehsil = tehsils.get(random.nextInt(tehsils.size()))[2];
+            String name = unique(names, pick(random, SHOPS) + " " + pick(random, SUPPLIER_TRADES));
+            require(database.insertSupplier(name, phone(random), tehsil), "supplier " + name);
+        }
+
+        for (int r = 0; r < profile.rawItems(); r++) {
+            String name = MATERIALS[r % MATERIALS.length] + (r < MATERIALS.length ? "" : " Lot " + (r / MATERIALS.length + 1));
+            String category = r % MATERIALS.length < 2 || r % MATERIALS.length == 4 ? "Copper Rod" : "PVC Compound";
+            double price = 150 + random.nextInt(1350);
+            require(database.insertRawStock(name, category, pick(random, BRANDS) + " Cable", "Kg",
+                                            500 + random.nextInt(4500), price, 200), "raw stock " + name);
+        }
+        int combinations = GAUGES.length * 4 * CABLE_TYPES.length;
+        for (int p = 0; p < profile.products(); p++) {
+            int combination = p % combinations;
+            String name = GAUGES[combination % GAUGES.length] + " " + (1 + combination / GAUGES.length % 4) + " Core " +
+                          CABLE_TYPES[combination / (GAUGES.length * 4)] +
+                          (p < combinations ? "" : " Series " + (p / combinations + 1));
+            double unitCost = 400 + random.nextInt(6000);
+            double salePrice = Math.round(unitCost * (1.15 + random.nextInt(20) / 100.0));
+            require(database.insertProductionStock(name, pick(random, CATEGORIES), pick(random, BRANDS) + " Cable",
+                                                   p % 3 == 0 ? "Roll" : "Meter", 200 + random.nextInt(1800),
+                                                   unitCost, salePrice, 50), "product " + name);
+        }
+
+        for (String bank : BANKS) {
+            require(database.insertBank(bank, String.format("%04d-%010d", random.nextInt(10_000), random.nextInt(1_000_000_000)),
+                                        "Nowshera Main"), "bank " + bank);
+        }
+        for (String designation : DESIGNATIONS) {
+            require(database.insertDesignation(designation), "designation " + designation);
+        }
+        for (int e = 0; e < profile.employees(); e++) {
+            String name = unique(names, pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES));
+            String designation = e < 2 ? "Supervisor" : DESIGNATIONS[random.nextInt(DESIGNATIONS.length)];
+            boolean monthly = !designation.equals("Helper");
+            require(database.insertEmployee(name, phone(random),
+                                            String.format("17301-%07d-%d", random.nextInt(10_000_000), random.nextInt(10)),
+                                            tehsils.get(random.nextInt(tehsils.size()))[2], designation,
+                                            monthly ? "monthly" : "daily",
+                                            monthly ? 25_000 + random.nextInt(40) * 1000 : 1200 + random.nextInt(10) * 100),
+                    "employee " + name);
+        }
+
+        rows.put("Province", (long) provinces.size());
+        rows.put("District", (long) PLACES.length);
+        rows.put("Tehsil", (long) tehsils.size());
+        rows.put("Category", (long) CATEGORIES.length);
+        rows.put("Manufacturer", (long) MANUFACTURERS.length);
+        rows.put("Brand", (long) BRANDS.length);
+        rows.put("Customer", (long) profile.customers());
+        rows.put("Supplier", (long) profile.suppliers());
+        rows.put("Raw_Stock", (long) profile.rawItems());
+        rows.put("ProductionStock", (long) profile.products());
+        rows.put("Bank", (long) BANKS.length);
+        rows.put("Designation", (long) DESIGNATIONS.length);
+        rows.put("Employee", (long) profile.employees());
+    }
+
+    private static void require(boolean inserted, String what) throws SQLException {
+        if (!inserted) {
+            throw new SQLException("Could not insert " + what);
+        }
+    }
+
+    private static String unique(Set<String> names, String name) {
+        String candidate = name;
+        for (int n = 2; !names.add(candidate); n++) {
+            candidate = name + " " + n;
+        }
+        return candidate;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String phone(Random random) {
+        return String.format("03%02d-%07d", random.nextInt(50), random.nextInt(10_000_000));
+    }
+
+    /**
+     * The day by day business, generated and written a month at a time.
+     * Stock, balances and cash are tracked here and written back at the end
+     * of each month, in the same transaction as the month's rows.
+     */
+    private static final class Business {
+        private final Connection connection;
+        private final Profile profile;
+        private final Random random;
+        private final List<BatchInsert> inserts = new ArrayList<>();
+
+        private final BatchInsert productionInvoice;
+        private final BatchInsert productionItem;
+        private final BatchInsert productionRawUsage;
+        private final BatchInsert purchaseInvoice;
+        private final BatchInsert purchaseItem;
+        private final BatchInsert salesInvoice;
+        private final BatchInsert salesItem;
+        private final BatchInsert salesReturn;
+        private final BatchInsert salesReturnItem;
+        private final BatchInsert purchaseReturn;
+        private final BatchInsert purchaseReturnItem;
+        private final BatchInsert productionReturn;
+        private final BatchInsert productionReturnItem;
+        private final BatchInsert rawUse;
+        private final BatchInsert rawUseItem;
+        private final BatchInsert customerLedger;
+        private final BatchInsert supplierLedger;
+        private final BatchInsert cash;
+        private final BatchInsert bank;
+        private final BatchInsert attendance;
+
+        private int[] customerIds;
+        private String[] customerNames;
+        private double[] customerBalances;
+        private int[] supplierIds;
+        private String[] supplierNames;
+        private double[] supplierBalances;
+        private int[] productIds;
+        private double[] productCosts;
+        private double[] productPrices;
+        private long[] productStock;
+        private int[] rawIds;
+        private double[] rawPrices;
+        private long[] rawStock;
+        private int[] employeeIds;
+        private double[] payroll;
+        private int[] bankIds;
+        private double[] bankBalances;
+        private double cashInHand;
+
+        private long salesNumber;
+        private long salesReturnNumber;
+        private long purchaseNumber;
+        private long purchaseReturnNumber;
+        private long rawUseNumber;
+        private long productionReturnNumber;
+
+        Business(Connection connection, Profile profile, Random random) throws SQLException {
+            this.connection = connection;
+            this.profile = profile;
+            this.random = random;
+            productionInvoice = insert("Production_Invoice", "production_invoice_id", "production_date", "notes");
+            productionItem = insert("Production_Invoice_Item", "production_invoice_item_id",
+                                    "production_invoice_id", "production_id", "quantity_produced");
+            productionRawUsage = insert("Production_Stock_Raw_Usage", "usage_id",
+                                        "production_invoice_id", "raw_stock_id", "quantity_used");
+            purchaseInvoice = insert("Raw_Purchase_Invoice", "raw_purchase_invoice_id",
+                                     "invoice_number", "supplier_id", "invoice_date", "total_amount", "discount_amount", "paid_amount");
+            purchaseItem = insert("Raw_Purchase_Invoice_Item", "raw_purchase_invoice_item_id",
+                                  "raw_purchase_invoice_id", "raw_stock_id", "quantity", "unit_price");
+            // Invoices before their items: the rollup trigger on an item reads its invoice
+            salesInvoice = insert("Sales_Invoice", "sales_invoice_id",
+                                  "sales_invoice_number", "customer_id", "sales_date", "total_amount", "discount_amount", "paid_amount");
+            salesItem = insert("Sales_Invoice_Item", "sales_invoice_item_id", "sales_invoice_id", "production_stock_id",
+                               "quantity", "unit_price", "discount_percentage", "discount_amount", "total_price", "unit_cost");
+            salesReturn = insert("Sales_Return_Invoice", "sales_return_invoice_id", "return_invoice_number",
+                                 "original_sales_invoice_id", "customer_id", "return_date", "total_return_amount");
+            salesReturnItem = insert("Sales_Return_Invoice_Item", "sales_return_invoice_item_id",
+                                     "sales_return_invoice_id", "production_stock_id", "quantity", "unit_price", "total_price");
+            purchaseReturn = insert("Raw_Purchase_Return_Invoice", "raw_purchase_return_invoice_id", "return_invoice_number",
+                                    "original_invoice_id", "supplier_id", "return_date", "total_return_amount");
+            purchaseReturnItem = insert("Raw_Purchase_Return_Invoice_Item", "raw_purchase_return_invoice_item_id",
+                                        "raw_purchase_return_invoice_id", "raw_stock_id", "quantity", "unit_price");
+            productionReturn = insert("Production_Return_Invoice", "production_return_invoice_id", "return_invoice_number",
+                                      "original_production_invoice_id", "return_date", "total_return_quantity",
+                                      "total_return_amount", "notes");
+            productionReturnItem = insert("Production_Return_Invoice_Item", "production_return_invoice_item_id",
+                                          "production_return_invoice_id", "production_id", "quantity_returned",
+                                          "unit_cost", "total_cost");
+            rawUse = insert("Raw_Stock_Use_Invoice", "raw_stock_use_invoice_id",
+                            "use_invoice_number", "usage_date", "total_usage_amount", "reference_purpose");
+            rawUseItem = insert("Raw_Stock_Use_Invoice_Item", "raw_stock_use_invoice_item_id",
+                                "raw_stock_use_invoice_id", "raw_stock_id", "quantity_used", "unit_cost", "total_cost");
+            customerLedger = insert("Customer_Transaction", "transaction_id", "customer_id", "transaction_date",
+                                    "transaction_type", "amount", "description", "reference_invoice_number",
+                                    "balance_after_transaction");
+            supplierLedger = insert("Supplier_Transaction", "transaction_id", "supplier_id", "transaction_date",
+                                    "transaction_type", "amount", "description", "reference_invoice_number",
+                                    "balance_after_transaction");
+            cash = insert("Cash_Transaction", "cash_transaction_id", "transaction_date", "transaction_type",
+                          "amount", "description");
+            bank = insert("Bank_Transaction", "bank_transaction_id", "bank_id", "transaction_date", "transaction_type",
+                          "amount", "description", "related_bank_id");
+            attendance = insert("Employee_Attendance", "attendance_id", "employee_id", "attendance_date",
+                                "status", "working_hours");
+            loadReferenceData();
+        }
+
+        private BatchInsert insert(String table, String idColumn, String... columns) throws SQLException {
+            BatchInsert insert = new BatchInsert(connection, table, idColumn, columns);
+            inserts.add(insert);
+            return insert;
+        }
+
+        private void loadReferenceData() throws SQLException {
+            List<Object[]> rows = query("SELECT customer_id, customer_name, balance FROM Customer ORDER BY customer_id");
+            customerIds = new int[rows.size()];
+            customerNames = new String[rows.size()];
+            customerBalances = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                customerIds[i] = (Integer) rows.get(i)[0];
+                customerNames[i] = (String) rows.get(i)[1];
+                customerBalances[i] = ((Number) rows.get(i)[2]).doubleValue();
+            }
+            rows = query("SELECT supplier_id, supplier_name, balance FROM Supplier ORDER BY supplier_id");
+            supplierIds = new int[rows.size()];
+            supplierNames = new String[rows.size()];
+            supplierBalances = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                supplierIds[i] = (Integer) rows.get(i)[0];
+                supplierNames[i] = (String) rows.get(i)[1];
+                supplierBalances[i] = ((Number) rows.get(i)[2]).doubleValue();
+            }
+            rows = query("SELECT production_id, unit_cost, sale_price, quantity FROM ProductionStock ORDER BY production_id");
+            productIds = new int[rows.size()];
+            productCosts = new double[rows.size()];
+            productPrices = new double[rows.size()];
+            productStock = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                productIds[i] = (Integer) rows.get(i)[0];
+                productCosts[i] = ((Number) rows.get(i)[1]).doubleValue();
+                productPrices[i] = ((Number) rows.get(i)[2]).doubleValue();
+                productStock[i] = ((Number) rows.get(i)[3]).longValue();
+            }
+            rows = query("SELECT stock_id, unit_price, quantity FROM Raw_Stock ORDER BY stock_id");
+            rawIds = new int[rows.size()];
+            rawPrices = new double[rows.size()];
+            rawStock = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                rawIds[i] = (Integer) rows.get(i)[0];
+                rawPrices[i] = ((Number) rows.get(i)[1]).doubleValue();
+                rawStock[i] = ((Number) rows.get(i)[2]).longValue();
+            }
+            rows = query("SELECT employee_id, salary_type, salary_amount FROM Employee ORDER BY employee_id");
+            employeeIds = new int[rows.size()];
+            payroll = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                employeeIds[i] = (Integer) rows.get(i)[0];
+                double salary = ((Number) rows.get(i)[2]).doubleValue();
+                payroll[i] = "monthly".equals(rows.get(i)[1]) ? salary : salary * 26;
+            }
+            rows = query("SELECT bank_id, balance FROM Bank ORDER BY bank_id");
+            bankIds = new int[rows.size()];
+            bankBalances = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                bankIds[i] = (Integer) rows.get(i)[0];
+                bankBalances[i] = rows.get(i)[1] != null ? ((Number) rows.get(i)[1]).doubleValue() : 0.0;
+            }
+        }
+
+        private List<Object[]> query(String sql) throws SQLException {
+            List<Object[]> rows = new ArrayList<>();
+            try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                int columns = rs.getMetaData().getColumnCount();
+                while (rs.next()) {
+                    Object[] row = new Object[columns];
+                    for (int i = 0; i < columns; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+
+        void run() throws SQLException {
+            List<DeferredSearchIndex> deferred = new ArrayList<>();
+            for (BatchInsert insert : List.of(customerLedger, supplierLedger, cash, bank)) {
+                DeferredSearchIndex index = DeferredSearchIndex.suspend(connection, insert.table, insert.idColumn, insert.firstId);
+                if (index != null) {
+                    deferred.add(index);
+                }
+            }
+            try {
+                months();
+            } finally {
+                for (DeferredSearchIndex index : deferred) {
+                    index.resume(connection);
+                }
+            }
+        }
+
+        private void months() throws SQLException {
+            LocalDate end = profile.endDate();
+            LocalDate month = profile.startDate();
+            while (!month.isAfter(end)) {
+                LocalDate next = month.withDayOfMonth(1).plusMonths(1);
+                LocalDate last = next.minusDays(1).isAfter(end) ? end : next.minusDays(1);
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    for (LocalDate day = month; !day.isAfter(last); day = day.plusDays(1)) {
+                        if (day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                            day(day, isLastWorkingDay(day, last));
+                            for (BatchInsert insert : inserts) {
+                                insert.flush();
+                            }
+                        }
+                    }
+                    writeBack();
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+                if (last.getMonthValue() == 12 || last.equals(end)) {
+                    DbLog.info(String.format("Generated %d: %,d sales invoices so far", last.getYear(), salesInvoice.rows));
+                }
+                month = next;
+            }
+        }
+
+        private boolean isLastWorkingDay(LocalDate day, LocalDate lastOfMonth) {
+            LocalDate lastWorking = lastOfMonth.getDayOfWeek() == DayOfWeek.SUNDAY ? lastOfMonth.minusDays(1) : lastOfMonth;
+            return day.equals(lastWorking);
+        }
+
+        private void day(LocalDate date, boolean payday) throws SQLException {
+            String day = date.toString();
+            double volume = profile.salesPerDay() * MONTH_FACTOR[date.getMonthValue() - 1] *
+                            Math.pow(1.06, date.getYear() - profile.startDate().getYear()) *
+                            (date.getDayOfWeek() == DayOfWeek.SATURDAY ? 0.7 : 1.0);
+            double cashSales = 0;
+
+            attendance(day);
+            for (int run = count(volume / 16); run > 0; run--) {
+                productionRun(day, (int) (volume * 40));
+            }
+            for (int purchase = count(volume / 12); purchase > 0; purchase--) {
+                purchase(day);
+            }
+            List<long[]> soldToday = new ArrayList<>();
+            for (int sale = count(volume); sale > 0; sale--) {
+                cashSales += sale(day, soldToday);
+            }
+            for (int r = count(soldToday.size() / 50.0); r > 0 && !soldToday.isEmpty(); r--) {
+                salesReturn(day, soldToday.get(random.nextInt(soldToday.size())));
+            }
+            for (int r = count(volume / 400); r > 0; r--) {
+                purchaseReturn(day);
+            }
+            for (int r = count(volume / 1600); r > 0; r--) {
+                productionReturn(day);
+            }
+            if (random.nextInt(3) == 0) {
+                rawStockUse(day);
+            }
+            for (int p = count(volume / 3); p > 0; p--) {
+                customerPayment(day);
+            }
+            for (int p = count(volume / 24); p > 0; p--) {
+                supplierPayment(day);
+            }
+            cashBook(day, cashSales, date.getDayOfWeek() == DayOfWeek.SATURDAY, payday);
+        }
+
+        private void attendance(String day) throws SQLException {
+            for (int employeeId : employeeIds) {
+                int roll = random.nextInt(100);
+                String status = roll < 92 ? "present" : roll < 97 ? "absent" : "leave";
+                double hours = status.equals("present") ? 8 + random.nextInt(3) : 0;
+                attendance.add(employeeId, day, status, hours);
+            }
+        }
+
+        private void productionRun(String day, int target) throws SQLException {
+            long runId = productionInvoice.add(day, "Batch " + (productionInvoice.rows + 1));
+            int items = 1 + random.nextInt(3);
+            long produced = 0;
+            for (int i = 0; i < items; i++) {
+                int product = skewed(productIds.length, 1.5);
+                // Slow movers are made in smaller runs
+                long quantity = Math.max(20, target / items / 4 + random.nextInt(Math.max(1, target / items)));
+                productionItem.add(runId, productIds[product], (double) quantity);
+                productStock[product] += quantity;
+                produced += quantity;
+            }
+            int materials = 1 + random.nextInt(2);
+            for (int m = 0; m < materials; m++) {
+                int raw = random.nextInt(rawIds.length);
+                long used = Math.min(rawStock[raw], produced / (2L * materials) + 1);
+                if (used > 0) {
+                    productionRawUsage.add(runId, rawIds[raw], (double) used);
+                    rawStock[raw] -= used;
+                }
+            }
+        }
+
+        private void purchase(String day) throws SQLException {
+            int supplier = skewed(supplierIds.length, 2.0);
+            String number = SQLiteDatabase.RAW_PURCHASE_PREFIX + String.format("%06d", ++purchaseNumber);
+            long invoiceId = purchaseInvoice.nextId();
+            int lines = 1 + random.nextInt(4);
+            double total = 0;
+            for (int l = 0; l < lines; l++) {
+                int raw = random.nextInt(rawIds.length);
+                long quantity = 100 + random.nextInt(900);
+                purchaseItem.add(invoiceId, rawIds[raw], (double) quantity, rawPrices[raw]);
+                rawStock[raw] += quantity;
+                total += quantity * rawPrices[raw];
+            }
+            double paid = paidPart(total);
+            purchaseInvoice.add(number, supplierIds[supplier], day, total, 0.0, paid);
+            // Overpayment is never credited, as in insertSimpleRawPurchaseInvoice
+            double owed = Math.max(0, total - paid);
+            supplierBalances[supplier] += owed;
+            supplierLedger.add(supplierIds[supplier], day, PartyLedger.INVOICE_CHARGE, owed, "Purchase invoice",
+                               number, supplierBalances[supplier]);
+        }
+
+        /**
+         * One sales invoice of products in stock.
+         * @param soldToday Receives {invoice id, customer, product, quantity, unit price} of one of its lines
+         * @return The amount paid on the spot
+         */
+        private double sale(String day, List<long[]> soldToday) throws SQLException {
+            int customer = skewed(customerIds.length, 2.5);
+            long invoiceId = salesInvoice.nextId();
+            int lines = 1 + random.nextInt(6);
+            double total = 0;
+            long[] sampleLine = null;
+            for (int l = 0; l < lines; l++) {
+                int product = skewed(productIds.length, 1.5);
+                long quantity = Math.min(productStock[product], 1 + random.nextInt(25));
+                if (quantity <= 0) {
+                    continue;
+                }
+                double unitPrice = productPrices[product] > 0 ? productPrices[product] : Math.round(productCosts[product] * 1.25);
+                double discountPercentage = random.nextInt(5) == 0 ? 2.5 * (1 + random.nextInt(2)) : 0.0;
+                double lineTotal = SalesPostingEngine.lineTotal(quantity, unitPrice, discountPercentage, 0.0);
+                salesItem.add(invoiceId, productIds[product], (double) quantity, unitPrice, discountPercentage, 0.0, lineTotal,
+                              productCosts[product]);
+                productStock[product] -= quantity;
+                total += lineTotal;
+                sampleLine = new long[] {invoiceId, customer, product, quantity, (long) unitPrice};
+            }
+            if (sampleLine == null) {
+                return 0;
+            }
+            String number = SQLiteDatabase.SALES_INVOICE_PREFIX + String.format("%03d", ++salesNumber);
+            double discount = total > 100_000 && random.nextInt(4) == 0 ? Math.round(total * 0.01) : 0.0;
+            double paid = paidPart(total - discount);
+            salesInvoice.add(number, customerIds[customer], day, total, discount, paid);
+            // Posted as SalesPostingEngine posts it: the unpaid rest, whatever its sign
+            double owed = total - discount - paid;
+            customerBalances[customer] += owed;
+            customerLedger.add(customerIds[customer], day, PartyLedger.INVOICE_CHARGE, owed, "Sales invoice",
+                               number, customerBalances[customer]);
+            soldToday.add(sampleLine);
+            return paid;
+        }
+
+        private void salesReturn(String day, long[] line) throws SQLException {
+            int customer = (int) line[1];
+            int product = (int) line[2];
+            long quantity = 1 + random.nextInt((int) line[3]);
+            double amount = quantity * line[4];
+            String number = SQLiteDatabase.SALES_RETURN_PREFIX + String.format("%03d", ++salesReturnNumber);
+            long returnId = salesReturn.add(number, line[0], customerIds[customer], day, amount);
+            salesReturnItem.add(returnId, productIds[product], (double) quantity, (double) line[4], amount);
+            productStock[product] += quantity;
+            customerBalances[customer] -= amount;
+            customerLedger.add(customerIds[customer], day, PartyLedger.ADJUSTMENT, -amount, "Sales return",
+                               number, customerBalances[customer]);
+        }
+
+        private void purchaseReturn(String day) throws SQLException {
+            if (purchaseInvoice.rows == 0) {
+                return;
+            }
+            int supplier = skewed(supplierIds.length, 2.0);
+            int raw = random.nextInt(rawIds.length);
+            long quantity = Math.min(rawStock[raw], 5 + random.nextInt(50));
+            if (quantity <= 0) {
+                return;
+            }
+            double amount = quantity * rawPrices[raw];
+            String number = SQLiteDatabase.RAW_PURCHASE_RETURN_PREFIX + String.format("%03d", ++purchaseReturnNumber);
+            long original = purchaseInvoice.firstId + random.nextInt((int) purchaseInvoice.rows);
+            long returnId = purchaseReturn.add(number, original, supplierIds[supplier], day, amount);
+            purchaseReturnItem.add(returnId, rawIds[raw], (double) quantity, rawPrices[raw]);
+            rawStock[raw] -= quantity;
+            supplierBalances[supplier] -= amount;
+            supplierLedger.add(supplierIds[supplier], day, PartyLedger.ADJUSTMENT, -amount, "Purchase return",
+                               number, supplierBalances[supplier]);
+        }
+
+        private void productionReturn(String day) throws SQLException {
+            if (productionInvoice.rows == 0) {
+                return;
+            }
+            int product = random.nextInt(productIds.length);
+            long quantity = Math.min(productStock[product], 1 + random.nextInt(30));
+            if (quantity <= 0) {
+                return;
+            }
+            double amount = quantity * productCosts[product];
+            String number = SQLiteDatabase.PRODUCTION_RETURN_PREFIX + String.format("%04d", ++productionReturnNumber);
+            long original = productionInvoice.firstId + random.nextInt((int) productionInvoice.rows);
+            long returnId = productionReturn.add(number, original, day, (double) quantity, amount, "Faulty insulation");
+            productionReturnItem.add(returnId, productIds[product], (double) quantity, productCosts[product], amount);
+            productStock[product] -= quantity;
+        }
+
+        private void rawStockUse(String day) throws SQLException {
+            long useId = rawUse.nextId();
+            int items = 1 + random.nextInt(3);
+            double total = 0;
+            for (int i = 0; i < items; i++) {
+                int raw = random.nextInt(rawIds.length);
+                long quantity = Math.min(rawStock[raw], 5 + random.nextInt(60));
+                if (quantity <= 0) {
+                    continue;
+                }
+                rawUseItem.add(useId, rawIds[raw], (double) quantity, rawPrices[raw], quantity * rawPrices[raw]);
+                rawStock[raw] -= quantity;
+                total += quantity * rawPrices[raw];
+            }
+            if (total > 0) {
+                String number = SQLiteDatabase.RAW_STOCK_USE_PREFIX + String.format("%03d", ++rawUseNumber);
+                rawUse.add(number, day, total, random.nextBoolean() ? "Production" : "Maintenance");
+            } else {
+                rawUseItem.clear();
+            }
+        }
+
+        private void customerPayment(String day) throws SQLException {
+            int customer = skewed(customerIds.length, 2.5);
+            double balance = customerBalances[customer];
+            if (balance < 500) {
+                return;
+            }
+            double amount = Math.round(balance * (0.2 + random.nextDouble() * 0.8) / 100) * 100.0;
+            if (amount <= 0) {
+                return;
+            }
+            customerBalances[customer] -= amount;
+            customerLedger.add(customerIds[customer], day, PartyLedger.CUSTOMER.paymentType, amount,
+                               "Payment received", null, customerBalances[customer]);
+            if (random.nextInt(10) < 7) {
+                cash.add(day, "cash_in", amount, "Payment from " + customerNames[customer]);
+                cashInHand += amount;
+            } else {
+                int account = random.nextInt(bankIds.length);
+                bank.add(bankIds[account], day, "deposit", amount, "Payment from " + customerNames[customer], null);
+                bankBalances[account] += amount;
+            }
+        }
+
+        private void supplierPayment(String day) throws SQLException {
+            int supplier = skewed(supplierIds.length, 2.0);
+            double balance = supplierBalances[supplier];
+            if (balance < 1000) {
+                return;
+            }
+            double amount = Math.round(balance * (0.3 + random.nextDouble() * 0.7) / 100) * 100.0;
+            supplierBalances[supplier] -= amount;
+            supplierLedger.add(supplierIds[supplier], day, PartyLedger.SUPPLIER.paymentType, amount,
+                               "Payment made", null, supplierBalances[supplier]);
+            if (cashInHand >= amount) {
+                cash.add(day, "cash_out", amount, "Payment to " + supplierNames[supplier]);
+                cashInHand -= amount;
+            } else {
+                int account = random.nextInt(bankIds.length);
+                bank.add(bankIds[account], day, "withdraw", amount, "Payment to " + supplierNames[supplier], null);
+                bankBalances[account] -= amount;
+            }
+        }
+
+        /**
+         * The day's cash sales and running expenses; on Saturdays most of the
+         * cash goes to the bank, and salaries are paid on the month's last working day.
+         */
+        private void cashBook(String day, double cashSales, boolean saturday, boolean payday) throws SQLException {
+            if (cashSales > 0) {
+                cash.add(day, "cash_in", cashSales, "Cash sales");
+                cashInHand += cashSales;
+            }
+            for (int e = random.nextInt(3); e > 0; e--) {
+                double amount = Math.min(cashInHand, 500 + random.nextInt(30) * 500);
+                if (amount > 0) {
+                    cash.add(day, "cash_out", amount, pick(random, EXPENSES));
+                    cashInHand -= amount;
+                }
+            }
+            if (saturday && cashInHand > 50_000) {
+                double deposit = Math.round(cashInHand * 0.7 / 1000) * 1000.0;
+                int account = random.nextInt(bankIds.length);
+                cash.add(day, "transfer_to_bank", deposit, "Deposit to " + BANKS[account % BANKS.length]);
+                bank.add(bankIds[account], day, "deposit", deposit, "Cash deposit", null);
+                cashInHand -= deposit;
+                bankBalances[account] += deposit;
+            }
+            if (payday) {
+                double salaries = 0;
+                for (double salary : payroll) {
+                    salaries += salary;
+                }
+                bank.add(bankIds[0], day, "withdraw", salaries, "Salaries", null);
+                bankBalances[0] -= salaries;
+            }
+        }
+
+        /** Paid in full, in part or on credit. */
+        private double paidPart(double total) {
+            int roll = random.nextInt(20);
+            if (roll < 8) {
+                return total;
+            }
+            if (roll < 15) {
+                return Math.round(total * random.nextDouble() / 100) * 100.0;
+            }
+            return 0.0;
+        }
+
+        /** How many of something happen today, for a daily average. */
+        private int count(double mean) {
+            double jittered = mean * (0.75 + random.nextDouble() * 0.5);
+            int whole = (int) jittered;
+            return whole + (random.nextDouble() < jittered - whole ? 1 : 0);
+        }
+
+        /** An index below size, low ones far more often: a few customers and products carry most of the business. */
+        private int skewed(int size, double skew) {
+            return (int) (size * Math.pow(random.nextDouble(), skew));
+        }
+
+        /** Stock, balances and cash in hand as they stand after the month. */
+        private void writeBack() throws SQLException {
+            try (PreparedStatement products = connection.prepareStatement(
+                     "UPDATE ProductionStock SET quantity = ?, total_cost = ? * unit_cost WHERE production_id = ?");
+                 PreparedStatement raw = connection.prepareStatement(
+                     "UPDATE Raw_Stock SET quantity = ?, total_cost = ? * unit_price WHERE stock_id = ?");
+                 PreparedStatement customers = connection.prepareStatement(
+                     "UPDATE Customer SET balance = ? WHERE customer_id = ?");
+                 PreparedStatement suppliers = connection.prepareStatement(
+                     "UPDATE Supplier SET balance = ? WHERE supplier_id = ?");
+                 PreparedStatement banks = connection.prepareStatement(
+                     "UPDATE Bank SET balance = ? WHERE bank_id = ?")) {
+                for (int i = 0; i < productIds.length; i++) {
+                    products.setLong(1, productStock[i]);
+                    products.setLong(2, productStock[i]);
+                    products.setInt(3, productIds[i]);
+                    products.addBatch();
+                }
+                products.executeBatch();
+                for (int i = 0; i < rawIds.length; i++) {
+                    raw.setLong(1, rawStock[i]);
+                    raw.setLong(2, rawStock[i]);
+                    raw.setInt(3, rawIds[i]);
+                    raw.addBatch();
+                }
+                raw.executeBatch();
+                for (int i = 0; i < customerIds.length; i++) {
+                    customers.setDouble(1, customerBalances[i]);
+                    customers.setInt(2, customerIds[i]);
+                    customers.addBatch();
+                }
+                customers.executeBatch();
+                for (int i = 0; i < supplierIds.length; i++) {
+                    suppliers.setDouble(1, supplierBalances[i]);
+                    suppliers.setInt(2, supplierIds[i]);
+                    suppliers.addBatch();
+                }
+                suppliers.executeBatch();
+                for (int i = 0; i < bankIds.length; i++) {
+                    banks.setDouble(1, bankBalances[i]);
+                    banks.setInt(2, bankIds[i]);
+                    banks.addBatch();
+                }
+                banks.executeBatch();
+            }
+        }
+
+        void counts(Map<String, Long> rows) {
+            for (BatchInsert insert : inserts) {
+                rows.put(insert.table, insert.rows);
+                insert.close();
+            }
+        }
+
+        /** Move the document number sequences past the generated numbers, so the forms carry on from them. */
+        void advanceSequences(InvoiceSequence sequences) throws SQLException {
+            advance(sequences, SQLiteDatabase.SALES_INVOICE_PREFIX, "%03d", salesNumber);
+            advance(sequences, SQLiteDatabase.SALES_RETURN_PREFIX, "%03d", salesReturnNumber);
+            advance(sequences, SQLiteDatabase.RAW_PURCHASE_PREFIX, "%06d", purchaseNumber);
+            advance(sequences, SQLiteDatabase.RAW_PURCHASE_RETURN_PREFIX, "%03d", purchaseReturnNumber);
+            advance(sequences, SQLiteDatabase.RAW_STOCK_USE_PREFIX, "%03d", rawUseNumber);
+            advance(sequences, SQLiteDatabase.PRODUCTION_RETURN_PREFIX, "%04d", productionReturnNumber);
+        }
+
+        private static void advance(InvoiceSequence sequences, String prefix, String format, long last)
+                throws SQLException {
+            if (last > 0) {
+                sequences.advancePast(prefix, prefix + String.format(format, last));
+            }
+        }
+    }
+
+    /**
+     * A search index insert trigger held off while its table is bulk loaded.
+     * FTS5 takes rows about ten times faster from one INSERT ... SELECT than
+     * from a trigger firing per row. The select is built from the trigger's
+     * own VALUES list, the way V005 backfills the index, so the two cannot
+     * drift apart.
+     */
+    private static final class DeferredSearchIndex {
+        private static final String INSERT = "INSERT INTO Search_Index (rowid, title, detail) ";
+
+        private final String triggerSql;
+        private final String backfillSql;
+
+        private DeferredSearchIndex(String triggerSql, String backfillSql) {
+            this.triggerSql = triggerSql;
+            this.backfillSql = backfillSql;
+        }
+
+        /**
+         * Drop the table's search insert trigger.
+         * @return What resumes it, or null if the trigger was left in place
+         */
+        static DeferredSearchIndex suspend(Connection connection, String table, String idColumn, long firstId)
+                throws SQLException {
+            String trigger = "trg_search_" + table.toLowerCase(Locale.ROOT) + "_insert";
+            String sql = null;
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "SELECT sql FROM sqlite_master WHERE type = 'trigger' AND name = ?")) {
+                pstmt.setString(1, trigger);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        sql = rs.getString(1);
+                    }
+                }
+            }
+            int values = sql != null ? sql.indexOf(INSERT + "VALUES (") : -1;
+            int end = sql != null ? sql.lastIndexOf(");") : -1;
+            if (values < 0 || end < values) {
+                return null;
+            }
+            String columns = sql.substring(values + INSERT.length() + "VALUES (".length(), end).replace("NEW.", "x.");
+            String backfill = INSERT + "SELECT " + columns + " FROM " + table + " x WHERE x." + idColumn + " >= " + firstId;
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("DROP TRIGGER " + trigger);
+            }
+            return new DeferredSearchIndex(sql, backfill);
+        }
+
+        /** Index the rows loaded since {@link #suspend} and put the trigger back. */
+        void resume(Connection connection) throws SQLException {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate(backfillSql);
+                stmt.executeUpdate(triggerSql);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * A batched INSERT with ids handed out here, so child rows can reference
+     * a parent that is still in the batch. Ids continue from the table's
+     * highest, which is what AUTOINCREMENT would have given.
+     */
+    private static final class BatchInsert {
+        final String table;
+        final String idColumn;
+        final long firstId;
+        long rows;
+        private final PreparedStatement stmt;
+        private final int columns;
+        private long nextId;
+        private int pending;
+
+        BatchInsert(Connection connection, String table, String idColumn, String... columns) throws SQLException {
+            this.table = table;
+            this.idColumn = idColumn;
+            this.columns = columns.length;
+            try (Statement query = connection.createStatement();
+                 ResultSet rs = query.executeQuery("SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table)) {
+                rs.next();
+                nextId = rs.getLong(1) + 1;
+            }
+            firstId = nextId;
+            stmt = connection.prepareStatement("INSERT INTO " + table + " (" + idColumn + ", " + String.join(", ", columns) +
+                                               ") VALUES (?" + ", ?".repeat(columns.length) + ")");
+        }
+
+        /** The id the next {@link #add} will use. */
+        long nextId() {
+            return nextId;
+        }
+
+        /**
+         * Add a row with the next id.
+         * @param values One per column, in the order given to the constructor
+         * @return The row's id
+         */
+        long add(Object... values) throws SQLException {
+            if (values.length != columns) {
+                throw new SQLException(table + " takes " + columns + " values, got " + values.length);
+            }
+            long id = nextId++;
+            stmt.setLong(1, id);
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 2, values[i]);
+            }
+            stmt.addBatch();
+            rows++;
+            pending++;
+            return id;
+        }
+
+        /** Drop the rows added since the last flush. */
+        void clear() throws SQLException {
+            stmt.clearBatch();
+            nextId -= pending;
+            rows -= pending;
+            pending = 0;
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                stmt.executeBatch();
+                pending = 0;
+            }
+        }
+
+        void close() {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.cablemanagement.database;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Console logging for the db layer, gated by level.
+ *
+ * Messages below the current level are dropped before they are built: pass
+ * a {@code Supplier} wherever the message is concatenated from values, and
+ * a disabled call costs one volatile read. The level starts from
+ * -Dcablemanagement.logLevel (OFF, ERROR, WARN, INFO or DEBUG; INFO when
+ * unset) and can be changed at run time from the Diagnostics page.
+ * Debug and info go to standard out, warnings and errors to standard error.
+ */
+public final class DbLog {
+
+    public enum Level { OFF, ERROR, WARN, INFO, DEBUG }
+
+    private static volatile Level level = parse(System.getProperty("cablemanagement.logLevel"), Level.INFO);
+
+    private DbLog() {}
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel != null ? newLevel : Level.INFO;
+    }
+
+    public static boolean isEnabled(Level at) {
+        return at != Level.OFF && level.ordinal() >= at.ordinal();
+    }
+
+    public static boolean isDebugEnabled() {
+        return level == Level.DEBUG;
+    }
+
+    public static void debug(String message) {
+        if (level == Level.DEBUG) {
+            System.out.println("DEBUG: " + message);
+        }
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (level == Level.DEBUG) {
+            System.out.println("DEBUG: " + message.get());
+        }
+    }
+
+    public static void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            System.out.println(message);
+        }
+    }
+
+    public static void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            System.out.println(message.get());
+        }
+    }
+
+    public static void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            System.err.println("WARNING: " + message);
+        }
+    }
+
+    public static void error(String message) {
+        if (isEnabled(Level.ERROR)) {
+            System.err.println("ERROR: " + message);
+        }
+    }
+
+    private static Level parse(String value, Level fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("WARNING: Unknown log level '" + value + "', using " + fallback);
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.cablemanagement.database;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-method call counts, latency, rows returned and statements executed
+ * for the {@link db} interface.
+ *
+ * {@link #instrument} wraps a db in a proxy that times every call made
+ * through it. Calls SQLiteDatabase makes to itself are not seen, so each
+ * figure belongs to the method the caller asked for. Statements are taken
+ * from {@link StatementCounter} and stay at 0 unless it was enabled before
+ * the connection pool opened. Rows are the size of a returned collection,
+ * 1 for a returned record (Object[]) and the row count of streamReport.
+ *
+ * Latency goes into a histogram with four buckets per power of two, so a
+ * percentile is within about 20% of the true value and recording never
+ * allocates. The Diagnostics page in Settings shows {@link #snapshot()};
+ * {@link #startPeriodicDump} also writes it to a file.
+ */
+public final class DbMetrics {
+
+    private static final Map<Method, MethodStats> STATS = new ConcurrentHashMap<>();
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static ScheduledExecutorService dumper;
+    private static Path dumpFile;
+
+    private DbMetrics() {}
+
+    /**
+     * A db that records every call into this class before handing it to the target.
+     */
+    public static db instrument(db target) {
+        return (db) Proxy.newProxyInstance(
+            db.class.getClassLoader(),
+            new Class<?>[] {db.class},
+            new Handler(target));
+    }
+
+    /**
+     * Figures for every method called so far, slowest in total first.
+     */
+    public static List<MethodSnapshot> snapshot() {
+        List<MethodSnapshot> rows = new ArrayList<>(STATS.size());
+        for (MethodStats stats : STATS.values()) {
+            rows.add(stats.snapshot());
+        }
+        rows.sort(Comparator.comparingDouble(MethodSnapshot::totalMillis).reversed());
+        return rows;
+    }
+
+    public static void reset() {
+        STATS.clear();
+    }
+
+    /**
+     * The snapshot as a fixed-width text table.
+     */
+    public static String report() {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.printf("db metrics at %s%n", LocalDateTime.now().format(TIMESTAMP));
+        out.printf("%-52s %8s %6s %9s %9s %9s %11s %10s %10s%n",
+                   "Method", "Calls", "Errors", "p50 ms", "p99 ms", "Max ms", "Total ms", "Rows", "Stmts");
+        for (MethodSnapshot row : snapshot()) {
+            out.printf("%-52s %8d %6d %9.3f %9.3f %9.3f %11.1f %10d %10d%n",
+                       row.method(), row.calls(), row.errors(), row.p50Millis(), row.p99Millis(),
+                       row.maxMillis(), row.totalMillis(), row.rows(), row.statements());
+        }
+        out.flush();
+        return text.toString();
+    }
+
+    /**
+     * Rewrite the file with {@link #report()} every period, on a daemon
+     * thread, and once more from {@link #stopPeriodicDump()}.
+     */
+    public static synchronized void startPeriodicDump(Path file, long periodSeconds) {
+        stopPeriodicDump();
+        dumpFile = file;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(DbMetrics::dumpNow, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+            dumpNow();
+        }
+    }
+
+    /**
+     * Write {@link #report()} to the dump file now.
+     * @return The file written, or null if no dump is set up or writing failed
+     */
+    public static Path dumpNow() {
+        Path file = dumpFile;
+        if (file == null) {
+            return null;
+        }
+        try {
+            // Written aside and moved, so a reader never sees half a report
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, report().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            DbLog.error("Could not write db metrics to " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static int rowsOf(Method method, Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Object[]) {
+            return 1;
+        }
+        if (result instanceof Integer && method.getName().equals("streamReport")) {
+            return (Integer) result;
+        }
+        return 0;
+    }
+
+    private static String signature(Method method) {
+        StringBuilder sb = new StringBuilder(method.getName()).append('(');
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(types[i].getSimpleName());
+        }
+        return sb.append(')').toString();
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final db target;
+
+        Handler(db target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            MethodStats stats = STATS.computeIfAbsent(method, m -> new MethodStats(signature(m)));
+            long statementsBefore = StatementCounter.get();
+            long start = System.nanoTime();
+            Object result = null;
+            boolean failed = false;
+            try {
+                result = method.invoke(target, args);
+                return result;
+            } catch (InvocationTargetException e) {
+                failed = true;
+                throw e.getCause();
+            } finally {
+                long nanos = System.nanoTime() - start;
+                stats.record(nanos, failed, rowsOf(method, result), StatementCounter.get() - statementsBefore);
+            }
+        }
+    }
+
+    private static final class MethodStats {
+        private final String method;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        MethodStats(String method) {
+            this.method = method;
+        }
+
+        void record(long nanos, boolean failed, int rowCount, long statementCount) {
+            calls.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            rows.add(rowCount);
+            statements.add(statementCount);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            latency.record(nanos);
+        }
+
+        MethodSnapshot snapshot() {
+            long max = maxNanos.get();
+            return new MethodSnapshot(method, calls.sum(), errors.sum(),
+                                      millis(Math.min(latency.percentile(0.50), max)),
+                                      millis(Math.min(latency.percentile(0.99), max)),
+                                      millis(max), millis(totalNanos.sum()), rows.sum(), statements.sum());
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Counts of durations in log-linear buckets: bucket 4e + s holds the
+     * durations from (4 + s) * 2^(e-2) up to just below (5 + s) * 2^(e-2)
+     * nanoseconds.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKETS = 4;
+        private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+        void record(long nanos) {
+            counts.incrementAndGet(index(Math.max(nanos, 1)));
+        }
+
+        /**
+         * The upper edge of the bucket holding the given fraction of the recorded durations.
+         */
+        long percentile(double fraction) {
+            long total = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                total += counts.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return upperEdge(i);
+                }
+            }
+            return upperEdge(counts.length() - 1);
+        }
+
+        static int index(long nanos) {
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            if (exponent < 2) {
+                return (int) nanos; // 1..3 ns, one bucket each
+            }
+            int sub = (int) (nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+            return exponent * SUB_BUCKETS + sub;
+        }
+
+        static long upperEdge(int index) {
+            int exponent = index / SUB_BUCKETS;
+            if (exponent < 2) {
+                return index + 1;
+            }
+            int sub = index % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + sub + 1) << (exponent - 2);
+        }
+    }
+
+    public record MethodSnapshot(String method, long calls, long errors, double p50Millis, double p99Millis,
+                                 double maxMillis, double totalMillis, long rows, long statements) {}
+}
@@ -0,0 +1,205 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Document number sequences, one row per prefix in Invoice_Sequence.
+ *
+ * The row holds the next number to hand out for that prefix. Forms show it
+ * with {@link #peek(String)} (a primary-key lookup, served from memory after
+ * the first call), but that is only a preview: the insert methods take the
+ * number they store with {@link #assign}, an atomic increment of the row in
+ * the same transaction as the invoice insert. Two terminals can therefore
+ * never store the same number, the sequence only moves when the invoice row
+ * is committed, and numbers stay gapless. A form that previewed a number
+ * another terminal took meanwhile gets the next one, see
+ * {@link #assignedNumber(String)}.
+ *
+ * A sequence row is seeded once from the highest number already stored in
+ * its invoice table, using the seed query registered for the prefix.
+ */
+public class InvoiceSequence {
+
+    private final Connection connection;
+    private final Map<String, String> seedQueries = new HashMap<>();
+    private final Map<String, Long> cache = new HashMap<>();
+    // Previewed number -> stored number of the latest inserts, for the forms that previewed them
+    private final Map<String, String> assigned = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > 32;
+        }
+    };
+
+    public InvoiceSequence(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Register how to find the highest number already used for a prefix.
+     * @param prefix The document prefix, e.g. "SI-"
+     * @param seedQuery A query returning a single integer (the highest used number, or 0)
+     */
+    public synchronized void register(String prefix, String seedQuery) {
+        seedQueries.put(prefix, seedQuery);
+    }
+
+    /**
+     * Next number that will be assigned for the prefix, without consuming it.
+     */
+    public synchronized long peek(String prefix) throws SQLException {
+        Long cached = cache.get(prefix);
+        if (cached != null) {
+            return cached;
+        }
+        long next = readOrSeed(prefix);
+        cache.put(prefix, next);
+        return next;
+    }
+
+    /**
+     * The number to store a document under. A number of the prefix's pattern
+     * is taken as a preview and replaced by the next one reserved with
+     * {@link #reserveBlock}; anything else was typed by hand and is kept.
+     * Call this on the writer connection inside the transaction that inserts
+     * the document, so the number and the row commit or roll back together,
+     * and {@link #invalidate} the prefix if it rolls back.
+     * @param format The number's format, as for the preview, e.g. "%03d"
+     * @param previewed The number the form showed
+     */
+    public synchronized String assign(String prefix, String format, String previewed) throws SQLException {
+        if (parseNumber(prefix, previewed) < 0) {
+            return previewed;
+        }
+        String number = prefix + String.format(format, reserveBlock(prefix, 1));
+        // The cache is refreshed from the row on next peek, after the caller's transaction settles
+        cache.remove(prefix);
+        assigned.put(previewed, number);
+        return number;
+    }
+
+    /**
+     * The number the latest {@link #assign} of a previewed number stored, e.g.
+     * to print the invoice under it.
+     * @return The stored number; the previewed one if it was kept or is unknown
+     */
+    public synchronized String assignedNumber(String previewed) {
+        return assigned.getOrDefault(previewed, previewed);
+    }
+
+    /**
+     * Move the sequence past a number a bulk load stored itself, e.g. the
+     * generated invoices of {@link DataGenerator}. Documents entered through
+     * the forms take their numbers from {@link #assign} instead.
+     * @param prefix The document prefix
+     * @param invoiceNumber The highest full invoice number that was inserted
+     */
+    public synchronized void advancePast(String prefix, String invoiceNumber) throws SQLException {
+        long used = parseNumber(prefix, invoiceNumber);
+        if (used < 0) {
+            // Manually typed number that doesn't follow the pattern; nothing to advance
+            return;
+        }
+        readOrSeed(prefix);
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "UPDATE Invoice_Sequence SET next_value = MAX(next_value, ?) WHERE prefix = ?")) {
+            pstmt.setLong(1, used + 1);
+            pstmt.setString(2, prefix);
+            pstmt.executeUpdate();
+        }
+        // The cache is refreshed from the row on next peek, after this transaction settles
+        cache.remove(prefix);
+    }
+
+    /**
+     * Reserve a contiguous block of numbers, e.g. for a batch import.
+     * @param prefix The document prefix
+     * @param count How many numbers to reserve
+     * @return The first reserved number; the block is [first, first + count)
+     */
+    public synchronized long reserveBlock(String prefix, int count) throws SQLException {
+        boolean ownTransaction = connection.getAutoCommit();
+        if (ownTransaction) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            long first = readOrSeed(prefix);
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "UPDATE Invoice_Sequence SET next_value = next_value + ? WHERE prefix = ?")) {
+                pstmt.setInt(1, count);
+                pstmt.setString(2, prefix);
+                pstmt.executeUpdate();
+            }
+            if (ownTransaction) {
+                connection.commit();
+            }
+            cache.put(prefix, first + count);
+            return first;
+        } catch (SQLException e) {
+            if (ownTransaction) {
+                connection.rollback();
+            }
+            cache.remove(prefix);
+            throw e;
+        } finally {
+            if (ownTransaction) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Drop the cached value for a prefix so the next peek reads the table.
+     */
+    public synchronized void invalidate(String prefix) {
+        cache.remove(prefix);
+    }
+
+    private long readOrSeed(String prefix) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT next_value FROM Invoice_Sequence WHERE prefix = ?")) {
+            pstmt.setString(1, prefix);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        }
+
+        long highest = 0;
+        String seedQuery = seedQueries.get(prefix);
+        if (seedQuery != null) {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(seedQuery)) {
+                if (rs.next()) {
+                    highest = rs.getLong(1);
+                }
+            }
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO Invoice_Sequence (prefix, next_value) VALUES (?, ?)")) {
+            pstmt.setString(1, prefix);
+            pstmt.setLong(2, highest + 1);
+            pstmt.executeUpdate();
+        }
+        return highest + 1;
+    }
+
+    private long parseNumber(String prefix, String invoiceNumber) {
+        if (invoiceNumber == null || !invoiceNumber.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(invoiceNumber.substring(prefix.length()).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
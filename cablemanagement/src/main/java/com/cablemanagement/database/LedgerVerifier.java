@@ -0,0 +1,146 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Recomputes the customer and supplier running-balance chains and reports
+ * drift: a ledger row whose balance_after_transaction doesn't follow from
+ * the row before it, or a party whose last ledger balance differs from the
+ * balance stored on the party row.
+ *
+ * Runs on a reader connection, so it can be started in the background at
+ * any time without blocking writes.
+ */
+public class LedgerVerifier {
+
+    private static final double TOLERANCE = 0.005;
+
+    private final ConnectionPool pool;
+
+    public LedgerVerifier(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Verify every chain on the background query pool. Problems are logged as
+     * warnings and returned through the future.
+     */
+    public CompletableFuture<List<String>> verifyInBackground() {
+        return QueryExecutor.submit(() -> {
+            List<String> problems = verifyAll();
+            for (String problem : problems) {
+                DbLog.warn("Ledger drift - " + problem);
+            }
+            DbLog.debug(() -> "Ledger verification finished, " + problems.size() + " problem(s)");
+            return problems;
+        });
+    }
+
+    /**
+     * Verify every customer and supplier chain.
+     * @return A description of each drift found; empty when all chains are consistent
+     */
+    public List<String> verifyAll() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        Connection reader = pool.borrowReader();
+        try {
+            verify(reader, PartyLedger.CUSTOMER, null, problems);
+            verify(reader, PartyLedger.SUPPLIER, null, problems);
+        } finally {
+            pool.release(reader);
+        }
+        return problems;
+    }
+
+    /**
+     * Verify a single customer's chain.
+     */
+    public List<String> verifyCustomer(int customerId) throws SQLException {
+        return verifyOne(PartyLedger.CUSTOMER, customerId);
+    }
+
+    /**
+     * Verify a single supplier's chain.
+     */
+    public List<String> verifySupplier(int supplierId) throws SQLException {
+        return verifyOne(PartyLedger.SUPPLIER, supplierId);
+    }
+
+    private List<String> verifyOne(PartyLedger ledger, int partyId) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        Connection reader = pool.borrowReader();
+        try {
+            verify(reader, ledger, partyId, problems);
+        } finally {
+            pool.release(reader);
+        }
+        return problems;
+    }
+
+    /**
+     * Walk the ledger in posting order, one party after another. The first
+     * row of each chain is trusted as the starting point, since rows written
+     * before the ledger was kept in step may not start from zero.
+     */
+    private void verify(Connection reader, PartyLedger ledger, Integer partyId, List<String> problems) throws SQLException {
+        String query = "SELECT p." + ledger.idColumn + ", p." + ledger.nameColumn + ", p.balance, " +
+                       "t.transaction_id, t.transaction_type, t.amount, t.balance_after_transaction " +
+                       "FROM " + ledger.ledgerTable + " t JOIN " + ledger.partyTable + " p " +
+                       "ON p." + ledger.idColumn + " = t." + ledger.idColumn + " " +
+                       (partyId != null ? "WHERE t." + ledger.idColumn + " = ? " : "") +
+                       "ORDER BY t." + ledger.idColumn + ", t.transaction_id";
+
+        try (PreparedStatement pstmt = reader.prepareStatement(query)) {
+            if (partyId != null) {
+                pstmt.setInt(1, partyId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int currentParty = -1;
+                String currentName = null;
+                double storedBalance = 0.0;
+                double running = 0.0;
+
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    double delta = ledger.signedAmount(rs.getString(5), rs.getDouble(6));
+                    double balanceAfter = rs.getDouble(7);
+
+                    if (id != currentParty) {
+                        if (currentParty != -1) {
+                            checkFinal(ledger, currentName, running, storedBalance, problems);
+                        }
+                        currentParty = id;
+                        currentName = rs.getString(2);
+                        storedBalance = rs.getDouble(3);
+                        running = balanceAfter - delta;
+                    }
+
+                    running += delta;
+                    if (Math.abs(running - balanceAfter) > TOLERANCE) {
+                        problems.add(ledger.partyTable + " '" + currentName + "' transaction " + rs.getLong(4) +
+                                     ": expected balance " + String.format("%.2f", running) +
+                                     ", recorded " + String.format("%.2f", balanceAfter));
+                        // Continue from the recorded value so one bad row is reported once
+                        running = balanceAfter;
+                    }
+                }
+                if (currentParty != -1) {
+                    checkFinal(ledger, currentName, running, storedBalance, problems);
+                }
+            }
+        }
+    }
+
+    private void checkFinal(PartyLedger ledger, String name, double running, double storedBalance, List<String> problems) {
+        if (Math.abs(running - storedBalance) > TOLERANCE) {
+            problems.add(ledger.partyTable + " '" + name + "': ledger ends at " + String.format("%.2f", running) +
+                         " but stored balance is " + String.format("%.2f", storedBalance));
+        }
+    }
+}
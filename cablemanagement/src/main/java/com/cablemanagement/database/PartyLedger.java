@@ -0,0 +1,173 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Running-balance ledger for customers and suppliers.
+ *
+ * Every change to Customer.balance / Supplier.balance goes through
+ * {@link #post}, which applies the change and appends a row to the party's
+ * transaction table carrying balance_after_transaction, on the caller's
+ * connection and transaction. The ledger row for an invoice therefore holds
+ * the balance right after that invoice, and the balance before it is one
+ * indexed lookup away instead of being rebuilt from the current balance.
+ *
+ * Amounts are stored the way the ledger screens show them: payments are
+ * positive and reduce the balance, every other type is added as signed.
+ */
+final class PartyLedger {
+
+    static final PartyLedger CUSTOMER = new PartyLedger(
+        "Customer", "customer_id", "customer_name", "Customer_Transaction", "payment_received");
+    static final PartyLedger SUPPLIER = new PartyLedger(
+        "Supplier", "supplier_id", "supplier_name", "Supplier_Transaction", "payment_made");
+
+    static final String INVOICE_CHARGE = "invoice_charge";
+    static final String ADJUSTMENT = "adjustment";
+    static final String OPENING_BALANCE = "opening_balance";
+
+    final String partyTable;
+    final String idColumn;
+    final String nameColumn;
+    final String ledgerTable;
+    final String paymentType;
+
+    private PartyLedger(String partyTable, String idColumn, String nameColumn,
+                        String ledgerTable, String paymentType) {
+        this.partyTable = partyTable;
+        this.idColumn = idColumn;
+        this.nameColumn = nameColumn;
+        this.ledgerTable = ledgerTable;
+        this.paymentType = paymentType;
+    }
+
+    /**
+     * Change a party's balance and record it in the ledger. Must run inside
+     * the caller's transaction so the balance and the ledger row commit together.
+     * @param delta Signed change to the balance
+     * @param type One of the transaction_type values; for payments the stored amount is -delta
+     * @return The balance after the posting
+     */
+    double post(Connection connection, int partyId, double delta, String date, String type,
+                String description, String referenceInvoiceNumber) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "UPDATE " + partyTable + " SET balance = balance + ? WHERE " + idColumn + " = ?")) {
+            pstmt.setDouble(1, delta);
+            pstmt.setInt(2, partyId);
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException(partyTable + " " + partyId + " not found");
+            }
+        }
+
+        double balanceAfter = 0.0;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT balance FROM " + partyTable + " WHERE " + idColumn + " = ?")) {
+            pstmt.setInt(1, partyId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    balanceAfter = rs.getDouble(1);
+                }
+            }
+        }
+
+        // The first posting for a party opens its chain with whatever balance it already carried
+        double balanceBefore = balanceAfter - delta;
+        if (balanceBefore != 0.0 && !hasEntries(connection, partyId)) {
+            insertEntry(connection, partyId, date, OPENING_BALANCE, balanceBefore,
+                        "Opening balance", null, balanceBefore);
+        }
+
+        double amount = paymentType.equals(type) ? -delta : delta;
+        insertEntry(connection, partyId, date, type, amount, description, referenceInvoiceNumber, balanceAfter);
+        return balanceAfter;
+    }
+
+    /**
+     * Balance just before the posting that references an invoice.
+     * @return The previous balance, or null if the invoice has no ledger row
+     */
+    Double balanceBeforeInvoice(Connection connection, String partyName, String invoiceNumber) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(balanceBeforeInvoiceSql())) {
+            pstmt.setString(1, partyName);
+            pstmt.setString(2, invoiceNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getDouble(3) - signedAmount(rs.getString(1), rs.getDouble(2));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Balance at the end of a day: the signed amounts of every posting dated
+     * on or before it, summed. balance_after_transaction can't be used here, as
+     * it follows posting order and a back-dated posting carries the balance of
+     * everything posted before it, later days included.
+     * @return The balance, or null if the party has no ledger rows up to that date
+     */
+    Double balanceAsOf(Connection connection, String partyName, String date) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(balanceAsOfSql())) {
+            pstmt.setString(1, paymentType);
+            pstmt.setString(2, partyName);
+            pstmt.setString(3, date);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return rs.getDouble(2);
+                }
+            }
+        }
+        return null;
+    }
+
+    String balanceBeforeInvoiceSql() {
+        return "SELECT t.transaction_type, t.amount, t.balance_after_transaction " +
+               "FROM " + partyTable + " p JOIN " + ledgerTable + " t ON t." + idColumn + " = p." + idColumn + " " +
+               "WHERE p." + nameColumn + " = ? AND t.reference_invoice_number = ? " +
+               "ORDER BY t.transaction_id DESC LIMIT 1";
+    }
+
+    String balanceAsOfSql() {
+        // Same signs as signedAmount
+        return "SELECT COUNT(*), COALESCE(SUM(CASE WHEN t.transaction_type = ? THEN -t.amount ELSE t.amount END), 0) " +
+               "FROM " + partyTable + " p JOIN " + ledgerTable + " t ON t." + idColumn + " = p." + idColumn + " " +
+               "WHERE p." + nameColumn + " = ? AND t.transaction_date <= ?";
+    }
+
+    /**
+     * The change a ledger row made to the balance.
+     */
+    double signedAmount(String type, double amount) {
+        return paymentType.equals(type) ? -amount : amount;
+    }
+
+    private boolean hasEntries(Connection connection, int partyId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT 1 FROM " + ledgerTable + " WHERE " + idColumn + " = ? LIMIT 1")) {
+            pstmt.setInt(1, partyId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private void insertEntry(Connection connection, int partyId, String date, String type, double amount,
+                             String description, String referenceInvoiceNumber, double balanceAfter) throws SQLException {
+        String query = "INSERT INTO " + ledgerTable + " (" + idColumn + ", transaction_date, transaction_type, " +
+                       "amount, description, reference_invoice_number, balance_after_transaction) " +
+                       "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, partyId);
+            pstmt.setString(2, date);
+            pstmt.setString(3, type);
+            pstmt.setDouble(4, amount);
+            pstmt.setString(5, description);
+            pstmt.setString(6, referenceInvoiceNumber);
+            pstmt.setDouble(7, balanceAfter);
+            pstmt.executeUpdate();
+        }
+    }
+}
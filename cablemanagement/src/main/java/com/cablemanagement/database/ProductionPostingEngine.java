@@ -0,0 +1,283 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Posts a production run in one short transaction on the writer connection:
+ * the invoice row, the products made as one batch plus one batch of stock
+ * increases, and the raw materials used.
+ *
+ * The raw materials are either the ones given with the run or, when none
+ * are, derived from each product's Bill_Of_Materials with one
+ * INSERT ... SELECT. Either way they are then checked against
+ * Raw_Stock.quantity with a single query over the run's usage rows, summed
+ * per material, and taken off the raw stock with a single UPDATE. A run that
+ * needs more of any material than is in stock fails as a whole.
+ *
+ * The materials are issued from their cost layers (see {@link StockCosting})
+ * and their cost is spread over the products made, in proportion to each
+ * product's quantity times its unit cost, to open the products' layers. A
+ * run that used no materials puts its products in at their unit cost.
+ */
+public class ProductionPostingEngine {
+
+    private static final String INSERT_INVOICE =
+        "INSERT INTO Production_Invoice (production_date, notes) VALUES (?, ?)";
+    private static final String INSERT_ITEM =
+        "INSERT INTO Production_Invoice_Item (production_invoice_id, production_id, quantity_produced) " +
+        "VALUES (?, ?, ?)";
+    private static final String INCREASE_STOCK =
+        "UPDATE ProductionStock SET quantity = quantity + ? WHERE production_id = ?";
+    private static final String INSERT_USAGE =
+        "INSERT INTO Production_Stock_Raw_Usage (production_invoice_id, raw_stock_id, quantity_used) " +
+        "VALUES (?, ?, ?)";
+    private static final String DERIVE_USAGE =
+        "INSERT INTO Production_Stock_Raw_Usage (production_invoice_id, raw_stock_id, quantity_used) " +
+        "SELECT pii.production_invoice_id, bom.raw_stock_id, SUM(pii.quantity_produced * bom.quantity_per_unit) " +
+        "FROM Production_Invoice_Item pii " +
+        "JOIN Bill_Of_Materials bom ON bom.production_id = pii.production_id " +
+        "WHERE pii.production_invoice_id = ? " +
+        "GROUP BY bom.raw_stock_id";
+    private static final String FIND_SHORTAGES =
+        "SELECT rs.item_name, rs.quantity, u.needed " +
+        "FROM (SELECT raw_stock_id, SUM(quantity_used) AS needed FROM Production_Stock_Raw_Usage " +
+        "      WHERE production_invoice_id = ? GROUP BY raw_stock_id) u " +
+        "JOIN Raw_Stock rs ON rs.stock_id = u.raw_stock_id " +
+        "WHERE rs.quantity < u.needed " +
+        "ORDER BY rs.item_name";
+    private static final String DECREASE_RAW_STOCK =
+        "UPDATE Raw_Stock SET quantity = quantity - " +
+        "(SELECT SUM(u.quantity_used) FROM Production_Stock_Raw_Usage u " +
+        " WHERE u.production_invoice_id = ? AND u.raw_stock_id = Raw_Stock.stock_id) " +
+        "WHERE stock_id IN (SELECT raw_stock_id FROM Production_Stock_Raw_Usage WHERE production_invoice_id = ?)";
+    private static final String USAGE_TOTALS =
+        "SELECT raw_stock_id, SUM(quantity_used) AS used FROM Production_Stock_Raw_Usage " +
+        "WHERE production_invoice_id = ? GROUP BY raw_stock_id";
+    private static final String ITEM_COSTS =
+        "SELECT pii.production_id, pii.quantity_produced, ps.unit_cost " +
+        "FROM Production_Invoice_Item pii JOIN ProductionStock ps ON ps.production_id = pii.production_id " +
+        "WHERE pii.production_invoice_id = ? ORDER BY pii.production_invoice_item_id";
+
+    private final Connection connection;
+    private final InvoiceSequence sequences;
+
+    private PreparedStatement insertInvoice;
+    private PreparedStatement insertItem;
+    private PreparedStatement increaseStock;
+    private PreparedStatement insertUsage;
+    private PreparedStatement deriveUsage;
+    private PreparedStatement findShortages;
+    private PreparedStatement decreaseRawStock;
+    private PreparedStatement usageTotals;
+    private PreparedStatement itemCosts;
+
+    public ProductionPostingEngine(Connection connection, InvoiceSequence sequences) {
+        this.connection = connection;
+        this.sequences = sequences;
+    }
+
+    /**
+     * Post a production run and everything it affects, all or nothing.
+     * @param items One entry per product made: {production_id (Integer), quantity_produced (Double)}
+     * @param rawMaterials One entry per material used: {raw_stock_id (Integer), quantity_used (Double)};
+     *                     null or empty to derive them from the products' bills of materials
+     * @return The new production_invoice_id
+     * @throws SQLException If any part fails or raw stock runs short; nothing is written in that case
+     */
+    public synchronized int post(String productionDate, String notes, List<Object[]> items,
+                                 List<Object[]> rawMaterials) throws SQLException {
+        if (items == null || items.isEmpty()) {
+            throw new SQLException("A production run needs at least one item");
+        }
+        prepare();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            // Production invoices have no number column, just consume the next PI- number.
+            // Reserved before the insert, since a fresh sequence is seeded from the invoice count.
+            long number = sequences.reserveBlock(SQLiteDatabase.PRODUCTION_INVOICE_PREFIX, 1);
+            int productionInvoiceId = insertInvoice(productionDate, notes);
+
+            for (Object[] item : items) {
+                insertItem.setInt(1, productionInvoiceId);
+                insertItem.setInt(2, (Integer) item[0]);
+                insertItem.setDouble(3, (Double) item[1]);
+                insertItem.addBatch();
+
+                increaseStock.setDouble(1, (Double) item[1]);
+                increaseStock.setInt(2, (Integer) item[0]);
+                increaseStock.addBatch();
+            }
+            insertItem.executeBatch();
+            int[] updated = increaseStock.executeBatch();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    throw new SQLException("Unknown product ID " + items.get(i)[0] + " (item " + (i + 1) + ")");
+                }
+            }
+
+            if (rawMaterials == null || rawMaterials.isEmpty()) {
+                deriveUsage.setInt(1, productionInvoiceId);
+                deriveUsage.executeUpdate();
+            } else {
+                for (Object[] material : rawMaterials) {
+                    insertUsage.setInt(1, productionInvoiceId);
+                    insertUsage.setInt(2, (Integer) material[0]);
+                    insertUsage.setDouble(3, (Double) material[1]);
+                    insertUsage.addBatch();
+                }
+                insertUsage.executeBatch();
+            }
+
+            String shortages = findShortages(productionInvoiceId);
+            if (shortages != null) {
+                throw new SQLException("Insufficient raw stock: " + shortages);
+            }
+            decreaseRawStock.setInt(1, productionInvoiceId);
+            decreaseRawStock.setInt(2, productionInvoiceId);
+            decreaseRawStock.executeUpdate();
+            costRun(productionInvoiceId, productionDate,
+                    SQLiteDatabase.PRODUCTION_INVOICE_PREFIX + String.format("%04d", number));
+
+            connection.commit();
+            return productionInvoiceId;
+        } catch (SQLException e) {
+            connection.rollback();
+            insertItem.clearBatch();
+            increaseStock.clearBatch();
+            insertUsage.clearBatch();
+            sequences.invalidate(SQLiteDatabase.PRODUCTION_INVOICE_PREFIX);
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Close the cached statements. They are prepared again on the next post.
+     */
+    public synchronized void close() {
+        closeQuietly(insertInvoice);
+        closeQuietly(insertItem);
+        closeQuietly(increaseStock);
+        closeQuietly(insertUsage);
+        closeQuietly(deriveUsage);
+        closeQuietly(findShortages);
+        closeQuietly(decreaseRawStock);
+        closeQuietly(usageTotals);
+        closeQuietly(itemCosts);
+        insertInvoice = null;
+        insertItem = null;
+        increaseStock = null;
+        insertUsage = null;
+        deriveUsage = null;
+        findShortages = null;
+        decreaseRawStock = null;
+        usageTotals = null;
+        itemCosts = null;
+    }
+
+    private int insertInvoice(String productionDate, String notes) throws SQLException {
+        insertInvoice.setString(1, productionDate);
+        insertInvoice.setString(2, notes);
+        insertInvoice.executeUpdate();
+        // Read the key before anything else is inserted on this connection
+        try (ResultSet keys = insertInvoice.getGeneratedKeys()) {
+            if (keys.next()) {
+                return keys.getInt(1);
+            }
+        }
+        throw new SQLException("No id returned for production invoice dated " + productionDate);
+    }
+
+    /**
+     * @return The materials the run needs more of than is in stock, as
+     *         "name (needs x, has y)" joined by "; ", or null if there are none
+     */
+    private String findShortages(int productionInvoiceId) throws SQLException {
+        findShortages.setInt(1, productionInvoiceId);
+        StringBuilder shortages = null;
+        try (ResultSet rs = findShortages.executeQuery()) {
+            while (rs.next()) {
+                shortages = shortages == null ? new StringBuilder() : shortages.append("; ");
+                shortages.append(rs.getString("item_name"))
+                         .append(" (needs ").append(rs.getDouble("needed"))
+                         .append(", has ").append(rs.getDouble("quantity")).append(")");
+            }
+        }
+        return shortages == null ? null : shortages.toString();
+    }
+
+    /**
+     * Issue the run's raw materials from their cost layers and open a layer
+     * for each product made, carrying its share of their cost.
+     */
+    private void costRun(int productionInvoiceId, String productionDate, String reference) throws SQLException {
+        double rawCost = 0.0;
+        usageTotals.setInt(1, productionInvoiceId);
+        List<double[]> usage = new ArrayList<>();
+        try (ResultSet rs = usageTotals.executeQuery()) {
+            while (rs.next()) {
+                usage.add(new double[] {rs.getInt("raw_stock_id"), rs.getDouble("used")});
+            }
+        }
+        StockCosting.Method costing = StockCosting.method(connection);
+        for (double[] material : usage) {
+            rawCost += StockCosting.RAW.issue(connection, (int) material[0], material[1], costing);
+        }
+
+        itemCosts.setInt(1, productionInvoiceId);
+        List<double[]> products = new ArrayList<>();
+        double totalWeight = 0.0;
+        double totalQuantity = 0.0;
+        try (ResultSet rs = itemCosts.executeQuery()) {
+            while (rs.next()) {
+                double quantity = rs.getDouble("quantity_produced");
+                double standardCost = rs.getDouble("unit_cost");
+                products.add(new double[] {rs.getInt("production_id"), quantity, standardCost});
+                totalWeight += quantity * standardCost;
+                totalQuantity += quantity;
+            }
+        }
+        for (double[] product : products) {
+            double quantity = product[1];
+            double unitCost = product[2];
+            if (rawCost > 0 && quantity > 0) {
+                double share = totalWeight > 0 ? quantity * product[2] / totalWeight : quantity / totalQuantity;
+                unitCost = rawCost * share / quantity;
+            }
+            StockCosting.PRODUCT.receive(connection, (int) product[0], quantity, unitCost, productionDate,
+                                         "production", reference);
+        }
+    }
+
+    private void prepare() throws SQLException {
+        if (insertInvoice == null) {
+            insertInvoice = connection.prepareStatement(INSERT_INVOICE, Statement.RETURN_GENERATED_KEYS);
+            insertItem = connection.prepareStatement(INSERT_ITEM);
+            increaseStock = connection.prepareStatement(INCREASE_STOCK);
+            insertUsage = connection.prepareStatement(INSERT_USAGE);
+            deriveUsage = connection.prepareStatement(DERIVE_USAGE);
+            findShortages = connection.prepareStatement(FIND_SHORTAGES);
+            decreaseRawStock = connection.prepareStatement(DECREASE_RAW_STOCK);
+            usageTotals = connection.prepareStatement(USAGE_TOTALS);
+            itemCosts = connection.prepareStatement(ITEM_COSTS);
+        }
+    }
+
+    private void closeQuietly(Statement stmt) {
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                // already closed with the connection
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.cablemanagement.database;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The production stock list, stored column by column.
+ *
+ * Ids and quantities are int[] and money columns double[], so no value is
+ * boxed; brand and unit names are dictionary-encoded. Rows are addressed by
+ * index (0 .. size()-1) in the order of the query, i.e. by product name.
+ * Product and brand names are also kept lower-cased once so that
+ * {@link #filter} does not lower-case every row on every keystroke.
+ *
+ * Built by {@link db#getProductionStockTable()}; read-only afterwards and
+ * safe to share between threads.
+ */
+public final class ProductionStockTable {
+
+    private int size;
+    private int[] ids;
+    private String[] names;
+    private String[] searchNames;
+    private int[] brandCodes;
+    private int[] unitCodes;
+    private int[] quantities;
+    private double[] unitCosts;
+    private double[] salePrices;
+    private double[] totalCosts;
+    private String[] productionDates;
+    private final StringDictionary brands = new StringDictionary();
+    private final StringDictionary units = new StringDictionary();
+
+    ProductionStockTable(int capacity) {
+        int initial = Math.max(capacity, 16);
+        ids = new int[initial];
+        names = new String[initial];
+        searchNames = new String[initial];
+        brandCodes = new int[initial];
+        unitCodes = new int[initial];
+        quantities = new int[initial];
+        unitCosts = new double[initial];
+        salePrices = new double[initial];
+        totalCosts = new double[initial];
+        productionDates = new String[initial];
+    }
+
+    void add(int id, String name, String brand, String unit, int quantity,
+             double unitCost, double salePrice, double totalCost, String productionDate) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        names[size] = name;
+        searchNames[size] = name != null ? name.toLowerCase(Locale.ROOT) : "";
+        brandCodes[size] = brands.encode(brand);
+        unitCodes[size] = units.encode(unit);
+        quantities[size] = quantity;
+        unitCosts[size] = unitCost;
+        salePrices[size] = salePrice;
+        totalCosts[size] = totalCost;
+        productionDates[size] = productionDate;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        searchNames = Arrays.copyOf(searchNames, capacity);
+        brandCodes = Arrays.copyOf(brandCodes, capacity);
+        unitCodes = Arrays.copyOf(unitCodes, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        unitCosts = Arrays.copyOf(unitCosts, capacity);
+        salePrices = Arrays.copyOf(salePrices, capacity);
+        totalCosts = Arrays.copyOf(totalCosts, capacity);
+        productionDates = Arrays.copyOf(productionDates, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public String getName(int row) {
+        return names[row];
+    }
+
+    public String getBrand(int row) {
+        return brands.decode(brandCodes[row]);
+    }
+
+    /**
+     * @return The unit name, "N/A" if the product has none
+     */
+    public String getUnit(int row) {
+        String unit = units.decode(unitCodes[row]);
+        return unit != null ? unit : "N/A";
+    }
+
+    public int getQuantity(int row) {
+        return quantities[row];
+    }
+
+    public double getUnitCost(int row) {
+        return unitCosts[row];
+    }
+
+    public double getSalePrice(int row) {
+        return salePrices[row];
+    }
+
+    public double getTotalCost(int row) {
+        return totalCosts[row];
+    }
+
+    public String getProductionDate(int row) {
+        return productionDates[row];
+    }
+
+    /**
+     * @return The distinct brand names, in order of first appearance
+     */
+    public List<String> getBrands() {
+        return brands.values();
+    }
+
+    /**
+     * Rows whose product or brand name contains the search text (ignoring
+     * case) and, unless brand is null or "All Brands", whose brand is exactly
+     * that brand.
+     * @return Matching row indexes in table order
+     */
+    public int[] filter(String searchText, String brand) {
+        String search = searchText != null ? searchText.trim().toLowerCase(Locale.ROOT) : "";
+        int wantedBrand = -1;
+        if (brand != null && !brand.equals("All Brands")) {
+            wantedBrand = brands.codeOf(brand);
+            if (wantedBrand < 0) {
+                return new int[0];
+            }
+        }
+
+        // Decide the brand side of the search once per distinct brand, not once per row
+        boolean[] brandMatches = new boolean[brands.size()];
+        for (int code = 0; code < brandMatches.length; code++) {
+            String name = brands.decode(code);
+            brandMatches[code] = name != null && name.toLowerCase(Locale.ROOT).contains(search);
+        }
+
+        int[] matches = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            int code = brandCodes[row];
+            if (wantedBrand >= 0 && code != wantedBrand) {
+                continue;
+            }
+            if (search.isEmpty() || brandMatches[code] || searchNames[row].contains(search)) {
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+}
@@ -0,0 +1,84 @@
+package com.cablemanagement.database;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded worker pool for running database queries off the JavaFX thread.
+ *
+ * The pool is sized to the number of reader connections so background
+ * queries don't queue up waiting for a connection. Submitted work must read
+ * on a connection from {@link ConnectionPool#borrowReader()}: the writer is
+ * used from the FX thread, whose open transactions a worker would otherwise
+ * see or run its statements inside. Work beyond the queue
+ * capacity is rejected (the returned future fails) rather than run on the
+ * caller's thread, which would defeat the purpose when the caller is the UI.
+ */
+public final class QueryExecutor {
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private QueryExecutor() {}
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        int threads = ConnectionPool.DEFAULT_READERS;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread t = new Thread(runnable, "db-query-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Run a query on the worker pool.
+     * @param query The work to run; it may throw, which completes the future exceptionally
+     * @return A future completed on the worker thread with the query result
+     */
+    public static <T> CompletableFuture<T> submit(Callable<T> query) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            EXECUTOR.execute(() -> {
+                if (future.isCancelled()) {
+                    return;
+                }
+                try {
+                    future.complete(query.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t instanceof CompletionException ? t.getCause() : t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Number of queries currently running or waiting.
+     */
+    public static int getPendingCount() {
+        return EXECUTOR.getActiveCount() + EXECUTOR.getQueue().size();
+    }
+
+    /**
+     * Stop accepting work. Called when the application exits.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+}
@@ -0,0 +1,105 @@
+package com.cablemanagement.database;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The raw stock list, stored column by column.
+ *
+ * Same layout as {@link ProductionStockTable}: primitive arrays for ids,
+ * quantities and money, dictionary-encoded brand and unit names, rows
+ * addressed by index in item name order. Built by
+ * {@link db#getRawStockTable()}; read-only afterwards.
+ */
+public final class RawStockTable {
+
+    private int size;
+    private int[] ids;
+    private String[] names;
+    private int[] brandCodes;
+    private int[] unitCodes;
+    private double[] quantities;
+    private double[] unitPrices;
+    private double[] totalCosts;
+    private final StringDictionary brands = new StringDictionary();
+    private final StringDictionary units = new StringDictionary();
+
+    RawStockTable(int capacity) {
+        int initial = Math.max(capacity, 16);
+        ids = new int[initial];
+        names = new String[initial];
+        brandCodes = new int[initial];
+        unitCodes = new int[initial];
+        quantities = new double[initial];
+        unitPrices = new double[initial];
+        totalCosts = new double[initial];
+    }
+
+    void add(int id, String name, String brand, String unit, double quantity, double unitPrice, double totalCost) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        names[size] = name;
+        brandCodes[size] = brands.encode(brand);
+        unitCodes[size] = units.encode(unit);
+        quantities[size] = quantity;
+        unitPrices[size] = unitPrice;
+        totalCosts[size] = totalCost;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        brandCodes = Arrays.copyOf(brandCodes, capacity);
+        unitCodes = Arrays.copyOf(unitCodes, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        unitPrices = Arrays.copyOf(unitPrices, capacity);
+        totalCosts = Arrays.copyOf(totalCosts, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public String getName(int row) {
+        return names[row];
+    }
+
+    public String getBrand(int row) {
+        return brands.decode(brandCodes[row]);
+    }
+
+    /**
+     * @return The unit name, "N/A" if the item has none
+     */
+    public String getUnit(int row) {
+        String unit = units.decode(unitCodes[row]);
+        return unit != null ? unit : "N/A";
+    }
+
+    public double getQuantity(int row) {
+        return quantities[row];
+    }
+
+    public double getUnitPrice(int row) {
+        return unitPrices[row];
+    }
+
+    public double getTotalCost(int row) {
+        return totalCosts[row];
+    }
+
+    /**
+     * @return The distinct brand names, in order of first appearance
+     */
+    public List<String> getBrands() {
+        return brands.values();
+    }
+}
@@ -0,0 +1,235 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copies of the reference tables the forms are built from:
+ * provinces, districts, tehsils, categories, units, manufacturers and brands.
+ *
+ * Each table is held as an immutable {@link Snapshot} (rows in display order
+ * plus name/id maps) in its own {@link TableSnapshotCache}, so an insert,
+ * update or delete on a table drops only the snapshots that read it, on
+ * commit. Snapshots also expire after a TTL, which is how changes made by
+ * another process on the same file are picked up; a cache hit never touches
+ * SQLite. The TTL comes from -Dcablemanagement.referenceCacheTtlSeconds
+ * (default {@value #DEFAULT_TTL_SECONDS}).
+ */
+public class ReferenceDataCache {
+
+    public static final long DEFAULT_TTL_SECONDS = 300;
+
+    private static final String PROVINCES =
+        "SELECT province_id, province_name FROM Province ORDER BY province_name";
+    private static final String DISTRICTS =
+        "SELECT district_id, district_name FROM District ORDER BY district_name";
+    private static final String TEHSILS =
+        "SELECT tehsil_id, tehsil_name FROM Tehsil ORDER BY tehsil_name";
+    private static final String CATEGORIES =
+        "SELECT category_id, category_name FROM Category ORDER BY category_name";
+    private static final String UNITS =
+        "SELECT unit_id, unit_name FROM Unit ORDER BY unit_name";
+    private static final String MANUFACTURERS =
+        "SELECT m.manufacturer_id, m.manufacturer_name, p.province_name, d.district_name, t.tehsil_name " +
+        "FROM Manufacturer m " +
+        "JOIN Tehsil t ON m.tehsil_id = t.tehsil_id " +
+        "JOIN District d ON t.district_id = d.district_id " +
+        "JOIN Province p ON d.province_id = p.province_id " +
+        "ORDER BY m.manufacturer_name";
+    private static final String BRANDS =
+        "SELECT b.brand_id, b.brand_name, p.province_name, d.district_name, t.tehsil_name " +
+        "FROM Brand b " +
+        "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id " +
+        "JOIN Tehsil t ON m.tehsil_id = t.tehsil_id " +
+        "JOIN District d ON t.district_id = d.district_id " +
+        "JOIN Province p ON d.province_id = p.province_id " +
+        "ORDER BY b.brand_name";
+
+    private final ConnectionPool pool;
+    private final TableSnapshotCache<Snapshot> provinces;
+    private final TableSnapshotCache<Snapshot> districts;
+    private final TableSnapshotCache<Snapshot> tehsils;
+    private final TableSnapshotCache<Snapshot> categories;
+    private final TableSnapshotCache<Snapshot> units;
+    private final TableSnapshotCache<Snapshot> manufacturers;
+    private final TableSnapshotCache<Snapshot> brands;
+
+    public ReferenceDataCache(ConnectionPool pool) {
+        this(pool, Long.getLong("cablemanagement.referenceCacheTtlSeconds", DEFAULT_TTL_SECONDS) * 1000);
+    }
+
+    public ReferenceDataCache(ConnectionPool pool, long ttlMillis) {
+        this.pool = pool;
+        this.provinces = new TableSnapshotCache<>("provinces", ttlMillis, "Province");
+        this.districts = new TableSnapshotCache<>("districts", ttlMillis, "District");
+        this.tehsils = new TableSnapshotCache<>("tehsils", ttlMillis, "Tehsil");
+        this.categories = new TableSnapshotCache<>("categories", ttlMillis, "Category");
+        this.units = new TableSnapshotCache<>("units", ttlMillis, "Unit");
+        this.manufacturers = new TableSnapshotCache<>("manufacturers", ttlMillis,
+            "Manufacturer", "Tehsil", "District", "Province");
+        this.brands = new TableSnapshotCache<>("brands", ttlMillis,
+            "Brand", "Manufacturer", "Tehsil", "District", "Province");
+    }
+
+    /**
+     * Listen for writes to the reference tables on the writer connection.
+     */
+    public void attach(Connection writer) throws SQLException {
+        for (TableSnapshotCache<Snapshot> cache : caches()) {
+            cache.attach(writer);
+        }
+    }
+
+    public Snapshot provinces() throws Exception {
+        return provinces.get(() -> load(PROVINCES));
+    }
+
+    public Snapshot districts() throws Exception {
+        return districts.get(() -> load(DISTRICTS));
+    }
+
+    public Snapshot tehsils() throws Exception {
+        return tehsils.get(() -> load(TEHSILS));
+    }
+
+    public Snapshot categories() throws Exception {
+        return categories.get(() -> load(CATEGORIES));
+    }
+
+    public Snapshot units() throws Exception {
+        return units.get(() -> load(UNITS));
+    }
+
+    /**
+     * Rows are {name, province, district, tehsil}.
+     */
+    public Snapshot manufacturers() throws Exception {
+        return manufacturers.get(() -> load(MANUFACTURERS));
+    }
+
+    /**
+     * Rows are {name, province, district, tehsil}.
+     */
+    public Snapshot brands() throws Exception {
+        return brands.get(() -> load(BRANDS));
+    }
+
+    /**
+     * Drop every snapshot, e.g. after a restore replaced the database file.
+     */
+    public void invalidateAll() {
+        for (TableSnapshotCache<Snapshot> cache : caches()) {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * One line per table with its hit and miss counts.
+     */
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        for (TableSnapshotCache<Snapshot> cache : caches()) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(cache);
+        }
+        return sb.toString();
+    }
+
+    private List<TableSnapshotCache<Snapshot>> caches() {
+        List<TableSnapshotCache<Snapshot>> all = new ArrayList<>();
+        Collections.addAll(all, provinces, districts, tehsils, categories, units, manufacturers, brands);
+        return all;
+    }
+
+    /**
+     * Run a reference query on a reader. Column 1 is the id, column 2 the
+     * name, any further columns are kept as text after the name.
+     */
+    private Snapshot load(String query) throws SQLException {
+        Connection reader = pool.borrowReader();
+        try (PreparedStatement stmt = reader.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            List<String[]> rows = new ArrayList<>();
+            Map<String, Integer> idsByName = new HashMap<>();
+            Map<Integer, String> namesById = new HashMap<>();
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                String[] row = new String[columns - 1];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = rs.getString(i + 2);
+                }
+                rows.add(row);
+                // Names aren't unique everywhere (tehsils); the first one wins, as with a plain lookup
+                idsByName.putIfAbsent(row[0], id);
+                namesById.put(id, row[0]);
+            }
+            return new Snapshot(rows, idsByName, namesById);
+        } finally {
+            pool.release(reader);
+        }
+    }
+
+    /**
+     * One reference table as it was when it was loaded. Never changes.
+     */
+    public static final class Snapshot {
+        private final List<String[]> rows;
+        private final List<String> names;
+        private final Map<String, Integer> idsByName;
+        private final Map<Integer, String> namesById;
+
+        Snapshot(List<String[]> rows, Map<String, Integer> idsByName, Map<Integer, String> namesById) {
+            List<String> nameList = new ArrayList<>(rows.size());
+            for (String[] row : rows) {
+                nameList.add(row[0]);
+            }
+            this.rows = Collections.unmodifiableList(rows);
+            this.names = Collections.unmodifiableList(nameList);
+            this.idsByName = Collections.unmodifiableMap(idsByName);
+            this.namesById = Collections.unmodifiableMap(namesById);
+        }
+
+        /**
+         * Names in display order.
+         */
+        public List<String> names() {
+            return names;
+        }
+
+        /**
+         * Column values after the id, in display order. The arrays are shared; don't modify them.
+         */
+        public List<String[]> rows() {
+            return rows;
+        }
+
+        /**
+         * @return The id for the name, or -1 if there is none
+         */
+        public int idOf(String name) {
+            Integer id = name != null ? idsByName.get(name) : null;
+            return id != null ? id : -1;
+        }
+
+        /**
+         * @return The name for the id, or null if there is none
+         */
+        public String nameOf(int id) {
+            return namesById.get(id);
+        }
+
+        public int size() {
+            return rows.size();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.cablemanagement.database;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One row of a report, detached from the ResultSet it was read from.
+ *
+ * Values are looked up by position or by column label (case-insensitive,
+ * like JDBC); the labels are shared by every row of the same report.
+ */
+public final class ReportRow {
+
+    private final Columns columns;
+    private final Object[] values;
+
+    ReportRow(Columns columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    public List<String> columns() {
+        return columns.labels();
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param index 0-based column index
+     */
+    public Object get(int index) {
+        return values[index];
+    }
+
+    public Object get(String label) {
+        return values[columns.indexOf(label)];
+    }
+
+    /**
+     * @return The value as text, or null if it is NULL
+     */
+    public String getString(int index) {
+        Object value = values[index];
+        return value != null ? value.toString() : null;
+    }
+
+    public String getString(String label) {
+        return getString(columns.indexOf(label));
+    }
+
+    /**
+     * @return The value as a number, 0 if it is NULL
+     */
+    public double getDouble(int index) {
+        Object value = values[index];
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value != null ? Double.parseDouble(value.toString()) : 0.0;
+    }
+
+    public double getDouble(String label) {
+        return getDouble(columns.indexOf(label));
+    }
+
+    public int getInt(int index) {
+        Object value = values[index];
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return value != null ? Integer.parseInt(value.toString()) : 0;
+    }
+
+    public int getInt(String label) {
+        return getInt(columns.indexOf(label));
+    }
+
+    /**
+     * Column labels of one report and their positions.
+     */
+    static final class Columns {
+        private final List<String> labels;
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        Columns(List<String> labels) {
+            this.labels = Collections.unmodifiableList(labels);
+            for (int i = labels.size() - 1; i >= 0; i--) {
+                // The first of two equal labels wins, as with ResultSet.findColumn
+                indexes.put(labels.get(i).toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        List<String> labels() {
+            return labels;
+        }
+
+        int indexOf(String label) {
+            Integer index = indexes.get(label.toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new IllegalArgumentException("No column " + label + " in " + labels);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.cablemanagement.database;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Which report to run, with its filters, and how each row comes back.
+ *
+ * Specs are built with the static factories and passed to
+ * {@link db#streamReport}. Reports whose columns depend on the chosen
+ * breakdown (purchase, sales and the returns) deliver {@link ReportRow}s;
+ * the fixed-shape reports deliver one of the records below. {@link #map}
+ * turns either into whatever the caller displays, still row by row.
+ */
+public final class ReportSpec<T> {
+
+    public enum Kind {
+        PURCHASE, SALES, RETURN_PURCHASE, RETURN_SALES, BANK_TRANSFER, PROFIT, SUMMARY,
+        BANK_BALANCES, CUSTOMERS, SUPPLIERS, AREA_WISE, BRAND_SALES, CUSTOMER_SALES
+    }
+
+    /** Breakdown of the purchase, sales and return reports when none is chosen. */
+    public static final String ALL_REPORTS = "All Reports";
+
+    private final Kind kind;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final String variant;
+    private final String partyType;
+    private final String areaType;
+    private final String areaValue;
+    private final Function<ReportRow, T> mapper;
+
+    private ReportSpec(Kind kind, LocalDate fromDate, LocalDate toDate, String variant,
+                       String partyType, String areaType, String areaValue, Function<ReportRow, T> mapper) {
+        this.kind = kind;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.variant = variant != null ? variant.trim() : ALL_REPORTS;
+        this.partyType = partyType;
+        this.areaType = areaType;
+        this.areaValue = areaValue;
+        this.mapper = mapper;
+    }
+
+    private static <T> ReportSpec<T> of(Kind kind, LocalDate fromDate, LocalDate toDate, Function<ReportRow, T> mapper) {
+        return new ReportSpec<>(kind, fromDate, toDate, null, null, null, null, mapper);
+    }
+
+    private static ReportSpec<ReportRow> breakdown(Kind kind, LocalDate fromDate, LocalDate toDate, String reportType) {
+        return new ReportSpec<>(kind, fromDate, toDate, reportType, null, null, null, Function.identity());
+    }
+
+    /**
+     * @param reportType "All Reports", "Product-wise Report", "Category-wise Report",
+     *                   "Brand-wise Report" or "Manufacturer-wise Report"
+     */
+    public static ReportSpec<ReportRow> purchase(LocalDate fromDate, LocalDate toDate, String reportType) {
+        return breakdown(Kind.PURCHASE, fromDate, toDate, reportType);
+    }
+
+    public static ReportSpec<ReportRow> sales(LocalDate fromDate, LocalDate toDate, String reportType) {
+        return breakdown(Kind.SALES, fromDate, toDate, reportType);
+    }
+
+    public static ReportSpec<ReportRow> returnPurchase(LocalDate fromDate, LocalDate toDate, String reportType) {
+        return breakdown(Kind.RETURN_PURCHASE, fromDate, toDate, reportType);
+    }
+
+    public static ReportSpec<ReportRow> returnSales(LocalDate fromDate, LocalDate toDate, String reportType) {
+        return breakdown(Kind.RETURN_SALES, fromDate, toDate, reportType);
+    }
+
+    public static ReportSpec<BankTransfer> bankTransfers(LocalDate fromDate, LocalDate toDate) {
+        return of(Kind.BANK_TRANSFER, fromDate, toDate, row -> new BankTransfer(
+            row.getString("transaction_date"),
+            row.getString("from_bank"),
+            row.getString("to_bank"),
+            row.getDouble("amount"),
+            row.getString("transaction_type"),
+            row.getString("description")));
+    }
+
+    /**
+     * One row per day with sales, newest first.
+     */
+    public static ReportSpec<Profit> profit(LocalDate fromDate, LocalDate toDate) {
+        return of(Kind.PROFIT, fromDate, toDate, row -> new Profit(
+            row.getString("sales_date"),
+            row.getInt("invoice_count"),
+            row.getDouble("sale_amount"),
+            row.getDouble("cost_amount"),
+            row.getDouble("profit")));
+    }
+
+    /**
+     * Always exactly one row.
+     */
+    public static ReportSpec<Summary> summary(LocalDate fromDate, LocalDate toDate) {
+        return of(Kind.SUMMARY, fromDate, toDate, row -> new Summary(
+            row.getDouble("total_purchases"),
+            row.getDouble("total_sales"),
+            row.getDouble("total_purchase_returns"),
+            row.getDouble("total_sales_returns"),
+            row.getDouble("total_bank_balance"),
+            row.getInt("total_customers"),
+            row.getInt("total_suppliers"),
+            row.getDouble("total_inventory_value")));
+    }
+
+    public static ReportSpec<BankBalance> bankBalances() {
+        return of(Kind.BANK_BALANCES, null, null, row -> new BankBalance(
+            row.getString("bank_name"),
+            row.getDouble("balance")));
+    }
+
+    public static ReportSpec<Party> customers() {
+        return of(Kind.CUSTOMERS, null, null, ReportSpec::party);
+    }
+
+    public static ReportSpec<Party> suppliers() {
+        return of(Kind.SUPPLIERS, null, null, ReportSpec::party);
+    }
+
+    /**
+     * @param partyType "Customer", "Supplier" or "Both"
+     * @param areaType "province", "district", "tehsil" or "all" (any case)
+     * @param areaValue Name of the area; null or "All" for every area
+     */
+    public static ReportSpec<AreaParty> areaWise(String partyType, String areaType, String areaValue) {
+        return new ReportSpec<>(Kind.AREA_WISE, null, null, null,
+            partyType != null ? partyType : "Both", areaType != null ? areaType : "all", areaValue,
+            row -> new AreaParty(
+                row.getString("party_type"),
+                row.getString("name"),
+                row.getString("contact_number"),
+                row.getString("tehsil_name"),
+                row.getString("district_name"),
+                row.getString("province_name")));
+    }
+
+    public static ReportSpec<BrandSales> brandSales(LocalDate fromDate, LocalDate toDate) {
+        return of(Kind.BRAND_SALES, fromDate, toDate, row -> new BrandSales(
+            row.getString("brand_name"),
+            row.getDouble("total_quantity"),
+            row.getDouble("total_sales"),
+            row.getString("salesman_name")));
+    }
+
+    /**
+     * One row per customer who bought or returned anything in the range, biggest first.
+     */
+    public static ReportSpec<CustomerSales> customerSales(LocalDate fromDate, LocalDate toDate) {
+        return of(Kind.CUSTOMER_SALES, fromDate, toDate, row -> new CustomerSales(
+            row.getString("customer_name"),
+            row.getInt("invoice_count"),
+            row.getDouble("total_sales"),
+            row.getDouble("total_paid"),
+            row.getDouble("total_returns")));
+    }
+
+    /**
+     * The same report with each row passed through another function.
+     */
+    public <U> ReportSpec<U> map(Function<? super T, ? extends U> next) {
+        Function<ReportRow, T> first = mapper;
+        return new ReportSpec<>(kind, fromDate, toDate, variant, partyType, areaType, areaValue,
+                                row -> next.apply(first.apply(row)));
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /**
+     * The breakdown of a purchase, sales or return report.
+     */
+    public String getVariant() {
+        return variant;
+    }
+
+    public String getPartyType() {
+        return partyType;
+    }
+
+    public String getAreaType() {
+        return areaType;
+    }
+
+    public String getAreaValue() {
+        return areaValue;
+    }
+
+    T mapRow(ReportRow row) {
+        return mapper.apply(row);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(kind.name());
+        if (fromDate != null || toDate != null) {
+            sb.append(' ').append(fromDate).append("..").append(toDate);
+        }
+        if (kind == Kind.AREA_WISE) {
+            sb.append(' ').append(partyType).append('/').append(areaType).append('=').append(areaValue);
+        } else if (!ALL_REPORTS.equals(variant)) {
+            sb.append(" [").append(variant).append(']');
+        }
+        return sb.toString();
+    }
+
+    private static Party party(ReportRow row) {
+        return new Party(row.getString("name"), row.getString("contact_number"), row.getString("address"));
+    }
+
+    public record BankTransfer(String transactionDate, String fromBank, String toBank, double amount,
+                               String transactionType, String description) {}
+
+    public record Profit(String salesDate, int invoiceCount, double saleAmount, double costAmount, double profit) {}
+
+    public record Summary(double totalPurchases, double totalSales, double totalPurchaseReturns,
+                          double totalSalesReturns, double totalBankBalance, int totalCustomers,
+                          int totalSuppliers, double totalInventoryValue) {}
+
+    public record BankBalance(String bankName, double balance) {}
+
+    public record Party(String name, String contactNumber, String address) {}
+
+    public record AreaParty(String partyType, String name, String contactNumber,
+                            String tehsilName, String districtName, String provinceName) {}
+
+    public record BrandSales(String brandName, double totalQuantity, double totalSales, String salesmanName) {}
+
+    public record CustomerSales(String customerName, int invoiceCount, double totalSales,
+                                double totalPaid, double totalReturns) {}
+}
@@ -0,0 +1,28 @@
+package com.cablemanagement.database;
+
+import java.util.List;
+
+/**
+ * Receives the rows of a streamed report, one at a time, on the thread that
+ * runs the query.
+ *
+ * The next row is only read from SQLite once {@link #accept} returns, so a
+ * consumer that blocks (e.g. waiting for the UI to catch up) slows the query
+ * down instead of letting rows pile up in memory. Returning false stops the
+ * report; the statement is closed either way.
+ */
+@FunctionalInterface
+public interface RowConsumer<T> {
+
+    /**
+     * Called once before the first row, also when there are no rows.
+     * @param columns The column labels of the query, in order
+     */
+    default void begin(List<String> columns) {
+    }
+
+    /**
+     * @return true to get the next row, false to stop
+     */
+    boolean accept(T row);
+}
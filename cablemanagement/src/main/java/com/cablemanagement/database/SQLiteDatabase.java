@@ -1,13 +1,8 @@
 package com.cablemanagement.database;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.Date;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -16,11 +11,19 @@ import java.sql.Statement;
 import java.sql.Types;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.cablemanagement.model.Bank;
 import com.cablemanagement.model.BankTransaction;
@@ -30,14 +33,13 @@ import com.cablemanagement.model.Manufacturer;
 import com.cablemanagement.model.RawStockPurchaseItem;
 import com.cablemanagement.model.RawStockUseItem;
 import com.cablemanagement.model.Supplier;
-import java.nio.file.Path;
 
 public class SQLiteDatabase implements db {
 
     public SQLiteDatabase() {
         // First try the current directory, then fall back to relative path
         String currentDir = System.getProperty("user.dir");
-        System.out.println("DEBUG: Current working directory: " + currentDir);
+        DbLog.debug(() -> "Current working directory: " + currentDir);
         
         if (currentDir.endsWith("cablemanagement")) {
             this.databasePath = "cable_management.db";
@@ -45,10 +47,12 @@ public class SQLiteDatabase implements db {
             this.databasePath = "CableManagement/cablemanagement/cable_management.db";
         }
         
-        System.out.println("DEBUG: Database path set to: " + this.databasePath);
+        DbLog.debug(() -> "Database path set to: " + this.databasePath);
         
         // Auto-connect when instantiated
+        long start = System.nanoTime();
         connect(null, null, null);
+        startupTimings.put("connect", (System.nanoTime() - start) / 1_000_000.0);
         // Initialize all required tables
         initializeDatabase();
     }
@@ -57,13 +61,50 @@ public class SQLiteDatabase implements db {
     public SQLiteDatabase(String databasePath) {
         this.databasePath = databasePath;
         // Auto-connect when instantiated
+        long start = System.nanoTime();
         connect(databasePath, null, null);
+        startupTimings.put("connect", (System.nanoTime() - start) / 1_000_000.0);
         // Initialize all required tables
         initializeDatabase();
     }
 
+    private ConnectionPool pool;
     private Connection connection;
     private String databasePath;
+    private InvoiceSequence sequences;
+    private SalesPostingEngine salesPosting;
+    private ProductionPostingEngine productionPosting;
+    private final TableSnapshotCache<Object[]> balanceSheetCache =
+        new TableSnapshotCache<>("Balance sheet", "Bank", "Customer", "Supplier", "Stock_Valuation");
+    private final ChangeBus changeBus = new ChangeBus();
+    private ReferenceDataCache referenceData;
+    private final Map<String, Double> startupTimings = new LinkedHashMap<>();
+
+    // Book views for getViewDataPage: {invoice id column in the view, invoice table, its id column,
+    // its date column behind fromDate/toDate, its supplier column behind supplier_name}
+    private static final Map<String, String[]> BOOK_VIEW_KEYS = Map.of(
+        "View_Purchase_Book",
+        new String[] {"raw_purchase_invoice_id", "Raw_Purchase_Invoice", "raw_purchase_invoice_id", "invoice_date", "supplier_id"},
+        "View_Return_Purchase_Book",
+        new String[] {"raw_purchase_invoice_id", "Raw_Purchase_Return_Invoice", "raw_purchase_return_invoice_id", "return_date", "supplier_id"},
+        "View_Raw_Stock_Book",
+        new String[] {"raw_purchase_invoice_id", "Raw_Stock_Use_Invoice", "raw_stock_use_invoice_id", "usage_date", null},
+        "View_Production_Book",
+        new String[] {"production_invoice_id", "Production_Invoice", "production_invoice_id", null, null},
+        "View_Return_Production_Book",
+        new String[] {"production_return_invoice_id", "Production_Return_Invoice", "production_return_invoice_id", null, null});
+
+    // Document number prefixes, one Invoice_Sequence row each
+    static final String RAW_PURCHASE_PREFIX = "RPI";
+    static final String RAW_PURCHASE_RETURN_PREFIX = "INV-RPR-";
+    static final String RAW_STOCK_USE_PREFIX = "INV-RSU-";
+    static final String PRODUCTION_INVOICE_PREFIX = "PI-";
+    static final String PRODUCTION_RETURN_PREFIX = "PRI-";
+    static final String SALES_INVOICE_PREFIX = "SI-";
+    static final String SALES_RETURN_PREFIX = "SRI-";
+
+    // Starting row capacity of the columnar stock tables; they double as they fill
+    private static final int STOCK_TABLE_CAPACITY = 256;
 
     public Connection getConnection() {
         return this.connection;
@@ -80,8 +121,7 @@ public class SQLiteDatabase implements db {
         ResultSet rs = null;
         
         try {
-            String jdbcUrl = "jdbc:sqlite:cable_management.db";
-            connection = DriverManager.getConnection(jdbcUrl);
+            connection = pool.borrowReader();
             stmt = connection.prepareStatement(query);
             rs = stmt.executeQuery();
             
@@ -99,10 +139,10 @@ public class SQLiteDatabase implements db {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
-                if (connection != null) connection.close();
             } catch (SQLException e) {
                 e.printStackTrace();
             }
+            pool.release(connection);
         }
         return result;
     }
@@ -121,8 +161,7 @@ public class SQLiteDatabase implements db {
         ResultSet rs = null;
         
         try {
-            String jdbcUrl = "jdbc:sqlite:cable_management.db";
-            connection = DriverManager.getConnection(jdbcUrl);
+            connection = pool.borrowReader();
             stmt = connection.prepareStatement(query);
             stmt.setString(1, returnInvoiceNumber);
             rs = stmt.executeQuery();
@@ -141,10 +180,10 @@ public class SQLiteDatabase implements db {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
-                if (connection != null) connection.close();
             } catch (SQLException e) {
                 e.printStackTrace();
             }
+            pool.release(connection);
         }
         return items;
     }
@@ -157,8 +196,8 @@ public class SQLiteDatabase implements db {
                       "INNER JOIN Customer c ON sr.customer_id = c.customer_id " +
                       "ORDER BY sr.sales_return_invoice_id DESC";
                       
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 Object[] invoiceData = {
                     rs.getInt("sales_return_invoice_id"),
@@ -316,27 +355,20 @@ public class SQLiteDatabase implements db {
     @Override
     public String connect(String url, String user, String password) {
         try {
-            String jdbcUrl = "jdbc:sqlite:" + (url != null ? url : databasePath);
-            connection = DriverManager.getConnection(jdbcUrl);
-            
-            try (Statement stmt = connection.createStatement()) {
-                // Enable foreign keys
-                stmt.execute("PRAGMA foreign_keys = ON");
-                
-                // Set timeout for busy connections (in milliseconds)
-                stmt.execute("PRAGMA busy_timeout = 30000");
-                
-                // Use WAL mode for better concurrency
-                stmt.execute("PRAGMA journal_mode = WAL");
-                
-                // Optimize for better performance
-                stmt.execute("PRAGMA synchronous = NORMAL");
-                stmt.execute("PRAGMA cache_size = 10000");
-                stmt.execute("PRAGMA temp_store = memory");
-                
-                System.out.println("DEBUG: SQLite connection configured with lock prevention settings");
-            }
-            
+            if (pool != null && !pool.isClosed()) {
+                // Already connected; reuse the existing pool instead of leaking it
+                return "Connected to SQLite database successfully";
+            }
+            pool = new ConnectionPool(url != null ? url : databasePath, ConnectionPool.DEFAULT_READERS);
+            connection = pool.getWriter();
+            sequences = createInvoiceSequence(connection);
+            salesPosting = new SalesPostingEngine(connection, sequences);
+            productionPosting = new ProductionPostingEngine(connection, sequences);
+            balanceSheetCache.attach(connection);
+            changeBus.attach(connection);
+            referenceData = new ReferenceDataCache(pool);
+            referenceData.attach(connection);
+            DbLog.debug(() -> "SQLite connection pool opened with " + pool.getReaderCount() + " reader(s)");
             return "Connected to SQLite database successfully";
         } catch (SQLException e) {
             e.printStackTrace();
@@ -346,12 +378,15 @@ public class SQLiteDatabase implements db {
 
     @Override
     public void disconnect() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+        if (pool != null) {
+            DbLog.debug(() -> "Closing connection pool (" + pool.getStats() + ")");
+            if (salesPosting != null) {
+                salesPosting.close();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            if (productionPosting != null) {
+                productionPosting.close();
+            }
+            pool.close();
         }
     }
 
@@ -364,10 +399,125 @@ public class SQLiteDatabase implements db {
         }
     }
 
+    private InvoiceSequence createInvoiceSequence(Connection conn) {
+        InvoiceSequence seq = new InvoiceSequence(conn);
+        seq.register(RAW_PURCHASE_PREFIX, highestNumberQuery("Raw_Purchase_Invoice", "invoice_number", RAW_PURCHASE_PREFIX));
+        seq.register(RAW_PURCHASE_RETURN_PREFIX, highestNumberQuery("Raw_Purchase_Return_Invoice", "return_invoice_number", RAW_PURCHASE_RETURN_PREFIX));
+        seq.register(RAW_STOCK_USE_PREFIX, highestNumberQuery("Raw_Stock_Use_Invoice", "use_invoice_number", RAW_STOCK_USE_PREFIX));
+        // Production invoices have no stored number, they were always numbered by row count
+        seq.register(PRODUCTION_INVOICE_PREFIX, "SELECT COUNT(*) FROM Production_Invoice");
+        seq.register(PRODUCTION_RETURN_PREFIX, highestNumberQuery("Production_Return_Invoice", "return_invoice_number", PRODUCTION_RETURN_PREFIX));
+        seq.register(SALES_INVOICE_PREFIX, highestNumberQuery("Sales_Invoice", "sales_invoice_number", SALES_INVOICE_PREFIX));
+        seq.register(SALES_RETURN_PREFIX, highestNumberQuery("Sales_Return_Invoice", "return_invoice_number", SALES_RETURN_PREFIX));
+        return seq;
+    }
+
+    private static String highestNumberQuery(String table, String column, String prefix) {
+        String quoted = prefix.replace("'", "''");
+        return "SELECT COALESCE(MAX(CAST(SUBSTR(" + column + ", " + (prefix.length() + 1) + ") AS INTEGER)), 0) " +
+               "FROM " + table + " WHERE " + column + " LIKE '" + quoted + "%'";
+    }
+
+    /**
+     * Next number for a prefix from the sequence table, formatted like the existing invoices
+     */
+    private String nextDocumentNumber(String prefix, String format) {
+        try {
+            return prefix + String.format(format, sequences.peek(prefix));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return prefix + String.format(format, 1);
+    }
+
+    /** A document insert, given the number to store the document under. */
+    private interface NumberedInsert<T> {
+        T insert(String number) throws SQLException;
+    }
+
+    /**
+     * Insert a document under the number {@link InvoiceSequence#assign} reserves for the
+     * previewed one, both in one transaction; the caller's, if one is open.
+     */
+    private <T> T insertNumbered(String prefix, String format, String previewed,
+                                 NumberedInsert<T> insert) throws SQLException {
+        boolean ownTransaction = connection.getAutoCommit();
+        if (ownTransaction) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            T result = insert.insert(sequences.assign(prefix, format, previewed));
+            if (ownTransaction) {
+                connection.commit();
+            }
+            return result;
+        } catch (SQLException e) {
+            if (ownTransaction) {
+                connection.rollback();
+            }
+            sequences.invalidate(prefix);
+            throw e;
+        } finally {
+            if (ownTransaction) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int generatedId(PreparedStatement pstmt, String document) throws SQLException {
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                return generatedKeys.getInt(1);
+            }
+        }
+        throw new SQLException("No id returned for " + document);
+    }
+
+    @Override
+    public String getAssignedInvoiceNumber(String previewedNumber) {
+        return sequences != null ? sequences.assignedNumber(previewedNumber) : previewedNumber;
+    }
+
+    /**
+     * Get the document number sequences, e.g. to reserve a block for a batch import
+     */
+    public InvoiceSequence getInvoiceSequence() {
+        return sequences;
+    }
+
+    /**
+     * Get the cache behind {@link #getBalanceSheetData()}
+     */
+    public TableSnapshotCache<Object[]> getBalanceSheetCache() {
+        return balanceSheetCache;
+    }
+
+    /**
+     * Get the cache behind the reference lists (units, brands, tehsils, ...)
+     */
+    public ReferenceDataCache getReferenceData() {
+        return referenceData;
+    }
+
+    @Override
+    public ChangeBus getChangeBus() {
+        return changeBus;
+    }
+
+    @Override
+    public Map<String, Double> getStartupTimings() {
+        return Collections.unmodifiableMap(startupTimings);
+    }
+
+    @Override
+    public ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
     @Override
     public Object executeQuery(String query) {
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             ResultSetMetaData metaData = rs.getMetaData();
             int columnCount = metaData.getColumnCount();
@@ -446,10 +596,10 @@ public class SQLiteDatabase implements db {
                 
                 stmt.execute(insertUsers);
                 
-                System.out.println("User table created with default credentials:");
-                System.out.println("- admin / admin123");
-                System.out.println("- cashier1 / cash123");
-                System.out.println("- manager1 / manager123");
+                DbLog.info("User table created with default credentials:");
+                DbLog.info("- admin / admin123");
+                DbLog.info("- cashier1 / cash123");
+                DbLog.info("- manager1 / manager123");
             }
             
             rs.close();
@@ -460,246 +610,29 @@ public class SQLiteDatabase implements db {
         }
     }
 
-    private void initializeViews() {
-        try {
-            // First ensure the Views directory exists in the database
-            ensureViewsExist();
-            
-            // Drop and recreate View_Purchase_Book
-            connection.createStatement().execute("DROP VIEW IF EXISTS View_Purchase_Book");
-            
-            // Create detailed view with item-level data
-            String sql = "CREATE VIEW View_Purchase_Book AS " +
-                       "SELECT " +
-                       "    rpi.raw_purchase_invoice_id, " +
-                       "    rpi.invoice_number, " +
-                       "    s.supplier_name, " +
-                       "    rpi.invoice_date, " +
-                       "    rs.item_name, " +
-                       "    b.brand_name, " +
-                       "    m.manufacturer_name, " +
-                       "    rpii.quantity, " +
-                       "    rpii.unit_price, " +
-                       "    (rpii.quantity * rpii.unit_price) AS item_total, " +
-                       "    rpi.total_amount, " +
-                       "    rpi.discount_amount, " +
-                       "    rpi.paid_amount, " +
-                       "    (rpi.total_amount - rpi.paid_amount) AS balance " +
-                       "FROM Raw_Purchase_Invoice rpi " +
-                       "JOIN Supplier s ON rpi.supplier_id = s.supplier_id " +
-                       "JOIN Raw_Purchase_Invoice_Item rpii ON rpi.raw_purchase_invoice_id = rpii.raw_purchase_invoice_id " +
-                       "JOIN Raw_Stock rs ON rpii.raw_stock_id = rs.stock_id " +
-                       "JOIN Brand b ON rs.brand_id = b.brand_id " +
-                       "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id";
-            connection.createStatement().execute(sql);
-
-            // Drop and recreate View_Production_Book
-            connection.createStatement().execute("DROP VIEW IF EXISTS View_Production_Book");
-            
-            // Create production view
-            sql = "CREATE VIEW View_Production_Book AS " +
-                 "SELECT " +
-                 "    pi.production_invoice_id, " +
-                 "    pi.production_date, " +
-                 "    ps.product_name, " +
-                 "    pii.quantity_produced AS quantity, " +
-                 "    ps.unit_cost, " +
-                 "    (pii.quantity_produced * ps.unit_cost) AS total_cost, " +
-                 "    b.brand_name, " +
-                 "    m.manufacturer_name, " +
-                 "    pi.notes " +
-                 "FROM Production_Invoice pi " +
-                 "JOIN Production_Invoice_Item pii ON pi.production_invoice_id = pii.production_invoice_id " +
-                 "JOIN ProductionStock ps ON pii.production_id = ps.production_id " +
-                 "JOIN Brand b ON ps.brand_id = b.brand_id " +
-                 "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id";
-            connection.createStatement().execute(sql);
-            System.out.println("Successfully created View_Production_Book view");
-            
-            // Drop and recreate View_Return_Purchase_Book
-            connection.createStatement().execute("DROP VIEW IF EXISTS View_Return_Purchase_Book");
-            
-            // Create return purchases view with same column structure as View_Purchase_Book
-            sql = "CREATE VIEW View_Return_Purchase_Book AS " +
-                 "SELECT " +
-                 "    rpri.raw_purchase_return_invoice_id AS raw_purchase_invoice_id, " +
-                 "    rpri.return_invoice_number AS invoice_number, " +
-                 "    s.supplier_name, " +
-                 "    rpri.return_date AS invoice_date, " +
-                 "    rs.item_name, " +
-                 "    b.brand_name, " +
-                 "    m.manufacturer_name, " +
-                 "    rprii.quantity AS quantity, " +
-                 "    rprii.unit_price, " +
-                 "    (rprii.quantity * rprii.unit_price) AS item_total, " +
-                 "    rpri.total_return_amount AS total_amount, " +
-                 "    0 AS discount_amount, " +  // Return invoices don't have discounts
-                 "    rpri.total_return_amount AS paid_amount, " + // Full amount is considered paid in returns
-                 "    0 AS balance " +  // No balance in returns
-                 "FROM Raw_Purchase_Return_Invoice rpri " +
-                 "JOIN Supplier s ON rpri.supplier_id = s.supplier_id " +
-                 "JOIN Raw_Purchase_Return_Invoice_Item rprii ON rpri.raw_purchase_return_invoice_id = rprii.raw_purchase_return_invoice_id " +
-                 "JOIN Raw_Stock rs ON rprii.raw_stock_id = rs.stock_id " +
-                 "JOIN Brand b ON rs.brand_id = b.brand_id " +
-                 "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id";
-            connection.createStatement().execute(sql);
-            System.out.println("Successfully created View_Return_Purchase_Book view");
-            
-            // Drop and recreate View_Return_Production_Book
-            connection.createStatement().execute("DROP VIEW IF EXISTS View_Return_Production_Book");
-            
-            // Create return production view
-            sql = "CREATE VIEW View_Return_Production_Book AS " +
-                 "SELECT " +
-                 "    pri.production_return_invoice_id, " +
-                 "    pri.return_invoice_number, " +
-                 "    pri.return_date, " +
-                 "    prii.quantity_returned AS quantity, " +
-                 "    prii.unit_cost, " +
-                 "    prii.total_cost, " +
-                 "    ps.product_name, " +
-                 "    b.brand_name, " +
-                 "    m.manufacturer_name, " +
-                 "    pri.notes " +
-                 "FROM Production_Return_Invoice pri " +
-                 "JOIN Production_Return_Invoice_Item prii ON pri.production_return_invoice_id = prii.production_return_invoice_id " +
-                 "JOIN ProductionStock ps ON prii.production_id = ps.production_id " +
-                 "JOIN Brand b ON ps.brand_id = b.brand_id " +
-                 "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id";
-            connection.createStatement().execute(sql);
-            System.out.println("Successfully created View_Return_Production_Book view");
-            
-            System.out.println("All database views initialized successfully");
-        } catch (SQLException e) {
-            e.printStackTrace();
-            System.err.println("Error initializing views: " + e.getMessage());
-            throw new RuntimeException("Failed to initialize database views", e);
-        }
-    }
-
-    private String readSqlFile(String filePath) throws IOException {
-        try {
-            // Try to read from the absolute path first
-            if (new File(filePath).exists()) {
-                return new String(Files.readAllBytes(Path.of(filePath)));
-            }
-            
-            // Try to find the file in the classpath resources
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream(filePath);
-            if (inputStream != null) {
-                return new String(inputStream.readAllBytes());
-            }
-            
-            // Try to find the file relative to the project root
-            String projectRoot = System.getProperty("user.dir");
-            Path projectPath = Path.of(projectRoot, filePath);
-            if (Files.exists(projectPath)) {
-                return new String(Files.readAllBytes(projectPath));
-            }
-            
-            // As a last resort, check a few common locations
-            String[] commonLocations = {
-                projectRoot + "/schema.sql",
-                projectRoot + "/CableManagement/cablemanagement/schema.sql",
-                projectRoot + "/cablemanagement/schema.sql",
-                projectRoot + "/src/main/resources/schema.sql",
-                projectRoot + "/src/main/resources/db/schema.sql"
-            };
-            
-            for (String location : commonLocations) {
-                File file = new File(location);
-                if (file.exists()) {
-                    System.out.println("Found schema file at: " + location);
-                    return new String(Files.readAllBytes(file.toPath()));
-                }
-            }
-            
-            throw new IOException("Could not find schema file: " + filePath);
-        } catch (IOException e) {
-            System.err.println("Error reading SQL file: " + filePath);
-            throw e;
-        }
-    }
-
+    /**
+     * Create or update the schema if this file needs it, see {@link SchemaBootstrap}
+     */
     private void initializeDatabase() {
+        SchemaBootstrap bootstrap = new SchemaBootstrap(connection);
         try {
-            Statement stmt = connection.createStatement();
-
-            // Enable foreign key constraints
-            stmt.execute("PRAGMA foreign_keys = ON");
-
-            // Read SQL from file - first try the project root location
-            String projectRoot = System.getProperty("user.dir");
-            String schemaPath = projectRoot + "/schema.sql";
-            
-            // If not found in project root, try other common locations
-            if (!new File(schemaPath).exists()) {
-                schemaPath = projectRoot + "/CableManagement/cablemanagement/schema.sql";
-            }
-            if (!new File(schemaPath).exists()) {
-                schemaPath = projectRoot + "/cablemanagement/schema.sql";
-            }
-            
-            System.out.println("Looking for schema at: " + schemaPath);
-            String sql = readSqlFile(schemaPath);
-
-            // Split statements and execute them one by one
-            String[] queries = sql.split(";");
-            for (String query : queries) {
-                String trimmed = query.trim();
-                if (!trimmed.isEmpty()) {
-                    stmt.execute(trimmed + ";");
-                }
-            }
-
-            // Optional: Update schema or insert defaults
-            // updateSchemaForDiscountSupport(stmt);
-            // updateSchemaForUnitIntegration(stmt);
-            insertDefaultUnits(stmt);
-
-            stmt.close();
-            System.out.println("Database initialized successfully with SQL file.");
-
-            // Initialize views
-            initializeViews();
-
+            bootstrap.run();
         } catch (SQLException | IOException e) {
             System.err.println("Error initializing database: " + e.getMessage());
             e.printStackTrace();
         }
-    }
-
-    private void insertDefaultUnits(Statement stmt) throws SQLException {
-        try {
-            // Check if Unit table is empty and insert default data
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Unit");
-            rs.next();
-            if (rs.getInt(1) == 0) {
-                stmt.execute("INSERT INTO Unit (unit_name) VALUES " +
-                            "('Piece'), ('Meter'), ('Roll'), ('Kg'), ('Gram'), ('Box'), ('Liter'), ('Foot'), ('Yard'), ('Dozen')");
-                System.out.println("Default units added to Unit table");
-            }
-            rs.close();
-        } catch (SQLException e) {
-            System.err.println("Error inserting default units: " + e.getMessage());
-        }
+        startupTimings.putAll(bootstrap.timings());
+        DbLog.debug(() -> "Database opened: " + startupTimings);
     }
 
     @Override
     public List<String> getAllTehsils() {
-        List<String> tehsils = new ArrayList<>();
-        String query = "SELECT tehsil_name FROM Tehsil ORDER BY tehsil_name";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                tehsils.add(rs.getString("tehsil_name"));
-            }
-        } catch (SQLException e) {
+        try {
+            return new ArrayList<>(referenceData.tehsils().names());
+        } catch (Exception e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        return tehsils;
     }
 
     @Override
@@ -768,19 +701,12 @@ public class SQLiteDatabase implements db {
 
     @Override
     public List<String> getAllDistricts() {
-        List<String> districts = new ArrayList<>();
-        String query = "SELECT district_name FROM District ORDER BY district_name";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                districts.add(rs.getString("district_name"));
-            }
-        } catch (SQLException e) {
+        try {
+            return new ArrayList<>(referenceData.districts().names());
+        } catch (Exception e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        return districts;
     }
 
     @Override
@@ -832,19 +758,12 @@ public class SQLiteDatabase implements db {
 
     @Override
     public List<String> getAllProvinces() {
-        List<String> provinces = new ArrayList<>();
-        String query = "SELECT province_name FROM Province ORDER BY province_name";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                provinces.add(rs.getString("province_name"));
-            }
-        } catch (SQLException e) {
+        try {
+            return new ArrayList<>(referenceData.provinces().names());
+        } catch (Exception e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        return provinces;
     }
 
     @Override
@@ -861,19 +780,12 @@ public class SQLiteDatabase implements db {
 
     @Override
     public List<String> getAllCategories() {
-        List<String> categories = new ArrayList<>();
-        String query = "SELECT category_name FROM Category ORDER BY category_name";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                categories.add(rs.getString("category_name"));
-            }
-        } catch (SQLException e) {
+        try {
+            return new ArrayList<>(referenceData.categories().names());
+        } catch (Exception e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        return categories;
     }
 
     @Override
@@ -891,25 +803,12 @@ public class SQLiteDatabase implements db {
     @Override
     public List<Manufacturer> getAllManufacturers() {
         List<Manufacturer> manufacturers = new ArrayList<>();
-        String query = "SELECT m.manufacturer_name, t.tehsil_name, d.district_name, p.province_name " +
-                      "FROM Manufacturer m " +
-                      "JOIN Tehsil t ON m.tehsil_id = t.tehsil_id " +
-                      "JOIN District d ON t.district_id = d.district_id " +
-                      "JOIN Province p ON d.province_id = p.province_id " +
-                      "ORDER BY m.manufacturer_name";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                String name = rs.getString("manufacturer_name");
-                String province = rs.getString("province_name");
-                String district = rs.getString("district_name");
-                String tehsil = rs.getString("tehsil_name");
-                
-                manufacturers.add(new Manufacturer(name, province, district, tehsil));
+        try {
+            // Fresh model objects each time; the snapshot rows are shared
+            for (String[] row : referenceData.manufacturers().rows()) {
+                manufacturers.add(new Manufacturer(row[0], row[1], row[2], row[3]));
             }
-        } catch (SQLException e) {
+        } catch (Exception e) {
             e.printStackTrace();
         }
         return manufacturers;
@@ -966,26 +865,12 @@ public class SQLiteDatabase implements db {
     @Override
     public List<Brand> getAllBrands() {
         List<Brand> brands = new ArrayList<>();
-        String query = "SELECT b.brand_name, t.tehsil_name, d.district_name, p.province_name " +
-                    "FROM Brand b " +
-                    "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id " +
-                    "JOIN Tehsil t ON m.tehsil_id = t.tehsil_id " +
-                    "JOIN District d ON t.district_id = d.district_id " +
-                    "JOIN Province p ON d.province_id = p.province_id " +
-                    "ORDER BY b.brand_name";
-        
-        try (Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                String name = rs.getString("brand_name");
-                String province = rs.getString("province_name");
-                String district = rs.getString("district_name");
-                String tehsil = rs.getString("tehsil_name");
-                
-                brands.add(new Brand(name, province, district, tehsil));
+        try {
+            // Fresh model objects each time; the snapshot rows are shared
+            for (String[] row : referenceData.brands().rows()) {
+                brands.add(new Brand(row[0], row[1], row[2], row[3]));
             }
-        } catch (SQLException e) {
+        } catch (Exception e) {
             e.printStackTrace();
         }
         return brands;
@@ -1088,8 +973,8 @@ public class SQLiteDatabase implements db {
                     "FROM Customer c " +
                     "LEFT JOIN Tehsil t ON c.tehsil_id = t.tehsil_id " +
                     "ORDER BY c.customer_name";
-        try (Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+            ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 int customerId = rs.getInt("customer_id");
                 String name = rs.getString("customer_name");
@@ -1097,8 +982,8 @@ public class SQLiteDatabase implements db {
                 String tehsil = rs.getString("tehsil_name");
                 if (tehsil == null) tehsil = "";
                 
-                // Calculate current balance based on invoice history
-                double currentBalance = getCustomerCurrentBalance(name);
+                // The stored balance is kept current by every posting
+                double currentBalance = rs.getDouble("balance");
                 
                 customers.add(new Customer(customerId, name, contact, tehsil, currentBalance));
             }
@@ -1114,8 +999,8 @@ public class SQLiteDatabase implements db {
         String getTehsilQuery = "SELECT tehsil_id FROM Tehsil LIMIT 1";
         String insertQuery = "INSERT INTO Customer (customer_name, contact_number, tehsil_id, balance) VALUES (?, ?, ?, 0.00)";
         
-        try (Statement getStmt = connection.createStatement();
-             ResultSet rs = getStmt.executeQuery(getTehsilQuery)) {
+        try (PreparedStatement getStmt = connection.prepareStatement(getTehsilQuery);
+             ResultSet rs = getStmt.executeQuery()) {
             
             if (rs.next()) {
                 int tehsilId = rs.getInt("tehsil_id");
@@ -1215,8 +1100,8 @@ public class SQLiteDatabase implements db {
                     "LEFT JOIN Tehsil t ON s.tehsil_id = t.tehsil_id " +
                     "ORDER BY s.supplier_name";
         
-        try (Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+            ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 String name = rs.getString("supplier_name");
@@ -1224,8 +1109,8 @@ public class SQLiteDatabase implements db {
                 String tehsil = rs.getString("tehsil_name");
                 if (tehsil == null) tehsil = "";
                 
-                // Calculate current balance based on invoice history
-                double currentBalance = getSupplierCurrentBalance(name);
+                // The stored balance is kept current by every posting
+                double currentBalance = rs.getDouble("balance");
                 
                 suppliers.add(new Supplier(name, contact, tehsil, currentBalance));
             }
@@ -1240,8 +1125,8 @@ public class SQLiteDatabase implements db {
         String getTehsilQuery = "SELECT tehsil_id FROM Tehsil LIMIT 1";
         String insertQuery = "INSERT INTO Supplier (supplier_name, contact_number, tehsil_id, balance) VALUES (?, ?, ?, 0.00)";
         
-        try (Statement getStmt = connection.createStatement();
-            ResultSet rs = getStmt.executeQuery(getTehsilQuery)) {
+        try (PreparedStatement getStmt = connection.prepareStatement(getTehsilQuery);
+            ResultSet rs = getStmt.executeQuery()) {
             
             if (rs.next()) {
                 int tehsilId = rs.getInt("tehsil_id");
@@ -1334,28 +1219,47 @@ public class SQLiteDatabase implements db {
 
     @Override
     public boolean updateCustomerBalance(String customerName, double amount) {
-        String query = "UPDATE Customer SET balance = balance + ? WHERE customer_name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setDouble(1, amount);
-            pstmt.setString(2, customerName);
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
+        int customerId = getCustomerIdByName(customerName);
+        if (customerId == -1) {
+            return false;
         }
-        return false;
+        return postBalanceAdjustment(PartyLedger.CUSTOMER, customerId, amount);
     }
 
     @Override
     public boolean updateSupplierBalance(String supplierName, double amount) {
-        String query = "UPDATE Supplier SET balance = balance + ? WHERE supplier_name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setDouble(1, amount);
-            pstmt.setString(2, supplierName);
-            return pstmt.executeUpdate() > 0;
+        int supplierId = getSupplierIdByName(supplierName);
+        if (supplierId == -1) {
+            return false;
+        }
+        return postBalanceAdjustment(PartyLedger.SUPPLIER, supplierId, amount);
+    }
+
+    /**
+     * Apply a manual balance change as a dated 'adjustment' ledger row.
+     */
+    private boolean postBalanceAdjustment(PartyLedger ledger, int partyId, double amount) {
+        try {
+            connection.setAutoCommit(false);
+            ledger.post(connection, partyId, amount, LocalDate.now().toString(),
+                        PartyLedger.ADJUSTMENT, "Balance adjustment", null);
+            connection.commit();
+            return true;
         } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackEx) {
+                rollbackEx.printStackTrace();
+            }
             e.printStackTrace();
+            return false;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
-        return false;
     }
 
     @Override
@@ -1393,11 +1297,7 @@ public class SQLiteDatabase implements db {
     @Override
     public double getCustomerCurrentBalance(String customerName) {
         // Simply return the stored balance from the Customer table
-        double storedBalance = getCustomerBalance(customerName);
-        
-        System.out.println("DEBUG: Current balance for customer: " + customerName + " = " + storedBalance);
-        
-        return storedBalance;
+        return getCustomerBalance(customerName);
     }
 
     @Override
@@ -1414,66 +1314,46 @@ public class SQLiteDatabase implements db {
      */
     @Override
     public double getCustomerPreviousBalance(String customerName, String excludeInvoiceNumber) {
-        // Get the current stored balance
-        double currentBalance = getCustomerBalance(customerName);
-        
-        // Determine if this is a return invoice by checking if the invoice number starts with "SRI"
-        boolean isReturnInvoice = excludeInvoiceNumber != null && excludeInvoiceNumber.startsWith("SRI");
-        
-        double currentInvoiceNetAmount = 0.0;
-        
-        if (isReturnInvoice) {
-            // For return invoices, look in Sales_Return_Invoice table
-            String query = "SELECT sri.total_return_amount as net_amount " +
-                          "FROM Sales_Return_Invoice sri " +
-                          "JOIN Customer c ON sri.customer_id = c.customer_id " +
-                          "WHERE c.customer_name = ? AND sri.return_invoice_number = ?";
-            
-            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-                pstmt.setString(1, customerName);
-                pstmt.setString(2, excludeInvoiceNumber);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        currentInvoiceNetAmount = rs.getDouble("net_amount");
-                        // For returns, we ADD back the return amount to get previous balance
-                        // because the current balance has already been reduced by the return
-                        currentBalance += currentInvoiceNetAmount;
-                    }
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
+        try {
+            // The ledger row posted with the invoice holds the balance right after it
+            Double previousBalance = PartyLedger.CUSTOMER.balanceBeforeInvoice(connection, customerName, excludeInvoiceNumber);
+            if (previousBalance != null) {
+                return previousBalance;
             }
-        } else {
-            // For regular sales invoices, look in Sales_Invoice table
-            String query = "SELECT (si.total_amount - si.discount_amount - si.paid_amount) as net_amount " +
-                          "FROM Sales_Invoice si " +
-                          "JOIN Customer c ON si.customer_id = c.customer_id " +
-                          "WHERE c.customer_name = ? AND si.sales_invoice_number = ?";
-            
-            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-                pstmt.setString(1, customerName);
-                pstmt.setString(2, excludeInvoiceNumber);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        currentInvoiceNetAmount = rs.getDouble("net_amount");
-                        // For regular invoices, subtract the invoice amount to get previous balance
-                        currentBalance -= currentInvoiceNetAmount;
-                    }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return getLegacyCustomerPreviousBalance(customerName, excludeInvoiceNumber);
+    }
+
+    /**
+     * Previous balance for invoices saved before they were posted to the ledger:
+     * current balance with this invoice backed out. Only exact while no later
+     * invoice exists. If the invoice isn't saved yet the current balance is returned.
+     */
+    private double getLegacyCustomerPreviousBalance(String customerName, String invoiceNumber) {
+        double currentBalance = getCustomerBalance(customerName);
+        boolean isReturnInvoice = invoiceNumber != null && invoiceNumber.startsWith("SRI");
+        String query = isReturnInvoice
+            ? "SELECT -sri.total_return_amount FROM Sales_Return_Invoice sri " +
+              "JOIN Customer c ON sri.customer_id = c.customer_id " +
+              "WHERE c.customer_name = ? AND sri.return_invoice_number = ?"
+            : "SELECT (si.total_amount - si.discount_amount - si.paid_amount) FROM Sales_Invoice si " +
+              "JOIN Customer c ON si.customer_id = c.customer_id " +
+              "WHERE c.customer_name = ? AND si.sales_invoice_number = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, customerName);
+            pstmt.setString(2, invoiceNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return currentBalance - rs.getDouble(1);
                 }
-            } catch (SQLException e) {
-                e.printStackTrace();
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
-        
-        double previousBalance = currentBalance;
-        
-        System.out.println("DEBUG: Previous balance calculation for customer: " + customerName);
-        System.out.println("  Invoice number: " + excludeInvoiceNumber + " (Return: " + isReturnInvoice + ")");
-        System.out.println("  Current stored balance: " + getCustomerBalance(customerName));
-        System.out.println("  Current invoice net amount: " + currentInvoiceNetAmount);
-        System.out.println("  Calculated previous balance: " + previousBalance);
-        
-        return previousBalance;
+        return currentBalance;
     }
 
     /**
@@ -1484,71 +1364,80 @@ public class SQLiteDatabase implements db {
      */
     @Override
     public double getSupplierPreviousBalance(String supplierName, String excludeInvoiceNumber) {
-        // Get the current stored balance
-        double currentBalance = getSupplierBalance(supplierName);
-        
-        System.out.println("DEBUG: getSupplierPreviousBalance called for " + supplierName + " invoice " + excludeInvoiceNumber);
-        System.out.println("  Current stored balance: " + currentBalance);
-        
-        // Determine if this is a return invoice by checking if the invoice number starts with "RPRI"
-        boolean isReturnInvoice = excludeInvoiceNumber != null && excludeInvoiceNumber.startsWith("RPRI");
-        
-        double currentInvoiceNetAmount = 0.0;
-        
-        if (isReturnInvoice) {
-            // For return invoices, look in Raw_Purchase_Return_Invoice table
-            String returnQuery = "SELECT total_return_amount FROM Raw_Purchase_Return_Invoice rpri " +
-                               "JOIN Supplier s ON rpri.supplier_id = s.supplier_id " +
-                               "WHERE s.supplier_name = ? AND rpri.return_invoice_number = ?";
-            
-            try (PreparedStatement pstmt = connection.prepareStatement(returnQuery)) {
-                pstmt.setString(1, supplierName);
-                pstmt.setString(2, excludeInvoiceNumber);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        currentInvoiceNetAmount = rs.getDouble("total_return_amount");
-                        // For return invoice: previous balance = current balance + return amount
-                        // (since return reduces balance, we add it back to get previous)
-                        System.out.println("  Found return invoice with amount: " + currentInvoiceNetAmount);
-                        double previousBalance = currentBalance + currentInvoiceNetAmount;
-                        System.out.println("  Calculated previous balance: " + previousBalance);
-                        return previousBalance;
-                    }
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
+        try {
+            Double previousBalance = PartyLedger.SUPPLIER.balanceBeforeInvoice(connection, supplierName, excludeInvoiceNumber);
+            if (previousBalance != null) {
+                return previousBalance;
             }
-        } else {
-            // For regular purchase invoices, look in Raw_Purchase_Invoice table
-            String purchaseQuery = "SELECT (total_amount - discount_amount - paid_amount) as net_amount FROM Raw_Purchase_Invoice rpi " +
-                                 "JOIN Supplier s ON rpi.supplier_id = s.supplier_id " +
-                                 "WHERE s.supplier_name = ? AND rpi.invoice_number = ?";
-            
-            try (PreparedStatement pstmt = connection.prepareStatement(purchaseQuery)) {
-                pstmt.setString(1, supplierName);
-                pstmt.setString(2, excludeInvoiceNumber);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        currentInvoiceNetAmount = rs.getDouble("net_amount");
-                        // For purchase invoice: previous balance = current balance - net amount  
-                        // (since purchase increases balance, we subtract it to get previous)
-                        System.out.println("  Found purchase invoice with net amount: " + currentInvoiceNetAmount);
-                        double previousBalance = currentBalance - currentInvoiceNetAmount;
-                        System.out.println("  Calculated previous balance: " + previousBalance);
-                        return previousBalance;
-                    }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return getLegacySupplierPreviousBalance(supplierName, excludeInvoiceNumber);
+    }
+
+    /**
+     * Supplier counterpart of {@link #getLegacyCustomerPreviousBalance(String, String)}.
+     */
+    private double getLegacySupplierPreviousBalance(String supplierName, String invoiceNumber) {
+        double currentBalance = getSupplierBalance(supplierName);
+        boolean isReturnInvoice = invoiceNumber != null
+            && (invoiceNumber.startsWith(RAW_PURCHASE_RETURN_PREFIX) || invoiceNumber.startsWith("RPRI"));
+        String query = isReturnInvoice
+            ? "SELECT -rpri.total_return_amount FROM Raw_Purchase_Return_Invoice rpri " +
+              "JOIN Supplier s ON rpri.supplier_id = s.supplier_id " +
+              "WHERE s.supplier_name = ? AND rpri.return_invoice_number = ?"
+            : "SELECT (rpi.total_amount - rpi.discount_amount - rpi.paid_amount) FROM Raw_Purchase_Invoice rpi " +
+              "JOIN Supplier s ON rpi.supplier_id = s.supplier_id " +
+              "WHERE s.supplier_name = ? AND rpi.invoice_number = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, supplierName);
+            pstmt.setString(2, invoiceNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return currentBalance - rs.getDouble(1);
                 }
-            } catch (SQLException e) {
-                e.printStackTrace();
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
-        
-        // If invoice not found, return current balance (this means we're generating PDF before saving invoice)
-        // In this case, current balance IS the previous balance since the invoice hasn't been saved yet
-        System.out.println("  Invoice not found in database, returning current balance: " + currentBalance);
         return currentBalance;
     }
 
+    /**
+     * Customer balance at the end of a day, from the running ledger.
+     * @param customerName Customer name
+     * @param date Date in yyyy-MM-dd format
+     * @return Sum of the postings dated on or before the date; 0 if none
+     */
+    @Override
+    public double getCustomerBalanceAsOf(String customerName, String date) {
+        try {
+            Double balance = PartyLedger.CUSTOMER.balanceAsOf(connection, customerName, date);
+            return balance != null ? balance : 0.0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0.0;
+    }
+
+    /**
+     * Supplier balance at the end of a day, from the running ledger.
+     * @param supplierName Supplier name
+     * @param date Date in yyyy-MM-dd format
+     * @return Sum of the postings dated on or before the date; 0 if none
+     */
+    @Override
+    public double getSupplierBalanceAsOf(String supplierName, String date) {
+        try {
+            Double balance = PartyLedger.SUPPLIER.balanceAsOf(connection, supplierName, date);
+            return balance != null ? balance : 0.0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0.0;
+    }
+
     /**
      * Get invoice balance details for PDF generation
      * @param customerName Customer name
@@ -1568,14 +1457,6 @@ public class SQLiteDatabase implements db {
         double totalBalance = previousBalance + netInvoiceAmount;
         double netBalance = totalBalance; // Net balance is same as total balance since paid amount is already subtracted
         
-        System.out.println("DEBUG: Balance details for " + customerName + " invoice " + invoiceNumber + ":");
-        System.out.println("  Previous Balance: " + previousBalance);
-        System.out.println("  currentInvoiceTotal (net after discount): " + currentInvoiceTotal);
-        System.out.println("  currentInvoicePaid: " + currentInvoicePaid);
-        System.out.println("  netInvoiceAmount: " + netInvoiceAmount);
-        System.out.println("  Calculated Total Balance: " + totalBalance);
-        System.out.println("  Calculated Net Balance: " + netBalance);
-        
         return new Object[]{previousBalance, totalBalance, netBalance};
     }
 
@@ -1598,21 +1479,12 @@ public class SQLiteDatabase implements db {
         double totalBalance = previousBalance + netInvoiceAmount;
         double netBalance = totalBalance; // For suppliers, net balance equals total balance (no additional payments in invoice)
         
-        System.out.println("DEBUG: getSupplierInvoiceBalanceDetails for " + supplierName + " invoice " + invoiceNumber);
-        System.out.println("  currentInvoiceTotal: " + currentInvoiceTotal);
-        System.out.println("  currentInvoicePaid: " + currentInvoicePaid);
-        System.out.println("  netInvoiceAmount: " + netInvoiceAmount);
-        System.out.println("  previousBalance: " + previousBalance);
-        System.out.println("  totalBalance: " + totalBalance);
-        System.out.println("  netBalance: " + netBalance);
-        System.out.println("  Returning: [" + previousBalance + ", " + totalBalance + ", " + netBalance + "]");
-        
         return new Object[]{previousBalance, totalBalance, netBalance};
     }
 
     @Override
     public Customer getCustomerWithCurrentBalance(String customerName) {
-        String query = "SELECT c.customer_name, c.contact_number, t.tehsil_name " +
+        String query = "SELECT c.customer_name, c.contact_number, c.balance, t.tehsil_name " +
                     "FROM Customer c " +
                     "LEFT JOIN Tehsil t ON c.tehsil_id = t.tehsil_id " +
                     "WHERE c.customer_name = ?";
@@ -1626,8 +1498,7 @@ public class SQLiteDatabase implements db {
                     String tehsil = rs.getString("tehsil_name");
                     if (tehsil == null) tehsil = "";
                     
-                    // Get current balance including invoice history
-                    double currentBalance = getCustomerCurrentBalance(name);
+                    double currentBalance = rs.getDouble("balance");
                     
                     return new Customer(name, contact, tehsil, currentBalance);
                 }
@@ -1640,7 +1511,7 @@ public class SQLiteDatabase implements db {
 
     @Override
     public Supplier getSupplierWithCurrentBalance(String supplierName) {
-        String query = "SELECT s.supplier_name, s.contact_number, t.tehsil_name " +
+        String query = "SELECT s.supplier_name, s.contact_number, s.balance, t.tehsil_name " +
                     "FROM Supplier s " +
                     "LEFT JOIN Tehsil t ON s.tehsil_id = t.tehsil_id " +
                     "WHERE s.supplier_name = ?";
@@ -1654,8 +1525,7 @@ public class SQLiteDatabase implements db {
                     String tehsil = rs.getString("tehsil_name");
                     if (tehsil == null) tehsil = "";
                     
-                    // Get current balance including invoice history
-                    double currentBalance = getSupplierCurrentBalance(name);
+                    double currentBalance = rs.getDouble("balance");
                     
                     return new Supplier(name, contact, tehsil, currentBalance);
                 }
@@ -1674,8 +1544,8 @@ public class SQLiteDatabase implements db {
                     "LEFT JOIN Tehsil t ON c.tehsil_id = t.tehsil_id " +
                     "ORDER BY c.customer_name";
         
-        try (Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+            ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 String customerName = rs.getString("customer_name");
@@ -1684,7 +1554,7 @@ public class SQLiteDatabase implements db {
                 String tehsil = rs.getString("tehsil_name");
                 if (tehsil == null) tehsil = "";
                 
-                double currentBalance = getCustomerCurrentBalance(customerName);
+                double currentBalance = initialBalance;
                 
                 Object[] row = {
                     customerName,
@@ -1710,8 +1580,8 @@ public class SQLiteDatabase implements db {
                     "LEFT JOIN Tehsil t ON s.tehsil_id = t.tehsil_id " +
                     "ORDER BY s.supplier_name";
         
-        try (Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+            ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 String supplierName = rs.getString("supplier_name");
@@ -1720,7 +1590,7 @@ public class SQLiteDatabase implements db {
                 String tehsil = rs.getString("tehsil_name");
                 if (tehsil == null) tehsil = "";
                 
-                double currentBalance = getSupplierCurrentBalance(supplierName);
+                double currentBalance = initialBalance;
                 
                 Object[] row = {
                     supplierName,
@@ -1772,7 +1642,7 @@ public class SQLiteDatabase implements db {
     
     @Override
     public Customer getCustomerById(int customerId) {
-        String query = "SELECT c.customer_name, c.contact_number, t.tehsil_name " +
+        String query = "SELECT c.customer_name, c.contact_number, c.balance, t.tehsil_name " +
                     "FROM Customer c " +
                     "LEFT JOIN Tehsil t ON c.tehsil_id = t.tehsil_id " +
                     "WHERE c.customer_id = ?";
@@ -1786,8 +1656,7 @@ public class SQLiteDatabase implements db {
                     String tehsil = rs.getString("tehsil_name");
                     if (tehsil == null) tehsil = "";
                     
-                    // Get current balance including invoice history
-                    double currentBalance = getCustomerCurrentBalance(name);
+                    double currentBalance = rs.getDouble("balance");
                     
                     return new Customer(name, contact, tehsil, currentBalance);
                 }
@@ -1798,10 +1667,11 @@ public class SQLiteDatabase implements db {
         return null;
     }
     
+    static final String CUSTOMER_ID_BY_NAME_SQL = "SELECT customer_id FROM Customer WHERE customer_name = ?";
+
     @Override
     public int getCustomerIdByName(String customerName) {
-        String query = "SELECT customer_id FROM Customer WHERE customer_name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(CUSTOMER_ID_BY_NAME_SQL)) {
             pstmt.setString(1, customerName);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -1832,53 +1702,13 @@ public class SQLiteDatabase implements db {
         try {
             connection.setAutoCommit(false);
             
-            // Get current balance
-            double currentBalance = 0.0;
-            String getBalanceQuery = "SELECT balance_after_transaction FROM Customer_Transaction " +
-                                   "WHERE customer_id = ? ORDER BY transaction_id DESC LIMIT 1";
-            try (PreparedStatement pstmt = connection.prepareStatement(getBalanceQuery)) {
-                pstmt.setInt(1, customerId);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        currentBalance = rs.getDouble("balance_after_transaction");
-                    } else {
-                        // If no transactions exist, get initial balance from Customer table
-                        currentBalance = getCustomerCurrentBalance(getCustomerNameById(customerId));
-                    }
-                }
-            }
+            // Payment reduces the balance owed; the ledger row carries the balance after it
+            double newBalance = PartyLedger.CUSTOMER.post(connection, customerId, -paymentAmount, paymentDate,
+                                                          PartyLedger.CUSTOMER.paymentType, description, null);
             
-            // Calculate new balance after payment (payment reduces the balance owed)
-            double newBalance = currentBalance - paymentAmount;
-            
-            // Insert payment transaction
-            String insertQuery = "INSERT INTO Customer_Transaction " +
-                               "(customer_id, transaction_date, transaction_type, amount, description, balance_after_transaction) " +
-                               "VALUES (?, ?, 'payment_received', ?, ?, ?)";
-            try (PreparedStatement insertStmt = connection.prepareStatement(insertQuery)) {
-                insertStmt.setInt(1, customerId);
-                insertStmt.setString(2, paymentDate);
-                insertStmt.setDouble(3, paymentAmount);
-                insertStmt.setString(4, description);
-                insertStmt.setDouble(5, newBalance);
-                
-                if (insertStmt.executeUpdate() > 0) {
-                    // Also update the Customer table balance field
-                    String updateCustomerBalanceQuery = "UPDATE Customer SET balance = balance - ? WHERE customer_id = ?";
-                    try (PreparedStatement updateStmt = connection.prepareStatement(updateCustomerBalanceQuery)) {
-                        updateStmt.setDouble(1, paymentAmount);
-                        updateStmt.setInt(2, customerId);
-                        updateStmt.executeUpdate();
-                        
-                        System.out.println("DEBUG: Customer balance reduced by payment: " + paymentAmount);
-                        connection.commit();
-                        return true;
-                    }
-                } else {
-                    connection.rollback();
-                    return false;
-                }
-            }
+            DbLog.debug(() -> "Customer balance reduced by payment: " + paymentAmount + ", now " + newBalance);
+            connection.commit();
+            return true;
         } catch (SQLException e) {
             try {
                 connection.rollback();
@@ -1896,24 +1726,6 @@ public class SQLiteDatabase implements db {
         }
     }
     
-    /**
-     * Helper method to get customer name by ID
-     */
-    private String getCustomerNameById(int customerId) {
-        String query = "SELECT customer_name FROM Customer WHERE customer_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, customerId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("customer_name");
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return "";
-    }
-    
     @Override
     public List<Object[]> getCustomerLedger(String customerName) {
         int customerId = getCustomerIdByName(customerName);
@@ -1923,16 +1735,17 @@ public class SQLiteDatabase implements db {
         return getCustomerLedger(customerId);
     }
     
+    static final String CUSTOMER_LEDGER_SQL =
+        "SELECT transaction_date, transaction_type, amount, description, " +
+        "balance_after_transaction, reference_invoice_number " +
+        "FROM Customer_Transaction " +
+        "WHERE customer_id = ? " +
+        "ORDER BY transaction_id ASC";
+
     @Override
     public List<Object[]> getCustomerLedger(int customerId) {
         List<Object[]> ledger = new ArrayList<>();
-        String query = "SELECT transaction_date, transaction_type, amount, description, " +
-                      "balance_after_transaction, reference_invoice_number " +
-                      "FROM Customer_Transaction " +
-                      "WHERE customer_id = ? " +
-                      "ORDER BY transaction_id ASC";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(CUSTOMER_LEDGER_SQL)) {
             pstmt.setInt(1, customerId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -1953,6 +1766,13 @@ public class SQLiteDatabase implements db {
         return ledger;
     }
     
+    static final String CUSTOMER_LEDGER_RANGE_SQL =
+        "SELECT transaction_date, transaction_type, amount, description, " +
+        "balance_after_transaction, reference_invoice_number " +
+        "FROM Customer_Transaction " +
+        "WHERE customer_id = ? AND transaction_date BETWEEN ? AND ? " +
+        "ORDER BY transaction_id ASC";
+
     @Override
     public List<Object[]> getCustomerLedgerByDateRange(String customerName, String startDate, String endDate) {
         List<Object[]> ledger = new ArrayList<>();
@@ -1960,14 +1780,8 @@ public class SQLiteDatabase implements db {
         if (customerId == -1) {
             return ledger; // Return empty list if customer not found
         }
-        
-        String query = "SELECT transaction_date, transaction_type, amount, description, " +
-                      "balance_after_transaction, reference_invoice_number " +
-                      "FROM Customer_Transaction " +
-                      "WHERE customer_id = ? AND transaction_date BETWEEN ? AND ? " +
-                      "ORDER BY transaction_id ASC";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+
+        try (PreparedStatement pstmt = connection.prepareStatement(CUSTOMER_LEDGER_RANGE_SQL)) {
             pstmt.setInt(1, customerId);
             pstmt.setString(2, startDate);
             pstmt.setString(3, endDate);
@@ -1990,21 +1804,59 @@ public class SQLiteDatabase implements db {
         return ledger;
     }
 
+    // The name is resolved in the query, so the whole page is read on a pooled reader
+    static final String CUSTOMER_LEDGER_PAGE_SQL =
+        "SELECT transaction_date, transaction_type, amount, description, " +
+        "balance_after_transaction, reference_invoice_number, transaction_id " +
+        "FROM Customer_Transaction " +
+        "WHERE customer_id = (SELECT customer_id FROM Customer WHERE customer_name = ?) AND transaction_id > ?";
+
+    @Override
+    public List<Object[]> getCustomerLedgerPage(String customerName, String startDate, String endDate, long afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(customerName);
+        params.add(afterId);
+        if (startDate != null) {
+            params.add(startDate);
+        }
+        if (endDate != null) {
+            params.add(endDate);
+        }
+        params.add(limit);
+
+        String query = ledgerPageSql(CUSTOMER_LEDGER_PAGE_SQL, startDate != null, endDate != null);
+        List<Object[]> ledger = readRows(query, params.toArray());
+        for (Object[] row : ledger) {
+            // Same types as getCustomerLedger; REAL columns holding whole numbers come back as Integer
+            row[2] = row[2] instanceof Number ? ((Number) row[2]).doubleValue() : 0.0;
+            row[4] = row[4] instanceof Number ? ((Number) row[4]).doubleValue() : 0.0;
+            row[6] = ((Number) row[6]).longValue();
+        }
+        return ledger;
+    }
+
+    /**
+     * A ledger page statement with the date bounds that are set, in the order their values are bound.
+     */
+    static String ledgerPageSql(String base, boolean from, boolean to) {
+        StringBuilder query = new StringBuilder(base);
+        if (from) {
+            query.append(" AND transaction_date >= ?");
+        }
+        if (to) {
+            query.append(" AND transaction_date <= ?");
+        }
+        return query.append(" ORDER BY transaction_id LIMIT ?").toString();
+    }
+
     @Override
     public List<String> getAllUnits() {
-        List<String> units = new ArrayList<>();
-        String query = "SELECT unit_name FROM Unit ORDER BY unit_name";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                units.add(rs.getString("unit_name"));
-            }
-        } catch (SQLException e) {
+        try {
+            return new ArrayList<>(referenceData.units().names());
+        } catch (Exception e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        return units;
     }
 
     /**
@@ -2015,16 +1867,12 @@ public class SQLiteDatabase implements db {
             return 1; // Default to first unit (Piece)
         }
         
-        String query = "SELECT unit_id FROM Unit WHERE unit_name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, unitName.trim());
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("unit_id");
-                }
+        try {
+            int unitId = referenceData.units().idOf(unitName.trim());
+            if (unitId != -1) {
+                return unitId;
             }
-        } catch (SQLException e) {
+        } catch (Exception e) {
             e.printStackTrace();
         }
         
@@ -2045,7 +1893,7 @@ public class SQLiteDatabase implements db {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         int unitId = generatedKeys.getInt(1);
-                        System.out.println("Auto-created new unit: " + unitName + " with ID: " + unitId);
+                        DbLog.debug(() -> "Auto-created new unit: " + unitName + " with ID: " + unitId);
                         return unitId;
                     }
                 }
@@ -2166,8 +2014,8 @@ public class SQLiteDatabase implements db {
         List<String> users = new ArrayList<>();
         String query = "SELECT username FROM User WHERE is_active = 1 ORDER BY username";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 users.add(rs.getString("username"));
@@ -2212,7 +2060,7 @@ public class SQLiteDatabase implements db {
     
     @Override
     public Supplier getSupplierById(int supplierId) {
-        String query = "SELECT s.supplier_name, s.contact_number, t.tehsil_name " +
+        String query = "SELECT s.supplier_name, s.contact_number, s.balance, t.tehsil_name " +
                     "FROM Supplier s " +
                     "LEFT JOIN Tehsil t ON s.tehsil_id = t.tehsil_id " +
                     "WHERE s.supplier_id = ?";
@@ -2226,8 +2074,7 @@ public class SQLiteDatabase implements db {
                     String tehsil = rs.getString("tehsil_name");
                     if (tehsil == null) tehsil = "";
                     
-                    // Get current balance including invoice history
-                    double currentBalance = getSupplierCurrentBalance(name);
+                    double currentBalance = rs.getDouble("balance");
                     
                     return new Supplier(name, contact, tehsil, currentBalance);
                 }
@@ -2238,10 +2085,11 @@ public class SQLiteDatabase implements db {
         return null;
     }
     
+    static final String SUPPLIER_ID_BY_NAME_SQL = "SELECT supplier_id FROM Supplier WHERE supplier_name = ?";
+
     @Override
     public int getSupplierIdByName(String supplierName) {
-        String query = "SELECT supplier_id FROM Supplier WHERE supplier_name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(SUPPLIER_ID_BY_NAME_SQL)) {
             pstmt.setString(1, supplierName);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -2272,51 +2120,14 @@ public class SQLiteDatabase implements db {
         try {
             connection.setAutoCommit(false);
             
-            // Update supplier balance directly: payment reduces the balance owed to supplier
-            String updateSupplierBalanceQuery = "UPDATE Supplier SET balance = balance - ? WHERE supplier_id = ?";
-            try (PreparedStatement balanceStmt = connection.prepareStatement(updateSupplierBalanceQuery)) {
-                balanceStmt.setDouble(1, paymentAmount);
-                balanceStmt.setInt(2, supplierId);
-                balanceStmt.executeUpdate();
-                
-                System.out.println("DEBUG: Supplier balance reduced by payment amount: " + paymentAmount);
-            }
-            
-            // Insert payment transaction for record keeping
-            String insertQuery = "INSERT INTO Supplier_Transaction " +
-                               "(supplier_id, transaction_date, transaction_type, amount, description, balance_after_transaction) " +
-                               "VALUES (?, ?, 'payment_made', ?, ?, ?)";
-            
-            // Get updated balance for transaction record
-            double updatedBalance = 0.0;
-            String getBalanceQuery = "SELECT balance FROM Supplier WHERE supplier_id = ?";
-            try (PreparedStatement getBalanceStmt = connection.prepareStatement(getBalanceQuery)) {
-                getBalanceStmt.setInt(1, supplierId);
-                try (ResultSet rs = getBalanceStmt.executeQuery()) {
-                    if (rs.next()) {
-                        updatedBalance = rs.getDouble("balance");
-                    }
-                }
-            }
+            // Payment reduces the balance owed to supplier; the ledger row carries the balance after it
+            double updatedBalance = PartyLedger.SUPPLIER.post(connection, supplierId, -paymentAmount, paymentDate,
+                                                              PartyLedger.SUPPLIER.paymentType, description, null);
             
-            try (PreparedStatement pstmt = connection.prepareStatement(insertQuery)) {
-                pstmt.setInt(1, supplierId);
-                pstmt.setString(2, paymentDate);
-                pstmt.setDouble(3, paymentAmount);
-                pstmt.setString(4, description);
-                pstmt.setDouble(5, updatedBalance);
-                
-                int result = pstmt.executeUpdate();
-                if (result > 0) {
-                    connection.commit();
-                    connection.setAutoCommit(true);
-                    return true;
-                } else {
-                    connection.rollback();
-                    connection.setAutoCommit(true);
-                    return false;
-                }
-            }
+            DbLog.debug(() -> "Supplier balance reduced by payment amount: " + paymentAmount + ", now " + updatedBalance);
+            connection.commit();
+            connection.setAutoCommit(true);
+            return true;
         } catch (SQLException e) {
             try {
                 connection.rollback();
@@ -2338,15 +2149,16 @@ public class SQLiteDatabase implements db {
         return getSupplierLedger(supplierId);
     }
     
+    static final String SUPPLIER_LEDGER_SQL =
+        "SELECT transaction_date, transaction_type, amount, description, balance_after_transaction, reference_invoice_number " +
+        "FROM Supplier_Transaction " +
+        "WHERE supplier_id = ? " +
+        "ORDER BY transaction_date, transaction_id";
+
     @Override
     public List<Object[]> getSupplierLedger(int supplierId) {
         List<Object[]> ledger = new ArrayList<>();
-        String query = "SELECT transaction_date, transaction_type, amount, description, balance_after_transaction, reference_invoice_number " +
-                      "FROM Supplier_Transaction " +
-                      "WHERE supplier_id = ? " +
-                      "ORDER BY transaction_date, transaction_id";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(SUPPLIER_LEDGER_SQL)) {
             pstmt.setInt(1, supplierId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -2367,6 +2179,12 @@ public class SQLiteDatabase implements db {
         return ledger;
     }
     
+    static final String SUPPLIER_LEDGER_RANGE_SQL =
+        "SELECT transaction_date, transaction_type, amount, description, balance_after_transaction, reference_invoice_number " +
+        "FROM Supplier_Transaction " +
+        "WHERE supplier_id = ? AND transaction_date BETWEEN ? AND ? " +
+        "ORDER BY transaction_date, transaction_id";
+
     @Override
     public List<Object[]> getSupplierLedgerByDateRange(String supplierName, String startDate, String endDate) {
         int supplierId = getSupplierIdByName(supplierName);
@@ -2375,12 +2193,7 @@ public class SQLiteDatabase implements db {
         }
         
         List<Object[]> ledger = new ArrayList<>();
-        String query = "SELECT transaction_date, transaction_type, amount, description, balance_after_transaction, reference_invoice_number " +
-                      "FROM Supplier_Transaction " +
-                      "WHERE supplier_id = ? AND transaction_date BETWEEN ? AND ? " +
-                      "ORDER BY transaction_date, transaction_id";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(SUPPLIER_LEDGER_RANGE_SQL)) {
             pstmt.setInt(1, supplierId);
             pstmt.setString(2, startDate);
             pstmt.setString(3, endDate);
@@ -2403,6 +2216,37 @@ public class SQLiteDatabase implements db {
         return ledger;
     }
 
+    // The name is resolved in the query, so the whole page is read on a pooled reader
+    static final String SUPPLIER_LEDGER_PAGE_SQL =
+        "SELECT transaction_date, transaction_type, amount, description, " +
+        "balance_after_transaction, reference_invoice_number, transaction_id " +
+        "FROM Supplier_Transaction " +
+        "WHERE supplier_id = (SELECT supplier_id FROM Supplier WHERE supplier_name = ?) AND transaction_id > ?";
+
+    @Override
+    public List<Object[]> getSupplierLedgerPage(String supplierName, String startDate, String endDate, long afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(supplierName);
+        params.add(afterId);
+        if (startDate != null) {
+            params.add(startDate);
+        }
+        if (endDate != null) {
+            params.add(endDate);
+        }
+        params.add(limit);
+
+        String query = ledgerPageSql(SUPPLIER_LEDGER_PAGE_SQL, startDate != null, endDate != null);
+        List<Object[]> ledger = readRows(query, params.toArray());
+        for (Object[] row : ledger) {
+            // Same types as getSupplierLedger; REAL columns holding whole numbers come back as Integer
+            row[2] = row[2] instanceof Number ? ((Number) row[2]).doubleValue() : 0.0;
+            row[4] = row[4] instanceof Number ? ((Number) row[4]).doubleValue() : 0.0;
+            row[6] = ((Number) row[6]).longValue();
+        }
+        return ledger;
+    }
+
     // Helper method to get supplier name by ID
     private String getSupplierNameById(int supplierId) {
         String query = "SELECT supplier_name FROM Supplier WHERE supplier_id = ?";
@@ -2432,8 +2276,8 @@ public class SQLiteDatabase implements db {
                       "LEFT JOIN Unit u ON rs.unit_id = u.unit_id " +
                       "ORDER BY rs.item_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -2453,6 +2297,59 @@ public class SQLiteDatabase implements db {
         return rawStocks;
     }
 
+    @Override
+    public RawStockTable getRawStockTable() {
+        return loadRawStockTable(null, STOCK_TABLE_CAPACITY);
+    }
+
+    @Override
+    public RawStockTable getRawStockTable(Collection<Integer> stockIds) {
+        if (stockIds == null || stockIds.isEmpty()) {
+            return new RawStockTable(0);
+        }
+        return loadRawStockTable(new ArrayList<>(new LinkedHashSet<>(stockIds)), stockIds.size());
+    }
+
+    /**
+     * @param stockIds Only these rows, or null for all of them
+     */
+    private RawStockTable loadRawStockTable(List<Integer> stockIds, int capacity) {
+        RawStockTable table = new RawStockTable(capacity);
+        String query = "SELECT rs.stock_id, rs.item_name, b.brand_name, u.unit_name, " +
+                      "rs.quantity, rs.unit_price, rs.total_cost " +
+                      "FROM Raw_Stock rs " +
+                      "JOIN Brand b ON rs.brand_id = b.brand_id " +
+                      "LEFT JOIN Unit u ON rs.unit_id = u.unit_id " +
+                      (stockIds != null ? "WHERE rs.stock_id IN (" +
+                          String.join(", ", Collections.nCopies(stockIds.size(), "?")) + ") " : "") +
+                      "ORDER BY rs.item_name";
+
+        // Also called from the change bus thread while the writer may be in its next transaction
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement stmt = reader.prepareStatement(query)) {
+                if (stockIds != null) {
+                    for (int i = 0; i < stockIds.size(); i++) {
+                        stmt.setInt(i + 1, stockIds.get(i));
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        table.add(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                  rs.getInt(5), rs.getDouble(6), rs.getDouble(7));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("ERROR: Failed to get raw stock table: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            pool.release(reader);
+        }
+        return table;
+    }
+
     @Override
     public boolean insertRawStock(String name, String category, String brand, String unit, 
                                 double openingQty, double purchasePrice, double reorderLevel) {
@@ -2479,7 +2376,7 @@ public class SQLiteDatabase implements db {
             pstmt.setInt(6, 1); // Use supplier_id = 1 (matches 'rewf')
             pstmt.setString(7, brand);
             
-            System.out.println("Attempting to insert Raw_Stock: item_name=" + name + ", brand=" + brand + 
+            DbLog.debug(() -> "Attempting to insert Raw_Stock: item_name=" + name + ", brand=" + brand + 
                             ", unit=" + unit + " (unit_id=" + unitId + "), quantity=" + quantity + 
                             ", unit_price=" + purchasePrice + ", supplier_id=1");
             
@@ -2492,7 +2389,9 @@ public class SQLiteDatabase implements db {
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     int stockId = generatedKeys.getInt(1);
-                    System.out.println("Successfully inserted Raw_Stock with stock_id: " + stockId);
+                    StockCosting.RAW.receive(connection, stockId, quantity, purchasePrice,
+                                             LocalDate.now().toString(), "opening", null);
+                    DbLog.debug(() -> "Successfully inserted Raw_Stock with stock_id: " + stockId);
                     return true;
                 } else {
                     System.err.println("No generated key returned for Raw_Stock: " + name);
@@ -2536,7 +2435,7 @@ public class SQLiteDatabase implements db {
             pstmt.setInt(6, id);
             pstmt.setString(7, brand);
             
-            System.out.println("Attempting to update Raw_Stock with stock_id=" + id + 
+            DbLog.debug(() -> "Attempting to update Raw_Stock with stock_id=" + id + 
                                ": name=" + name + ", brand=" + brand + ", unit_id=" + unitId + 
                                ", quantity=" + quantity + ", unit_price=" + unitPrice);
             
@@ -2545,8 +2444,10 @@ public class SQLiteDatabase implements db {
                 System.err.println("Failed to update Raw_Stock: no rows affected for stock_id " + id);
                 return false;
             }
+            // An edited quantity is costed as a receipt or issue of the difference
+            StockCosting.RAW.adjustTo(connection, id, quantity, unitPrice, LocalDate.now().toString());
             
-            System.out.println("Successfully updated Raw_Stock with stock_id: " + id);
+            DbLog.debug(() -> "Successfully updated Raw_Stock with stock_id: " + id);
             return true;
         } catch (SQLException e) {
             System.err.println("Error updating Raw_Stock for stock_id " + id + ": " + e.getMessage());
@@ -2562,14 +2463,18 @@ public class SQLiteDatabase implements db {
         String query = "INSERT INTO Raw_Purchase_Invoice (invoice_number, supplier_id, invoice_date, " +
                       "total_amount, discount_amount, paid_amount) VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, invoiceNumber);
-            pstmt.setInt(2, supplierId);
-            pstmt.setString(3, invoiceDate);
-            pstmt.setDouble(4, totalAmount);
-            pstmt.setDouble(5, discountAmount);
-            pstmt.setDouble(6, paidAmount);
-            return pstmt.executeUpdate() > 0;
+        try {
+            return insertNumbered(RAW_PURCHASE_PREFIX, "%06d", invoiceNumber, number -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                    pstmt.setString(1, number);
+                    pstmt.setInt(2, supplierId);
+                    pstmt.setString(3, invoiceDate);
+                    pstmt.setDouble(4, totalAmount);
+                    pstmt.setDouble(5, discountAmount);
+                    pstmt.setDouble(6, paidAmount);
+                    return pstmt.executeUpdate() > 0;
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -2582,22 +2487,19 @@ public class SQLiteDatabase implements db {
         String query = "INSERT INTO Raw_Purchase_Invoice (invoice_number, supplier_id, invoice_date, " +
                       "total_amount, discount_amount, paid_amount) VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, invoiceNumber);
-            pstmt.setInt(2, supplierId);
-            pstmt.setString(3, invoiceDate);
-            pstmt.setDouble(4, totalAmount);
-            pstmt.setDouble(5, discountAmount);
-            pstmt.setDouble(6, paidAmount);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1);
-                    }
+        try {
+            return insertNumbered(RAW_PURCHASE_PREFIX, "%06d", invoiceNumber, number -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, number);
+                    pstmt.setInt(2, supplierId);
+                    pstmt.setString(3, invoiceDate);
+                    pstmt.setDouble(4, totalAmount);
+                    pstmt.setDouble(5, discountAmount);
+                    pstmt.setDouble(6, paidAmount);
+                    pstmt.executeUpdate();
+                    return generatedId(pstmt, "purchase invoice " + number);
                 }
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -2607,25 +2509,10 @@ public class SQLiteDatabase implements db {
     // New methods for enhanced invoice functionality
     @Override
     public String generateNextInvoiceNumber(String prefix) {
-        String query = "SELECT MAX(CAST(SUBSTR(invoice_number, LENGTH(?) + 1) AS INTEGER)) " +
-                      "FROM Raw_Purchase_Invoice WHERE invoice_number LIKE ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, prefix);
-            pstmt.setString(2, prefix + "%");
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    int maxNumber = rs.getInt(1);
-                    return prefix + String.format("%06d", maxNumber + 1);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (!RAW_PURCHASE_PREFIX.equals(prefix)) {
+            sequences.register(prefix, highestNumberQuery("Raw_Purchase_Invoice", "invoice_number", prefix));
         }
-        
-        // If no invoices found or error, start with 000001
-        return prefix + "000001";
+        return nextDocumentNumber(prefix, "%06d");
     }
     
     @Override
@@ -2637,8 +2524,8 @@ public class SQLiteDatabase implements db {
                       "LEFT JOIN Unit u ON rs.unit_id = u.unit_id " +
                       "ORDER BY rs.item_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -2662,8 +2549,8 @@ public class SQLiteDatabase implements db {
         List<String> supplierNames = new ArrayList<>();
         String query = "SELECT supplier_name FROM Supplier ORDER BY supplier_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 supplierNames.add(rs.getString("supplier_name"));
@@ -2685,10 +2572,10 @@ public class SQLiteDatabase implements db {
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 int stockId = rs.getInt("stock_id");
-                System.out.println("Found stock_id: " + stockId + " for item_name: " + itemName);
+                DbLog.debug(() -> "Found stock_id: " + stockId + " for item_name: " + itemName);
                 return stockId;
             } else {
-                System.out.println("No stock_id found for item_name: " + itemName);
+                DbLog.debug(() -> "No stock_id found for item_name: " + itemName);
                 return -1;
             }
         } catch (SQLException e) {
@@ -2698,6 +2585,31 @@ public class SQLiteDatabase implements db {
         }
     }
 
+    @Override
+    public Map<String, Integer> getRawStockIdsByName(Collection<String> itemNames) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (itemNames == null || itemNames.isEmpty()) {
+            return ids;
+        }
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(itemNames));
+        String query = "SELECT item_name, MIN(stock_id) AS stock_id FROM Raw_Stock WHERE item_name IN (" +
+                       String.join(", ", Collections.nCopies(names.size(), "?")) + ") GROUP BY item_name";
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (int i = 0; i < names.size(); i++) {
+                pstmt.setString(i + 1, names.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString("item_name"), rs.getInt("stock_id"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving stock_ids for " + names.size() + " item name(s): " + e.getMessage());
+            e.printStackTrace();
+        }
+        return ids;
+    }
+
 
     @Override
     public boolean ensureBrandExists(String brandName, int tehsilId) {
@@ -2719,7 +2631,7 @@ public class SQLiteDatabase implements db {
             pstmt.setString(1, brandName);
             pstmt.setInt(2, 1); // Assume manufacturer_id = 1 exists; adjust as needed
             int rowsAffected = pstmt.executeUpdate();
-            System.out.println("Inserted Default Brand: " + brandName);
+            DbLog.debug(() -> "Inserted Default Brand: " + brandName);
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Failed to insert brand " + brandName + ": " + e.getMessage());
@@ -2733,7 +2645,7 @@ public class SQLiteDatabase implements db {
                                                 List<RawStockPurchaseItem> items) {
         try {
             connection.setAutoCommit(false); // Start transaction
-            System.out.println("Starting insertSimpleRawPurchaseInvoice: invoiceNumber=" + invoiceNumber + ", supplierName=" + supplierName);
+            DbLog.debug(() -> "Starting insertSimpleRawPurchaseInvoice: invoiceNumber=" + invoiceNumber + ", supplierName=" + supplierName);
 
             // 1. Validate inputs
             if (items == null || items.isEmpty()) {
@@ -2741,10 +2653,11 @@ public class SQLiteDatabase implements db {
                 connection.rollback();
                 return false;
             }
-            System.out.println("Items list size: " + items.size());
+            DbLog.debug(() -> "Items list size: " + items.size());
             for (int i = 0; i < items.size(); i++) {
                 RawStockPurchaseItem item = items.get(i);
-                System.out.println("Item " + (i + 1) + ": name=" + (item != null ? item.getRawStockName() : "null") + 
+                int itemNumber = i + 1;
+                DbLog.debug(() -> "Item " + itemNumber + ": name=" + (item != null ? item.getRawStockName() : "null") + 
                                 ", quantity=" + (item != null ? item.getQuantity() : "null") + 
                                 ", unit_price=" + (item != null ? item.getUnitPrice() : "null"));
             }
@@ -2756,16 +2669,18 @@ public class SQLiteDatabase implements db {
                 connection.rollback();
                 return false;
             }
-            System.out.println("Found supplier_id: " + supplierId + " for supplier: " + supplierName);
+            DbLog.debug(() -> "Found supplier_id: " + supplierId + " for supplier: " + supplierName);
 
             // 3. Get a valid tehsil_id
             int tehsilId = -1;
             String getTehsilQuery = "SELECT tehsil_id FROM Tehsil LIMIT 1";
-            try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(getTehsilQuery)) {
+            try (PreparedStatement stmt = connection.prepareStatement(getTehsilQuery);
+                ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     tehsilId = rs.getInt("tehsil_id");
-                    System.out.println("Found tehsil_id: " + tehsilId);
+                    if (DbLog.isDebugEnabled()) {
+                        DbLog.debug("Found tehsil_id: " + tehsilId);
+                    }
                 } else {
                     System.err.println("No tehsil found in Tehsil table");
                     connection.rollback();
@@ -2784,15 +2699,16 @@ public class SQLiteDatabase implements db {
             String insertInvoiceQuery = "INSERT INTO Raw_Purchase_Invoice (invoice_number, supplier_id, invoice_date, total_amount, discount_amount, paid_amount) " +
                                     "VALUES (?, ?, ?, ?, ?, ?)";
             int rawPurchaseInvoiceId;
+            String number = sequences.assign(RAW_PURCHASE_PREFIX, "%06d", invoiceNumber);
             try (PreparedStatement pstmt = connection.prepareStatement(insertInvoiceQuery, Statement.RETURN_GENERATED_KEYS)) {
-                pstmt.setString(1, invoiceNumber);
+                pstmt.setString(1, number);
                 pstmt.setInt(2, supplierId);
                 pstmt.setString(3, invoiceDate);
                 pstmt.setDouble(4, totalAmount);
                 pstmt.setDouble(5, discountAmount);
                 pstmt.setDouble(6, paidAmount);
 
-                System.out.println("Inserting Raw_Purchase_Invoice: invoiceNumber=" + invoiceNumber + ", supplierId=" + supplierId +
+                DbLog.debug(() -> "Inserting Raw_Purchase_Invoice: invoiceNumber=" + number + ", supplierId=" + supplierId +
                                 ", invoiceDate=" + invoiceDate + ", totalAmount=" + totalAmount +
                                 ", discountAmount=" + discountAmount + ", paidAmount=" + paidAmount);
 
@@ -2806,7 +2722,7 @@ public class SQLiteDatabase implements db {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         rawPurchaseInvoiceId = generatedKeys.getInt(1);
-                        System.out.println("Inserted Raw_Purchase_Invoice with ID: " + rawPurchaseInvoiceId);
+                        DbLog.debug(() -> "Inserted Raw_Purchase_Invoice with ID: " + rawPurchaseInvoiceId);
                     } else {
                         System.err.println("Failed to retrieve generated invoice ID");
                         connection.rollback();
@@ -2819,9 +2735,9 @@ public class SQLiteDatabase implements db {
             String insertItemQuery = "INSERT INTO Raw_Purchase_Invoice_Item (raw_purchase_invoice_id, raw_stock_id, quantity, unit_price) " +
                         "VALUES (?, ?, ?, ?)";
             // Print all items that are going to be inserted
-            System.out.println("Items to be inserted into Raw_Purchase_Invoice_Item:");
+            DbLog.debug("Items to be inserted into Raw_Purchase_Invoice_Item:");
             for (RawStockPurchaseItem item : items) {
-                System.out.println("Raw Purchase Invoice ID: " + rawPurchaseInvoiceId +
+                DbLog.debug(() -> "Raw Purchase Invoice ID: " + rawPurchaseInvoiceId +
                 ", Raw Stock ID: " + (item != null ? item.getRawStockId() : "null") +
                 ", Quantity: " + (item != null ? item.getQuantity() : "null") +
                 ", Unit Price: " + (item != null ? item.getUnitPrice() : "null"));
@@ -2830,6 +2746,8 @@ public class SQLiteDatabase implements db {
             try (Statement stmt = connection.createStatement()) {
                 stmt.execute("PRAGMA foreign_keys = OFF");
             }
+            // Stock ids resolved once per name, reused by the stock update below
+            Map<String, Integer> rawStockIds = new HashMap<>();
             try (PreparedStatement pstmt = connection.prepareStatement(insertItemQuery)) {
                 for (RawStockPurchaseItem item : items) {
                     try {
@@ -2838,11 +2756,11 @@ public class SQLiteDatabase implements db {
                             connection.rollback();
                             return false;
                         }
-                        System.out.println("Processing item: " + item.getRawStockName() + ", quantity=" + item.getQuantity() + 
+                        DbLog.debug(() -> "Processing item: " + item.getRawStockName() + ", quantity=" + item.getQuantity() + 
                                         ", unit_price=" + item.getUnitPrice());
 
-                        int rawStockId = getRawStockIdByName(item.getRawStockName());
-                        System.out.println("Initial getRawStockIdByName for " + item.getRawStockName() + ": " + rawStockId);
+                        Integer knownId = rawStockIds.get(item.getRawStockName());
+                        int rawStockId = knownId != null ? knownId : getRawStockIdByName(item.getRawStockName());
                         if (rawStockId == -1) {
                             boolean inserted = insertRawStock(item.getRawStockName(), "General", "Default Brand", "Piece", 0, item.getUnitPrice(), 0);
                             if (!inserted) {
@@ -2851,7 +2769,9 @@ public class SQLiteDatabase implements db {
                                 return false;
                             }
                             rawStockId = getRawStockIdByName(item.getRawStockName());
-                            System.out.println("Post-insert getRawStockIdByName for " + item.getRawStockName() + ": " + rawStockId);
+                            if (DbLog.isDebugEnabled()) {
+                                DbLog.debug("Post-insert getRawStockIdByName for " + item.getRawStockName() + ": " + rawStockId);
+                            }
                             if (rawStockId == -1) {
                                 System.err.println("Failed to retrieve new raw stock ID for: " + item.getRawStockName());
                                 connection.rollback();
@@ -2859,25 +2779,18 @@ public class SQLiteDatabase implements db {
                             }
                         }
 
-                        // Verify raw_stock_id exists in Raw_Stock
-                        String verifyStockQuery = "SELECT stock_id FROM Raw_Stock WHERE stock_id = ?";
-                        try (PreparedStatement verifyStmt = connection.prepareStatement(verifyStockQuery)) {
-                            verifyStmt.setInt(1, rawStockId);
-                            ResultSet rs = verifyStmt.executeQuery();
-                            if (!rs.next()) {
-                                System.err.println("Invalid raw_stock_id: " + rawStockId + " does not exist in Raw_Stock for item: " + item.getRawStockName());
-                                connection.rollback();
-                                return false;
-                            }
-                        }
+                        // The id was just read from Raw_Stock, so it exists
+                        rawStockIds.put(item.getRawStockName(), rawStockId);
 
                         pstmt.setInt(1, rawPurchaseInvoiceId);
                         pstmt.setInt(2, rawStockId);
                         pstmt.setInt(3, item.getQuantity().intValue());
                         pstmt.setDouble(4, item.getUnitPrice());
-                        System.out.println("Adding batch for Raw_Purchase_Invoice_Item: raw_purchase_invoice_id=" + rawPurchaseInvoiceId +
+                        if (DbLog.isDebugEnabled()) {
+                            DbLog.debug("Adding batch for Raw_Purchase_Invoice_Item: raw_purchase_invoice_id=" + rawPurchaseInvoiceId +
                                         ", raw_stock_id=" + rawStockId + ", quantity=" + item.getQuantity() +
                                         ", unit_price=" + item.getUnitPrice());
+                        }
                         pstmt.addBatch();
                     } catch (SQLException e) {
                         System.err.println("SQLException in item loop for " + item.getRawStockName() + ": " + e.getMessage());
@@ -2886,7 +2799,7 @@ public class SQLiteDatabase implements db {
                         return false;
                     }
                 }
-                System.out.println("Executing batch insert for Raw_Purchase_Invoice_Item");
+                DbLog.debug("Executing batch insert for Raw_Purchase_Invoice_Item");
                 pstmt.executeBatch();
             }
             try (Statement stmt = connection.createStatement()) {
@@ -2903,20 +2816,22 @@ public class SQLiteDatabase implements db {
                             connection.rollback();
                             return false;
                         }
-                        int rawStockId = getRawStockIdByName(item.getRawStockName());
-                        if (rawStockId == -1) {
+                        Integer rawStockId = rawStockIds.get(item.getRawStockName());
+                        if (rawStockId == null) {
                             System.err.println("Raw stock ID not found for update: " + item.getRawStockName());
                             connection.rollback();
                             return false;
                         }
                         double totalCost = item.getQuantity() * item.getUnitPrice();
-                        System.out.println("Updating stock for item: " + item.getRawStockName() + 
+                        DbLog.debug(() -> "Updating stock for item: " + item.getRawStockName() + 
                                         ", Quantity: " + item.getQuantity() + ", Total Cost: " + totalCost);
 
                         pstmt.setInt(1, item.getQuantity().intValue());
                         pstmt.setDouble(2, totalCost);
                         pstmt.setInt(3, rawStockId);
                         pstmt.addBatch();
+                        StockCosting.RAW.receive(connection, rawStockId, item.getQuantity().intValue(), item.getUnitPrice(),
+                                                 invoiceDate, "purchase", number);
                     } catch (SQLException e) {
                         System.err.println("SQLException in stock update loop for " + item.getRawStockName() + ": " + e.getMessage());
                         e.printStackTrace();
@@ -2924,28 +2839,24 @@ public class SQLiteDatabase implements db {
                         return false;
                     }
                 }
-                System.out.println("Executing batch update for Raw_Stock");
+                DbLog.debug("Executing batch update for Raw_Stock");
                 pstmt.executeBatch();
             }
 
             // Update supplier balance: add net amount owed (total - discount - paid)
             double netAmountOwed = (totalAmount - discountAmount) - paidAmount;
-            if (netAmountOwed > 0) {
-                String updateSupplierBalanceQuery = "UPDATE Supplier SET balance = balance + ? WHERE supplier_id = ?";
-                try (PreparedStatement balanceStmt = connection.prepareStatement(updateSupplierBalanceQuery)) {
-                    balanceStmt.setDouble(1, netAmountOwed);
-                    balanceStmt.setInt(2, supplierId);
-                    balanceStmt.executeUpdate();
-                    
-                    System.out.println("DEBUG: Supplier balance increased by net amount owed: " + netAmountOwed + 
-                                     " (total: " + totalAmount + ", discount: " + discountAmount + ", paid: " + paidAmount + ")");
-                }
-            }
+            // Overpayment is not credited to the supplier, matching how the balance was always kept
+            double balanceIncrease = netAmountOwed > 0 ? netAmountOwed : 0.0;
+            PartyLedger.SUPPLIER.post(connection, supplierId, balanceIncrease, invoiceDate,
+                                      PartyLedger.INVOICE_CHARGE, "Purchase invoice", number);
+            DbLog.debug(() -> "Supplier balance increased by net amount owed: " + balanceIncrease + 
+                             " (total: " + totalAmount + ", discount: " + discountAmount + ", paid: " + paidAmount + ")");
 
             connection.commit();
-            System.out.println("Successfully inserted Raw_Purchase_Invoice and items for invoice: " + invoiceNumber);
+            DbLog.debug(() -> "Successfully inserted Raw_Purchase_Invoice and items for invoice: " + number);
             return true;
         } catch (SQLException e) {
+            sequences.invalidate(RAW_PURCHASE_PREFIX);
             System.err.println("SQLException during insertSimpleRawPurchaseInvoice: " + e.getMessage());
             e.printStackTrace();
             try {
@@ -2973,8 +2884,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Supplier s ON rpi.supplier_id = s.supplier_id " +
                       "ORDER BY rpi.invoice_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -3001,8 +2912,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Raw_Stock rs ON rsu.raw_stock_id = rs.stock_id " +
                       "ORDER BY rsu.usage_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -3027,17 +2938,7 @@ public class SQLiteDatabase implements db {
      * Generate auto-increment return invoice number
      */
     public String generateReturnInvoiceNumber() {
-        String query = "SELECT COUNT(*) + 1 as next_id FROM Raw_Purchase_Return_Invoice";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                int nextId = rs.getInt("next_id");
-                return String.format("INV-RPR-%03d", nextId);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return "INV-RPR-001"; // fallback
+        return nextDocumentNumber(RAW_PURCHASE_RETURN_PREFIX, "%03d");
     }
     
     /**
@@ -3051,8 +2952,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Supplier s ON rpi.supplier_id = s.supplier_id " +
                       "ORDER BY rpi.invoice_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -3114,21 +3015,18 @@ public class SQLiteDatabase implements db {
                            "(return_invoice_number, original_invoice_id, supplier_id, return_date, total_return_amount) " +
                            "VALUES (?, ?, ?, ?, ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, returnInvoiceNumber);
-            pstmt.setInt(2, originalInvoiceId);
-            pstmt.setInt(3, supplierId);
-            pstmt.setString(4, returnDate);
-            pstmt.setDouble(5, totalReturnAmount);
-            
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1);
-                    }
+        try {
+            return insertNumbered(RAW_PURCHASE_RETURN_PREFIX, "%03d", returnInvoiceNumber, number -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, number);
+                    pstmt.setInt(2, originalInvoiceId);
+                    pstmt.setInt(3, supplierId);
+                    pstmt.setString(4, returnDate);
+                    pstmt.setDouble(5, totalReturnAmount);
+                    pstmt.executeUpdate();
+                    return generatedId(pstmt, "purchase return " + number);
                 }
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -3220,6 +3118,7 @@ public class SQLiteDatabase implements db {
                     updatePstmt.setDouble(2, totalCostReduction); // reduce total cost
                     updatePstmt.setInt(3, item.getRawStockId());
                     updatePstmt.addBatch();
+                    StockCosting.RAW.issue(connection, item.getRawStockId(), item.getQuantity());
                 }
                 updatePstmt.executeBatch();
             }
@@ -3227,12 +3126,17 @@ public class SQLiteDatabase implements db {
             // Update supplier balance: subtract return amount (we owe supplier less)
             // First, get supplier ID from the return invoice
             int supplierId = -1;
-            String getSupplierQuery = "SELECT supplier_id FROM Raw_Purchase_Return_Invoice WHERE raw_purchase_return_invoice_id = ?";
+            String returnNumber = null;
+            String returnDate = null;
+            String getSupplierQuery = "SELECT supplier_id, return_invoice_number, return_date " +
+                                     "FROM Raw_Purchase_Return_Invoice WHERE raw_purchase_return_invoice_id = ?";
             try (PreparedStatement supplierStmt = connection.prepareStatement(getSupplierQuery)) {
                 supplierStmt.setInt(1, returnInvoiceId);
                 try (ResultSet rs = supplierStmt.executeQuery()) {
                     if (rs.next()) {
                         supplierId = rs.getInt("supplier_id");
+                        returnNumber = rs.getString("return_invoice_number");
+                        returnDate = rs.getString("return_date");
                     }
                 }
             }
@@ -3244,13 +3148,10 @@ public class SQLiteDatabase implements db {
                     totalReturnAmount += item.getQuantity() * item.getUnitPrice();
                 }
                 
-                String updateSupplierBalanceQuery = "UPDATE Supplier SET balance = balance - ? WHERE supplier_id = ?";
-                try (PreparedStatement balanceStmt = connection.prepareStatement(updateSupplierBalanceQuery)) {
-                    balanceStmt.setDouble(1, totalReturnAmount);
-                    balanceStmt.setInt(2, supplierId);
-                    balanceStmt.executeUpdate();
-                    
-                    System.out.println("DEBUG: Supplier balance reduced by return amount: " + totalReturnAmount);
+                PartyLedger.SUPPLIER.post(connection, supplierId, -totalReturnAmount, returnDate,
+                                          PartyLedger.ADJUSTMENT, "Purchase return", returnNumber);
+                if (DbLog.isDebugEnabled()) {
+                    DbLog.debug("Supplier balance reduced by return amount: " + totalReturnAmount);
                 }
             }
             
@@ -3283,8 +3184,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Raw_Purchase_Invoice rpi ON rpri.original_invoice_id = rpi.raw_purchase_invoice_id " +
                       "ORDER BY rpri.return_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -3311,17 +3212,7 @@ public class SQLiteDatabase implements db {
      */
     @Override
     public String generateUseInvoiceNumber() {
-        String query = "SELECT COUNT(*) FROM Raw_Stock_Use_Invoice";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                int count = rs.getInt(1) + 1;
-                return String.format("INV-RSU-%03d", count);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return "INV-RSU-001";
+        return nextDocumentNumber(RAW_STOCK_USE_PREFIX, "%03d");
     }
     
     /**
@@ -3338,8 +3229,8 @@ public class SQLiteDatabase implements db {
                       "WHERE rs.quantity > 0 " +
                       "ORDER BY rs.item_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -3368,20 +3259,17 @@ public class SQLiteDatabase implements db {
         String query = "INSERT INTO Raw_Stock_Use_Invoice (use_invoice_number, usage_date, " +
                       "total_usage_amount, reference_purpose) VALUES (?, ?, ?, ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, useInvoiceNumber);
-            pstmt.setString(2, usageDate);
-            pstmt.setDouble(3, totalUsageAmount);
-            pstmt.setString(4, referencePurpose);
-            
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1);
-                    }
+        try {
+            return insertNumbered(RAW_STOCK_USE_PREFIX, "%03d", useInvoiceNumber, number -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, number);
+                    pstmt.setString(2, usageDate);
+                    pstmt.setDouble(3, totalUsageAmount);
+                    pstmt.setString(4, referencePurpose);
+                    pstmt.executeUpdate();
+                    return generatedId(pstmt, "raw stock use invoice " + number);
                 }
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -3443,20 +3331,25 @@ public class SQLiteDatabase implements db {
                       "FROM Raw_Stock_Use_Invoice rsui " +
                       "ORDER BY rsui.usage_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getString("use_invoice_number"),
-                    rs.getString("usage_date"),
-                    rs.getDouble("total_usage_amount"),
-                    rs.getString("reference_purpose")
-                };
-                useInvoices.add(row);
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement stmt = reader.prepareStatement(query);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Object[] row = {
+                        rs.getString("use_invoice_number"),
+                        rs.getString("usage_date"),
+                        rs.getDouble("total_usage_amount"),
+                        rs.getString("reference_purpose")
+                    };
+                    useInvoices.add(row);
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            pool.release(reader);
         }
         return useInvoices;
     }
@@ -3587,8 +3480,8 @@ public class SQLiteDatabase implements db {
                       "LEFT JOIN Unit u ON ps.unit_id = u.unit_id " +
                       "ORDER BY ps.product_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -3613,6 +3506,59 @@ public class SQLiteDatabase implements db {
         return productionStocks;
     }
 
+    @Override
+    public ProductionStockTable getProductionStockTable() {
+        return loadProductionStockTable(null, STOCK_TABLE_CAPACITY);
+    }
+
+    @Override
+    public ProductionStockTable getProductionStockTable(Collection<Integer> productionIds) {
+        if (productionIds == null || productionIds.isEmpty()) {
+            return new ProductionStockTable(0);
+        }
+        return loadProductionStockTable(new ArrayList<>(new LinkedHashSet<>(productionIds)), productionIds.size());
+    }
+
+    /**
+     * @param productionIds Only these rows, or null for all of them
+     */
+    private ProductionStockTable loadProductionStockTable(List<Integer> productionIds, int capacity) {
+        ProductionStockTable table = new ProductionStockTable(capacity);
+        String query = "SELECT ps.production_id, ps.product_name, b.brand_name, u.unit_name, " +
+                      "ps.quantity, ps.unit_cost, ps.sale_price, ps.total_cost, ps.production_date " +
+                      "FROM ProductionStock ps " +
+                      "JOIN Brand b ON ps.brand_id = b.brand_id " +
+                      "LEFT JOIN Unit u ON ps.unit_id = u.unit_id " +
+                      (productionIds != null ? "WHERE ps.production_id IN (" +
+                          String.join(", ", Collections.nCopies(productionIds.size(), "?")) + ") " : "") +
+                      "ORDER BY ps.product_name";
+
+        // Also called from the change bus thread while the writer may be in its next transaction
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement stmt = reader.prepareStatement(query)) {
+                if (productionIds != null) {
+                    for (int i = 0; i < productionIds.size(); i++) {
+                        stmt.setInt(i + 1, productionIds.get(i));
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        table.add(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5),
+                                  rs.getDouble(6), rs.getDouble(7), rs.getDouble(8), rs.getString(9));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("ERROR: Failed to get production stock table: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            pool.release(reader);
+        }
+        return table;
+    }
+
     @Override
     public List<Object[]> getAllProductionStocksForDropdown() {
         List<Object[]> productionStocks = new ArrayList<>();
@@ -3624,8 +3570,8 @@ public class SQLiteDatabase implements db {
                       "WHERE ps.quantity > 0 " +
                       "ORDER BY ps.product_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -3647,17 +3593,7 @@ public class SQLiteDatabase implements db {
 
     @Override
     public String generateProductionInvoiceNumber() {
-        String query = "SELECT COUNT(*) FROM Production_Invoice";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                int count = rs.getInt(1);
-                return String.format("PI-%04d", count + 1);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return "PI-0001";
+        return nextDocumentNumber(PRODUCTION_INVOICE_PREFIX, "%04d");
     }
 
     @Override
@@ -3672,7 +3608,10 @@ public class SQLiteDatabase implements db {
             if (affectedRows > 0) {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1);
+                        int generatedId = generatedKeys.getInt(1);
+                        // Production invoices have no number column, just consume the next PI- number
+                        sequences.reserveBlock(PRODUCTION_INVOICE_PREFIX, 1);
+                        return generatedId;
                     }
                 }
             }
@@ -3682,63 +3621,6 @@ public class SQLiteDatabase implements db {
         return -1;
     }
 
-    @Override
-    public boolean insertProductionInvoiceItems(int productionInvoiceId, List<Object[]> productionItems) {
-        String insertQuery = "INSERT INTO Production_Invoice_Item (production_invoice_id, " +
-                           "production_id, quantity_produced) VALUES (?, ?, ?)";
-        
-        try {
-            connection.setAutoCommit(false);
-            
-            // Insert production invoice items
-            try (PreparedStatement pstmt = connection.prepareStatement(insertQuery)) {
-                for (Object[] item : productionItems) {
-                    pstmt.setInt(1, productionInvoiceId);
-                    pstmt.setInt(2, (Integer) item[0]); // production_id from ProductionStock table
-                    pstmt.setDouble(3, (Double) item[1]); // quantity_produced
-                    pstmt.addBatch();
-                }
-                
-                int[] insertResults = pstmt.executeBatch();
-                
-                // Check if all items were inserted successfully
-                for (int result : insertResults) {
-                    if (result <= 0) {
-                        connection.rollback();
-                        connection.setAutoCommit(true);
-                        return false;
-                    }
-                }
-            }
-            
-            // Update production stock quantities (increase stock as items are being produced)
-            String updateStockQuery = "UPDATE ProductionStock SET quantity = quantity + ? " +
-                                    "WHERE production_id = ?";
-            try (PreparedStatement updatePstmt = connection.prepareStatement(updateStockQuery)) {
-                for (Object[] item : productionItems) {
-                    updatePstmt.setDouble(1, (Double) item[1]); // quantity_produced (add to stock)
-                    updatePstmt.setInt(2, (Integer) item[0]); // production_id
-                    updatePstmt.addBatch();
-                }
-                updatePstmt.executeBatch();
-            }
-            
-            connection.commit();
-            connection.setAutoCommit(true);
-            return true;
-            
-        } catch (SQLException e) {
-            try {
-                connection.rollback();
-                connection.setAutoCommit(true);
-            } catch (SQLException rollbackEx) {
-                rollbackEx.printStackTrace();
-            }
-            e.printStackTrace();
-            return false;
-        }
-    }
-
     /**
      * Get current production stock quantity for validation
      */
@@ -3758,53 +3640,87 @@ public class SQLiteDatabase implements db {
     }
 
     @Override
-    public boolean insertProductionStockRawUsage(int productionInvoiceId, List<Object[]> rawMaterialsUsed) {
-        String query = "INSERT INTO Production_Stock_Raw_Usage (production_invoice_id, " +
-                      "raw_stock_id, quantity_used) VALUES (?, ?, ?)";
-        
+    public int postProductionInvoice(String productionDate, String notes,
+                                     List<Object[]> productionItems, List<Object[]> rawMaterialsUsed) {
+        try {
+            // Invoice, items, product stock and raw material usage in one transaction
+            int productionInvoiceId = productionPosting.post(productionDate, notes, productionItems, rawMaterialsUsed);
+            DbLog.debug(() -> "Production invoice " + productionInvoiceId + " posted (" + productionItems.size() +
+                               " item(s), raw materials " +
+                               (rawMaterialsUsed == null || rawMaterialsUsed.isEmpty() ? "from bills of materials" : "given") + ")");
+            return productionInvoiceId;
+        } catch (SQLException e) {
+            System.err.println("ERROR: Production invoice not saved: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public List<Object[]> getBillOfMaterials(int productionId) {
+        List<Object[]> components = new ArrayList<>();
+        String query = "SELECT bom.raw_stock_id, rs.item_name, bom.quantity_per_unit " +
+                      "FROM Bill_Of_Materials bom " +
+                      "JOIN Raw_Stock rs ON bom.raw_stock_id = rs.stock_id " +
+                      "WHERE bom.production_id = ? " +
+                      "ORDER BY rs.item_name";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            connection.setAutoCommit(false);
-            
-            for (Object[] material : rawMaterialsUsed) {
-                pstmt.setInt(1, productionInvoiceId);
-                pstmt.setInt(2, (Integer) material[0]); // stock_id from Raw_Stock table
-                pstmt.setDouble(3, (Double) material[1]); // quantity_used
-                pstmt.addBatch();
-            }
-            
-            int[] results = pstmt.executeBatch();
-            
-            // Update raw stock quantities
-            String updateStockQuery = "UPDATE Raw_Stock SET quantity = quantity - ? " +
-                                    "WHERE stock_id = ?";
-            try (PreparedStatement updatePstmt = connection.prepareStatement(updateStockQuery)) {
-                for (Object[] material : rawMaterialsUsed) {
-                    updatePstmt.setDouble(1, (Double) material[1]); // quantity_used
-                    updatePstmt.setInt(2, (Integer) material[0]); // stock_id
-                    updatePstmt.addBatch();
+            pstmt.setInt(1, productionId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    components.add(new Object[]{
+                        rs.getInt("raw_stock_id"),
+                        rs.getString("item_name"),
+                        rs.getDouble("quantity_per_unit")
+                    });
                 }
-                updatePstmt.executeBatch();
             }
-            
-            connection.commit();
-            connection.setAutoCommit(true);
-            
-            for (int result : results) {
-                if (result <= 0) {
-                    return false;
-                }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return components;
+    }
+
+    @Override
+    public boolean saveBillOfMaterials(int productionId, List<Object[]> components) {
+        String deleteQuery = "DELETE FROM Bill_Of_Materials WHERE production_id = ?";
+        String insertQuery = "INSERT INTO Bill_Of_Materials (production_id, raw_stock_id, quantity_per_unit) " +
+                           "VALUES (?, ?, ?) " +
+                           "ON CONFLICT (production_id, raw_stock_id) " +
+                           "DO UPDATE SET quantity_per_unit = quantity_per_unit + excluded.quantity_per_unit";
+        boolean autoCommit = true;
+        try {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement(deleteQuery);
+                 PreparedStatement insert = connection.prepareStatement(insertQuery)) {
+                delete.setInt(1, productionId);
+                delete.executeUpdate();
+                for (Object[] component : components) {
+                    insert.setInt(1, productionId);
+                    insert.setInt(2, (Integer) component[0]); // raw_stock_id
+                    insert.setDouble(3, (Double) component[1]); // quantity_per_unit
+                    insert.addBatch();
+                }
+                insert.executeBatch();
             }
+            connection.commit();
             return true;
-            
         } catch (SQLException e) {
             try {
                 connection.rollback();
-                connection.setAutoCommit(true);
             } catch (SQLException rollbackEx) {
                 rollbackEx.printStackTrace();
             }
+            System.err.println("ERROR: Bill of materials for product " + productionId + " not saved: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
     }
 
@@ -3827,7 +3743,7 @@ public class SQLiteDatabase implements db {
             // Ensure brand exists
             ensureBrandExists(brand, 1); // Default tehsil_id = 1
             
-            PreparedStatement pstmt = connection.prepareStatement(query);
+            PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
             double totalCost = openingQty * unitCost;
             
             pstmt.setString(1, name);
@@ -3839,12 +3755,18 @@ public class SQLiteDatabase implements db {
             pstmt.setDouble(7, salePrice);
             
             int result = pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    StockCosting.PRODUCT.receive(connection, keys.getInt(1), (int) openingQty, unitCost,
+                                                 LocalDate.now().toString(), "opening", null);
+                }
+            }
             pstmt.close();
             
             connection.commit(); // Commit transaction
             connection.setAutoCommit(true); // Reset auto-commit
             
-            System.out.println("DEBUG: Inserted ProductionStock - Name: " + name + 
+            DbLog.debug(() -> "Inserted ProductionStock - Name: " + name + 
                              ", Unit: " + unit + " (unit_id=" + unitId + "), Unit Cost: " + unitCost + ", Sale Price: " + salePrice);
             
             return result > 0;
@@ -3875,7 +3797,7 @@ public class SQLiteDatabase implements db {
             // Ensure brand exists
             ensureBrandExists(brand, 1); // Default tehsil_id = 1
             
-            PreparedStatement pstmt = connection.prepareStatement(query);
+            PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
             double totalCost = openingQty * unitCost;
             
             pstmt.setString(1, name);
@@ -3887,12 +3809,18 @@ public class SQLiteDatabase implements db {
             pstmt.setDouble(7, salePrice);     // Use the actual sale price passed
             
             int result = pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    StockCosting.PRODUCT.receive(connection, keys.getInt(1), (int) openingQty, unitCost,
+                                                 LocalDate.now().toString(), "opening", null);
+                }
+            }
             pstmt.close();
             
             connection.commit(); // Commit transaction
             connection.setAutoCommit(true); // Reset auto-commit
             
-            System.out.println("DEBUG: Inserted ProductionStock - Name: " + name + 
+            DbLog.debug(() -> "Inserted ProductionStock - Name: " + name + 
                              ", Unit: " + unit + " (unit_id=" + unitId + "), Unit Cost: " + unitCost + ", Sale Price: " + salePrice);
             
             return result > 0;
@@ -3919,21 +3847,26 @@ public class SQLiteDatabase implements db {
                       "JOIN ProductionStock ps ON pii.production_id = ps.production_id " +
                       "ORDER BY pi.production_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getInt("production_invoice_id"),
-                    rs.getString("production_date"),
-                    rs.getString("notes"),
-                    rs.getString("product_name"),
-                    rs.getDouble("quantity_produced")
-                };
-                invoices.add(row);
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement stmt = reader.prepareStatement(query);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Object[] row = {
+                        rs.getInt("production_invoice_id"),
+                        rs.getString("production_date"),
+                        rs.getString("notes"),
+                        rs.getString("product_name"),
+                        rs.getDouble("quantity_produced")
+                    };
+                    invoices.add(row);
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            pool.release(reader);
         }
         return invoices;
     }
@@ -3942,18 +3875,9 @@ public class SQLiteDatabase implements db {
     /**
      * Generate auto-increment production return invoice number
      */
+    @Override
     public String generateProductionReturnInvoiceNumber() {
-        String query = "SELECT COUNT(*) FROM Production_Return_Invoice";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                int count = rs.getInt(1) + 1;
-                return String.format("PRI-%04d", count);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return "PRI-0001";
+        return nextDocumentNumber(PRODUCTION_RETURN_PREFIX, "%04d");
     }
 
     /**
@@ -4016,14 +3940,15 @@ public class SQLiteDatabase implements db {
     /**
      * Get all production invoices for dropdown selection
      */
+    @Override
     public List<Object[]> getAllProductionInvoicesForDropdown() {
         List<Object[]> invoices = new ArrayList<>();
         String query = "SELECT pi.production_invoice_id, pi.production_date, pi.notes " +
                       "FROM Production_Invoice pi " +
                       "ORDER BY pi.production_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4042,6 +3967,7 @@ public class SQLiteDatabase implements db {
     /**
      * Get production items from a specific production invoice
      */
+    @Override
     public List<Object[]> getProductionItemsByInvoiceId(int productionInvoiceId) {
         List<Object[]> items = new ArrayList<>();
         String query = "SELECT pii.production_id, ps.product_name, b.brand_name, " +
@@ -4051,22 +3977,28 @@ public class SQLiteDatabase implements db {
                       "JOIN Brand b ON ps.brand_id = b.brand_id " +
                       "WHERE pii.production_invoice_id = ?";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, productionInvoiceId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getInt("production_id"),
-                    rs.getString("product_name"),
-                    rs.getString("brand_name"),
-                    rs.getDouble("quantity_produced"),
-                    rs.getDouble("unit_cost")
-                };
-                items.add(row);
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement pstmt = reader.prepareStatement(query)) {
+                pstmt.setInt(1, productionInvoiceId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Object[] row = {
+                            rs.getInt("production_id"),
+                            rs.getString("product_name"),
+                            rs.getString("brand_name"),
+                            rs.getDouble("quantity_produced"),
+                            rs.getDouble("unit_cost")
+                        };
+                        items.add(row);
+                    }
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            pool.release(reader);
         }
         return items;
     }
@@ -4074,6 +4006,7 @@ public class SQLiteDatabase implements db {
     /**
      * Insert production return invoice and return the generated ID
      */
+    @Override
     public int insertProductionReturnInvoiceAndGetId(String returnInvoiceNumber, int originalProductionInvoiceId,
                                                     String returnDate, double totalReturnQuantity, 
                                                     double totalReturnAmount, String notes) {
@@ -4082,22 +4015,19 @@ public class SQLiteDatabase implements db {
                       "total_return_quantity, total_return_amount, notes) " +
                       "VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, returnInvoiceNumber);
-            pstmt.setInt(2, originalProductionInvoiceId);
-            pstmt.setString(3, returnDate);
-            pstmt.setDouble(4, totalReturnQuantity);
-            pstmt.setDouble(5, totalReturnAmount);
-            pstmt.setString(6, notes);
-            
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1);
-                    }
+        try {
+            return insertNumbered(PRODUCTION_RETURN_PREFIX, "%04d", returnInvoiceNumber, number -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, number);
+                    pstmt.setInt(2, originalProductionInvoiceId);
+                    pstmt.setString(3, returnDate);
+                    pstmt.setDouble(4, totalReturnQuantity);
+                    pstmt.setDouble(5, totalReturnAmount);
+                    pstmt.setString(6, notes);
+                    pstmt.executeUpdate();
+                    return generatedId(pstmt, "production return " + number);
                 }
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -4107,6 +4037,7 @@ public class SQLiteDatabase implements db {
     /**
      * Insert production return invoice items
      */
+    @Override
     public boolean insertProductionReturnInvoiceItems(int returnInvoiceId, 
                                                      List<Object[]> returnItems) {
         String query = "INSERT INTO Production_Return_Invoice_Item " +
@@ -4126,6 +4057,7 @@ public class SQLiteDatabase implements db {
                 
                 // Update production stock quantity
                 updateProductionStockAfterReturn((Integer) item[0], (Double) item[1]);
+                StockCosting.PRODUCT.issue(connection, (Integer) item[0], (Double) item[1]);
             }
             
             int[] results = pstmt.executeBatch();
@@ -4164,8 +4096,8 @@ public class SQLiteDatabase implements db {
                       "WHERE ps.quantity > 0 " +
                       "ORDER BY ps.product_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4195,8 +4127,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Production_Invoice pi ON pri.original_production_invoice_id = pi.production_invoice_id " +
                       "ORDER BY pri.return_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4238,7 +4170,7 @@ public class SQLiteDatabase implements db {
             pstmt.setDouble(1, soldQuantity);
             pstmt.setInt(2, productionId);
             int rowsAffected = pstmt.executeUpdate();
-            System.out.println("DEBUG: Decreased stock for production_id " + productionId + " by " + soldQuantity + ", rows affected: " + rowsAffected);
+            DbLog.debug(() -> "Decreased stock for production_id " + productionId + " by " + soldQuantity + ", rows affected: " + rowsAffected);
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("ERROR: Failed to decrease production stock: " + e.getMessage());
@@ -4271,24 +4203,57 @@ public class SQLiteDatabase implements db {
 
     // Add quantity to existing production stock
     public boolean addToProductionStock(String productName, String brandName, int addedQuantity, double unitCost, double salePrice) {
+        String findQuery = "SELECT production_id FROM ProductionStock " +
+                          "WHERE product_name = ? AND brand_id = (SELECT brand_id FROM Brand WHERE brand_name = ?)";
         String query = "UPDATE ProductionStock " +
                       "SET quantity = quantity + ?, unit_cost = ?, sale_price = ? " +
-                      "WHERE product_name = ? AND brand_id = (SELECT brand_id FROM Brand WHERE brand_name = ?)";
+                      "WHERE production_id = ?";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, addedQuantity);
-            pstmt.setDouble(2, unitCost);
-            pstmt.setDouble(3, salePrice);
-            pstmt.setString(4, productName);
-            pstmt.setString(5, brandName);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            System.out.println("DEBUG: Added " + addedQuantity + " to existing stock for " + productName + " (" + brandName + "), rows affected: " + rowsAffected);
+        boolean autoCommit = true;
+        try {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            int rowsAffected = 0;
+            try (PreparedStatement find = connection.prepareStatement(findQuery);
+                 PreparedStatement pstmt = connection.prepareStatement(query)) {
+                find.setString(1, productName);
+                find.setString(2, brandName);
+                List<Integer> productionIds = new ArrayList<>();
+                try (ResultSet rs = find.executeQuery()) {
+                    while (rs.next()) {
+                        productionIds.add(rs.getInt("production_id"));
+                    }
+                }
+                for (int productionId : productionIds) {
+                    pstmt.setInt(1, addedQuantity);
+                    pstmt.setDouble(2, unitCost);
+                    pstmt.setDouble(3, salePrice);
+                    pstmt.setInt(4, productionId);
+                    rowsAffected += pstmt.executeUpdate();
+                    // The added stock is its own cost layer; earlier stock keeps the cost it came in at
+                    StockCosting.PRODUCT.receive(connection, productionId, addedQuantity, unitCost,
+                                                 LocalDate.now().toString(), "stock added", null);
+                }
+            }
+            connection.commit();
+            int updated = rowsAffected;
+            DbLog.debug(() -> "Added " + addedQuantity + " to existing stock for " + productName + " (" + brandName + "), rows affected: " + updated);
             return rowsAffected > 0;
         } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackEx) {
+                rollbackEx.printStackTrace();
+            }
             System.err.println("ERROR: Failed to add to production stock: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
     }
 
@@ -4326,6 +4291,7 @@ public class SQLiteDatabase implements db {
     /**
      * Get production return invoice items by return invoice ID
      */
+    @Override
     public List<Object[]> getProductionReturnInvoiceItems(int returnInvoiceId) {
         List<Object[]> items = new ArrayList<>();
         String query = "SELECT prii.production_return_invoice_item_id, prii.production_id, " +
@@ -4367,8 +4333,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Customer c ON si.customer_id = c.customer_id " +
                       "ORDER BY si.sales_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4387,25 +4353,65 @@ public class SQLiteDatabase implements db {
         return invoices;
     }
 
+    @Override
+    public List<Object[]> getSalesInvoicesPage(String fromDate, String toDate, String customerName,
+                                               long afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        if (afterId != 0) {
+            params.add(afterId);
+        }
+        if (fromDate != null) {
+            params.add(fromDate);
+        }
+        if (toDate != null) {
+            params.add(toDate);
+        }
+        if (customerName != null) {
+            params.add("%" + customerName + "%");
+        }
+        params.add(limit);
+
+        String query = salesInvoicesPageSql(afterId != 0, fromDate != null, toDate != null, customerName != null);
+        List<Object[]> invoices = readRows(query, params.toArray());
+        for (Object[] row : invoices) {
+            for (int i = 3; i <= 5; i++) {
+                row[i] = row[i] instanceof Number ? ((Number) row[i]).doubleValue() : 0.0;
+            }
+            row[6] = ((Number) row[6]).longValue();
+        }
+        return invoices;
+    }
+
+    /**
+     * The sales invoice page statement with the filters that are set, in the order their values are bound.
+     */
+    static String salesInvoicesPageSql(boolean after, boolean from, boolean to, boolean customer) {
+        // A bare id bound (no "? = 0 OR"), so a later page searches the rowid instead of scanning
+        StringBuilder query = new StringBuilder(
+            "SELECT si.sales_invoice_number, si.sales_date, c.customer_name, " +
+            "si.total_amount, si.discount_amount, si.paid_amount, si.sales_invoice_id " +
+            "FROM Sales_Invoice si " +
+            "JOIN Customer c ON si.customer_id = c.customer_id " +
+            "WHERE " + (after ? "si.sales_invoice_id < ?" : "1"));
+        if (from) {
+            query.append(" AND si.sales_date >= ?");
+        }
+        if (to) {
+            query.append(" AND si.sales_date <= ?");
+        }
+        if (customer) {
+            query.append(" AND c.customer_name LIKE ?");
+        }
+        // Newest first, like getAllSalesInvoices
+        return query.append(" ORDER BY si.sales_invoice_id DESC LIMIT ?").toString();
+    }
+
     // --------------------------
     // Sales Invoice Operations
     // --------------------------
     @Override
     public String generateSalesInvoiceNumber() {
-        String query = "SELECT MAX(CAST(SUBSTR(sales_invoice_number, 5) AS INTEGER)) as max_number " +
-                      "FROM Sales_Invoice WHERE sales_invoice_number LIKE 'SI-%'";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            if (rs.next()) {
-                int maxNumber = rs.getInt("max_number");
-                return String.format("SI-%03d", maxNumber + 1);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return "SI-001";
+        return nextDocumentNumber(SALES_INVOICE_PREFIX, "%03d");
     }
 
     @Override
@@ -4413,8 +4419,8 @@ public class SQLiteDatabase implements db {
         List<Object[]> customers = new ArrayList<>();
         String query = "SELECT customer_id, customer_name FROM Customer ORDER BY customer_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4440,8 +4446,8 @@ public class SQLiteDatabase implements db {
                       "WHERE ps.quantity > 0 " +
                       "ORDER BY ps.product_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4486,26 +4492,18 @@ public class SQLiteDatabase implements db {
                       "total_amount, discount_amount, paid_amount) VALUES (?, ?, ?, ?, ?, ?)";
         
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
-            pstmt.setString(1, invoiceNumber);
-            pstmt.setInt(2, customerId);
-            pstmt.setString(3, salesDate);
-            pstmt.setDouble(4, totalAmount);
-            pstmt.setDouble(5, discountAmount);
-            pstmt.setDouble(6, paidAmount);
-            
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                ResultSet generatedKeys = pstmt.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    int generatedId = generatedKeys.getInt(1);
-                    generatedKeys.close();
-                    pstmt.close();
-                    return generatedId;
+            return insertNumbered(SALES_INVOICE_PREFIX, "%03d", invoiceNumber, number -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, number);
+                    pstmt.setInt(2, customerId);
+                    pstmt.setString(3, salesDate);
+                    pstmt.setDouble(4, totalAmount);
+                    pstmt.setDouble(5, discountAmount);
+                    pstmt.setDouble(6, paidAmount);
+                    pstmt.executeUpdate();
+                    return generatedId(pstmt, "sales invoice " + number);
                 }
-                generatedKeys.close();
-            }
-            pstmt.close();
+            });
         } catch (SQLException e) {
             System.err.println("Error inserting sales invoice: " + e.getMessage());
             e.printStackTrace();
@@ -4513,128 +4511,21 @@ public class SQLiteDatabase implements db {
         return -1;
     }
 
-    @Override
-    public boolean insertSalesInvoiceItems(int salesInvoiceId, List<Object[]> items) {
-        String query = "INSERT INTO Sales_Invoice_Item (sales_invoice_id, production_stock_id, quantity, unit_price, discount_percentage, discount_amount, total_price) " +
-                      "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            for (Object[] item : items) {
-                int productionStockId = (Integer) item[0];
-                double quantity = (Double) item[1];
-                double unitPrice = (Double) item[2];
-                double discountPercentage = item.length > 3 ? (Double) item[3] : 0.0;
-                double discountAmount = item.length > 4 ? (Double) item[4] : 0.0;
-                
-                // Calculate total price with discounts
-                double basePrice = quantity * unitPrice;
-                double percentageDiscount = basePrice * (discountPercentage / 100.0);
-                double totalPrice = basePrice - percentageDiscount - discountAmount;
-                totalPrice = Math.max(0, totalPrice); // Ensure price is not negative
-                
-                pstmt.setInt(1, salesInvoiceId);
-                pstmt.setInt(2, productionStockId);
-                pstmt.setDouble(3, quantity);
-                pstmt.setDouble(4, unitPrice);
-                pstmt.setDouble(5, discountPercentage);
-                pstmt.setDouble(6, discountAmount);
-                pstmt.setDouble(7, totalPrice);
-                pstmt.addBatch();
-                
-                // Decrease production stock for each sold item
-                if (!decreaseProductionStock(productionStockId, quantity)) {
-                    System.err.println("WARNING: Failed to decrease production stock for product ID: " + productionStockId);
-                    pstmt.close();
-                    return false;
-                }
-            }
-            
-            int[] results = pstmt.executeBatch();
-            pstmt.close();
-            
-            for (int result : results) {
-                if (result <= 0) {
-                    return false;
-                }
-            }
-            System.out.println("DEBUG: Successfully inserted sales invoice items and updated stock levels");
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Error inserting sales invoice items: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
-    }
-
     @Override
     public boolean insertSalesInvoice(String invoiceNumber, int customerId, String salesDate, 
                                      double totalAmount, double discountAmount, double paidAmount, 
                                      List<Object[]> items) {
         try {
-            // Set a timeout for database operations to prevent indefinite locks
-            connection.setAutoCommit(false);
-            
-            System.out.println("DEBUG: Starting sales invoice transaction...");
-            
-            int salesInvoiceId = insertSalesInvoiceAndGetId(invoiceNumber, customerId, salesDate, 
-                                                           totalAmount, discountAmount, paidAmount);
-            
-            if (salesInvoiceId > 0) {
-                System.out.println("DEBUG: Sales invoice created with ID: " + salesInvoiceId);
-                
-                if (insertSalesInvoiceItems(salesInvoiceId, items)) {
-                    System.out.println("DEBUG: Sales invoice items inserted successfully");
-                    
-                    // Update customer balance: add net invoice amount (total - discount - paid)
-                    double netInvoiceAmount = totalAmount - discountAmount - paidAmount;
-                    String updateBalanceQuery = "UPDATE Customer SET balance = balance + ? WHERE customer_id = ?";
-                    
-                    try (PreparedStatement balanceStmt = connection.prepareStatement(updateBalanceQuery)) {
-                        balanceStmt.setDouble(1, netInvoiceAmount);
-                        balanceStmt.setInt(2, customerId);
-                        int updated = balanceStmt.executeUpdate();
-                        
-                        if (updated > 0) {
-                            System.out.println("DEBUG: Customer balance updated by: " + netInvoiceAmount);
-                            connection.commit();
-                            System.out.println("DEBUG: Transaction committed successfully");
-                            return true;
-                        } else {
-                            System.out.println("DEBUG: Failed to update customer balance, rolling back");
-                            connection.rollback();
-                            return false;
-                        }
-                    }
-                } else {
-                    System.out.println("DEBUG: Failed to insert sales invoice items, rolling back");
-                    connection.rollback();
-                    return false;
-                }
-            } else {
-                System.out.println("DEBUG: Failed to create sales invoice, rolling back");
-                connection.rollback();
-                return false;
-            }
+            // Invoice, lines, stock and customer ledger in one transaction
+            int salesInvoiceId = salesPosting.post(invoiceNumber, customerId, salesDate,
+                                                   totalAmount, discountAmount, paidAmount, items);
+            DbLog.debug(() -> "Sales invoice " + invoiceNumber + " posted with ID " + salesInvoiceId +
+                               " (" + items.size() + " line(s))");
+            return true;
         } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in insertSalesInvoice: " + e.getMessage());
-            try {
-                connection.rollback();
-                System.out.println("DEBUG: Transaction rolled back due to exception");
-            } catch (SQLException rollbackEx) {
-                System.err.println("DEBUG: Failed to rollback transaction: " + rollbackEx.getMessage());
-                rollbackEx.printStackTrace();
-            }
+            DbLog.error("Sales invoice " + invoiceNumber + " not saved: " + e.getMessage());
             e.printStackTrace();
             return false;
-        } finally {
-            try {
-                connection.setAutoCommit(true);
-                System.out.println("DEBUG: AutoCommit restored to true");
-            } catch (SQLException e) {
-                System.err.println("DEBUG: Failed to restore AutoCommit: " + e.getMessage());
-                e.printStackTrace();
-            }
         }
     }
 
@@ -4643,20 +4534,7 @@ public class SQLiteDatabase implements db {
     // --------------------------
     @Override
     public String generateSalesReturnInvoiceNumber() {
-        String query = "SELECT MAX(CAST(SUBSTR(return_invoice_number, 5) AS INTEGER)) as max_number " +
-                      "FROM Sales_Return_Invoice WHERE return_invoice_number LIKE 'SRI-%'";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            if (rs.next()) {
-                int maxNumber = rs.getInt("max_number");
-                return String.format("SRI-%03d", maxNumber + 1);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return "SRI-001";
+        return nextDocumentNumber(SALES_RETURN_PREFIX, "%03d");
     }
 
     @Override
@@ -4667,8 +4545,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Customer c ON si.customer_id = c.customer_id " +
                       "ORDER BY si.sales_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4754,21 +4632,18 @@ public class SQLiteDatabase implements db {
         String query = "INSERT INTO Sales_Return_Invoice (return_invoice_number, original_sales_invoice_id, " +
                       "customer_id, return_date, total_return_amount) VALUES (?, ?, ?, ?, ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, returnInvoiceNumber);
-            pstmt.setInt(2, originalSalesInvoiceId);
-            pstmt.setInt(3, customerId);
-            pstmt.setString(4, returnDate);
-            pstmt.setDouble(5, totalReturnAmount);
-            
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1);
-                    }
+        try {
+            return insertNumbered(SALES_RETURN_PREFIX, "%03d", returnInvoiceNumber, number -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, number);
+                    pstmt.setInt(2, originalSalesInvoiceId);
+                    pstmt.setInt(3, customerId);
+                    pstmt.setString(4, returnDate);
+                    pstmt.setDouble(5, totalReturnAmount);
+                    pstmt.executeUpdate();
+                    return generatedId(pstmt, "sales return " + number);
                 }
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -4814,6 +4689,30 @@ public class SQLiteDatabase implements db {
                 updatePstmt.executeBatch();
             }
             
+            // Returned goods go back on hand at the cost they were sold at
+            String soldCostQuery = "SELECT sri.return_invoice_number, sri.return_date, " +
+                                 "(SELECT sii.unit_cost FROM Sales_Invoice_Item sii " +
+                                 " WHERE sii.sales_invoice_id = sri.original_sales_invoice_id " +
+                                 " AND sii.production_stock_id = ? AND sii.unit_cost IS NOT NULL LIMIT 1) AS unit_cost, " +
+                                 "(SELECT unit_cost FROM ProductionStock WHERE production_id = ?) AS product_cost " +
+                                 "FROM Sales_Return_Invoice sri WHERE sri.sales_return_invoice_id = ?";
+            try (PreparedStatement costStmt = connection.prepareStatement(soldCostQuery)) {
+                for (Object[] item : items) {
+                    costStmt.setInt(1, (Integer) item[0]);
+                    costStmt.setInt(2, (Integer) item[0]);
+                    costStmt.setInt(3, salesReturnInvoiceId);
+                    try (ResultSet rs = costStmt.executeQuery()) {
+                        if (rs.next()) {
+                            double unitCost = rs.getObject("unit_cost") != null
+                                ? rs.getDouble("unit_cost") : rs.getDouble("product_cost");
+                            StockCosting.PRODUCT.receive(connection, (Integer) item[0], (Double) item[1], unitCost,
+                                                         rs.getString("return_date"), "sales return",
+                                                         rs.getString("return_invoice_number"));
+                        }
+                    }
+                }
+            }
+            
             return true;
             
         } catch (SQLException e) {
@@ -4833,19 +4732,15 @@ public class SQLiteDatabase implements db {
                                                                        customerId, returnDate, totalReturnAmount);
             
             if (salesReturnInvoiceId > 0 && insertSalesReturnInvoiceItems(salesReturnInvoiceId, items)) {
-                // Update customer balance only if refund method is "Refund to Balance"
+                // Update customer balance only if refund method is "Refund to Balance".
+                // A cash refund is still posted, with no change, so the return has its ledger row.
+                double balanceChange = updateBalance ? -totalReturnAmount : 0.0;
+                PartyLedger.CUSTOMER.post(connection, customerId, balanceChange, returnDate, PartyLedger.ADJUSTMENT,
+                                          updateBalance ? "Sales return" : "Sales return (cash refund)", returnInvoiceNumber);
                 if (updateBalance) {
-                    String updateBalanceQuery = "UPDATE Customer SET balance = balance - ? WHERE customer_id = ?";
-                    
-                    try (PreparedStatement balanceStmt = connection.prepareStatement(updateBalanceQuery)) {
-                        balanceStmt.setDouble(1, totalReturnAmount);
-                        balanceStmt.setInt(2, customerId);
-                        balanceStmt.executeUpdate();
-                        
-                        System.out.println("DEBUG: Customer balance reduced by return amount: " + totalReturnAmount);
-                    }
+                    DbLog.debug(() -> "Customer balance reduced by return amount: " + totalReturnAmount);
                 } else {
-                    System.out.println("DEBUG: Cash refund - customer balance not updated");
+                    DbLog.debug("Cash refund - customer balance not updated");
                 }
                 
                 connection.commit();
@@ -4889,8 +4784,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Sales_Invoice si ON sri.original_sales_invoice_id = si.sales_invoice_id " +
                       "ORDER BY sri.return_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4916,8 +4811,8 @@ public class SQLiteDatabase implements db {
         List<Object[]> banks = new ArrayList<>();
         String query = "SELECT bank_id, bank_name, account_number, branch_name, balance FROM Bank ORDER BY bank_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4968,13 +4863,13 @@ public class SQLiteDatabase implements db {
     public List<Object[]> getAllBankTransactions() {
         List<Object[]> transactions = new ArrayList<>();
         String query = "SELECT bt.transaction_date, b.bank_name, bt.transaction_type, " +
-                      "bt.amount, bt.description " +
+                      "bt.amount, bt.description, bt.bank_transaction_id " +
                       "FROM Bank_Transaction bt " +
                       "JOIN Bank b ON bt.bank_id = b.bank_id " +
                       "ORDER BY bt.transaction_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -4982,7 +4877,8 @@ public class SQLiteDatabase implements db {
                     rs.getString("bank_name"),
                     rs.getString("transaction_type"),
                     rs.getDouble("amount"),
-                    rs.getString("description")
+                    rs.getString("description"),
+                    rs.getInt("bank_transaction_id")
                 };
                 transactions.add(row);
             }
@@ -4998,37 +4894,42 @@ public class SQLiteDatabase implements db {
         List<Object[]> transactions = new ArrayList<>();
 
         // Use correct column names for each table
-        String cashQuery = "SELECT transaction_date AS date, transaction_type, amount, description, 'cash' AS source " +
-                        "FROM Cash_Transaction";
-        String bankQuery = "SELECT transaction_date AS date, transaction_type, amount, description, 'bank' AS source " +
-                        "FROM Bank_Transaction";
+        String cashQuery = "SELECT transaction_date AS date, transaction_type, amount, description, 'cash' AS source, " +
+                        "cash_transaction_id AS id FROM Cash_Transaction";
+        String bankQuery = "SELECT transaction_date AS date, transaction_type, amount, description, 'bank' AS source, " +
+                        "bank_transaction_id AS id FROM Bank_Transaction";
 
+        // Loaded off the FX thread, so never on the writer and its open transactions
+        Connection reader = null;
         try {
+            reader = pool.borrowReader();
             // Cash transactions
-            try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(cashQuery)) {
+            try (PreparedStatement stmt = reader.prepareStatement(cashQuery);
+                ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     Object[] row = new Object[] {
                         rs.getString("date"),
                         rs.getString("transaction_type"),
                         rs.getDouble("amount"),
                         rs.getString("description"),
-                        rs.getString("source")
+                        rs.getString("source"),
+                        rs.getInt("id")
                     };
                     transactions.add(row);
                 }
             }
 
             // Bank transactions
-            try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(bankQuery)) {
+            try (PreparedStatement stmt = reader.prepareStatement(bankQuery);
+                ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     Object[] row = new Object[] {
                         rs.getString("date"),
                         rs.getString("transaction_type"),
                         rs.getDouble("amount"),
                         rs.getString("description"),
-                        rs.getString("source")
+                        rs.getString("source"),
+                        rs.getInt("id")
                     };
                     transactions.add(row);
                 }
@@ -5044,6 +4945,8 @@ public class SQLiteDatabase implements db {
         } catch (SQLException e) {
             System.err.println("Error loading transactions: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            pool.release(reader);
         }
         return transactions;
     }
@@ -5057,14 +4960,19 @@ public class SQLiteDatabase implements db {
                       "AS current_cash_balance " +
                       "FROM Cash_Transaction";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            if (rs.next()) {
-                return rs.getDouble("current_cash_balance");
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement stmt = reader.prepareStatement(query);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getDouble("current_cash_balance");
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            pool.release(reader);
         }
         return 0.0;
     }
@@ -5082,8 +4990,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Designation d ON e.designation_id = d.designation_id " +
                       "ORDER BY e.employee_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -5137,8 +5045,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Employee e ON ea.employee_id = e.employee_id " +
                       "ORDER BY ea.attendance_date DESC, e.employee_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -5163,8 +5071,8 @@ public class SQLiteDatabase implements db {
                       "JOIN Employee e ON esp.employee_id = e.employee_id " +
                       "ORDER BY esp.payment_date DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -5371,8 +5279,8 @@ public class SQLiteDatabase implements db {
         List<Object[]> salesmen = new ArrayList<>();
         String query = "SELECT salesman_id, salesman_name, contact_number, address, commission_rate FROM Salesman ORDER BY salesman_name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -5462,7 +5370,7 @@ public class SQLiteDatabase implements db {
                     String contact = rs.getString("contact_number");
                     
                     // Debug information
-                    System.out.println("Supplier Details: ID=" + id + ", Name=" + name + 
+                    DbLog.debug(() -> "Supplier Details: ID=" + id + ", Name=" + name + 
                                      ", Address=" + address + ", Tehsil=" + tehsil + 
                                      ", Contact=" + contact);
                     
@@ -5597,8 +5505,8 @@ public class SQLiteDatabase implements db {
         List<Object[]> designations = new ArrayList<>();
         String query = "SELECT designation_id, designation_title FROM Designation ORDER BY designation_title";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PreparedStatement stmt = connection.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Object[] row = {
@@ -5692,6 +5600,7 @@ public class SQLiteDatabase implements db {
     // --------------------------
     // Employee Advance Salary Operations
     // --------------------------
+    @Override
     public boolean insertAdvanceSalary(int employeeId, double amount, String advanceDate, String description) {
         String query = "INSERT INTO Employee_Advance_Salary (employee_id, amount, advance_date, description) VALUES (?, ?, ?, ?)";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
@@ -5706,6 +5615,7 @@ public class SQLiteDatabase implements db {
         return false;
     }
 
+    @Override
     public List<Object[]> getAllAdvanceSalaries() {
         List<Object[]> advances = new ArrayList<>();
         String query = "SELECT e.employee_name, eas.amount, eas.advance_date, eas.description, eas.status " +
@@ -5764,6 +5674,7 @@ public class SQLiteDatabase implements db {
     // --------------------------
     // Salary Report Operations
     // --------------------------
+    @Override
     public List<Object[]> getSalaryReportByDateRange(String startDate, String endDate) {
         List<Object[]> salaryData = new ArrayList<>();
         String query = "SELECT e.employee_id, e.employee_name, d.designation_title, e.salary_type, e.salary_amount, " +
@@ -5805,6 +5716,7 @@ public class SQLiteDatabase implements db {
     // --------------------------
     // Employee Loan Operations
     // --------------------------
+    @Override
     public boolean insertEmployeeLoan(int employeeId, double loanAmount, String loanDate, String dueDate, String description) {
         String query = "INSERT INTO Employee_Loan (employee_id, loan_amount, loan_date, due_date, description, remaining_amount) VALUES (?, ?, ?, ?, ?, ?)";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
@@ -5821,6 +5733,7 @@ public class SQLiteDatabase implements db {
         return false;
     }
 
+    @Override
     public List<Object[]> getEmployeeLoansByDateRange(String startDate, String endDate) {
         List<Object[]> loans = new ArrayList<>();
         String query = "SELECT e.employee_name, el.loan_amount, el.loan_date, el.due_date, el.description, " +
@@ -5854,6 +5767,7 @@ public class SQLiteDatabase implements db {
         return loans;
     }
 
+    @Override
     public List<Object[]> getLoansByEmployee(String employeeName) {
         List<Object[]> loans = new ArrayList<>();
         String query = "SELECT e.employee_name, el.loan_amount, el.loan_date, el.due_date, el.description, " +
@@ -5886,6 +5800,7 @@ public class SQLiteDatabase implements db {
         return loans;
     }
 
+    @Override
     public boolean updateLoanStatus(int loanId, String status, double remainingAmount) {
         String query = "UPDATE Employee_Loan SET status = ?, remaining_amount = ? WHERE loan_id = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
@@ -5904,6 +5819,50 @@ public class SQLiteDatabase implements db {
         StringBuilder query = new StringBuilder("SELECT * FROM " + viewName);
         List<String> values = new ArrayList<>();
 
+        DbLog.debug(() -> "View Name: " + viewName);
+        List<String> clauses = viewFilterClauses(viewName, filters, values);
+        if (!clauses.isEmpty()) {
+            query.append(" WHERE ").append(String.join(" AND ", clauses));
+        }
+
+        DbLog.debug(() -> "Query: " + query.toString() + ", Values: " + values);
+        // Book views are read-only, run them on a pooled reader so they don't queue behind writes
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement stmt = reader.prepareStatement(query.toString())) {
+                for (int i = 0; i < values.size(); i++) {
+                    stmt.setString(i + 1, values.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    int columnCount = rs.getMetaData().getColumnCount();
+                    DbLog.debug(() -> "ResultSet has " + columnCount + " columns");
+                    while (rs.next()) {
+                        Object[] row = new Object[columnCount];
+                        for (int i = 0; i < columnCount; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        results.add(row);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            pool.release(reader);
+        }
+        DbLog.debug(() -> "Rows returned: " + results.size());
+        DbLog.debug(() -> "View_" + viewName + " results: " + results.size() + " rows");
+        DbLog.debug(() -> "Table items count: " + results.size());
+        return results;
+    }
+
+    /**
+     * Build the WHERE clauses for a book view filter map: fromDate/toDate
+     * bound the view's date column, any other key is a LIKE on that column.
+     */
+    private List<String> viewFilterClauses(String viewName, Map<String, String> filters, List<String> values) {
         // Map view names to their respective date columns
         Map<String, String> dateColumnMap = new HashMap<>();
         dateColumnMap.put("View_Purchase_Book", "invoice_date");
@@ -5913,54 +5872,156 @@ public class SQLiteDatabase implements db {
 
         String dateColumn = dateColumnMap.getOrDefault(viewName, "date"); // Default to 'date' if view not mapped
 
-        System.out.println("View Name: " + viewName);
-        if (filters != null && !filters.isEmpty()) {
-            query.append(" WHERE ");
-            List<String> clauses = new ArrayList<>();
-
-            for (Map.Entry<String, String> entry : filters.entrySet()) {
-                String key = entry.getKey();
-                String value = entry.getValue();
-
-                if (key.equals("fromDate")) {
-                    clauses.add(dateColumn + " >= ?");
-                    values.add(value);
-                } else if (key.equals("toDate")) {
-                    clauses.add(dateColumn + " <= ?");
-                    values.add(value);
-                } else {
-                    clauses.add(key + " LIKE ?");
-                    values.add("%" + value + "%");
-                }
+        List<String> clauses = new ArrayList<>();
+        if (filters == null) {
+            return clauses;
+        }
+        for (Map.Entry<String, String> entry : filters.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+
+            if (key.equals("fromDate")) {
+                clauses.add(dateColumn + " >= ?");
+                values.add(value);
+            } else if (key.equals("toDate")) {
+                clauses.add(dateColumn + " <= ?");
+                values.add(value);
+            } else {
+                clauses.add(key + " LIKE ?");
+                values.add("%" + value + "%");
             }
-            query.append(String.join(" AND ", clauses));
         }
+        return clauses;
+    }
+
+    @Override
+    public List<Object[]> getViewDataPage(String viewName, Map<String, String> filters,
+                                          long afterId, int limit, boolean onePerInvoice) {
+        String[] key = BOOK_VIEW_KEYS.get(viewName);
+        if (key == null) {
+            DbLog.error("No page key for view " + viewName);
+            return new ArrayList<>();
+        }
+        String keyColumn = key[0];
+        Map<String, String> given = filters != null ? filters : Map.of();
 
-        System.out.println("Query: " + query.toString() + ", Values: " + values);
-        try (PreparedStatement stmt = connection.prepareStatement(query.toString())) {
-            for (int i = 0; i < values.size(); i++) {
-                stmt.setString(i + 1, values.get(i));
+        List<String> values = new ArrayList<>();
+        List<String> clauses = viewFilterClauses(viewName, filters, values);
+        String filter = clauses.isEmpty() ? "" : " AND " + String.join(" AND ", clauses);
+
+        // The invoice ids are windowed on the invoice table's primary key; asking the
+        // view for "key > ? ORDER BY key" would sort every later row before LIMIT applies.
+        // The date and supplier bounds go into the window too so it skips straight to
+        // matching invoices, and a page costs the same however rare those are.
+        boolean from = key[3] != null && given.containsKey("fromDate");
+        boolean to = key[3] != null && given.containsKey("toDate");
+        boolean supplier = key[4] != null && given.containsKey("supplier_name");
+        String window = bookWindowSql(viewName, from, to, supplier);
+        List<Object> windowBounds = new ArrayList<>();
+        if (from) {
+            windowBounds.add(given.get("fromDate"));
+        }
+        if (to) {
+            windowBounds.add(given.get("toDate"));
+        }
+        if (supplier) {
+            windowBounds.add(given.get("supplier_name"));
+        }
+        String query = "SELECT * FROM " + viewName + " WHERE " + keyColumn + " IN (" + window + ")" + filter +
+                       (onePerInvoice ? " GROUP BY " + keyColumn : "") + " ORDER BY " + keyColumn;
+        String windowEndQuery = "SELECT MAX(" + key[2] + ") FROM (" + window + ")";
+        int windowSize = Math.max(limit, 100);
+
+        // Filters the window can't take (item or product names) can leave it (nearly)
+        // empty, so keep scanning until the page is full
+        List<Object[]> page = new ArrayList<>();
+        long after = afterId;
+        int invoices = 0;
+        while (invoices < limit) {
+            List<Object> windowParams = new ArrayList<>();
+            windowParams.add(after);
+            windowParams.addAll(windowBounds);
+            windowParams.add(windowSize);
+            List<Object> params = new ArrayList<>(windowParams);
+            params.addAll(values);
+
+            Object last = null;
+            for (Object[] row : readRows(query, params.toArray())) {
+                if (!row[0].equals(last)) {
+                    if (invoices == limit) {
+                        break; // never split an invoice across pages
+                    }
+                    invoices++;
+                    last = row[0];
+                }
+                page.add(row);
             }
-            try (ResultSet rs = stmt.executeQuery()) {
-                int columnCount = rs.getMetaData().getColumnCount();
-                System.out.println("DEBUG: ResultSet has " + columnCount + " columns");
-                while (rs.next()) {
-                    Object[] row = new Object[columnCount];
-                    for (int i = 0; i < columnCount; i++) {
-                        row[i] = rs.getObject(i + 1);
+
+            List<Object[]> end = readRows(windowEndQuery, windowParams.toArray());
+            Object windowEnd = end.isEmpty() ? null : end.get(0)[0];
+            if (!(windowEnd instanceof Number)) {
+                break; // no more invoices
+            }
+            after = ((Number) windowEnd).longValue();
+        }
+        return page;
+    }
+
+    /**
+     * The next invoice ids of a book view's page, with parameters: the last id
+     * of the previous window, the bounds that are used, the window size.
+     * @param from Whether the invoice date is bounded below
+     * @param to Whether the invoice date is bounded above
+     * @param supplier Whether only the supplier of the given name is wanted. Names
+     *                 come from the supplier list, so the match is exact; that keeps
+     *                 it one supplier, whose invoices the index holds in id order
+     */
+    static String bookWindowSql(String viewName, boolean from, boolean to, boolean supplier) {
+        String[] key = BOOK_VIEW_KEYS.get(viewName);
+        StringBuilder window = new StringBuilder("SELECT " + key[2] + " FROM " + key[1] + " WHERE " + key[2] + " > ?");
+        if (from) {
+            window.append(" AND ").append(key[3]).append(" >= ?");
+        }
+        if (to) {
+            window.append(" AND ").append(key[3]).append(" <= ?");
+        }
+        if (supplier) {
+            window.append(" AND ").append(key[4])
+                  .append(" = (SELECT supplier_id FROM Supplier WHERE supplier_name = ?)");
+        }
+        window.append(" ORDER BY ").append(key[2]).append(" LIMIT ?");
+        return window.toString();
+    }
+
+    /**
+     * Run a read-only query on a pooled reader and return every row as an Object[].
+     */
+    private List<Object[]> readRows(String query, Object... params) {
+        List<Object[]> rows = new ArrayList<>();
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement stmt = reader.prepareStatement(query)) {
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    int columnCount = rs.getMetaData().getColumnCount();
+                    while (rs.next()) {
+                        Object[] row = new Object[columnCount];
+                        for (int i = 0; i < columnCount; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        rows.add(row);
                     }
-                    System.out.println("DEBUG: Row created with " + row.length + " elements");
-                    results.add(row);
                 }
             }
         } catch (SQLException e) {
-            System.err.println("SQL Error: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            pool.release(reader);
         }
-        System.out.println("Rows returned: " + results.size());
-        System.out.println("View_" + viewName + " results: " + results.size() + " rows");
-        System.out.println("Table items count: " + results.size());
-        return results;
+        return rows;
     }
     @Override
     public List<Object[]> getAllProductionStock() {
@@ -5987,7 +6048,7 @@ public class SQLiteDatabase implements db {
                       "WHERE rpi.raw_purchase_invoice_id = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, invoiceID);
-            System.out.println("Executing query: " + query + " with invoiceID: " + invoiceID);
+            DbLog.debug(() -> "Executing query: " + query + " with invoiceID: " + invoiceID);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     Object[] row = {
@@ -5998,10 +6059,10 @@ public class SQLiteDatabase implements db {
                         rs.getDouble("unit_price"),
                         rs.getString("unit_name")
                     };
-                    System.out.println("Fetched row: " + Arrays.toString(row));
+                    DbLog.debug(() -> "Fetched row: " + Arrays.toString(row));
                     items.add(row);
                 }
-                System.out.println("Total items fetched: " + items.size());
+                DbLog.debug(() -> "Total items fetched: " + items.size());
             }
         } catch (SQLException e) {
             System.err.println("SQL Error for invoiceID " + invoiceID + ": " + e.getMessage());
@@ -6036,10 +6097,10 @@ public class SQLiteDatabase implements db {
             String toDateStr = sdf.format(toDate);
             
             // Debug logging
-            System.out.println("DEBUG: getPurchaseReportList called with dates:");
-            System.out.println("DEBUG: fromDate: " + fromDate + " -> " + fromDateStr);
-            System.out.println("DEBUG: toDate: " + toDate + " -> " + toDateStr);
-            System.out.println("DEBUG: Query: " + query);
+            DbLog.debug("getPurchaseReportList called with dates:");
+            DbLog.debug(() -> "fromDate: " + fromDate + " -> " + fromDateStr);
+            DbLog.debug(() -> "toDate: " + toDate + " -> " + toDateStr);
+            DbLog.debug(() -> "Query: " + query);
             
             pstmt.setString(1, fromDateStr);
             pstmt.setString(2, toDateStr);
@@ -6056,7 +6117,7 @@ public class SQLiteDatabase implements db {
                     };
                     reports.add(row);
                 }
-                System.out.println("DEBUG: Loaded " + reports.size() + " purchase report rows");
+                DbLog.debug(() -> "Loaded " + reports.size() + " purchase report rows");
             }
         } catch (SQLException e) {
             System.err.println("DEBUG: SQLException in getPurchaseReportList: " + e.getMessage());
@@ -6065,22 +6126,217 @@ public class SQLiteDatabase implements db {
         return reports;
     }
 
-public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType) {
-    String baseQuery =
-        "SELECT " +
-        "rpi.invoice_number AS invoiceNumber, " +
-        "rpi.invoice_date AS invoiceDate, " +
-        "COALESCE(s.supplier_name, 'Unknown Supplier') AS supplierName, " +
-        "rpi.total_amount AS totalAmount, " +
-        "rpi.discount_amount AS discountAmount, " +
-        "rpi.paid_amount AS paidAmount " +
-        "FROM Raw_Purchase_Invoice rpi " +
-        "LEFT JOIN Supplier s ON rpi.supplier_id = s.supplier_id ";
-
-    String whereClause = "WHERE rpi.invoice_date BETWEEN ? AND ? ";
-    String orderBy = "ORDER BY rpi.invoice_date DESC";
-
-    try {
+    @Override
+    public List<SearchIndex.Hit> search(String text, int limit, SearchIndex.Kind... kinds) {
+        List<SearchIndex.Hit> hits = new ArrayList<>();
+        List<String> words = SearchIndex.words(text);
+        String match = SearchIndex.matchExpression(words);
+        if (match == null) {
+            return hits;
+        }
+        SearchIndex.Kind[] searched = kinds != null && kinds.length > 0 ? kinds : SearchIndex.Kind.values();
+        Set<SearchIndex.Kind> wanted = EnumSet.copyOf(Arrays.asList(searched));
+        int window = limit > 0 ? Math.max(limit, SearchIndex.RANK_WINDOW) : -1; // LIMIT -1 is no limit
+
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement stmt = reader.prepareStatement(SearchIndex.SEARCH_SQL)) {
+                stmt.setString(1, match);
+                stmt.setLong(2, SearchIndex.firstRowid(searched));
+                stmt.setLong(3, SearchIndex.lastRowid(searched));
+                stmt.setInt(4, window);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        SearchIndex.Hit hit = SearchIndex.hit(rs.getLong(1), rs.getString(2), rs.getString(3));
+                        if (wanted.contains(hit.kind())) { // kinds between the wanted ones share the range
+                            hits.add(hit);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("ERROR: Search for '" + text + "' failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            pool.release(reader);
+        }
+
+        // Stable sort: equally good hits stay in index order
+        List<Object[]> ranked = new ArrayList<>(hits.size()); // {rank, hit}
+        for (SearchIndex.Hit hit : hits) {
+            ranked.add(new Object[] {SearchIndex.rank(words, hit), hit});
+        }
+        ranked.sort(Comparator.comparingInt(entry -> (Integer) entry[0]));
+        hits.clear();
+        for (Object[] entry : ranked) {
+            if (limit > 0 && hits.size() == limit) {
+                break;
+            }
+            hits.add((SearchIndex.Hit) entry[1]);
+        }
+        return hits;
+    }
+
+    @Override
+    public boolean rebuildRollups() {
+        try {
+            DailyRollups.rebuild(connection);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("ERROR: Rebuilding daily rollups failed: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean rebuildCostLayers() {
+        try {
+            StockCosting.rebuild(connection);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("ERROR: Rebuilding cost layers failed: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public StockCosting.Method getCostingMethod() {
+        try {
+            return StockCosting.method(connection);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return StockCosting.Method.AVERAGE;
+        }
+    }
+
+    @Override
+    public boolean setCostingMethod(StockCosting.Method method) {
+        try {
+            StockCosting.setMethod(connection, method);
+            DbLog.info("Costing method set to " + method);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("ERROR: Costing method not changed: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public <T> int streamReport(ReportSpec<T> spec, RowConsumer<? super T> consumer) throws SQLException {
+        ReportQuery report = reportQuery(spec);
+        DbLog.debug(() -> "Streaming report " + spec);
+
+        int count = 0;
+        Connection reader = pool.borrowReader();
+        try (PreparedStatement stmt = reader.prepareStatement(report.sql)) {
+            for (int i = 0; i < report.params.length; i++) {
+                stmt.setObject(i + 1, report.params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                List<String> labels = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    labels.add(metaData.getColumnLabel(i));
+                }
+                ReportRow.Columns columns = new ReportRow.Columns(labels);
+                consumer.begin(columns.labels());
+
+                // One row in memory at a time; the consumer decides when the next one is read
+                while (rs.next()) {
+                    Object[] values = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                    count++;
+                    if (!consumer.accept(spec.mapRow(new ReportRow(columns, values)))) {
+                        if (DbLog.isDebugEnabled()) {
+                            DbLog.debug("Report " + spec + " stopped by its consumer after " + count + " rows");
+                        }
+                        break;
+                    }
+                }
+            }
+        } finally {
+            pool.release(reader);
+        }
+        return count;
+    }
+
+    /**
+     * SQL of a report and the values for its placeholders.
+     */
+    static final class ReportQuery {
+        final String sql;
+        final Object[] params;
+
+        ReportQuery(String sql, Object... params) {
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    /**
+     * The statement {@link #streamReport} runs for a spec; the query plan test checks each of them.
+     */
+    static ReportQuery reportQuery(ReportSpec<?> spec) {
+        // Dates are stored as yyyy-MM-dd text; an open end compares below/above every date
+        String from = spec.getFromDate() != null ? spec.getFromDate().format(DateTimeFormatter.ISO_LOCAL_DATE) : "0000-01-01";
+        String to = spec.getToDate() != null ? spec.getToDate().format(DateTimeFormatter.ISO_LOCAL_DATE) : "9999-12-31";
+
+        switch (spec.getKind()) {
+            case PURCHASE:
+                return new ReportQuery(purchaseReportSql(spec.getVariant()), from, to);
+            case SALES:
+                return new ReportQuery(salesReportSql(spec.getVariant()), from, to);
+            case RETURN_PURCHASE:
+                return new ReportQuery(returnPurchaseReportSql(spec.getVariant()), from, to);
+            case RETURN_SALES:
+                return new ReportQuery(returnSalesReportSql(spec.getVariant()), from, to);
+            case BANK_TRANSFER:
+                return new ReportQuery(BANK_TRANSFER_REPORT_SQL, from, to);
+            case PROFIT:
+                return new ReportQuery(PROFIT_REPORT_SQL, from, to);
+            case SUMMARY:
+                return new ReportQuery(SUMMARY_REPORT_SQL, from, to);
+            case BANK_BALANCES:
+                return new ReportQuery("SELECT bank_name, balance FROM Bank ORDER BY bank_name");
+            case CUSTOMERS:
+                return new ReportQuery("SELECT customer_name AS name, contact_number, address " +
+                                       "FROM Customer ORDER BY customer_id");
+            case SUPPLIERS:
+                return new ReportQuery("SELECT supplier_name AS name, contact_number, address " +
+                                       "FROM Supplier ORDER BY supplier_id");
+            case AREA_WISE:
+                return areaWiseReportQuery(spec.getPartyType(), spec.getAreaType(), spec.getAreaValue());
+            case BRAND_SALES:
+                return new ReportQuery(BRAND_SALES_REPORT_SQL, from, to);
+            case CUSTOMER_SALES:
+                return new ReportQuery(CUSTOMER_SALES_REPORT_SQL, from, to);
+            default:
+                throw new IllegalArgumentException("Unknown report " + spec);
+        }
+    }
+
+    private static String purchaseReportSql(String reportType) {
+        String baseQuery =
+            "SELECT " +
+            "rpi.invoice_number AS invoiceNumber, " +
+            "rpi.invoice_date AS invoiceDate, " +
+            "COALESCE(s.supplier_name, 'Unknown Supplier') AS supplierName, " +
+            "rpi.total_amount AS totalAmount, " +
+            "rpi.discount_amount AS discountAmount, " +
+            "rpi.paid_amount AS paidAmount " +
+            "FROM Raw_Purchase_Invoice rpi " +
+            "LEFT JOIN Supplier s ON rpi.supplier_id = s.supplier_id ";
+
+        String whereClause = "WHERE rpi.invoice_date BETWEEN ? AND ? ";
+        String orderBy = "ORDER BY rpi.invoice_date DESC";
+
         String finalQuery;
 
         switch (reportType.trim()) {
@@ -6102,16 +6358,17 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                 break;
 
             case "Category-wise Report":
+                // Raw_Stock has no category_id; the brand stands in for the category
                 finalQuery =
                     "SELECT " +
-                    "c.category_name AS categoryName, " +
+                    "b.brand_name AS categoryName, " +
                     "SUM(rpii.quantity * rpii.unit_price) AS totalCost " +
                     "FROM Raw_Purchase_Invoice rpi " +
                     "JOIN Raw_Purchase_Invoice_Item rpii ON rpi.raw_purchase_invoice_id = rpii.raw_purchase_invoice_id " +
                     "JOIN Raw_Stock rs ON rpii.raw_stock_id = rs.stock_id " +
-                    "JOIN Category c ON rs.category_id = c.category_id " +
+                    "JOIN Brand b ON rs.brand_id = b.brand_id " +
                     "WHERE rpi.invoice_date BETWEEN ? AND ? " +
-                    "GROUP BY c.category_name " +
+                    "GROUP BY b.brand_name " +
                     "ORDER BY totalCost DESC";
                 break;
 
@@ -6137,7 +6394,8 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                     "FROM Raw_Purchase_Invoice rpi " +
                     "JOIN Raw_Purchase_Invoice_Item rpii ON rpi.raw_purchase_invoice_id = rpii.raw_purchase_invoice_id " +
                     "JOIN Raw_Stock rs ON rpii.raw_stock_id = rs.stock_id " +
-                    "JOIN Manufacturer m ON rs.manufacturer_id = m.manufacturer_id " +
+                    "JOIN Brand b ON rs.brand_id = b.brand_id " +
+                    "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id " +
                     "WHERE rpi.invoice_date BETWEEN ? AND ? " +
                     "GROUP BY m.manufacturer_name " +
                     "ORDER BY totalCost DESC";
@@ -6147,27 +6405,11 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                 finalQuery = baseQuery + whereClause + orderBy;
                 break;
         }
-
-        System.out.println("DEBUG: Final Query: " + finalQuery);
-
-        PreparedStatement pstmt = connection.prepareStatement(finalQuery);
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        pstmt.setString(1, sdf.format(fromDate));
-        pstmt.setString(2, sdf.format(toDate));
-
-        return pstmt.executeQuery();
-
-    } catch (SQLException e) {
-        System.err.println("DEBUG: SQLException in getPurchaseReport: " + e.getMessage());
-        e.printStackTrace();
-        return null;
+        return finalQuery;
     }
-}
-
 
     // Checked by Umer Ghafoor
-    @Override
-    public ResultSet getSalesReport(Date fromDate, Date toDate, String reportType) {
+    private static String salesReportSql(String reportType) {
         String query = "";
         
         // Base date filter
@@ -6177,34 +6419,32 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
             case "Product-wise Report":
                 query = "SELECT " +
                         "ps.product_name AS Product, " +
-                        "cat.category_name AS Category, " +
+                        "'N/A' AS Category, " +
                         "b.brand_name AS Brand, " +
                         "SUM(sii.quantity) AS Quantity, " +
                         "SUM(sii.total_price) AS TotalAmount " +
                         "FROM Sales_Invoice si " +
                         "JOIN Sales_Invoice_Item sii ON si.sales_invoice_id = sii.sales_invoice_id " +
                         "JOIN ProductionStock ps ON sii.production_stock_id = ps.production_id " +
-                        "LEFT JOIN Category cat ON ps.category_id = cat.category_id " +
                         "LEFT JOIN Brand b ON ps.brand_id = b.brand_id " +
                         dateFilter +
-                        "GROUP BY ps.product_name, cat.category_name, b.brand_name " +
+                        "GROUP BY ps.product_name, b.brand_name " +
                         "ORDER BY TotalAmount DESC";
-                System.out.println("DEBUG: Generated Product-wise Report Query: " + query);
                 break;
 
             case "Category-wise Report":
+                // ProductionStock has no category_id; the brand stands in for the category
                 query = "SELECT " +
-                        "cat.category_name AS Category, " +
+                        "b.brand_name AS Category, " +
                         "SUM(sii.quantity) AS Quantity, " +
                         "SUM(sii.total_price) AS TotalAmount " +
                         "FROM Sales_Invoice si " +
                         "JOIN Sales_Invoice_Item sii ON si.sales_invoice_id = sii.sales_invoice_id " +
                         "JOIN ProductionStock ps ON sii.production_stock_id = ps.production_id " +
-                        "JOIN Category cat ON ps.category_id = cat.category_id " +
+                        "JOIN Brand b ON ps.brand_id = b.brand_id " +
                         dateFilter +
-                        "GROUP BY cat.category_name " +
+                        "GROUP BY b.brand_name " +
                         "ORDER BY TotalAmount DESC";
-                System.out.println("DEBUG: Generated Category-wise Report Query: " + query);
                 break;
 
             case "Brand-wise Report":
@@ -6219,7 +6459,6 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                         dateFilter +
                         "GROUP BY b.brand_name " +
                         "ORDER BY TotalAmount DESC";
-                System.out.println("DEBUG: Generated Brand-wise Report Query: " + query);
                 break;
 
             case "Manufacturer-wise Report":
@@ -6230,11 +6469,11 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                         "FROM Sales_Invoice si " +
                         "JOIN Sales_Invoice_Item sii ON si.sales_invoice_id = sii.sales_invoice_id " +
                         "JOIN ProductionStock ps ON sii.production_stock_id = ps.production_id " +
-                        "JOIN Manufacturer m ON ps.manufacturer_id = m.manufacturer_id " +
+                        "JOIN Brand b ON ps.brand_id = b.brand_id " +
+                        "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id " +
                         dateFilter +
                         "GROUP BY m.manufacturer_name " +
                         "ORDER BY TotalAmount DESC";
-                System.out.println("DEBUG: Generated Manufacturer-wise Report Query: " + query);
                 break;
 
             default: // "All Reports"
@@ -6249,32 +6488,12 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                         "LEFT JOIN Customer c ON si.customer_id = c.customer_id " +
                         dateFilter +
                         "ORDER BY si.sales_date DESC";
-                System.out.println("DEBUG: Generated All Reports Query: " + query);
                 break;
         }
-
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            String fromDateStr = sdf.format(fromDate);
-            String toDateStr = sdf.format(toDate);
-
-            pstmt.setString(1, fromDateStr);
-            pstmt.setString(2, toDateStr);
-
-            System.out.println("DEBUG: getSalesReport [" + reportType + "]");
-            System.out.println("Query: " + query);
-
-            return pstmt.executeQuery();
-        } catch (SQLException e) {
-            System.err.println("Error in getSalesReport: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
+        return query;
     }
 
-    @Override
-    public ResultSet getReturnPurchaseReport(Date fromDate, Date toDate, String reportType) {
+    private static String returnPurchaseReportSql(String reportType) {
         String query = "";
         
         // Base date filter
@@ -6316,16 +6535,17 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                     "ORDER BY TotalAmount DESC";
             break;
         case "Category-wise Report":
+            // Raw_Stock has no category_id; the brand stands in for the category
             query = "SELECT " +
-                "cat.category_name AS Category, " +
+                "b.brand_name AS Category, " +
                 "SUM(rprii.quantity) AS Quantity, " +
                 "SUM(rprii.quantity * rprii.unit_price) AS TotalAmount " +
                 "FROM Raw_Purchase_Return_Invoice rpri " +
                 "JOIN Raw_Purchase_Return_Invoice_Item rprii ON rpri.raw_purchase_return_invoice_id = rprii.raw_purchase_return_invoice_id " +
                 "JOIN Raw_Stock rs ON rprii.raw_stock_id = rs.stock_id " +
-                "JOIN Category cat ON rs.category_id = cat.category_id " +
+                "JOIN Brand b ON rs.brand_id = b.brand_id " +
                 dateFilter +
-                "GROUP BY cat.category_name " +
+                "GROUP BY b.brand_name " +
                 "ORDER BY TotalAmount DESC";
             break;
 
@@ -6337,7 +6557,8 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                 "FROM Raw_Purchase_Return_Invoice rpri " +
                 "JOIN Raw_Purchase_Return_Invoice_Item rprii ON rpri.raw_purchase_return_invoice_id = rprii.raw_purchase_return_invoice_id " +
                 "JOIN Raw_Stock rs ON rprii.raw_stock_id = rs.stock_id " +
-                "JOIN Manufacturer m ON rs.manufacturer_id = m.manufacturer_id " +
+                "JOIN Brand b ON rs.brand_id = b.brand_id " +
+                "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id " +
                 dateFilter +
                 "GROUP BY m.manufacturer_name " +
                 "ORDER BY TotalAmount DESC";
@@ -6357,48 +6578,10 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                 "ORDER BY rpri.return_date DESC";
             break;
         }
-        
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            // Convert Date to String format (YYYY-MM-DD) for SQLite comparison
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            String fromDateStr = sdf.format(fromDate);
-            String toDateStr = sdf.format(toDate);
-            
-            // Debug logging
-            System.out.println("DEBUG: getReturnPurchaseReport called with dates:");
-            System.out.println("DEBUG: fromDate: " + fromDate + " -> " + fromDateStr);
-            System.out.println("DEBUG: toDate: " + toDate + " -> " + toDateStr);
-            System.out.println("DEBUG: reportType: " + reportType);
-            System.out.println("DEBUG: Query: " + query);
-            
-            pstmt.setString(1, fromDateStr);
-            pstmt.setString(2, toDateStr);
-            
-            ResultSet rs = pstmt.executeQuery();
-            
-            // Debug: Just log that we're returning the ResultSet
-            System.out.println("DEBUG: Returning ResultSet from getReturnPurchaseReport");
-            
-            return rs;
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in getReturnPurchaseReport: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
+        return query;
     }
 
-    @Override
-    public ResultSet getReturnSalesReport(Date fromDate, Date toDate, String reportType) {
-        System.out.println("DEBUG: getReturnSalesReport called with dates: " + fromDate + " to " + toDate + " and reportType: " + reportType);
-        
-        // Convert Date to string format for comparison
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        String fromDateStr = sdf.format(fromDate);
-        String toDateStr = sdf.format(toDate);
-        
-        System.out.println("DEBUG: Date strings: " + fromDateStr + " to " + toDateStr + ", Report type: " + reportType);
-        
+    private static String returnSalesReportSql(String reportType) {
         String query;
         
         switch (reportType) {
@@ -6472,699 +6655,83 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                         "ORDER BY sri.return_date DESC";
                 break;
         }
-        
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setString(1, fromDateStr);
-            pstmt.setString(2, toDateStr);
-            
-            System.out.println("DEBUG: Executing return sales report query: " + query);
-            return pstmt.executeQuery();
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in getReturnSalesReport: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getBankTransferReport(Date fromDate, Date toDate) {
-        System.out.println("DEBUG: getBankTransferReport called with dates: " + fromDate + " to " + toDate);
-        
-        // Convert Date to String format (YYYY-MM-DD) for SQLite comparison
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        String fromDateStr = sdf.format(fromDate);
-        String toDateStr = sdf.format(toDate);
-        
-        System.out.println("DEBUG: Date strings: " + fromDateStr + " to " + toDateStr);
-        
-        // First, let's check all bank transactions to see what's available
-        String debugQuery = "SELECT transaction_type, COUNT(*) as count FROM Bank_Transaction GROUP BY transaction_type";
-        try (PreparedStatement debugStmt = connection.prepareStatement(debugQuery)) {
-            ResultSet debugRs = debugStmt.executeQuery();
-            System.out.println("DEBUG: Available transaction types in Bank_Transaction:");
-            while (debugRs.next()) {
-                System.out.println("  - " + debugRs.getString("transaction_type") + ": " + debugRs.getInt("count") + " records");
-            }
-            debugRs.close();
-        } catch (SQLException e) {
-            System.err.println("DEBUG: Error checking transaction types: " + e.getMessage());
-        }
-        
-        // Check transactions in date range
-        String dateCheckQuery = "SELECT COUNT(*) as count FROM Bank_Transaction WHERE transaction_date >= ? AND transaction_date <= ?";
-        try (PreparedStatement dateStmt = connection.prepareStatement(dateCheckQuery)) {
-            dateStmt.setString(1, fromDateStr);
-            dateStmt.setString(2, toDateStr);
-            ResultSet dateRs = dateStmt.executeQuery();
-            if (dateRs.next()) {
-                System.out.println("DEBUG: Transactions in date range " + fromDateStr + " to " + toDateStr + ": " + dateRs.getInt("count"));
-            }
-            dateRs.close();
-        } catch (SQLException e) {
-            System.err.println("DEBUG: Error checking date range: " + e.getMessage());
-        }
-        
-        String query = "SELECT " +
-                "bt.transaction_date, " +
-                "COALESCE(" +
-                "  CASE WHEN bt.bank_id != 0 THEN (SELECT bank_name FROM Bank WHERE bank_id = bt.bank_id) ELSE 'Cash' END," +
-                "  'Unknown'" +
-                ") as from_bank, " +
-                "COALESCE(" +
-                "  CASE WHEN bt.related_bank_id != 0 THEN (SELECT bank_name FROM Bank WHERE bank_id = bt.related_bank_id) ELSE 'Cash' END," +
-                "  'Cash'" +
-                ") as to_bank, " +
-                "bt.amount, " +
-                "bt.transaction_type, " +
-                "COALESCE(bt.description, 'Bank Transfer') as description " +
-                "FROM Bank_Transaction bt " +
-                "WHERE bt.transaction_type IN ('transfer_in', 'transfer_out') " +
-                "AND bt.transaction_date >= ? AND bt.transaction_date <= ? " +
-                "ORDER BY bt.transaction_date DESC";
-                
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setString(1, fromDateStr);
-            pstmt.setString(2, toDateStr);
-            
-            System.out.println("DEBUG: Executing bank transfer query: " + query);
-            System.out.println("DEBUG: Parameters: " + fromDateStr + ", " + toDateStr);
-            
-            return pstmt.executeQuery();
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in getBankTransferReport: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getProfitReport(Date fromDate, Date toDate) {
-        System.out.println("DEBUG: Profit Report - Getting data from " + fromDate + " to " + toDate);
-        
-        // First, let's check table counts for debugging
-        try {
-            Statement stmt = connection.createStatement();
-            ResultSet countRs = stmt.executeQuery("SELECT COUNT(*) as count FROM Sales_Invoice");
-            if (countRs.next()) {
-                System.out.println("DEBUG: Total Sales_Invoice records: " + countRs.getInt("count"));
-            }
-            
-            countRs = stmt.executeQuery("SELECT COUNT(*) as count FROM Sales_Invoice_Item");
-            if (countRs.next()) {
-                System.out.println("DEBUG: Total Sales_Invoice_Item records: " + countRs.getInt("count"));
-            }
-            
-            countRs = stmt.executeQuery("SELECT COUNT(*) as count FROM ProductionStock");
-            if (countRs.next()) {
-                System.out.println("DEBUG: Total ProductionStock records: " + countRs.getInt("count"));
-            }
-        } catch (SQLException e) {
-            System.out.println("DEBUG: Error getting table counts: " + e.getMessage());
-        }
-        
-        String query = "SELECT " +
-                      "si.sales_invoice_number, " +
-                      "si.sales_date, " +
-                      "SUM(sii.quantity * CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE sii.unit_price END) as sale_amount, " +
-                      "SUM(sii.quantity * ps.unit_cost) as cost_amount, " +
-                      "(SUM(sii.quantity * CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE sii.unit_price END) - SUM(sii.quantity * ps.unit_cost)) as profit " +
-                      "FROM Sales_Invoice si " +
-                      "JOIN Sales_Invoice_Item sii ON si.sales_invoice_id = sii.sales_invoice_id " +
-                      "JOIN ProductionStock ps ON sii.production_stock_id = ps.production_id " +
-                      "WHERE si.sales_date BETWEEN ? AND ? " +
-                      "GROUP BY si.sales_invoice_number, si.sales_date " +
-                      "ORDER BY si.sales_date DESC";
-        
-        System.out.println("DEBUG: Executing profit query: " + query);
-        System.out.println("DEBUG: Date range: " + fromDate + " to " + toDate);
-        
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setString(1, fromDate.toString());
-            pstmt.setString(2, toDate.toString());
-            
-            ResultSet rs = pstmt.executeQuery();
-            System.out.println("DEBUG: Profit query executed successfully");
-            
-            // Test query without date filter to see if we get any results
-            try {
-                Statement testStmt = connection.createStatement();
-                ResultSet testRs = testStmt.executeQuery(
-                    "SELECT si.sales_invoice_number, si.sales_date, " +
-                    "SUM(sii.quantity * CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE sii.unit_price END) as sale_amount, " +
-                    "SUM(sii.quantity * ps.unit_cost) as cost_amount " +
-                    "FROM Sales_Invoice si " +
-                    "JOIN Sales_Invoice_Item sii ON si.sales_invoice_id = sii.sales_invoice_id " +
-                    "JOIN ProductionStock ps ON sii.production_stock_id = ps.production_id " +
-                    "GROUP BY si.sales_invoice_number, si.sales_date LIMIT 3"
-                );
-                int testCount = 0;
-                while (testRs.next()) {
-                    System.out.println("DEBUG: Test result - Invoice: " + testRs.getString("sales_invoice_number") + 
-                                     ", Date: " + testRs.getString("sales_date") + 
-                                     ", Sale: " + testRs.getDouble("sale_amount") + 
-                                     ", Cost: " + testRs.getDouble("cost_amount"));
-                    testCount++;
-                }
-                System.out.println("DEBUG: Test query returned " + testCount + " results");
-            } catch (SQLException e) {
-                System.out.println("DEBUG: Test query failed: " + e.getMessage());
-            }
-            
-            return rs;
-        } catch (SQLException e) {
-            System.out.println("DEBUG: Error executing profit query: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getSummaryReport(Date fromDate, Date toDate) {
-        System.out.println("DEBUG: Summary Report - Getting data from " + fromDate + " to " + toDate);
-        
-        // First, let's check what data exists in each table
-        try {
-            System.out.println("DEBUG: Checking table contents...");
-            
-            // Check Raw_Purchase_Invoice table
-            String checkPurchases = "SELECT COUNT(*) as count, MIN(invoice_date) as min_date, MAX(invoice_date) as max_date, SUM(total_amount) as total FROM Raw_Purchase_Invoice";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkPurchases)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Raw_Purchase_Invoice - Count: " + rs.getInt("count") + 
-                                     ", Date range: " + rs.getString("min_date") + " to " + rs.getString("max_date") + 
-                                     ", Total amount: " + rs.getDouble("total"));
-                }
-            }
-            
-            // Check Sales_Invoice table
-            String checkSales = "SELECT COUNT(*) as count, MIN(sales_date) as min_date, MAX(sales_date) as max_date, SUM(total_amount) as total FROM Sales_Invoice";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkSales)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Sales_Invoice - Count: " + rs.getInt("count") + 
-                                     ", Date range: " + rs.getString("min_date") + " to " + rs.getString("max_date") + 
-                                     ", Total amount: " + rs.getDouble("total"));
-                }
-            }
-            
-            // Check Bank table
-            String checkBank = "SELECT COUNT(*) as count, SUM(balance) as total FROM Bank";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkBank)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Bank - Count: " + rs.getInt("count") + ", Total balance: " + rs.getDouble("total"));
-                }
-            }
-            
-            // Check ProductionStock table
-            String checkStock = "SELECT COUNT(*) as count, SUM(quantity * unit_cost) as total_value FROM ProductionStock";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkStock)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: ProductionStock - Count: " + rs.getInt("count") + ", Total value: " + rs.getDouble("total_value"));
-                }
-            }
-            
-            // Check return tables
-            String checkPurchaseReturns = "SELECT COUNT(*) as count, SUM(total_return_amount) as total FROM Raw_Purchase_Return_Invoice";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkPurchaseReturns)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Raw_Purchase_Return_Invoice - Count: " + rs.getInt("count") + ", Total: " + rs.getDouble("total"));
-                }
-            }
-            
-            String checkSalesReturns = "SELECT COUNT(*) as count, SUM(total_return_amount) as total FROM Sales_Return_Invoice";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkSalesReturns)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Sales_Return_Invoice - Count: " + rs.getInt("count") + ", Total: " + rs.getDouble("total"));
-                }
-            }
-            
-        } catch (SQLException e) {
-            System.out.println("DEBUG: Error checking table contents: " + e.getMessage());
-        }
-        
-        String query = "SELECT " +
-                    "(SELECT COALESCE(SUM(total_amount), 0) FROM Raw_Purchase_Invoice WHERE invoice_date BETWEEN ? AND ?) AS total_purchases, " +
-                    "(SELECT COALESCE(SUM(total_amount), 0) FROM Sales_Invoice WHERE sales_date BETWEEN ? AND ?) AS total_sales, " +
-                    "(SELECT COALESCE(SUM(total_return_amount), 0) FROM Raw_Purchase_Return_Invoice WHERE return_date BETWEEN ? AND ?) AS total_purchase_returns, " +
-                    "(SELECT COALESCE(SUM(total_return_amount), 0) FROM Sales_Return_Invoice WHERE return_date BETWEEN ? AND ?) AS total_sales_returns, " +
-                    "(SELECT COALESCE(SUM(balance), 0) FROM Bank) AS total_bank_balance, " +
-                    "(SELECT COUNT(*) FROM Customer) AS total_customers, " +
-                    "(SELECT COUNT(*) FROM Supplier) AS total_suppliers, " +
-                    "(SELECT COALESCE(SUM(quantity * unit_cost), 0) FROM ProductionStock) AS total_inventory_value";
-        
-        System.out.println("DEBUG: Executing summary query: " + query);
-        
-        try {
-            // Don't use try-with-resources since we need to return the ResultSet
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            
-            // Debug the date parameters being used
-            System.out.println("DEBUG: Date parameters:");
-            System.out.println("  fromDate: " + fromDate + " (SQL Date: " + fromDate.toString() + ")");
-            System.out.println("  toDate: " + toDate + " (SQL Date: " + toDate.toString() + ")");
-            
-            pstmt.setDate(1, fromDate);
-            pstmt.setDate(2, toDate);
-            pstmt.setDate(3, fromDate);
-            pstmt.setDate(4, toDate);
-            pstmt.setDate(5, fromDate);
-            pstmt.setDate(6, toDate);
-            pstmt.setDate(7, fromDate);
-            pstmt.setDate(8, toDate);
-            
-            // Test individual subqueries to see which ones return data
-            System.out.println("DEBUG: Testing individual subqueries...");
-            
-            // Test purchases in date range
-            try (PreparedStatement testStmt = connection.prepareStatement(
-                    "SELECT COALESCE(SUM(total_amount), 0) as result FROM Raw_Purchase_Invoice WHERE invoice_date BETWEEN ? AND ?")) {
-                testStmt.setDate(1, fromDate);
-                testStmt.setDate(2, toDate);
-                ResultSet testRs = testStmt.executeQuery();
-                if (testRs.next()) {
-                    System.out.println("  Purchases in date range: " + testRs.getDouble("result"));
-                }
-            }
-            
-            // Test sales in date range
-            try (PreparedStatement testStmt = connection.prepareStatement(
-                    "SELECT COALESCE(SUM(total_amount), 0) as result FROM Sales_Invoice WHERE sales_date BETWEEN ? AND ?")) {
-                testStmt.setDate(1, fromDate);
-                testStmt.setDate(2, toDate);
-                ResultSet testRs = testStmt.executeQuery();
-                if (testRs.next()) {
-                    System.out.println("  Sales in date range: " + testRs.getDouble("result"));
-                }
-            }
-            
-            ResultSet rs = pstmt.executeQuery();
-            
-            System.out.println("DEBUG: Summary query executed successfully");
-            
-            return rs;
-        } catch (SQLException e) {
-            System.out.println("DEBUG: Error executing summary query: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getBalanceSheet() {
-        String query = "SELECT bank_name, balance FROM Bank";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            return pstmt.executeQuery();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public Object[] getBalanceSheetData() {
-        try {
-            System.out.println("DEBUG: Starting balance sheet data calculation...");
-            
-            // 1. Cash in hand from all banks
-            double totalBankBalance = 0.0;
-            String bankQuery = "SELECT COALESCE(SUM(balance), 0) as total FROM Bank";
-            try (PreparedStatement pstmt = connection.prepareStatement(bankQuery)) {
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    totalBankBalance = rs.getDouble("total");
-                }
-                System.out.println("DEBUG: Total bank balance: " + totalBankBalance);
-            } catch (SQLException e) {
-                System.err.println("DEBUG: Error getting bank balance: " + e.getMessage());
-                totalBankBalance = 0.0;
-            }
-            
-            // 2. Customer balances (money they owe us vs we owe them)
-            double customersOweUs = 0.0;
-            double weOweCustomers = 0.0;
-            String customerQuery = "SELECT customer_name, balance FROM Customer";
-            try (PreparedStatement pstmt = connection.prepareStatement(customerQuery)) {
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    double balance = rs.getDouble("balance");
-                    if (balance > 0) {
-                        customersOweUs += balance; // Positive means they owe us
-                    } else {
-                        weOweCustomers += Math.abs(balance); // Negative means we owe them
-                    }
-                }
-                System.out.println("DEBUG: Customers owe us: " + customersOweUs + ", We owe customers: " + weOweCustomers);
-            } catch (SQLException e) {
-                System.err.println("DEBUG: Error getting customer balances: " + e.getMessage());
-            }
-            
-            // 3. Supplier balances (money we owe them vs they owe us)
-            double weOweSuppliers = 0.0;
-            double suppliersOweUs = 0.0;
-            String supplierQuery = "SELECT supplier_name, balance FROM Supplier";
-            try (PreparedStatement pstmt = connection.prepareStatement(supplierQuery)) {
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    double balance = rs.getDouble("balance");
-                    if (balance > 0) {
-                        weOweSuppliers += balance; // Positive means we owe them
-                    } else {
-                        suppliersOweUs += Math.abs(balance); // Negative means they owe us
-                    }
-                }
-                System.out.println("DEBUG: We owe suppliers: " + weOweSuppliers + ", Suppliers owe us: " + suppliersOweUs);
-            } catch (SQLException e) {
-                System.err.println("DEBUG: Error getting supplier balances: " + e.getMessage());
-            }
-            
-            // Calculate net amounts
-            double totalAssetsFromPeople = customersOweUs + suppliersOweUs; // Money coming to us
-            double totalLiabilitiesToPeople = weOweCustomers + weOweSuppliers; // Money going from us
-            double netWorth = totalBankBalance + totalAssetsFromPeople - totalLiabilitiesToPeople;
-            
-            System.out.println("DEBUG: Balance sheet calculated successfully");
-            System.out.println("DEBUG: Net worth: " + netWorth);
-            
-            return new Object[] {
-                totalBankBalance,        // 0 - Cash in hand (all banks)
-                customersOweUs,          // 1 - Customers owe us
-                weOweCustomers,          // 2 - We owe customers
-                suppliersOweUs,          // 3 - Suppliers owe us
-                weOweSuppliers,          // 4 - We owe suppliers
-                totalAssetsFromPeople,   // 5 - Total receivables
-                totalLiabilitiesToPeople,// 6 - Total payables
-                netWorth                 // 7 - Net worth
-            };
-            
-        } catch (Exception e) {
-            System.err.println("Error calculating balance sheet: " + e.getMessage());
-            e.printStackTrace();
-            // Return array with proper default values instead of nulls
-            return new Object[] {
-                0.0, // totalBankBalance
-                0.0, // customersOweUs  
-                0.0, // weOweCustomers
-                0.0, // suppliersOweUs
-                0.0, // weOweSuppliers
-                0.0, // totalAssetsFromPeople
-                0.0, // totalLiabilitiesToPeople
-                0.0  // netWorth
-            };
-        }
-    }
-
-    @Override
-    public ResultSet getCustomersReport() {
-        String query = "SELECT * FROM Customer";
-        System.out.println("DEBUG: Executing customers report query: " + query);
-        
-        try {
-            // First check if the table exists and has data
-            String countQuery = "SELECT COUNT(*) as total FROM Customer";
-            try (PreparedStatement countStmt = connection.prepareStatement(countQuery)) {
-                ResultSet countRs = countStmt.executeQuery();
-                if (countRs.next()) {
-                    int totalCustomers = countRs.getInt("total");
-                    System.out.println("DEBUG: Total customers in database: " + totalCustomers);
-                }
-                countRs.close();
-            }
-            
-            // Now execute the main query
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            ResultSet rs = pstmt.executeQuery();
-            System.out.println("DEBUG: Successfully executed customers report query");
-            return rs;
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in getCustomersReport: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getSuppliersReport() {
-        String query = "SELECT * FROM Supplier";
-        System.out.println("DEBUG: Executing suppliers report query: " + query);
-        
-        try {
-            // First check if the table exists and has data
-            String countQuery = "SELECT COUNT(*) as total FROM Supplier";
-            try (PreparedStatement countStmt = connection.prepareStatement(countQuery)) {
-                ResultSet countRs = countStmt.executeQuery();
-                if (countRs.next()) {
-                    int totalSuppliers = countRs.getInt("total");
-                    System.out.println("DEBUG: Total suppliers in database: " + totalSuppliers);
-                }
-                countRs.close();
-            }
-            
-            // Now execute the main query
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            ResultSet rs = pstmt.executeQuery();
-            System.out.println("DEBUG: Successfully executed suppliers report query");
-            return rs;
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in getSuppliersReport: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getBrandSalesReport(Date fromDate, Date toDate) {
-        System.out.println("DEBUG: getBrandSalesReport called with dates: " + fromDate + " to " + toDate);
-        
-        // Convert Date to String format (YYYY-MM-DD) for SQLite comparison
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        String fromDateStr = sdf.format(fromDate);
-        String toDateStr = sdf.format(toDate);
-        
-        System.out.println("DEBUG: Date strings: " + fromDateStr + " to " + toDateStr);
-        
-        // First, let's check what tables exist and have data
-        try {
-            // Check Sales_Invoice table
-            String checkSalesQuery = "SELECT COUNT(*) as count FROM Sales_Invoice";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkSalesQuery)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Total Sales_Invoice records: " + rs.getInt("count"));
-                }
-                rs.close();
-            }
-            
-            // Check Sales_Invoice_Item table
-            String checkItemsQuery = "SELECT COUNT(*) as count FROM Sales_Invoice_Item";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkItemsQuery)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Total Sales_Invoice_Item records: " + rs.getInt("count"));
-                }
-                rs.close();
-            }
-            
-            // Check ProductionStock table
-            String checkProdQuery = "SELECT COUNT(*) as count FROM ProductionStock";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkProdQuery)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Total ProductionStock records: " + rs.getInt("count"));
-                }
-                rs.close();
-            }
-            
-            // Check Brand table
-            String checkBrandQuery = "SELECT COUNT(*) as count FROM Brand";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkBrandQuery)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Total Brand records: " + rs.getInt("count"));
-                }
-                rs.close();
-            }
-            
-            // Check dates in Sales_Invoice
-            String checkDatesQuery = "SELECT MIN(sales_date) as min_date, MAX(sales_date) as max_date FROM Sales_Invoice";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkDatesQuery)) {
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    System.out.println("DEBUG: Sales_Invoice date range: " + rs.getString("min_date") + " to " + rs.getString("max_date"));
-                }
-                rs.close();
-            }
-            
-            // Test the query first without parameters to see all data
-            String testQuery = "SELECT b.brand_name, SUM(sii.quantity) AS total_quantity, SUM(sii.total_price) AS total_sales FROM Sales_Invoice si JOIN Sales_Invoice_Item sii ON si.sales_invoice_id = sii.sales_invoice_id JOIN ProductionStock ps ON sii.production_stock_id = ps.production_id JOIN Brand b ON ps.brand_id = b.brand_id GROUP BY b.brand_name";
-            try (PreparedStatement testStmt = connection.prepareStatement(testQuery)) {
-                ResultSet testRs = testStmt.executeQuery();
-                System.out.println("DEBUG: All brand sales data (no date filter):");
-                while (testRs.next()) {
-                    System.out.println("  Brand: " + testRs.getString("brand_name") + 
-                                     ", Quantity: " + testRs.getDouble("total_quantity") + 
-                                     ", Sales: " + testRs.getDouble("total_sales"));
-                }
-                testRs.close();
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("DEBUG: Error checking table data: " + e.getMessage());
-        }
-        
-        String query = "SELECT " +
-                      "b.brand_name, " +
-                      "SUM(sii.quantity) AS total_quantity, " +
-                      "SUM(sii.total_price) AS total_sales, " +
-                      "'N/A' AS salesman_name " +
-                      "FROM Sales_Invoice si " +
-                      "JOIN Sales_Invoice_Item sii ON si.sales_invoice_id = sii.sales_invoice_id " +
-                      "JOIN ProductionStock ps ON sii.production_stock_id = ps.production_id " +
-                      "JOIN Brand b ON ps.brand_id = b.brand_id " +
-                      "WHERE si.sales_date >= ? AND si.sales_date <= ? " +
-                      "GROUP BY b.brand_name " +
-                      "ORDER BY total_sales DESC";
-        
-        System.out.println("DEBUG: Executing brand sales query: " + query);
-        System.out.println("DEBUG: Parameters: " + fromDateStr + ", " + toDateStr);
-        
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setString(1, fromDateStr);
-            pstmt.setString(2, toDateStr);
-            
-            ResultSet rs = pstmt.executeQuery();
-            System.out.println("DEBUG: Query executed successfully, returning ResultSet");
-            return rs;
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in getBrandSalesReport: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getBrandProfitReport(Date fromDate, Date toDate) {
-        String query = "SELECT b.brand_name, SUM(s.quantity * s.unit_price - r.unit_cost) AS profit " +
-                    "FROM Brand b JOIN Sales_Invoice_Item s ON b.brand_id = s.brand_id " +
-                    "JOIN Raw_Stock r ON s.raw_stock_id = r.stock_id " +
-                    "WHERE s.invoice_date BETWEEN ? AND ? GROUP BY b.brand_name";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setDate(1, fromDate);
-            pstmt.setDate(2, toDate);
-            return pstmt.executeQuery();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getCustomerSalesReport(int customerId, Date fromDate, Date toDate) {
-        String query = "SELECT * FROM Sales_Invoice WHERE customer_id = ? AND invoice_date BETWEEN ? AND ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, customerId);
-            pstmt.setDate(2, fromDate);
-            pstmt.setDate(3, toDate);
-            return pstmt.executeQuery();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getSupplierSalesReport(int supplierId, Date fromDate, Date toDate) {
-        String query = "SELECT * FROM Raw_Purchase_Invoice WHERE supplier_id = ? AND invoice_date BETWEEN ? AND ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, supplierId);
-            pstmt.setDate(2, fromDate);
-            pstmt.setDate(3, toDate);
-            return pstmt.executeQuery();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return query;
     }
 
-    @Override
-    public ResultSet getAttendanceReport(int employeeId, Date fromDate, Date toDate) {
-        String query = "SELECT * FROM Employee_Attendance WHERE employee_id = ? AND attendance_date BETWEEN ? AND ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, employeeId);
-            pstmt.setDate(2, fromDate);
-            pstmt.setDate(3, toDate);
-            return pstmt.executeQuery();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getAreaWiseReport() {
-        String query = "SELECT 'Customer' as party_type, c.customer_name as name, " +
-                    "c.contact_number, t.tehsil_name, d.district_name, p.province_name " +
-                    "FROM Customer c " +
-                    "LEFT JOIN Tehsil t ON c.tehsil_id = t.tehsil_id " +
-                    "LEFT JOIN District d ON t.district_id = d.district_id " +
-                    "LEFT JOIN Province p ON d.province_id = p.province_id " +
-                    "UNION ALL " +
-                    "SELECT 'Supplier' as party_type, s.supplier_name as name, " +
-                    "s.contact_number, t.tehsil_name, d.district_name, p.province_name " +
-                    "FROM Supplier s " +
-                    "LEFT JOIN Tehsil t ON s.tehsil_id = t.tehsil_id " +
-                    "LEFT JOIN District d ON t.district_id = d.district_id " +
-                    "LEFT JOIN Province p ON d.province_id = p.province_id " +
-                    "ORDER BY party_type, name";
-        
-        System.out.println("DEBUG: Executing area-wise report query: " + query);
-        
-        try {
-            // First check if the tables exist and have data
-            String countCustomersQuery = "SELECT COUNT(*) as total FROM Customer";
-            try (PreparedStatement countStmt = connection.prepareStatement(countCustomersQuery)) {
-                ResultSet countRs = countStmt.executeQuery();
-                if (countRs.next()) {
-                    int totalCustomers = countRs.getInt("total");
-                    System.out.println("DEBUG: Total customers for area-wise report: " + totalCustomers);
-                }
-                countRs.close();
-            }
-            
-            String countSuppliersQuery = "SELECT COUNT(*) as total FROM Supplier";
-            try (PreparedStatement countStmt = connection.prepareStatement(countSuppliersQuery)) {
-                ResultSet countRs = countStmt.executeQuery();
-                if (countRs.next()) {
-                    int totalSuppliers = countRs.getInt("total");
-                    System.out.println("DEBUG: Total suppliers for area-wise report: " + totalSuppliers);
-                }
-                countRs.close();
-            }
-            
-            // Now execute the main query
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            ResultSet rs = pstmt.executeQuery();
-            System.out.println("DEBUG: Successfully executed area-wise report query");
-            return rs;
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in getAreaWiseReport: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    @Override
-    public ResultSet getAreaWiseReport(String partyType, String areaType, String areaValue) {
+    private static final String BANK_TRANSFER_REPORT_SQL =
+        "SELECT " +
+        "bt.transaction_date, " +
+        "COALESCE(" +
+        "  CASE WHEN bt.bank_id != 0 THEN (SELECT bank_name FROM Bank WHERE bank_id = bt.bank_id) ELSE 'Cash' END," +
+        "  'Unknown'" +
+        ") as from_bank, " +
+        "COALESCE(" +
+        "  CASE WHEN bt.related_bank_id != 0 THEN (SELECT bank_name FROM Bank WHERE bank_id = bt.related_bank_id) ELSE 'Cash' END," +
+        "  'Cash'" +
+        ") as to_bank, " +
+        "bt.amount, " +
+        "bt.transaction_type, " +
+        "COALESCE(bt.description, 'Bank Transfer') as description " +
+        "FROM Bank_Transaction bt " +
+        "WHERE bt.transaction_type IN ('transfer_in', 'transfer_out') " +
+        "AND bt.transaction_date >= ? AND bt.transaction_date <= ? " +
+        "ORDER BY bt.transaction_date DESC";
+
+    // The date-range reports below read the per-day totals of DailyRollups
+    private static final String PROFIT_REPORT_SQL =
+        "SELECT " +
+        "day AS sales_date, " +
+        "sales_count AS invoice_count, " +
+        "sale_value AS sale_amount, " +
+        "cost_amount, " +
+        "(sale_value - cost_amount) AS profit " +
+        "FROM Daily_Rollup " +
+        "WHERE day BETWEEN ? AND ? AND (sales_count > 0 OR sales_return_amount > 0) " +
+        "ORDER BY day DESC";
+
+    private static final String SUMMARY_REPORT_SQL =
+        "SELECT " +
+        "COALESCE(r.total_purchases, 0) AS total_purchases, " +
+        "COALESCE(r.total_sales, 0) AS total_sales, " +
+        "COALESCE(r.total_purchase_returns, 0) AS total_purchase_returns, " +
+        "COALESCE(r.total_sales_returns, 0) AS total_sales_returns, " +
+        "(SELECT COALESCE(SUM(balance), 0) FROM Bank) AS total_bank_balance, " +
+        "(SELECT COUNT(*) FROM Customer) AS total_customers, " +
+        "(SELECT COUNT(*) FROM Supplier) AS total_suppliers, " +
+        "(SELECT COALESCE(SUM(value), 0) FROM Stock_Valuation WHERE stock_kind = 'product') AS total_inventory_value " +
+        "FROM (SELECT SUM(purchase_amount) AS total_purchases, SUM(sales_amount) AS total_sales, " +
+        "SUM(purchase_return_amount) AS total_purchase_returns, SUM(sales_return_amount) AS total_sales_returns " +
+        "FROM Daily_Rollup WHERE day BETWEEN ? AND ?) r";
+
+    private static final String BRAND_SALES_REPORT_SQL =
+        "SELECT " +
+        "b.brand_name, " +
+        "SUM(dbr.quantity) AS total_quantity, " +
+        "SUM(dbr.sales_amount) AS total_sales, " +
+        "'N/A' AS salesman_name " +
+        "FROM Daily_Brand_Rollup dbr " +
+        "JOIN Brand b ON dbr.brand_id = b.brand_id " +
+        "WHERE dbr.day >= ? AND dbr.day <= ? " +
+        "GROUP BY b.brand_name " +
+        "ORDER BY total_sales DESC";
+
+    private static final String CUSTOMER_SALES_REPORT_SQL =
+        "SELECT " +
+        "c.customer_name, " +
+        "SUM(dcr.invoice_count) AS invoice_count, " +
+        "SUM(dcr.sales_amount) AS total_sales, " +
+        "SUM(dcr.paid_amount) AS total_paid, " +
+        "SUM(dcr.return_amount) AS total_returns " +
+        "FROM Daily_Customer_Rollup dcr " +
+        "JOIN Customer c ON dcr.customer_id = c.customer_id " +
+        "WHERE dcr.day >= ? AND dcr.day <= ? " +
+        "GROUP BY c.customer_id, c.customer_name " +
+        "ORDER BY total_sales DESC";
+
+    private static ReportQuery areaWiseReportQuery(String partyType, String areaType, String areaValue) {
         StringBuilder query = new StringBuilder();
-        
+        List<Object> params = new ArrayList<>();
+
         // Base query for customers
         String customerQuery = "SELECT 'Customer' as party_type, c.customer_name as name, " +
                              "c.contact_number, t.tehsil_name, d.district_name, p.province_name " +
@@ -7184,7 +6751,7 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
         // Add WHERE clause based on area type and value if specified
         String whereClause = "";
         if (areaValue != null && !areaValue.trim().isEmpty() && !areaValue.equals("All")) {
-            switch (areaType.toLowerCase()) {
+            switch (areaType.toLowerCase(java.util.Locale.ROOT)) {
                 case "province":
                     whereClause = " WHERE p.province_name = ?";
                     break;
@@ -7208,139 +6775,98 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
                  .append(" UNION ALL ")
                  .append(supplierQuery).append(whereClause);
         }
-        
+        if (!whereClause.isEmpty()) {
+            // One placeholder per SELECT of the UNION
+            params.add(areaValue);
+            if (!partyType.equals("Customer") && !partyType.equals("Supplier")) {
+                params.add(areaValue);
+            }
+        }
+
         query.append(" ORDER BY party_type, name");
-        
-        System.out.println("DEBUG: Executing filtered area-wise report query: " + query.toString());
-        System.out.println("DEBUG: Parameters - PartyType: " + partyType + ", AreaType: " + areaType + ", AreaValue: " + areaValue);
-        
+        return new ReportQuery(query.toString(), params.toArray());
+    }
+
+    @Override
+    public Object[] getBalanceSheetData() {
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query.toString());
-            
-            // Set parameters if needed
-            if (areaValue != null && !areaValue.trim().isEmpty() && !areaValue.equals("All")) {
-                if (partyType.equals("Both")) {
-                    // Set parameter for both queries in UNION
-                    pstmt.setString(1, areaValue);
-                    pstmt.setString(2, areaValue);
-                } else {
-                    // Set parameter for single query
-                    pstmt.setString(1, areaValue);
-                }
-            }
-            
-            ResultSet rs = pstmt.executeQuery();
-            System.out.println("DEBUG: Successfully executed filtered area-wise report query");
-            return rs;
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQLException in getAreaWiseReport (filtered): " + e.getMessage());
+            // Served from memory until Bank, Customer, Supplier or stock is written
+            return balanceSheetCache.get(this::loadBalanceSheetData).clone();
+        } catch (Exception e) {
+            System.err.println("Error calculating balance sheet: " + e.getMessage());
             e.printStackTrace();
-            return null;
+            // Return array with proper default values instead of nulls
+            return new Object[] {
+                0.0, // totalBankBalance
+                0.0, // customersOweUs  
+                0.0, // weOweCustomers
+                0.0, // suppliersOweUs
+                0.0, // weOweSuppliers
+                0.0, // totalAssetsFromPeople
+                0.0, // totalLiabilitiesToPeople
+                0.0, // netWorth
+                0.0, // rawStockValue
+                0.0  // productionStockValue
+            };
         }
     }
 
     /**
-     * Ensure all required views exist in the database
+     * Compute every balance sheet figure in one statement on a reader connection.
+     * Positive customer balances are owed to us, positive supplier balances are owed by us.
+     */
+    private Object[] loadBalanceSheetData() throws SQLException {
+        String query = "SELECT " +
+                      "(SELECT COALESCE(SUM(balance), 0) FROM Bank) AS bank_total, " +
+                      "c.owe_us AS customers_owe_us, c.we_owe AS we_owe_customers, " +
+                      "s.owe_us AS suppliers_owe_us, s.we_owe AS we_owe_suppliers, " +
+                      "(SELECT COALESCE(SUM(value), 0) FROM Stock_Valuation WHERE stock_kind = 'raw') AS raw_stock_value, " +
+                      "(SELECT COALESCE(SUM(value), 0) FROM Stock_Valuation WHERE stock_kind = 'product') AS production_stock_value " +
+                      "FROM (SELECT COALESCE(SUM(CASE WHEN balance > 0 THEN balance ELSE 0 END), 0) AS owe_us, " +
+                      "             COALESCE(SUM(CASE WHEN balance < 0 THEN -balance ELSE 0 END), 0) AS we_owe " +
+                      "      FROM Customer) c, " +
+                      "     (SELECT COALESCE(SUM(CASE WHEN balance < 0 THEN -balance ELSE 0 END), 0) AS owe_us, " +
+                      "             COALESCE(SUM(CASE WHEN balance > 0 THEN balance ELSE 0 END), 0) AS we_owe " +
+                      "      FROM Supplier) s";
+
+        Connection reader = pool.borrowReader();
+        try (PreparedStatement pstmt = reader.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            double totalBankBalance = rs.getDouble("bank_total");
+            double customersOweUs = rs.getDouble("customers_owe_us");
+            double weOweCustomers = rs.getDouble("we_owe_customers");
+            double suppliersOweUs = rs.getDouble("suppliers_owe_us");
+            double weOweSuppliers = rs.getDouble("we_owe_suppliers");
+
+            double totalAssetsFromPeople = customersOweUs + suppliersOweUs; // Money coming to us
+            double totalLiabilitiesToPeople = weOweCustomers + weOweSuppliers; // Money going from us
+            double netWorth = totalBankBalance + totalAssetsFromPeople - totalLiabilitiesToPeople;
+
+            return new Object[] {
+                totalBankBalance,        // 0 - Cash in hand (all banks)
+                customersOweUs,          // 1 - Customers owe us
+                weOweCustomers,          // 2 - We owe customers
+                suppliersOweUs,          // 3 - Suppliers owe us
+                weOweSuppliers,          // 4 - We owe suppliers
+                totalAssetsFromPeople,   // 5 - Total receivables
+                totalLiabilitiesToPeople,// 6 - Total payables
+                netWorth,                // 7 - Net worth
+                rs.getDouble("raw_stock_value"),        // 8 - Raw stock at purchase price
+                rs.getDouble("production_stock_value")  // 9 - Finished stock at cost
+            };
+        } finally {
+            pool.release(reader);
+        }
+    }
+
+    /**
+     * Drop and recreate the Books views from views.sql, e.g. after editing them by hand
      */
     public void ensureViewsExist() {
         try {
-            // Drop and recreate View_Purchase_Book to fix column mismatch
-            try {
-                connection.createStatement().execute("DROP VIEW IF EXISTS View_Purchase_Book");
-            } catch (SQLException e) {
-                // Ignore if view doesn't exist
-            }
-            
-            // Create detailed view with item-level data (14 columns as expected)
-            String sql = "CREATE VIEW View_Purchase_Book AS " +
-                       "SELECT " +
-                       "    rpi.raw_purchase_invoice_id, " +           // 0: invoice_id
-                       "    rpi.invoice_number, " +                    // 1: invoice_number
-                       "    s.supplier_name, " +                      // 2: supplier_name
-                       "    rpi.invoice_date, " +                     // 3: invoice_date
-                       "    rs.item_name, " +                         // 4: item_name
-                       "    b.brand_name, " +                         // 5: brand_name
-                       "    m.manufacturer_name, " +                  // 6: manufacturer_name
-                       "    rpii.quantity, " +                        // 7: quantity
-                       "    rpii.unit_price, " +                      // 8: unit_price
-                       "    (rpii.quantity * rpii.unit_price) AS item_total, " + // 9: item_total
-                       "    rpi.total_amount, " +                     // 10: total_amount
-                       "    rpi.discount_amount, " +                  // 11: discount_amount
-                       "    rpi.paid_amount, " +                      // 12: paid_amount
-                       "    (rpi.total_amount - rpi.paid_amount) AS balance " + // 13: balance
-                       "FROM Raw_Purchase_Invoice rpi " +
-                       "JOIN Supplier s ON rpi.supplier_id = s.supplier_id " +
-                       "JOIN Raw_Purchase_Invoice_Item rpii ON rpi.raw_purchase_invoice_id = rpii.raw_purchase_invoice_id " +
-                       "JOIN Raw_Stock rs ON rpii.raw_stock_id = rs.stock_id " +
-                       "JOIN Brand b ON rs.brand_id = b.brand_id " +
-                       "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id";
-            connection.createStatement().execute(sql);
-            System.out.println("Created View_Purchase_Book with 14 columns (item-level details)");
-            
-            // Drop and recreate View_Return_Purchase_Book to fix column mismatch
-            try {
-                connection.createStatement().execute("DROP VIEW IF EXISTS View_Return_Purchase_Book");
-            } catch (SQLException e) {
-                // Ignore if view doesn't exist
-            }
-            
-            sql = "CREATE VIEW View_Return_Purchase_Book AS " +
-                "SELECT " +
-                "    rpri.raw_purchase_return_invoice_id AS raw_purchase_invoice_id, " +     // 0: invoice_id
-                "    rpri.return_invoice_number AS invoice_number, " +          // 1: invoice_number
-                "    s.supplier_name, " +                                       // 2: supplier_name
-                "    rpri.return_date AS invoice_date, " +                      // 3: invoice_date
-                "    rs.item_name, " +                                          // 4: item_name
-                "    b.brand_name, " +                                          // 5: brand_name
-                "    m.manufacturer_name, " +                                   // 6: manufacturer_name
-                "    rprii.quantity AS quantity, " +                            // 7: quantity
-                "    rprii.unit_price, " +                                      // 8: unit_price
-                "    (rprii.quantity * rprii.unit_price) AS item_total, " +     // 9: item_total
-                "    rpri.total_return_amount AS total_amount, " +              // 10: total_amount
-                "    0.0 AS discount_amount, " +                                // 11: discount_amount
-                "    rpri.total_return_amount AS paid_amount, " +               // 12: paid_amount
-                "    0.0 AS balance " +                                         // 13: balance
-                "FROM Raw_Purchase_Return_Invoice rpri " +
-                "JOIN Supplier s ON rpri.supplier_id = s.supplier_id " +
-                "JOIN Raw_Purchase_Return_Invoice_Item rprii ON rpri.raw_purchase_return_invoice_id = rprii.raw_purchase_return_invoice_id " +
-                "JOIN Raw_Stock rs ON rprii.raw_stock_id = rs.stock_id " +
-                "JOIN Brand b ON rs.brand_id = b.brand_id " +
-                "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id";
-            connection.createStatement().execute(sql);
-            System.out.println("Created View_Return_Purchase_Book with 14 columns (item-level details)");
-            
-            // Drop and recreate View_Raw_Stock_Book to fix column mismatch
-            try {
-                connection.createStatement().execute("DROP VIEW IF EXISTS View_Raw_Stock_Book");
-            } catch (SQLException e) {
-                // Ignore if view doesn't exist
-            }
-            
-            sql = "CREATE VIEW View_Raw_Stock_Book AS " +
-                "SELECT " +
-                "    rsui.raw_stock_use_invoice_id AS raw_purchase_invoice_id, " +         // 0: invoice_id
-                "    rsui.use_invoice_number AS invoice_number, " +              // 1: invoice_number
-                "    'Internal Usage' AS supplier_name, " +                      // 2: supplier_name
-                "    rsui.usage_date AS invoice_date, " +                        // 3: invoice_date
-                "    rs.item_name, " +                                           // 4: item_name
-                "    b.brand_name, " +                                           // 5: brand_name
-                "    m.manufacturer_name, " +                                    // 6: manufacturer_name
-                "    rsuii.quantity_used AS quantity, " +                        // 7: quantity
-                "    rsuii.unit_cost AS unit_price, " +                          // 8: unit_price
-                "    rsuii.total_cost AS item_total, " +                         // 9: item_total
-                "    rsui.total_usage_amount AS total_amount, " +                // 10: total_amount
-                "    0.0 AS discount_amount, " +                                 // 11: discount_amount
-                "    rsui.total_usage_amount AS paid_amount, " +                 // 12: paid_amount
-                "    0.0 AS balance " +                                          // 13: balance
-                "FROM Raw_Stock_Use_Invoice rsui " +
-                "JOIN Raw_Stock_Use_Invoice_Item rsuii ON rsui.raw_stock_use_invoice_id = rsuii.raw_stock_use_invoice_id " +
-                "JOIN Raw_Stock rs ON rsuii.raw_stock_id = rs.stock_id " +
-                "JOIN Brand b ON rs.brand_id = b.brand_id " +
-                "JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id";
-            connection.createStatement().execute(sql);
-            System.out.println("Created View_Raw_Stock_Book with 14 columns (item-level details)");
-            
-        } catch (SQLException e) {
+            new SchemaBootstrap(connection).rebuildViews();
+        } catch (SQLException | IOException e) {
             System.err.println("Error creating views: " + e.getMessage());
             e.printStackTrace();
         }
@@ -7405,6 +6931,7 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
         return items;
     }
 
+    @Override
     public boolean insertContractEmployee(String name, String phone, String cnic, String address, String remarks, String task, int numTasks,
             double costPerTask, int totalTasksDone, String date) {
         String sql = "INSERT INTO Contract_Employee (name, phone, cnic, address, remarks, task, num_tasks, cost_per_task, total_tasks_done, date) " +
@@ -7429,6 +6956,7 @@ public ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType
         }
     }
 
+    @Override
     public List<Object[]> getContractEmployeeRecords(LocalDate dateFrom, LocalDate dateTo, String timeFrom, String timeTo) {
         List<Object[]> records = new ArrayList<>();
         if (dateFrom == null || dateTo == null) {
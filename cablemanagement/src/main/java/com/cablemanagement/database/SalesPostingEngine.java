@@ -0,0 +1,170 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Posts a sales invoice in one short transaction on the writer connection:
+ * the invoice row, all lines as one batch, the stock decrements as one batch
+ * of conditional updates, the cost of each line taken from the product's
+ * cost layers (see {@link StockCosting}) and stamped on it, and the customer
+ * ledger entry.
+ *
+ * The statements are prepared once and reused for every invoice. Each stock
+ * decrement only applies when enough stock is left (quantity >= sold), so a
+ * line that would drive stock negative fails the whole invoice instead of
+ * being checked with a separate SELECT first. Lines for the same product are
+ * applied in order, so they are checked against what the earlier lines left.
+ */
+public class SalesPostingEngine {
+
+    private static final String INSERT_INVOICE =
+        "INSERT INTO Sales_Invoice (sales_invoice_number, customer_id, sales_date, " +
+        "total_amount, discount_amount, paid_amount) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_LINE =
+        "INSERT INTO Sales_Invoice_Item (sales_invoice_id, production_stock_id, quantity, unit_price, " +
+        "discount_percentage, discount_amount, total_price, unit_cost) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DECREASE_STOCK =
+        "UPDATE ProductionStock SET quantity = quantity - ? WHERE production_id = ? AND quantity >= ?";
+
+    private final Connection connection;
+    private final InvoiceSequence sequences;
+
+    private PreparedStatement insertInvoice;
+    private PreparedStatement insertLine;
+    private PreparedStatement decreaseStock;
+
+    public SalesPostingEngine(Connection connection, InvoiceSequence sequences) {
+        this.connection = connection;
+        this.sequences = sequences;
+    }
+
+    /**
+     * Post a sales invoice and everything it affects, all or nothing.
+     * @param items One entry per line: {production_stock_id (Integer), quantity (Double),
+     *              unit_price (Double), [discount_percentage (Double)], [discount_amount (Double)]}
+     * @return The new sales_invoice_id
+     * @throws SQLException If any part fails; nothing is written in that case
+     */
+    public synchronized int post(String invoiceNumber, int customerId, String salesDate,
+                                 double totalAmount, double discountAmount, double paidAmount,
+                                 List<Object[]> items) throws SQLException {
+        prepare();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            String number = sequences.assign(SQLiteDatabase.SALES_INVOICE_PREFIX, "%03d", invoiceNumber);
+            int salesInvoiceId = insertInvoice(number, customerId, salesDate, totalAmount, discountAmount, paidAmount);
+            StockCosting.Method costing = StockCosting.method(connection);
+
+            for (Object[] item : items) {
+                int productionStockId = (Integer) item[0];
+                double quantity = (Double) item[1];
+                double unitPrice = (Double) item[2];
+                double discountPercentage = item.length > 3 ? (Double) item[3] : 0.0;
+                double lineDiscount = item.length > 4 ? (Double) item[4] : 0.0;
+
+                insertLine.setInt(1, salesInvoiceId);
+                insertLine.setInt(2, productionStockId);
+                insertLine.setDouble(3, quantity);
+                insertLine.setDouble(4, unitPrice);
+                insertLine.setDouble(5, discountPercentage);
+                insertLine.setDouble(6, lineDiscount);
+                insertLine.setDouble(7, lineTotal(quantity, unitPrice, discountPercentage, lineDiscount));
+                double cost = StockCosting.PRODUCT.issue(connection, productionStockId, quantity, costing);
+                insertLine.setDouble(8, quantity > 0 ? cost / quantity : 0.0);
+                insertLine.addBatch();
+
+                decreaseStock.setDouble(1, quantity);
+                decreaseStock.setInt(2, productionStockId);
+                decreaseStock.setDouble(3, quantity);
+                decreaseStock.addBatch();
+            }
+            insertLine.executeBatch();
+
+            int[] updated = decreaseStock.executeBatch();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    throw new SQLException("Insufficient stock for product ID " + items.get(i)[0] +
+                                           " (line " + (i + 1) + ", quantity " + items.get(i)[1] + ")");
+                }
+            }
+
+            double netInvoiceAmount = totalAmount - discountAmount - paidAmount;
+            PartyLedger.CUSTOMER.post(connection, customerId, netInvoiceAmount, salesDate,
+                                      PartyLedger.INVOICE_CHARGE, "Sales invoice", number);
+
+            connection.commit();
+            return salesInvoiceId;
+        } catch (SQLException e) {
+            connection.rollback();
+            insertLine.clearBatch();
+            decreaseStock.clearBatch();
+            sequences.invalidate(SQLiteDatabase.SALES_INVOICE_PREFIX);
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Line total after percentage and flat discounts, never below zero.
+     */
+    public static double lineTotal(double quantity, double unitPrice, double discountPercentage, double discountAmount) {
+        double basePrice = quantity * unitPrice;
+        double percentageDiscount = basePrice * (discountPercentage / 100.0);
+        return Math.max(0, basePrice - percentageDiscount - discountAmount);
+    }
+
+    /**
+     * Close the cached statements. They are prepared again on the next post.
+     */
+    public synchronized void close() {
+        closeQuietly(insertInvoice);
+        closeQuietly(insertLine);
+        closeQuietly(decreaseStock);
+        insertInvoice = null;
+        insertLine = null;
+        decreaseStock = null;
+    }
+
+    private int insertInvoice(String invoiceNumber, int customerId, String salesDate,
+                              double totalAmount, double discountAmount, double paidAmount) throws SQLException {
+        insertInvoice.setString(1, invoiceNumber);
+        insertInvoice.setInt(2, customerId);
+        insertInvoice.setString(3, salesDate);
+        insertInvoice.setDouble(4, totalAmount);
+        insertInvoice.setDouble(5, discountAmount);
+        insertInvoice.setDouble(6, paidAmount);
+        insertInvoice.executeUpdate();
+        // Read the key before anything else is inserted on this connection
+        try (ResultSet keys = insertInvoice.getGeneratedKeys()) {
+            if (keys.next()) {
+                return keys.getInt(1);
+            }
+        }
+        throw new SQLException("No id returned for sales invoice " + invoiceNumber);
+    }
+
+    private void prepare() throws SQLException {
+        if (insertInvoice == null) {
+            insertInvoice = connection.prepareStatement(INSERT_INVOICE, Statement.RETURN_GENERATED_KEYS);
+            insertLine = connection.prepareStatement(INSERT_LINE);
+            decreaseStock = connection.prepareStatement(DECREASE_STOCK);
+        }
+    }
+
+    private void closeQuietly(Statement stmt) {
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                // already closed with the connection
+            }
+        }
+    }
+}
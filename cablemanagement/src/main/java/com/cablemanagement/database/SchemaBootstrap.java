@@ -0,0 +1,154 @@
+package com.cablemanagement.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Brings a database file's schema up to date when it is opened, and does
+ * nothing else when it already is.
+ *
+ * The schema is schema.sql, the migrations and the Books views in
+ * views.sql, all read from the classpath. Their fingerprint (a hash of both
+ * scripts and the latest migration version) is kept in PRAGMA user_version.
+ * When the file's user_version matches, opening it costs one pragma read:
+ * no CREATE ... IF NOT EXISTS replay and no view drops, which would take the
+ * write lock and invalidate the prepared statements of every other open
+ * connection. Otherwise the tables are created, default units inserted,
+ * migrations applied and the views rebuilt, and the fingerprint is written
+ * last, so an interrupted bootstrap runs again on the next open.
+ */
+final class SchemaBootstrap {
+
+    static final String SCHEMA_RESOURCE = "/db/schema.sql";
+    static final String VIEWS_RESOURCE = "/db/views.sql";
+
+    private final Connection connection;
+    private final Map<String, Double> timings = new LinkedHashMap<>();
+
+    SchemaBootstrap(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Bring the schema up to date.
+     * @return True if DDL was run, false if the stored fingerprint matched
+     */
+    boolean run() throws SQLException, IOException {
+        long start = System.nanoTime();
+        String schema = loadScript(SCHEMA_RESOURCE);
+        String views = loadScript(VIEWS_RESOURCE);
+        int fingerprint = fingerprint(schema, views, SchemaMigrator.latestVersion());
+        boolean current = storedFingerprint() == fingerprint;
+        start = lap("schema check", start);
+        if (current) {
+            return false;
+        }
+
+        executeScript(schema);
+        try (Statement stmt = connection.createStatement()) {
+            insertDefaultUnits(stmt);
+        }
+        start = lap("tables", start);
+
+        SchemaMigrator migrator = new SchemaMigrator(connection);
+        migrator.migrate();
+        start = lap("migrations", start);
+
+        executeScript(views);
+        lap("views", start);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + fingerprint);
+        }
+        DbLog.info("Database schema brought up to date");
+        return true;
+    }
+
+    /** Drop and recreate the Books views, whatever the fingerprint says. */
+    void rebuildViews() throws SQLException, IOException {
+        executeScript(loadScript(VIEWS_RESOURCE));
+    }
+
+    /** Milliseconds spent in each phase of the last {@link #run()}, in order. */
+    Map<String, Double> timings() {
+        return timings;
+    }
+
+    /**
+     * The value user_version holds once the given scripts are applied:
+     * the first 31 bits of their SHA-256, never 0, which is a new file.
+     */
+    static int fingerprint(String schema, String views, int migrationVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(schema.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(views.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Integer.toString(migrationVersion).getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest();
+            int value = ((hash[0] & 0x7F) << 24) | ((hash[1] & 0xFF) << 16) | ((hash[2] & 0xFF) << 8) | (hash[3] & 0xFF);
+            return value != 0 ? value : 1;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private int storedFingerprint() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void executeScript(String sql) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String statement : SchemaMigrator.splitStatements(sql)) {
+                stmt.execute(statement);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void insertDefaultUnits(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Unit")) {
+            if (rs.next() && rs.getInt(1) > 0) {
+                return;
+            }
+        }
+        stmt.execute("INSERT INTO Unit (unit_name) VALUES " +
+                     "('Piece'), ('Meter'), ('Roll'), ('Kg'), ('Gram'), ('Box'), ('Liter'), ('Foot'), ('Yard'), ('Dozen')");
+        DbLog.info("Default units added to Unit table");
+    }
+
+    private long lap(String phase, long since) {
+        long now = System.nanoTime();
+        timings.put(phase, (now - since) / 1_000_000.0);
+        return now;
+    }
+
+    private static String loadScript(String resource) throws IOException {
+        try (InputStream in = SchemaBootstrap.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Schema script not found on classpath: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.cablemanagement.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Applies versioned migration scripts on top of schema.sql.
+ *
+ * Every script lives under /db/migrations on the classpath and is listed in
+ * {@link #MIGRATIONS} in the order it must run. Applied versions are recorded
+ * in the schema_version table, so each script runs exactly once per database
+ * file, inside its own transaction.
+ *
+ * To add a migration, drop a new Vnnn__description.sql next to the existing
+ * ones and append it to the list below. Never edit a script that has shipped.
+ */
+public class SchemaMigrator {
+
+    private static final String MIGRATION_DIR = "/db/migrations/";
+
+    private static final String[][] MIGRATIONS = {
+        {"1", "secondary_indexes", "V001__secondary_indexes.sql"},
+        {"2", "invoice_sequence", "V002__invoice_sequence.sql"},
+        {"3", "ledger_invoice_reference", "V003__ledger_invoice_reference.sql"},
+        {"4", "ledger_keyset", "V004__ledger_keyset.sql"},
+        {"5", "search_index", "V005__search_index.sql"},
+        {"6", "daily_rollups", "V006__daily_rollups.sql"},
+        {"7", "bill_of_materials", "V007__bill_of_materials.sql"},
+        {"8", "cost_layers", "V008__cost_layers.sql"},
+        {"9", "book_supplier_keyset", "V009__book_supplier_keyset.sql"},
+        {"10", "sales_return_rollups", "V010__sales_return_rollups.sql"},
+    };
+
+    private final Connection connection;
+
+    public SchemaMigrator(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Apply every migration newer than the recorded schema version.
+     * @return The number of migrations applied
+     */
+    public int migrate() throws SQLException {
+        ensureVersionTable();
+        int current = getCurrentVersion();
+        int applied = 0;
+
+        for (String[] migration : MIGRATIONS) {
+            int version = Integer.parseInt(migration[0]);
+            if (version <= current) {
+                continue;
+            }
+            String sql;
+            try {
+                sql = loadScript(migration[2]);
+            } catch (IOException e) {
+                throw new SQLException("Could not read migration " + migration[2], e);
+            }
+            applyMigration(version, migration[1], sql);
+            applied++;
+            DbLog.info("Applied schema migration V" + version + " (" + migration[1] + ")");
+        }
+        return applied;
+    }
+
+    /**
+     * Version of the last migration this build knows about.
+     */
+    public static int latestVersion() {
+        return Integer.parseInt(MIGRATIONS[MIGRATIONS.length - 1][0]);
+    }
+
+    /**
+     * Highest migration version recorded in schema_version, or 0 if none.
+     */
+    public int getCurrentVersion() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void ensureVersionTable() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                         "version INTEGER PRIMARY KEY, " +
+                         "description TEXT NOT NULL, " +
+                         "applied_at TEXT DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private void applyMigration(int version, String description, String sql) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String statement : splitStatements(sql)) {
+                stmt.execute(statement);
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                pstmt.setInt(1, version);
+                pstmt.setString(2, description);
+                pstmt.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private String loadScript(String name) throws IOException {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(MIGRATION_DIR + name)) {
+            if (in == null) {
+                throw new IOException("Migration script not found on classpath: " + MIGRATION_DIR + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Split a script into statements, dropping whole-line comments and
+     * keeping each CREATE TRIGGER ... END together.
+     */
+    static List<String> splitStatements(String sql) {
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        StringBuilder pending = new StringBuilder();
+        for (String part : withoutComments.toString().split(";")) {
+            if (pending.length() > 0) {
+                pending.append(';');
+            }
+            pending.append(part);
+            String trimmed = pending.toString().trim();
+            if (isOpenTrigger(trimmed)) {
+                continue; // the ';' ended a statement inside BEGIN ... END, keep going
+            }
+            if (!trimmed.isEmpty()) {
+                statements.add(trimmed);
+            }
+            pending.setLength(0);
+        }
+        return statements;
+    }
+
+    private static boolean isOpenTrigger(String statement) {
+        String upper = statement.toUpperCase(Locale.ROOT);
+        return upper.startsWith("CREATE TRIGGER") && !upper.matches("(?s).*\\bEND");
+    }
+}
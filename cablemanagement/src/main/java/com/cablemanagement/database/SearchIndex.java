@@ -0,0 +1,158 @@
+package com.cablemanagement.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Full-text search over the Search_Index FTS5 table (migration V005).
+ *
+ * The index holds one row per customer, supplier, product, raw stock item
+ * and bank, cash or ledger transaction. Triggers on the source tables keep
+ * it current, so nothing here writes to it. A row's rowid is
+ * {@code kind code << 32 | source id}: each kind is its own rowid range,
+ * which is how a hit finds its way back to its row.
+ *
+ * Search text is split into words; the last word is matched as a prefix
+ * (it is usually still being typed) and all words must match, so
+ * "ali kar" finds "Ali Traders, Karachi". The index is walked by
+ * descending rowid, which visits customers, suppliers and stock before
+ * transactions and transactions newest first. The first
+ * {@link #RANK_WINDOW} matches in that order are then ranked by where the
+ * words matched (see {@link #rank}), keeping that order among equals.
+ * FTS5's bm25 is not used: it counts every match of every word to weigh
+ * them, which for a one-letter prefix over a million ledger rows takes
+ * several times longer than the whole search may.
+ */
+public final class SearchIndex {
+
+    /**
+     * Where a hit came from. The code is stored in the rowid and must not change.
+     */
+    public enum Kind {
+        CUSTOMER(7, "Customer"),
+        SUPPLIER(6, "Supplier"),
+        PRODUCT(5, "Product"),
+        RAW_STOCK(4, "Raw Stock"),
+        BANK_TRANSACTION(3, "Bank Transaction"),
+        CASH_TRANSACTION(2, "Cash Transaction"),
+        CUSTOMER_TRANSACTION(1, "Customer Ledger"),
+        SUPPLIER_TRANSACTION(0, "Supplier Ledger");
+
+        private final int code;
+        private final String label;
+
+        Kind(int code, String label) {
+            this.code = code;
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        static Kind ofCode(int code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("No search kind " + code);
+        }
+    }
+
+    /**
+     * @param id Primary key of the row in its source table
+     * @param title Name or description
+     * @param detail Contact, area, brand, type, date ... whatever was indexed next to the title
+     */
+    public record Hit(Kind kind, int id, String title, String detail) {}
+
+    /** Matches ranked when a limit is given. */
+    static final int RANK_WINDOW = 500;
+
+    static final String SEARCH_SQL =
+        "SELECT rowid, title, detail FROM Search_Index " +
+        "WHERE Search_Index MATCH ? AND rowid BETWEEN ? AND ? ORDER BY rowid DESC LIMIT ?";
+
+    private static final int KIND_SHIFT = 32;
+
+    private SearchIndex() {}
+
+    /** Lowest rowid of the kinds, for the BETWEEN of {@link #SEARCH_SQL}. */
+    static long firstRowid(Kind... kinds) {
+        int code = Integer.MAX_VALUE;
+        for (Kind kind : kinds) {
+            code = Math.min(code, kind.code);
+        }
+        return (long) code << KIND_SHIFT;
+    }
+
+    /** Highest rowid of the kinds. */
+    static long lastRowid(Kind... kinds) {
+        int code = 0;
+        for (Kind kind : kinds) {
+            code = Math.max(code, kind.code);
+        }
+        return ((long) (code + 1) << KIND_SHIFT) - 1;
+    }
+
+    /**
+     * The searchable words of what the user typed, lower-cased.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The FTS5 query for the words: every word a quoted term, the last one
+     * a prefix term, all of them required.
+     * @return The expression, or null if there are no words
+     */
+    static String matchExpression(List<String> words) {
+        if (words.isEmpty()) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : words) {
+            terms.add("\"" + word + "\"");
+        }
+        terms.set(terms.size() - 1, terms.get(terms.size() - 1) + "*");
+        return String.join(" ", terms);
+    }
+
+    /**
+     * How well a hit matches, lower is better: 0 when the title starts with
+     * the first word and holds all of them, 1 when the title holds all the
+     * words anywhere, 2 when some only matched the detail.
+     */
+    static int rank(List<String> words, Hit hit) {
+        List<String> titleWords = words(hit.title());
+        for (String word : words) {
+            boolean found = false;
+            for (String titleWord : titleWords) {
+                if (titleWord.startsWith(word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return 2;
+            }
+        }
+        return titleWords.get(0).startsWith(words.get(0)) ? 0 : 1;
+    }
+
+    static Hit hit(long rowid, String title, String detail) {
+        Kind kind = Kind.ofCode((int) (rowid >>> KIND_SHIFT));
+        return new Hit(kind, (int) (rowid & ((1L << KIND_SHIFT) - 1)), title, detail);
+    }
+}
@@ -0,0 +1,234 @@
+package com.cablemanagement.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection cache of prepared statements, keyed by SQL text.
+ *
+ * The connection returned by {@link #connection()} hands out a cached
+ * statement from prepareStatement(sql) when one is idle and prepares a new
+ * one otherwise, so the DAO code keeps its prepare/try-with-resources shape
+ * and simply stops re-parsing the same SQL. Closing a handed-out statement
+ * resets it (open result set closed, parameters and batch cleared) and puts
+ * it back instead of finalizing it. A statement is never shared: while it is
+ * out, another prepare of the same SQL gets its own copy, and only one copy
+ * per SQL text is kept idle. The least recently used idle statement is
+ * closed once the cache is over capacity.
+ *
+ * The size comes from -Dcablemanagement.statementCacheSize (default
+ * {@value #DEFAULT_CAPACITY}); 0 turns caching off.
+ */
+public final class StatementCache {
+
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private static final int CAPACITY = Integer.getInteger("cablemanagement.statementCacheSize", DEFAULT_CAPACITY);
+
+    private final Connection target;
+    private final Connection proxy;
+    private final int capacity;
+    private final LinkedHashMap<String, PreparedStatement> idle;
+    private boolean closed = false;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private StatementCache(Connection target, int capacity) {
+        this.target = target;
+        this.capacity = capacity;
+        this.idle = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.capacity) {
+                    evictions.incrementAndGet();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.proxy = (Connection) Proxy.newProxyInstance(
+            StatementCache.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new ConnectionHandler());
+    }
+
+    /**
+     * Create a cache for the connection with the configured capacity.
+     * @return The cache, or null if caching is turned off
+     */
+    static StatementCache create(Connection connection) {
+        return CAPACITY > 0 ? new StatementCache(connection, CAPACITY) : null;
+    }
+
+    /**
+     * The connection to hand out in place of the one this cache was created for.
+     */
+    Connection connection() {
+        return proxy;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hits.get() + ", misses=" + misses.get() +
+               ", evictions=" + evictions.get() + ", idle=" + getIdleCount() + "/" + capacity;
+    }
+
+    private PreparedStatement checkOut(String key, String sql, Integer autoGeneratedKeys) throws SQLException {
+        PreparedStatement stmt;
+        synchronized (this) {
+            stmt = closed ? null : idle.remove(key);
+        }
+        if (stmt != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            stmt = autoGeneratedKeys == null
+                ? target.prepareStatement(sql)
+                : target.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+            StatementCache.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class},
+            new StatementHandler(key, stmt));
+    }
+
+    private void checkIn(String key, PreparedStatement stmt, ResultSet lastResult) {
+        try {
+            if (lastResult != null && !lastResult.isClosed()) {
+                // Resets the statement, which also ends its read transaction
+                lastResult.close();
+            }
+            if (stmt.isClosed()) {
+                return;
+            }
+            stmt.clearParameters();
+            stmt.clearBatch();
+        } catch (SQLException e) {
+            closeQuietly(stmt);
+            return;
+        }
+        synchronized (this) {
+            if (!closed && !idle.containsKey(key)) {
+                idle.put(key, stmt);
+                return;
+            }
+        }
+        closeQuietly(stmt);
+    }
+
+    private void closeAll() {
+        List<PreparedStatement> statements;
+        synchronized (this) {
+            closed = true;
+            statements = new ArrayList<>(idle.values());
+            idle.clear();
+        }
+        for (PreparedStatement stmt : statements) {
+            closeQuietly(stmt);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // the connection is going away
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("prepareStatement") && args.length == 1) {
+                String sql = (String) args[0];
+                return checkOut(sql, sql, null);
+            }
+            if (name.equals("prepareStatement") && args.length == 2 && args[1] instanceof Integer) {
+                String sql = (String) args[0];
+                return checkOut(args[1] + "|" + sql, sql, (Integer) args[1]);
+            }
+            if (name.equals("close")) {
+                closeAll();
+            }
+            return StatementCache.invoke(target, method, args);
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final String key;
+        private final PreparedStatement stmt;
+        private ResultSet lastResult;
+        private boolean returned = false;
+
+        StatementHandler(String key, PreparedStatement stmt) {
+            this.key = key;
+            this.stmt = stmt;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (!returned) {
+                    returned = true;
+                    checkIn(key, stmt, lastResult);
+                    lastResult = null;
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return returned || stmt.isClosed();
+            }
+            if (name.equals("getConnection")) {
+                return StatementCache.this.proxy;
+            }
+            if (returned) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result = StatementCache.invoke(stmt, method, args);
+            if (result instanceof ResultSet) {
+                lastResult = (ResultSet) result;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.cablemanagement.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Counts SQL statements executed per thread, for finding N+1 query patterns.
+ *
+ * Off by default. When enabled (before the pool is opened) the connections
+ * handed out by {@link ConnectionPool} are wrapped so every execute call
+ * on their statements bumps a counter for the calling thread. Enable it with
+ * -Dcablemanagement.countStatements=true or {@link #setEnabled(boolean)};
+ * StatementBudgetTest uses it to hold each db method to a budget.
+ */
+public final class StatementCounter {
+
+    private static volatile boolean enabled = Boolean.getBoolean("cablemanagement.countStatements");
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private StatementCounter() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turn counting on or off for connections opened from now on.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Statements executed on this thread since the last reset.
+     */
+    public static long get() {
+        return COUNT.get()[0];
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Wrap a connection so its statements are counted, if counting is enabled.
+     */
+    static Connection wrap(Connection connection) {
+        if (!enabled) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(
+            StatementCounter.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = StatementCounter.invoke(target, method, args);
+            Class<?> type = method.getReturnType();
+            if (result instanceof Statement && type.isInterface() && Statement.class.isAssignableFrom(type)) {
+                // Statement, PreparedStatement or CallableStatement, as declared by the method
+                return Proxy.newProxyInstance(
+                    StatementCounter.class.getClassLoader(),
+                    new Class<?>[] {type},
+                    new StatementHandler(result));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Object target;
+
+        StatementHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                COUNT.get()[0]++;
+            }
+            return StatementCounter.invoke(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cost layers and valuation of raw and production stock (migration V008).
+ *
+ * Every receipt opens a Cost_Layer at its unit cost and every issue takes
+ * quantity from the oldest open layers, on the caller's connection and
+ * transaction, so the layers always move with the stock they cost.
+ * Stock_Valuation keeps each item's quantity and value at cost, so the
+ * valuation reports read one row per item instead of recomputing anything.
+ *
+ * How an issue is costed follows the Costing_Setting row: under FIFO it is
+ * the cost of the layers it consumed, under AVERAGE the item's moving
+ * weighted average (value / quantity). The layers are kept the same way
+ * under both, so the method can be switched at any time; switching to FIFO
+ * revalues every item at its open layers. Stock issued beyond the open
+ * layers, e.g. after a manual stock edit, is costed at the average, or at
+ * the item's own unit cost when nothing is left to average.
+ */
+public final class StockCosting {
+
+    /** How issues from stock are costed. */
+    public enum Method { FIFO, AVERAGE }
+
+    static final StockCosting RAW = new StockCosting("raw", "Raw_Stock", "stock_id", "unit_price");
+    static final StockCosting PRODUCT = new StockCosting("product", "ProductionStock", "production_id", "unit_cost");
+
+    private static final String[] REBUILD_SQL = {
+        "DELETE FROM Cost_Layer",
+        "DELETE FROM Stock_Valuation",
+        "INSERT INTO Cost_Layer (stock_kind, stock_id, layer_date, source, quantity_received, quantity_remaining, unit_cost) " +
+        "SELECT 'raw', stock_id, date('now'), 'opening', quantity, quantity, unit_price FROM Raw_Stock WHERE quantity > 0",
+        "INSERT INTO Cost_Layer (stock_kind, stock_id, layer_date, source, quantity_received, quantity_remaining, unit_cost) " +
+        "SELECT 'product', production_id, date('now'), 'opening', quantity, quantity, unit_cost FROM ProductionStock WHERE quantity > 0",
+        "INSERT INTO Stock_Valuation (stock_kind, stock_id, quantity, value) " +
+        "SELECT stock_kind, stock_id, SUM(quantity_remaining), SUM(quantity_remaining * unit_cost) " +
+        "FROM Cost_Layer GROUP BY stock_kind, stock_id",
+    };
+
+    final String kind;
+    private final String stockTable;
+    private final String idColumn;
+    private final String costColumn;
+
+    private StockCosting(String kind, String stockTable, String idColumn, String costColumn) {
+        this.kind = kind;
+        this.stockTable = stockTable;
+        this.idColumn = idColumn;
+        this.costColumn = costColumn;
+    }
+
+    /**
+     * Put stock on hand at a cost: a new layer, and the quantity and value added to the valuation.
+     * @param source What brought the stock in, e.g. "purchase" or "production"
+     * @param reference The document number, if any
+     */
+    void receive(Connection connection, int stockId, double quantity, double unitCost, String date,
+                 String source, String reference) throws SQLException {
+        if (quantity <= 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO Cost_Layer (stock_kind, stock_id, layer_date, source, reference, " +
+                "quantity_received, quantity_remaining, unit_cost) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            pstmt.setString(1, kind);
+            pstmt.setInt(2, stockId);
+            pstmt.setString(3, date);
+            pstmt.setString(4, source);
+            pstmt.setString(5, reference);
+            pstmt.setDouble(6, quantity);
+            pstmt.setDouble(7, quantity);
+            pstmt.setDouble(8, unitCost);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO Stock_Valuation (stock_kind, stock_id, quantity, value) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (stock_kind, stock_id) DO UPDATE SET quantity = quantity + excluded.quantity, " +
+                "value = value + excluded.value")) {
+            pstmt.setString(1, kind);
+            pstmt.setInt(2, stockId);
+            pstmt.setDouble(3, quantity);
+            pstmt.setDouble(4, quantity * unitCost);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Take stock off hand: consume the oldest layers and reduce the valuation.
+     * @return The cost of the quantity issued under the current method
+     */
+    double issue(Connection connection, int stockId, double quantity) throws SQLException {
+        return issue(connection, stockId, quantity, method(connection));
+    }
+
+    /**
+     * {@link #issue(Connection, int, double)} with the method already looked up,
+     * for callers issuing many lines in one transaction.
+     */
+    double issue(Connection connection, int stockId, double quantity, Method method) throws SQLException {
+        if (quantity <= 0) {
+            return 0.0;
+        }
+        double onHand = 0.0;
+        double value = 0.0;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT quantity, value FROM Stock_Valuation WHERE stock_kind = ? AND stock_id = ?")) {
+            pstmt.setString(1, kind);
+            pstmt.setInt(2, stockId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    onHand = rs.getDouble("quantity");
+                    value = rs.getDouble("value");
+                }
+            }
+        }
+
+        double layerCost = 0.0;
+        double remaining = quantity;
+        try (PreparedStatement select = connection.prepareStatement(
+                 "SELECT layer_id, quantity_remaining, unit_cost FROM Cost_Layer " +
+                 "WHERE stock_kind = ? AND stock_id = ? AND quantity_remaining > 0 ORDER BY layer_id");
+             PreparedStatement consume = connection.prepareStatement(
+                 "UPDATE Cost_Layer SET quantity_remaining = ? WHERE layer_id = ?")) {
+            select.setString(1, kind);
+            select.setInt(2, stockId);
+            try (ResultSet rs = select.executeQuery()) {
+                while (remaining > 0 && rs.next()) {
+                    double available = rs.getDouble("quantity_remaining");
+                    double taken = Math.min(available, remaining);
+                    layerCost += taken * rs.getDouble("unit_cost");
+                    remaining -= taken;
+                    consume.setDouble(1, available - taken);
+                    consume.setLong(2, rs.getLong("layer_id"));
+                    consume.addBatch();
+                }
+            }
+            consume.executeBatch();
+        }
+
+        double averageCost = onHand > 0 ? value / onHand : ownUnitCost(connection, stockId);
+        double cost = method == Method.FIFO
+            ? layerCost + remaining * averageCost
+            : quantity * averageCost;
+
+        double quantityAfter = Math.max(0.0, onHand - quantity);
+        double valueAfter = quantityAfter > 0 ? Math.max(0.0, value - cost) : 0.0;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "UPDATE Stock_Valuation SET quantity = ?, value = ? WHERE stock_kind = ? AND stock_id = ?")) {
+            pstmt.setDouble(1, quantityAfter);
+            pstmt.setDouble(2, valueAfter);
+            pstmt.setString(3, kind);
+            pstmt.setInt(4, stockId);
+            pstmt.executeUpdate();
+        }
+        return cost;
+    }
+
+    /**
+     * Bring the costed quantity to what the stock now holds after an edit:
+     * an increase is received at the given cost, a decrease issued.
+     */
+    void adjustTo(Connection connection, int stockId, double newQuantity, double unitCost, String date)
+            throws SQLException {
+        double onHand = 0.0;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT quantity FROM Stock_Valuation WHERE stock_kind = ? AND stock_id = ?")) {
+            pstmt.setString(1, kind);
+            pstmt.setInt(2, stockId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    onHand = rs.getDouble("quantity");
+                }
+            }
+        }
+        if (newQuantity > onHand) {
+            receive(connection, stockId, newQuantity - onHand, unitCost, date, "adjustment", null);
+        } else if (newQuantity < onHand) {
+            issue(connection, stockId, onHand - newQuantity);
+        }
+    }
+
+    /** The costing method in force. */
+    static Method method(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT method FROM Costing_Setting WHERE setting_id = 1")) {
+            return rs.next() ? Method.valueOf(rs.getString("method")) : Method.AVERAGE;
+        }
+    }
+
+    /**
+     * Switch the costing method, in one transaction. Switching to FIFO values
+     * every item at its open layers; switching to AVERAGE keeps the value and
+     * averages from there.
+     */
+    static void setMethod(Connection connection, Method method) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Costing_Setting (setting_id, method) VALUES (1, '" + method.name() + "') " +
+                               "ON CONFLICT (setting_id) DO UPDATE SET method = excluded.method");
+            if (method == Method.FIFO) {
+                stmt.executeUpdate("UPDATE Stock_Valuation SET value = COALESCE(" +
+                                   "(SELECT SUM(l.quantity_remaining * l.unit_cost) FROM Cost_Layer l " +
+                                   " WHERE l.stock_kind = Stock_Valuation.stock_kind AND l.stock_id = Stock_Valuation.stock_id " +
+                                   " AND l.quantity_remaining > 0), 0)");
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Replace every layer with one opening layer per item holding stock, at
+     * the item's own unit cost, e.g. after stock was loaded in bulk.
+     */
+    static void rebuild(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : REBUILD_SQL) {
+                stmt.executeUpdate(sql);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private double ownUnitCost(Connection connection, int stockId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT " + costColumn + " FROM " + stockTable + " WHERE " + idColumn + " = ?")) {
+            pstmt.setInt(1, stockId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getDouble(1) : 0.0;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.cablemanagement.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for a low-cardinality text column (brand, unit, ...).
+ *
+ * Each distinct value is stored once and rows keep its int code, so a
+ * column of 100k brand names costs one int per row plus the handful of
+ * distinct strings, and "is this row brand X" is an int comparison.
+ */
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @return The code of the value, adding it if it is new; null is a value like any other
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * @return The code of the value, or -1 if no row has it
+     */
+    int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    List<String> values() {
+        return Collections.unmodifiableList(values);
+    }
+}
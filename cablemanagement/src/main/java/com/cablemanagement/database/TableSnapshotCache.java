@@ -0,0 +1,195 @@
+package com.cablemanagement.database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sqlite.SQLiteCommitListener;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteUpdateListener;
+import org.sqlite.core.DB;
+
+/**
+ * Holds one computed value (e.g. the balance sheet totals) until a write
+ * touches one of the tables it was computed from.
+ *
+ * Writes made through this process are seen through SQLite's update and
+ * commit hooks on the writer connection: a row change in a watched table
+ * marks the snapshot stale, and the commit or rollback that ends the
+ * transaction drops it again, so a value loaded from a reader while the
+ * write was still in flight is never kept. The commit hook fires before the
+ * commit can be read, so after a commit nothing loaded is kept until the
+ * commit is readable (see {@link AfterCommit}). Writes from another process on
+ * the same file are caught by PRAGMA data_version, which is checked on
+ * every hit.
+ *
+ * With a time-to-live the data_version check is skipped and the value is
+ * simply reloaded once it is older than the TTL, so a hit does not touch
+ * SQLite at all. Writes from other processes then show up within the TTL.
+ */
+public class TableSnapshotCache<T> {
+
+    private final String name;
+    private final long ttlMillis;
+    private final Set<String> tables = new HashSet<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private volatile T snapshot;
+    private volatile long loadedAt;
+    private volatile boolean changedInTransaction;
+    // Commits whose hook has run but which readers may not see yet
+    private final AtomicInteger unreadableCommits = new AtomicInteger();
+    private Connection connection;
+    private DB writerMonitor;
+    private long dataVersion = -1;
+
+    /**
+     * @param name Used in log output
+     * @param watchedTables The tables the cached value is computed from
+     */
+    public TableSnapshotCache(String name, String... watchedTables) {
+        this(name, 0, watchedTables);
+    }
+
+    /**
+     * @param name Used in log output
+     * @param ttlMillis How long a value is kept at most; 0 keeps it until a write
+     * @param watchedTables The tables the cached value is computed from
+     */
+    public TableSnapshotCache(String name, long ttlMillis, String... watchedTables) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        for (String table : watchedTables) {
+            tables.add(table.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Listen for writes on the writer connection.
+     */
+    public synchronized void attach(Connection writer) throws SQLException {
+        this.connection = writer;
+        this.writerMonitor = AfterCommit.monitor(writer);
+        SQLiteConnection sqlite = writer.unwrap(SQLiteConnection.class);
+        sqlite.addUpdateListener(new SQLiteUpdateListener() {
+            @Override
+            public void onUpdate(Type type, String database, String table, long rowId) {
+                if (table != null && tables.contains(table.toLowerCase(Locale.ROOT))) {
+                    changedInTransaction = true;
+                    invalidate();
+                }
+            }
+        });
+        sqlite.addCommitListener(new SQLiteCommitListener() {
+            @Override
+            public void onCommit() {
+                if (changedInTransaction) {
+                    changedInTransaction = false;
+                    unreadableCommits.incrementAndGet();
+                    invalidate();
+                    AfterCommit.run(writerMonitor, () -> {
+                        unreadableCommits.decrementAndGet();
+                        invalidate();
+                    });
+                }
+            }
+
+            @Override
+            public void onRollback() {
+                endTransaction();
+            }
+        });
+        dataVersion = readDataVersion();
+    }
+
+    /**
+     * Return the cached value, computing it with the loader if there is none.
+     * A value computed while a watched table changed underneath is returned
+     * but not kept.
+     */
+    public T get(Callable<T> loader) throws Exception {
+        T cached = snapshot;
+        if (cached != null && isFresh()) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        long startGeneration = generation.get();
+        T value = loader.call();
+        if (value != null && !changedInTransaction && unreadableCommits.get() == 0
+                && generation.get() == startGeneration) {
+            loadedAt = System.currentTimeMillis();
+            snapshot = value;
+        }
+        return value;
+    }
+
+    /**
+     * Drop the cached value.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + " cache: hits=" + hits.get() + ", misses=" + misses.get() +
+               ", tables=" + Arrays.toString(tables.toArray());
+    }
+
+    private void endTransaction() {
+        if (changedInTransaction) {
+            changedInTransaction = false;
+            invalidate();
+        }
+    }
+
+    private boolean isFresh() {
+        if (ttlMillis > 0) {
+            return System.currentTimeMillis() - loadedAt < ttlMillis;
+        }
+        return !changedByOtherProcess();
+    }
+
+    private synchronized boolean changedByOtherProcess() {
+        long current = readDataVersion();
+        if (current != dataVersion) {
+            dataVersion = current;
+            invalidate();
+            return true;
+        }
+        return false;
+    }
+
+    private long readDataVersion() {
+        if (connection == null) {
+            return -1;
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA data_version")) {
+            return rs.next() ? rs.getLong(1) : -1;
+        } catch (SQLException e) {
+            // Can't tell, so treat it as changed
+            return dataVersion - 1;
+        }
+    }
+}
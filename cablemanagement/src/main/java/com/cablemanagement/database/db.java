@@ -1,7 +1,9 @@
 package com.cablemanagement.database;
 
 import java.sql.Date;
-import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +23,24 @@ public interface db {
      * @return The active database connection
      */
     java.sql.Connection getConnection();
+
+    /**
+     * Get the pool whose read-only connections serve background queries
+     * @return The pool, or null if not connected
+     */
+    ConnectionPool getConnectionPool();
+
+    /**
+     * Milliseconds each phase of opening the database took: connect, schema check and,
+     * when the schema had to be brought up to date, tables, migrations and views
+     */
+    Map<String, Double> getStartupTimings();
+
+    /**
+     * Get the bus that reports the rows each committed write changed
+     * @return The bus; subscribers stay registered across reconnects
+     */
+    ChangeBus getChangeBus();
     
     /**
      * Get the sales invoice ID by its invoice number
@@ -161,6 +181,14 @@ public interface db {
      */
     double getCustomerPreviousBalance(String customerName, String excludeInvoiceNumber);
 
+    /**
+     * Get customer's balance at the end of a day, from the running ledger
+     * @param customerName Customer name
+     * @param date Date in yyyy-MM-dd format
+     * @return Sum of the ledger entries dated on or before the date
+     */
+    double getCustomerBalanceAsOf(String customerName, String date);
+
     /**
      * Get invoice balance details for PDF generation
      * @param customerName Customer name
@@ -203,6 +231,14 @@ public interface db {
      */
     double getSupplierPreviousBalance(String supplierName, String excludeInvoiceNumber);
 
+    /**
+     * Get supplier's balance at the end of a day, from the running ledger
+     * @param supplierName Supplier name
+     * @param date Date in yyyy-MM-dd format
+     * @return Sum of the ledger entries dated on or before the date
+     */
+    double getSupplierBalanceAsOf(String supplierName, String date);
+
     /**
      * Get supplier invoice balance details for PDF generation
      * @param supplierName Supplier name
@@ -293,6 +329,17 @@ public interface db {
      */
     List<Object[]> getSupplierLedgerByDateRange(String supplierName, String startDate, String endDate);
 
+    /**
+     * Get one page of a supplier ledger, for keyset pagination
+     * @param supplierName Supplier name
+     * @param startDate Start date, or null for no lower bound
+     * @param endDate End date, or null for no upper bound
+     * @param afterId transaction_id of the last row of the previous page, 0 for the first page
+     * @param limit Maximum number of rows
+     * @return Up to limit records [date, type, amount, description, balance_after, reference, transaction_id]
+     */
+    List<Object[]> getSupplierLedgerPage(String supplierName, String startDate, String endDate, long afterId, int limit);
+
     // --------------------------
     // Customer Update Operations
     // --------------------------
@@ -368,6 +415,17 @@ public interface db {
      */
     List<Object[]> getCustomerLedgerByDateRange(String customerName, String startDate, String endDate);
 
+    /**
+     * Get one page of a customer ledger, for keyset pagination
+     * @param customerName Customer name
+     * @param startDate Start date, or null for no lower bound
+     * @param endDate End date, or null for no upper bound
+     * @param afterId transaction_id of the last row of the previous page, 0 for the first page
+     * @param limit Maximum number of rows
+     * @return Up to limit records [date, type, amount, description, balance_after, reference, transaction_id]
+     */
+    List<Object[]> getCustomerLedgerPage(String customerName, String startDate, String endDate, long afterId, int limit);
+
     // --------------------------
     // Unit Operations
     // --------------------------
@@ -392,6 +450,18 @@ public interface db {
     // Raw Stock Operations
     // --------------------------
     List<Object[]> getAllRawStocks();
+
+    /**
+     * Same rows as {@link #getAllRawStocks()}, column-oriented and unboxed.
+     * @return The table, empty if the query failed
+     */
+    RawStockTable getRawStockTable();
+
+    /**
+     * The rows of {@link #getRawStockTable()} with the given stock ids, e.g. to apply a change.
+     * @return The table, empty if none of them exist or the query failed
+     */
+    RawStockTable getRawStockTable(Collection<Integer> stockIds);
     
     boolean insertRawStock(String name, String category, String brand, String unit, double openingQty, double purchasePrice, double reorderLevel);
     
@@ -401,6 +471,18 @@ public interface db {
     // Production Stock Operations
     // --------------------------
     List<Object[]> getAllProductionStocks();
+
+    /**
+     * Same rows as {@link #getAllProductionStocks()}, column-oriented and unboxed.
+     * @return The table, empty if the query failed
+     */
+    ProductionStockTable getProductionStockTable();
+
+    /**
+     * The rows of {@link #getProductionStockTable()} with the given production ids, e.g. to apply a change.
+     * @return The table, empty if none of them exist or the query failed
+     */
+    ProductionStockTable getProductionStockTable(Collection<Integer> productionIds);
     
     boolean insertProductionStock(String name, String category, String brand, String unit, double openingQty, double salePrice, double reorderLevel);
     
@@ -426,6 +508,11 @@ public interface db {
     List<String> getAllSupplierNames();
     
     int getRawStockIdByName(String rawStockName);
+
+    /**
+     * Raw stock ids for many item names in one query; names not found are left out
+     */
+    Map<String, Integer> getRawStockIdsByName(Collection<String> rawStockNames);
     
     Object[] getSupplierDetails(String supplierName);
     
@@ -483,11 +570,46 @@ public interface db {
     
     int insertProductionInvoiceAndGetId(String productionDate, String notes);
     
-    boolean insertProductionInvoiceItems(int productionInvoiceId, List<Object[]> productionItems);
-    
     double getCurrentProductionStockQuantity(int productionId);
-    
-    boolean insertProductionStockRawUsage(int productionInvoiceId, List<Object[]> rawMaterialsUsed);
+
+    /**
+     * Post a whole production run in one transaction: the invoice, its items, the product stock
+     * increases and the raw material usage, checked against and taken off the raw stock.
+     * @param productionItems {production_id (Integer), quantity_produced (Double)} per product
+     * @param rawMaterialsUsed {raw_stock_id (Integer), quantity_used (Double)} per material,
+     *                         or null/empty to use each product's bill of materials
+     * @return The new production_invoice_id, or -1 if nothing was saved
+     */
+    int postProductionInvoice(String productionDate, String notes,
+                              List<Object[]> productionItems, List<Object[]> rawMaterialsUsed);
+
+    /**
+     * Raw materials for one unit of a product: {raw_stock_id, item_name, quantity_per_unit}
+     */
+    List<Object[]> getBillOfMaterials(int productionId);
+
+    /**
+     * Replace a product's bill of materials.
+     * @param components {raw_stock_id (Integer), quantity_per_unit (Double)} per material; empty clears it
+     */
+    boolean saveBillOfMaterials(int productionId, List<Object[]> components);
+
+    // --------------------------
+    // Production Return Invoice Operations
+    // --------------------------
+    String generateProductionReturnInvoiceNumber();
+
+    List<Object[]> getAllProductionInvoicesForDropdown();
+
+    List<Object[]> getProductionItemsByInvoiceId(int productionInvoiceId);
+
+    int insertProductionReturnInvoiceAndGetId(String returnInvoiceNumber, int originalProductionInvoiceId,
+                                              String returnDate, double totalReturnQuantity,
+                                              double totalReturnAmount, String notes);
+
+    boolean insertProductionReturnInvoiceItems(int returnInvoiceId, List<Object[]> returnItems);
+
+    List<Object[]> getProductionReturnInvoiceItems(int returnInvoiceId);
 
     // --------------------------
     // Production Stock Operations  
@@ -496,10 +618,30 @@ public interface db {
     
     List<Object[]> getAllSalesInvoices();
 
+    /**
+     * Get one page of sales invoices, newest first, for keyset pagination
+     * @param fromDate Start date, or null for no lower bound
+     * @param toDate End date, or null for no upper bound
+     * @param customerName Part of the customer name, or null for all customers
+     * @param afterId sales_invoice_id of the last row of the previous page, 0 for the first page
+     * @param limit Maximum number of rows
+     * @return Records [number, date, customer, total, discount, paid, sales_invoice_id]
+     */
+    List<Object[]> getSalesInvoicesPage(String fromDate, String toDate, String customerName, long afterId, int limit);
+
     // --------------------------
     // Sales Invoice Operations
     // --------------------------
     String generateSalesInvoiceNumber();
+
+    /**
+     * Get the number a document was stored under. The generate*Number methods only
+     * preview the next number; an insert takes the next free one when it runs, which
+     * differs when another terminal saved a document in between
+     * @param previewedNumber The number the form showed and passed to the insert
+     * @return The stored number, e.g. to print the invoice under
+     */
+    String getAssignedInvoiceNumber(String previewedNumber);
     
     List<Object[]> getAllCustomersForDropdown();
     
@@ -519,8 +661,6 @@ public interface db {
     int insertSalesInvoiceAndGetId(String invoiceNumber, int customerId, String salesDate, 
                                   double totalAmount, double discountAmount, double paidAmount);
     
-    boolean insertSalesInvoiceItems(int salesInvoiceId, List<Object[]> items);
-    
     boolean insertSalesInvoice(String invoiceNumber, int customerId, String salesDate, 
                               double totalAmount, double discountAmount, double paidAmount, 
                               List<Object[]> items);
@@ -596,6 +736,28 @@ public interface db {
     
     List<Object[]> getAllEmployeeLoans();
 
+    List<Object[]> getEmployeeLoansByDateRange(String startDate, String endDate);
+
+    List<Object[]> getLoansByEmployee(String employeeName);
+
+    boolean insertEmployeeLoan(int employeeId, double loanAmount, String loanDate, String dueDate, String description);
+
+    boolean updateLoanStatus(int loanId, String status, double remainingAmount);
+
+    boolean insertAdvanceSalary(int employeeId, double amount, String advanceDate, String description);
+
+    List<Object[]> getAllAdvanceSalaries();
+
+    List<Object[]> getSalaryReportByDateRange(String startDate, String endDate);
+
+    // --------------------------
+    // Contract Employee Operations
+    // --------------------------
+    boolean insertContractEmployee(String name, String phone, String cnic, String address, String remarks, String task,
+                                   int numTasks, double costPerTask, int totalTasksDone, String date);
+
+    List<Object[]> getContractEmployeeRecords(LocalDate dateFrom, LocalDate dateTo, String timeFrom, String timeTo);
+
     // --------------------------
     // Designation Operations
     // --------------------------
@@ -633,6 +795,17 @@ double getCashBalance();
 boolean updateBankBalance(double newBalance);  // TODO: remove
 
 List<Object[]> getViewData(String viewName, Map<String, String> filters);
+
+    /**
+     * Get one page of a book view in invoice id order, for keyset pagination
+     * @param viewName One of the View_*_Book views
+     * @param filters Same filters as getViewData
+     * @param afterId Last invoice id of the previous page, 0 for the first page
+     * @param limit Maximum number of invoices in the page
+     * @param onePerInvoice true for one row per invoice, false for all item rows of each invoice
+     * @return The view rows, all columns, ordered by invoice id
+     */
+    List<Object[]> getViewDataPage(String viewName, Map<String, String> filters, long afterId, int limit, boolean onePerInvoice);
 List<Object[]> getInvoiceItemsByID(Integer invoiceID);
  List<Object[]> getAllRawStock();
     List<Object[]> getAllProductionStock();
@@ -640,24 +813,55 @@ List<Object[]> getInvoiceItemsByID(Integer invoiceID);
     /// ///                   reports Methods
     ///////////////////////////////////////////////////////////////////////////////
     List<Object[]> getPurchaseReportList(Date fromDate, Date toDate);  // TODO: remove
-    ResultSet getPurchaseReport(Date fromDate, Date toDate, String reportType); //checked by Umer Ghafoor
-    ResultSet getSalesReport(Date fromDate, Date toDate, String reportType); //checked by Umer Ghafoor
-    ResultSet getReturnPurchaseReport(Date fromDate, Date toDate, String reportType);//checked by Umer Ghafoor
-    ResultSet getReturnSalesReport(Date fromDate, Date toDate, String reportType);//checked by Umer Ghafoor
-    ResultSet getBankTransferReport(Date fromDate, Date toDate);
-    ResultSet getProfitReport(Date fromDate, Date toDate);
-    ResultSet getSummaryReport(Date fromDate, Date toDate);
-    ResultSet getBalanceSheet(); // Checked by Sani
     Object[] getBalanceSheetData(); // Checked by Sani
-    ResultSet getCustomersReport();
-    ResultSet getSuppliersReport();
-    ResultSet getAreaWiseReport();
-    ResultSet getAreaWiseReport(String partyType, String areaType, String areaValue);
-    ResultSet getBrandSalesReport(Date fromDate, Date toDate);
-    ResultSet getBrandProfitReport(Date fromDate, Date toDate);  // TODO: remove
-    ResultSet getCustomerSalesReport(int customerId, Date fromDate, Date toDate);  // TODO: remove
-    ResultSet getSupplierSalesReport(int supplierId, Date fromDate, Date toDate);  // TODO: remove
-    ResultSet getAttendanceReport(int employeeId, Date fromDate, Date toDate);  // TODO: remove
+
+    /**
+     * Run a report and hand its rows to the consumer one at a time, on the
+     * calling thread, reading the next row only after the consumer returns.
+     * The statement runs on a pooled reader and is closed before this returns,
+     * also when the consumer stops early or the query fails.
+     * @param spec Which report, e.g. ReportSpec.sales(from, to, "Brand-wise Report")
+     * @param consumer Receives the column labels, then each row
+     * @return The number of rows handed to the consumer
+     * @throws SQLException If the query fails
+     */
+    <T> int streamReport(ReportSpec<T> spec, RowConsumer<? super T> consumer) throws SQLException;
+
+    /**
+     * Full-text search over customers, suppliers, products, raw stock and
+     * transaction descriptions; every word of the text is matched as a prefix.
+     * @param text What the user typed
+     * @param limit Maximum number of hits, best first; 0 or less for all of them
+     * @param kinds Which sources to search; none means all
+     * @return The hits, empty if the text has no words or the search failed
+     */
+    List<SearchIndex.Hit> search(String text, int limit, SearchIndex.Kind... kinds);
+
+    /**
+     * Recompute the daily sales, purchase and return totals the summary,
+     * profit, brand and customer sales reports read, from the invoices.
+     * The triggers keep them current; this is for after a manual edit.
+     * @return true if rebuilt, false if it failed and the old totals were kept
+     */
+    boolean rebuildRollups();
+
+    /**
+     * How sales, production use and returns are costed from the stock's cost layers
+     */
+    StockCosting.Method getCostingMethod();
+
+    /**
+     * Switch between FIFO and moving weighted average costing. Switching to FIFO
+     * revalues the stock on hand at its open cost layers.
+     */
+    boolean setCostingMethod(StockCosting.Method method);
+
+    /**
+     * Replace all cost layers with one opening layer per item at its unit cost,
+     * e.g. after stock was loaded or edited outside the app.
+     * @return true if rebuilt, false if it failed and the old layers were kept
+     */
+    boolean rebuildCostLayers();
 
 }
 
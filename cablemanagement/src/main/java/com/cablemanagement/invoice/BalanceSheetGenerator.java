@@ -14,11 +14,11 @@ import java.time.format.DateTimeFormatter;
  */
 public class BalanceSheetGenerator {
     
-    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.BLACK);
+    private static final Font TITLE_FONT = PdfResources.TITLE_FONT;
     private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14, BaseColor.BLACK);
-    private static final Font SECTION_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12, BaseColor.BLACK);
-    private static final Font NORMAL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10, BaseColor.BLACK);
-    private static final Font BOLD_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK);
+    private static final Font SECTION_FONT = PdfResources.HEADER_FONT;
+    private static final Font NORMAL_FONT = PdfResources.REGULAR_FONT;
+    private static final Font BOLD_FONT = PdfResources.BOLD_FONT;
     
     /**
      * Generate Balance Sheet PDF
@@ -56,20 +56,20 @@ public class BalanceSheetGenerator {
             document.open();
             
             // Add title
-            Paragraph title = new Paragraph("BALANCE SHEET", TITLE_FONT);
+            Paragraph title = PdfResources.paragraph("BALANCE SHEET", TITLE_FONT);
             title.setAlignment(Element.ALIGN_CENTER);
             title.setSpacingAfter(10);
             document.add(title);
             
             // Add company name
-            Paragraph companyName = new Paragraph("Cable Management System", HEADER_FONT);
+            Paragraph companyName = PdfResources.paragraph("Cable Management System", HEADER_FONT);
             companyName.setAlignment(Element.ALIGN_CENTER);
             companyName.setSpacingAfter(5);
             document.add(companyName);
             
             // Add date
             String currentDate = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd MMMM yyyy"));
-            Paragraph asOfDate = new Paragraph("As of " + currentDate, NORMAL_FONT);
+            Paragraph asOfDate = PdfResources.paragraph("As of " + currentDate, NORMAL_FONT);
             asOfDate.setAlignment(Element.ALIGN_CENTER);
             asOfDate.setSpacingAfter(20);
             document.add(asOfDate);
@@ -143,7 +143,7 @@ public class BalanceSheetGenerator {
      * Add a section header to the table
      */
     private static void addSectionHeader(PdfPTable table, String sectionName) {
-        PdfPCell headerCell = new PdfPCell(new Phrase(sectionName, SECTION_FONT));
+        PdfPCell headerCell = new PdfPCell(PdfResources.phrase(sectionName, SECTION_FONT));
         headerCell.setColspan(2);
         headerCell.setBorder(Rectangle.NO_BORDER);
         headerCell.setPaddingTop(10);
@@ -159,13 +159,13 @@ public class BalanceSheetGenerator {
         Font labelFont = isBold ? BOLD_FONT : NORMAL_FONT;
         Font amountFont = isBold ? BOLD_FONT : NORMAL_FONT;
         
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, labelFont));
+        PdfPCell labelCell = new PdfPCell(PdfResources.phrase(label, labelFont));
         labelCell.setBorder(Rectangle.NO_BORDER);
         labelCell.setPaddingTop(3);
         labelCell.setPaddingBottom(3);
         table.addCell(labelCell);
         
-        PdfPCell amountCell = new PdfPCell(new Phrase(amount, amountFont));
+        PdfPCell amountCell = new PdfPCell(PdfResources.phrase(amount, amountFont));
         amountCell.setBorder(Rectangle.NO_BORDER);
         amountCell.setPaddingTop(3);
         amountCell.setPaddingBottom(3);
@@ -177,7 +177,7 @@ public class BalanceSheetGenerator {
      * Add an empty row for spacing
      */
     private static void addEmptyRow(PdfPTable table) {
-        PdfPCell emptyCell = new PdfPCell(new Phrase(" ", NORMAL_FONT));
+        PdfPCell emptyCell = new PdfPCell(PdfResources.phrase(" ", NORMAL_FONT));
         emptyCell.setColspan(2);
         emptyCell.setBorder(Rectangle.NO_BORDER);
         emptyCell.setFixedHeight(8);
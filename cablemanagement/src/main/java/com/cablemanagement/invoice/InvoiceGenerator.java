@@ -2,7 +2,6 @@ package com.cablemanagement.invoice;
 
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
-import com.itextpdf.text.pdf.draw.DottedLineSeparator;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -14,8 +13,6 @@ import javax.print.attribute.PrintRequestAttributeSet;
 import javax.print.attribute.standard.Copies;
 import javax.print.attribute.standard.MediaSizeName;
 import javax.print.attribute.standard.OrientationRequested;
-import javax.print.event.PrintJobEvent;
-import javax.print.event.PrintJobListener;
 
 /**
  * Footer event handler to add the footer at the bottom of every page
@@ -24,12 +21,9 @@ class FooterEvent extends PdfPageEventHelper {
     @Override
     public void onEndPage(PdfWriter writer, Document document) {
         try {
-            // Create the font for the footer
-            Font footerFont = FontFactory.getFont(FontFactory.HELVETICA, 8, BaseColor.GRAY);
-            
             // Create a footer phrase with heart symbol and CODOC attribution
             // Using a simple ASCII heart "<3" that will display in any font
-            Phrase footer = new Phrase("Made with <3 by CODOC", footerFont);
+            Phrase footer = new Phrase("Made with <3 by CODOC", PdfResources.FOOTER_FONT);
             
             // Get the direct content
             PdfContentByte cb = writer.getDirectContent();
@@ -88,62 +82,11 @@ public class InvoiceGenerator {
             document.open();
 
             // Fonts
-            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.BLACK);
-            Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12, BaseColor.BLACK);
-            Font regularFont = FontFactory.getFont(FontFactory.HELVETICA, 10, BaseColor.BLACK);
-
-            // Logo (Optional - only add if logo file exists)
-            try {
-                // Try multiple possible logo locations
-                String[] logoPaths = {
-                    "src/main/resources/LOGO.jpg",
-                    "CableManagement/cablemanagement/src/main/resources/LOGO.jpg",
-                    "CableManagement/cablemanagement/LOGO.jpg",
-                    InvoiceGenerator.class.getResource("/LOGO.jpg").getPath()
-                };
-                
-                boolean logoFound = false;
-                for (String logoPath : logoPaths) {
-                    try {
-                        File logoFile = new File(logoPath);
-                        if (logoFile.exists() && logoFile.length() > 0) {
-                            Image logo = Image.getInstance(logoPath);
-                            logo.scaleToFit(100, 100);
-                            logo.setAlignment(Element.ALIGN_CENTER);
-                            document.add(logo);
-                            System.out.println("Logo loaded successfully from: " + logoPath);
-                            logoFound = true;
-                            break;
-                        }
-                    } catch (Exception e) {
-                        // Continue to next path if this one fails
-                        continue;
-                    }
-                }
-                
-                if (!logoFound) {
-                    System.out.println("Logo file not found in any of the expected locations - proceeding without logo");
-                }
-            } catch (Exception logoEx) {
-                System.out.println("Could not load logo: " + logoEx.getMessage() + " - proceeding without logo");
-            }
+            Font headerFont = PdfResources.HEADER_FONT;
+            Font regularFont = PdfResources.REGULAR_FONT;
 
-            // Header
-            Paragraph header = new Paragraph("HASEEB WIRE & CABLES", titleFont);
-            header.setAlignment(Element.ALIGN_CENTER);
-            document.add(header);
-
-            // Dynamic invoice title based on invoice type
-            String invoiceTitle = getInvoiceTitle(data);
-            Paragraph subHeader = new Paragraph(invoiceTitle, headerFont);
-            subHeader.setAlignment(Element.ALIGN_CENTER);
-            document.add(subHeader);
-
-            Paragraph contact = new Paragraph("Khalil Abad, Amangarh, Nowshera\n0333-4100520 / 0333-9260587\n", regularFont);
-            contact.setAlignment(Element.ALIGN_CENTER);
-            document.add(contact);
-            document.add(new Chunk(new DottedLineSeparator()));
-            document.add(Chunk.NEWLINE);
+            // Logo, company header and dynamic invoice title based on invoice type
+            PdfResources.INVOICE_LETTERHEAD.addTo(document, getInvoiceTitle(data));
 
             // Customer/Supplier Info & Invoice Info
             PdfPTable infoTable = new PdfPTable(2);
@@ -189,7 +132,7 @@ public class InvoiceGenerator {
                 }
             }
             
-            PdfPCell entityCell = new PdfPCell(new Phrase(entityInfo.toString(), regularFont));
+            PdfPCell entityCell = new PdfPCell(PdfResources.phrase(entityInfo.toString(), regularFont));
             entityCell.setBorder(Rectangle.NO_BORDER);
 
             // Build invoice cell content based on type
@@ -201,7 +144,7 @@ public class InvoiceGenerator {
             }
             invoiceCellContent.append("Operator: ").append(data.getOperator());
 
-            PdfPCell invoiceCell = new PdfPCell(new Phrase(invoiceCellContent.toString(), regularFont));
+            PdfPCell invoiceCell = new PdfPCell(PdfResources.phrase(invoiceCellContent.toString(), regularFont));
             invoiceCell.setBorder(Rectangle.NO_BORDER);
 
             infoTable.addCell(entityCell);
@@ -237,7 +180,7 @@ public class InvoiceGenerator {
             }
 
             for (String h : headers) {
-                PdfPCell cell = new PdfPCell(new Phrase(h, headerFont));
+                PdfPCell cell = new PdfPCell(PdfResources.phrase(h, headerFont));
                 cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
                 cell.setHorizontalAlignment(Element.ALIGN_CENTER);
                 table.addCell(cell);
@@ -255,24 +198,24 @@ public class InvoiceGenerator {
                 grossTotal += amount; // Add gross amount (before item discount)
                 total += net;         // Add net amount (after item discount)
 
-                table.addCell(new Phrase(String.valueOf(i + 1), regularFont));
-                table.addCell(new Phrase(item.getName(), regularFont));
-                table.addCell(new Phrase(String.valueOf(item.getQuantity()), regularFont));
+                table.addCell(PdfResources.phrase(String.valueOf(i + 1), regularFont));
+                table.addCell(PdfResources.phrase(item.getName(), regularFont));
+                table.addCell(PdfResources.phrase(String.valueOf(item.getQuantity()), regularFont));
                 
                 if (isProductionInvoice) {
                     // Production invoices only show item number, name, and quantity
                     // No price or monetary columns
                 } else {
                     // For purchase and sales invoices, add monetary columns
-                    table.addCell(new Phrase(String.format("%.2f", item.getUnitPrice()), regularFont));
-                    table.addCell(new Phrase(String.format("%.2f", item.getUnitPrice() * item.getQuantity()), regularFont));
+                    table.addCell(PdfResources.phrase(String.format("%.2f", item.getUnitPrice()), regularFont));
+                    table.addCell(PdfResources.phrase(String.format("%.2f", item.getUnitPrice() * item.getQuantity()), regularFont));
                     
                     if (!isPurchaseInvoice) {
                         // Only add discount column for non-purchase invoices
-                        table.addCell(new Phrase(String.format("%.1f%%", item.getDiscountPercent()), regularFont));
+                        table.addCell(PdfResources.phrase(String.format("%.1f%%", item.getDiscountPercent()), regularFont));
                     }
                     
-                    table.addCell(new Phrase(String.format("%.2f", net), regularFont));
+                    table.addCell(PdfResources.phrase(String.format("%.2f", net), regularFont));
                 }
             }
 
@@ -315,7 +258,7 @@ public class InvoiceGenerator {
             PdfPTable summaryHeadingTable = new PdfPTable(1);
             summaryHeadingTable.setWidthPercentage(100);
 
-            PdfPCell summaryHeading = new PdfPCell(new Phrase("Invoice Summary", headerFont));
+            PdfPCell summaryHeading = new PdfPCell(PdfResources.phrase("Invoice Summary", headerFont));
             summaryHeading.setBackgroundColor(BaseColor.LIGHT_GRAY);
             summaryHeading.setHorizontalAlignment(Element.ALIGN_CENTER);
             summaryHeading.setPadding(5);
@@ -338,8 +281,8 @@ public class InvoiceGenerator {
                 Object totalAmountObj = data.hasMetadata("totalAmount") ? data.getMetadata("totalAmount") : total;
                 double totalAmount = totalAmountObj instanceof Number ? ((Number)totalAmountObj).doubleValue() : total;
                 
-                summary.addCell(new Phrase("Total Usage Amount:", regularFont));
-                summary.addCell(new Phrase(String.format("%.2f", totalAmount), regularFont));
+                summary.addCell(PdfResources.phrase("Total Usage Amount:", regularFont));
+                summary.addCell(PdfResources.phrase(String.format("%.2f", totalAmount), regularFont));
             } else if (data.getType().toLowerCase().equals(InvoiceData.TYPE_PRODUCTION) ||
                       data.getType().toLowerCase().equals(InvoiceData.TYPE_PRODUCTION_RETURN)) {
                 // Simplified summary table for Production Invoices
@@ -349,18 +292,18 @@ public class InvoiceGenerator {
                 summary.setSpacingBefore(10f);
                 
                 // Add total items count for production invoices
-                summary.addCell(new Phrase("Total Items:", regularFont));
-                summary.addCell(new Phrase(String.valueOf(items.size()), regularFont));
+                summary.addCell(PdfResources.phrase("Total Items:", regularFont));
+                summary.addCell(PdfResources.phrase(String.valueOf(items.size()), regularFont));
                 
                 // Add total quantity produced
                 double totalQuantity = items.stream().mapToDouble(Item::getQuantity).sum();
-                summary.addCell(new Phrase("Total Quantity Produced:", regularFont));
-                summary.addCell(new Phrase(String.format("%.0f", totalQuantity), regularFont));
+                summary.addCell(PdfResources.phrase("Total Quantity Produced:", regularFont));
+                summary.addCell(PdfResources.phrase(String.format("%.0f", totalQuantity), regularFont));
                 
                 // Add notes if available
                 if (data.hasMetadata("notes") && !data.getMetadata("notes").toString().trim().isEmpty()) {
-                    summary.addCell(new Phrase("Notes:", regularFont));
-                    summary.addCell(new Phrase(data.getMetadata("notes").toString(), regularFont));
+                    summary.addCell(PdfResources.phrase("Notes:", regularFont));
+                    summary.addCell(PdfResources.phrase(data.getMetadata("notes").toString(), regularFont));
                 }
             } else {
                 // Regular summary table for purchase/sales invoices in single column layout
@@ -373,24 +316,24 @@ public class InvoiceGenerator {
                 // total balance, other discount, paid, net balance
                 
                 // Bill (gross total before ANY discounts)
-                summary.addCell(new Phrase("Bill:", regularFont));
-                summary.addCell(new Phrase(String.format("%.2f", grossTotal), regularFont));
+                summary.addCell(PdfResources.phrase("Bill:", regularFont));
+                summary.addCell(PdfResources.phrase(String.format("%.2f", grossTotal), regularFont));
                 
                 // Discount (total of both item-level and invoice-level discounts)
-                summary.addCell(new Phrase("Discount:", regularFont));
-                summary.addCell(new Phrase(String.format("%.2f", totalDiscount), regularFont));
+                summary.addCell(PdfResources.phrase("Discount:", regularFont));
+                summary.addCell(PdfResources.phrase(String.format("%.2f", totalDiscount), regularFont));
                 
                 // Current Net Bill (after ALL discounts)
-                summary.addCell(new Phrase("Current Net Bill:", regularFont));
-                summary.addCell(new Phrase(String.format("%.2f", netInvoiceAmount), regularFont));
+                summary.addCell(PdfResources.phrase("Current Net Bill:", regularFont));
+                summary.addCell(PdfResources.phrase(String.format("%.2f", netInvoiceAmount), regularFont));
                 
                 // Previous Balance
-                summary.addCell(new Phrase("Previous Balance:", regularFont));
-                summary.addCell(new Phrase(String.format("%.2f", data.getPreviousBalance()), regularFont));
+                summary.addCell(PdfResources.phrase("Previous Balance:", regularFont));
+                summary.addCell(PdfResources.phrase(String.format("%.2f", data.getPreviousBalance()), regularFont));
                 
                 // Total Balance
-                summary.addCell(new Phrase("Total Balance:", regularFont));
-                summary.addCell(new Phrase(String.format("%.2f", totalBalance), regularFont));
+                summary.addCell(PdfResources.phrase("Total Balance:", regularFont));
+                summary.addCell(PdfResources.phrase(String.format("%.2f", totalBalance), regularFont));
                 
                 // Other discount (if available in metadata)
                 if (data.hasMetadata("otherDiscount")) {
@@ -402,22 +345,22 @@ public class InvoiceGenerator {
                     }
                     
                     if (otherDiscount > 0) {
-                        summary.addCell(new Phrase("Other Discount:", regularFont));
-                        summary.addCell(new Phrase(String.format("%.2f", otherDiscount), regularFont));
+                        summary.addCell(PdfResources.phrase("Other Discount:", regularFont));
+                        summary.addCell(PdfResources.phrase(String.format("%.2f", otherDiscount), regularFont));
                     }
                 }
                 
                 // Paid amount
-                summary.addCell(new Phrase("Paid:", regularFont));
+                summary.addCell(PdfResources.phrase("Paid:", regularFont));
                 if (paidAmount > 0) {
-                    summary.addCell(new Phrase(String.format("%.2f", paidAmount), regularFont));
+                    summary.addCell(PdfResources.phrase(String.format("%.2f", paidAmount), regularFont));
                 } else {
-                    summary.addCell(new Phrase("Unpaid", regularFont));
+                    summary.addCell(PdfResources.phrase("Unpaid", regularFont));
                 }
                 
                 // Net Balance
-                summary.addCell(new Phrase("Net Balance:", regularFont));
-                summary.addCell(new Phrase(String.format("%.2f", netBalance), regularFont));
+                summary.addCell(PdfResources.phrase("Net Balance:", regularFont));
+                summary.addCell(PdfResources.phrase(String.format("%.2f", netBalance), regularFont));
             }
             
             document.add(summary);
@@ -427,7 +370,7 @@ public class InvoiceGenerator {
             PdfPTable signatureTable = new PdfPTable(2);
             signatureTable.setWidthPercentage(100);
 
-            PdfPCell leftSig = new PdfPCell(new Phrase("Signature: ____________________", regularFont));
+            PdfPCell leftSig = new PdfPCell(PdfResources.phrase("Signature: ____________________", regularFont));
             leftSig.setBorder(Rectangle.NO_BORDER);
             leftSig.setHorizontalAlignment(Element.ALIGN_LEFT);
 
@@ -442,7 +385,7 @@ public class InvoiceGenerator {
                 rightSignatureLabel = "Customer Signature: ____________________";
             }
             
-            PdfPCell rightSig = new PdfPCell(new Phrase(rightSignatureLabel, regularFont));
+            PdfPCell rightSig = new PdfPCell(PdfResources.phrase(rightSignatureLabel, regularFont));
             rightSig.setBorder(Rectangle.NO_BORDER);
             rightSig.setHorizontalAlignment(Element.ALIGN_RIGHT);
 
@@ -452,7 +395,7 @@ public class InvoiceGenerator {
             document.add(Chunk.NEWLINE);
             document.add(Chunk.NEWLINE);
 
-            Paragraph thankYou = new Paragraph("THANK YOU!", headerFont);
+            Paragraph thankYou = PdfResources.paragraph("THANK YOU!", headerFont);
             thankYou.setAlignment(Element.ALIGN_CENTER);
             document.add(thankYou);
 
@@ -730,48 +673,21 @@ public class InvoiceGenerator {
             
             // Create document with proper PDF flavor
             DocFlavor flavor = supportsPDF ? DocFlavor.INPUT_STREAM.PDF : DocFlavor.INPUT_STREAM.AUTOSENSE;
-            FileInputStream fis = new FileInputStream(file);
-            Doc document = new SimpleDoc(fis, flavor, null);
-            
-            // Print the document with print event listener
-            PrintJobListener printJobListener = new PrintJobListener() {
-                @Override
-                public void printDataTransferCompleted(PrintJobEvent pje) {
-                    System.out.println("Print data transfer completed successfully");
-                }
-                
-                @Override
-                public void printJobCompleted(PrintJobEvent pje) {
-                    System.out.println("Print job completed successfully");
-                }
-                
-                @Override
-                public void printJobFailed(PrintJobEvent pje) {
-                    System.err.println("Print job failed");
-                }
-                
-                @Override
-                public void printJobCanceled(PrintJobEvent pje) {
-                    System.out.println("Print job was canceled");
-                }
-                
-                @Override
-                public void printJobNoMoreEvents(PrintJobEvent pje) {
-                    System.out.println("No more print events");
-                }
-                
-                @Override
-                public void printJobRequiresAttention(PrintJobEvent pje) {
-                    System.out.println("Print job requires attention");
-                }
-            };
-            
-            printJob.addPrintJobListener(printJobListener);
-            printJob.print(document, printAttributes);
-            
-            // Wait a moment for the print job to be processed
-            Thread.sleep(1000);
-            
+            PrintJobWaiter waiter = new PrintJobWaiter();
+            PrintJobWaiter.Outcome outcome;
+            try (FileInputStream fis = new FileInputStream(file)) {
+                Doc document = new SimpleDoc(fis, flavor, null);
+                printJob.addPrintJobListener(waiter);
+                printJob.print(document, printAttributes);
+
+                // Wait for the printer service to report the job done
+                outcome = waiter.await(PrintSpooler.DEFAULT_PRINT_TIMEOUT_MILLIS);
+            }
+
+            if (outcome != PrintJobWaiter.Outcome.COMPLETED) {
+                System.err.println("Print job on '" + printerName + "' ended as " + outcome + ": " + filename);
+                return false;
+            }
             System.out.println("Document sent to printer '" + printerName + "': " + filename);
             return true;
             
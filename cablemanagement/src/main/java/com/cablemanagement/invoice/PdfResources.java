@@ -0,0 +1,211 @@
+package com.cablemanagement.invoice;
+
+import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.DefaultSplitCharacter;
+import com.itextpdf.text.pdf.PdfChunk;
+import com.itextpdf.text.pdf.draw.DottedLineSeparator;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fonts, logos and letterheads shared by every PDF the app writes.
+ *
+ * Everything here is built once and only read afterwards, so the invoice
+ * generators can use it from several threads at once (the print spooler
+ * renders in parallel). Logos are looked up and decoded on first use; each
+ * document gets a copy of the decoded image, which iText embeds once per
+ * document as an image XObject.
+ *
+ * Text should go through {@link #phrase} and {@link #paragraph}, which set
+ * {@link #SPLIT_CHARACTER} on it.
+ */
+final class PdfResources {
+
+    static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.BLACK);
+    static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12, BaseColor.BLACK);
+    static final Font REGULAR_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10, BaseColor.BLACK);
+    static final Font BOLD_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK);
+    static final Font FOOTER_FONT = FontFactory.getFont(FontFactory.HELVETICA, 8, BaseColor.GRAY);
+
+    static final String COMPANY_NAME = "HASEEB WIRE & CABLES";
+    static final String COMPANY_CONTACT = "Khalil Abad, Amangarh, Nowshera\n0333-4100520 / 0333-9260587\n";
+
+    /**
+     * Line breaking as iText does it by default, without its cost.
+     * DefaultSplitCharacter copies the whole line and searches it for a date
+     * for every character it is asked about, so laying out a line holding a
+     * '-' (an item name, a phone number, a date) takes time quadratic in its
+     * length. This searches each line once and answers the same way.
+     */
+    static final SplitCharacter SPLIT_CHARACTER = new LineSplitCharacter();
+
+    /** The letterhead of the general invoice layout. */
+    static final Letterhead INVOICE_LETTERHEAD = new Letterhead(100, 0, 0,
+        "/LOGO.jpg",
+        "src/main/resources/LOGO.jpg",
+        "CableManagement/cablemanagement/src/main/resources/LOGO.jpg",
+        "CableManagement/cablemanagement/LOGO.jpg");
+
+    /** The letterhead of the sales and sales return layouts. */
+    static final Letterhead SALES_LETTERHEAD = new Letterhead(80, 5, 10,
+        "/com/cablemanagement/invoice/logo.png",
+        "CableManagement/cablemanagement/src/main/java/com/cablemanagement/invoice/logo.png");
+
+    private static final ConcurrentHashMap<String, Optional<Image>> IMAGES = new ConcurrentHashMap<>();
+
+    private PdfResources() {}
+
+    static Phrase phrase(String text, Font font) {
+        Phrase phrase = new Phrase(text, font);
+        for (Chunk chunk : phrase.getChunks()) {
+            chunk.setSplitCharacter(SPLIT_CHARACTER);
+        }
+        return phrase;
+    }
+
+    static Paragraph paragraph(String text, Font font) {
+        Paragraph paragraph = new Paragraph(text, font);
+        for (Chunk chunk : paragraph.getChunks()) {
+            chunk.setSplitCharacter(SPLIT_CHARACTER);
+        }
+        return paragraph;
+    }
+
+    /**
+     * A copy of the image at the first location that has one, decoded once.
+     * @param locations Class path resources (starting with '/') or files
+     * @return The image, or null if none of the locations has one
+     */
+    static Image image(String... locations) {
+        Optional<Image> image = IMAGES.computeIfAbsent(String.join("|", locations), key -> load(locations));
+        return image.map(Image::getInstance).orElse(null);
+    }
+
+    private static Optional<Image> load(String[] locations) {
+        for (String location : locations) {
+            try {
+                if (location.startsWith("/")) {
+                    try (InputStream in = PdfResources.class.getResourceAsStream(location)) {
+                        if (in != null) {
+                            System.out.println("Logo loaded from class path: " + location);
+                            return Optional.of(Image.getInstance(in.readAllBytes()));
+                        }
+                    }
+                } else {
+                    File file = new File(location);
+                    if (file.exists() && file.length() > 0) {
+                        System.out.println("Logo loaded successfully from: " + location);
+                        return Optional.of(Image.getInstance(location));
+                    }
+                }
+            } catch (Exception e) {
+                // Continue to next location if this one fails
+            }
+        }
+        System.out.println("Logo file not found in any of the expected locations - proceeding without logo");
+        return Optional.empty();
+    }
+
+    /**
+     * The block at the top of an invoice: logo, company name, document title,
+     * address and a dotted rule. Only the title changes between documents.
+     */
+    static final class Letterhead {
+        private final float logoSize;
+        private final float titleSpacing;
+        private final float contactSpacing;
+        private final String[] logoLocations;
+
+        Letterhead(float logoSize, float titleSpacing, float contactSpacing, String... logoLocations) {
+            this.logoSize = logoSize;
+            this.titleSpacing = titleSpacing;
+            this.contactSpacing = contactSpacing;
+            this.logoLocations = logoLocations;
+        }
+
+        void addTo(Document document, String title) throws DocumentException {
+            Image logo = image(logoLocations);
+            if (logo != null) {
+                logo.scaleToFit(logoSize, logoSize);
+                logo.setAlignment(Element.ALIGN_CENTER);
+                document.add(logo);
+            }
+
+            Paragraph header = paragraph(COMPANY_NAME, TITLE_FONT);
+            header.setAlignment(Element.ALIGN_CENTER);
+            document.add(header);
+
+            Paragraph subHeader = paragraph(title, HEADER_FONT);
+            subHeader.setAlignment(Element.ALIGN_CENTER);
+            subHeader.setSpacingAfter(titleSpacing);
+            document.add(subHeader);
+
+            Paragraph contact = paragraph(COMPANY_CONTACT, REGULAR_FONT);
+            contact.setAlignment(Element.ALIGN_CENTER);
+            contact.setSpacingAfter(contactSpacing);
+            document.add(contact);
+
+            document.add(new Chunk(new DottedLineSeparator()));
+            document.add(Chunk.NEWLINE);
+        }
+    }
+
+    private static final class LineSplitCharacter extends DefaultSplitCharacter {
+        private static final Pattern DATE_PATTERN = Pattern.compile("(\\d{2,4}-\\d{2}-\\d{2,4})");
+
+        // The last line asked about on this thread and that line with its date joined up.
+        // iText passes the same array for every character of a line, so the line is recognised by identity.
+        private final ThreadLocal<char[][]> lastLine = ThreadLocal.withInitial(() -> new char[2][]);
+
+        @Override
+        public boolean isSplitCharacter(int start, int current, int end, char[] cc, PdfChunk[] ck) {
+            char c = getCurrentCharacter(current, joinDate(cc), ck);
+            if (c <= ' ' || c == '-' || c == '\u2010') {
+                return true;
+            }
+            if (c < '\u2002') {
+                return false;
+            }
+            return (c >= '\u2002' && c <= '\u200b')
+                || (c >= '\u2e80' && c < '\ud7a0')
+                || (c >= '\uf900' && c < '\ufb00')
+                || (c >= '\ufe30' && c < '\ufe50')
+                || (c >= '\uff61' && c < '\uffa0');
+        }
+
+        /**
+         * The line with the hyphens of its first date made non-breaking, so
+         * a date is never split across lines.
+         */
+        private char[] joinDate(char[] cc) {
+            char[][] last = lastLine.get();
+            if (last[0] != cc) {
+                last[0] = cc;
+                last[1] = cc;
+                if (hasHyphen(cc)) {
+                    String line = new String(cc);
+                    Matcher matcher = DATE_PATTERN.matcher(line);
+                    if (matcher.find()) {
+                        String date = matcher.group(1);
+                        last[1] = line.replace(date, date.replace('-', '\u2011')).toCharArray();
+                    }
+                }
+            }
+            return last[1];
+        }
+
+        private static boolean hasHyphen(char[] cc) {
+            for (char c : cc) {
+                if (c == '-') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cablemanagement.invoice;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.print.event.PrintJobAdapter;
+import javax.print.event.PrintJobEvent;
+
+/**
+ * Waits for a javax.print job to finish, going by the events its print
+ * service reports rather than a fixed sleep.
+ *
+ * Add it to the DocPrintJob before calling print(). The job counts as done
+ * on the first of completed, failed, canceled or "no more events"; the last
+ * is what most services send once the data has been handed to the spooler.
+ */
+public class PrintJobWaiter extends PrintJobAdapter {
+
+    public enum Outcome { COMPLETED, FAILED, CANCELLED, TIMED_OUT }
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Outcome outcome;
+
+    @Override
+    public void printJobCompleted(PrintJobEvent pje) {
+        finish(Outcome.COMPLETED);
+    }
+
+    @Override
+    public void printJobNoMoreEvents(PrintJobEvent pje) {
+        finish(Outcome.COMPLETED);
+    }
+
+    @Override
+    public void printJobFailed(PrintJobEvent pje) {
+        finish(Outcome.FAILED);
+    }
+
+    @Override
+    public void printJobCanceled(PrintJobEvent pje) {
+        finish(Outcome.CANCELLED);
+    }
+
+    @Override
+    public void printJobRequiresAttention(PrintJobEvent pje) {
+        System.out.println("Print job requires attention");
+    }
+
+    private synchronized void finish(Outcome result) {
+        if (outcome == null) {
+            outcome = result;
+            done.countDown();
+        }
+    }
+
+    /**
+     * Block until the job is done or the timeout passes.
+     * @return How the job ended, TIMED_OUT if the service said nothing in time
+     */
+    public Outcome await(long timeoutMillis) throws InterruptedException {
+        if (!done.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            finish(Outcome.TIMED_OUT);
+        }
+        return outcome;
+    }
+}
@@ -134,11 +134,16 @@ public class PrintManager {
         }
     }
     
+    private static PrintSpooler spooler;
+
     /**
-     * Print multiple invoices in batch
+     * Print multiple invoices in batch on the default printer.
+     * The invoices are queued on a background print spooler and this returns
+     * at once; a Print Queue window shows their progress and lets the user
+     * cancel or retry them.
      * @param invoiceDataList List of invoice data to print
      * @param invoiceType The type of invoices
-     * @return Number of successfully printed invoices
+     * @return Number of invoices queued for printing
      */
     public static int printInvoicesBatch(List<InvoiceData> invoiceDataList, String invoiceType) {
         if (invoiceDataList.isEmpty()) {
@@ -156,38 +161,26 @@ public class PrintManager {
             return 0;
         }
         
-        int successCount = 0;
-        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
-        
-        for (int i = 0; i < invoiceDataList.size(); i++) {
-            InvoiceData invoiceData = invoiceDataList.get(i);
-            
-            try {
-                String filename = TEMP_DIR + File.separator + invoiceType + "_Invoice_" + 
-                                 invoiceData.getInvoiceNumber() + "_" + timestamp + "_" + (i + 1) + ".pdf";
-                
-                if (InvoiceGenerator.generateAndPrint(invoiceData, filename)) {
-                    successCount++;
-                }
-                
-                // Small delay between prints to avoid overwhelming the printer
-                Thread.sleep(500);
-                
-            } catch (Exception e) {
-                System.err.println("Failed to print invoice " + invoiceData.getInvoiceNumber() + ": " + e.getMessage());
-            }
+        PrintSpooler printQueue = getSpooler();
+        if (printQueue == null) {
+            showErrorAlert("No Printer", "No default printer is configured.");
+            return 0;
         }
         
-        if (successCount == invoiceDataList.size()) {
-            showSuccessAlert("Batch Print Successful", 
-                "All " + successCount + " " + invoiceType + " invoices have been sent to the printer.");
-        } else {
-            showErrorAlert("Partial Print Success", 
-                successCount + " out of " + invoiceDataList.size() + " " + invoiceType + 
-                " invoices were printed successfully.");
+        int queued = printQueue.submit(invoiceDataList, invoiceType).size();
+        PrintQueueWindow.show(printQueue);
+        return queued;
+    }
+    
+    /**
+     * The spooler for the default printer, started on first use.
+     * @return The spooler, or null if there is no default printer
+     */
+    private static synchronized PrintSpooler getSpooler() {
+        if (spooler == null) {
+            spooler = PrintSpooler.forDefaultPrinter();
         }
-        
-        return successCount;
+        return spooler;
     }
     
     /**
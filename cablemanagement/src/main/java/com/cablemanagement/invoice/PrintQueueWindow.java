@@ -0,0 +1,156 @@
+package com.cablemanagement.invoice;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A small window listing the jobs of a {@link PrintSpooler}, with their
+ * status, and buttons to cancel or retry them. Only one is open at a time.
+ */
+final class PrintQueueWindow {
+
+    private static Stage openStage;
+
+    private PrintQueueWindow() {}
+
+    /**
+     * Show the queue window for the spooler, or bring it to the front if it is already open.
+     * Must be called on the FX thread.
+     */
+    static void show(PrintSpooler spooler) {
+        if (openStage != null) {
+            openStage.toFront();
+            return;
+        }
+
+        ObservableList<PrintSpooler.Job> rows = FXCollections.observableArrayList(spooler.getJobs());
+        TableView<PrintSpooler.Job> table = new TableView<>(rows);
+        table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        table.setPlaceholder(new Label("No print jobs"));
+
+        TableColumn<PrintSpooler.Job, String> invoiceCol = new TableColumn<>("Invoice");
+        invoiceCol.setCellValueFactory(cell -> new ReadOnlyStringWrapper(
+            cell.getValue().getInvoiceType() + " " + cell.getValue().getInvoiceNumber()));
+        invoiceCol.setPrefWidth(160);
+
+        TableColumn<PrintSpooler.Job, PrintSpooler.Status> statusCol = new TableColumn<>("Status");
+        statusCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getStatus()));
+        statusCol.setPrefWidth(90);
+
+        TableColumn<PrintSpooler.Job, Integer> attemptsCol = new TableColumn<>("Attempts");
+        attemptsCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getAttempts()));
+        attemptsCol.setPrefWidth(70);
+
+        TableColumn<PrintSpooler.Job, String> errorCol = new TableColumn<>("Error");
+        errorCol.setCellValueFactory(cell -> new ReadOnlyStringWrapper(
+            cell.getValue().getError() != null ? cell.getValue().getError() : ""));
+        errorCol.setPrefWidth(260);
+
+        table.getColumns().add(invoiceCol);
+        table.getColumns().add(statusCol);
+        table.getColumns().add(attemptsCol);
+        table.getColumns().add(errorCol);
+
+        Label summary = new Label();
+        Runnable refresh = () -> {
+            rows.setAll(spooler.getJobs());
+            table.refresh();
+            int pending = 0, printed = 0, failed = 0;
+            for (PrintSpooler.Job job : rows) {
+                switch (job.getStatus()) {
+                    case PRINTED: printed++; break;
+                    case FAILED: failed++; break;
+                    case CANCELLED: break;
+                    default: pending++;
+                }
+            }
+            summary.setText(pending + " pending, " + printed + " printed, " + failed + " failed");
+        };
+        refresh.run();
+
+        // Coalesce bursts of status changes from the spooler threads into one refresh
+        AtomicBoolean refreshQueued = new AtomicBoolean();
+        Consumer<PrintSpooler.Job> listener = job -> {
+            if (refreshQueued.compareAndSet(false, true)) {
+                Platform.runLater(() -> {
+                    refreshQueued.set(false);
+                    refresh.run();
+                });
+            }
+        };
+        spooler.addListener(listener);
+
+        Button retryButton = new Button("Retry");
+        retryButton.setOnAction(e -> {
+            // The selected jobs, or every failed one when nothing is selected
+            List<PrintSpooler.Job> selected = new ArrayList<>(table.getSelectionModel().getSelectedItems());
+            for (PrintSpooler.Job job : selected.isEmpty() ? new ArrayList<>(rows) : selected) {
+                if (!selected.isEmpty() || job.getStatus() == PrintSpooler.Status.FAILED) {
+                    job.retry();
+                }
+            }
+        });
+
+        Button cancelButton = new Button("Cancel Selected");
+        cancelButton.setOnAction(e -> {
+            for (PrintSpooler.Job job : new ArrayList<>(table.getSelectionModel().getSelectedItems())) {
+                job.cancel();
+            }
+        });
+
+        Button cancelAllButton = new Button("Cancel All");
+        cancelAllButton.setOnAction(e -> spooler.cancelAll());
+
+        Button clearButton = new Button("Clear Finished");
+        clearButton.setOnAction(e -> {
+            spooler.clearFinished();
+            refresh.run();
+        });
+
+        Stage stage = new Stage();
+        Button closeButton = new Button("Close");
+        closeButton.setOnAction(e -> stage.close());
+
+        HBox buttons = new HBox(10, summary, spacer(), retryButton, cancelButton, cancelAllButton, clearButton, closeButton);
+        buttons.setAlignment(Pos.CENTER_LEFT);
+
+        VBox root = new VBox(10, table, buttons);
+        root.setPadding(new Insets(12));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        stage.setTitle("Print Queue - " + spooler.getPrinter().getName());
+        stage.setScene(new Scene(root, 760, 400));
+        stage.setOnHidden(e -> {
+            spooler.removeListener(listener);
+            openStage = null;
+        });
+        openStage = stage;
+        stage.show();
+    }
+
+    private static HBox spacer() {
+        HBox spacer = new HBox();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        return spacer;
+    }
+}
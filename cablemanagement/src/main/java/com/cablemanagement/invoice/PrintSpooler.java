@@ -0,0 +1,451 @@
+package com.cablemanagement.invoice;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.print.CancelablePrintJob;
+import javax.print.Doc;
+import javax.print.DocFlavor;
+import javax.print.DocPrintJob;
+import javax.print.PrintService;
+import javax.print.PrintServiceLookup;
+import javax.print.SimpleDoc;
+import javax.print.attribute.HashPrintRequestAttributeSet;
+import javax.print.attribute.PrintRequestAttributeSet;
+import javax.print.attribute.standard.Copies;
+import javax.print.attribute.standard.MediaSizeName;
+import javax.print.attribute.standard.OrientationRequested;
+
+/**
+ * Background print queue for one printer.
+ *
+ * Three stages, none of them on the caller's thread:
+ * <ol>
+ *   <li>a dispatcher hands each submitted invoice to a small pool that
+ *       renders the PDFs in parallel;</li>
+ *   <li>jobs then wait in a bounded queue, in the order they were submitted,
+ *       so at most {@code queueCapacity} rendered PDFs sit on disk ahead of
+ *       the printer and rendering pauses when it gets that far ahead;</li>
+ *   <li>a single printer thread sends them one at a time and moves on when
+ *       the print service reports the job done ({@link PrintJobWaiter}),
+ *       not after a fixed sleep.</li>
+ * </ol>
+ * Each job's status is visible through {@link #getJobs()} and reported to
+ * listeners as it changes. Failed and cancelled jobs can be retried.
+ *
+ * The printer is any {@link PrintService}, so a stub service whose jobs fire
+ * the usual events is enough to run the spooler without a real printer.
+ */
+public class PrintSpooler {
+
+    public enum Status { QUEUED, RENDERING, WAITING, PRINTING, PRINTED, FAILED, CANCELLED }
+
+    public static final int DEFAULT_RENDER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    public static final int DEFAULT_QUEUE_CAPACITY = 8;
+    public static final long DEFAULT_PRINT_TIMEOUT_MILLIS = 60_000;
+
+    private static final String TEMP_DIR = System.getProperty("java.io.tmpdir");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final Ticket STOP = new Ticket(null, -1);
+
+    /** A job's place in the submit queue; a retry queues a new one and strands the old. */
+    private record Ticket(Job job, int generation) {}
+
+    /** One trip of a job through the pipeline; a retry starts a new one and strands the old. */
+    private record Pass(Job job, int generation, CompletableFuture<String> pdf) {}
+
+    /**
+     * Writes one invoice to a PDF file; {@link InvoiceGenerator#generatePDF} unless replaced.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(InvoiceData data, String filename) throws Exception;
+    }
+
+    private final PrintService printer;
+    private final Renderer renderer;
+    private final long printTimeoutMillis;
+    private final ExecutorService renderPool;
+    private final BlockingQueue<Ticket> submitted = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Pass> rendered;
+    private final List<Job> jobs = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Job>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread dispatcher;
+    private final Thread printerThread;
+    private volatile boolean shutdown = false;
+
+    public PrintSpooler(PrintService printer) {
+        this(printer, InvoiceGenerator::generatePDF, DEFAULT_RENDER_THREADS, DEFAULT_QUEUE_CAPACITY,
+             DEFAULT_PRINT_TIMEOUT_MILLIS);
+    }
+
+    public PrintSpooler(PrintService printer, Renderer renderer, int renderThreads, int queueCapacity,
+                        long printTimeoutMillis) {
+        this.printer = printer;
+        this.renderer = renderer;
+        this.printTimeoutMillis = printTimeoutMillis;
+        this.rendered = new ArrayBlockingQueue<>(queueCapacity);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(renderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "print-render-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatchLoop, "print-dispatch");
+        this.dispatcher.setDaemon(true);
+        this.printerThread = new Thread(this::printLoop, "print-feed");
+        this.printerThread.setDaemon(true);
+        dispatcher.start();
+        printerThread.start();
+    }
+
+    /**
+     * A spooler for the system's default printer.
+     * @return The spooler, or null if there is no default printer
+     */
+    public static PrintSpooler forDefaultPrinter() {
+        PrintService service = PrintServiceLookup.lookupDefaultPrintService();
+        return service != null ? new PrintSpooler(service) : null;
+    }
+
+    public PrintService getPrinter() {
+        return printer;
+    }
+
+    /**
+     * Queue invoices for printing, in order. Returns at once.
+     * @param invoiceType Used in the temp file names, e.g. "Sales"
+     * @return The new jobs
+     */
+    public List<Job> submit(List<InvoiceData> invoices, String invoiceType) {
+        if (shutdown) {
+            throw new IllegalStateException("Print spooler has been shut down");
+        }
+        List<Job> added = new ArrayList<>();
+        for (InvoiceData invoice : invoices) {
+            Job job = new Job(this, invoice, invoiceType);
+            jobs.add(job);
+            added.add(job);
+            notifyListeners(job);
+            submitted.add(new Ticket(job, job.generation));
+        }
+        return added;
+    }
+
+    /**
+     * Put a failed or cancelled job back at the end of the queue.
+     * @return false if the job is still pending or already printed
+     */
+    public boolean retry(Job job) {
+        Ticket ticket;
+        synchronized (job) {
+            if (job.status != Status.FAILED && job.status != Status.CANCELLED) {
+                return false;
+            }
+            job.cancelled = false;
+            job.error = null;
+            job.generation++;
+            job.status = Status.QUEUED;
+            ticket = new Ticket(job, job.generation);
+        }
+        notifyListeners(job);
+        submitted.add(ticket);
+        return true;
+    }
+
+    /**
+     * Cancel a job that has not printed yet. A job already sent to the
+     * printer is cancelled there if the print service allows it.
+     * @return false if the job had already finished or the printer could not cancel it
+     */
+    public boolean cancel(Job job) {
+        synchronized (job) {
+            if (job.status == Status.PRINTED || job.status == Status.FAILED || job.status == Status.CANCELLED) {
+                return false;
+            }
+            DocPrintJob sending = job.printJob;
+            if (sending == null) {
+                job.cancelled = true;
+                job.status = Status.CANCELLED;
+            } else if (!(sending instanceof CancelablePrintJob)) {
+                return false;
+            } else {
+                // Set first: the printer may report the cancel before cancel() returns
+                job.cancelled = true;
+                try {
+                    ((CancelablePrintJob) sending).cancel();
+                } catch (Exception e) {
+                    System.err.println("Could not cancel print job for " + job.getInvoiceNumber() + ": " + e.getMessage());
+                    job.cancelled = false;
+                    return false;
+                }
+            }
+        }
+        notifyListeners(job);
+        return true;
+    }
+
+    /**
+     * Cancel every job that has not printed yet.
+     */
+    public void cancelAll() {
+        for (Job job : jobs) {
+            cancel(job);
+        }
+    }
+
+    /**
+     * Every job submitted to this spooler, oldest first.
+     */
+    public List<Job> getJobs() {
+        return Collections.unmodifiableList(jobs);
+    }
+
+    /**
+     * Forget the jobs that are printed or cancelled.
+     */
+    public void clearFinished() {
+        jobs.removeIf(job -> job.status == Status.PRINTED || job.status == Status.CANCELLED);
+    }
+
+    /**
+     * @param listener Called on a spooler thread whenever a job's status changes
+     */
+    public void addListener(Consumer<Job> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Job> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stop the spooler; jobs that have not printed yet are cancelled.
+     */
+    public void shutdown() {
+        shutdown = true;
+        cancelAll();
+        submitted.add(STOP);
+        dispatcher.interrupt();
+        printerThread.interrupt();
+        renderPool.shutdownNow();
+    }
+
+    // Stage 1: start rendering in submission order, then queue for the printer (blocks when it is far behind)
+    private void dispatchLoop() {
+        try {
+            while (true) {
+                Ticket ticket = submitted.take();
+                if (ticket == STOP) {
+                    return;
+                }
+                Job job = ticket.job();
+                int generation = ticket.generation();
+                // A job cancelled and retried while queued has a stale ticket still in the queue
+                if (job.cancelled || generation != job.generation) {
+                    continue;
+                }
+                rendered.put(new Pass(job, generation,
+                    CompletableFuture.supplyAsync(() -> render(job, generation), renderPool)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String render(Job job, int generation) {
+        if (generation != job.generation || !update(job, Status.RENDERING, null)) {
+            return null;
+        }
+        String filename = TEMP_DIR + File.separator + job.invoiceType + "_Invoice_" + job.getInvoiceNumber() +
+                          "_" + LocalDateTime.now().format(TIMESTAMP_FORMAT) + "_" + job.id + ".pdf";
+        try {
+            renderer.render(job.invoice, filename);
+            update(job, Status.WAITING, null);
+            return filename;
+        } catch (Exception e) {
+            System.err.println("Failed to render invoice " + job.getInvoiceNumber() + ": " + e.getMessage());
+            update(job, Status.FAILED, "Could not create PDF: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Stage 3: one job at a time, in submission order
+    private void printLoop() {
+        try {
+            while (!shutdown) {
+                Pass pass = rendered.take();
+                Job job = pass.job();
+                String filename = pass.pdf().join();
+                try {
+                    if (filename != null && !job.cancelled && pass.generation() == job.generation) {
+                        print(job, new File(filename));
+                    }
+                } finally {
+                    if (filename != null) {
+                        new File(filename).delete();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void print(Job job, File pdf) throws InterruptedException {
+        DocPrintJob printJob = printer.createPrintJob();
+        // Listen before the job is published, so a cancel that comes right away isn't missed
+        PrintJobWaiter waiter = new PrintJobWaiter();
+        printJob.addPrintJobListener(waiter);
+        synchronized (job) {
+            if (job.cancelled) {
+                return;
+            }
+            job.status = Status.PRINTING;
+            job.attempts++;
+        }
+        notifyListeners(job);
+
+        PrintJobWaiter.Outcome outcome;
+        String error = null;
+        try (InputStream in = new FileInputStream(pdf)) {
+            DocFlavor flavor = supportsPdf() ? DocFlavor.INPUT_STREAM.PDF : DocFlavor.INPUT_STREAM.AUTOSENSE;
+            Doc document = new SimpleDoc(in, flavor, null);
+            PrintRequestAttributeSet attributes = new HashPrintRequestAttributeSet();
+            attributes.add(new Copies(1));
+            attributes.add(MediaSizeName.ISO_A4);
+            attributes.add(OrientationRequested.PORTRAIT);
+
+            // Published only now, so until it is sent a cancel is just the flag
+            boolean send;
+            synchronized (job) {
+                send = !job.cancelled;
+                if (send) {
+                    job.printJob = printJob;
+                }
+            }
+            if (send) {
+                printJob.print(document, attributes);
+                outcome = waiter.await(printTimeoutMillis);
+            } else {
+                outcome = PrintJobWaiter.Outcome.CANCELLED; // cancelled before anything was sent
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Failed to print invoice " + job.getInvoiceNumber() + ": " + e.getMessage());
+            outcome = PrintJobWaiter.Outcome.FAILED;
+            error = e.getMessage();
+        }
+
+        synchronized (job) {
+            job.printJob = null;
+        }
+        switch (outcome) {
+            case COMPLETED:
+                update(job, Status.PRINTED, null);
+                break;
+            case CANCELLED:
+                update(job, Status.CANCELLED, null);
+                break;
+            case TIMED_OUT:
+                update(job, Status.FAILED, "Printer did not confirm the job within " + (printTimeoutMillis / 1000) + " s");
+                break;
+            default:
+                update(job, Status.FAILED, error != null ? error : "Printer reported the job failed");
+        }
+    }
+
+    private boolean supportsPdf() {
+        for (DocFlavor flavor : printer.getSupportedDocFlavors()) {
+            if (flavor.equals(DocFlavor.INPUT_STREAM.PDF)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move a job to a new status unless it was cancelled meanwhile.
+     * @return false if the job is cancelled
+     */
+    private boolean update(Job job, Status status, String error) {
+        synchronized (job) {
+            if (job.cancelled && status != Status.CANCELLED) {
+                job.status = Status.CANCELLED;
+            } else {
+                job.status = status;
+                job.error = error;
+            }
+        }
+        notifyListeners(job);
+        return job.status != Status.CANCELLED;
+    }
+
+    private void notifyListeners(Job job) {
+        for (Consumer<Job> listener : listeners) {
+            try {
+                listener.accept(job);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * One invoice on its way to the printer.
+     */
+    public static final class Job {
+        private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+
+        private final int id = NEXT_ID.getAndIncrement();
+        private final PrintSpooler spooler;
+        private final InvoiceData invoice;
+        private final String invoiceType;
+        private volatile Status status = Status.QUEUED;
+        private volatile String error;
+        private volatile int attempts;
+        private volatile boolean cancelled;
+        private volatile int generation;
+        private volatile DocPrintJob printJob;
+
+        private Job(PrintSpooler spooler, InvoiceData invoice, String invoiceType) {
+            this.spooler = spooler;
+            this.invoice = invoice;
+            this.invoiceType = invoiceType;
+        }
+
+        public int getId() { return id; }
+        public String getInvoiceNumber() { return invoice != null ? invoice.getInvoiceNumber() : ""; }
+        public String getInvoiceType() { return invoiceType; }
+        public Status getStatus() { return status; }
+        /** Why the job failed, null unless it did. */
+        public String getError() { return error; }
+        /** How many times the job was sent to the printer. */
+        public int getAttempts() { return attempts; }
+
+        public boolean retry() {
+            return spooler.retry(this);
+        }
+
+        public boolean cancel() {
+            return spooler.cancel(this);
+        }
+    }
+}
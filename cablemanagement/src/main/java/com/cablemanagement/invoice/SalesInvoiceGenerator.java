@@ -2,7 +2,6 @@ package com.cablemanagement.invoice;
 
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
-import com.itextpdf.text.pdf.draw.DottedLineSeparator;
 
 import java.io.FileOutputStream;
 import java.util.List;
@@ -21,38 +20,12 @@ public class SalesInvoiceGenerator {
             document.open();
 
             // Fonts
-            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.BLACK);
-            Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12, BaseColor.BLACK);
-            Font regularFont = FontFactory.getFont(FontFactory.HELVETICA, 10, BaseColor.BLACK);
-            Font boldFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK);
-
-            // Logo (Optional - comment out if no logo)
-            try {
-                Image logo = Image.getInstance("CableManagement/cablemanagement/src/main/java/com/cablemanagement/invoice/logo.png");
-                logo.scaleToFit(80, 80);
-                logo.setAlignment(Element.ALIGN_CENTER);
-                document.add(logo);
-            } catch (Exception e) {
-                System.out.println("Logo not found, continuing without logo");
-            }
-
-            // Header
-            Paragraph header = new Paragraph("HASEEB WIRE & CABLES", titleFont);
-            header.setAlignment(Element.ALIGN_CENTER);
-            document.add(header);
-
-            Paragraph subHeader = new Paragraph("Sales Invoice", headerFont);
-            subHeader.setAlignment(Element.ALIGN_CENTER);
-            subHeader.setSpacingAfter(5);
-            document.add(subHeader);
+            Font headerFont = PdfResources.HEADER_FONT;
+            Font regularFont = PdfResources.REGULAR_FONT;
+            Font boldFont = PdfResources.BOLD_FONT;
 
-            Paragraph contact = new Paragraph("Khalil Abad, Amangarh, Nowshera\n0333-4100520 / 0333-9260587\n", regularFont);
-            contact.setAlignment(Element.ALIGN_CENTER);
-            contact.setSpacingAfter(10);
-            document.add(contact);
-            
-            document.add(new Chunk(new DottedLineSeparator()));
-            document.add(Chunk.NEWLINE);
+            // Logo, company header and title
+            PdfResources.SALES_LETTERHEAD.addTo(document, "Sales Invoice");
 
             // Customer & Invoice Info
             PdfPTable infoTable = new PdfPTable(2);
@@ -72,13 +45,13 @@ public class SalesInvoiceGenerator {
                 }
             }
 
-            PdfPCell customerCell = new PdfPCell(new Phrase(
+            PdfPCell customerCell = new PdfPCell(PdfResources.phrase(
                     "Bill To:\n" + customerName + "\n" +
                     "Address: " + customerAddress, regularFont));
             customerCell.setBorder(Rectangle.NO_BORDER);
             customerCell.setPaddingBottom(10);
 
-            PdfPCell invoiceCell = new PdfPCell(new Phrase(
+            PdfPCell invoiceCell = new PdfPCell(PdfResources.phrase(
                     "Invoice #: " + data.getInvoiceNumber() + "\n" +
                     "Date: " + data.getDate() + "\n" +
                     "Sales Representative: Admin\n" +
@@ -98,7 +71,7 @@ public class SalesInvoiceGenerator {
 
             String[] headers = {"#", "Description", "Qty", "Unit Price", "Discount", "Net Amount"};
             for (String h : headers) {
-                PdfPCell cell = new PdfPCell(new Phrase(h, boldFont));
+                PdfPCell cell = new PdfPCell(PdfResources.phrase(h, boldFont));
                 cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
                 cell.setHorizontalAlignment(Element.ALIGN_CENTER);
                 cell.setPadding(8);
@@ -127,12 +100,12 @@ public class SalesInvoiceGenerator {
                 totalDiscount += discount;
 
                 // Row cells
-                table.addCell(new Phrase(String.valueOf(i + 1), regularFont));
-                table.addCell(new Phrase(itemName, regularFont));
-                table.addCell(new Phrase(String.valueOf(item.getQuantity()), regularFont));
-                table.addCell(new Phrase(String.format("%.2f", item.getUnitPrice()), regularFont));
-                table.addCell(new Phrase(String.format("%.2f", discount), regularFont));
-                table.addCell(new Phrase(String.format("%.2f", net), regularFont));
+                table.addCell(PdfResources.phrase(String.valueOf(i + 1), regularFont));
+                table.addCell(PdfResources.phrase(itemName, regularFont));
+                table.addCell(PdfResources.phrase(String.valueOf(item.getQuantity()), regularFont));
+                table.addCell(PdfResources.phrase(String.format("%.2f", item.getUnitPrice()), regularFont));
+                table.addCell(PdfResources.phrase(String.format("%.2f", discount), regularFont));
+                table.addCell(PdfResources.phrase(String.format("%.2f", net), regularFont));
             }
 
             document.add(table);
@@ -174,7 +147,7 @@ public class SalesInvoiceGenerator {
             document.add(Chunk.NEWLINE);
 
             // Payment Information
-            Paragraph paymentInfo = new Paragraph("Payment Information:\n" +
+            Paragraph paymentInfo = PdfResources.paragraph("Payment Information:\n" +
                 "• Payment due within 30 days of invoice date\n" +
                 "• Please include invoice number on your payment\n" +
                 "• Late payments may incur additional charges", regularFont);
@@ -187,11 +160,11 @@ public class SalesInvoiceGenerator {
             signatureTable.setWidthPercentage(100);
             signatureTable.setSpacingBefore(20);
 
-            PdfPCell leftSig = new PdfPCell(new Phrase("Customer Signature: ____________________", regularFont));
+            PdfPCell leftSig = new PdfPCell(PdfResources.phrase("Customer Signature: ____________________", regularFont));
             leftSig.setBorder(Rectangle.NO_BORDER);
             leftSig.setHorizontalAlignment(Element.ALIGN_LEFT);
 
-            PdfPCell rightSig = new PdfPCell(new Phrase("Authorized Signature: ____________________", regularFont));
+            PdfPCell rightSig = new PdfPCell(PdfResources.phrase("Authorized Signature: ____________________", regularFont));
             rightSig.setBorder(Rectangle.NO_BORDER);
             rightSig.setHorizontalAlignment(Element.ALIGN_RIGHT);
 
@@ -201,7 +174,7 @@ public class SalesInvoiceGenerator {
 
             // Footer
             document.add(Chunk.NEWLINE);
-            Paragraph thankYou = new Paragraph("THANK YOU FOR YOUR BUSINESS!", headerFont);
+            Paragraph thankYou = PdfResources.paragraph("THANK YOU FOR YOUR BUSINESS!", headerFont);
             thankYou.setAlignment(Element.ALIGN_CENTER);
             thankYou.setSpacingBefore(20);
             document.add(thankYou);
@@ -227,38 +200,12 @@ public class SalesInvoiceGenerator {
             document.open();
 
             // Fonts
-            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.BLACK);
-            Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12, BaseColor.BLACK);
-            Font regularFont = FontFactory.getFont(FontFactory.HELVETICA, 10, BaseColor.BLACK);
-            Font boldFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK);
-
-            // Logo (Optional)
-            try {
-                Image logo = Image.getInstance("CableManagement/cablemanagement/src/main/java/com/cablemanagement/invoice/logo.png");
-                logo.scaleToFit(80, 80);
-                logo.setAlignment(Element.ALIGN_CENTER);
-                document.add(logo);
-            } catch (Exception e) {
-                System.out.println("Logo not found, continuing without logo");
-            }
-
-            // Header
-            Paragraph header = new Paragraph("HASEEB WIRE & CABLES", titleFont);
-            header.setAlignment(Element.ALIGN_CENTER);
-            document.add(header);
-
-            Paragraph subHeader = new Paragraph("SALES RETURN INVOICE", headerFont);
-            subHeader.setAlignment(Element.ALIGN_CENTER);
-            subHeader.setSpacingAfter(5);
-            document.add(subHeader);
+            Font headerFont = PdfResources.HEADER_FONT;
+            Font regularFont = PdfResources.REGULAR_FONT;
+            Font boldFont = PdfResources.BOLD_FONT;
 
-            Paragraph contact = new Paragraph("Khalil Abad, Amangarh, Nowshera\n0333-4100520 / 0333-9260587\n", regularFont);
-            contact.setAlignment(Element.ALIGN_CENTER);
-            contact.setSpacingAfter(10);
-            document.add(contact);
-            
-            document.add(new Chunk(new DottedLineSeparator()));
-            document.add(Chunk.NEWLINE);
+            // Logo, company header and title
+            PdfResources.SALES_LETTERHEAD.addTo(document, "SALES RETURN INVOICE");
 
             // Customer & Return Info
             PdfPTable infoTable = new PdfPTable(2);
@@ -278,14 +225,14 @@ public class SalesInvoiceGenerator {
                 }
             }
 
-            PdfPCell customerCell = new PdfPCell(new Phrase(
+            PdfPCell customerCell = new PdfPCell(PdfResources.phrase(
                     "Return From:\n" + customerName + "\n" +
                     "Address: Customer Address\n" +
                     "Original Invoice: " + originalInvoice, regularFont));
             customerCell.setBorder(Rectangle.NO_BORDER);
             customerCell.setPaddingBottom(10);
 
-            PdfPCell returnCell = new PdfPCell(new Phrase(
+            PdfPCell returnCell = new PdfPCell(PdfResources.phrase(
                     "Return Invoice #: " + data.getInvoiceNumber() + "\n" +
                     "Return Date: " + data.getDate() + "\n" +
                     "Processed By: Admin\n" +
@@ -305,7 +252,7 @@ public class SalesInvoiceGenerator {
 
             String[] headers = {"#", "Item Description", "Return Qty", "Unit Price", "Return Amount"};
             for (String h : headers) {
-                PdfPCell cell = new PdfPCell(new Phrase(h, boldFont));
+                PdfPCell cell = new PdfPCell(PdfResources.phrase(h, boldFont));
                 cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
                 cell.setHorizontalAlignment(Element.ALIGN_CENTER);
                 cell.setPadding(8);
@@ -331,11 +278,11 @@ public class SalesInvoiceGenerator {
                 totalReturnAmount += returnAmount;
 
                 // Row cells
-                table.addCell(new Phrase(String.valueOf(i + 1), regularFont));
-                table.addCell(new Phrase(itemName, regularFont));
-                table.addCell(new Phrase(String.valueOf(item.getQuantity()), regularFont));
-                table.addCell(new Phrase(String.format("%.2f", item.getUnitPrice()), regularFont)); // Already net unit price
-                table.addCell(new Phrase(String.format("%.2f", returnAmount), regularFont));
+                table.addCell(PdfResources.phrase(String.valueOf(i + 1), regularFont));
+                table.addCell(PdfResources.phrase(itemName, regularFont));
+                table.addCell(PdfResources.phrase(String.valueOf(item.getQuantity()), regularFont));
+                table.addCell(PdfResources.phrase(String.format("%.2f", item.getUnitPrice()), regularFont)); // Already net unit price
+                table.addCell(PdfResources.phrase(String.format("%.2f", returnAmount), regularFont));
             }
 
             document.add(table);
@@ -367,7 +314,7 @@ public class SalesInvoiceGenerator {
             document.add(Chunk.NEWLINE);
 
             // Return Policy
-            Paragraph returnPolicy = new Paragraph("Return Policy:\n" +
+            Paragraph returnPolicy = PdfResources.paragraph("Return Policy:\n" +
                 "• Returns accepted within 30 days of purchase\n" +
                 "• Items must be in original condition\n" +
                 "• Refunds will be processed within 5-7 business days", regularFont);
@@ -380,11 +327,11 @@ public class SalesInvoiceGenerator {
             signatureTable.setWidthPercentage(100);
             signatureTable.setSpacingBefore(20);
 
-            PdfPCell leftSig = new PdfPCell(new Phrase("Customer Signature: ____________________", regularFont));
+            PdfPCell leftSig = new PdfPCell(PdfResources.phrase("Customer Signature: ____________________", regularFont));
             leftSig.setBorder(Rectangle.NO_BORDER);
             leftSig.setHorizontalAlignment(Element.ALIGN_LEFT);
 
-            PdfPCell rightSig = new PdfPCell(new Phrase("Store Representative: ____________________", regularFont));
+            PdfPCell rightSig = new PdfPCell(PdfResources.phrase("Store Representative: ____________________", regularFont));
             rightSig.setBorder(Rectangle.NO_BORDER);
             rightSig.setHorizontalAlignment(Element.ALIGN_RIGHT);
 
@@ -394,7 +341,7 @@ public class SalesInvoiceGenerator {
 
             // Footer
             document.add(Chunk.NEWLINE);
-            Paragraph thankYou = new Paragraph("THANK YOU FOR YOUR UNDERSTANDING!", headerFont);
+            Paragraph thankYou = PdfResources.paragraph("THANK YOU FOR YOUR UNDERSTANDING!", headerFont);
             thankYou.setAlignment(Element.ALIGN_CENTER);
             thankYou.setSpacingBefore(20);
             document.add(thankYou);
@@ -412,12 +359,12 @@ public class SalesInvoiceGenerator {
      * Helper method to add a summary row to the summary table
      */
     private static void addSummaryRow(PdfPTable table, String label, String value, Font labelFont, Font valueFont) {
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, labelFont));
+        PdfPCell labelCell = new PdfPCell(PdfResources.phrase(label, labelFont));
         labelCell.setBorder(Rectangle.NO_BORDER);
         labelCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         labelCell.setPaddingRight(10);
         
-        PdfPCell valueCell = new PdfPCell(new Phrase(value, valueFont));
+        PdfPCell valueCell = new PdfPCell(PdfResources.phrase(value, valueFont));
         valueCell.setBorder(Rectangle.NO_BORDER);
         valueCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         
@@ -8,6 +8,7 @@ public class BankTransaction {
     private double amount;
     private String description;
     private int relatedBankId; // 0 if not applicable
+    private String source = "bank"; // "bank" or "cash": the table transactionId is from
 
     // Constructor
     public BankTransaction(int transactionId, int bankId, String transactionDate, 
@@ -77,4 +78,12 @@ public class BankTransaction {
     public void setRelatedBankId(int relatedBankId) {
         this.relatedBankId = relatedBankId;
     }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
 }
\ No newline at end of file
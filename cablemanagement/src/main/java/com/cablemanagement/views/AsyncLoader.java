@@ -0,0 +1,115 @@
+package com.cablemanagement.views;
+
+import com.cablemanagement.database.QueryExecutor;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Loads page data on the background query pool and hands the result back
+ * on the JavaFX thread.
+ *
+ * Each load is tied to an owner node (usually the table being filled).
+ * Starting a new load for the same owner cancels the previous one, and a
+ * result that arrives after it was superseded is dropped, so changing the
+ * filters quickly never shows stale rows. While a load is running a table
+ * owner shows a progress placeholder instead of its normal one.
+ */
+public final class AsyncLoader {
+
+    private static final String PENDING_KEY = "AsyncLoader.pending";
+    private static final String PLACEHOLDER_KEY = "AsyncLoader.placeholder";
+
+    private AsyncLoader() {}
+
+    /**
+     * Run a query off the FX thread.
+     * @param owner The node the data is for; loads for the same owner replace each other
+     * @param query The database work, run on a worker thread
+     * @param onResult Called on the FX thread with the result, unless superseded
+     * @param onError Called on the FX thread if the query failed, may be null
+     */
+    public static <T> CompletableFuture<T> load(Node owner, Callable<T> query,
+                                                Consumer<T> onResult, Consumer<Throwable> onError) {
+        cancel(owner);
+        showPlaceholder(owner);
+
+        CompletableFuture<T> future = QueryExecutor.submit(query);
+        owner.getProperties().put(PENDING_KEY, future);
+
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (owner.getProperties().get(PENDING_KEY) != future) {
+                return; // superseded by a newer load or cancelled
+            }
+            owner.getProperties().remove(PENDING_KEY);
+            restorePlaceholder(owner);
+            if (error != null) {
+                System.err.println("Background load failed: " + error.getMessage());
+                error.printStackTrace();
+                if (onError != null) {
+                    onError.accept(error);
+                }
+            } else {
+                onResult.accept(result);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Cancel the pending load for an owner, if any.
+     */
+    public static void cancel(Node owner) {
+        Object pending = owner.getProperties().remove(PENDING_KEY);
+        if (pending instanceof CompletableFuture) {
+            ((CompletableFuture<?>) pending).cancel(true);
+            restorePlaceholder(owner);
+        }
+    }
+
+    /**
+     * Whether a load is still running for the owner.
+     */
+    public static boolean isLoading(Node owner) {
+        return owner.getProperties().containsKey(PENDING_KEY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void showPlaceholder(Node owner) {
+        if (!(owner instanceof TableView)) {
+            return;
+        }
+        TableView<?> table = (TableView<?>) owner;
+        if (!table.getProperties().containsKey(PLACEHOLDER_KEY)) {
+            Node original = table.getPlaceholder();
+            table.getProperties().put(PLACEHOLDER_KEY, original != null ? original : new Label("No content in table"));
+        }
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setMaxSize(40, 40);
+        VBox loading = new VBox(8, spinner, new Label("Loading..."));
+        loading.setAlignment(Pos.CENTER);
+        // Swap in an empty list rather than clearing, the current one may be a read-only view
+        ((TableView<Object>) table).setItems(FXCollections.observableArrayList());
+        table.setPlaceholder(loading);
+    }
+
+    private static void restorePlaceholder(Node owner) {
+        if (!(owner instanceof TableView)) {
+            return;
+        }
+        Object original = owner.getProperties().remove(PLACEHOLDER_KEY);
+        if (original instanceof Node) {
+            ((TableView<?>) owner).setPlaceholder((Node) original);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.cablemanagement.views;
+
+import com.cablemanagement.config;
+import com.cablemanagement.database.SearchIndex;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.CustomMenuItem;
+import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The search box at the top of the main window.
+ *
+ * Every keystroke searches the full-text index in the background (a newer
+ * keystroke replaces the pending search) and lists the best hits under the
+ * box. Picking a hit, or pressing Enter for the first one, hands it to the
+ * caller, which opens the page it belongs to.
+ */
+public final class GlobalSearch {
+
+    private static final int MAX_HITS = 15;
+
+    private GlobalSearch() {}
+
+    /**
+     * @param onOpen Called on the FX thread with the hit the user picked
+     */
+    public static HBox create(Consumer<SearchIndex.Hit> onOpen) {
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search customers, suppliers, stock and transactions...");
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+
+        ContextMenu results = new ContextMenu();
+        Label status = new Label();
+        status.setStyle("-fx-text-fill: #7f8c8d;");
+
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue == null || newValue.trim().isEmpty()) {
+                AsyncLoader.cancel(searchField);
+                results.hide();
+                results.getItems().clear();
+                status.setText("");
+                return;
+            }
+            long started = System.nanoTime();
+            AsyncLoader.load(searchField, () -> config.database.search(newValue, MAX_HITS), hits -> {
+                status.setText(hits.isEmpty() ? "No matches"
+                    : String.format("%d shown (%.0f ms)", hits.size(), (System.nanoTime() - started) / 1e6));
+                showHits(searchField, results, hits, onOpen);
+            }, null);
+        });
+
+        searchField.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.ENTER && !results.getItems().isEmpty()) {
+                results.getItems().get(0).fire();
+            } else if (event.getCode() == KeyCode.ESCAPE) {
+                searchField.clear();
+            }
+        });
+
+        HBox bar = new HBox(10, new Label("🔍"), searchField, status);
+        bar.setAlignment(Pos.CENTER_LEFT);
+        bar.setPadding(new Insets(8, 20, 8, 20));
+        return bar;
+    }
+
+    private static void showHits(TextField searchField, ContextMenu results, List<SearchIndex.Hit> hits,
+                                 Consumer<SearchIndex.Hit> onOpen) {
+        results.getItems().clear();
+        for (SearchIndex.Hit hit : hits) {
+            Label title = new Label(hit.title() != null && !hit.title().isEmpty() ? hit.title() : "(no description)");
+            title.setStyle("-fx-font-weight: bold;");
+            Label detail = new Label(hit.kind().getLabel() + " · " + (hit.detail() != null ? hit.detail().trim() : ""));
+            detail.setStyle("-fx-text-fill: #7f8c8d; -fx-font-size: 11px;");
+
+            MenuItem item = new CustomMenuItem(new VBox(2, title, detail), true);
+            item.setOnAction(e -> {
+                searchField.clear();
+                onOpen.accept(hit);
+            });
+            results.getItems().add(item);
+        }
+        if (hits.isEmpty()) {
+            results.hide();
+        } else if (!results.isShowing()) {
+            results.show(searchField, Side.BOTTOM, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.cablemanagement.views;
+
+import com.cablemanagement.config;
+import com.cablemanagement.database.ChangeBus;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps what a page shows in step with the database through the
+ * {@link ChangeBus}, instead of reloading it after every write.
+ *
+ * A bound list gets row-level diffs: the rows a committed transaction
+ * inserted or updated are loaded by id on the bus thread and put in place
+ * (or appended), deleted ones are removed, and every other row is left
+ * alone. A change to the whole table falls back to the page's full reload.
+ *
+ * A subscription lives while its owner node is in a scene, so a page that
+ * was navigated away from stops listening and can be collected. A page that
+ * is kept and shown again (see {@link PageRegistry}) compares the tables'
+ * {@link ChangeBus#getVersion versions} with those it left with, and
+ * reloads only if something changed while it was hidden.
+ */
+public final class LiveRows {
+
+    /** Loads the current rows with the given ids; ids that no longer exist are left out. */
+    public interface RowLoader<T> {
+        List<T> load(Set<Integer> ids) throws Exception;
+    }
+
+    private LiveRows() {}
+
+    /**
+     * Apply each committed change to a table's rows.
+     * @param owner The node showing the rows, usually the TableView
+     * @param table The table whose rowids are the rows' ids
+     * @param rows The list to update, looked up at every change (e.g. table::getItems)
+     * @param idOf The id of a row
+     * @param loader Loads changed rows by id; called on the bus thread, so it must read on a pooled
+     *               reader: the writer may already be inside the next transaction
+     * @param reload Full reload, for changes to the whole table or missed while hidden; called on the FX thread
+     * @param afterChange Called on the FX thread after the rows were updated, may be null
+     */
+    public static <T> void bind(Node owner, String table, Supplier<ObservableList<T>> rows,
+                                ToIntFunction<T> idOf, RowLoader<T> loader,
+                                Runnable reload, Runnable afterChange) {
+        subscribeWhileShown(owner, changes -> {
+            Set<Integer> changed = new LinkedHashSet<>();
+            Set<Integer> deleted = new HashSet<>();
+            for (ChangeBus.Change change : changes) {
+                if (change.isAllRows()) {
+                    Platform.runLater(reload);
+                    return;
+                }
+                if (change.operation() == ChangeBus.Operation.DELETE) {
+                    deleted.add((int) change.id());
+                } else {
+                    changed.add((int) change.id());
+                }
+            }
+            List<T> loaded;
+            try {
+                loaded = changed.isEmpty() ? List.of() : loader.load(changed);
+            } catch (Exception e) {
+                System.err.println("ERROR: Failed to load changed " + table + " rows: " + e.getMessage());
+                e.printStackTrace();
+                Platform.runLater(reload);
+                return;
+            }
+            Platform.runLater(() -> {
+                apply(rows.get(), idOf, loaded, changed, deleted);
+                if (afterChange != null) {
+                    afterChange.run();
+                }
+            });
+        }, reload, table);
+    }
+
+    /**
+     * Run an action on the FX thread after every committed change to some tables,
+     * e.g. to recompute a total shown in a label, and when the owner is shown
+     * again after changes it missed.
+     */
+    public static void watch(Node owner, Runnable action, String... tables) {
+        subscribeWhileShown(owner, changes -> Platform.runLater(action), action, tables);
+    }
+
+    private static <T> void apply(ObservableList<T> rows, ToIntFunction<T> idOf, List<T> loaded,
+                                  Set<Integer> changed, Set<Integer> deleted) {
+        Map<Integer, Integer> positions = new HashMap<>(rows.size() * 2);
+        for (int i = 0; i < rows.size(); i++) {
+            positions.put(idOf.applyAsInt(rows.get(i)), i);
+        }
+        Set<Integer> gone = new HashSet<>(deleted);
+        gone.addAll(changed);
+        for (T row : loaded) {
+            int id = idOf.applyAsInt(row);
+            gone.remove(id);
+            Integer position = positions.get(id);
+            if (position != null) {
+                rows.set(position, row);
+            } else {
+                rows.add(row);
+            }
+        }
+        // Updated rows the loader no longer returns have left the view as well
+        if (!gone.isEmpty()) {
+            rows.removeIf(row -> gone.contains(idOf.applyAsInt(row)));
+        }
+    }
+
+    private static void subscribeWhileShown(Node owner, ChangeBus.Listener listener, Runnable catchUp,
+                                            String... tables) {
+        if (config.database == null || config.database.getChangeBus() == null) {
+            return;
+        }
+        ChangeBus bus = config.database.getChangeBus();
+        ChangeBus.Subscription[] subscription = new ChangeBus.Subscription[1];
+        long[][] versionsWhenHidden = new long[1][];
+        ChangeListener<Scene> onScene = (observable, oldScene, scene) -> {
+            if (scene != null && subscription[0] == null) {
+                subscription[0] = bus.subscribe(listener, tables);
+                if (versionsWhenHidden[0] != null && !Arrays.equals(versionsWhenHidden[0], versions(bus, tables))) {
+                    catchUp.run();
+                }
+            } else if (scene == null && subscription[0] != null) {
+                // Read before closing: a change delivered in between is applied and also reloaded, never lost
+                versionsWhenHidden[0] = versions(bus, tables);
+                subscription[0].close();
+                subscription[0] = null;
+            }
+        };
+        owner.sceneProperty().addListener(onScene);
+        onScene.changed(owner.sceneProperty(), null, owner.getScene());
+    }
+
+    private static long[] versions(ChangeBus bus, String[] tables) {
+        long[] versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            versions[i] = bus.getVersion(tables[i]);
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cablemanagement.views;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+import java.util.function.Function;
+
+/**
+ * A panel over the bottom right of the main window with the navigation
+ * figures of every page (see {@link PageRegistry}) and the heap in use.
+ * Ctrl+Shift+D shows and hides it; it is updated after every navigation
+ * while shown.
+ */
+public final class NavigationOverlay {
+
+    private static final KeyCombination TOGGLE =
+        new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
+
+    private final PageRegistry registry;
+    private final VBox panel = new VBox(6);
+    private final Label heapLabel = new Label();
+    private final TableView<PageRegistry.PageStats> table = new TableView<>();
+
+    private NavigationOverlay(PageRegistry registry) {
+        this.registry = registry;
+
+        Label heading = new Label("Navigation (Ctrl+Shift+D to hide)");
+        heading.setStyle("-fx-font-weight: bold; -fx-text-fill: white;");
+        heapLabel.setStyle("-fx-text-fill: white;");
+
+        table.getColumns().add(column("Page", 110, PageRegistry.PageStats::page));
+        table.getColumns().add(column("Visits", 50, PageRegistry.PageStats::visits));
+        table.getColumns().add(column("Last ms", 65, s -> String.format("%.1f", s.lastMillis())));
+        table.getColumns().add(column("Avg ms", 65, s -> String.format("%.1f", s.averageMillis())));
+        table.getColumns().add(column("Builds", 50, PageRegistry.PageStats::builds));
+        table.getColumns().add(column("Refreshes", 70, PageRegistry.PageStats::refreshes));
+        table.getColumns().add(column("Build ms", 65, s -> String.format("%.1f", s.buildMillis())));
+        table.getColumns().add(column("Nodes", 55, PageRegistry.PageStats::nodes));
+        table.getColumns().add(column("Build MB", 65, s -> String.format("%.1f", s.buildBytes() / 1048576.0)));
+        table.getColumns().add(column("Kept", 45, s -> s.kept() ? "yes" : "no"));
+        table.setPrefSize(670, 320);
+
+        panel.getChildren().addAll(heading, heapLabel, table);
+        panel.setPadding(new Insets(10));
+        panel.setMaxSize(VBox.USE_PREF_SIZE, VBox.USE_PREF_SIZE);
+        panel.setStyle("-fx-background-color: rgba(44, 62, 80, 0.92); -fx-background-radius: 6;");
+        panel.setVisible(false);
+        StackPane.setAlignment(panel, Pos.BOTTOM_RIGHT);
+        StackPane.setMargin(panel, new Insets(0, 16, 16, 0));
+
+        registry.addNavigationListener(() -> {
+            if (panel.isVisible()) {
+                update();
+            }
+        });
+    }
+
+    /**
+     * Put the overlay on top of the scene's content and bind its shortcut.
+     * @param root The scene's root, which the overlay is added to
+     */
+    public static void install(Scene scene, StackPane root, PageRegistry registry) {
+        NavigationOverlay overlay = new NavigationOverlay(registry);
+        root.getChildren().add(overlay.panel);
+        scene.getAccelerators().put(TOGGLE, overlay::toggle);
+    }
+
+    private void toggle() {
+        panel.setVisible(!panel.isVisible());
+        if (panel.isVisible()) {
+            update();
+        }
+    }
+
+    private void update() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        heapLabel.setText(String.format("Heap: %.0f MB used of %.0f MB max, current page: %s",
+                                        used / 1048576.0, runtime.maxMemory() / 1048576.0, registry.getCurrent()));
+        table.setItems(FXCollections.observableArrayList(registry.getStats()));
+    }
+
+    private static <V> TableColumn<PageRegistry.PageStats, V> column(
+            String title, double width, Function<PageRegistry.PageStats, V> value) {
+        TableColumn<PageRegistry.PageStats, V> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cablemanagement.views;
+
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TitledPane;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reloads what a kept page shows without building the page again.
+ *
+ * A form marks each control it fills from the database with the action
+ * that fills it ({@link #reloadWith}). {@link #refresh} runs the actions of
+ * the marked controls in a page, so combo boxes and tables get current rows
+ * while the sub-form shown, entered text, filters and a loaded report stay
+ * as they were. A combo box keeps its value if the reloaded items still
+ * hold it. Sub-forms that aren't shown aren't part of the page; they are
+ * built with fresh data when picked anyway.
+ */
+public final class PageRefresh {
+
+    private static final String RELOAD_KEY = "PageRefresh.reload";
+
+    private PageRefresh() {}
+
+    /**
+     * Mark a control with the action that fills it, e.g. a combo box with
+     * the load of its items. The action is not run here.
+     * @return The control, for chaining
+     */
+    public static <T extends Node> T reloadWith(T node, Runnable reload) {
+        node.getProperties().put(RELOAD_KEY, reload);
+        return node;
+    }
+
+    /**
+     * Run the reload of every marked control in a page; a page refresher for
+     * {@link PageRegistry#register(String, java.util.function.Supplier, java.util.function.Consumer, String...)}.
+     * A reload that throws is reported and the others still run.
+     */
+    public static void refresh(Node page) {
+        Map<Node, Runnable> marked = new LinkedHashMap<>();
+        collect(page, marked);
+        // Collected first: a reload may change the scene graph being walked
+        for (Map.Entry<Node, Runnable> entry : marked.entrySet()) {
+            try {
+                reload(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                System.err.println("ERROR: Failed to refresh page data: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void reload(Node node, Runnable action) {
+        if (!(node instanceof ComboBox)) {
+            action.run();
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        ComboBox<Object> combo = (ComboBox<Object>) node;
+        Object value = combo.getValue();
+        action.run();
+        if (value != null && !value.equals(combo.getValue()) && combo.getItems().contains(value)) {
+            combo.setValue(value);
+        }
+    }
+
+    private static void collect(Node node, Map<Node, Runnable> marked) {
+        if (node == null) {
+            return;
+        }
+        Object reload = node.getProperties().get(RELOAD_KEY);
+        if (reload instanceof Runnable) {
+            marked.put(node, (Runnable) reload);
+        }
+        // Content of unselected tabs and of panes not skinned yet isn't among the children
+        List<Node> children = new ArrayList<>();
+        if (node instanceof ScrollPane) {
+            children.add(((ScrollPane) node).getContent());
+        } else if (node instanceof TitledPane) {
+            children.add(((TitledPane) node).getContent());
+        } else if (node instanceof TabPane) {
+            for (Tab tab : ((TabPane) node).getTabs()) {
+                children.add(tab.getContent());
+            }
+        } else if (node instanceof Parent) {
+            children.addAll(((Parent) node).getChildrenUnmodifiable());
+        }
+        for (Node child : children) {
+            collect(child, marked);
+        }
+    }
+}
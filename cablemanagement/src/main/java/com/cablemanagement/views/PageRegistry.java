@@ -0,0 +1,277 @@
+package com.cablemanagement.views;
+
+import com.cablemanagement.config;
+import com.cablemanagement.database.ChangeBus;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The pages of the main window by name, built on first visit and kept for
+ * the next one.
+ *
+ * A page's factory runs the first time the page is shown. The page is then
+ * kept, so going back to it swaps the scene graph in instead of rebuilding
+ * its forms and re-running its queries. Kept pages are held softly, at most
+ * -Dcablemanagement.pageCacheSize of them (default
+ * {@value #DEFAULT_CAPACITY}), and the least recently shown one goes first.
+ * A page that was dropped is simply built again.
+ *
+ * A page is registered with the tables it shows. When one of them changed
+ * while the page was hidden (see {@link ChangeBus#getVersion}), showing it
+ * again runs the page's refresher on the kept page, which reloads its combo
+ * boxes and tables in place (see {@link PageRefresh}) and leaves the form
+ * shown, filters and loaded reports alone. A page without a refresher is
+ * built anew instead. Tables a page keeps current itself through
+ * {@link LiveRows} can be left out. A write made just before leaving a page
+ * may still count as a change while hidden; the page is then refreshed once
+ * more than needed.
+ *
+ * Every navigation is timed from the click up to the end of the first
+ * layout pass that shows the page, and a page's node count and the heap it
+ * took to build are noted when it is built. {@link #getStats()} feeds the
+ * diagnostics overlay.
+ */
+public final class PageRegistry {
+
+    public static final int DEFAULT_CAPACITY = 6;
+
+    /**
+     * Navigation figures of one page.
+     * @param lastMillis Latency of the latest visit, click to first layout
+     * @param refreshes Refreshes of a kept page, in place or by a build, because its tables changed while it was hidden
+     * @param buildMillis Time the factory took on the latest build
+     * @param buildBytes Heap in use after the latest build minus before it; a rough size, as the GC may run in between
+     */
+    public record PageStats(String page, int visits, int builds, int refreshes, double lastMillis,
+                            double averageMillis, double buildMillis, int nodes, long buildBytes, boolean kept) {}
+
+    private final StackPane contentArea;
+    private final int capacity;
+    private final Map<String, Supplier<Node>> factories = new LinkedHashMap<>();
+    private final Map<String, Consumer<Node>> refreshers = new HashMap<>();
+    private final Map<String, String[]> tables = new HashMap<>();
+    private final Map<String, long[]> versionsWhenHidden = new HashMap<>();
+    private final LinkedHashMap<String, SoftReference<Node>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Counters> counters = new LinkedHashMap<>();
+    private final List<Runnable> navigationListeners = new ArrayList<>();
+    private String current;
+
+    /**
+     * @param contentArea Where the pages are shown
+     */
+    public PageRegistry(StackPane contentArea) {
+        this(contentArea, Integer.getInteger("cablemanagement.pageCacheSize", DEFAULT_CAPACITY));
+    }
+
+    public PageRegistry(StackPane contentArea, int capacity) {
+        this.contentArea = contentArea;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Add a page that is rebuilt when its tables changed while it was hidden;
+     * nothing is built until it is first shown.
+     * @param tables The tables whose changes the page doesn't follow by itself
+     */
+    public void register(String name, Supplier<Node> factory, String... tables) {
+        register(name, factory, null, tables);
+    }
+
+    /**
+     * Add a page; nothing is built until it is first shown.
+     * @param refresher Reloads the data of the kept page, e.g. {@link PageRefresh#refresh}; null
+     *                  to build the page anew instead
+     * @param tables The tables whose changes the page doesn't follow by itself; a change to
+     *               one of them while the page is hidden gets it refreshed on the next visit
+     */
+    public void register(String name, Supplier<Node> factory, Consumer<Node> refresher, String... tables) {
+        factories.put(name, factory);
+        if (refresher != null) {
+            refreshers.put(name, refresher);
+        } else {
+            refreshers.remove(name);
+        }
+        this.tables.put(name, tables);
+        counters.put(name, new Counters());
+    }
+
+    /**
+     * Show a page, building it if it isn't kept.
+     */
+    public void show(String name) {
+        Supplier<Node> factory = factories.get(name);
+        if (factory == null) {
+            System.err.println("ERROR: No page registered as " + name);
+            return;
+        }
+        long start = System.nanoTime();
+        if (current != null && !current.equals(name)) {
+            versionsWhenHidden.put(current, versions(current));
+        }
+        Counters pageCounters = counters.get(name);
+        SoftReference<Node> kept = pages.get(name);
+        Node page = kept != null ? kept.get() : null;
+        if (page != null && !name.equals(current) && changedWhileHidden(name)) {
+            pageCounters.refreshes++;
+            Consumer<Node> refresher = refreshers.get(name);
+            if (refresher != null) {
+                refresher.accept(page);
+            } else {
+                page = null;
+            }
+        }
+        if (page == null) {
+            Runtime runtime = Runtime.getRuntime();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            page = factory.get();
+            pageCounters.builds++;
+            pageCounters.buildMillis = (System.nanoTime() - start) / 1_000_000.0;
+            pageCounters.buildBytes = Math.max(0, runtime.totalMemory() - runtime.freeMemory() - heapBefore);
+            pageCounters.nodes = countNodes(page);
+            pages.put(name, new SoftReference<>(page));
+            evictBeyondCapacity();
+        }
+        contentArea.getChildren().setAll(page);
+        current = name;
+        pageCounters.visits++;
+        timeUntilLaidOut(pageCounters, start);
+    }
+
+    /**
+     * Whether a table the page shows changed since it was last hidden.
+     */
+    private boolean changedWhileHidden(String name) {
+        long[] before = versionsWhenHidden.get(name);
+        return before != null && !Arrays.equals(before, versions(name));
+    }
+
+    private long[] versions(String name) {
+        String[] pageTables = tables.get(name);
+        ChangeBus bus = config.database != null ? config.database.getChangeBus() : null;
+        long[] versions = new long[pageTables.length];
+        for (int i = 0; bus != null && i < pageTables.length; i++) {
+            versions[i] = bus.getVersion(pageTables[i]);
+        }
+        return versions;
+    }
+
+    /**
+     * Drop a kept page, so the next visit builds it again.
+     */
+    public void invalidate(String name) {
+        pages.remove(name);
+        versionsWhenHidden.remove(name);
+    }
+
+    /**
+     * @return The name of the page shown last, null before the first
+     */
+    public String getCurrent() {
+        return current;
+    }
+
+    /**
+     * Call an action on the FX thread after each navigation has been timed.
+     */
+    public void addNavigationListener(Runnable listener) {
+        navigationListeners.add(listener);
+    }
+
+    /**
+     * @return One entry per registered page, in registration order
+     */
+    public List<PageStats> getStats() {
+        List<PageStats> stats = new ArrayList<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            SoftReference<Node> kept = pages.get(entry.getKey());
+            stats.add(new PageStats(entry.getKey(), c.visits, c.builds, c.refreshes, c.lastMillis,
+                                    c.timedVisits > 0 ? c.totalMillis / c.timedVisits : 0,
+                                    c.buildMillis, c.nodes, c.buildBytes, kept != null && kept.get() != null));
+        }
+        return stats;
+    }
+
+    private void evictBeyondCapacity() {
+        Iterator<Map.Entry<String, SoftReference<Node>>> eldest = pages.entrySet().iterator();
+        while (pages.size() > capacity && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Note the latency once the next layout pass is done, i.e. when the page
+     * is on screen; without a scene there is no pass to wait for.
+     */
+    private void timeUntilLaidOut(Counters pageCounters, long start) {
+        Scene scene = contentArea.getScene();
+        if (scene == null) {
+            pageCounters.record(start);
+            notifyNavigation();
+            return;
+        }
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            // Removed outside the pulse; the scene is iterating its listeners right now
+            Platform.runLater(() -> scene.removePostLayoutPulseListener(listener[0]));
+            if (pageCounters.pendingStart == start) {
+                pageCounters.record(start);
+                notifyNavigation();
+            }
+        };
+        pageCounters.pendingStart = start;
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    private void notifyNavigation() {
+        for (Runnable listener : navigationListeners) {
+            listener.run();
+        }
+    }
+
+    private static int countNodes(Node root) {
+        int count = 1;
+        if (root instanceof Parent) {
+            for (Node child : ((Parent) root).getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    private static final class Counters {
+        int visits;
+        int builds;
+        int refreshes;
+        int timedVisits;
+        double lastMillis;
+        double totalMillis;
+        double buildMillis;
+        int nodes;
+        long buildBytes;
+        long pendingStart = -1;
+
+        void record(long start) {
+            lastMillis = (System.nanoTime() - start) / 1_000_000.0;
+            totalMillis += lastMillis;
+            timedVisits++;
+            pendingStart = -1;
+        }
+    }
+}
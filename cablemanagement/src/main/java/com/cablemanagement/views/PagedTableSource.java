@@ -0,0 +1,221 @@
+package com.cablemanagement.views;
+
+import com.cablemanagement.database.QueryExecutor;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fills a TableView one page at a time, fetching the next page when the
+ * user scrolls near the bottom.
+ *
+ * Pages come from a keyset query ("rows after key, limit n") so opening a
+ * table costs one page no matter how many rows exist, and only the rows the
+ * user actually scrolls to are ever loaded. The first page goes through
+ * {@link AsyncLoader} (progress placeholder, superseded loads dropped); later
+ * pages are appended in place. Starting a new load for the same table, e.g.
+ * after a filter change, drops any page still in flight for the old one.
+ */
+public final class PagedTableSource<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    private static final String SOURCE_KEY = "PagedTableSource.source";
+    private static final double PREFETCH_FRACTION = 0.1;
+
+    /**
+     * Fetch the rows after a key. Runs on a worker thread.
+     */
+    @FunctionalInterface
+    public interface PageQuery {
+        /**
+         * @param afterKey Key of the last row of the previous page, 0 for the first page
+         * @param limit Page size
+         */
+        List<Object[]> fetch(long afterKey, int limit) throws Exception;
+    }
+
+    private final TableView<T> table;
+    private boolean scrollHooked = false;
+
+    // Current load; replaced as a whole by load()
+    private int generation = 0;
+    private PageQuery query;
+    private int keyColumn;
+    private Function<Object[], T> mapper;
+    private Consumer<Throwable> onError;
+    private int pageSize;
+    private long lastKey;
+    private boolean exhausted;
+    private boolean loading;
+    private ObservableList<T> items;
+
+    private PagedTableSource(TableView<T> table) {
+        this.table = table;
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            hookScrollBar();
+            Platform.runLater(this::fillViewport);
+        });
+    }
+
+    /**
+     * Load the first page of a query into the table, replacing what it shows.
+     * @param table The table to fill
+     * @param pageSize Rows per page (as counted by the query)
+     * @param query The keyset query
+     * @param keyColumn Index of the key in each raw row; the last row's key is passed to the next fetch
+     * @param mapper Turns a raw row into a table item, run on the worker thread; may return null to skip the row
+     * @param onError Called on the FX thread if a page fails, may be null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PagedTableSource<T> load(TableView<T> table, int pageSize, PageQuery query, int keyColumn,
+                                               Function<Object[], T> mapper, Consumer<Throwable> onError) {
+        PagedTableSource<T> source = (PagedTableSource<T>) table.getProperties().get(SOURCE_KEY);
+        if (source == null) {
+            source = new PagedTableSource<>(table);
+            table.getProperties().put(SOURCE_KEY, source);
+        }
+        source.start(pageSize, query, keyColumn, mapper, onError);
+        return source;
+    }
+
+    /**
+     * Whether every row of the current query has been loaded.
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    private void start(int pageSize, PageQuery query, int keyColumn,
+                       Function<Object[], T> mapper, Consumer<Throwable> onError) {
+        int current = ++generation;
+        this.pageSize = pageSize;
+        this.query = query;
+        this.keyColumn = keyColumn;
+        this.mapper = mapper;
+        this.onError = onError;
+        this.lastKey = 0;
+        this.exhausted = false;
+        this.loading = true;
+
+        AsyncLoader.load(table, () -> fetch(query, 0, pageSize), page -> {
+            if (current != generation) {
+                return;
+            }
+            items = FXCollections.observableArrayList(page.items);
+            table.setItems(items);
+            finishPage(page);
+        }, error -> {
+            loading = false;
+            if (onError != null) {
+                onError.accept(error);
+            }
+        });
+    }
+
+    private void loadNextPage() {
+        if (loading || exhausted || items == null) {
+            return;
+        }
+        loading = true;
+        int current = generation;
+        PageQuery pageQuery = query;
+        QueryExecutor.submit(() -> fetch(pageQuery, lastKey, pageSize))
+            .whenComplete((page, error) -> Platform.runLater(() -> {
+                if (current != generation) {
+                    return; // a new load started meanwhile
+                }
+                if (error != null) {
+                    loading = false;
+                    System.err.println("Loading next page failed: " + error.getMessage());
+                    if (onError != null) {
+                        onError.accept(error);
+                    }
+                    return;
+                }
+                items.addAll(page.items);
+                finishPage(page);
+            }));
+    }
+
+    private void finishPage(Page<T> page) {
+        loading = false;
+        if (page.lastKey != null) {
+            lastKey = page.lastKey;
+        }
+        exhausted = page.rowCount < pageSize;
+        hookScrollBar();
+        // A first page shorter than the viewport shows no scroll bar to scroll with
+        Platform.runLater(this::fillViewport);
+    }
+
+    private Page<T> fetch(PageQuery pageQuery, long afterKey, int limit) throws Exception {
+        List<Object[]> rows = pageQuery.fetch(afterKey, limit);
+        Page<T> page = new Page<>();
+        page.rowCount = rows.size();
+        page.items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            T item = mapper.apply(row);
+            if (item != null) {
+                page.items.add(item);
+            }
+        }
+        if (!rows.isEmpty()) {
+            Object key = rows.get(rows.size() - 1)[keyColumn];
+            page.lastKey = key instanceof Number ? ((Number) key).longValue() : null;
+        }
+        return page;
+    }
+
+    private void fillViewport() {
+        if (table.getSkin() == null || table.getHeight() <= 0) {
+            return; // not shown yet, the skin listener comes back here
+        }
+        ScrollBar bar = verticalScrollBar();
+        if (bar != null && !bar.isVisible()) {
+            loadNextPage();
+        }
+    }
+
+    private void hookScrollBar() {
+        if (scrollHooked) {
+            return;
+        }
+        ScrollBar bar = verticalScrollBar();
+        if (bar == null) {
+            return;
+        }
+        scrollHooked = true;
+        bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+            double range = bar.getMax() - bar.getMin();
+            if (newValue.doubleValue() >= bar.getMax() - range * PREFETCH_FRACTION) {
+                loadNextPage();
+            }
+        });
+    }
+
+    private ScrollBar verticalScrollBar() {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                return (ScrollBar) node;
+            }
+        }
+        return null;
+    }
+
+    private static final class Page<T> {
+        List<T> items;
+        int rowCount;
+        Long lastKey;
+    }
+}
@@ -0,0 +1,140 @@
+package com.cablemanagement.views;
+
+import com.cablemanagement.config;
+import com.cablemanagement.database.ReportSpec;
+import com.cablemanagement.database.RowConsumer;
+
+import javafx.application.Platform;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Streams a report into a TableView while the query is still running.
+ *
+ * Rows are read on a worker thread (through {@link AsyncLoader}, so a new
+ * report for the same table replaces the old one) and appended on the FX
+ * thread in batches of {@value #BATCH_SIZE}. At most
+ * {@value #MAX_BATCHES_IN_FLIGHT} batches wait for the FX thread at a time;
+ * beyond that the worker stops reading rows until the table catches up, so
+ * the UI sets the pace and nothing piles up in between. A table shows at
+ * most -Dcablemanagement.reportRowLimit rows (default {@value #DEFAULT_ROW_LIMIT});
+ * the query is stopped there and the caller is told the report was cut off.
+ */
+public final class ReportStreamer {
+
+    public static final int BATCH_SIZE = 200;
+    public static final int DEFAULT_ROW_LIMIT = 100_000;
+
+    private static final int MAX_BATCHES_IN_FLIGHT = 2;
+    private static final int ROW_LIMIT = Integer.getInteger("cablemanagement.reportRowLimit", DEFAULT_ROW_LIMIT);
+    private static final String CANCEL_KEY = "ReportStreamer.cancelled";
+
+    private ReportStreamer() {}
+
+    /**
+     * Run a report into a table, replacing what it shows.
+     * @param table The table to fill
+     * @param spec The report; its rows are the table's items
+     * @param onColumns Called on the FX thread with the column labels before any row arrives, may be null
+     * @param onDone Called on the FX thread with the number of rows shown and whether the row limit cut the report off
+     * @param onError Called on the FX thread if the query failed, may be null
+     */
+    public static <T> void stream(TableView<T> table, ReportSpec<T> spec, Consumer<List<String>> onColumns,
+                                  BiConsumer<Integer, Boolean> onDone, Consumer<Throwable> onError) {
+        Object previous = table.getProperties().get(CANCEL_KEY);
+        if (previous instanceof AtomicBoolean) {
+            ((AtomicBoolean) previous).set(true); // stops the old worker at its next row
+        }
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        table.getProperties().put(CANCEL_KEY, cancelled);
+
+        AsyncLoader.load(table, () -> {
+            Feed<T> feed = new Feed<>(table, cancelled, onColumns);
+            config.database.streamReport(spec, feed);
+            feed.flush();
+            return feed;
+        }, feed -> {
+            if (onDone != null) {
+                onDone.accept(feed.delivered, feed.truncated);
+            }
+        }, onError);
+    }
+
+    /**
+     * Collects rows on the worker thread and hands them to the table in batches.
+     */
+    private static final class Feed<T> implements RowConsumer<T> {
+        private final TableView<T> table;
+        private final AtomicBoolean cancelled;
+        private final Consumer<List<String>> onColumns;
+        private final Semaphore inFlight = new Semaphore(MAX_BATCHES_IN_FLIGHT);
+        private List<T> batch = new ArrayList<>(BATCH_SIZE);
+        private int delivered = 0;
+        private boolean truncated = false;
+
+        Feed(TableView<T> table, AtomicBoolean cancelled, Consumer<List<String>> onColumns) {
+            this.table = table;
+            this.cancelled = cancelled;
+            this.onColumns = onColumns;
+        }
+
+        @Override
+        public void begin(List<String> columns) {
+            if (onColumns != null) {
+                Platform.runLater(() -> {
+                    if (!cancelled.get()) {
+                        onColumns.accept(columns);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public boolean accept(T row) {
+            if (cancelled.get()) {
+                return false;
+            }
+            if (delivered == ROW_LIMIT) {
+                truncated = true;
+                return false;
+            }
+            batch.add(row);
+            delivered++;
+            return batch.size() < BATCH_SIZE || flush();
+        }
+
+        /**
+         * Queue the current batch for the FX thread, waiting while too many are queued.
+         * @return false if the report was replaced or the wait interrupted
+         */
+        boolean flush() {
+            if (batch.isEmpty()) {
+                return true;
+            }
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            List<T> rows = batch;
+            batch = new ArrayList<>(BATCH_SIZE);
+            Platform.runLater(() -> {
+                try {
+                    if (!cancelled.get()) {
+                        table.getItems().addAll(rows);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+            return !cancelled.get();
+        }
+    }
+}
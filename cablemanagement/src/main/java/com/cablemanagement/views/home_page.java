@@ -13,12 +13,12 @@ import com.cablemanagement.views.pages.BankManagementContent;
 import com.cablemanagement.views.pages.EmployeeManagementContent;
 import com.cablemanagement.views.pages.SalesmanContent;
 import com.cablemanagement.views.pages.AccountsContent;
+import com.cablemanagement.database.SearchIndex;
 
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.layout.*;
-import javafx.scene.Node;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.text.Font;
 
@@ -43,7 +43,34 @@ public class home_page {
 
         StackPane contentArea = new StackPane();
         contentArea.setPadding(new Insets(20));
-        contentArea.getChildren().add(HomeContent.get());
+
+        // Pages are built on first visit and kept, see PageRegistry
+        PageRegistry pages = new PageRegistry(contentArea);
+        // Each with the tables it shows and doesn't keep current itself; a change to one while
+        // the page is hidden gets its combo boxes and tables reloaded in place on the next visit
+        pages.register("Home", HomeContent::get);
+        pages.register("Accounts", AccountsContent::get, PageRefresh::refresh, "Province", "District", "Tehsil");
+        pages.register("Profile", ProfileContent::get);
+        pages.register("Register", RegisterContent::get, PageRefresh::refresh, "Brand", "Category", "Customer", "District",
+                       "Manufacturer", "Province", "Supplier", "Tehsil", "Unit");
+        pages.register("Raw Stock", RawStock::get, PageRefresh::refresh, "Brand", "Unit", "Supplier", "Raw_Stock",
+                       "Raw_Purchase_Invoice", "Raw_Purchase_Return_Invoice", "Raw_Stock_Use_Invoice");
+        pages.register("Production", ProductionStock::get, PageRefresh::refresh, "Brand", "Unit", "Customer", "Raw_Stock",
+                       "ProductionStock", "Bill_Of_Materials", "Production_Invoice", "Production_Return_Invoice",
+                       "Sales_Invoice", "Sales_Return_Invoice");
+        pages.register("Books", BooksContent::get, PageRefresh::refresh, "Customer", "Supplier", "Raw_Stock", "ProductionStock",
+                       "Raw_Purchase_Invoice", "Raw_Purchase_Return_Invoice", "Raw_Stock_Use_Invoice",
+                       "Production_Invoice", "Production_Return_Invoice", "Sales_Invoice", "Sales_Return_Invoice");
+        pages.register("Bank Mgmt", BankManagementContent::get);
+        pages.register("Salesman", SalesmanContent::get, PageRefresh::refresh, "Salesman");
+        pages.register("Employees", EmployeeManagementContent::get, PageRefresh::refresh, "Employee", "Designation",
+                       "Employee_Attendance", "Employee_Loan", "Employee_Advance_Salary", "Contract_Employee");
+        pages.register("Reports", ReportsContent::get, PageRefresh::refresh, "Province", "District", "Tehsil", "Bank", "Cash_Transaction",
+                       "Customer", "Supplier", "Customer_Transaction", "Supplier_Transaction", "Raw_Stock",
+                       "ProductionStock", "Raw_Purchase_Invoice", "Raw_Purchase_Return_Invoice", "Raw_Stock_Use_Invoice",
+                       "Production_Invoice", "Production_Return_Invoice", "Sales_Invoice", "Sales_Return_Invoice");
+        pages.register("Settings", SettingsContent::get);
+        pages.show("Home");
 
         // Standard Emoji + Arial Font
         Button homeBtn = createSidebarButton("🏠 Home");
@@ -74,19 +101,20 @@ public class home_page {
 
         mainLayout.setLeft(scrollPane);
         mainLayout.setCenter(contentArea);
+        mainLayout.setTop(GlobalSearch.create(hit -> pages.show(pageFor(hit.kind()))));
 
         // Button actions
-        homeBtn.setOnAction(e -> contentArea.getChildren().setAll(HomeContent.get()));
-        accountsBtn.setOnAction(e -> contentArea.getChildren().setAll(AccountsContent.get()));
-        settingsBtn.setOnAction(e -> contentArea.getChildren().setAll(SettingsContent.get()));
-        registerBtn.setOnAction(e -> contentArea.getChildren().setAll(RegisterContent.get()));
-        rawStockBtn.setOnAction(e -> contentArea.getChildren().setAll(RawStock.get()));
-        productionStockBtn.setOnAction(e -> contentArea.getChildren().setAll(ProductionStock.get()));
-        booksBtn.setOnAction(e -> contentArea.getChildren().setAll(BooksContent.get()));
-        bankMgmtBtn.setOnAction(e -> contentArea.getChildren().setAll(BankManagementContent.get()));
-        salesmanBtn.setOnAction(e -> contentArea.getChildren().setAll(SalesmanContent.get()));
-        employeeMgmtBtn.setOnAction(e -> contentArea.getChildren().setAll(EmployeeManagementContent.get()));
-        reportsBtn.setOnAction(e -> contentArea.getChildren().setAll(ReportsContent.get()));
+        homeBtn.setOnAction(e -> pages.show("Home"));
+        accountsBtn.setOnAction(e -> pages.show("Accounts"));
+        settingsBtn.setOnAction(e -> pages.show("Settings"));
+        registerBtn.setOnAction(e -> pages.show("Register"));
+        rawStockBtn.setOnAction(e -> pages.show("Raw Stock"));
+        productionStockBtn.setOnAction(e -> pages.show("Production"));
+        booksBtn.setOnAction(e -> pages.show("Books"));
+        bankMgmtBtn.setOnAction(e -> pages.show("Bank Mgmt"));
+        salesmanBtn.setOnAction(e -> pages.show("Salesman"));
+        employeeMgmtBtn.setOnAction(e -> pages.show("Employees"));
+        reportsBtn.setOnAction(e -> pages.show("Reports"));
 
         collapseBtn.setOnAction(e -> {
             isCollapsed = !isCollapsed;
@@ -95,18 +123,18 @@ public class home_page {
             if (isCollapsed) {
                 scrollPane.setPrefWidth(72);
                 sidebarContent.getChildren().addAll(
-                    createIconOnlyButton("🏠", contentArea, HomeContent.get()),
-                    createIconOnlyButton("💰", contentArea, AccountsContent.get()),
-                    createIconOnlyButton("☺", contentArea, ProfileContent.get()),
-                    createIconOnlyButton("✎", contentArea, RegisterContent.get()),
-                    createIconOnlyButton("📦", contentArea, RawStock.get()),
-                    createIconOnlyButton("🏭", contentArea, ProductionStock.get()),
-                    createIconOnlyButton("📚", contentArea, BooksContent.get()),
-                    createIconOnlyButton("Ⓑ", contentArea, BankManagementContent.get()),
-                    createIconOnlyButton("☺", contentArea, SalesmanContent.get()),
-                    createIconOnlyButton("☺", contentArea, EmployeeManagementContent.get()),
-                    createIconOnlyButton("📊", contentArea, ReportsContent.get()),
-                    createIconOnlyButton("⚙️", contentArea, SettingsContent.get())
+                    createIconOnlyButton("🏠", pages, "Home"),
+                    createIconOnlyButton("💰", pages, "Accounts"),
+                    createIconOnlyButton("☺", pages, "Profile"),
+                    createIconOnlyButton("✎", pages, "Register"),
+                    createIconOnlyButton("📦", pages, "Raw Stock"),
+                    createIconOnlyButton("🏭", pages, "Production"),
+                    createIconOnlyButton("📚", pages, "Books"),
+                    createIconOnlyButton("Ⓑ", pages, "Bank Mgmt"),
+                    createIconOnlyButton("☺", pages, "Salesman"),
+                    createIconOnlyButton("☺", pages, "Employees"),
+                    createIconOnlyButton("📊", pages, "Reports"),
+                    createIconOnlyButton("⚙️", pages, "Settings")
                 );
                 collapseBtn.setText("⏩");
             } else {
@@ -135,12 +163,29 @@ public class home_page {
             sidebarContent.getChildren().add(collapseBtn);
         });
 
-        Scene scene = new Scene(mainLayout, 800, 500);
+        StackPane root = new StackPane(mainLayout);
+        Scene scene = new Scene(root, 800, 500);
+        NavigationOverlay.install(scene, root, pages);
         String cssPath = home_page.class.getResource("/com/cablemanagement/style.css").toExternalForm();
         scene.getStylesheets().add(cssPath);
         return scene;
     }
 
+    // The page a global search hit belongs to
+    private static String pageFor(SearchIndex.Kind kind) {
+        switch (kind) {
+            case PRODUCT:
+                return "Production";
+            case RAW_STOCK:
+                return "Raw Stock";
+            case BANK_TRANSACTION:
+            case CASH_TRANSACTION:
+                return "Bank Mgmt";
+            default:
+                return "Accounts";
+        }
+    }
+
     private static Button createSidebarButton(String text) {
         Button btn = new Button(text);
         btn.setFont(Font.font("Arial", 14));
@@ -149,12 +194,12 @@ public class home_page {
         return btn;
     }
 
-    private static Button createIconOnlyButton(String icon, StackPane contentArea, Node targetPage) {
+    private static Button createIconOnlyButton(String icon, PageRegistry pages, String page) {
         Button btn = new Button(icon);
         btn.setFont(Font.font("Arial", 16));
         btn.setMaxWidth(Double.MAX_VALUE);
         btn.getStyleClass().add("sidebar-button");
-        btn.setOnAction(e -> contentArea.getChildren().setAll(targetPage));
+        btn.setOnAction(e -> pages.show(page));
         btn.setAlignment(javafx.geometry.Pos.CENTER);
         btn.setStyle("-fx-text-alignment: center; -fx-alignment: center;");
         return btn;
@@ -6,11 +6,21 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.ToIntFunction;
 
 import com.cablemanagement.config;
+import com.cablemanagement.database.ConnectionPool;
+import com.cablemanagement.database.SearchIndex;
+import com.cablemanagement.views.AsyncLoader;
+import com.cablemanagement.views.LiveRows;
+import com.cablemanagement.views.PageRefresh;
+import com.cablemanagement.views.PagedTableSource;
 import com.cablemanagement.model.Customer;
 import com.cablemanagement.model.Supplier;
 
@@ -31,6 +41,7 @@ public class AccountsContent {
 
     // Data model for table display
     public static class CustomerAccountData {
+        private final int customerId;
         private final String customerName;
         private final String contact;
         private final String balance;
@@ -38,8 +49,9 @@ public class AccountsContent {
         private final String district;
         private final String province;
 
-        public CustomerAccountData(String customerName, String contact, String balance, 
+        public CustomerAccountData(int customerId, String customerName, String contact, String balance, 
                                  String tehsil, String district, String province) {
+            this.customerId = customerId;
             this.customerName = customerName;
             this.contact = contact;
             this.balance = balance;
@@ -48,6 +60,7 @@ public class AccountsContent {
             this.province = province;
         }
 
+        public int getCustomerId() { return customerId; }
         public String getCustomerName() { return customerName; }
         public String getContact() { return contact; }
         public String getBalance() { return balance; }
@@ -57,6 +70,7 @@ public class AccountsContent {
     }
 
     public static class SupplierAccountData {
+        private final int supplierId;
         private final String supplierName;
         private final String contact;
         private final String balance;
@@ -64,8 +78,9 @@ public class AccountsContent {
         private final String district;
         private final String province;
 
-        public SupplierAccountData(String supplierName, String contact, String balance, 
+        public SupplierAccountData(int supplierId, String supplierName, String contact, String balance, 
                                  String tehsil, String district, String province) {
+            this.supplierId = supplierId;
             this.supplierName = supplierName;
             this.contact = contact;
             this.balance = balance;
@@ -74,6 +89,7 @@ public class AccountsContent {
             this.province = province;
         }
 
+        public int getSupplierId() { return supplierId; }
         public String getSupplierName() { return supplierName; }
         public String getContact() { return contact; }
         public String getBalance() { return balance; }
@@ -84,8 +100,16 @@ public class AccountsContent {
 
     // Methods to get data with location details
     private static List<CustomerAccountData> getAllCustomersWithLocation() {
+        return getCustomersWithLocation(null);
+    }
+
+    /**
+     * @param ids Only these customers, or null for all of them
+     */
+    private static List<CustomerAccountData> getCustomersWithLocation(Set<Integer> ids) {
         List<CustomerAccountData> customers = new ArrayList<>();
-        String query = "SELECT c.customer_name, c.contact_number, c.balance, " +
+        List<Integer> idList = ids != null ? new ArrayList<>(ids) : null;
+        String query = "SELECT c.customer_id, c.customer_name, c.contact_number, c.balance, " +
                       "COALESCE(t.tehsil_name, '') as tehsil_name, " +
                       "COALESCE(d.district_name, '') as district_name, " +
                       "COALESCE(p.province_name, '') as province_name " +
@@ -93,37 +117,55 @@ public class AccountsContent {
                       "LEFT JOIN Tehsil t ON c.tehsil_id = t.tehsil_id " +
                       "LEFT JOIN District d ON t.district_id = d.district_id " +
                       "LEFT JOIN Province p ON d.province_id = p.province_id " +
+                      (idList != null ? "WHERE c.customer_id IN (" +
+                          String.join(", ", Collections.nCopies(idList.size(), "?")) + ") " : "") +
                       "ORDER BY c.customer_name";
         
+        // Runs on a worker or the change bus thread, so on a pooled reader rather than the writer
+        ConnectionPool pool = config.database.getConnectionPool();
+        Connection conn = null;
         try {
-            Connection conn = config.database.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                String name = rs.getString("customer_name");
-                String contact = rs.getString("contact_number");
-                double balance = config.database.getCustomerCurrentBalance(name);
-                String tehsil = rs.getString("tehsil_name");
-                String district = rs.getString("district_name");
-                String province = rs.getString("province_name");
-                
-                customers.add(new CustomerAccountData(name, contact, 
-                    String.format("%.2f", balance), tehsil, district, province));
+            conn = pool.borrowReader();
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                if (idList != null) {
+                    for (int i = 0; i < idList.size(); i++) {
+                        stmt.setInt(i + 1, idList.get(i));
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt("customer_id");
+                        String name = rs.getString("customer_name");
+                        String contact = rs.getString("contact_number");
+                        double balance = rs.getDouble("balance");
+                        String tehsil = rs.getString("tehsil_name");
+                        String district = rs.getString("district_name");
+                        String province = rs.getString("province_name");
+
+                        customers.add(new CustomerAccountData(id, name, contact, 
+                            String.format("%.2f", balance), tehsil, district, province));
+                    }
+                }
             }
-            
-            rs.close();
-            stmt.close();
-            // Don't close the connection as it's managed by the database class
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            pool.release(conn);
         }
         return customers;
     }
 
     private static List<SupplierAccountData> getAllSuppliersWithLocation() {
+        return getSuppliersWithLocation(null);
+    }
+
+    /**
+     * @param ids Only these suppliers, or null for all of them
+     */
+    private static List<SupplierAccountData> getSuppliersWithLocation(Set<Integer> ids) {
         List<SupplierAccountData> suppliers = new ArrayList<>();
-        String query = "SELECT s.supplier_name, s.contact_number, s.balance, " +
+        List<Integer> idList = ids != null ? new ArrayList<>(ids) : null;
+        String query = "SELECT s.supplier_id, s.supplier_name, s.contact_number, s.balance, " +
                       "COALESCE(t.tehsil_name, '') as tehsil_name, " +
                       "COALESCE(d.district_name, '') as district_name, " +
                       "COALESCE(p.province_name, '') as province_name " +
@@ -131,34 +173,71 @@ public class AccountsContent {
                       "LEFT JOIN Tehsil t ON s.tehsil_id = t.tehsil_id " +
                       "LEFT JOIN District d ON t.district_id = d.district_id " +
                       "LEFT JOIN Province p ON d.province_id = p.province_id " +
+                      (idList != null ? "WHERE s.supplier_id IN (" +
+                          String.join(", ", Collections.nCopies(idList.size(), "?")) + ") " : "") +
                       "ORDER BY s.supplier_name";
         
+        // Runs on a worker or the change bus thread, so on a pooled reader rather than the writer
+        ConnectionPool pool = config.database.getConnectionPool();
+        Connection conn = null;
         try {
-            Connection conn = config.database.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                String name = rs.getString("supplier_name");
-                String contact = rs.getString("contact_number");
-                double balance = config.database.getSupplierCurrentBalance(name);
-                String tehsil = rs.getString("tehsil_name");
-                String district = rs.getString("district_name");
-                String province = rs.getString("province_name");
-                
-                suppliers.add(new SupplierAccountData(name, contact, 
-                    String.format("%.2f", balance), tehsil, district, province));
+            conn = pool.borrowReader();
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                if (idList != null) {
+                    for (int i = 0; i < idList.size(); i++) {
+                        stmt.setInt(i + 1, idList.get(i));
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt("supplier_id");
+                        String name = rs.getString("supplier_name");
+                        String contact = rs.getString("contact_number");
+                        double balance = rs.getDouble("balance");
+                        String tehsil = rs.getString("tehsil_name");
+                        String district = rs.getString("district_name");
+                        String province = rs.getString("province_name");
+
+                        suppliers.add(new SupplierAccountData(id, name, contact, 
+                            String.format("%.2f", balance), tehsil, district, province));
+                    }
+                }
             }
-            
-            rs.close();
-            stmt.close();
-            // Don't close the connection as it's managed by the database class
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            pool.release(conn);
         }
         return suppliers;
     }
 
+    /**
+     * Show the accounts whose name, contact, address or area matches the
+     * search text, or all of them when it is empty. The search runs on the
+     * full-text index in the background; rows keep their table order.
+     */
+    private static <T> void searchAccounts(TextField searchField, TableView<T> table, ObservableList<T> allRows,
+                                           String text, SearchIndex.Kind kind, ToIntFunction<T> idOf) {
+        if (text == null || text.trim().isEmpty()) {
+            AsyncLoader.cancel(searchField);
+            table.setItems(allRows);
+            return;
+        }
+        AsyncLoader.load(searchField, () -> config.database.search(text, 0, kind), hits -> {
+            Set<Integer> ids = new HashSet<>();
+            for (SearchIndex.Hit hit : hits) {
+                ids.add(hit.id());
+            }
+            ObservableList<T> filteredList = FXCollections.observableArrayList();
+            for (T row : allRows) {
+                if (ids.contains(idOf.applyAsInt(row))) {
+                    filteredList.add(row);
+                }
+            }
+            table.setItems(filteredList);
+        }, null);
+    }
+
     public static Node get() {
         BorderPane mainLayout = new BorderPane();
         mainLayout.setPadding(new Insets(20));
@@ -262,33 +341,30 @@ public class AccountsContent {
 
         customerTable.getColumns().addAll(nameCol, contactCol, balanceCol, tehsilCol, districtCol, provinceCol);
 
-        // Load real data from database
+        // Load real data from database in the background
         ObservableList<CustomerAccountData> customerData = FXCollections.observableArrayList();
-        try {
-            customerData.addAll(getAllCustomersWithLocation());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
         customerTable.setItems(customerData);
+        Runnable loadCustomers = () -> AsyncLoader.load(customerTable, AccountsContent::getAllCustomersWithLocation, rows -> {
+            customerData.setAll(rows);
+            customerTable.setItems(customerData);
+        }, null);
+        loadCustomers.run();
+        // The location columns come from the area tables, which the page is refreshed for
+        PageRefresh.reloadWith(customerTable, loadCustomers);
 
-        // Search functionality
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue == null || newValue.isEmpty()) {
-                customerTable.setItems(customerData);
-            } else {
-                ObservableList<CustomerAccountData> filteredList = FXCollections.observableArrayList();
-                for (CustomerAccountData customer : customerData) {
-                    if (customer.getCustomerName().toLowerCase().contains(newValue.toLowerCase()) ||
-                        customer.getContact().toLowerCase().contains(newValue.toLowerCase()) ||
-                        customer.getTehsil().toLowerCase().contains(newValue.toLowerCase()) ||
-                        customer.getDistrict().toLowerCase().contains(newValue.toLowerCase()) ||
-                        customer.getProvince().toLowerCase().contains(newValue.toLowerCase())) {
-                        filteredList.add(customer);
-                    }
+        // Search functionality: the full-text index finds the matching ids, the loaded rows are kept
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> searchAccounts(
+            searchField, customerTable, customerData, newValue, SearchIndex.Kind.CUSTOMER, CustomerAccountData::getCustomerId));
+
+        // Edits, payments and invoices anywhere update just the customers they touched;
+        // a search in progress is run again over the updated rows
+        LiveRows.bind(customerTable, "Customer", () -> customerData, CustomerAccountData::getCustomerId,
+            AccountsContent::getCustomersWithLocation, loadCustomers, () -> {
+                if (customerTable.getItems() != customerData) {
+                    searchAccounts(searchField, customerTable, customerData, searchField.getText(),
+                                   SearchIndex.Kind.CUSTOMER, CustomerAccountData::getCustomerId);
                 }
-                customerTable.setItems(filteredList);
-            }
-        });
+            });
 
         // Action buttons below the table
         HBox actionButtonsRow = new HBox(15);
@@ -324,7 +400,7 @@ public class AccountsContent {
         updateBtn.setOnAction(e -> {
             CustomerAccountData selectedCustomer = customerTable.getSelectionModel().getSelectedItem();
             if (selectedCustomer != null) {
-                showUpdateCustomerDialog(selectedCustomer, customerData, customerTable);
+                showUpdateCustomerDialog(selectedCustomer);
             }
         });
         
@@ -338,7 +414,7 @@ public class AccountsContent {
         paymentBtn.setOnAction(e -> {
             CustomerAccountData selectedCustomer = customerTable.getSelectionModel().getSelectedItem();
             if (selectedCustomer != null) {
-                showAddPaymentDialog(selectedCustomer.getCustomerName(), customerData, customerTable);
+                showAddPaymentDialog(selectedCustomer.getCustomerName());
             }
         });
 
@@ -417,33 +493,30 @@ public class AccountsContent {
 
         supplierTable.getColumns().addAll(nameCol, contactCol, balanceCol, tehsilCol, districtCol, provinceCol);
 
-        // Load real data from database
+        // Load real data from database in the background
         ObservableList<SupplierAccountData> supplierData = FXCollections.observableArrayList();
-        try {
-            supplierData.addAll(getAllSuppliersWithLocation());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
         supplierTable.setItems(supplierData);
+        Runnable loadSuppliers = () -> AsyncLoader.load(supplierTable, AccountsContent::getAllSuppliersWithLocation, rows -> {
+            supplierData.setAll(rows);
+            supplierTable.setItems(supplierData);
+        }, null);
+        loadSuppliers.run();
+        // The location columns come from the area tables, which the page is refreshed for
+        PageRefresh.reloadWith(supplierTable, loadSuppliers);
 
-        // Search functionality
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue == null || newValue.isEmpty()) {
-                supplierTable.setItems(supplierData);
-            } else {
-                ObservableList<SupplierAccountData> filteredList = FXCollections.observableArrayList();
-                for (SupplierAccountData supplier : supplierData) {
-                    if (supplier.getSupplierName().toLowerCase().contains(newValue.toLowerCase()) ||
-                        supplier.getContact().toLowerCase().contains(newValue.toLowerCase()) ||
-                        supplier.getTehsil().toLowerCase().contains(newValue.toLowerCase()) ||
-                        supplier.getDistrict().toLowerCase().contains(newValue.toLowerCase()) ||
-                        supplier.getProvince().toLowerCase().contains(newValue.toLowerCase())) {
-                        filteredList.add(supplier);
-                    }
+        // Search functionality: the full-text index finds the matching ids, the loaded rows are kept
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> searchAccounts(
+            searchField, supplierTable, supplierData, newValue, SearchIndex.Kind.SUPPLIER, SupplierAccountData::getSupplierId));
+
+        // Edits, payments and invoices anywhere update just the suppliers they touched;
+        // a search in progress is run again over the updated rows
+        LiveRows.bind(supplierTable, "Supplier", () -> supplierData, SupplierAccountData::getSupplierId,
+            AccountsContent::getSuppliersWithLocation, loadSuppliers, () -> {
+                if (supplierTable.getItems() != supplierData) {
+                    searchAccounts(searchField, supplierTable, supplierData, searchField.getText(),
+                                   SearchIndex.Kind.SUPPLIER, SupplierAccountData::getSupplierId);
                 }
-                supplierTable.setItems(filteredList);
-            }
-        });
+            });
 
         // Action buttons below the table
         HBox actionButtonsRow = new HBox(15);
@@ -479,7 +552,7 @@ public class AccountsContent {
         updateBtn.setOnAction(e -> {
             SupplierAccountData selectedSupplier = supplierTable.getSelectionModel().getSelectedItem();
             if (selectedSupplier != null) {
-                showUpdateSupplierDialog(selectedSupplier, supplierData, supplierTable);
+                showUpdateSupplierDialog(selectedSupplier);
             }
         });
         
@@ -493,7 +566,7 @@ public class AccountsContent {
         paymentBtn.setOnAction(e -> {
             SupplierAccountData selectedSupplier = supplierTable.getSelectionModel().getSelectedItem();
             if (selectedSupplier != null) {
-                showAddSupplierPaymentDialog(selectedSupplier.getSupplierName(), supplierData, supplierTable);
+                showAddSupplierPaymentDialog(selectedSupplier.getSupplierName());
             }
         });
 
@@ -511,9 +584,7 @@ public class AccountsContent {
     }
 
     // Dialog methods for customer operations
-    private static void showUpdateCustomerDialog(CustomerAccountData selectedCustomer, 
-                                               ObservableList<CustomerAccountData> customerData, 
-                                               TableView<CustomerAccountData> customerTable) {
+    private static void showUpdateCustomerDialog(CustomerAccountData selectedCustomer) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Update Customer");
         dialog.setHeaderText("Update customer information");
@@ -554,10 +625,7 @@ public class AccountsContent {
                 boolean success = config.database.updateCustomer(customerId, nameField.getText(), 
                                                                 contactField.getText(), tehsilCombo.getValue());
                 if (success) {
-                    // Refresh the table data
-                    customerData.clear();
-                    customerData.addAll(getAllCustomersWithLocation());
-                    customerTable.refresh();
+                    // The table updates the row from the change bus
                     
                     Alert alert = new Alert(Alert.AlertType.INFORMATION);
                     alert.setTitle("Success");
@@ -643,36 +711,21 @@ public class AccountsContent {
         
         ledgerTable.getColumns().addAll(dateCol, typeCol, amountCol, descCol, balanceCol, referenceCol);
         
-        // Load ledger data
-        ObservableList<Object[]> ledgerData = FXCollections.observableArrayList();
+        // Load ledger data a page at a time, oldest first; more is fetched as the table scrolls
+        java.util.function.BiConsumer<String, String> loadLedgerPages = (startDate, endDate) ->
+            PagedTableSource.load(ledgerTable, PagedTableSource.DEFAULT_PAGE_SIZE,
+                (afterId, limit) -> config.database.getCustomerLedgerPage(customerName, startDate, endDate, afterId, limit),
+                6, row -> row, error -> error.printStackTrace());
         
-        Runnable loadLedgerData = () -> {
-            try {
-                ledgerData.clear();
-                List<Object[]> transactions = config.database.getCustomerLedger(customerName);
-                ledgerData.addAll(transactions);
-                ledgerTable.setItems(ledgerData);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        };
+        Runnable loadLedgerData = () -> loadLedgerPages.accept(null, null);
         
         Runnable filterLedgerData = () -> {
-            try {
-                ledgerData.clear();
-                if (fromDatePicker.getValue() != null && toDatePicker.getValue() != null) {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-                    String startDate = fromDatePicker.getValue().format(formatter);
-                    String endDate = toDatePicker.getValue().format(formatter);
-                    List<Object[]> transactions = config.database.getCustomerLedgerByDateRange(customerName, startDate, endDate);
-                    ledgerData.addAll(transactions);
-                } else {
-                    List<Object[]> transactions = config.database.getCustomerLedger(customerName);
-                    ledgerData.addAll(transactions);
-                }
-                ledgerTable.setItems(ledgerData);
-            } catch (Exception e) {
-                e.printStackTrace();
+            if (fromDatePicker.getValue() != null && toDatePicker.getValue() != null) {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+                loadLedgerPages.accept(fromDatePicker.getValue().format(formatter),
+                                       toDatePicker.getValue().format(formatter));
+            } else {
+                loadLedgerPages.accept(null, null);
             }
         };
         
@@ -697,9 +750,7 @@ public class AccountsContent {
         ledgerStage.showAndWait();
     }
 
-    private static void showAddPaymentDialog(String customerName, 
-                                           ObservableList<CustomerAccountData> customerData, 
-                                           TableView<CustomerAccountData> customerTable) {
+    private static void showAddPaymentDialog(String customerName) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Add Customer Payment");
         dialog.setHeaderText("Add payment for: " + customerName);
@@ -776,10 +827,7 @@ public class AccountsContent {
                 boolean success = config.database.addCustomerPayment(customerName, paymentAmount, paymentDate, description);
                 
                 if (success) {
-                    // Refresh the table data
-                    customerData.clear();
-                    customerData.addAll(getAllCustomersWithLocation());
-                    customerTable.refresh();
+                    // The table updates the row from the change bus
                     
                     Alert alert = new Alert(Alert.AlertType.INFORMATION);
                     alert.setTitle("Success");
@@ -812,9 +860,7 @@ public class AccountsContent {
     }
     
     // Dialog methods for supplier operations
-    private static void showUpdateSupplierDialog(SupplierAccountData selectedSupplier, 
-                                               ObservableList<SupplierAccountData> supplierData, 
-                                               TableView<SupplierAccountData> supplierTable) {
+    private static void showUpdateSupplierDialog(SupplierAccountData selectedSupplier) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Update Supplier");
         dialog.setHeaderText("Update supplier information");
@@ -855,10 +901,7 @@ public class AccountsContent {
                 boolean success = config.database.updateSupplier(supplierId, nameField.getText(), 
                                                                 contactField.getText(), tehsilCombo.getValue());
                 if (success) {
-                    // Refresh the table data
-                    supplierData.clear();
-                    supplierData.addAll(getAllSuppliersWithLocation());
-                    supplierTable.refresh();
+                    // The table updates the row from the change bus
                     
                     Alert alert = new Alert(Alert.AlertType.INFORMATION);
                     alert.setTitle("Success");
@@ -944,36 +987,21 @@ public class AccountsContent {
         
         ledgerTable.getColumns().addAll(dateCol, typeCol, amountCol, descCol, balanceCol, referenceCol);
         
-        // Load ledger data
-        ObservableList<Object[]> ledgerData = FXCollections.observableArrayList();
+        // Load ledger data a page at a time, oldest first; more is fetched as the table scrolls
+        java.util.function.BiConsumer<String, String> loadLedgerPages = (startDate, endDate) ->
+            PagedTableSource.load(ledgerTable, PagedTableSource.DEFAULT_PAGE_SIZE,
+                (afterId, limit) -> config.database.getSupplierLedgerPage(supplierName, startDate, endDate, afterId, limit),
+                6, row -> row, error -> error.printStackTrace());
         
-        Runnable loadLedgerData = () -> {
-            try {
-                ledgerData.clear();
-                List<Object[]> transactions = config.database.getSupplierLedger(supplierName);
-                ledgerData.addAll(transactions);
-                ledgerTable.setItems(ledgerData);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        };
+        Runnable loadLedgerData = () -> loadLedgerPages.accept(null, null);
         
         Runnable filterLedgerData = () -> {
-            try {
-                ledgerData.clear();
-                if (fromDatePicker.getValue() != null && toDatePicker.getValue() != null) {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-                    String startDate = fromDatePicker.getValue().format(formatter);
-                    String endDate = toDatePicker.getValue().format(formatter);
-                    List<Object[]> transactions = config.database.getSupplierLedgerByDateRange(supplierName, startDate, endDate);
-                    ledgerData.addAll(transactions);
-                } else {
-                    List<Object[]> transactions = config.database.getSupplierLedger(supplierName);
-                    ledgerData.addAll(transactions);
-                }
-                ledgerTable.setItems(ledgerData);
-            } catch (Exception e) {
-                e.printStackTrace();
+            if (fromDatePicker.getValue() != null && toDatePicker.getValue() != null) {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+                loadLedgerPages.accept(fromDatePicker.getValue().format(formatter),
+                                       toDatePicker.getValue().format(formatter));
+            } else {
+                loadLedgerPages.accept(null, null);
             }
         };
         
@@ -998,9 +1026,7 @@ public class AccountsContent {
         ledgerStage.showAndWait();
     }
     
-    private static void showAddSupplierPaymentDialog(String supplierName, 
-                                                   ObservableList<SupplierAccountData> supplierData, 
-                                                   TableView<SupplierAccountData> supplierTable) {
+    private static void showAddSupplierPaymentDialog(String supplierName) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Add Supplier Payment");
         dialog.setHeaderText("Add payment for: " + supplierName);
@@ -1077,10 +1103,7 @@ public class AccountsContent {
                 boolean success = config.database.addSupplierPayment(supplierName, paymentAmount, paymentDate, description);
                 
                 if (success) {
-                    // Refresh the table data
-                    supplierData.clear();
-                    supplierData.addAll(getAllSuppliersWithLocation());
-                    supplierTable.refresh();
+                    // The table updates the row from the change bus
                     
                     Alert alert = new Alert(Alert.AlertType.INFORMATION);
                     alert.setTitle("Success");
@@ -1,6 +1,9 @@
 package com.cablemanagement.views.pages;
 
 import com.cablemanagement.config;
+import com.cablemanagement.database.SearchIndex;
+import com.cablemanagement.views.AsyncLoader;
+import com.cablemanagement.views.LiveRows;
 import com.cablemanagement.model.Bank;
 import com.cablemanagement.model.BankTransaction;
 import javafx.beans.property.ReadOnlyStringWrapper;
@@ -17,7 +20,9 @@ import javafx.util.StringConverter;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class BankManagementContent {
 
@@ -56,6 +61,12 @@ public class BankManagementContent {
         loadBanksFromDatabase();
         loadTransactionsFromDatabase();
 
+        // Entries made anywhere (this page, payments, salaries) show up in the lists;
+        // the page is kept between visits, so this is also how it catches up
+        LiveRows.watch(mainLayout, BankManagementContent::loadCashTransactionsFromDatabase, "Cash_Transaction");
+        LiveRows.watch(mainLayout, BankManagementContent::loadTransactionsFromDatabase, "Bank_Transaction");
+        LiveRows.watch(mainLayout, BankManagementContent::loadBanksFromDatabase, "Bank");
+
         return mainLayout;
     }
 
@@ -87,7 +98,6 @@ public class BankManagementContent {
 
     private static void loadTransactionsFromDatabase() {
     bankTransactions.clear();
-    cashTransactions.clear();
     
     if (config.database != null && config.database.isConnected()) {
         try {
@@ -104,24 +114,31 @@ public class BankManagementContent {
                 }
             }
 
-            // Load cash transactions
-            List<Object[]> cashRows = config.database.getAllCashTransactions();
-            for (Object[] row : cashRows) {
-                try {
-                    BankTransaction transaction = createTransactionFromRow(row, false);
-                    if (transaction != null) {
-                        cashTransactions.add(transaction);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error processing cash transaction row: " + e.getMessage());
-                }
-            }
+            loadCashTransactionsFromDatabase();
         } catch (Exception e) {
             System.err.println("Error loading transactions: " + e.getMessage());
         }
     }
 }
 
+private static void loadCashTransactionsFromDatabase() {
+    cashTransactions.clear();
+    if (config.database == null || !config.database.isConnected()) {
+        return;
+    }
+    List<Object[]> cashRows = config.database.getAllCashTransactions();
+    for (Object[] row : cashRows) {
+        try {
+            BankTransaction transaction = createTransactionFromRow(row, false);
+            if (transaction != null) {
+                cashTransactions.add(transaction);
+            }
+        } catch (Exception e) {
+            System.err.println("Error processing cash transaction row: " + e.getMessage());
+        }
+    }
+}
+
 private static BankTransaction createTransactionFromRow(Object[] row, boolean isBankTransaction) {
     if (row == null || row.length < 4) { // Minimum: date, type, amount, description
         System.err.println("Invalid row data - expected at least 4 columns, got " + 
@@ -131,7 +148,7 @@ private static BankTransaction createTransactionFromRow(Object[] row, boolean is
 
     try {
         if (isBankTransaction) {
-            // Bank transaction format: [transaction_date, bank_name, transaction_type, amount, description]
+            // Bank transaction format: [transaction_date, bank_name, transaction_type, amount, description, id]
             String date = row[0] != null ? row[0].toString() : LocalDate.now().toString();
             String bankName = row[1] != null ? row[1].toString() : "";
             String type = row[2] != null ? row[2].toString() : "unknown";
@@ -142,9 +159,10 @@ private static BankTransaction createTransactionFromRow(Object[] row, boolean is
             int bankId = findBankIdByName(bankName);
             System.out.println("Creating bank transaction - Bank Name: " + bankName + ", Found Bank ID: " + bankId);
             
-            return new BankTransaction(0, bankId, date, type, amount, description, 0);
+            int id = row.length > 5 && row[5] instanceof Number ? ((Number) row[5]).intValue() : 0;
+            return new BankTransaction(id, bankId, date, type, amount, description, 0);
         } else {
-            // Cash transaction format: [date, transaction_type, amount, description, source]
+            // Cash transaction format: [date, transaction_type, amount, description, source, id]
             String date = row[0] != null ? row[0].toString() : LocalDate.now().toString();
             String type = row[1] != null ? row[1].toString() : "unknown";
             double amount = safeParseDouble(row[2]);
@@ -160,7 +178,10 @@ private static BankTransaction createTransactionFromRow(Object[] row, boolean is
                 relatedBankId = 0; // For now, set to 0 but could be enhanced
             }
             
-            return new BankTransaction(0, bankId, date, type, amount, description, relatedBankId);
+            int id = row.length > 5 && row[5] instanceof Number ? ((Number) row[5]).intValue() : 0;
+            BankTransaction transaction = new BankTransaction(id, bankId, date, type, amount, description, relatedBankId);
+            transaction.setSource(row.length > 4 && row[4] != null ? row[4].toString() : "cash");
+            return transaction;
         }
     } catch (Exception e) {
         System.err.println("Error creating transaction from row: " + e.getMessage());
@@ -728,11 +749,15 @@ private static double safeParseDouble(Object value) {
         // Current Cash Balance Display
         double cashBalance = calculateCashBalance();
         Label balanceLabel = new Label(String.format("Current Cash Balance: Rs. %.2f", cashBalance));
+        // Kept current by every cash entry, wherever it is made
+        LiveRows.watch(balanceLabel, () -> AsyncLoader.load(balanceLabel, BankManagementContent::calculateCashBalance,
+            balance -> balanceLabel.setText(String.format("Current Cash Balance: Rs. %.2f", balance)), null),
+            "Cash_Transaction");
         balanceLabel.getStyleClass().add("amount-label");
         balanceLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
 
         // Cash Transaction Form
-        VBox transactionForm = createCashTransactionForm(balanceLabel);
+        VBox transactionForm = createCashTransactionForm();
         
      
 
@@ -740,7 +765,7 @@ private static double safeParseDouble(Object value) {
         return box;
     }
 
-    private static VBox createCashTransactionForm(Label balanceLabel) {
+    private static VBox createCashTransactionForm() {
         VBox form = new VBox(15);
         form.setPadding(new Insets(20));
         form.getStyleClass().add("form-container");
@@ -812,16 +837,9 @@ private static double safeParseDouble(Object value) {
 
                 if (config.database != null && config.database.isConnected()) {
                     if (config.database.insertCashTransaction(transaction)) {
-                        // Update balance display
-                        double newBalance = calculateCashBalance();
-                        balanceLabel.setText(String.format("Current Cash Balance: Rs. %.2f", newBalance));
-                        
-                        // Clear form
+                        // The balance and the cash ledger follow from the change bus
                         clearCashTransactionForm(transactionType, amountField, descriptionField, datePicker);
                         
-                        // Refresh table if it exists
-                        refreshCashTransactionsTable();
-                        
                         showAlert("Success", "Cash transaction added successfully!");
                     } else {
                         showAlert("Error", "Failed to add cash transaction!");
@@ -979,30 +997,22 @@ private static double safeParseDouble(Object value) {
     }
 
     private static void loadCashTransactionsTable(TableView<BankTransaction> table) {
-        ObservableList<BankTransaction> transactions = FXCollections.observableArrayList();
-        
-        if (config.database != null && config.database.isConnected()) {
-            try {
-                List<Object[]> cashRows = config.database.getAllCashTransactions();
-                for (Object[] row : cashRows) {
-                    BankTransaction transaction = createTransactionFromRow(row, false);
-                    if (transaction != null) {
-                        transactions.add(transaction);
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Error loading cash transactions: " + e.getMessage());
-            }
+        if (config.database == null || !config.database.isConnected()) {
+            table.setItems(FXCollections.observableArrayList());
+            return;
         }
-        
-        table.setItems(transactions);
-    }
 
-    private static void refreshCashTransactionsTable() {
-        // This method can be called to refresh any existing cash transactions table
-        // Since we're using a modular approach, the table will be refreshed when the view is reloaded
-        cashTransactions.clear();
-        loadTransactionsFromDatabase();
+        AsyncLoader.load(table, () -> {
+            ObservableList<BankTransaction> transactions = FXCollections.observableArrayList();
+            List<Object[]> cashRows = config.database.getAllCashTransactions();
+            for (Object[] row : cashRows) {
+                BankTransaction transaction = createTransactionFromRow(row, false);
+                if (transaction != null) {
+                    transactions.add(transaction);
+                }
+            }
+            return transactions;
+        }, table::setItems, error -> System.err.println("Error loading cash transactions: " + error.getMessage()));
     }
 
     private static double calculateCashBalance() {
@@ -1229,27 +1239,27 @@ private static VBox viewCashLedger() {
     
     // Add listeners to all filter controls
     searchField.textProperty().addListener((observable, oldValue, newValue) -> applyFilters(
-        filteredData, searchField.getText(), sourceFilter.getValue(), 
+        searchField, filteredData, searchField.getText(), sourceFilter.getValue(), 
         typeFilter.getValue(), fromDatePicker.getValue(), toDatePicker.getValue()
     ));
     
     sourceFilter.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters(
-        filteredData, searchField.getText(), sourceFilter.getValue(), 
+        searchField, filteredData, searchField.getText(), sourceFilter.getValue(), 
         typeFilter.getValue(), fromDatePicker.getValue(), toDatePicker.getValue()
     ));
     
     typeFilter.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters(
-        filteredData, searchField.getText(), sourceFilter.getValue(), 
+        searchField, filteredData, searchField.getText(), sourceFilter.getValue(), 
         typeFilter.getValue(), fromDatePicker.getValue(), toDatePicker.getValue()
     ));
     
     fromDatePicker.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters(
-        filteredData, searchField.getText(), sourceFilter.getValue(), 
+        searchField, filteredData, searchField.getText(), sourceFilter.getValue(), 
         typeFilter.getValue(), fromDatePicker.getValue(), toDatePicker.getValue()
     ));
     
     toDatePicker.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters(
-        filteredData, searchField.getText(), sourceFilter.getValue(), 
+        searchField, filteredData, searchField.getText(), sourceFilter.getValue(), 
         typeFilter.getValue(), fromDatePicker.getValue(), toDatePicker.getValue()
     ));
     
@@ -1263,7 +1273,7 @@ private static VBox viewCashLedger() {
         
         // Explicitly reapply filters to reset the table view
         applyFilters(
-            filteredData, null, "All Sources", "All Types", null, null
+            searchField, filteredData, null, "All Sources", "All Types", null, null
         );
     });
     
@@ -1275,13 +1285,44 @@ private static VBox viewCashLedger() {
 }
 
 // Helper method for applying filters to the transaction list
-private static void applyFilters(FilteredList<BankTransaction> filteredData, String searchText, 
+private static void applyFilters(TextField searchField, FilteredList<BankTransaction> filteredData, String searchText,
                                String sourceFilter, String typeFilter, 
                                LocalDate fromDate, LocalDate toDate) {
+    if (searchText == null || searchText.trim().isEmpty()) {
+        AsyncLoader.cancel(searchField);
+        setFilterPredicate(filteredData, null, sourceFilter, typeFilter, fromDate, toDate);
+        return;
+    }
+    // Look the search text up in the full-text index off the FX thread; each hit names its table and row
+    AsyncLoader.load(searchField, () -> config.database.search(searchText, 0,
+            SearchIndex.Kind.BANK_TRANSACTION, SearchIndex.Kind.CASH_TRANSACTION), hits -> {
+        Set<String> keys = new HashSet<>();
+        for (SearchIndex.Hit hit : hits) {
+            keys.add(searchKey(hit.kind(), hit.id()));
+        }
+        setFilterPredicate(filteredData, keys, sourceFilter, typeFilter, fromDate, toDate);
+    }, null);
+}
+
+private static String searchKey(SearchIndex.Kind kind, int id) {
+    return kind + ":" + id;
+}
+
+private static String searchKey(BankTransaction transaction) {
+    SearchIndex.Kind kind = "cash".equals(transaction.getSource())
+        ? SearchIndex.Kind.CASH_TRANSACTION : SearchIndex.Kind.BANK_TRANSACTION;
+    return searchKey(kind, transaction.getTransactionId());
+}
+
+/**
+ * @param searchKeys The search hits, see {@link #searchKey}; null when there is no search text
+ */
+private static void setFilterPredicate(FilteredList<BankTransaction> filteredData, Set<String> searchKeys,
+                                       String sourceFilter, String typeFilter,
+                                       LocalDate fromDate, LocalDate toDate) {
     filteredData.setPredicate(transaction -> {
         // If all filters are empty or default, show all items
-        boolean matchesSearch = searchText == null || searchText.isEmpty() || 
-                transaction.getDescription().toLowerCase().contains(searchText.toLowerCase());
+        boolean matchesSearch = searchKeys == null || searchKeys.contains(searchKey(transaction));
         
         // Source filtering
         boolean matchesSource = true;
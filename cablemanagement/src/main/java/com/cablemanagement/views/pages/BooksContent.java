@@ -1,7 +1,9 @@
 package com.cablemanagement.views.pages;
 
 import com.cablemanagement.config;
-import com.cablemanagement.database.SQLiteDatabase;
+import com.cablemanagement.database.db;
+import com.cablemanagement.views.PageRefresh;
+import com.cablemanagement.views.PagedTableSource;
 import com.cablemanagement.invoice.*;
 import com.cablemanagement.model.*;
 
@@ -275,6 +277,8 @@ public class BooksContent {
         });
 
         form.getChildren().addAll(filters, buttons, table);
+        // A page refresh loads the rows again for the filters picked
+        PageRefresh.reloadWith(table, loadBtn::fire);
         loadPurchaseData(table, (DatePicker) filters.getChildren().get(0).lookup(".date-picker"),
                 (DatePicker) filters.getChildren().get(1).lookup(".date-picker"), supplierFilter);
         return form;
@@ -415,6 +419,7 @@ public class BooksContent {
         });
 
         form.getChildren().addAll(filters, buttons, table);
+        PageRefresh.reloadWith(table, loadBtn::fire);
         loadReturnPurchaseData(table, (DatePicker) filters.getChildren().get(0).lookup(".date-picker"),
                 (DatePicker) filters.getChildren().get(1).lookup(".date-picker"), supplierFilter);
         return form;
@@ -527,6 +532,7 @@ public class BooksContent {
         });
 
         form.getChildren().addAll(filters, buttons, table);
+        PageRefresh.reloadWith(table, loadBtn::fire);
         loadRawStockData(table, (DatePicker) filters.getChildren().get(0).lookup(".date-picker"),
                 (DatePicker) filters.getChildren().get(1).lookup(".date-picker"), itemFilter);
         return form;
@@ -607,6 +613,7 @@ public class BooksContent {
         });
 
         form.getChildren().addAll(filters, buttons, table);
+        PageRefresh.reloadWith(table, loadBtn::fire);
         loadProductionData(table, (DatePicker) filters.getChildren().get(0).lookup(".date-picker"),
                 (DatePicker) filters.getChildren().get(1).lookup(".date-picker"), productFilter);
         return form;
@@ -657,8 +664,8 @@ public class BooksContent {
                 List<Item> printItems = new ArrayList<>();
                 
                 if (returnInvoiceId > 0) {
-                    // Get detailed return invoice items using SQLiteDatabase directly
-                    SQLiteDatabase sqliteDb = (SQLiteDatabase) config.database;
+                    // Get detailed return invoice items
+                    db sqliteDb = config.database;
                     List<Object[]> returnItems = sqliteDb.getProductionReturnInvoiceItems(returnInvoiceId);
                     for (Object[] item : returnItems) {
                         int productionId = (Integer) item[1];
@@ -707,6 +714,7 @@ public class BooksContent {
         });
 
         form.getChildren().addAll(filters, buttons, table);
+        PageRefresh.reloadWith(table, loadBtn::fire);
         loadReturnProductionData(table, (DatePicker) filters.getChildren().get(0).lookup(".date-picker"),
                 (DatePicker) filters.getChildren().get(1).lookup(".date-picker"));
         return form;
@@ -829,6 +837,7 @@ public class BooksContent {
         });
 
         form.getChildren().addAll(filters, buttons, table);
+        PageRefresh.reloadWith(table, loadBtn::fire);
         loadSalesData(table, (DatePicker) filters.getChildren().get(0).lookup(".date-picker"),
                 (DatePicker) filters.getChildren().get(1).lookup(".date-picker"), customerFilter);
         return form;
@@ -949,6 +958,7 @@ public class BooksContent {
         });
 
         form.getChildren().addAll(filters, buttons, table);
+        PageRefresh.reloadWith(table, loadBtn::fire);
         loadReturnSalesData(table, (DatePicker) filters.getChildren().get(0).lookup(".date-picker"),
                 (DatePicker) filters.getChildren().get(1).lookup(".date-picker"), customerFilter);
         return form;
@@ -1147,66 +1157,78 @@ private static TableView<PurchaseRecord> createPurchaseTable(ObservableList<Purc
     }
 
     // Data loading methods
+    // The book tables are paged: each load shows the first page and fetches more as the table scrolls.
 private static void loadPurchaseData(TableView<PurchaseRecord> table, DatePicker fromDatePicker, 
                                     DatePicker toDatePicker, ComboBox<String> supplierFilter) {
-    ObservableList<PurchaseRecord> data = FXCollections.observableArrayList();
-    try {
-        Map<String, String> filters = new HashMap<>();
-        if (fromDatePicker.getValue() != null) {
-            filters.put("fromDate", fromDatePicker.getValue().format(DATE_FORMATTER));
-        }
-        if (toDatePicker.getValue() != null) {
-            filters.put("toDate", toDatePicker.getValue().format(DATE_FORMATTER));
-        }
-        if (supplierFilter.getValue() != null && !supplierFilter.getValue().isEmpty()) {
-            filters.put("supplier_name", supplierFilter.getValue()); // Use supplier_name for View_Purchase_Book
-        }
-
-        List<Object[]> result = config.database.getViewData("View_Purchase_Book", filters);
-        System.out.println("View_Purchase_Book results: " + result.size() + " rows");
-
-        // Use a set to track seen invoice numbers and skip duplicates
-        java.util.HashSet<String> seenInvoiceIds = new java.util.HashSet<>();
-        for (Object[] row : result) {
-            String invoiceId = row[0] != null ? row[0].toString() : "";
-            if (seenInvoiceIds.contains(invoiceId)) {
-            continue; // Skip duplicate invoice ids
-            }
-            seenInvoiceIds.add(invoiceId);
+    // Read the filters on the FX thread, run the query and row mapping in the background
+    Map<String, String> filters = new HashMap<>();
+    if (fromDatePicker.getValue() != null) {
+        filters.put("fromDate", fromDatePicker.getValue().format(DATE_FORMATTER));
+    }
+    if (toDatePicker.getValue() != null) {
+        filters.put("toDate", toDatePicker.getValue().format(DATE_FORMATTER));
+    }
+    if (supplierFilter.getValue() != null && !supplierFilter.getValue().isEmpty() && !supplierFilter.getValue().equals("All Suppliers")) {
+        filters.put("supplier_name", supplierFilter.getValue()); // Use supplier_name for View_Purchase_Book
+    }
 
-            data.add(new PurchaseRecord(
-            invoiceId, // raw_purchase_invoice_id
+    // One row per invoice, keyed on raw_purchase_invoice_id
+    PagedTableSource.load(table, PagedTableSource.DEFAULT_PAGE_SIZE,
+        (afterId, limit) -> config.database.getViewDataPage("View_Purchase_Book", filters, afterId, limit, true),
+        0,
+        row -> new PurchaseRecord(
+            row[0] != null ? row[0].toString() : "", // raw_purchase_invoice_id
             row[1] != null ? row[1].toString() : "", // invoice_number
             row[2] != null ? row[2].toString() : "", // supplier_name
             row[3] != null ? row[3].toString() : "", // invoice_date (string)
             row[4] != null ? row[4].toString() : "", // item_name
             row[5] != null ? row[5].toString() : "", // brand_name
             row[6] != null ? row[6].toString() : "", // manufacturer_name
-            row[7] != null ? Double.parseDouble(row[7].toString()) : 0.0, // quantity
-            row[8] != null ? Double.parseDouble(row[8].toString()) : 0.0, // unit_price
-            row[9] != null ? Double.parseDouble(row[9].toString()) : 0.0, // item_total
-            row[10] != null ? Double.parseDouble(row[10].toString()) : 0.0, // total_amount
-            row[11] != null ? Double.parseDouble(row[11].toString()) : 0.0, // discount_amount
-            row[12] != null ? Double.parseDouble(row[12].toString()) : 0.0, // paid_amount
-            row[13] != null ? Double.parseDouble(row[13].toString()) : 0.0 // balance_due
-            ));
-        }
-    } catch (Exception e) {
-        showAlert("Database Error", "Failed to load purchase data: " + e.getMessage());
-        e.printStackTrace();
+            number(row[7]), // quantity
+            number(row[8]), // unit_price
+            number(row[9]), // item_total
+            number(row[10]), // total_amount
+            number(row[11]), // discount_amount
+            number(row[12]), // paid_amount
+            number(row[13]) // balance_due
+        ),
+        error -> showAlert("Database Error", "Failed to load purchase data: " + error.getMessage()));
+}
+private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table, DatePicker fromDate, DatePicker toDate, ComboBox<String> supplierFilter) {
+    Map<String, String> filters = new HashMap<>();
+    if (fromDate.getValue() != null) {
+        filters.put("fromDate", fromDate.getValue().format(DATE_FORMATTER));
     }
-
-    table.setItems(data);
-
-    // Debug output
-    System.out.println("Table items count: " + table.getItems().size());
-    if (!table.getItems().isEmpty()) {
-        System.out.println("First record: " + table.getItems().get(0).getInvoiceNumber());
+    if (toDate.getValue() != null) {
+        filters.put("toDate", toDate.getValue().format(DATE_FORMATTER));
     }
+    if (supplierFilter.getValue() != null && !supplierFilter.getValue().isEmpty() && !supplierFilter.getValue().equals("All Suppliers")) {
+        filters.put("supplier_name", supplierFilter.getValue());
+    }
+
+    PagedTableSource.load(table, PagedTableSource.DEFAULT_PAGE_SIZE,
+        (afterId, limit) -> config.database.getViewDataPage("View_Return_Purchase_Book", filters, afterId, limit, true),
+        0,
+        row -> new ReturnPurchaseRecord(
+            row[0] != null ? row[0].toString() : "", // raw_purchase_invoice_id (return_invoice_id)
+            row[1] != null ? row[1].toString() : "", // invoice_number (return_invoice_number)
+            row[2] != null ? row[2].toString() : "", // supplier_name
+            row[3] != null ? row[3].toString() : "", // invoice_date (return_date)
+            row[4] != null ? row[4].toString() : "", // item_name
+            row[5] != null ? row[5].toString() : "", // brand_name
+            row[6] != null ? row[6].toString() : "", // manufacturer_name
+            number(row[7]), // quantity (return_quantity)
+            number(row[8]), // unit_price
+            number(row[9]), // item_total
+            number(row[10]), // total_amount (total_return_amount)
+            number(row[11]), // discount_amount
+            number(row[12]), // paid_amount
+            number(row[13]) // balance
+        ),
+        error -> showAlert("Database Error", "Failed to load return purchase data: " + error.getMessage()));
 }
-private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table, DatePicker fromDate, DatePicker toDate, ComboBox<String> supplierFilter) {
-    ObservableList<ReturnPurchaseRecord> data = FXCollections.observableArrayList();
-    try {
+
+    private static void loadRawStockData(TableView<RawStockRecord> table, DatePicker fromDate, DatePicker toDate, ComboBox<String> itemFilter) {
         Map<String, String> filters = new HashMap<>();
         if (fromDate.getValue() != null) {
             filters.put("fromDate", fromDate.getValue().format(DATE_FORMATTER));
@@ -1214,98 +1236,20 @@ private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table
         if (toDate.getValue() != null) {
             filters.put("toDate", toDate.getValue().format(DATE_FORMATTER));
         }
-        if (supplierFilter.getValue() != null && !supplierFilter.getValue().isEmpty() && !supplierFilter.getValue().equals("All Suppliers")) {
-            filters.put("supplier_name", supplierFilter.getValue());
+        if (itemFilter.getValue() != null && !itemFilter.getValue().isEmpty() && !itemFilter.getValue().equals("All Items")) {
+            filters.put("item_name", itemFilter.getValue());
         }
 
-        List<Object[]> result = config.database.getViewData("View_Return_Purchase_Book", filters);
-        System.out.println("View_Return_Purchase_Book results: " + result.size() + " rows");
-
-        // Use a set to track seen invoice numbers and skip duplicates
-        java.util.HashSet<String> seenInvoiceIds = new java.util.HashSet<>();
-        for (Object[] row : result) {
-            String invoiceId = row[0] != null ? row[0].toString() : "";
-            if (seenInvoiceIds.contains(invoiceId)) {
-                continue; // Skip duplicate invoice ids
-            }
-            seenInvoiceIds.add(invoiceId);
-
-            data.add(new ReturnPurchaseRecord(
-                invoiceId, // raw_purchase_invoice_id (return_invoice_id)
-                row[1] != null ? row[1].toString() : "", // invoice_number (return_invoice_number)
-                row[2] != null ? row[2].toString() : "", // supplier_name
-                row[3] != null ? row[3].toString() : "", // invoice_date (return_date)
+        PagedTableSource.load(table, PagedTableSource.DEFAULT_PAGE_SIZE,
+            (afterId, limit) -> config.database.getViewDataPage("View_Raw_Stock_Book", filters, afterId, limit, true),
+            0,
+            row -> new RawStockRecord(
+                row[3] != null ? row[3].toString() : "", // invoice_date (usage_date)
                 row[4] != null ? row[4].toString() : "", // item_name
-                row[5] != null ? row[5].toString() : "", // brand_name
-                row[6] != null ? row[6].toString() : "", // manufacturer_name
-                row[7] != null ? Double.parseDouble(row[7].toString()) : 0.0, // quantity (return_quantity)
-                row[8] != null ? Double.parseDouble(row[8].toString()) : 0.0, // unit_price
-                row[9] != null ? Double.parseDouble(row[9].toString()) : 0.0, // item_total
-                row[10] != null ? Double.parseDouble(row[10].toString()) : 0.0, // total_amount (total_return_amount)
-                row[11] != null ? Double.parseDouble(row[11].toString()) : 0.0, // discount_amount
-                row[12] != null ? Double.parseDouble(row[12].toString()) : 0.0, // paid_amount
-                row[13] != null ? Double.parseDouble(row[13].toString()) : 0.0 // balance
-            ));
-        }
-    } catch (Exception e) {
-        showAlert("Database Error", "Failed to load return purchase data: " + e.getMessage());
-        e.printStackTrace();
-    }
-
-    table.setItems(data);
-
-    // Debug output
-    System.out.println("Return Purchase Table items count: " + table.getItems().size());
-    if (!table.getItems().isEmpty()) {
-        System.out.println("First return record: " + table.getItems().get(0).getReturnInvoice());
-    }
-}
-
-    private static void loadRawStockData(TableView<RawStockRecord> table, DatePicker fromDate, DatePicker toDate, ComboBox<String> itemFilter) {
-        ObservableList<RawStockRecord> data = FXCollections.observableArrayList();
-        try {
-            Map<String, String> filters = new HashMap<>();
-            if (fromDate.getValue() != null) {
-                filters.put("fromDate", fromDate.getValue().format(DATE_FORMATTER));
-            }
-            if (toDate.getValue() != null) {
-                filters.put("toDate", toDate.getValue().format(DATE_FORMATTER));
-            }
-            if (itemFilter.getValue() != null && !itemFilter.getValue().isEmpty() && !itemFilter.getValue().equals("All Items")) {
-                filters.put("item_name", itemFilter.getValue());
-            }
-
-            List<Object[]> result = config.database.getViewData("View_Raw_Stock_Book", filters);
-            System.out.println("View_Raw_Stock_Book results: " + result.size() + " rows");
-
-            // Use a set to track seen invoice numbers and skip duplicates
-            java.util.HashSet<String> seenInvoiceIds = new java.util.HashSet<>();
-            for (Object[] row : result) {
-                String invoiceId = row[0] != null ? row[0].toString() : "";
-                if (seenInvoiceIds.contains(invoiceId)) {
-                    continue; // Skip duplicate invoice ids
-                }
-                seenInvoiceIds.add(invoiceId);
-
-                data.add(new RawStockRecord(
-                    row[3] != null ? row[3].toString() : "", // invoice_date (usage_date)
-                    row[4] != null ? row[4].toString() : "", // item_name
-                    row[7] != null ? Double.parseDouble(row[7].toString()) : 0.0, // quantity (quantity_used)
-                    row[1] != null ? row[1].toString() : "" // invoice_number (use_invoice_number) as reference
-                ));
-            }
-        } catch (Exception e) {
-            showAlert("Database Error", "Failed to load raw stock usage data: " + e.getMessage());
-            e.printStackTrace();
-        }
-
-        table.setItems(data);
-
-        // Debug output
-        System.out.println("Raw Stock Usage Table items count: " + table.getItems().size());
-        if (!table.getItems().isEmpty()) {
-            System.out.println("First usage record: " + table.getItems().get(0).getReference());
-        }
+                number(row[7]), // quantity (quantity_used)
+                row[1] != null ? row[1].toString() : "" // invoice_number (use_invoice_number) as reference
+            ),
+            error -> showAlert("Database Error", "Failed to load raw stock usage data: " + error.getMessage()));
     }
 
     private static void loadProductionData(TableView<ProductionRecord> table, DatePicker fromDate, DatePicker toDate, ComboBox<String> productFilter) {
@@ -1328,26 +1272,17 @@ private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table
             System.out.println("Product filter: " + productFilter.getValue());
         }
 
-        System.out.println("Executing query for View_Production_Book");
-        // Use production_date instead of date in the filter
-        List<Object[]> rows = config.database.getViewData("View_Production_Book", filters);
-        System.out.println("Retrieved " + (rows != null ? rows.size() : 0) + " rows from View_Production_Book");
-        
-        ObservableList<ProductionRecord> data = FXCollections.observableArrayList();
-        if (rows != null) {
-            for (Object[] row : rows) {
-                if (row != null) {
-                    System.out.println("Processing row: " + java.util.Arrays.toString(row));
-                    data.add(new ProductionRecord(
-                        row[1] != null ? row[1].toString() : "", // production_date
-                        row[2] != null ? row[2].toString() : "", // product_name
-                        row[3] != null ? Double.parseDouble(row[3].toString()) : 0.0, // quantity_produced
-                        row[8] != null ? row[8].toString() : "" // notes
-                    ));
-                }
-            }
-        }
-        table.setItems(data);
+        // Every produced item is a row, so pages hold whole invoices with all their lines
+        PagedTableSource.load(table, PagedTableSource.DEFAULT_PAGE_SIZE,
+            (afterId, limit) -> config.database.getViewDataPage("View_Production_Book", filters, afterId, limit, false),
+            0,
+            row -> new ProductionRecord(
+                row[1] != null ? row[1].toString() : "", // production_date
+                row[2] != null ? row[2].toString() : "", // product_name
+                number(row[3]), // quantity_produced
+                row[8] != null ? row[8].toString() : "" // notes
+            ),
+            error -> showAlert("Database Error", "Failed to load production data: " + error.getMessage()));
     }
 
     private static void loadReturnProductionData(TableView<ReturnProductionRecord> table, DatePicker fromDate, DatePicker toDate) {
@@ -1367,125 +1302,49 @@ private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table
         }
 
         System.out.println("Loading return production data with filters: " + filters);
-        System.out.println("Executing query for View_Return_Production_Book");
-        List<Object[]> rows = config.database.getViewData("View_Return_Production_Book", filters);
-        System.out.println("Retrieved " + (rows != null ? rows.size() : 0) + " rows from View_Return_Production_Book");
-
-        ObservableList<ReturnProductionRecord> data = FXCollections.observableArrayList();
-        if (rows != null) {
-            for (Object[] row : rows) {
-                if (row != null) {
-                    System.out.println("Processing row: " + java.util.Arrays.toString(row));
-                    data.add(new ReturnProductionRecord(
-                        row[2] != null ? row[2].toString() : "", // return_date
-                        row[1] != null ? row[1].toString() : "", // return_invoice_number
-                        row[3] != null ? Double.parseDouble(row[3].toString()) : 0.0 // quantity_returned
-                    ));
-                }
-            }
-        }
-        table.setItems(data);
+        PagedTableSource.load(table, PagedTableSource.DEFAULT_PAGE_SIZE,
+            (afterId, limit) -> config.database.getViewDataPage("View_Return_Production_Book", filters, afterId, limit, false),
+            0,
+            row -> new ReturnProductionRecord(
+                row[2] != null ? row[2].toString() : "", // return_date
+                row[1] != null ? row[1].toString() : "", // return_invoice_number
+                number(row[3]) // quantity_returned
+            ),
+            error -> showAlert("Database Error", "Failed to load return production data: " + error.getMessage()));
     }
 
     private static void loadSalesData(TableView<SalesRecord> table, DatePicker fromDate, DatePicker toDate, ComboBox<String> customerFilter) {
-        ObservableList<SalesRecord> data = FXCollections.observableArrayList();
-        try {
-            Map<String, String> filters = new HashMap<>();
-            if (fromDate.getValue() != null) {
-                filters.put("fromDate", fromDate.getValue().format(DATE_FORMATTER));
-            }
-            if (toDate.getValue() != null) {
-                filters.put("toDate", toDate.getValue().format(DATE_FORMATTER));
-            }
-            if (customerFilter.getValue() != null && !customerFilter.getValue().isEmpty() && !customerFilter.getValue().equals("All Customers")) {
-                filters.put("customer_name", customerFilter.getValue());
-            }
-
-            // Get all sales invoices directly since View_Sales_Book doesn't exist
-            List<Object[]> result = null;
-            try {
-                result = config.database.getAllSalesInvoices();
-                System.out.println("Direct sales invoice results: " + result.size() + " rows");
-            } catch (Exception e) {
-                System.err.println("Failed to load sales invoices: " + e.getMessage());
-                result = new ArrayList<>();
-            }
-
-            // Filter the results manually based on date and customer filters
-            List<Object[]> filteredResult = new ArrayList<>();
-            for (Object[] row : result) {
-                // getAllSalesInvoices() returns: sales_invoice_number, sales_date, customer_name, total_amount, discount_amount, paid_amount
-                String salesDate = row[1] != null ? row[1].toString() : "";
-                String customerName = row[2] != null ? row[2].toString() : "";
-                
-                // Apply date filtering
-                boolean passesDateFilter = true;
-                if (fromDate != null && toDate != null && !salesDate.isEmpty()) {
-                    try {
-                        LocalDate invoiceDate = LocalDate.parse(salesDate);
-                        LocalDate fromLocalDate = fromDate.getValue();
-                        LocalDate toLocalDate = toDate.getValue();
-                        if (fromLocalDate != null && toLocalDate != null) {
-                            passesDateFilter = !invoiceDate.isBefore(fromLocalDate) && !invoiceDate.isAfter(toLocalDate);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error parsing date: " + salesDate);
-                        passesDateFilter = false;
-                    }
-                }
-                
-                // Apply customer filtering
-                boolean passesCustomerFilter = true;
-                if (customerFilter.getValue() != null && !customerFilter.getValue().isEmpty() && !customerFilter.getValue().equals("All Customers")) {
-                    String filterValue = customerFilter.getValue().toLowerCase();
-                    passesCustomerFilter = customerName.toLowerCase().contains(filterValue);
-                }
-                
-                if (passesDateFilter && passesCustomerFilter) {
-                    filteredResult.add(row);
-                }
-            }
-            
-            System.out.println("Filtered sales invoice results: " + filteredResult.size() + " rows");
-
-            // Use a set to track seen invoice numbers and skip duplicates
-            java.util.HashSet<String> seenInvoiceNumbers = new java.util.HashSet<>();
-            for (Object[] row : filteredResult) {
-                // getAllSalesInvoices() format: sales_invoice_number, sales_date, customer_name, total_amount, discount_amount, paid_amount
-                String invoiceNumber = row[0] != null ? row[0].toString() : "";
-                if (seenInvoiceNumbers.contains(invoiceNumber)) {
-                    continue; // Skip duplicate invoice numbers
-                }
-                seenInvoiceNumbers.add(invoiceNumber);
-
-                String customerName = row[2] != null ? row[2].toString() : "";
-                String salesDate = row[1] != null ? row[1].toString() : "";
-                double totalAmount = row[3] != null ? Double.parseDouble(row[3].toString()) : 0.0;
-                double discountAmount = row[4] != null ? Double.parseDouble(row[4].toString()) : 0.0;
-                double paidAmount = row[5] != null ? Double.parseDouble(row[5].toString()) : 0.0;
-
-                // Data is already filtered above, so just add to the results
-                data.add(new SalesRecord(
-                    invoiceNumber,
-                    salesDate,
-                    customerName,
-                    totalAmount,
-                    discountAmount,
-                    paidAmount
-                ));
-            }
-        } catch (Exception e) {
-            showAlert("Database Error", "Failed to load sales data: " + e.getMessage());
-            e.printStackTrace();
+        String from = fromDate.getValue() != null ? fromDate.getValue().format(DATE_FORMATTER) : null;
+        String to = toDate.getValue() != null ? toDate.getValue().format(DATE_FORMATTER) : null;
+        String customer = null;
+        if (customerFilter.getValue() != null && !customerFilter.getValue().isEmpty() && !customerFilter.getValue().equals("All Customers")) {
+            customer = customerFilter.getValue();
         }
+        String customerName = customer;
+
+        // Newest invoices first, keyed on sales_invoice_id (column 6)
+        PagedTableSource.load(table, PagedTableSource.DEFAULT_PAGE_SIZE,
+            (afterId, limit) -> config.database.getSalesInvoicesPage(from, to, customerName, afterId, limit),
+            6,
+            row -> new SalesRecord(
+                row[0] != null ? row[0].toString() : "", // sales_invoice_number
+                row[1] != null ? row[1].toString() : "", // sales_date
+                row[2] != null ? row[2].toString() : "", // customer_name
+                number(row[3]), // total_amount
+                number(row[4]), // discount_amount
+                number(row[5]) // paid_amount
+            ),
+            error -> showAlert("Database Error", "Failed to load sales data: " + error.getMessage()));
+    }
 
-        table.setItems(data);
-
-        // Debug output
-        System.out.println("Sales Table items count: " + table.getItems().size());
-        if (!table.getItems().isEmpty()) {
-            System.out.println("First sales record: " + table.getItems().get(0).getInvoiceNumber());
+    /**
+     * A numeric column as a double, 0 when it is null.
+     */
+    private static double number(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
         }
+        return value != null ? Double.parseDouble(value.toString()) : 0.0;
     }
 
     private static void loadReturnSalesData(TableView<ReturnSalesRecord> table, DatePicker fromDate, DatePicker toDate, ComboBox<String> customerFilter) {
@@ -1584,14 +1443,18 @@ private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table
     private static ComboBox<String> createSupplierComboBox() {
         ComboBox<String> comboBox = new ComboBox<>();
         comboBox.setPromptText("All Suppliers");
-        if (config.database != null && config.database.isConnected()) {
-            List<Supplier> suppliers = config.database.getAllSuppliers();
-            ObservableList<String> items = FXCollections.observableArrayList("All Suppliers");
-            for (Supplier supplier : suppliers) {
-                items.add(supplier.nameProperty().get());
+        Runnable load = () -> {
+            if (config.database != null && config.database.isConnected()) {
+                List<Supplier> suppliers = config.database.getAllSuppliers();
+                ObservableList<String> items = FXCollections.observableArrayList("All Suppliers");
+                for (Supplier supplier : suppliers) {
+                    items.add(supplier.nameProperty().get());
+                }
+                comboBox.setItems(items);
             }
-            comboBox.setItems(items);
-        }
+        };
+        load.run();
+        PageRefresh.reloadWith(comboBox, load);
         comboBox.getStyleClass().add("combo-box");
         return comboBox;
     }
@@ -1599,14 +1462,18 @@ private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table
     private static ComboBox<String> createCustomerComboBox() {
         ComboBox<String> comboBox = new ComboBox<>();
         comboBox.setPromptText("All Customers");
-        if (config.database != null && config.database.isConnected()) {
-            List<Customer> customers = config.database.getAllCustomers();
-            ObservableList<String> items = FXCollections.observableArrayList("All Customers");
-            for (Customer customer : customers) {
-                items.add(customer.nameProperty().get());
+        Runnable load = () -> {
+            if (config.database != null && config.database.isConnected()) {
+                List<Customer> customers = config.database.getAllCustomers();
+                ObservableList<String> items = FXCollections.observableArrayList("All Customers");
+                for (Customer customer : customers) {
+                    items.add(customer.nameProperty().get());
+                }
+                comboBox.setItems(items);
             }
-            comboBox.setItems(items);
-        }
+        };
+        load.run();
+        PageRefresh.reloadWith(comboBox, load);
         comboBox.getStyleClass().add("combo-box");
         return comboBox;
     }
@@ -1614,14 +1481,18 @@ private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table
     private static ComboBox<String> createItemComboBox() {
         ComboBox<String> comboBox = new ComboBox<>();
         comboBox.setPromptText("All Items");
-        if (config.database != null && config.database.isConnected()) {
-            List<Object[]> items = config.database.getAllRawStock();
-            ObservableList<String> names = FXCollections.observableArrayList("All Items");
-            for (Object[] item : items) {
-                names.add(item[1].toString());
+        Runnable load = () -> {
+            if (config.database != null && config.database.isConnected()) {
+                List<Object[]> items = config.database.getAllRawStock();
+                ObservableList<String> names = FXCollections.observableArrayList("All Items");
+                for (Object[] item : items) {
+                    names.add(item[1].toString());
+                }
+                comboBox.setItems(names);
             }
-            comboBox.setItems(names);
-        }
+        };
+        load.run();
+        PageRefresh.reloadWith(comboBox, load);
         comboBox.getStyleClass().add("combo-box");
         return comboBox;
     }
@@ -1629,14 +1500,18 @@ private static void loadReturnPurchaseData(TableView<ReturnPurchaseRecord> table
     private static ComboBox<String> createProductComboBox() {
         ComboBox<String> comboBox = new ComboBox<>();
         comboBox.setPromptText("All Products");
-        if (config.database != null && config.database.isConnected()) {
-            List<Object[]> products = config.database.getAllProductionStock();
-            ObservableList<String> names = FXCollections.observableArrayList("All Products");
-            for (Object[] product : products) {
-                names.add(product[1].toString());
+        Runnable load = () -> {
+            if (config.database != null && config.database.isConnected()) {
+                List<Object[]> products = config.database.getAllProductionStock();
+                ObservableList<String> names = FXCollections.observableArrayList("All Products");
+                for (Object[] product : products) {
+                    names.add(product[1].toString());
+                }
+                comboBox.setItems(names);
             }
-            comboBox.setItems(names);
-        }
+        };
+        load.run();
+        PageRefresh.reloadWith(comboBox, load);
         comboBox.getStyleClass().add("combo-box");
         return comboBox;
     }
@@ -13,10 +13,15 @@ import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.layout.*;
-import com.cablemanagement.database.SQLiteDatabase;
+import com.cablemanagement.config;
+import com.cablemanagement.database.db;
+import com.cablemanagement.views.PageRefresh;
 import java.util.function.Function;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class EmployeeManagementContent {
 
@@ -72,7 +77,7 @@ public class EmployeeManagementContent {
     private static VBox createRegisterContractEmployeeForm() {
         VBox box = baseForm("Register Contract Employee");
 
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         // Fields
         TextField nameField = new TextField();
@@ -220,7 +225,7 @@ public class EmployeeManagementContent {
     private static VBox createContractEmployeeRecordsView() {
         VBox box = baseForm("Contract Employee Records");
 
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         // Filters
         DatePicker dateFromPicker = new DatePicker();
@@ -269,8 +274,9 @@ public class EmployeeManagementContent {
             table.getItems().addAll(records);
         });
 
-        // Load all records initially
+        // Load all records initially, and again for the filters picked on a page refresh
         filterButton.fire();
+        PageRefresh.reloadWith(table, filterButton::fire);
 
         HBox filters = new HBox(10, dateFromPicker, dateToPicker, timeFromField, timeToField, filterButton);
         filters.setPadding(new Insets(10));
@@ -289,7 +295,7 @@ public class EmployeeManagementContent {
         VBox box = baseForm("Designation Management");
         
         // Database instance
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
         
         // Form controls
         TextField nameField = new TextField();
@@ -335,6 +341,7 @@ public class EmployeeManagementContent {
         
         // Load initial data
         loadDesignationData(database, designationData);
+        PageRefresh.reloadWith(table, () -> loadDesignationData(database, designationData));
         
         // Status label
         Label statusLabel = new Label("");
@@ -441,7 +448,7 @@ public class EmployeeManagementContent {
     }
     
     // Helper method to load designation data into the table
-    private static void loadDesignationData(SQLiteDatabase database, ObservableList<DesignationTableData> designationData) {
+    private static void loadDesignationData(db database, ObservableList<DesignationTableData> designationData) {
         designationData.clear();
         for (Object[] row : database.getAllDesignations()) {
             designationData.add(new DesignationTableData((Integer) row[0], (String) row[1]));
@@ -475,7 +482,7 @@ public class EmployeeManagementContent {
         VBox box = baseForm("Register New Employee");
         
         // Database instance
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         TextField nameField = new TextField();
         nameField.setPromptText("Full Name");
@@ -493,9 +500,8 @@ public class EmployeeManagementContent {
         designationCombo.setPromptText("Select Designation");
         
         // Load designations from database
-        for (Object[] row : database.getAllDesignations()) {
-            designationCombo.getItems().add((String) row[1]); // row[1] is the designation title
-        }
+        loadDesignationComboBox(database, designationCombo);
+        PageRefresh.reloadWith(designationCombo, () -> loadDesignationComboBox(database, designationCombo));
 
         ComboBox<String> salaryTypeCombo = new ComboBox<>();
         salaryTypeCombo.setPromptText("Select Salary Type");
@@ -570,7 +576,7 @@ public class EmployeeManagementContent {
     private static VBox createContractEmployeeForm() {
         VBox box = baseForm("Contract-Based Employees");
 
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         // Search field
         TextField searchField = new TextField();
@@ -610,6 +616,7 @@ public class EmployeeManagementContent {
         ObservableList<EmployeeTableData> contractEmployeeData = FXCollections.observableArrayList();
         table.setItems(contractEmployeeData);
         loadContractEmployeeData(database, contractEmployeeData);
+        PageRefresh.reloadWith(table, () -> loadContractEmployeeData(database, contractEmployeeData));
 
         // Search logic
         FilteredList<EmployeeTableData> filteredData = new FilteredList<>(contractEmployeeData, p -> true);
@@ -639,7 +646,7 @@ public class EmployeeManagementContent {
     private static VBox createSalaryEmployeeForm() {
         VBox box = baseForm("Manage Employees");
 
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         // Form fields
         TextField nameField = new TextField();
@@ -656,9 +663,8 @@ public class EmployeeManagementContent {
 
         ComboBox<String> designationCombo = new ComboBox<>();
         designationCombo.setPromptText("Select Designation");
-        for (Object[] row : database.getAllDesignations()) {
-            designationCombo.getItems().add((String) row[1]);
-        }
+        loadDesignationComboBox(database, designationCombo);
+        PageRefresh.reloadWith(designationCombo, () -> loadDesignationComboBox(database, designationCombo));
 
         ComboBox<String> salaryTypeCombo = new ComboBox<>();
         salaryTypeCombo.setPromptText("Select Salary Type");
@@ -726,6 +732,7 @@ public class EmployeeManagementContent {
         ObservableList<EmployeeTableData> employeeData = FXCollections.observableArrayList();
         table.setItems(employeeData);
         loadEmployeeData(database, employeeData);
+        PageRefresh.reloadWith(table, () -> loadEmployeeData(database, employeeData));
 
         Label statusLabel = new Label("");
         statusLabel.setStyle("-fx-text-fill: green; -fx-font-weight: bold;");
@@ -767,7 +774,7 @@ public class EmployeeManagementContent {
         VBox box = baseForm("View Salary Reports");
         
         // Database instance
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
         
         // Date range filters
         HBox dateFilterBox = new HBox(10);
@@ -837,6 +844,13 @@ public class EmployeeManagementContent {
         ObservableList<SalaryReportData> salaryData = FXCollections.observableArrayList();
         table.setItems(salaryData);
         
+        // A report already generated is generated again for its dates on a page refresh
+        PageRefresh.reloadWith(table, () -> {
+            if (!salaryData.isEmpty()) {
+                generateReportBtn.fire();
+            }
+        });
+        
         // Summary info
         Label summaryLabel = new Label("Select date range and click 'Generate Report' to view salary data");
         summaryLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-font-style: italic;");
@@ -907,7 +921,7 @@ public class EmployeeManagementContent {
     private static VBox createAttendanceMarkForm() {
         VBox box = baseForm("Mark All Employees Attendance");
 
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         // Top: Date Picker
         Label dateLabel = new Label("Select Date:");
@@ -916,16 +930,9 @@ public class EmployeeManagementContent {
         // Table Columns: ID, Name, Role, Attendance, Hours
         TableView<EmployeeRow> table = new TableView<>();
         ObservableList<EmployeeRow> rows = FXCollections.observableArrayList();
-
-        for (Object[] emp : database.getAllEmployees()) {
-            if ("Active".equals(emp[8])) {
-                rows.add(new EmployeeRow(
-                    (int) emp[0],
-                    emp[1].toString(),
-                    emp[5].toString()
-                ));
-            }
-        }
+        loadActiveEmployeeRows(database, rows);
+        // Rows of employees still active keep the attendance entered for them
+        PageRefresh.reloadWith(table, () -> loadActiveEmployeeRows(database, rows));
 
         table.setItems(rows);
         table.setEditable(true);
@@ -1060,7 +1067,7 @@ public class EmployeeManagementContent {
         VBox box = baseForm("View Attendance Report");
         
         // Database instance
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
         
         // Date range filters
         HBox dateFilterBox = new HBox(10);
@@ -1115,6 +1122,7 @@ public class EmployeeManagementContent {
         
         // Load initial data
         loadAttendanceData(database, attendanceData, null, null);
+        PageRefresh.reloadWith(table, refreshBtn::fire);
         
         // Filter button action
         filterBtn.setOnAction(e -> {
@@ -1173,7 +1181,7 @@ public class EmployeeManagementContent {
         VBox box = baseForm("Grant Advance Salary");
         
         // Database instance
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         // Employee search section
         VBox searchSection = new VBox(10);
@@ -1190,6 +1198,7 @@ public class EmployeeManagementContent {
         
         // Load all active employees initially
         loadEmployeeComboBox(database, employeeCombo, "");
+        PageRefresh.reloadWith(employeeCombo, () -> loadEmployeeComboBox(database, employeeCombo, searchField.getText().trim()));
         
         // Search functionality
         searchField.textProperty().addListener((obs, oldVal, newVal) -> {
@@ -1290,6 +1299,11 @@ public class EmployeeManagementContent {
         
         ObservableList<AdvanceSalaryData> historyData = FXCollections.observableArrayList();
         historyTable.setItems(historyData);
+        PageRefresh.reloadWith(historyTable, () -> {
+            if (!historyData.isEmpty()) {
+                loadRecentAdvances(database, historyData);
+            }
+        });
         
         Label historyLabel = new Label("Recent Advance History:");
         historyLabel.setStyle("-fx-font-weight: bold;");
@@ -1404,7 +1418,7 @@ public class EmployeeManagementContent {
 
     private static VBox createLoanRegisterForm() {
         VBox box = baseForm("Register New Employee Loan");
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         // --- Search Section ---
         VBox searchSection = new VBox(10);
@@ -1421,6 +1435,7 @@ public class EmployeeManagementContent {
         employeeCombo.setMaxWidth(Double.MAX_VALUE);
 
         loadEmployeeComboBox(database, employeeCombo, "");
+        PageRefresh.reloadWith(employeeCombo, () -> loadEmployeeComboBox(database, employeeCombo, searchField.getText().trim()));
         searchField.textProperty().addListener((obs, oldVal, newVal) -> {
             loadEmployeeComboBox(database, employeeCombo, newVal.trim());
         });
@@ -1593,6 +1608,7 @@ public class EmployeeManagementContent {
 
         // Load initial data
         loadRecentLoans(database, recentLoansData);
+        PageRefresh.reloadWith(recentLoansTable, () -> loadRecentLoans(database, recentLoansData));
 
         // --- Responsive Layout ---
         VBox content = new VBox(20);
@@ -1624,7 +1640,7 @@ public class EmployeeManagementContent {
     private static VBox createLoanReportForm() {
         VBox box = baseForm("View Employee Loan Report");
 
-        SQLiteDatabase database = new SQLiteDatabase();
+        db database = config.database;
 
         // --- Filter Section ---
         FlowPane filterPane = new FlowPane(10, 10);
@@ -1753,9 +1769,10 @@ public class EmployeeManagementContent {
 
         Label statusLabel = new Label();
 
-        // Initial Data Load
+        // Initial Data Load; a page refresh loads again for the filters picked
         loadLoanReportData(database, loanData, null, null, null, null);
         updateSummaryLabel(loanData, summaryLabel);
+        PageRefresh.reloadWith(table, filterBtn::fire);
 
         filterBtn.setOnAction(e -> {
             LocalDate startDate = startDatePicker.getValue();
@@ -1836,7 +1853,7 @@ public class EmployeeManagementContent {
     
 
     // Helper method to load employee data into the table
-    private static void loadEmployeeData(SQLiteDatabase database, ObservableList<EmployeeTableData> employeeData) {
+    private static void loadEmployeeData(db database, ObservableList<EmployeeTableData> employeeData) {
         employeeData.clear();
         for (Object[] row : database.getAllEmployees()) {
             employeeData.add(new EmployeeTableData(
@@ -1854,7 +1871,7 @@ public class EmployeeManagementContent {
     }
     
     // Helper method to load contract employee data (non-monthly employees)
-    private static void loadContractEmployeeData(SQLiteDatabase database, ObservableList<EmployeeTableData> contractEmployeeData) {
+    private static void loadContractEmployeeData(db database, ObservableList<EmployeeTableData> contractEmployeeData) {
         contractEmployeeData.clear();
         for (Object[] row : database.getAllEmployees()) {
             String salaryType = (String) row[6];
@@ -1891,7 +1908,7 @@ public class EmployeeManagementContent {
     // Helper method to setup event handlers for employee management table and form
     private static void setupEventHandlers(
         TableView<EmployeeTableData> table,
-        SQLiteDatabase database,
+        db database,
         TextField nameField,
         TextField phoneField,
         TextField cnicField,
@@ -2078,7 +2095,7 @@ public class EmployeeManagementContent {
     }
 
     // Helper method to load attendance data into the table
-    private static void loadAttendanceData(SQLiteDatabase database, ObservableList<AttendanceTableData> attendanceData, String startDate, String endDate) {
+    private static void loadAttendanceData(db database, ObservableList<AttendanceTableData> attendanceData, String startDate, String endDate) {
         attendanceData.clear();
         List<Object[]> attendanceList;
         
@@ -2145,7 +2162,7 @@ public class EmployeeManagementContent {
     }
 
     // Helper method to load salary report data into the table
-    private static void loadSalaryReportData(SQLiteDatabase database, ObservableList<SalaryReportData> salaryData, String startDate, String endDate) {
+    private static void loadSalaryReportData(db database, ObservableList<SalaryReportData> salaryData, String startDate, String endDate) {
         salaryData.clear();
         List<Object[]> reportList = database.getSalaryReportByDateRange(startDate, endDate);
         
@@ -2254,7 +2271,38 @@ public class EmployeeManagementContent {
     }
 
     // Helper methods for advance salary form
-    private static void loadEmployeeComboBox(SQLiteDatabase database, ComboBox<String> comboBox, String searchTerm) {
+    private static void loadDesignationComboBox(db database, ComboBox<String> comboBox) {
+        List<String> titles = new ArrayList<>();
+        for (Object[] row : database.getAllDesignations()) {
+            titles.add((String) row[1]); // row[1] is the designation title
+        }
+        comboBox.getItems().setAll(titles);
+    }
+
+    /**
+     * Fill the attendance sheet with the active employees, keeping the rows
+     * (and what was entered in them) of those already listed.
+     */
+    private static void loadActiveEmployeeRows(db database, ObservableList<EmployeeRow> rows) {
+        Map<Integer, EmployeeRow> listed = new HashMap<>();
+        for (EmployeeRow row : rows) {
+            listed.put(row.id, row);
+        }
+        List<EmployeeRow> active = new ArrayList<>();
+        for (Object[] emp : database.getAllEmployees()) {
+            if ("Active".equals(emp[8])) {
+                EmployeeRow row = listed.get((int) emp[0]);
+                active.add(row != null ? row : new EmployeeRow(
+                    (int) emp[0],
+                    emp[1].toString(),
+                    emp[5].toString()
+                ));
+            }
+        }
+        rows.setAll(active);
+    }
+
+    private static void loadEmployeeComboBox(db database, ComboBox<String> comboBox, String searchTerm) {
         comboBox.getItems().clear();
         
         for (Object[] row : database.getAllEmployees()) {
@@ -2270,7 +2318,7 @@ public class EmployeeManagementContent {
         }
     }
     
-    private static void loadEmployeeDetails(SQLiteDatabase database, String employeeName, 
+    private static void loadEmployeeDetails(db database, String employeeName, 
                                           Label empIdValue, Label designationValue, 
                                           Label salaryTypeValue, Label baseSalaryValue) {
         for (Object[] row : database.getAllEmployees()) {
@@ -2293,7 +2341,7 @@ public class EmployeeManagementContent {
         baseSalaryValue.setText("-");
     }
     
-    private static void loadRecentAdvances(SQLiteDatabase database, ObservableList<AdvanceSalaryData> historyData) {
+    private static void loadRecentAdvances(db database, ObservableList<AdvanceSalaryData> historyData) {
         historyData.clear();
         List<Object[]> advances = database.getAllAdvanceSalaries();
         
@@ -2311,7 +2359,7 @@ public class EmployeeManagementContent {
         }
     }
     
-    private static void loadRecentLoans(SQLiteDatabase database, ObservableList<LoanData> loansData) {
+    private static void loadRecentLoans(db database, ObservableList<LoanData> loansData) {
         loansData.clear();
         List<Object[]> loans = database.getAllEmployeeLoans();
         
@@ -2369,7 +2417,7 @@ public class EmployeeManagementContent {
     }
 
     // Helper methods for loan functionality
-    private static void loadLoanReportData(SQLiteDatabase database, ObservableList<LoanData> loanData, 
+    private static void loadLoanReportData(db database, ObservableList<LoanData> loanData, 
                                          String startDate, String endDate, String employeeName, String status) {
         loanData.clear();
         List<Object[]> loans;
@@ -2426,7 +2474,7 @@ public class EmployeeManagementContent {
         }
     }
     
-    private static void showUpdateLoanDialog(SQLiteDatabase database, LoanData loan, TableView<LoanData> table) {
+    private static void showUpdateLoanDialog(db database, LoanData loan, TableView<LoanData> table) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Update Loan Status");
         dialog.setHeaderText("Update loan for: " + loan.getEmployeeName());
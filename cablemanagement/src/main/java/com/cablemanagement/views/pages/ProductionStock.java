@@ -19,8 +19,14 @@ import java.time.format.DateTimeFormatter;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
-
-import com.cablemanagement.database.SQLiteDatabase;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.cablemanagement.config;
+import com.cablemanagement.views.AsyncLoader;
+import com.cablemanagement.views.LiveRows;
+import com.cablemanagement.views.PageRefresh;
+import com.cablemanagement.database.ProductionStockTable;
 import com.cablemanagement.database.db;
 import com.cablemanagement.model.Brand;
 import com.cablemanagement.model.Customer;
@@ -32,8 +38,10 @@ import com.cablemanagement.invoice.Item;
 public class ProductionStock {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final db database = new SQLiteDatabase();
-    private static final SQLiteDatabase sqliteDatabase = new SQLiteDatabase();
+    private static final db database = config.database;
+    private static final db sqliteDatabase = config.database;
+    // TableView property holding the ProductionStockTable the rows were built from
+    private static final String STOCK_TABLE_KEY = "ProductionStock.stockTable";
 
     public static Node get() {
         BorderPane mainLayout = new BorderPane();
@@ -140,16 +148,20 @@ public class ProductionStock {
         brandCombo.setPrefWidth(300);
         brandCombo.setStyle("-fx-padding: 8; -fx-font-size: 14px;");
         
-        try {
-            List<Brand> brands = database.getAllBrands();
-            ObservableList<String> brandNames = FXCollections.observableArrayList();
-            for (Brand brand : brands) {
-                brandNames.add(brand.nameProperty().get());
+        Runnable loadBrands = () -> {
+            try {
+                List<Brand> brands = database.getAllBrands();
+                ObservableList<String> brandNames = FXCollections.observableArrayList();
+                for (Brand brand : brands) {
+                    brandNames.add(brand.nameProperty().get());
+                }
+                brandCombo.setItems(brandNames);
+            } catch (Exception e) {
+                showAlert("Database Error", "Failed to load brands: " + e.getMessage());
             }
-            brandCombo.setItems(brandNames);
-        } catch (Exception e) {
-            showAlert("Database Error", "Failed to load brands: " + e.getMessage());
-        }
+        };
+        loadBrands.run();
+        PageRefresh.reloadWith(brandCombo, loadBrands);
 
         // Unit ComboBox
         ComboBox<String> unitCombo = new ComboBox<>();
@@ -158,12 +170,16 @@ public class ProductionStock {
         unitCombo.setPrefWidth(300);
         unitCombo.setStyle("-fx-padding: 8; -fx-font-size: 14px;");
         
-        try {
-            List<String> units = database.getAllUnits();
-            unitCombo.setItems(FXCollections.observableArrayList(units));
-        } catch (Exception e) {
-            showAlert("Database Error", "Failed to load units: " + e.getMessage());
-        }
+        Runnable loadUnits = () -> {
+            try {
+                List<String> units = database.getAllUnits();
+                unitCombo.setItems(FXCollections.observableArrayList(units));
+            } catch (Exception e) {
+                showAlert("Database Error", "Failed to load units: " + e.getMessage());
+            }
+        };
+        loadUnits.run();
+        PageRefresh.reloadWith(unitCombo, loadUnits);
 
         // Quantity Field
         TextField quantityField = createTextField("Enter Quantity");
@@ -226,18 +242,23 @@ public class ProductionStock {
         ComboBox<String> filterCombo = new ComboBox<>();
         filterCombo.setPromptText("Filter by Brand");
         filterCombo.setPrefWidth(150);
-        filterCombo.getItems().add("All Brands");
         
         // Load brands for filter
-        try {
-            List<Brand> brands = database.getAllBrands();
-            for (Brand brand : brands) {
-                filterCombo.getItems().add(brand.nameProperty().get());
+        Runnable loadFilterBrands = () -> {
+            try {
+                List<String> filterItems = new ArrayList<>();
+                filterItems.add("All Brands");
+                for (Brand brand : database.getAllBrands()) {
+                    filterItems.add(brand.nameProperty().get());
+                }
+                filterCombo.getItems().setAll(filterItems);
+            } catch (Exception e) {
+                System.err.println("Failed to load brands for filter: " + e.getMessage());
             }
-            filterCombo.getSelectionModel().selectFirst(); // Select "All Brands"
-        } catch (Exception e) {
-            System.err.println("Failed to load brands for filter: " + e.getMessage());
-        }
+        };
+        loadFilterBrands.run();
+        filterCombo.getSelectionModel().selectFirst(); // Select "All Brands"
+        PageRefresh.reloadWith(filterCombo, loadFilterBrands);
 
         Button refreshBtn = createActionButton("Refresh");
         refreshBtn.setStyle("-fx-background-color: #007bff; -fx-text-fill: white; -fx-padding: 8 15;");
@@ -299,8 +320,7 @@ public class ProductionStock {
 
         // Submit button
         submitBtn.setOnAction(e -> handleProductionStockSubmit(
-            nameField, brandCombo, unitCombo, quantityField, unitCostField, salePriceField, stockTable,
-            totalItemsLabel, totalValueLabel, lowStockLabel
+            nameField, brandCombo, unitCombo, quantityField, unitCostField, salePriceField
         ));
 
         // Refresh button
@@ -319,9 +339,27 @@ public class ProductionStock {
             filterProductionStockTable(stockTable, searchField.getText(), filterCombo.getValue());
         });
 
-        // Load initial data
+        // Load initial data; a page refresh reloads it under the search and filter in use
         refreshProductionStockTable(stockTable);
         updateStockSummary(stockTable, totalItemsLabel, totalValueLabel, lowStockLabel);
+        PageRefresh.reloadWith(stockTable, () -> {
+            refreshProductionStockTable(stockTable);
+            updateStockSummary(stockTable, totalItemsLabel, totalValueLabel, lowStockLabel);
+            filterProductionStockTable(stockTable, searchField.getText(), filterCombo.getValue());
+        });
+
+        // Products changed by any write (this form, invoices, returns) are updated row by row;
+        // the filter then reloads the rows it searches on its next use
+        LiveRows.bind(stockTable, "ProductionStock", stockTable::getItems, ProductionStockRecord::getProductionId,
+            ids -> toRecords(database.getProductionStockTable(ids)),
+            () -> {
+                refreshProductionStockTable(stockTable);
+                updateStockSummary(stockTable, totalItemsLabel, totalValueLabel, lowStockLabel);
+            },
+            () -> {
+                stockTable.getProperties().remove(STOCK_TABLE_KEY);
+                updateStockSummary(stockTable, totalItemsLabel, totalValueLabel, lowStockLabel);
+            });
 
         return mainContainer;
     }
@@ -345,13 +383,17 @@ public class ProductionStock {
         invoiceNumberField.setEditable(false);
         invoiceNumberField.getStyleClass().add("readonly-field");
         
-        try {
-            String autoGeneratedNumber = sqliteDatabase.generateProductionInvoiceNumber();
-            invoiceNumberField.setText(autoGeneratedNumber);
-        } catch (Exception e) {
-            invoiceNumberField.setText("Error generating number");
-            e.printStackTrace();
-        }
+        Runnable loadInvoiceNumber = () -> {
+            try {
+                String autoGeneratedNumber = sqliteDatabase.generateProductionInvoiceNumber();
+                invoiceNumberField.setText(autoGeneratedNumber);
+            } catch (Exception e) {
+                invoiceNumberField.setText("Error generating number");
+                e.printStackTrace();
+            }
+        };
+        loadInvoiceNumber.run();
+        PageRefresh.reloadWith(invoiceNumberField, loadInvoiceNumber);
         
         DatePicker productionDatePicker = new DatePicker();
         productionDatePicker.setValue(LocalDate.now());
@@ -402,13 +444,18 @@ public class ProductionStock {
         HBox materialButtonBox = new HBox(10);
         Button addMaterialBtn = createActionButton("Add Material");
         Button clearMaterialsBtn = createActionButton("Clear All");
+        Button saveBomBtn = createActionButton("Save as Bill of Materials");
+        
+        materialButtonBox.getChildren().addAll(addMaterialBtn, clearMaterialsBtn, saveBomBtn);
         
-        materialButtonBox.getChildren().addAll(addMaterialBtn, clearMaterialsBtn);
+        Label bomHint = new Label("Leave empty to use each product's saved bill of materials");
+        bomHint.setStyle("-fx-text-fill: #6c757d; -fx-font-size: 11px;");
         
         ListView<String> materialsList = createEnhancedListView();
         
         materialsSection.getChildren().addAll(
             createSubheading("Raw Materials Used:"),
+            bomHint,
             createFormRow("Raw Material:", rawMaterialComboBox),
             createFormRow("Quantity Used:", rawQuantityField),
             materialButtonBox,
@@ -464,6 +511,8 @@ public class ProductionStock {
             }
         });
         
+        saveBomBtn.setOnAction(e -> handleSaveBillOfMaterials(itemsList, materialsList));
+        
         submitBtn.setOnAction(e -> handleSubmitProductionInvoice(
             invoiceNumberField,
             productionDatePicker, 
@@ -486,13 +535,17 @@ public class ProductionStock {
         TextField returnInvoiceNumberField = createTextField("Return Invoice Number");
         returnInvoiceNumberField.setEditable(false);
         
-        try {
-            String autoGeneratedNumber = sqliteDatabase.generateProductionReturnInvoiceNumber();
-            returnInvoiceNumberField.setText(autoGeneratedNumber);
-        } catch (Exception e) {
-            returnInvoiceNumberField.setText("Error generating number");
-            e.printStackTrace();
-        }
+        Runnable loadReturnInvoiceNumber = () -> {
+            try {
+                String autoGeneratedNumber = sqliteDatabase.generateProductionReturnInvoiceNumber();
+                returnInvoiceNumberField.setText(autoGeneratedNumber);
+            } catch (Exception e) {
+                returnInvoiceNumberField.setText("Error generating number");
+                e.printStackTrace();
+            }
+        };
+        loadReturnInvoiceNumber.run();
+        PageRefresh.reloadWith(returnInvoiceNumberField, loadReturnInvoiceNumber);
 
         // Return date
         DatePicker returnDatePicker = new DatePicker();
@@ -504,20 +557,24 @@ public class ProductionStock {
         productionInvoiceCombo.setPrefWidth(400);
         
         // Load production invoices
-        try {
-            List<Object[]> productionInvoiceData = sqliteDatabase.getAllProductionInvoicesForDropdown();
-            List<String> productionInvoices = new ArrayList<>();
-            for (Object[] invoice : productionInvoiceData) {
-                int invoiceId = (Integer) invoice[0];
-                String date = (String) invoice[1];
-                String notes = (String) invoice[2];
-                String displayText = "Invoice #" + invoiceId + " - " + date + (notes != null && !notes.isEmpty() ? " (" + notes + ")" : "");
-                productionInvoices.add(displayText);
-            }
-            productionInvoiceCombo.getItems().addAll(productionInvoices);
-        } catch (Exception e) {
-            showAlert("Database Error", "Failed to load production invoices: " + e.getMessage());
-        }
+        Runnable loadProductionInvoices = () -> {
+            try {
+                List<Object[]> productionInvoiceData = sqliteDatabase.getAllProductionInvoicesForDropdown();
+                List<String> productionInvoices = new ArrayList<>();
+                for (Object[] invoice : productionInvoiceData) {
+                    int invoiceId = (Integer) invoice[0];
+                    String date = (String) invoice[1];
+                    String notes = (String) invoice[2];
+                    String displayText = "Invoice #" + invoiceId + " - " + date + (notes != null && !notes.isEmpty() ? " (" + notes + ")" : "");
+                    productionInvoices.add(displayText);
+                }
+                productionInvoiceCombo.getItems().setAll(productionInvoices);
+            } catch (Exception e) {
+                showAlert("Database Error", "Failed to load production invoices: " + e.getMessage());
+            }
+        };
+        loadProductionInvoices.run();
+        PageRefresh.reloadWith(productionInvoiceCombo, loadProductionInvoices);
 
         // Available items list (from selected production invoice)
         Label availableItemsLabel = createSubheading("Available Items from Selected Invoice:");
@@ -710,6 +767,7 @@ public class ProductionStock {
         // Auto-generate invoice number
         String autoInvoiceNumber = database.generateSalesInvoiceNumber();
         invoiceNumberField.setText(autoInvoiceNumber);
+        PageRefresh.reloadWith(invoiceNumberField, () -> invoiceNumberField.setText(database.generateSalesInvoiceNumber()));
         
         DatePicker salesDatePicker = new DatePicker();
         salesDatePicker.setValue(LocalDate.now());
@@ -722,16 +780,20 @@ public class ProductionStock {
         customerComboBox.setPrefWidth(250);
         
         // Load customers with error handling
-        try {
-            List<Object[]> customers = database.getAllCustomersForDropdown();
-            ObservableList<String> customerNames = FXCollections.observableArrayList();
-            for (Object[] customer : customers) {
-                customerNames.add((String) customer[1]); // customer_name
+        Runnable loadCustomers = () -> {
+            try {
+                List<Object[]> customers = database.getAllCustomersForDropdown();
+                ObservableList<String> customerNames = FXCollections.observableArrayList();
+                for (Object[] customer : customers) {
+                    customerNames.add((String) customer[1]); // customer_name
+                }
+                customerComboBox.setItems(customerNames);
+            } catch (Exception e) {
+                showAlert("Database Error", "Failed to load customers: " + e.getMessage());
             }
-            customerComboBox.setItems(customerNames);
-        } catch (Exception e) {
-            showAlert("Database Error", "Failed to load customers: " + e.getMessage());
-        }
+        };
+        loadCustomers.run();
+        PageRefresh.reloadWith(customerComboBox, loadCustomers);
         
         // Add fields to grid
         headerGrid.add(createFormRow("Invoice Number:", invoiceNumberField), 0, 0);
@@ -761,20 +823,25 @@ public class ProductionStock {
         
         // Load production stock items with error handling
         final List<Object[]> products = new ArrayList<>();
-        try {
-            products.addAll(database.getAllProductionStocksWithPriceForDropdown());
-            ObservableList<String> productNames = FXCollections.observableArrayList();
-            for (Object[] product : products) {
-                String displayName = String.format("%s (Stock: %d)", 
-                    product[1], // product_name
-                    ((Number) product[3]).intValue() // quantity available
-                );
-                productNames.add(displayName);
+        Runnable loadProducts = () -> {
+            try {
+                products.clear();
+                products.addAll(database.getAllProductionStocksWithPriceForDropdown());
+                ObservableList<String> productNames = FXCollections.observableArrayList();
+                for (Object[] product : products) {
+                    String displayName = String.format("%s (Stock: %d)", 
+                        product[1], // product_name
+                        ((Number) product[3]).intValue() // quantity available
+                    );
+                    productNames.add(displayName);
+                }
+                productComboBox.setItems(productNames);
+            } catch (Exception e) {
+                showAlert("Database Error", "Failed to load products: " + e.getMessage());
             }
-            productComboBox.setItems(productNames);
-        } catch (Exception e) {
-            showAlert("Database Error", "Failed to load products: " + e.getMessage());
-        }
+        };
+        loadProducts.run();
+        PageRefresh.reloadWith(productComboBox, loadProducts);
         
         TextField quantityField = createTextField("");
         quantityField.setPromptText("Enter Quantity");
@@ -1346,10 +1413,17 @@ public class ProductionStock {
                     return;
                 }
                 
+                // Resolve every product once: name -> {production_id, name, ..., unit_name}
+                Map<String, Object[]> stockByName = new HashMap<>();
+                for (Object[] stock : database.getAllProductionStocksForDropdown()) {
+                    stockByName.putIfAbsent(stock[1].toString(), stock);
+                }
+                
                 // Prepare invoice items for database
                 List<Object[]> items = new ArrayList<>();
                 for (SalesInvoiceItemUI item : invoiceItems) {
-                    int productId = database.getProductionStockIdByName(item.getProductName());
+                    Object[] stock = stockByName.get(item.getProductName());
+                    int productId = stock != null ? (Integer) stock[0] : -1;
                     if (productId == -1) {
                         showAlert("Database Error", "Product '" + item.getProductName() + "' not found in database");
                         return;
@@ -1373,15 +1447,13 @@ public class ProductionStock {
                         totalAmount, discount, paidAmount, items);
                     
                     if (success) {
+                        invoiceNumber = database.getAssignedInvoiceNumber(invoiceNumber);
                         // Prepare invoice data for printing
                         List<Item> printItems = new ArrayList<>();
                         for (SalesInvoiceItemUI item : invoiceItems) {
-                            // Get production stock ID to retrieve unit information using helper method
-                            int productionStockId = getProductionStockIdByName(item.getProductName());
-                            String unit = "N/A";
-                            if (productionStockId != -1) {
-                                unit = getProductionStockUnit(productionStockId);
-                            }
+                            // Unit comes from the lookup made before posting
+                            Object[] stock = stockByName.get(item.getProductName());
+                            String unit = stock != null && stock[4] != null ? (String) stock[4] : "N/A";
                             
                             // Format the item name as "name - unit"
                             String itemNameWithUnit = item.getProductName() + " - " + unit;
@@ -1399,14 +1471,10 @@ public class ProductionStock {
                         String tehsil = "";
                         
                         try {
-                            // Get all customers and find the matching one to extract details
-                            List<Customer> customers = sqliteDatabase.getAllCustomers();
-                            for (Customer c : customers) {
-                                if (c.nameProperty().get().equals(customer)) {
-                                    contactNumber = c.contactProperty().get();
-                                    tehsil = c.tehsilProperty().get();
-                                    break;
-                                }
+                            Customer c = database.getCustomerWithCurrentBalance(customer);
+                            if (c != null) {
+                                contactNumber = c.contactProperty().get();
+                                tehsil = c.tehsilProperty().get();
                             }
                         } catch (Exception ex) {
                             System.err.println("Could not retrieve customer details: " + ex.getMessage());
@@ -1500,6 +1568,8 @@ public class ProductionStock {
         // Auto-generate return invoice number
         String autoReturnInvoiceNumber = database.generateSalesReturnInvoiceNumber();
         returnInvoiceNumberField.setText(autoReturnInvoiceNumber);
+        PageRefresh.reloadWith(returnInvoiceNumberField,
+            () -> returnInvoiceNumberField.setText(database.generateSalesReturnInvoiceNumber()));
         
         // Original invoice dropdown
         ComboBox<String> originalInvoiceComboBox = new ComboBox<>();
@@ -1507,18 +1577,24 @@ public class ProductionStock {
         originalInvoiceComboBox.setEditable(false);
         originalInvoiceComboBox.setMaxWidth(Double.MAX_VALUE);
         
-        // Load sales invoices
-        List<Object[]> salesInvoices = database.getAllSalesInvoicesForDropdown();
-        ObservableList<String> invoiceNumbers = FXCollections.observableArrayList();
-        for (Object[] invoice : salesInvoices) {
-            String displayText = String.format("%s - %s (%s)", 
-                invoice[1], // invoice_number
-                invoice[2], // customer_name
-                invoice[3]  // sales_date
-            );
-            invoiceNumbers.add(displayText);
-        }
-        originalInvoiceComboBox.setItems(invoiceNumbers);
+        // Load sales invoices; the list is kept for the lookups of the selected invoice
+        List<Object[]> salesInvoices = new ArrayList<>();
+        Runnable loadSalesInvoices = () -> {
+            salesInvoices.clear();
+            salesInvoices.addAll(database.getAllSalesInvoicesForDropdown());
+            ObservableList<String> invoiceNumbers = FXCollections.observableArrayList();
+            for (Object[] invoice : salesInvoices) {
+                String displayText = String.format("%s - %s (%s)", 
+                    invoice[1], // invoice_number
+                    invoice[2], // customer_name
+                    invoice[3]  // sales_date
+                );
+                invoiceNumbers.add(displayText);
+            }
+            originalInvoiceComboBox.setItems(invoiceNumbers);
+        };
+        loadSalesInvoices.run();
+        PageRefresh.reloadWith(originalInvoiceComboBox, loadSalesInvoices);
         
         DatePicker returnDatePicker = new DatePicker();
         returnDatePicker.setValue(LocalDate.now());
@@ -1866,6 +1942,7 @@ public class ProductionStock {
                     customerId, date, totalReturnAmount, items, updateBalance);
                 
                 if (success) {
+                    returnInvoiceNumber = database.getAssignedInvoiceNumber(returnInvoiceNumber);
                     // Prepare invoice data for printing
                     List<Item> printItems = new ArrayList<>();
                     for (SalesInvoiceItemUI item : returnItems) {
@@ -2080,6 +2157,7 @@ public class ProductionStock {
         String initialStartDate = startDatePicker.getValue().format(DATE_FORMATTER);
         String initialEndDate = endDatePicker.getValue().format(DATE_FORMATTER);
         loadUsageReportData(usageTable, initialStartDate, initialEndDate, totalRecordsLabel, productionRecordsLabel, rawUsageRecordsLabel);
+        PageRefresh.reloadWith(usageTable, refreshBtn::fire);
 
         return form;
     }
@@ -2180,11 +2258,16 @@ public class ProductionStock {
     // Load usage report data from database
     private static void loadUsageReportData(TableView<UsageReportRecord> table, String startDate, String endDate,
                                           Label totalRecordsLabel, Label productionRecordsLabel, Label rawUsageRecordsLabel) {
-        ObservableList<UsageReportRecord> records = FXCollections.observableArrayList();
-        int productionCount = 0;
-        int rawUsageCount = 0;
-        
-        try {
+        totalRecordsLabel.setText("Total Records: ...");
+        productionRecordsLabel.setText("Production Records: ...");
+        rawUsageRecordsLabel.setText("Raw Usage Records: ...");
+
+        // Query and build the records off the FX thread; the result is {records, productionCount, rawUsageCount}
+        AsyncLoader.load(table, () -> {
+            ObservableList<UsageReportRecord> records = FXCollections.observableArrayList();
+            int productionCount = 0;
+            int rawUsageCount = 0;
+
             // Load Production Invoice records
             List<Object[]> productionInvoices = database.getAllProductionInvoices();
             for (Object[] invoice : productionInvoices) {
@@ -2267,25 +2350,25 @@ public class ProductionStock {
             
             // Sort records by date (most recent first)
             records.sort((r1, r2) -> r2.getDate().compareTo(r1.getDate()));
-            
-            // Update table
+            return new Object[] { records, productionCount, rawUsageCount };
+        }, result -> {
+            @SuppressWarnings("unchecked")
+            ObservableList<UsageReportRecord> records = (ObservableList<UsageReportRecord>) result[0];
             table.setItems(records);
-            
+
             // Update summary labels
             totalRecordsLabel.setText("Total Records: " + records.size());
-            productionRecordsLabel.setText("Production Records: " + productionCount);
-            rawUsageRecordsLabel.setText("Raw Usage Records: " + rawUsageCount);
-            
-        } catch (Exception e) {
-            System.err.println("Error loading usage report data: " + e.getMessage());
-            e.printStackTrace();
-            showAlert("Database Error", "Failed to load usage report data: " + e.getMessage());
+            productionRecordsLabel.setText("Production Records: " + result[1]);
+            rawUsageRecordsLabel.setText("Raw Usage Records: " + result[2]);
+        }, error -> {
+            System.err.println("Error loading usage report data: " + error.getMessage());
+            showAlert("Database Error", "Failed to load usage report data: " + error.getMessage());
             
             // Reset summary labels on error
             totalRecordsLabel.setText("Total Records: 0");
             productionRecordsLabel.setText("Production Records: 0");
             rawUsageRecordsLabel.setText("Raw Usage Records: 0");
-        }
+        });
     }
     
     // Helper method to check if a date falls within the specified range
@@ -2372,9 +2455,7 @@ public class ProductionStock {
     // Production Stock specific methods
     private static void handleProductionStockSubmit(
             TextField nameField, ComboBox<String> brandCombo, ComboBox<String> unitCombo,
-            TextField quantityField, TextField unitCostField, TextField salePriceField,
-            TableView<ProductionStockRecord> stockTable,
-            Label totalItemsLabel, Label totalValueLabel, Label lowStockLabel) {
+            TextField quantityField, TextField unitCostField, TextField salePriceField) {
         
         String name = nameField.getText().trim();
         String brand = brandCombo.getSelectionModel().getSelectedItem();
@@ -2495,10 +2576,7 @@ public class ProductionStock {
             unitCostField.clear();
             salePriceField.clear();
             nameField.requestFocus();
-            
-            // Refresh table and summary
-            refreshProductionStockTable(stockTable);
-            updateStockSummary(stockTable, totalItemsLabel, totalValueLabel, lowStockLabel);
+            // The stock table and summary pick the new product up from the change bus
             
         } catch (NumberFormatException ex) {
             showAlert("Invalid Input", "Please enter valid numbers for Quantity, Unit Cost, and Sale Price.\n\nQuantity should be a whole number.\nUnit Cost and Sale Price should be decimal numbers.");
@@ -2559,7 +2637,7 @@ public class ProductionStock {
                 editButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
                 editButton.setOnAction(event -> {
                     ProductionStockRecord record = getTableView().getItems().get(getIndex());
-                    openEditProductionStockDialog(record, getTableView());
+                    openEditProductionStockDialog(record);
                 });
             }
             
@@ -2582,21 +2660,10 @@ public class ProductionStock {
         ObservableList<ProductionStockRecord> data = FXCollections.observableArrayList();
         
         try {
-            // Get all production stocks from database
-            List<Object[]> stockList = database.getAllProductionStocks();
-            for (Object[] stock : stockList) {
-                data.add(new ProductionStockRecord(
-                    (Integer) stock[0],   // production_id
-                    (String) stock[1],    // product_name
-                    (String) stock[2],    // product_description (empty string)
-                    (String) stock[3],    // brand_name
-                    (String) stock[4],    // brand_description (empty string)
-                    (String) stock[5] != null ? (String) stock[5] : "N/A",   // unit_name
-                    (Integer) stock[6],   // quantity
-                    (Double) stock[7],    // unit_cost
-                    (Double) stock[8]     // sale_price
-                ));
-            }
+            // Get all production stocks from database; kept on the table so filtering needs no query
+            ProductionStockTable stock = database.getProductionStockTable();
+            table.getProperties().put(STOCK_TABLE_KEY, stock);
+            data.addAll(toRecords(stock));
         } catch (Exception e) {
             System.err.println("ERROR: Failed to refresh production stock table: " + e.getMessage());
             e.printStackTrace();
@@ -2606,6 +2673,28 @@ public class ProductionStock {
         table.setItems(data);
     }
 
+    private static List<ProductionStockRecord> toRecords(ProductionStockTable stock) {
+        List<ProductionStockRecord> records = new ArrayList<>(stock.size());
+        for (int row = 0; row < stock.size(); row++) {
+            records.add(toRecord(stock, row));
+        }
+        return records;
+    }
+
+    private static ProductionStockRecord toRecord(ProductionStockTable stock, int row) {
+        return new ProductionStockRecord(
+            stock.getId(row),
+            stock.getName(row),
+            "",                     // product_description (not stored)
+            stock.getBrand(row),
+            "",                     // brand_description (not stored)
+            stock.getUnit(row),
+            stock.getQuantity(row),
+            stock.getUnitCost(row),
+            stock.getSalePrice(row)
+        );
+    }
+
     // Simple record class for table display
     private static class ProductionStockRecord {
         private final int productionId;
@@ -2727,25 +2816,29 @@ public class ProductionStock {
         comboBox.setMaxWidth(Double.MAX_VALUE);
         
         // Load production stocks from database
-        try {
-            List<Object[]> productionStocks = database.getAllProductionStocksForDropdown();
-            ObservableList<String> items = FXCollections.observableArrayList();
+        Runnable load = () -> {
+            try {
+                List<Object[]> productionStocks = database.getAllProductionStocksForDropdown();
+                ObservableList<String> items = FXCollections.observableArrayList();
+            
+                for (Object[] stock : productionStocks) {
+                    // Format: "Product Name - Brand - Available: X"
+                    String item = String.format("%s - %s - Available: %s", 
+                        stock[1], // product_name
+                        stock[3], // brand_name
+                        formatNumber(((Number) stock[6]).doubleValue())  // quantity
+                    );
+                    items.add(item);
+                }
             
-            for (Object[] stock : productionStocks) {
-                // Format: "Product Name - Brand - Available: X"
-                String item = String.format("%s - %s - Available: %s", 
-                    stock[1], // product_name
-                    stock[3], // brand_name
-                    formatNumber(((Number) stock[6]).doubleValue())  // quantity
-                );
-                items.add(item);
+                comboBox.setItems(items);
+            } catch (Exception e) {
+                e.printStackTrace();
+                showAlert("Error", "Failed to load production stocks: " + e.getMessage());
             }
-            
-            comboBox.setItems(items);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert("Error", "Failed to load production stocks: " + e.getMessage());
-        }
+        };
+        load.run();
+        PageRefresh.reloadWith(comboBox, load);
         
         return comboBox;
     }
@@ -2758,25 +2851,29 @@ public class ProductionStock {
         comboBox.setMaxWidth(Double.MAX_VALUE);
         
         // Load raw stocks from database
-        try {
-            List<Object[]> rawStocks = database.getAllRawStocksWithUnitsForDropdown();
-            ObservableList<String> items = FXCollections.observableArrayList();
-            
-            for (Object[] stock : rawStocks) {
-                // Format: "Raw Material Name - Brand - Available: X"
-                String item = String.format("%s - %s - Available: %s", 
-                    stock[1], // item_name
-                    stock[3], // brand_name
-                    formatNumber(((Number) stock[5]).doubleValue())  // quantity
-                );
-                items.add(item);
-            }
+        Runnable load = () -> {
+            try {
+                List<Object[]> rawStocks = database.getAllRawStocksWithUnitsForDropdown();
+                ObservableList<String> items = FXCollections.observableArrayList();
+            
+                for (Object[] stock : rawStocks) {
+                    // Format: "Raw Material Name - Brand - Available: X"
+                    String item = String.format("%s - %s - Available: %s", 
+                        stock[1], // item_name
+                        stock[3], // brand_name
+                        formatNumber(((Number) stock[5]).doubleValue())  // quantity
+                    );
+                    items.add(item);
+                }
             
-            comboBox.setItems(items);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert("Error", "Failed to load raw stocks: " + e.getMessage());
-        }
+                comboBox.setItems(items);
+            } catch (Exception e) {
+                e.printStackTrace();
+                showAlert("Error", "Failed to load raw stocks: " + e.getMessage());
+            }
+        };
+        load.run();
+        PageRefresh.reloadWith(comboBox, load);
         
         return comboBox;
     }
@@ -2851,14 +2948,8 @@ public class ProductionStock {
                 return;
             }
             
-            // Insert production invoice and get ID
-            int invoiceId = database.insertProductionInvoiceAndGetId(productionDate, notes);
-            if (invoiceId == -1) {
-                showAlert("Error", "Failed to create production invoice");
-                return;
-            }
-            
-            // Prepare production items data
+            // Prepare production items data, resolving all product names from one lookup
+            Map<String, Integer> productionStockIds = getProductionStockIdsByName();
             List<Object[]> productionItems = new ArrayList<>();
             for (String item : itemsList.getItems()) {
                 // Parse the display text to extract data
@@ -2867,9 +2958,8 @@ public class ProductionStock {
                     String productName = parts[0];
                     double quantity = Double.parseDouble(parts[1]);
                     
-                    // Get production stock ID by name
-                    int productionStockId = getProductionStockIdByName(productName);
-                    if (productionStockId != -1) {
+                    Integer productionStockId = productionStockIds.get(productName);
+                    if (productionStockId != null) {
                         productionItems.add(new Object[]{productionStockId, quantity});
                     } else {
                         showAlert("Error", "Production stock not found for product: " + productName);
@@ -2883,9 +2973,17 @@ public class ProductionStock {
                 return;
             }
             
-            // Insert production invoice items and update stock quantities
-            if (!database.insertProductionInvoiceItems(invoiceId, productionItems)) {
-                showAlert("Error", "Failed to save production items and update stock quantities");
+            // Prepare raw materials data; left empty, each product's bill of materials is used
+            List<Object[]> rawMaterialsUsed = parseRawMaterials(materialsList);
+            if (rawMaterialsUsed == null) {
+                return;
+            }
+            
+            // Invoice, items, stock and raw material usage are saved together or not at all
+            int invoiceId = database.postProductionInvoice(productionDate, notes, productionItems, rawMaterialsUsed);
+            if (invoiceId == -1) {
+                showAlert("Error", "Failed to save production invoice. Nothing was changed.\n\n" +
+                    "Check that there is enough raw stock for the materials used.");
                 return;
             }
 
@@ -2898,9 +2996,9 @@ public class ProductionStock {
                     double quantity = Double.parseDouble(parts[1]);
                     
                     // Get production stock ID by name to retrieve unit information
-                    int productionStockId = getProductionStockIdByName(productName);
+                    Integer productionStockId = productionStockIds.get(productName);
                     String unit = "N/A";
-                    if (productionStockId != -1) {
+                    if (productionStockId != null) {
                         unit = getProductionStockUnit(productionStockId);
                     }
                     
@@ -2950,30 +3048,6 @@ public class ProductionStock {
                 }
             }
             
-            // Prepare raw materials data (if any)
-            if (!materialsList.getItems().isEmpty()) {
-                List<Object[]> rawMaterialsUsed = new ArrayList<>();
-                for (String material : materialsList.getItems()) {
-                    // Parse the display text to extract data
-                    String[] parts = material.split(" - Quantity Used: ");
-                    if (parts.length == 2) {
-                        String materialName = parts[0];
-                        double quantity = Double.parseDouble(parts[1]);
-                        
-                        // Get raw stock ID by name
-                        int rawStockId = database.getRawStockIdByName(materialName);
-                        if (rawStockId != -1) {
-                            rawMaterialsUsed.add(new Object[]{rawStockId, quantity});
-                        }
-                    }
-                }
-                
-                // Insert raw material usage
-                if (!database.insertProductionStockRawUsage(invoiceId, rawMaterialsUsed)) {
-                    showAlert("Warning", "Production invoice created but failed to save raw material usage");
-                }
-            }
-            
             showAlert("Success", "Production invoice created successfully!\nProduction stock quantities have been updated.");
             
             // Clear form
@@ -2989,6 +3063,91 @@ public class ProductionStock {
         }
     }
 
+    // Parse the raw materials list into {raw_stock_id, quantity_used}, resolving all names in one query.
+    // Returns null (after telling the user) if a material is no longer in raw stock.
+    private static List<Object[]> parseRawMaterials(ListView<String> materialsList) {
+        List<String[]> parsed = new ArrayList<>();
+        for (String material : materialsList.getItems()) {
+            String[] parts = material.split(" - Quantity Used: ");
+            if (parts.length == 2) {
+                parsed.add(parts);
+            }
+        }
+        List<String> names = new ArrayList<>();
+        for (String[] parts : parsed) {
+            names.add(parts[0]);
+        }
+        Map<String, Integer> rawStockIds = database.getRawStockIdsByName(names);
+        
+        List<Object[]> rawMaterialsUsed = new ArrayList<>();
+        for (String[] parts : parsed) {
+            Integer rawStockId = rawStockIds.get(parts[0]);
+            if (rawStockId == null) {
+                showAlert("Error", "Raw stock not found for material: " + parts[0]);
+                return null;
+            }
+            rawMaterialsUsed.add(new Object[]{rawStockId, Double.parseDouble(parts[1])});
+        }
+        return rawMaterialsUsed;
+    }
+
+    // Save the listed raw materials as the bill of materials of the single listed product,
+    // per unit produced, so later runs of it can leave the materials empty
+    private static void handleSaveBillOfMaterials(ListView<String> itemsList, ListView<String> materialsList) {
+        if (itemsList.getItems().size() != 1 || materialsList.getItems().isEmpty()) {
+            showAlert("Bill of Materials", "Add exactly one product and the raw materials used to make that quantity of it");
+            return;
+        }
+        String[] itemParts = itemsList.getItems().get(0).split(" - Quantity: ");
+        if (itemParts.length != 2) {
+            return;
+        }
+        String productName = itemParts[0];
+        double quantityProduced = Double.parseDouble(itemParts[1]);
+        Integer productionStockId = getProductionStockIdsByName().get(productName);
+        if (productionStockId == null) {
+            showAlert("Error", "Production stock not found for product: " + productName);
+            return;
+        }
+        List<Object[]> rawMaterialsUsed = parseRawMaterials(materialsList);
+        if (rawMaterialsUsed == null) {
+            return;
+        }
+        
+        List<Object[]> components = new ArrayList<>();
+        for (Object[] material : rawMaterialsUsed) {
+            components.add(new Object[]{material[0], (Double) material[1] / quantityProduced});
+        }
+        
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Confirm Bill of Materials");
+        alert.setHeaderText("Save these materials as the bill of materials for " + productName + "?");
+        alert.setContentText("Quantities are stored per unit (divided by " + formatNumber(quantityProduced) +
+            ") and replace any bill of materials saved before.");
+        if (alert.showAndWait().get() != ButtonType.OK) {
+            return;
+        }
+        if (database.saveBillOfMaterials(productionStockId, components)) {
+            showAlert("Success", "Bill of materials saved for " + productName + ".\n\n" +
+                "Production runs of it with no raw materials listed will use it.");
+        } else {
+            showAlert("Error", "Failed to save bill of materials for " + productName);
+        }
+    }
+
+    // Production stock IDs keyed by product name, from one dropdown query
+    private static Map<String, Integer> getProductionStockIdsByName() {
+        Map<String, Integer> ids = new HashMap<>();
+        try {
+            for (Object[] stock : database.getAllProductionStocksForDropdown()) {
+                ids.putIfAbsent(stock[1].toString(), (Integer) stock[0]);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return ids;
+    }
+
     // Helper method to get production stock ID by name
     private static int getProductionStockIdByName(String productName) {
         try {
@@ -3140,6 +3299,7 @@ public class ProductionStock {
             );
             
             if (returnInvoiceId > 0) {
+                returnInvoiceNumber = sqliteDatabase.getAssignedInvoiceNumber(returnInvoiceNumber);
                 // Insert return invoice items
                 if (!returnInvoiceItems.isEmpty()) {
                     sqliteDatabase.insertProductionReturnInvoiceItems(returnInvoiceId, returnInvoiceItems);
@@ -3446,42 +3606,15 @@ public class ProductionStock {
     private static void filterProductionStockTable(TableView<ProductionStockRecord> stockTable, 
                                                  String searchText, String brandFilter) {
         try {
-            // Get all production stock from database
-            List<Object[]> allStock = database.getAllProductionStocks();
+            // Filter the rows loaded by the last refresh; only query if there was none
+            Object loaded = stockTable.getProperties().get(STOCK_TABLE_KEY);
+            ProductionStockTable stock = loaded instanceof ProductionStockTable
+                ? (ProductionStockTable) loaded : database.getProductionStockTable();
+            stockTable.getProperties().put(STOCK_TABLE_KEY, stock);
+
             ObservableList<ProductionStockRecord> filteredRecords = FXCollections.observableArrayList();
-            
-            for (Object[] stock : allStock) {
-                int productionId = (Integer) stock[0];
-                String productName = (String) stock[1];
-                String productDesc = (String) stock[2];
-                String brandName = (String) stock[3];
-                String brandDesc = (String) stock[4];
-                String unitName = (String) stock[5];
-                int quantity = (Integer) stock[6];
-                double unitCost = (Double) stock[7];
-                double salePrice = (Double) stock[8];
-                
-                boolean matchesSearch = true;
-                boolean matchesBrand = true;
-                
-                // Apply search filter
-                if (searchText != null && !searchText.trim().isEmpty()) {
-                    String search = searchText.toLowerCase();
-                    matchesSearch = productName.toLowerCase().contains(search) || 
-                                  brandName.toLowerCase().contains(search);
-                }
-                
-                // Apply brand filter
-                if (brandFilter != null && !brandFilter.equals("All Brands")) {
-                    matchesBrand = brandName.equals(brandFilter);
-                }
-                
-                if (matchesSearch && matchesBrand) {
-                    filteredRecords.add(new ProductionStockRecord(
-                        productionId, productName, productDesc, brandName, brandDesc, unitName, 
-                        quantity, unitCost, salePrice
-                    ));
-                }
+            for (int row : stock.filter(searchText, brandFilter)) {
+                filteredRecords.add(toRecord(stock, row));
             }
             
             stockTable.setItems(filteredRecords);
@@ -3496,9 +3629,8 @@ public class ProductionStock {
      * Opens a dialog to edit production stock item details
      * 
      * @param record The production stock record to edit
-     * @param tableView The table view to refresh after editing
      */
-    private static void openEditProductionStockDialog(ProductionStockRecord record, TableView<ProductionStockRecord> tableView) {
+    private static void openEditProductionStockDialog(ProductionStockRecord record) {
         // Create a modal dialog
         Stage dialog = new Stage();
         dialog.initModality(Modality.APPLICATION_MODAL);
@@ -3730,9 +3862,7 @@ public class ProductionStock {
                 if (success) {
                     showAlert("Success", "Production stock updated successfully!");
                     dialog.close();
-                    
-                    // Refresh the table view
-                    refreshProductionStockTable(tableView);
+                    // The table updates the edited row from the change bus
                 } else {
                     showAlert("Error", "Failed to update production stock. Please try again.");
                 }
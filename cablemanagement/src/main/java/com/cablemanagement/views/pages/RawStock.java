@@ -16,9 +16,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import com.cablemanagement.config;
+import com.cablemanagement.database.RawStockTable;
 import com.cablemanagement.database.SQLiteDatabase;
 import com.cablemanagement.database.db;
 import com.cablemanagement.model.Brand;
+import com.cablemanagement.views.LiveRows;
+import com.cablemanagement.views.PageRefresh;
 import com.cablemanagement.model.RawStockPurchaseItem;
 import com.cablemanagement.model.RawStockUseItem;
 import com.cablemanagement.invoice.Item;
@@ -28,7 +32,7 @@ import com.cablemanagement.invoice.PrintManager;
 public class RawStock {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final db database = new SQLiteDatabase();
+    private static final db database = config.database;
 
     public static Node get() {
         BorderPane mainLayout = new BorderPane();
@@ -117,21 +121,32 @@ public class RawStock {
         // Brand ComboBox for better database integration
         rawStockBrandCombo = new ComboBox<>();
         rawStockBrandCombo.setPromptText("Select Brand");
-        for (Brand b : database.getAllBrands()) {
-            rawStockBrandCombo.getItems().add(b.nameProperty().get());
-        }
+        ComboBox<String> brandCombo = rawStockBrandCombo;
+        Runnable loadBrands = () -> {
+            List<String> brandNames = new ArrayList<>();
+            for (Brand b : database.getAllBrands()) {
+                brandNames.add(b.nameProperty().get());
+            }
+            brandCombo.getItems().setAll(brandNames);
+        };
+        loadBrands.run();
+        PageRefresh.reloadWith(rawStockBrandCombo, loadBrands);
         rawStockBrandCombo.setPrefWidth(200);
         
         // Unit ComboBox for selecting units
         rawStockUnitCombo = new ComboBox<>();
         rawStockUnitCombo.setPromptText("Select Unit");
         rawStockUnitCombo.getItems().addAll(database.getAllUnits());
+        ComboBox<String> unitCombo = rawStockUnitCombo;
+        PageRefresh.reloadWith(rawStockUnitCombo, () -> unitCombo.getItems().setAll(database.getAllUnits()));
         rawStockUnitCombo.setPrefWidth(200);
         
         // Supplier ComboBox (optional)
         rawStockSupplierCombo = new ComboBox<>();
         rawStockSupplierCombo.setPromptText("Select Supplier");
         rawStockSupplierCombo.getItems().addAll(database.getAllSupplierNames());
+        ComboBox<String> supplierCombo = rawStockSupplierCombo;
+        PageRefresh.reloadWith(rawStockSupplierCombo, () -> supplierCombo.getItems().setAll(database.getAllSupplierNames()));
         rawStockSupplierCombo.setPrefWidth(200);
 
         Button submitBtn = createSubmitButton("Submit Raw Stock");
@@ -140,6 +155,8 @@ public class RawStock {
         Label tableHeading = createSubheading("Registered Raw Stock:");
         rawStockTable = createRawStockTable();
         refreshRawStockTable(rawStockTable);
+        TableView<RawStockRecord> stockTable = rawStockTable;
+        PageRefresh.reloadWith(rawStockTable, () -> refreshRawStockTable(stockTable));
         
         // Add update functionality (double-click)
         rawStockTable.setRowFactory(tv -> {
@@ -148,7 +165,7 @@ public class RawStock {
                 if (event.getClickCount() == 2 && !row.isEmpty()) {
                     RawStockRecord selectedStock = row.getItem();
                     showUpdateStockDialog(selectedStock, rawStockNameField, rawStockBrandCombo, rawStockUnitCombo, 
-                                          rawStockQuantityField, rawStockUnitPriceField, rawStockTable);
+                                          rawStockQuantityField, rawStockUnitPriceField);
                 }
             });
             return row;
@@ -156,10 +173,14 @@ public class RawStock {
 
         submitBtn.setOnAction(e -> handleRawStockSubmit(
             rawStockNameField, rawStockBrandCombo, rawStockUnitCombo, rawStockSupplierCombo,
-            rawStockQuantityField, rawStockUnitPriceField,
-            rawStockTable
+            rawStockQuantityField, rawStockUnitPriceField
         ));
 
+        // Raw stock changed by any write (this form, purchases, returns, production) is updated row by row
+        LiveRows.bind(rawStockTable, "Raw_Stock", rawStockTable::getItems, RawStockRecord::getId,
+            ids -> toRecords(database.getRawStockTable(ids)),
+            () -> refreshRawStockTable(rawStockTable), null);
+
         // Create form content in a compact layout
         VBox formContent = new VBox(15);
         formContent.setStyle("-fx-text-fill: black;");
@@ -272,8 +293,7 @@ public class RawStock {
                         rawStockBrandCombo, 
                         rawStockUnitCombo, 
                         rawStockQuantityField, 
-                        rawStockUnitPriceField, 
-                        rawStockTable
+                        rawStockUnitPriceField
                     );
                 });
             }
@@ -299,22 +319,23 @@ public class RawStock {
     }
 
     private static void refreshRawStockTable(TableView<RawStockRecord> table) {
-        ObservableList<RawStockRecord> data = FXCollections.observableArrayList();
-        List<Object[]> rawStocks = database.getAllRawStocks();
-        
-        for (Object[] row : rawStocks) {
-            data.add(new RawStockRecord(
-                (Integer) row[0],  // stock_id
-                (String) row[1],   // item_name
-                (String) row[2],   // brand_name
-                (String) row[3],   // unit_name
-                (Double) row[4],   // quantity
-                (Double) row[5],   // unit_price
-                (Double) row[6]    // total_cost
+        table.setItems(FXCollections.observableArrayList(toRecords(database.getRawStockTable())));
+    }
+
+    private static List<RawStockRecord> toRecords(RawStockTable rawStocks) {
+        List<RawStockRecord> records = new ArrayList<>(rawStocks.size());
+        for (int row = 0; row < rawStocks.size(); row++) {
+            records.add(new RawStockRecord(
+                rawStocks.getId(row),
+                rawStocks.getName(row),
+                rawStocks.getBrand(row),
+                rawStocks.getUnit(row),
+                rawStocks.getQuantity(row),
+                rawStocks.getUnitPrice(row),
+                rawStocks.getTotalCost(row)
             ));
         }
-        
-        table.setItems(data);
+        return records;
     }
 
     private static VBox createRawStockPurchaseInvoiceForm() {
@@ -334,11 +355,13 @@ public class RawStock {
         TextField invoiceNumberField = createTextField(database.generateNextInvoiceNumber("RPI"), "Auto-generated Invoice Number");
         invoiceNumberField.setEditable(false);
         invoiceNumberField.setStyle("-fx-background-color: #f0f0f0;");
+        PageRefresh.reloadWith(invoiceNumberField, () -> invoiceNumberField.setText(database.generateNextInvoiceNumber("RPI")));
 
         // Supplier dropdown
         ComboBox<String> supplierCombo = new ComboBox<>();
         supplierCombo.setPromptText("Select Supplier");
         supplierCombo.getItems().addAll(database.getAllSupplierNames());
+        PageRefresh.reloadWith(supplierCombo, () -> supplierCombo.getItems().setAll(database.getAllSupplierNames()));
         supplierCombo.setPrefWidth(300);
         // Print selected supplier name when selected
         supplierCombo.setOnAction(e -> {
@@ -375,12 +398,19 @@ public class RawStock {
 
         Button addItemBtn = createActionButton("Add Item");
 
-        // Populate raw stock dropdown
-        List<Object[]> rawStocks = database.getAllRawStocksForDropdown();
-        for (Object[] stock : rawStocks) {
-            String displayName = String.format("%s (%s - %s)", stock[1], stock[2], stock[3]); // name (category - brand)
-            rawStockCombo.getItems().add(displayName);
-        }
+        // Populate raw stock dropdown; the list is kept for the price lookup below
+        List<Object[]> rawStocks = new ArrayList<>();
+        Runnable loadRawStocks = () -> {
+            rawStocks.clear();
+            rawStocks.addAll(database.getAllRawStocksForDropdown());
+            List<String> displayNames = new ArrayList<>();
+            for (Object[] stock : rawStocks) {
+                displayNames.add(String.format("%s (%s - %s)", stock[1], stock[2], stock[3])); // name (category - brand)
+            }
+            rawStockCombo.getItems().setAll(displayNames);
+        };
+        loadRawStocks.run();
+        PageRefresh.reloadWith(rawStockCombo, loadRawStocks);
         
         // Auto-fill price when raw stock is selected
         rawStockCombo.setOnAction(e -> {
@@ -640,6 +670,8 @@ private static ScrollPane createRawStockReturnPurchaseInvoiceForm() {
     TextField returnInvoiceNumberField = createTextField("Return Invoice Number");
     returnInvoiceNumberField.setEditable(false);
     returnInvoiceNumberField.setText(database.generateReturnInvoiceNumber());
+    PageRefresh.reloadWith(returnInvoiceNumberField,
+        () -> returnInvoiceNumberField.setText(database.generateReturnInvoiceNumber()));
 
     ComboBox<String> originalInvoiceComboBox = new ComboBox<>();
     originalInvoiceComboBox.setPromptText("Select Original Invoice");
@@ -702,6 +734,7 @@ private static ScrollPane createRawStockReturnPurchaseInvoiceForm() {
 
     // === Load Dropdowns and Handlers ===
     loadOriginalInvoicesIntoDropdown(originalInvoiceComboBox);
+    PageRefresh.reloadWith(originalInvoiceComboBox, () -> loadOriginalInvoicesIntoDropdown(originalInvoiceComboBox));
 
     originalInvoiceComboBox.setOnAction(e -> {
         String selected = originalInvoiceComboBox.getValue();
@@ -1023,6 +1056,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
                 returnInvoiceNumber, originalInvoiceId, supplierId, returnDate, totalAmount);
             
             if (returnInvoiceId > 0) {
+                returnInvoiceNumber = database.getAssignedInvoiceNumber(returnInvoiceNumber);
                 // Insert return invoice items and update stock quantities
                 List<RawStockPurchaseItem> items = new ArrayList<>(selectedItemsTable.getItems());
                 boolean itemsInserted = database.insertRawPurchaseReturnInvoiceItems(returnInvoiceId, items);
@@ -1135,6 +1169,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
                         retryReturnInvoiceNumber, originalInvoiceId, supplierId, returnDate, totalAmount);
                     
                     if (returnInvoiceId > 0) {
+                        retryReturnInvoiceNumber = database.getAssignedInvoiceNumber(retryReturnInvoiceNumber);
                         List<RawStockPurchaseItem> items = new ArrayList<>(selectedItemsTable.getItems());
                         boolean itemsInserted = database.insertRawPurchaseReturnInvoiceItems(returnInvoiceId, items);
                         
@@ -1178,8 +1213,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
         ComboBox<String> brandCombo, 
         ComboBox<String> unitCombo,
         TextField quantityField, 
-        TextField unitPriceField, 
-        TableView<RawStockRecord> stockTable
+        TextField unitPriceField
     ) {
         // Create a dialog for updating the selected raw stock
         Dialog<ButtonType> dialog = new Dialog<>();
@@ -1263,9 +1297,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
                     unitCombo.setValue(unit);
                     quantityField.setText(String.format("%.0f", quantity));
                     unitPriceField.setText(String.format("%.2f", unitPrice));
-                    
-                    // Refresh the table
-                    refreshRawStockTable(stockTable);
+                    // The table updates the row from the change bus
                 } else {
                     showAlert(Alert.AlertType.ERROR, "Error", "Failed to update raw stock");
                 }
@@ -1292,6 +1324,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
         // Load auto-generated invoice number
         String autoInvoiceNumber = database.generateUseInvoiceNumber();
         invoiceNumberField.setText(autoInvoiceNumber);
+        PageRefresh.reloadWith(invoiceNumberField, () -> invoiceNumberField.setText(database.generateUseInvoiceNumber()));
 
         // Usage Date
         DatePicker usageDatePicker = new DatePicker();
@@ -1339,6 +1372,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
 
         // Load available items initially
         loadAvailableRawStockItems(availableItemsTable);
+        PageRefresh.reloadWith(availableItemsTable, () -> loadAvailableRawStockItems(availableItemsTable));
 
         // Add item button action
         addItemBtn.setOnAction(e -> {
@@ -1386,6 +1420,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
                 int invoiceId = database.insertRawStockUseInvoiceAndGetId(invoiceNumber, usageDate, totalAmount, referencePurpose);
                 
                 if (invoiceId > 0) {
+                    invoiceNumber = database.getAssignedInvoiceNumber(invoiceNumber);
                     List<RawStockUseItem> items = new ArrayList<>(selectedItemsTable.getItems());
                     boolean itemsInserted = database.insertRawStockUseInvoiceItems(invoiceId, items);
                     
@@ -1979,6 +2014,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
             );
 
             if (success) {
+                invoiceNumber = database.getAssignedInvoiceNumber(invoiceNumber);
                 showAlert(Alert.AlertType.INFORMATION, "Success", 
                     String.format("Purchase Invoice %s created successfully!\nTotal Amount: %.2f", 
                     invoiceNumber, totalAmount));
@@ -2018,6 +2054,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
                     );
                     
                     if (success) {
+                        retryInvoiceNumber = database.getAssignedInvoiceNumber(retryInvoiceNumber);
                         showAlert(Alert.AlertType.INFORMATION, "Success", 
                             String.format("Purchase Invoice %s created successfully!\nTotal Amount: %.2f", 
                             retryInvoiceNumber, totalAmount));
@@ -2056,8 +2093,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
     // Form submission handlers
     private static void handleRawStockSubmit(
         TextField nameField, ComboBox<String> brandCombo, ComboBox<String> unitCombo, ComboBox<String> supplierCombo,
-        TextField quantityField, TextField unitPriceField,
-        TableView<RawStockRecord> stockTable
+        TextField quantityField, TextField unitPriceField
     ) {
         String name = nameField.getText().trim();
         String brand = brandCombo.getValue();
@@ -2088,9 +2124,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
                 supplierCombo.setValue(null);
                 quantityField.clear();
                 unitPriceField.clear();
-                
-                // Refresh table
-                refreshRawStockTable(stockTable);
+                // The table picks the new row up from the change bus
             } else {
                 showAlert(Alert.AlertType.ERROR, "Error", "Failed to register raw stock. Please check your entries.");
             }
@@ -2536,6 +2570,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
             int invoiceId = database.insertRawStockUseInvoiceAndGetId(invoiceNumber, usageDate, totalAmount, referencePurpose);
             
             if (invoiceId > 0) {
+                invoiceNumber = database.getAssignedInvoiceNumber(invoiceNumber);
                 // Insert invoice items
                 List<RawStockUseItem> items = new ArrayList<>(selectedItemsTable.getItems());
                 
@@ -2596,6 +2631,7 @@ private static TableView<RawStockPurchaseItem> createAvailableItemsTable() {
                     int invoiceId = database.insertRawStockUseInvoiceAndGetId(retryInvoiceNumber, usageDate, totalAmount, referencePurpose);
                     
                     if (invoiceId > 0) {
+                        retryInvoiceNumber = database.getAssignedInvoiceNumber(retryInvoiceNumber);
                         List<RawStockUseItem> items = new ArrayList<>(selectedItemsTable.getItems());
                         
                         // Ensure all items have their total cost properly calculated and validate
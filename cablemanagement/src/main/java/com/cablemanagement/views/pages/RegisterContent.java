@@ -5,6 +5,8 @@ import com.cablemanagement.model.Brand;
 import com.cablemanagement.model.Customer;
 import com.cablemanagement.model.Manufacturer;
 import com.cablemanagement.model.Supplier;
+import com.cablemanagement.views.PageRefresh;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -68,6 +70,20 @@ public class RegisterContent {
         bar.getChildren().add(btn);
     }
 
+    /**
+     * Fill a control's items from the database now, and again when the page
+     * is refreshed after the table changed elsewhere.
+     */
+    private static <T> void loadItems(Node control, ObservableList<T> items, java.util.function.Supplier<List<T>> query) {
+        Runnable load = () -> {
+            if (config.database != null && config.database.isConnected()) {
+                items.setAll(query.get());
+            }
+        };
+        load.run();
+        PageRefresh.reloadWith(control, load);
+    }
+
     // --------------------- FORMS ---------------------
 
     private static VBox createCategoryForm() {
@@ -99,7 +115,7 @@ public class RegisterContent {
 
         // Load from DB
         if (config.database != null && config.database.isConnected()) {
-            categoryList.getItems().addAll(config.database.getAllCategories());
+            loadItems(categoryList, categoryList.getItems(), config.database::getAllCategories);
         } else {
             categoryList.getItems().addAll("Fiber Optics", "Coaxial Cables", "Ethernet Cables"); // Fallback mock data
         }
@@ -170,9 +186,16 @@ public class RegisterContent {
 
         // Load provinces and all tehsils from database
         if (config.database != null && config.database.isConnected()) {
-            provinceBox.getItems().addAll(config.database.getAllProvinces());
+            loadItems(provinceBox, provinceBox.getItems(), config.database::getAllProvinces);
             // Also populate all tehsils initially for easier selection
-            tehsilBox.getItems().addAll(config.database.getAllTehsils());
+            loadItems(tehsilBox, tehsilBox.getItems(), () -> districtBox.getValue() != null
+                ? config.database.getTehsilsByDistrict(districtBox.getValue())
+                : config.database.getAllTehsils());
+            PageRefresh.reloadWith(districtBox, () -> {
+                if (provinceBox.getValue() != null) {
+                    districtBox.getItems().setAll(config.database.getDistrictsByProvince(provinceBox.getValue()));
+                }
+            });
         }
 
         // Province selection handler
@@ -254,7 +277,7 @@ public class RegisterContent {
         
         // Load existing manufacturers from database
         if (config.database != null && config.database.isConnected()) {
-            table.getItems().addAll(config.database.getAllManufacturers());
+            loadItems(table, table.getItems(), config.database::getAllManufacturers);
         }
 
         // Submit Action
@@ -337,9 +360,19 @@ public class RegisterContent {
         ComboBox<String> tehsilBox = new ComboBox<>();
         tehsilBox.getStyleClass().add("form-input");
 
-        // Load provinces from database
+        // Load provinces from database; a refresh also reloads the districts and tehsils picked from
         if (config.database != null && config.database.isConnected()) {
-            provinceBox.getItems().addAll(config.database.getAllProvinces());
+            loadItems(provinceBox, provinceBox.getItems(), config.database::getAllProvinces);
+            PageRefresh.reloadWith(districtBox, () -> {
+                if (provinceBox.getValue() != null) {
+                    districtBox.getItems().setAll(config.database.getDistrictsByProvince(provinceBox.getValue()));
+                }
+            });
+            PageRefresh.reloadWith(tehsilBox, () -> {
+                if (districtBox.getValue() != null) {
+                    tehsilBox.getItems().setAll(config.database.getTehsilsByDistrict(districtBox.getValue()));
+                }
+            });
         }
 
         // Province selection handler
@@ -419,7 +452,7 @@ public class RegisterContent {
 
         // Load existing brands from database
         if (config.database != null && config.database.isConnected()) {
-            table.getItems().addAll(config.database.getAllBrands());
+            loadItems(table, table.getItems(), config.database::getAllBrands);
         }
 
         // Submit Action
@@ -515,7 +548,7 @@ public class RegisterContent {
 
         // Load existing provinces from database
         if (config.database != null && config.database.isConnected()) {
-            provinceList.getItems().addAll(config.database.getAllProvinces());
+            loadItems(provinceList, provinceList.getItems(), config.database::getAllProvinces);
         }
 
         submit.setOnAction(e -> {
@@ -584,7 +617,7 @@ public class RegisterContent {
 
         // Load provinces from database
         if (config.database != null && config.database.isConnected()) {
-            provinceBox.getItems().addAll(config.database.getAllProvinces());
+            loadItems(provinceBox, provinceBox.getItems(), config.database::getAllProvinces);
         }
 
         // Submit and Delete Buttons
@@ -690,7 +723,7 @@ public class RegisterContent {
 
         // Load districts from database
         if (config.database != null && config.database.isConnected()) {
-            districtBox.getItems().addAll(config.database.getAllDistricts());
+            loadItems(districtBox, districtBox.getItems(), config.database::getAllDistricts);
         }
 
         // Submit and Delete Buttons
@@ -806,7 +839,7 @@ public class RegisterContent {
 
         // Load existing units from database
         if (config.database != null && config.database.isConnected()) {
-            unitList.getItems().addAll(config.database.getAllUnits());
+            loadItems(unitList, unitList.getItems(), config.database::getAllUnits);
         }
 
         submit.setOnAction(e -> {
@@ -875,7 +908,7 @@ public class RegisterContent {
 
         // Load all tehsils from database
         if (config.database != null && config.database.isConnected()) {
-            tehsilBox.getItems().addAll(config.database.getAllTehsils());
+            loadItems(tehsilBox, tehsilBox.getItems(), config.database::getAllTehsils);
         }
 
         Label nameLabel = new Label("Customer Name:");
@@ -940,7 +973,7 @@ public class RegisterContent {
 
         // Load existing customers from database
         if (config.database != null && config.database.isConnected()) {
-            table.getItems().addAll(config.database.getAllCustomers());
+            loadItems(table, table.getItems(), config.database::getAllCustomers);
         }
 
         // Submit action
@@ -1051,7 +1084,7 @@ public class RegisterContent {
 
         // Load all tehsils from database
         if (config.database != null && config.database.isConnected()) {
-            tehsilBox.getItems().addAll(config.database.getAllTehsils());
+            loadItems(tehsilBox, tehsilBox.getItems(), config.database::getAllTehsils);
         }
 
         Label nameLabel = new Label("Supplier Name:");
@@ -1116,7 +1149,7 @@ public class RegisterContent {
 
         // Load existing suppliers from database
         if (config.database != null && config.database.isConnected()) {
-            table.getItems().addAll(config.database.getAllSuppliers());
+            loadItems(table, table.getItems(), config.database::getAllSuppliers);
         }
 
         // Submit action
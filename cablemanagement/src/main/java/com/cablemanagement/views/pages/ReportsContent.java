@@ -11,16 +11,20 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.cablemanagement.config;
+import com.cablemanagement.database.DbLog;
+import com.cablemanagement.database.ReportRow;
+import com.cablemanagement.database.ReportSpec;
+import com.cablemanagement.views.AsyncLoader;
+import com.cablemanagement.views.PageRefresh;
+import com.cablemanagement.views.ReportStreamer;
 
 public class ReportsContent {
 
@@ -63,7 +67,7 @@ public class ReportsContent {
             "Area-Wise Report",
             "Brand Sales Report",
             // "Brand Profit Report",
-            // "Customer Sales Report",
+            "Customer Sales Report",
             // "Supplier Sales Report",
             // "Attendance Report"
         };
@@ -82,7 +86,7 @@ public class ReportsContent {
             () -> reportArea.getChildren().setAll(createAreaWiseReport()),
             () -> reportArea.getChildren().setAll(createBrandSalesReport()),
             // () -> reportArea.getChildren().setAll(createBrandProfitReport()),
-            // () -> reportArea.getChildren().setAll(createCustomerSalesReport()),
+            () -> reportArea.getChildren().setAll(createCustomerSalesReport()),
             // () -> reportArea.getChildren().setAll(createSupplierSalesReport()),
             // () -> reportArea.getChildren().setAll(createAttendanceReport())
         };
@@ -192,59 +196,27 @@ public class ReportsContent {
         Label errorLabel = new Label("");
         errorLabel.setStyle("-fx-text-fill: red;");
 
-        // Load data on filter
+        // Load data on filter; rows stream in while the query runs
         filterBtn.setOnAction(e -> {
-            table.getItems().clear();
             table.getColumns().clear();
             errorLabel.setText("");
-
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.Date from = java.sql.Date.valueOf(fromDatePicker.getValue());
-                    java.sql.Date to = java.sql.Date.valueOf(toDatePicker.getValue());
-                    String selectedReport = reportComboBox.getValue();
-
-                    ResultSet rs = config.database.getPurchaseReport(from, to, selectedReport);
-                    if (rs != null && rs.next()) {
-                        ResultSetMetaData metaData = rs.getMetaData();
-                        int columnCount = metaData.getColumnCount();
-
-                        // Create columns dynamically
-                        for (int i = 1; i <= columnCount; i++) {
-                            final String colName = metaData.getColumnLabel(i);
-                            TableColumn<Map<String, String>, String> col = new TableColumn<>(colName);
-                            col.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getOrDefault(colName, "")));
-                            table.getColumns().add(col);
-                        }
-
-                        // Remove rs.beforeFirst(); because SQLite ResultSet is TYPE_FORWARD_ONLY
-
-                        // Fill table with data
-                        ObservableList<Map<String, String>> data = FXCollections.observableArrayList();
-                        // The first rs.next() above already moved to the first row, so process that row first
-                        do {
-                            Map<String, String> row = new HashMap<>();
-                            for (int i = 1; i <= columnCount; i++) {
-                                row.put(metaData.getColumnLabel(i), rs.getString(i));
-                            }
-                            data.add(row);
-                        } while (rs.next());
-
-                        table.setItems(data);
-                    } else {
-                        errorLabel.setText("No data found for selected filters.");
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading data: " + ex.getMessage());
+            if (config.database == null || !config.database.isConnected()) {
+                errorLabel.setText("Database not connected.");
+                return;
             }
+            ReportSpec<Map<String, String>> spec = ReportSpec
+                .purchase(fromDatePicker.getValue(), toDatePicker.getValue(), reportComboBox.getValue())
+                .map(ReportsContent::toLabelMap);
+            ReportStreamer.stream(table, spec,
+                labels -> addLabelColumns(table, labels),
+                (rows, truncated) -> showRowCount(errorLabel, rows, truncated, "No data found for selected filters."),
+                error -> errorLabel.setText("Error loading data: " + error.getMessage()));
         });
 
         // Trigger filter once on load
         filterBtn.fire();
+        // A page refresh runs the report again for the filters picked
+        PageRefresh.reloadWith(table, filterBtn::fire);
 
         form.getChildren().addAll(heading, reportTypeBox, dateRangeBox, buttons, errorLabel, table);
         return form;
@@ -289,58 +261,37 @@ public class ReportsContent {
         errorLabel.setStyle("-fx-text-fill: red;");
 
         filterBtn.setOnAction(e -> {
-            table.getItems().clear();
             table.getColumns().clear();
             errorLabel.setText("");
-
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.Date from = java.sql.Date.valueOf(fromDatePicker.getValue());
-                    java.sql.Date to = java.sql.Date.valueOf(toDatePicker.getValue());
-                    String selectedReport = reportComboBox.getValue();
-
-                    ResultSet rs = config.database.getSalesReport(from, to, selectedReport);
-
-                    if (rs != null) {
-                        ResultSetMetaData meta = rs.getMetaData();
-                        int columnCount = meta.getColumnCount();
-
-                        // Auto-create columns
-                        for (int i = 1; i <= columnCount; i++) {
-                            final int colIndex = i;
-                            TableColumn<ObservableList<String>, String> col =
-                                new TableColumn<>(meta.getColumnLabel(i));
-                            col.setCellValueFactory(data ->
-                                new SimpleStringProperty(data.getValue().get(colIndex - 1))
-                            );
-                            table.getColumns().add(col);
-                        }
-
-                        // Add rows
-                        while (rs.next()) {
-                            ObservableList<String> row = FXCollections.observableArrayList();
-                            for (int i = 1; i <= columnCount; i++) {
-                                row.add(rs.getString(i));
-                            }
-                            table.getItems().add(row);
-                        }
-
-                        if (table.getItems().isEmpty()) {
-                            errorLabel.setText("No data found for selected filters.");
-                        }
-                    } else {
-                        errorLabel.setText("No data returned from query.");
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading sales data: " + ex.getMessage());
+            if (config.database == null || !config.database.isConnected()) {
+                errorLabel.setText("Database not connected.");
+                return;
             }
+            ReportSpec<ObservableList<String>> spec = ReportSpec
+                .sales(fromDatePicker.getValue(), toDatePicker.getValue(), reportComboBox.getValue())
+                .map(row -> {
+                    ObservableList<String> values = FXCollections.observableArrayList();
+                    for (int i = 0; i < row.size(); i++) {
+                        values.add(row.getString(i));
+                    }
+                    return values;
+                });
+            ReportStreamer.stream(table, spec,
+                labels -> {
+                    // Auto-create columns
+                    for (int i = 0; i < labels.size(); i++) {
+                        final int colIndex = i;
+                        TableColumn<ObservableList<String>, String> col = new TableColumn<>(labels.get(i));
+                        col.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().get(colIndex)));
+                        table.getColumns().add(col);
+                    }
+                },
+                (rows, truncated) -> showRowCount(errorLabel, rows, truncated, "No data found for selected filters."),
+                error -> errorLabel.setText("Error loading sales data: " + error.getMessage()));
         });
 
         filterBtn.fire();
+        PageRefresh.reloadWith(table, filterBtn::fire);
 
         form.getChildren().addAll(heading, reportTypeBox, dateRangeBox, buttons, errorLabel, table);
         return form;
@@ -391,57 +342,24 @@ public class ReportsContent {
 
         // Load data
         filterBtn.setOnAction(e -> {
-            table.getItems().clear();
             table.getColumns().clear();
             errorLabel.setText("");
-
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.Date from = java.sql.Date.valueOf(fromDatePicker.getValue());
-                    java.sql.Date to = java.sql.Date.valueOf(toDatePicker.getValue());
-                    String selectedReport = reportComboBox.getValue();
-
-                    ResultSet rs = config.database.getReturnPurchaseReport(from, to, selectedReport); // Make sure backend handles report type
-
-                    if (rs != null && rs.next()) {
-                        ResultSetMetaData metaData = rs.getMetaData();
-                        int columnCount = metaData.getColumnCount();
-
-                        // Create columns dynamically
-                        for (int i = 1; i <= columnCount; i++) {
-                            final String colName = metaData.getColumnLabel(i);
-                            TableColumn<Map<String, String>, String> col = new TableColumn<>(colName);
-                            col.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getOrDefault(colName, "")));
-                            table.getColumns().add(col);
-                        }
-
-                        // Fill data
-                        ObservableList<Map<String, String>> data = FXCollections.observableArrayList();
-                        
-                        // The first rs.next() above already moved to the first row, so process that row first
-                        do {
-                            Map<String, String> row = new HashMap<>();
-                            for (int i = 1; i <= columnCount; i++) {
-                                row.put(metaData.getColumnLabel(i), rs.getString(i));
-                            }
-                            data.add(row);
-                        } while (rs.next());
-
-                        table.setItems(data);
-                    } else {
-                        errorLabel.setText("No data found for selected filters.");
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading data: " + ex.getMessage());
+            if (config.database == null || !config.database.isConnected()) {
+                errorLabel.setText("Database not connected.");
+                return;
             }
+            ReportSpec<Map<String, String>> spec = ReportSpec
+                .returnPurchase(fromDatePicker.getValue(), toDatePicker.getValue(), reportComboBox.getValue())
+                .map(ReportsContent::toLabelMap);
+            ReportStreamer.stream(table, spec,
+                labels -> addLabelColumns(table, labels),
+                (rows, truncated) -> showRowCount(errorLabel, rows, truncated, "No data found for selected filters."),
+                error -> errorLabel.setText("Error loading data: " + error.getMessage()));
         });
 
         // Trigger load on start
         filterBtn.fire();
+        PageRefresh.reloadWith(table, filterBtn::fire);
 
         form.getChildren().addAll(heading, reportTypeBox, dateRangeBox, buttons, errorLabel, table);
         return form;
@@ -492,56 +410,24 @@ public class ReportsContent {
 
         // Load data from backend
         filterBtn.setOnAction(e -> {
-            table.getItems().clear();
             table.getColumns().clear();
             errorLabel.setText("");
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.Date from = java.sql.Date.valueOf(fromDatePicker.getValue());
-                    java.sql.Date to = java.sql.Date.valueOf(toDatePicker.getValue());
-                    String selectedReport = reportComboBox.getValue();
-                    
-                    java.sql.ResultSet rs = config.database.getReturnSalesReport(from, to, selectedReport);
-                    
-                    if (rs != null && rs.next()) {
-                        java.sql.ResultSetMetaData metaData = rs.getMetaData();
-                        int columnCount = metaData.getColumnCount();
-
-                        // Create columns dynamically
-                        for (int i = 1; i <= columnCount; i++) {
-                            final String colName = metaData.getColumnLabel(i);
-                            TableColumn<Map<String, String>, String> col = new TableColumn<>(colName);
-                            col.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getOrDefault(colName, "")));
-                            table.getColumns().add(col);
-                        }
-
-                        // Fill data
-                        ObservableList<Map<String, String>> data = FXCollections.observableArrayList();
-                        
-                        // The first rs.next() above already moved to the first row, so process that row first
-                        do {
-                            Map<String, String> row = new HashMap<>();
-                            for (int i = 1; i <= columnCount; i++) {
-                                row.put(metaData.getColumnLabel(i), rs.getString(i));
-                            }
-                            data.add(row);
-                        } while (rs.next());
-
-                        table.setItems(data);
-                    } else {
-                        errorLabel.setText("No data found for selected filters.");
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading return sales data: " + ex.getMessage());
+            if (config.database == null || !config.database.isConnected()) {
+                errorLabel.setText("Database not connected.");
+                return;
             }
+            ReportSpec<Map<String, String>> spec = ReportSpec
+                .returnSales(fromDatePicker.getValue(), toDatePicker.getValue(), reportComboBox.getValue())
+                .map(ReportsContent::toLabelMap);
+            ReportStreamer.stream(table, spec,
+                labels -> addLabelColumns(table, labels),
+                (rows, truncated) -> showRowCount(errorLabel, rows, truncated, "No data found for selected filters."),
+                error -> errorLabel.setText("Error loading return sales data: " + error.getMessage()));
         });
 
         // Optionally, trigger filter on load
         filterBtn.fire();
+        PageRefresh.reloadWith(table, filterBtn::fire);
 
         form.getChildren().addAll(heading, reportTypeBox, dateRangeBox, buttons, errorLabel, table);
         return form;
@@ -591,51 +477,31 @@ public class ReportsContent {
 
         // Load data from backend
         filterBtn.setOnAction(e -> {
-            table.getItems().clear();
             errorLabel.setText("");
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.Date from = java.sql.Date.valueOf(fromDatePicker.getValue());
-                    java.sql.Date to = java.sql.Date.valueOf(toDatePicker.getValue());
-                    java.sql.ResultSet rs = config.database.getBankTransferReport(from, to);
-                    int count = 0;
-                    if (rs != null) {
-                        try {
-                            while (rs.next()) {
-                                String fromBank = rs.getString("from_bank");
-                                String toBank = rs.getString("to_bank");
-                                String amount = String.format("%.2f", rs.getDouble("amount"));
-                                String date = rs.getString("transaction_date");
-                                
-                                // Handle null values
-                                if (fromBank == null) fromBank = "Unknown";
-                                if (toBank == null) toBank = "Unknown";
-                                if (date == null) date = "Unknown";
-                                
-                                table.getItems().add(new BankTransferReport(date, fromBank, toBank, amount));
-                                count++;
-                            }
-                        } finally {
-                            rs.close();
-                        }
-                    }
-                    System.out.println("BankTransferReport rows loaded: " + count);
-                    if (count == 0) {
-                        errorLabel.setText("No bank transfer data found for selected date range.\n" +
-                                         "Bank transfers are created when you use 'Transfer Bank to Bank' in Bank Management.\n" +
-                                         "Only transactions with types 'transfer_in' and 'transfer_out' appear in this report.");
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading bank transfer data: " + ex.getMessage());
+            if (config.database == null || !config.database.isConnected()) {
+                errorLabel.setText("Database not connected.");
+                return;
             }
+            ReportSpec<BankTransferReport> spec = ReportSpec
+                .bankTransfers(fromDatePicker.getValue(), toDatePicker.getValue())
+                .map(transfer -> new BankTransferReport(
+                    // Handle null values
+                    transfer.transactionDate() != null ? transfer.transactionDate() : "Unknown",
+                    transfer.fromBank() != null ? transfer.fromBank() : "Unknown",
+                    transfer.toBank() != null ? transfer.toBank() : "Unknown",
+                    String.format("%.2f", transfer.amount())));
+            ReportStreamer.stream(table, spec, null, (rows, truncated) -> {
+                System.out.println("BankTransferReport rows loaded: " + rows);
+                showRowCount(errorLabel, rows, truncated,
+                    "No bank transfer data found for selected date range.\n" +
+                    "Bank transfers are created when you use 'Transfer Bank to Bank' in Bank Management.\n" +
+                    "Only transactions with types 'transfer_in' and 'transfer_out' appear in this report.");
+            }, error -> errorLabel.setText("Error loading bank transfer data: " + error.getMessage()));
         });
 
         // Optionally, trigger filter on load
         filterBtn.fire();
+        PageRefresh.reloadWith(table, filterBtn::fire);
 
         form.getChildren().addAll(heading, dateRangeBox, buttons, errorLabel, table);
         return form;
@@ -661,15 +527,15 @@ public class ReportsContent {
         // Action buttons
         HBox buttons = createReportActionButtons();
 
-        // Profit report table - maps to Sales_Invoice joined with Sales_Invoice_Item and ProductionStock
+        // Profit report table - one row per day, from the Daily_Rollup totals
         TableView<ProfitReport> table = new TableView<>();
         
-        TableColumn<ProfitReport, String> invCol = new TableColumn<>("Invoice #");
-        invCol.setCellValueFactory(new PropertyValueFactory<>("invoiceNumber"));
-        
         TableColumn<ProfitReport, String> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new PropertyValueFactory<>("invoiceDate"));
         
+        TableColumn<ProfitReport, String> invCol = new TableColumn<>("Invoices");
+        invCol.setCellValueFactory(new PropertyValueFactory<>("invoiceCount"));
+        
         TableColumn<ProfitReport, String> saleCol = new TableColumn<>("Sale Amount");
         saleCol.setCellValueFactory(new PropertyValueFactory<>("saleAmount"));
         
@@ -679,7 +545,7 @@ public class ReportsContent {
         TableColumn<ProfitReport, String> profitCol = new TableColumn<>("Profit");
         profitCol.setCellValueFactory(new PropertyValueFactory<>("profit"));
         
-        table.getColumns().addAll(invCol, dateCol, saleCol, costCol, profitCol);
+        table.getColumns().addAll(dateCol, invCol, saleCol, costCol, profitCol);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
         // Error label for feedback
@@ -688,60 +554,29 @@ public class ReportsContent {
 
         // Load data from backend
         filterBtn.setOnAction(e -> {
-            table.getItems().clear();
             errorLabel.setText("");
-            try {
-                System.out.println("DEBUG: Profit Report - Loading data...");
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.Date from = java.sql.Date.valueOf(fromDatePicker.getValue());
-                    java.sql.Date to = java.sql.Date.valueOf(toDatePicker.getValue());
-                    
-                    System.out.println("DEBUG: Date range: " + from + " to " + to);
-                    
-                    java.sql.ResultSet rs = config.database.getProfitReport(from, to);
-                    int count = 0;
-                    while (rs != null && rs.next()) {
-                        String invoiceNumber = rs.getString("sales_invoice_number");
-                        String invoiceDate = rs.getString("sales_date");
-                        double saleAmount = rs.getDouble("sale_amount");
-                        double costAmount = rs.getDouble("cost_amount");
-                        double profitAmount = rs.getDouble("profit");
-                        
-                        // Format amounts as currency strings
-                        String formattedSaleAmount = String.format("%.2f", saleAmount);
-                        String formattedCostAmount = String.format("%.2f", costAmount);
-                        String formattedProfit = String.format("%.2f", profitAmount);
-                        
-                        System.out.println("DEBUG: Processing profit record - Invoice: " + invoiceNumber + 
-                                         ", Date: " + invoiceDate + 
-                                         ", Sale: " + formattedSaleAmount + 
-                                         ", Cost: " + formattedCostAmount + 
-                                         ", Profit: " + formattedProfit);
-                        
-                        table.getItems().add(new ProfitReport(
-                            invoiceNumber,
-                            invoiceDate,
-                            formattedSaleAmount,
-                            formattedCostAmount,
-                            formattedProfit
-                        ));
-                        count++;
-                    }
-                    
-                    System.out.println("ProfitReport rows loaded: " + count);
-                    if (count == 0) {
-                        errorLabel.setText("No profit data found for selected date range.\n" +
-                                         "Profit is calculated as (Sale Amount - Cost Amount) per invoice.\n" +
-                                         "Data comes from Sales_Invoice, Sales_Invoice_Item, and ProductionStock tables.");
-                    }
-                } else {
-                    System.out.println("DEBUG: Database is null or not connected");
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading profit data: " + ex.getMessage());
+            if (config.database == null || !config.database.isConnected()) {
+                System.out.println("DEBUG: Database is null or not connected");
+                errorLabel.setText("Database not connected.");
+                return;
             }
+            System.out.println("DEBUG: Profit Report - Loading data for " + fromDatePicker.getValue() + " to " + toDatePicker.getValue());
+
+            ReportSpec<ProfitReport> spec = ReportSpec
+                .profit(fromDatePicker.getValue(), toDatePicker.getValue())
+                .map(profit -> new ProfitReport(
+                    profit.salesDate(),
+                    String.valueOf(profit.invoiceCount()),
+                    String.format("%.2f", profit.saleAmount()),
+                    String.format("%.2f", profit.costAmount()),
+                    String.format("%.2f", profit.profit())));
+            ReportStreamer.stream(table, spec, null, (rows, truncated) -> {
+                System.out.println("ProfitReport rows loaded: " + rows);
+                showRowCount(errorLabel, rows, truncated,
+                    "No profit data found for selected date range.\n" +
+                    "Profit is calculated as (Sale Amount - Cost Amount) per day.\n" +
+                    "Data comes from the daily sales totals kept with each invoice.");
+            }, error -> errorLabel.setText("Error loading profit data: " + error.getMessage()));
         });
 
         // Refresh button action
@@ -755,14 +590,14 @@ public class ReportsContent {
                 printContent.append("Profit Report\n");
                 printContent.append("Date Range: ").append(fromDatePicker.getValue()).append(" to ").append(toDatePicker.getValue()).append("\n");
                 printContent.append("Generated on: ").append(LocalDate.now()).append("\n\n");
-                printContent.append(String.format("%-15s %-12s %-15s %-15s %-15s\n", "Invoice #", "Date", "Sale Amount", "Cost Amount", "Profit"));
+                printContent.append(String.format("%-12s %-15s %-15s %-15s %-15s\n", "Date", "Invoices", "Sale Amount", "Cost Amount", "Profit"));
                 printContent.append("=".repeat(75)).append("\n");
                 
                 double totalSales = 0, totalCosts = 0, totalProfit = 0;
                 for (ProfitReport item : table.getItems()) {
-                    printContent.append(String.format("%-15s %-12s %-15s %-15s %-15s\n",
-                        item.getInvoiceNumber(),
+                    printContent.append(String.format("%-12s %-15s %-15s %-15s %-15s\n",
                         item.getInvoiceDate(),
+                        item.getInvoiceCount(),
                         item.getSaleAmount(),
                         item.getCostAmount(),
                         item.getProfit()
@@ -801,12 +636,12 @@ public class ReportsContent {
             try {
                 // Create CSV export content
                 StringBuilder csvContent = new StringBuilder();
-                csvContent.append("Invoice Number,Date,Sale Amount,Cost Amount,Profit\n");
+                csvContent.append("Date,Invoices,Sale Amount,Cost Amount,Profit\n");
                 
                 for (ProfitReport item : table.getItems()) {
                     csvContent.append(String.format("%s,%s,%s,%s,%s\n",
-                        item.getInvoiceNumber(),
                         item.getInvoiceDate(),
+                        item.getInvoiceCount(),
                         item.getSaleAmount(),
                         item.getCostAmount(),
                         item.getProfit()
@@ -831,6 +666,7 @@ public class ReportsContent {
 
         // Optionally, trigger filter on load
         filterBtn.fire();
+        PageRefresh.reloadWith(table, filterBtn::fire);
 
         form.getChildren().addAll(heading, dateRangeBox, buttons, errorLabel, table);
         return form;
@@ -873,58 +709,34 @@ public class ReportsContent {
         // Load data from database
         filterBtn.setOnAction(e -> {
             errorLabel.setText("");
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.Date fromDate = java.sql.Date.valueOf(fromDatePicker.getValue());
-                    java.sql.Date toDate = java.sql.Date.valueOf(toDatePicker.getValue());
-                    
-                    System.out.println("DEBUG: Summary Report - Loading data from " + fromDate + " to " + toDate);
-                    
-                    java.sql.ResultSet rs = config.database.getSummaryReport(fromDate, toDate);
-                    if (rs != null && rs.next()) {
-                        double totalPurchases = rs.getDouble("total_purchases");
-                        double totalSales = rs.getDouble("total_sales");
-                        double totalPurchaseReturns = rs.getDouble("total_purchase_returns");
-                        double totalSalesReturns = rs.getDouble("total_sales_returns");
-                        double totalBankBalance = rs.getDouble("total_bank_balance");
-                        int totalCustomers = rs.getInt("total_customers");
-                        int totalSuppliers = rs.getInt("total_suppliers");
-                        double totalInventoryValue = rs.getDouble("total_inventory_value");
-                        
-                        System.out.println("DEBUG: Summary data loaded - Purchases: " + totalPurchases + 
-                                         ", Sales: " + totalSales + ", Bank Balance: " + totalBankBalance);
-                        
-                        // Update the grid with real data
-                        updateSummaryGrid(summaryGrid, totalPurchases, totalSales, totalPurchaseReturns, 
-                                        totalSalesReturns, totalBankBalance, totalCustomers, totalSuppliers, totalInventoryValue);
-                        
-                        try {
-                            rs.close();
-                        } catch (SQLException closeEx) {
-                            System.out.println("DEBUG: Error closing ResultSet: " + closeEx.getMessage());
-                        }
-                    } else {
-                        System.out.println("DEBUG: No summary data found");
-                        errorLabel.setText("No data found for selected date range.");
-                        updateSummaryGrid(summaryGrid, 0.0, 0.0, 0.0, 0.0, 0.0, 0, 0, 0.0);
-                        
-                        if (rs != null) {
-                            try {
-                                rs.close();
-                            } catch (SQLException closeEx) {
-                                System.out.println("DEBUG: Error closing empty ResultSet: " + closeEx.getMessage());
-                            }
-                        }
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
+            if (config.database == null || !config.database.isConnected()) {
+                errorLabel.setText("Database not connected.");
+                updateSummaryGrid(summaryGrid, 0.0, 0.0, 0.0, 0.0, 0.0, 0, 0, 0.0);
+                return;
+            }
+            ReportSpec<ReportSpec.Summary> spec = ReportSpec.summary(fromDatePicker.getValue(), toDatePicker.getValue());
+            DbLog.debug(() -> "Summary Report - Loading " + spec);
+
+            AsyncLoader.load(summaryGrid, () -> {
+                List<ReportSpec.Summary> rows = new ArrayList<>();
+                config.database.streamReport(spec, rows::add);
+                return rows;
+            }, rows -> {
+                if (rows.isEmpty()) {
+                    errorLabel.setText("No data found for selected date range.");
                     updateSummaryGrid(summaryGrid, 0.0, 0.0, 0.0, 0.0, 0.0, 0, 0, 0.0);
+                    return;
                 }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading summary data: " + ex.getMessage());
+                ReportSpec.Summary summary = rows.get(0);
+                DbLog.debug(() -> "Summary data loaded - Purchases: " + summary.totalPurchases() +
+                                  ", Sales: " + summary.totalSales() + ", Bank Balance: " + summary.totalBankBalance());
+                updateSummaryGrid(summaryGrid, summary.totalPurchases(), summary.totalSales(),
+                                summary.totalPurchaseReturns(), summary.totalSalesReturns(), summary.totalBankBalance(),
+                                summary.totalCustomers(), summary.totalSuppliers(), summary.totalInventoryValue());
+            }, error -> {
+                errorLabel.setText("Error loading summary data: " + error.getMessage());
                 updateSummaryGrid(summaryGrid, 0.0, 0.0, 0.0, 0.0, 0.0, 0, 0, 0.0);
-            }
+            });
         });
 
         // Refresh button action
@@ -999,6 +811,7 @@ public class ReportsContent {
 
         // Load initial data
         filterBtn.fire();
+        PageRefresh.reloadWith(summaryGrid, filterBtn::fire);
 
         form.getChildren().addAll(heading, dateRangeBox, buttons, errorLabel, summaryGrid);
         return form;
@@ -1189,6 +1002,7 @@ public class ReportsContent {
 
         // Load initial data
         loadBalanceSheet.run();
+        PageRefresh.reloadWith(balanceGrid, loadBalanceSheet);
 
         form.getChildren().addAll(heading, actionButtons, errorLabel, balanceGrid);
         return form;
@@ -1224,77 +1038,27 @@ public class ReportsContent {
         errorLabel.setStyle("-fx-text-fill: red;");
 
         // Load data from backend
-        try {
-            System.out.println("DEBUG: Starting to load customer data...");
-            if (config.database != null && config.database.isConnected()) {
-                System.out.println("DEBUG: Database is connected, executing query...");
-                java.sql.ResultSet rs = config.database.getCustomersReport();
-                int count = 0;
-                if (rs != null) {
-                    System.out.println("DEBUG: ResultSet is not null, processing results...");
-                    while (rs.next()) {
-                        String customerName = rs.getString("customer_name");
-                        String phoneNumber = rs.getString("contact_number");
-                        String address = rs.getString("address");
-                        
-                        System.out.println("DEBUG: Processing customer: " + customerName + ", phone: " + phoneNumber);
-                        
-                        // Handle null values
-                        if (customerName == null) customerName = "Unknown";
-                        if (phoneNumber == null) phoneNumber = "N/A";
-                        if (address == null) address = "N/A";
-                        
-                        table.getItems().add(new CustomerReport(customerName, phoneNumber, address));
-                        count++;
-                    }
-                } else {
-                    System.out.println("DEBUG: ResultSet is null!");
-                }
-                System.out.println("CustomersReport rows loaded: " + count);
-                if (count == 0) {
-                    errorLabel.setText("No customer data found.");
-                }
-            } else {
+        Runnable loadCustomers = () -> {
+            errorLabel.setText("");
+            if (config.database == null || !config.database.isConnected()) {
                 errorLabel.setText("Database not connected.");
+                return;
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Error loading customer data: " + ex.getMessage());
-        }
+            ReportSpec<CustomerReport> spec = ReportSpec.customers().map(party -> new CustomerReport(
+                // Handle null values
+                party.name() != null ? party.name() : "Unknown",
+                party.contactNumber() != null ? party.contactNumber() : "N/A",
+                party.address() != null ? party.address() : "N/A"));
+            ReportStreamer.stream(table, spec, null, (rows, truncated) -> {
+                System.out.println("CustomersReport rows loaded: " + rows);
+                showRowCount(errorLabel, rows, truncated, "No customer data found.");
+            }, error -> errorLabel.setText("Error loading customer data: " + error.getMessage()));
+        };
+        loadCustomers.run();
+        PageRefresh.reloadWith(table, loadCustomers);
 
         // Refresh button action
-        ((Button) buttons.getChildren().get(0)).setOnAction(e -> {
-            table.getItems().clear();
-            errorLabel.setText("");
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.ResultSet rs = config.database.getCustomersReport();
-                    int count = 0;
-                    while (rs != null && rs.next()) {
-                        String customerName = rs.getString("customer_name");
-                        String phoneNumber = rs.getString("contact_number");
-                        String address = rs.getString("address");
-                        
-                        // Handle null values
-                        if (customerName == null) customerName = "Unknown";
-                        if (phoneNumber == null) phoneNumber = "N/A";
-                        if (address == null) address = "N/A";
-                        
-                        table.getItems().add(new CustomerReport(customerName, phoneNumber, address));
-                        count++;
-                    }
-                    System.out.println("CustomersReport rows refreshed: " + count);
-                    if (count == 0) {
-                        errorLabel.setText("No customer data found.");
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error refreshing customer data: " + ex.getMessage());
-            }
-        });
+        ((Button) buttons.getChildren().get(0)).setOnAction(e -> loadCustomers.run());
 
         form.getChildren().addAll(heading, buttons, errorLabel, table);
         return form;
@@ -1330,68 +1094,27 @@ public class ReportsContent {
         errorLabel.setStyle("-fx-text-fill: red;");
 
         // Load data from backend
-        try {
-            if (config.database != null && config.database.isConnected()) {
-                java.sql.ResultSet rs = config.database.getSuppliersReport();
-                int count = 0;
-                while (rs != null && rs.next()) {
-                    String supplierName = rs.getString("supplier_name");
-                    String phoneNumber = rs.getString("contact_number");
-                    String address = rs.getString("address");
-                    
-                    // Handle null values
-                    if (supplierName == null) supplierName = "Unknown";
-                    if (phoneNumber == null) phoneNumber = "N/A";
-                    if (address == null) address = "N/A";
-                    
-                    table.getItems().add(new SupplierReport(supplierName, phoneNumber, address));
-                    count++;
-                }
-                System.out.println("SuppliersReport rows loaded: " + count);
-                if (count == 0) {
-                    errorLabel.setText("No supplier data found.");
-                }
-            } else {
+        Runnable loadSuppliers = () -> {
+            errorLabel.setText("");
+            if (config.database == null || !config.database.isConnected()) {
                 errorLabel.setText("Database not connected.");
+                return;
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Error loading supplier data: " + ex.getMessage());
-        }
+            ReportSpec<SupplierReport> spec = ReportSpec.suppliers().map(party -> new SupplierReport(
+                // Handle null values
+                party.name() != null ? party.name() : "Unknown",
+                party.contactNumber() != null ? party.contactNumber() : "N/A",
+                party.address() != null ? party.address() : "N/A"));
+            ReportStreamer.stream(table, spec, null, (rows, truncated) -> {
+                System.out.println("SuppliersReport rows loaded: " + rows);
+                showRowCount(errorLabel, rows, truncated, "No supplier data found.");
+            }, error -> errorLabel.setText("Error loading supplier data: " + error.getMessage()));
+        };
+        loadSuppliers.run();
+        PageRefresh.reloadWith(table, loadSuppliers);
 
         // Refresh button action
-        ((Button) buttons.getChildren().get(0)).setOnAction(e -> {
-            table.getItems().clear();
-            errorLabel.setText("");
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.ResultSet rs = config.database.getSuppliersReport();
-                    int count = 0;
-                    while (rs != null && rs.next()) {
-                        String supplierName = rs.getString("supplier_name");
-                        String phoneNumber = rs.getString("contact_number");
-                        String address = rs.getString("address");
-                        
-                        // Handle null values
-                        if (supplierName == null) supplierName = "Unknown";
-                        if (phoneNumber == null) phoneNumber = "N/A";
-                        if (address == null) address = "N/A";
-                        
-                        table.getItems().add(new SupplierReport(supplierName, phoneNumber, address));
-                        count++;
-                    }
-                    System.out.println("SuppliersReport rows refreshed: " + count);
-                    if (count == 0) {
-                        errorLabel.setText("No supplier data found.");
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error refreshing supplier data: " + ex.getMessage());
-            }
-        });
+        ((Button) buttons.getChildren().get(0)).setOnAction(e -> loadSuppliers.run());
 
         form.getChildren().addAll(heading, buttons, errorLabel, table);
         return form;
@@ -1520,55 +1243,25 @@ public class ReportsContent {
 
         // Method to load and display report data
         Runnable loadReportData = () -> {
-            table.getItems().clear();
             errorLabel.setText("");
-            
-            try {
-                if (config.database != null && config.database.isConnected()) {
-                    String partyType = partyTypeCombo.getValue();
-                    String areaType = areaTypeCombo.getValue().toLowerCase();
-                    String areaValue = areaValueCombo.getValue();
-                    
-                    java.sql.ResultSet rs;
-                    if (areaType.equals("all") || areaValue.equals("All")) {
-                        rs = config.database.getAreaWiseReport();
-                    } else {
-                        rs = config.database.getAreaWiseReport(partyType, areaType, areaValue);
-                    }
-                    
-                    int count = 0;
-                    while (rs != null && rs.next()) {
-                        String partyTypeResult = rs.getString("party_type");
-                        String name = rs.getString("name");
-                        String contact = rs.getString("contact_number");
-                        String tehsilName = rs.getString("tehsil_name");
-                        String districtName = rs.getString("district_name");
-                        String provinceName = rs.getString("province_name");
-                        
-                        // Handle null values
-                        if (partyTypeResult == null) partyTypeResult = "Unknown";
-                        if (name == null) name = "Unknown";
-                        if (contact == null) contact = "";
-                        if (tehsilName == null) tehsilName = "Unknown";
-                        if (districtName == null) districtName = "Unknown";
-                        if (provinceName == null) provinceName = "Unknown";
-                        
-                        table.getItems().add(new AreaWiseReport(partyTypeResult, name, contact, 
-                                                              tehsilName, districtName, provinceName));
-                        count++;
-                    }
-                    
-                    System.out.println("AreaWiseReport rows loaded: " + count);
-                    if (count == 0) {
-                        errorLabel.setText("No data found for the selected criteria. Please check your filters.");
-                    }
-                } else {
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading area-wise data: " + ex.getMessage());
+            if (config.database == null || !config.database.isConnected()) {
+                errorLabel.setText("Database not connected.");
+                return;
             }
+            ReportSpec<AreaWiseReport> spec = ReportSpec
+                .areaWise(partyTypeCombo.getValue(), areaTypeCombo.getValue(), areaValueCombo.getValue())
+                .map(party -> new AreaWiseReport(
+                    // Handle null values
+                    party.partyType() != null ? party.partyType() : "Unknown",
+                    party.name() != null ? party.name() : "Unknown",
+                    party.contactNumber() != null ? party.contactNumber() : "",
+                    party.tehsilName() != null ? party.tehsilName() : "Unknown",
+                    party.districtName() != null ? party.districtName() : "Unknown",
+                    party.provinceName() != null ? party.provinceName() : "Unknown"));
+            ReportStreamer.stream(table, spec, null, (rows, truncated) -> {
+                System.out.println("AreaWiseReport rows loaded: " + rows);
+                showRowCount(errorLabel, rows, truncated, "No data found for the selected criteria. Please check your filters.");
+            }, error -> errorLabel.setText("Error loading area-wise data: " + error.getMessage()));
         };
 
         // Event handlers
@@ -1588,9 +1281,11 @@ public class ReportsContent {
         // Refresh button action for existing action buttons
         ((Button) buttons.getChildren().get(0)).setOnAction(e -> loadReportData.run());
 
-        // Initial data load
+        // Initial data load; a page refresh keeps the area picked if it still exists
         populateAreaValues.run();
         loadReportData.run();
+        PageRefresh.reloadWith(areaValueCombo, populateAreaValues);
+        PageRefresh.reloadWith(table, loadReportData);
 
         form.getChildren().addAll(heading, filterSection, buttons, errorLabel, table);
         return form;
@@ -1640,46 +1335,25 @@ public class ReportsContent {
 
         // Load data from backend
         filterBtn.setOnAction(e -> {
-            table.getItems().clear();
             errorLabel.setText("");
-            try {
-                System.out.println("DEBUG: Brand Sales Report - Loading data...");
-                if (config.database != null && config.database.isConnected()) {
-                    java.sql.Date from = java.sql.Date.valueOf(fromDatePicker.getValue());
-                    java.sql.Date to = java.sql.Date.valueOf(toDatePicker.getValue());
-                    
-                    System.out.println("DEBUG: Date range: " + from + " to " + to);
-                    
-                    java.sql.ResultSet rs = config.database.getBrandSalesReport(from, to);
-                    int count = 0;
-                    while (rs != null && rs.next()) {
-                        String brandName = rs.getString("brand_name");
-                        String totalQuantity = String.format("%.2f", rs.getDouble("total_quantity"));
-                        String totalSales = String.format("%.2f", rs.getDouble("total_sales"));
-                        String salesmanName = rs.getString("salesman_name");
-                        
-                        System.out.println("DEBUG: Processing record - Brand: " + brandName + ", Quantity: " + totalQuantity + ", Sales: " + totalSales);
-                        
-                        // Handle null values
-                        if (brandName == null) brandName = "Unknown Brand";
-                        if (salesmanName == null) salesmanName = "N/A";
-                        
-                        table.getItems().add(new BrandSalesReport(salesmanName, brandName, totalQuantity, totalSales));
-                        count++;
-                    }
-                    
-                    System.out.println("BrandSalesReport rows loaded: " + count);
-                    if (count == 0) {
-                        errorLabel.setText("No brand sales data found for selected date range.");
-                    }
-                } else {
-                    System.out.println("DEBUG: Database is null or not connected");
-                    errorLabel.setText("Database not connected.");
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                errorLabel.setText("Error loading brand sales data: " + ex.getMessage());
+            System.out.println("DEBUG: Brand Sales Report - Loading data...");
+            if (config.database == null || !config.database.isConnected()) {
+                System.out.println("DEBUG: Database is null or not connected");
+                errorLabel.setText("Database not connected.");
+                return;
             }
+            ReportSpec<BrandSalesReport> spec = ReportSpec
+                .brandSales(fromDatePicker.getValue(), toDatePicker.getValue())
+                .map(sales -> new BrandSalesReport(
+                    // Handle null values
+                    sales.salesmanName() != null ? sales.salesmanName() : "N/A",
+                    sales.brandName() != null ? sales.brandName() : "Unknown Brand",
+                    String.format("%.2f", sales.totalQuantity()),
+                    String.format("%.2f", sales.totalSales())));
+            ReportStreamer.stream(table, spec, null, (rows, truncated) -> {
+                System.out.println("BrandSalesReport rows loaded: " + rows);
+                showRowCount(errorLabel, rows, truncated, "No brand sales data found for selected date range.");
+            }, error -> errorLabel.setText("Error loading brand sales data: " + error.getMessage()));
         });
 
         // Refresh button action
@@ -1747,6 +1421,7 @@ public class ReportsContent {
 
         // Optionally, trigger filter on load
         filterBtn.fire();
+        PageRefresh.reloadWith(table, filterBtn::fire);
 
         form.getChildren().addAll(heading, dateRangeBox, buttons, errorLabel, table);
         return form;
@@ -1802,12 +1477,19 @@ public class ReportsContent {
         Label heading = createHeading("Customer-Wise Sales Report");
 
         // Date range filters
-        HBox dateRangeBox = createDateRangeFilter();
+        HBox dateRangeBox = new HBox(10);
+        Label fromLabel = new Label("From:");
+        DatePicker fromDatePicker = new DatePicker(LocalDate.now().minusDays(30));
+        Label toLabel = new Label("To:");
+        DatePicker toDatePicker = new DatePicker(LocalDate.now());
+        Button filterBtn = createActionButton("Filter");
+        dateRangeBox.getChildren().addAll(fromLabel, fromDatePicker, toLabel, toDatePicker, filterBtn);
+        dateRangeBox.setAlignment(Pos.CENTER_LEFT);
 
         // Action buttons
         HBox buttons = createReportActionButtons();
 
-        // Customer sales report table - maps to View_Customer_Wise_Sales_Report
+        // Customer sales report table - from the Daily_Customer_Rollup totals
         TableView<CustomerSalesReport> table = new TableView<>();
         
         TableColumn<CustomerSalesReport, String> customerCol = new TableColumn<>("Customer");
@@ -1819,17 +1501,49 @@ public class ReportsContent {
         TableColumn<CustomerSalesReport, String> salesCol = new TableColumn<>("Total Sales");
         salesCol.setCellValueFactory(new PropertyValueFactory<>("totalSales"));
         
-        table.getColumns().addAll(customerCol, invoicesCol, salesCol);
-        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        TableColumn<CustomerSalesReport, String> paidCol = new TableColumn<>("Paid");
+        paidCol.setCellValueFactory(new PropertyValueFactory<>("totalPaid"));
         
-        // Sample data - in real app, fetch from View_Customer_Wise_Sales_Report
-        ObservableList<CustomerSalesReport> data = FXCollections.observableArrayList(
-            new CustomerSalesReport("Ali Traders", "5", "75000.00"),
-            new CustomerSalesReport("Pak Electric House", "3", "50000.00")
-        );
-        table.setItems(data);
+        TableColumn<CustomerSalesReport, String> returnsCol = new TableColumn<>("Returns");
+        returnsCol.setCellValueFactory(new PropertyValueFactory<>("totalReturns"));
+        
+        table.getColumns().addAll(customerCol, invoicesCol, salesCol, paidCol, returnsCol);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
-        form.getChildren().addAll(heading, dateRangeBox, buttons, table);
+        // Error label for feedback
+        Label errorLabel = new Label("");
+        errorLabel.setStyle("-fx-text-fill: red;");
+
+        // Load data from backend
+        filterBtn.setOnAction(e -> {
+            errorLabel.setText("");
+            if (config.database == null || !config.database.isConnected()) {
+                System.out.println("DEBUG: Database is null or not connected");
+                errorLabel.setText("Database not connected.");
+                return;
+            }
+            ReportSpec<CustomerSalesReport> spec = ReportSpec
+                .customerSales(fromDatePicker.getValue(), toDatePicker.getValue())
+                .map(sales -> new CustomerSalesReport(
+                    sales.customerName(),
+                    String.valueOf(sales.invoiceCount()),
+                    String.format("%.2f", sales.totalSales()),
+                    String.format("%.2f", sales.totalPaid()),
+                    String.format("%.2f", sales.totalReturns())));
+            ReportStreamer.stream(table, spec, null, (rows, truncated) -> {
+                System.out.println("CustomerSalesReport rows loaded: " + rows);
+                showRowCount(errorLabel, rows, truncated, "No customer sales found for selected date range.");
+            }, error -> errorLabel.setText("Error loading customer sales data: " + error.getMessage()));
+        });
+
+        // Refresh button action
+        ((Button) buttons.getChildren().get(0)).setOnAction(e -> filterBtn.fire());
+
+        // Optionally, trigger filter on load
+        filterBtn.fire();
+        PageRefresh.reloadWith(table, filterBtn::fire);
+
+        form.getChildren().addAll(heading, dateRangeBox, buttons, errorLabel, table);
         return form;
     }
 
@@ -1930,6 +1644,34 @@ public class ReportsContent {
         return dateRangeBox;
     }
 
+    /**
+     * A report row keyed by column label, for the tables whose columns follow the query.
+     */
+    private static Map<String, String> toLabelMap(ReportRow row) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < row.size(); i++) {
+            values.put(row.columns().get(i), row.getString(i));
+        }
+        return values;
+    }
+
+    private static void addLabelColumns(TableView<Map<String, String>> table, List<String> labels) {
+        // Create columns dynamically
+        for (String label : labels) {
+            TableColumn<Map<String, String>, String> col = new TableColumn<>(label);
+            col.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getOrDefault(label, "")));
+            table.getColumns().add(col);
+        }
+    }
+
+    private static void showRowCount(Label label, int rows, boolean truncated, String emptyMessage) {
+        if (rows == 0) {
+            label.setText(emptyMessage);
+        } else if (truncated) {
+            label.setText("Showing the first " + rows + " rows. Narrow the filters to see the rest.");
+        }
+    }
+
     private static HBox createReportActionButtons() {
         HBox buttons = new HBox(10);
         Button refreshBtn = createActionButton("Refresh");
@@ -2092,23 +1834,23 @@ public class ReportsContent {
     }
 
     public static class ProfitReport {
-        private final String invoiceNumber;
         private final String invoiceDate;
+        private final String invoiceCount;
         private final String saleAmount;
         private final String costAmount;
         private final String profit;
 
-        public ProfitReport(String invoiceNumber, String invoiceDate, 
+        public ProfitReport(String invoiceDate, String invoiceCount, 
                            String saleAmount, String costAmount, String profit) {
-            this.invoiceNumber = invoiceNumber;
             this.invoiceDate = invoiceDate;
+            this.invoiceCount = invoiceCount;
             this.saleAmount = saleAmount;
             this.costAmount = costAmount;
             this.profit = profit;
         }
 
-        public String getInvoiceNumber() { return invoiceNumber; }
         public String getInvoiceDate() { return invoiceDate; }
+        public String getInvoiceCount() { return invoiceCount; }
         public String getSaleAmount() { return saleAmount; }
         public String getCostAmount() { return costAmount; }
         public String getProfit() { return profit; }
@@ -2216,17 +1958,23 @@ public class ReportsContent {
         private final String customerName;
         private final String totalInvoices;
         private final String totalSales;
+        private final String totalPaid;
+        private final String totalReturns;
 
         public CustomerSalesReport(String customerName, String totalInvoices, 
-                                 String totalSales) {
+                                 String totalSales, String totalPaid, String totalReturns) {
             this.customerName = customerName;
             this.totalInvoices = totalInvoices;
             this.totalSales = totalSales;
+            this.totalPaid = totalPaid;
+            this.totalReturns = totalReturns;
         }
 
         public String getCustomerName() { return customerName; }
         public String getTotalInvoices() { return totalInvoices; }
         public String getTotalSales() { return totalSales; }
+        public String getTotalPaid() { return totalPaid; }
+        public String getTotalReturns() { return totalReturns; }
     }
 
     public static class SupplierSalesReport {
@@ -10,14 +10,16 @@ import javafx.scene.layout.*;
 import java.util.List;
 
 import com.cablemanagement.model.Salesman;
+import com.cablemanagement.config;
 import com.cablemanagement.database.SQLiteDatabase;
 import com.cablemanagement.database.db;
+import com.cablemanagement.views.PageRefresh;
 
 public class SalesmanContent {
 
     private static final ObservableList<Salesman> salesmanList = FXCollections.observableArrayList();
     private static Salesman selectedSalesman = null;
-    private static final db database = new SQLiteDatabase();
+    private static final db database = config.database;
 
     public static Node get() {
         VBox mainLayout = new VBox(20);
@@ -55,6 +57,7 @@ public class SalesmanContent {
         // Table - load data from database initially
         refreshSalesmanTable();
         TableView<Salesman> table = new TableView<>(salesmanList);
+        PageRefresh.reloadWith(table, SalesmanContent::refreshSalesmanTable);
         table.setPrefHeight(300);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         VBox.setVgrow(table, Priority.ALWAYS);
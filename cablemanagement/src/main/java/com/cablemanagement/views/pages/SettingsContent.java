@@ -1,7 +1,12 @@
 package com.cablemanagement.views.pages;
 
 import com.cablemanagement.config;
+import com.cablemanagement.database.DbLog;
+import com.cablemanagement.database.DbMetrics;
+import com.cablemanagement.database.StockCosting;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -12,10 +17,16 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 public class SettingsContent {
 
@@ -39,6 +50,8 @@ public class SettingsContent {
         addButton(buttonColumn, "Change Password", () -> formArea.getChildren().setAll(createChangePasswordForm()));
         addButton(buttonColumn, "Logout", () -> formArea.getChildren().setAll(createLogoutPrompt()));
         addButton(buttonColumn, "Signup", () -> formArea.getChildren().setAll(createSignupForm()));
+        addButton(buttonColumn, "Stock Costing", () -> formArea.getChildren().setAll(createCostingForm()));
+        addButton(buttonColumn, "Diagnostics", () -> formArea.getChildren().setAll(createDiagnosticsPage()));
 
         mainLayout.setLeft(buttonScroll);
         mainLayout.setCenter(formArea);
@@ -220,6 +233,156 @@ public class SettingsContent {
         return box;
     }
 
+    private static VBox createCostingForm() {
+        VBox box = new VBox(15);
+        box.setPadding(new Insets(30));
+        box.setAlignment(Pos.TOP_LEFT);
+
+        Label heading = new Label("Stock Costing");
+        heading.setStyle("-fx-font-size: 18px;");
+
+        Label note = new Label("How sales, production and returns take their cost from the stock's cost layers. " +
+                               "FIFO uses the oldest stock's cost first; Average uses the moving weighted average " +
+                               "of the stock on hand. Switching to FIFO revalues the stock on hand at its layers.");
+        note.setWrapText(true);
+
+        if (config.database == null || !config.database.isConnected()) {
+            box.getChildren().addAll(heading, new Label("Database not connected!"));
+            return box;
+        }
+
+        ComboBox<StockCosting.Method> methodCombo = new ComboBox<>();
+        methodCombo.getItems().addAll(StockCosting.Method.values());
+        methodCombo.setValue(config.database.getCostingMethod());
+
+        Button save = new Button("Save");
+        save.setOnAction(e -> {
+            StockCosting.Method method = methodCombo.getValue();
+            if (method == null || method == config.database.getCostingMethod()) {
+                return;
+            }
+            if (config.database.setCostingMethod(method)) {
+                showAlert("Success", "Stock is now costed by " + method + ".");
+            } else {
+                showAlert("Error", "Failed to change the costing method!");
+                methodCombo.setValue(config.database.getCostingMethod());
+            }
+        });
+
+        HBox controls = new HBox(10, new Label("Costing method:"), methodCombo, save);
+        controls.setAlignment(Pos.CENTER_LEFT);
+
+        box.getChildren().addAll(heading, note, controls);
+        return box;
+    }
+
+    private static VBox createDiagnosticsPage() {
+        VBox box = new VBox(15);
+        box.setPadding(new Insets(30));
+        box.setAlignment(Pos.TOP_LEFT);
+
+        Label heading = new Label("Diagnostics");
+        heading.setStyle("-fx-font-size: 18px;");
+
+        Label note = new Label("Database calls since startup, slowest in total first. " +
+                               "Rows and statements are totals over all calls.");
+        note.setWrapText(true);
+
+        TableView<DbMetrics.MethodSnapshot> table = new TableView<>();
+        table.setPlaceholder(new Label("No database calls recorded yet"));
+        table.getColumns().add(textColumn("Method", 300, DbMetrics.MethodSnapshot::method));
+        table.getColumns().add(numberColumn("Calls", DbMetrics.MethodSnapshot::calls));
+        table.getColumns().add(numberColumn("Errors", DbMetrics.MethodSnapshot::errors));
+        table.getColumns().add(textColumn("p50 ms", 80, row -> String.format("%.3f", row.p50Millis())));
+        table.getColumns().add(textColumn("p99 ms", 80, row -> String.format("%.3f", row.p99Millis())));
+        table.getColumns().add(textColumn("Max ms", 80, row -> String.format("%.3f", row.maxMillis())));
+        table.getColumns().add(textColumn("Total ms", 90, row -> String.format("%.1f", row.totalMillis())));
+        table.getColumns().add(numberColumn("Rows", DbMetrics.MethodSnapshot::rows));
+        table.getColumns().add(numberColumn("Statements", DbMetrics.MethodSnapshot::statements));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        Label summary = new Label();
+        Runnable refresh = () -> {
+            List<DbMetrics.MethodSnapshot> rows = DbMetrics.snapshot();
+            table.getItems().setAll(rows);
+            long calls = 0;
+            double millis = 0;
+            for (DbMetrics.MethodSnapshot row : rows) {
+                calls += row.calls();
+                millis += row.totalMillis();
+            }
+            summary.setText(rows.size() + " methods, " + calls + " calls, " + String.format("%.1f", millis) + " ms in total");
+        };
+        refresh.run();
+
+        Button refreshBtn = new Button("Refresh");
+        refreshBtn.setOnAction(e -> refresh.run());
+
+        Button resetBtn = new Button("Reset");
+        resetBtn.setOnAction(e -> {
+            DbMetrics.reset();
+            refresh.run();
+        });
+
+        Button dumpBtn = new Button("Write to File");
+        dumpBtn.setOnAction(e -> {
+            Path file = DbMetrics.dumpNow();
+            if (file != null) {
+                showAlert("Diagnostics", "Written to " + file.toAbsolutePath());
+            } else {
+                showAlert("Error", "No metrics file is set up, or it could not be written.");
+            }
+        });
+
+        ComboBox<DbLog.Level> levelCombo = new ComboBox<>();
+        levelCombo.getItems().addAll(DbLog.Level.values());
+        levelCombo.setValue(DbLog.getLevel());
+        levelCombo.setOnAction(e -> DbLog.setLevel(levelCombo.getValue()));
+
+        HBox controls = new HBox(10, refreshBtn, resetBtn, dumpBtn, new Label("Console log level:"), levelCombo);
+        controls.setAlignment(Pos.CENTER_LEFT);
+
+        Label startup = new Label(startupSummary());
+        startup.setWrapText(true);
+
+        box.getChildren().addAll(heading, note, controls, startup, summary, table);
+        return box;
+    }
+
+    private static String startupSummary() {
+        if (config.database == null) {
+            return "Startup: database not open";
+        }
+        Map<String, Double> timings = config.database.getStartupTimings();
+        StringBuilder text = new StringBuilder("Startup:");
+        double total = 0;
+        for (Map.Entry<String, Double> phase : timings.entrySet()) {
+            text.append(String.format(" %s %.1f ms,", phase.getKey(), phase.getValue()));
+            total += phase.getValue();
+        }
+        text.append(String.format(" %.1f ms in total", total));
+        if (!timings.containsKey("tables")) {
+            text.append(" (schema unchanged, no DDL run)");
+        }
+        return text.toString();
+    }
+
+    private static TableColumn<DbMetrics.MethodSnapshot, String> textColumn(
+            String title, double width, Function<DbMetrics.MethodSnapshot, String> value) {
+        TableColumn<DbMetrics.MethodSnapshot, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+        column.setPrefWidth(width);
+        return column;
+    }
+
+    private static TableColumn<DbMetrics.MethodSnapshot, Long> numberColumn(
+            String title, Function<DbMetrics.MethodSnapshot, Long> value) {
+        TableColumn<DbMetrics.MethodSnapshot, Long> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        column.setPrefWidth(80);
+        return column;
+    }
+
     private static void showAlert(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -2,6 +2,7 @@ module com.cablemanagement {
     requires javafx.controls;
     requires javafx.fxml;
     requires transitive java.sql;
+    requires org.xerial.sqlitejdbc;
     requires itextpdf;
     requires java.desktop;
 
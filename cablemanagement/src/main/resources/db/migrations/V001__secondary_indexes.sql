@@ -0,0 +1,70 @@
+-- Secondary indexes for the hot query paths in SQLiteDatabase.
+-- Date-range indexes lead with the date column so BETWEEN / >= filters
+-- and ORDER BY date can use them; foreign-key indexes cover the join
+-- side of every invoice -> item and party -> ledger relationship.
+
+-- Name lookups (getXxxIdByName, WHERE xxx_name = ?)
+CREATE INDEX IF NOT EXISTS idx_customer_name ON Customer(customer_name);
+CREATE INDEX IF NOT EXISTS idx_supplier_name ON Supplier(supplier_name);
+CREATE INDEX IF NOT EXISTS idx_brand_name ON Brand(brand_name);
+CREATE INDEX IF NOT EXISTS idx_manufacturer_name ON Manufacturer(manufacturer_name);
+CREATE INDEX IF NOT EXISTS idx_tehsil_name ON Tehsil(tehsil_name);
+CREATE INDEX IF NOT EXISTS idx_district_name ON District(district_name);
+CREATE INDEX IF NOT EXISTS idx_employee_name ON Employee(employee_name);
+CREATE INDEX IF NOT EXISTS idx_raw_stock_item_name ON Raw_Stock(item_name);
+CREATE INDEX IF NOT EXISTS idx_production_stock_product_name ON ProductionStock(product_name);
+
+-- Foreign keys used in joins and area filters
+CREATE INDEX IF NOT EXISTS idx_district_province ON District(province_id);
+CREATE INDEX IF NOT EXISTS idx_tehsil_district ON Tehsil(district_id);
+CREATE INDEX IF NOT EXISTS idx_customer_tehsil ON Customer(tehsil_id);
+CREATE INDEX IF NOT EXISTS idx_supplier_tehsil ON Supplier(tehsil_id);
+CREATE INDEX IF NOT EXISTS idx_brand_manufacturer ON Brand(manufacturer_id);
+CREATE INDEX IF NOT EXISTS idx_employee_designation ON Employee(designation_id);
+CREATE INDEX IF NOT EXISTS idx_raw_stock_brand ON Raw_Stock(brand_id);
+CREATE INDEX IF NOT EXISTS idx_production_stock_brand ON ProductionStock(brand_id);
+
+-- Sales
+CREATE INDEX IF NOT EXISTS idx_sales_invoice_date ON Sales_Invoice(sales_date, customer_id);
+CREATE INDEX IF NOT EXISTS idx_sales_invoice_customer ON Sales_Invoice(customer_id, sales_date);
+CREATE INDEX IF NOT EXISTS idx_sales_invoice_item_invoice ON Sales_Invoice_Item(sales_invoice_id, production_stock_id);
+CREATE INDEX IF NOT EXISTS idx_sales_invoice_item_stock ON Sales_Invoice_Item(production_stock_id);
+CREATE INDEX IF NOT EXISTS idx_sales_return_date ON Sales_Return_Invoice(return_date, customer_id);
+CREATE INDEX IF NOT EXISTS idx_sales_return_customer ON Sales_Return_Invoice(customer_id, return_date);
+CREATE INDEX IF NOT EXISTS idx_sales_return_original ON Sales_Return_Invoice(original_sales_invoice_id);
+CREATE INDEX IF NOT EXISTS idx_sales_return_item_invoice ON Sales_Return_Invoice_Item(sales_return_invoice_id, production_stock_id);
+
+-- Purchases
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_date ON Raw_Purchase_Invoice(invoice_date, supplier_id);
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_supplier ON Raw_Purchase_Invoice(supplier_id, invoice_date);
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_item_invoice ON Raw_Purchase_Invoice_Item(raw_purchase_invoice_id, raw_stock_id);
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_item_stock ON Raw_Purchase_Invoice_Item(raw_stock_id);
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_return_date ON Raw_Purchase_Return_Invoice(return_date, supplier_id);
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_return_supplier ON Raw_Purchase_Return_Invoice(supplier_id, return_date);
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_return_item_invoice ON Raw_Purchase_Return_Invoice_Item(raw_purchase_return_invoice_id, raw_stock_id);
+
+-- Production and raw stock usage
+CREATE INDEX IF NOT EXISTS idx_production_invoice_date ON Production_Invoice(production_date);
+CREATE INDEX IF NOT EXISTS idx_production_invoice_item_invoice ON Production_Invoice_Item(production_invoice_id, production_id);
+CREATE INDEX IF NOT EXISTS idx_production_invoice_item_stock ON Production_Invoice_Item(production_id);
+CREATE INDEX IF NOT EXISTS idx_production_return_date ON Production_Return_Invoice(return_date);
+CREATE INDEX IF NOT EXISTS idx_production_return_item_invoice ON Production_Return_Invoice_Item(production_return_invoice_id, production_id);
+CREATE INDEX IF NOT EXISTS idx_production_raw_usage_invoice ON Production_Stock_Raw_Usage(production_invoice_id, raw_stock_id);
+CREATE INDEX IF NOT EXISTS idx_raw_stock_use_date ON Raw_Stock_Use_Invoice(usage_date);
+CREATE INDEX IF NOT EXISTS idx_raw_stock_use_item_invoice ON Raw_Stock_Use_Invoice_Item(raw_stock_use_invoice_id, raw_stock_id);
+
+-- Ledgers and cash/bank
+CREATE INDEX IF NOT EXISTS idx_customer_transaction_customer ON Customer_Transaction(customer_id, transaction_date, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_supplier_transaction_supplier ON Supplier_Transaction(supplier_id, transaction_date, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_bank_transaction_bank ON Bank_Transaction(bank_id, transaction_date);
+CREATE INDEX IF NOT EXISTS idx_bank_transaction_date ON Bank_Transaction(transaction_date);
+CREATE INDEX IF NOT EXISTS idx_cash_transaction_date ON Cash_Transaction(transaction_date);
+
+-- Employees
+CREATE INDEX IF NOT EXISTS idx_attendance_employee_date ON Employee_Attendance(employee_id, attendance_date);
+CREATE INDEX IF NOT EXISTS idx_attendance_date ON Employee_Attendance(attendance_date);
+CREATE INDEX IF NOT EXISTS idx_advance_salary_employee ON Employee_Advance_Salary(employee_id, advance_date);
+CREATE INDEX IF NOT EXISTS idx_employee_loan_employee ON Employee_Loan(employee_id, loan_date);
+CREATE INDEX IF NOT EXISTS idx_contract_employee_date ON Contract_Employee(date);
+
+ANALYZE;
@@ -0,0 +1,6 @@
+-- One row per document prefix holding the next number to assign.
+-- Rows are seeded lazily by InvoiceSequence from the existing invoices.
+CREATE TABLE IF NOT EXISTS Invoice_Sequence (
+    prefix TEXT PRIMARY KEY,
+    next_value INTEGER NOT NULL
+);
@@ -0,0 +1,4 @@
+-- Point lookup of the ledger row posted for an invoice, used to read the
+-- balance before / after that invoice (getXxxPreviousBalance).
+CREATE INDEX IF NOT EXISTS idx_customer_transaction_reference ON Customer_Transaction(customer_id, reference_invoice_number);
+CREATE INDEX IF NOT EXISTS idx_supplier_transaction_reference ON Supplier_Transaction(supplier_id, reference_invoice_number);
@@ -0,0 +1,4 @@
+-- Keyset pagination of a party's ledger: rows for one party in
+-- transaction_id order, so each page starts with an index seek.
+CREATE INDEX IF NOT EXISTS idx_customer_transaction_keyset ON Customer_Transaction(customer_id, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_supplier_transaction_keyset ON Supplier_Transaction(supplier_id, transaction_id);
@@ -0,0 +1,139 @@
+-- Full-text search over parties, stock and transaction descriptions.
+-- One FTS5 table holds every searchable row. Its rowid encodes where the
+-- row came from: kind * 2^32 + source id, with kind 7 Customer, 6 Supplier,
+-- 5 ProductionStock, 4 Raw_Stock, 3 Bank_Transaction, 2 Cash_Transaction,
+-- 1 Customer_Transaction, 0 Supplier_Transaction (see SearchIndex.Kind).
+-- Each kind is a contiguous rowid range; walking the index by descending
+-- rowid visits parties first, then stock, then transactions newest first.
+-- title is the name or description, detail the text around it; the
+-- triggers below keep both in step with the source tables.
+CREATE VIRTUAL TABLE IF NOT EXISTS Search_Index USING fts5(
+    title, detail,
+    tokenize = 'unicode61 remove_diacritics 2',
+    prefix = '1 2 3'
+);
+
+-- Customer: name, contact, address and area
+INSERT INTO Search_Index (rowid, title, detail)
+    SELECT 7 * 4294967296 + x.customer_id, x.customer_name, COALESCE(x.contact_number, '') || ' ' || COALESCE(x.address, '') || ' ' || COALESCE((SELECT t.tehsil_name || ' ' || COALESCE(d.district_name, '') || ' ' || COALESCE(p.province_name, '') FROM Tehsil t LEFT JOIN District d ON t.district_id = d.district_id LEFT JOIN Province p ON d.province_id = p.province_id WHERE t.tehsil_id = x.tehsil_id), '') FROM Customer x;
+CREATE TRIGGER IF NOT EXISTS trg_search_customer_insert AFTER INSERT ON Customer BEGIN
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (7 * 4294967296 + NEW.customer_id, NEW.customer_name, COALESCE(NEW.contact_number, '') || ' ' || COALESCE(NEW.address, '') || ' ' || COALESCE((SELECT t.tehsil_name || ' ' || COALESCE(d.district_name, '') || ' ' || COALESCE(p.province_name, '') FROM Tehsil t LEFT JOIN District d ON t.district_id = d.district_id LEFT JOIN Province p ON d.province_id = p.province_id WHERE t.tehsil_id = NEW.tehsil_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_customer_update AFTER UPDATE OF customer_name, contact_number, address, tehsil_id ON Customer BEGIN
+    DELETE FROM Search_Index WHERE rowid = 7 * 4294967296 + OLD.customer_id;
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (7 * 4294967296 + NEW.customer_id, NEW.customer_name, COALESCE(NEW.contact_number, '') || ' ' || COALESCE(NEW.address, '') || ' ' || COALESCE((SELECT t.tehsil_name || ' ' || COALESCE(d.district_name, '') || ' ' || COALESCE(p.province_name, '') FROM Tehsil t LEFT JOIN District d ON t.district_id = d.district_id LEFT JOIN Province p ON d.province_id = p.province_id WHERE t.tehsil_id = NEW.tehsil_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_customer_delete AFTER DELETE ON Customer BEGIN
+    DELETE FROM Search_Index WHERE rowid = 7 * 4294967296 + OLD.customer_id;
+END;
+
+-- Supplier: name, contact, address and area
+INSERT INTO Search_Index (rowid, title, detail)
+    SELECT 6 * 4294967296 + x.supplier_id, x.supplier_name, COALESCE(x.contact_number, '') || ' ' || COALESCE(x.address, '') || ' ' || COALESCE((SELECT t.tehsil_name || ' ' || COALESCE(d.district_name, '') || ' ' || COALESCE(p.province_name, '') FROM Tehsil t LEFT JOIN District d ON t.district_id = d.district_id LEFT JOIN Province p ON d.province_id = p.province_id WHERE t.tehsil_id = x.tehsil_id), '') FROM Supplier x;
+CREATE TRIGGER IF NOT EXISTS trg_search_supplier_insert AFTER INSERT ON Supplier BEGIN
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (6 * 4294967296 + NEW.supplier_id, NEW.supplier_name, COALESCE(NEW.contact_number, '') || ' ' || COALESCE(NEW.address, '') || ' ' || COALESCE((SELECT t.tehsil_name || ' ' || COALESCE(d.district_name, '') || ' ' || COALESCE(p.province_name, '') FROM Tehsil t LEFT JOIN District d ON t.district_id = d.district_id LEFT JOIN Province p ON d.province_id = p.province_id WHERE t.tehsil_id = NEW.tehsil_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_supplier_update AFTER UPDATE OF supplier_name, contact_number, address, tehsil_id ON Supplier BEGIN
+    DELETE FROM Search_Index WHERE rowid = 6 * 4294967296 + OLD.supplier_id;
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (6 * 4294967296 + NEW.supplier_id, NEW.supplier_name, COALESCE(NEW.contact_number, '') || ' ' || COALESCE(NEW.address, '') || ' ' || COALESCE((SELECT t.tehsil_name || ' ' || COALESCE(d.district_name, '') || ' ' || COALESCE(p.province_name, '') FROM Tehsil t LEFT JOIN District d ON t.district_id = d.district_id LEFT JOIN Province p ON d.province_id = p.province_id WHERE t.tehsil_id = NEW.tehsil_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_supplier_delete AFTER DELETE ON Supplier BEGIN
+    DELETE FROM Search_Index WHERE rowid = 6 * 4294967296 + OLD.supplier_id;
+END;
+
+-- ProductionStock: product name and brand
+INSERT INTO Search_Index (rowid, title, detail)
+    SELECT 5 * 4294967296 + x.production_id, x.product_name, COALESCE((SELECT b.brand_name FROM Brand b WHERE b.brand_id = x.brand_id), '') FROM ProductionStock x;
+CREATE TRIGGER IF NOT EXISTS trg_search_productionstock_insert AFTER INSERT ON ProductionStock BEGIN
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (5 * 4294967296 + NEW.production_id, NEW.product_name, COALESCE((SELECT b.brand_name FROM Brand b WHERE b.brand_id = NEW.brand_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_productionstock_update AFTER UPDATE OF product_name, brand_id ON ProductionStock BEGIN
+    DELETE FROM Search_Index WHERE rowid = 5 * 4294967296 + OLD.production_id;
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (5 * 4294967296 + NEW.production_id, NEW.product_name, COALESCE((SELECT b.brand_name FROM Brand b WHERE b.brand_id = NEW.brand_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_productionstock_delete AFTER DELETE ON ProductionStock BEGIN
+    DELETE FROM Search_Index WHERE rowid = 5 * 4294967296 + OLD.production_id;
+END;
+
+-- Raw_Stock: item name and brand
+INSERT INTO Search_Index (rowid, title, detail)
+    SELECT 4 * 4294967296 + x.stock_id, x.item_name, COALESCE((SELECT b.brand_name FROM Brand b WHERE b.brand_id = x.brand_id), '') FROM Raw_Stock x;
+CREATE TRIGGER IF NOT EXISTS trg_search_raw_stock_insert AFTER INSERT ON Raw_Stock BEGIN
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (4 * 4294967296 + NEW.stock_id, NEW.item_name, COALESCE((SELECT b.brand_name FROM Brand b WHERE b.brand_id = NEW.brand_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_raw_stock_update AFTER UPDATE OF item_name, brand_id ON Raw_Stock BEGIN
+    DELETE FROM Search_Index WHERE rowid = 4 * 4294967296 + OLD.stock_id;
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (4 * 4294967296 + NEW.stock_id, NEW.item_name, COALESCE((SELECT b.brand_name FROM Brand b WHERE b.brand_id = NEW.brand_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_raw_stock_delete AFTER DELETE ON Raw_Stock BEGIN
+    DELETE FROM Search_Index WHERE rowid = 4 * 4294967296 + OLD.stock_id;
+END;
+
+-- Bank_Transaction: description, type, date and bank
+INSERT INTO Search_Index (rowid, title, detail)
+    SELECT 3 * 4294967296 + x.bank_transaction_id, x.description, x.transaction_type || ' ' || x.transaction_date || ' ' || COALESCE((SELECT b.bank_name FROM Bank b WHERE b.bank_id = x.bank_id), '') FROM Bank_Transaction x;
+CREATE TRIGGER IF NOT EXISTS trg_search_bank_transaction_insert AFTER INSERT ON Bank_Transaction BEGIN
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (3 * 4294967296 + NEW.bank_transaction_id, NEW.description, NEW.transaction_type || ' ' || NEW.transaction_date || ' ' || COALESCE((SELECT b.bank_name FROM Bank b WHERE b.bank_id = NEW.bank_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_bank_transaction_update AFTER UPDATE OF description, transaction_type, transaction_date, bank_id ON Bank_Transaction BEGIN
+    DELETE FROM Search_Index WHERE rowid = 3 * 4294967296 + OLD.bank_transaction_id;
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (3 * 4294967296 + NEW.bank_transaction_id, NEW.description, NEW.transaction_type || ' ' || NEW.transaction_date || ' ' || COALESCE((SELECT b.bank_name FROM Bank b WHERE b.bank_id = NEW.bank_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_bank_transaction_delete AFTER DELETE ON Bank_Transaction BEGIN
+    DELETE FROM Search_Index WHERE rowid = 3 * 4294967296 + OLD.bank_transaction_id;
+END;
+
+-- Cash_Transaction: description, type and date
+INSERT INTO Search_Index (rowid, title, detail)
+    SELECT 2 * 4294967296 + x.cash_transaction_id, x.description, x.transaction_type || ' ' || x.transaction_date FROM Cash_Transaction x;
+CREATE TRIGGER IF NOT EXISTS trg_search_cash_transaction_insert AFTER INSERT ON Cash_Transaction BEGIN
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (2 * 4294967296 + NEW.cash_transaction_id, NEW.description, NEW.transaction_type || ' ' || NEW.transaction_date);
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_cash_transaction_update AFTER UPDATE OF description, transaction_type, transaction_date ON Cash_Transaction BEGIN
+    DELETE FROM Search_Index WHERE rowid = 2 * 4294967296 + OLD.cash_transaction_id;
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (2 * 4294967296 + NEW.cash_transaction_id, NEW.description, NEW.transaction_type || ' ' || NEW.transaction_date);
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_cash_transaction_delete AFTER DELETE ON Cash_Transaction BEGIN
+    DELETE FROM Search_Index WHERE rowid = 2 * 4294967296 + OLD.cash_transaction_id;
+END;
+
+-- Customer_Transaction: description, type, date, invoice and customer
+INSERT INTO Search_Index (rowid, title, detail)
+    SELECT 1 * 4294967296 + x.transaction_id, x.description, x.transaction_type || ' ' || x.transaction_date || ' ' || COALESCE(x.reference_invoice_number, '') || ' ' || COALESCE((SELECT c.customer_name FROM Customer c WHERE c.customer_id = x.customer_id), '') FROM Customer_Transaction x;
+CREATE TRIGGER IF NOT EXISTS trg_search_customer_transaction_insert AFTER INSERT ON Customer_Transaction BEGIN
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (1 * 4294967296 + NEW.transaction_id, NEW.description, NEW.transaction_type || ' ' || NEW.transaction_date || ' ' || COALESCE(NEW.reference_invoice_number, '') || ' ' || COALESCE((SELECT c.customer_name FROM Customer c WHERE c.customer_id = NEW.customer_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_customer_transaction_update AFTER UPDATE OF description, transaction_type, transaction_date, reference_invoice_number, customer_id ON Customer_Transaction BEGIN
+    DELETE FROM Search_Index WHERE rowid = 1 * 4294967296 + OLD.transaction_id;
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (1 * 4294967296 + NEW.transaction_id, NEW.description, NEW.transaction_type || ' ' || NEW.transaction_date || ' ' || COALESCE(NEW.reference_invoice_number, '') || ' ' || COALESCE((SELECT c.customer_name FROM Customer c WHERE c.customer_id = NEW.customer_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_customer_transaction_delete AFTER DELETE ON Customer_Transaction BEGIN
+    DELETE FROM Search_Index WHERE rowid = 1 * 4294967296 + OLD.transaction_id;
+END;
+
+-- Supplier_Transaction: description, type, date, invoice and supplier
+INSERT INTO Search_Index (rowid, title, detail)
+    SELECT 0 * 4294967296 + x.transaction_id, x.description, x.transaction_type || ' ' || x.transaction_date || ' ' || COALESCE(x.reference_invoice_number, '') || ' ' || COALESCE((SELECT s.supplier_name FROM Supplier s WHERE s.supplier_id = x.supplier_id), '') FROM Supplier_Transaction x;
+CREATE TRIGGER IF NOT EXISTS trg_search_supplier_transaction_insert AFTER INSERT ON Supplier_Transaction BEGIN
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (0 * 4294967296 + NEW.transaction_id, NEW.description, NEW.transaction_type || ' ' || NEW.transaction_date || ' ' || COALESCE(NEW.reference_invoice_number, '') || ' ' || COALESCE((SELECT s.supplier_name FROM Supplier s WHERE s.supplier_id = NEW.supplier_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_supplier_transaction_update AFTER UPDATE OF description, transaction_type, transaction_date, reference_invoice_number, supplier_id ON Supplier_Transaction BEGIN
+    DELETE FROM Search_Index WHERE rowid = 0 * 4294967296 + OLD.transaction_id;
+    INSERT INTO Search_Index (rowid, title, detail) VALUES (0 * 4294967296 + NEW.transaction_id, NEW.description, NEW.transaction_type || ' ' || NEW.transaction_date || ' ' || COALESCE(NEW.reference_invoice_number, '') || ' ' || COALESCE((SELECT s.supplier_name FROM Supplier s WHERE s.supplier_id = NEW.supplier_id), ''));
+END;
+CREATE TRIGGER IF NOT EXISTS trg_search_supplier_transaction_delete AFTER DELETE ON Supplier_Transaction BEGIN
+    DELETE FROM Search_Index WHERE rowid = 0 * 4294967296 + OLD.transaction_id;
+END;
+
+-- A renamed brand changes the detail of every product and raw stock item of that brand
+CREATE TRIGGER IF NOT EXISTS trg_search_brand_rename AFTER UPDATE OF brand_name ON Brand BEGIN
+    DELETE FROM Search_Index WHERE rowid IN (SELECT 5 * 4294967296 + production_id FROM ProductionStock WHERE brand_id = NEW.brand_id);
+    INSERT INTO Search_Index (rowid, title, detail)
+        SELECT 5 * 4294967296 + x.production_id, x.product_name, NEW.brand_name FROM ProductionStock x WHERE x.brand_id = NEW.brand_id;
+    DELETE FROM Search_Index WHERE rowid IN (SELECT 4 * 4294967296 + stock_id FROM Raw_Stock WHERE brand_id = NEW.brand_id);
+    INSERT INTO Search_Index (rowid, title, detail)
+        SELECT 4 * 4294967296 + x.stock_id, x.item_name, NEW.brand_name FROM Raw_Stock x WHERE x.brand_id = NEW.brand_id;
+END;
+
+-- Merge the b-trees written by the backfill into one
+INSERT INTO Search_Index (Search_Index) VALUES ('optimize');
@@ -0,0 +1,135 @@
+-- Daily totals behind the summary, profit, brand and customer reports.
+-- The triggers below add each invoice and return to its day as it is
+-- inserted, in the same transaction, so reading a range costs one row per
+-- day instead of a scan over every invoice and item in it.
+-- sale_value and cost_amount are what the profit report has always used:
+-- quantity times the product's sale price (the item's unit price when the
+-- product has none) and quantity times the product's unit cost, taken when
+-- the item is inserted. Invoices are never updated or deleted by the app;
+-- after editing them by hand, rebuild with
+-- java -cp ... com.cablemanagement.database.DailyRollups <db-file>.
+CREATE TABLE IF NOT EXISTS Daily_Rollup (
+    day TEXT PRIMARY KEY,
+    sales_count INTEGER NOT NULL DEFAULT 0,
+    sales_amount REAL NOT NULL DEFAULT 0,
+    sale_value REAL NOT NULL DEFAULT 0,
+    cost_amount REAL NOT NULL DEFAULT 0,
+    sales_return_amount REAL NOT NULL DEFAULT 0,
+    purchase_amount REAL NOT NULL DEFAULT 0,
+    purchase_return_amount REAL NOT NULL DEFAULT 0
+) WITHOUT ROWID;
+
+CREATE TABLE IF NOT EXISTS Daily_Brand_Rollup (
+    day TEXT NOT NULL,
+    brand_id INTEGER NOT NULL,
+    quantity REAL NOT NULL DEFAULT 0,
+    sales_amount REAL NOT NULL DEFAULT 0,
+    sale_value REAL NOT NULL DEFAULT 0,
+    cost_amount REAL NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, brand_id)
+) WITHOUT ROWID;
+
+CREATE TABLE IF NOT EXISTS Daily_Customer_Rollup (
+    day TEXT NOT NULL,
+    customer_id INTEGER NOT NULL,
+    invoice_count INTEGER NOT NULL DEFAULT 0,
+    sales_amount REAL NOT NULL DEFAULT 0,
+    paid_amount REAL NOT NULL DEFAULT 0,
+    return_amount REAL NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, customer_id)
+) WITHOUT ROWID;
+
+-- Backfill from the invoices already on file
+INSERT INTO Daily_Rollup (day, sales_count, sales_amount, sale_value, cost_amount,
+                          sales_return_amount, purchase_amount, purchase_return_amount)
+    SELECT day, SUM(sales_count), SUM(sales_amount), SUM(sale_value), SUM(cost_amount),
+           SUM(sales_return_amount), SUM(purchase_amount), SUM(purchase_return_amount)
+    FROM (
+        SELECT sales_date AS day, 1 AS sales_count, total_amount AS sales_amount, 0 AS sale_value, 0 AS cost_amount,
+               0 AS sales_return_amount, 0 AS purchase_amount, 0 AS purchase_return_amount
+        FROM Sales_Invoice
+        UNION ALL
+        SELECT si.sales_date, 0, 0, sii.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE sii.unit_price END),
+               sii.quantity * ps.unit_cost, 0, 0, 0
+        FROM Sales_Invoice_Item sii
+        JOIN Sales_Invoice si ON si.sales_invoice_id = sii.sales_invoice_id
+        JOIN ProductionStock ps ON ps.production_id = sii.production_stock_id
+        UNION ALL
+        SELECT return_date, 0, 0, 0, 0, total_return_amount, 0, 0 FROM Sales_Return_Invoice
+        UNION ALL
+        SELECT invoice_date, 0, 0, 0, 0, 0, total_amount, 0 FROM Raw_Purchase_Invoice
+        UNION ALL
+        SELECT return_date, 0, 0, 0, 0, 0, 0, total_return_amount FROM Raw_Purchase_Return_Invoice
+    )
+    GROUP BY day;
+
+INSERT INTO Daily_Brand_Rollup (day, brand_id, quantity, sales_amount, sale_value, cost_amount)
+    SELECT si.sales_date, ps.brand_id, SUM(sii.quantity), SUM(sii.total_price),
+           SUM(sii.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE sii.unit_price END)),
+           SUM(sii.quantity * ps.unit_cost)
+    FROM Sales_Invoice_Item sii
+    JOIN Sales_Invoice si ON si.sales_invoice_id = sii.sales_invoice_id
+    JOIN ProductionStock ps ON ps.production_id = sii.production_stock_id
+    GROUP BY si.sales_date, ps.brand_id;
+
+INSERT INTO Daily_Customer_Rollup (day, customer_id, invoice_count, sales_amount, paid_amount, return_amount)
+    SELECT day, customer_id, SUM(invoice_count), SUM(sales_amount), SUM(paid_amount), SUM(return_amount)
+    FROM (
+        SELECT sales_date AS day, customer_id, 1 AS invoice_count, total_amount AS sales_amount,
+               paid_amount, 0 AS return_amount
+        FROM Sales_Invoice
+        UNION ALL
+        SELECT return_date, customer_id, 0, 0, 0, total_return_amount FROM Sales_Return_Invoice
+    )
+    GROUP BY day, customer_id;
+
+-- Sales invoice header: count, billed amount, and the customer's day
+CREATE TRIGGER IF NOT EXISTS trg_rollup_sales_invoice_insert AFTER INSERT ON Sales_Invoice BEGIN
+    INSERT INTO Daily_Rollup (day, sales_count, sales_amount) VALUES (NEW.sales_date, 1, NEW.total_amount)
+        ON CONFLICT(day) DO UPDATE SET sales_count = sales_count + 1,
+                                       sales_amount = sales_amount + excluded.sales_amount;
+    INSERT INTO Daily_Customer_Rollup (day, customer_id, invoice_count, sales_amount, paid_amount)
+        VALUES (NEW.sales_date, NEW.customer_id, 1, NEW.total_amount, NEW.paid_amount)
+        ON CONFLICT(day, customer_id) DO UPDATE SET invoice_count = invoice_count + 1,
+                                                    sales_amount = sales_amount + excluded.sales_amount,
+                                                    paid_amount = paid_amount + excluded.paid_amount;
+END;
+
+-- Sales invoice item: sale value and cost for the day and the product's brand
+CREATE TRIGGER IF NOT EXISTS trg_rollup_sales_item_insert AFTER INSERT ON Sales_Invoice_Item BEGIN
+    INSERT INTO Daily_Rollup (day, sale_value, cost_amount)
+        SELECT si.sales_date, NEW.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE NEW.unit_price END),
+               NEW.quantity * ps.unit_cost
+        FROM Sales_Invoice si, ProductionStock ps
+        WHERE si.sales_invoice_id = NEW.sales_invoice_id AND ps.production_id = NEW.production_stock_id
+        ON CONFLICT(day) DO UPDATE SET sale_value = sale_value + excluded.sale_value,
+                                       cost_amount = cost_amount + excluded.cost_amount;
+    INSERT INTO Daily_Brand_Rollup (day, brand_id, quantity, sales_amount, sale_value, cost_amount)
+        SELECT si.sales_date, ps.brand_id, NEW.quantity, NEW.total_price,
+               NEW.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE NEW.unit_price END),
+               NEW.quantity * ps.unit_cost
+        FROM Sales_Invoice si, ProductionStock ps
+        WHERE si.sales_invoice_id = NEW.sales_invoice_id AND ps.production_id = NEW.production_stock_id
+        ON CONFLICT(day, brand_id) DO UPDATE SET quantity = quantity + excluded.quantity,
+                                                 sales_amount = sales_amount + excluded.sales_amount,
+                                                 sale_value = sale_value + excluded.sale_value,
+                                                 cost_amount = cost_amount + excluded.cost_amount;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_rollup_sales_return_insert AFTER INSERT ON Sales_Return_Invoice BEGIN
+    INSERT INTO Daily_Rollup (day, sales_return_amount) VALUES (NEW.return_date, NEW.total_return_amount)
+        ON CONFLICT(day) DO UPDATE SET sales_return_amount = sales_return_amount + excluded.sales_return_amount;
+    INSERT INTO Daily_Customer_Rollup (day, customer_id, return_amount)
+        VALUES (NEW.return_date, NEW.customer_id, NEW.total_return_amount)
+        ON CONFLICT(day, customer_id) DO UPDATE SET return_amount = return_amount + excluded.return_amount;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_rollup_purchase_insert AFTER INSERT ON Raw_Purchase_Invoice BEGIN
+    INSERT INTO Daily_Rollup (day, purchase_amount) VALUES (NEW.invoice_date, NEW.total_amount)
+        ON CONFLICT(day) DO UPDATE SET purchase_amount = purchase_amount + excluded.purchase_amount;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_rollup_purchase_return_insert AFTER INSERT ON Raw_Purchase_Return_Invoice BEGIN
+    INSERT INTO Daily_Rollup (day, purchase_return_amount) VALUES (NEW.return_date, NEW.total_return_amount)
+        ON CONFLICT(day) DO UPDATE SET purchase_return_amount = purchase_return_amount + excluded.purchase_return_amount;
+END;
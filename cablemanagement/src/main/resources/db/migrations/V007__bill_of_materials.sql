@@ -0,0 +1,12 @@
+-- Raw materials that go into one unit of a product. When a production run
+-- is posted without an explicit list of materials, ProductionPostingEngine
+-- derives the raw stock used from these rows: quantity_per_unit times the
+-- quantity produced, summed per raw material over the whole run.
+CREATE TABLE IF NOT EXISTS Bill_Of_Materials (
+    production_id INTEGER NOT NULL,
+    raw_stock_id INTEGER NOT NULL,
+    quantity_per_unit REAL NOT NULL CHECK (quantity_per_unit > 0),
+    PRIMARY KEY (production_id, raw_stock_id),
+    FOREIGN KEY (production_id) REFERENCES ProductionStock(production_id),
+    FOREIGN KEY (raw_stock_id) REFERENCES Raw_Stock(stock_id)
+) WITHOUT ROWID;
@@ -0,0 +1,72 @@
+-- Cost layers for raw and production stock, kept by StockCosting.
+-- Every receipt (purchase, production, stock added by hand, sales return)
+-- opens a layer at its unit cost; every issue (sale, production use,
+-- purchase return, production return) takes quantity from the oldest open
+-- layers. Stock_Valuation holds each item's quantity and value at cost:
+-- the sum of its open layers under FIFO, a moving weighted average under
+-- AVERAGE. The cost of each sale is stamped on its Sales_Invoice_Item, so
+-- the profit report no longer depends on the product's current unit cost.
+-- Stock_Valuation is a rowid table so the balance sheet cache, which
+-- listens on the update hook, sees it change.
+CREATE TABLE IF NOT EXISTS Costing_Setting (
+    setting_id INTEGER PRIMARY KEY CHECK (setting_id = 1),
+    method TEXT NOT NULL CHECK (method IN ('FIFO', 'AVERAGE'))
+);
+INSERT OR IGNORE INTO Costing_Setting (setting_id, method) VALUES (1, 'AVERAGE');
+
+CREATE TABLE IF NOT EXISTS Cost_Layer (
+    layer_id INTEGER PRIMARY KEY AUTOINCREMENT,
+    stock_kind TEXT NOT NULL CHECK (stock_kind IN ('raw', 'product')),
+    stock_id INTEGER NOT NULL,
+    layer_date TEXT NOT NULL,
+    source TEXT NOT NULL,
+    reference TEXT,
+    quantity_received REAL NOT NULL,
+    quantity_remaining REAL NOT NULL,
+    unit_cost REAL NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_cost_layer_open ON Cost_Layer(stock_kind, stock_id, layer_id) WHERE quantity_remaining > 0;
+
+CREATE TABLE IF NOT EXISTS Stock_Valuation (
+    stock_kind TEXT NOT NULL,
+    stock_id INTEGER NOT NULL,
+    quantity REAL NOT NULL DEFAULT 0,
+    value REAL NOT NULL DEFAULT 0,
+    PRIMARY KEY (stock_kind, stock_id)
+);
+
+-- Stock on hand opens one layer per item at its current cost
+INSERT INTO Cost_Layer (stock_kind, stock_id, layer_date, source, quantity_received, quantity_remaining, unit_cost)
+    SELECT 'raw', stock_id, date('now'), 'opening', quantity, quantity, unit_price FROM Raw_Stock WHERE quantity > 0;
+INSERT INTO Cost_Layer (stock_kind, stock_id, layer_date, source, quantity_received, quantity_remaining, unit_cost)
+    SELECT 'product', production_id, date('now'), 'opening', quantity, quantity, unit_cost FROM ProductionStock WHERE quantity > 0;
+INSERT INTO Stock_Valuation (stock_kind, stock_id, quantity, value)
+    SELECT stock_kind, stock_id, SUM(quantity_remaining), SUM(quantity_remaining * unit_cost)
+    FROM Cost_Layer GROUP BY stock_kind, stock_id;
+
+-- Cost of goods sold per line; sales made before this migration keep the cost the rollups already took
+ALTER TABLE Sales_Invoice_Item ADD COLUMN unit_cost REAL;
+UPDATE Sales_Invoice_Item SET unit_cost = (SELECT ps.unit_cost FROM ProductionStock ps
+                                           WHERE ps.production_id = Sales_Invoice_Item.production_stock_id);
+
+-- The rollups take the stamped cost instead of the product's current one
+DROP TRIGGER IF EXISTS trg_rollup_sales_item_insert;
+CREATE TRIGGER IF NOT EXISTS trg_rollup_sales_item_insert AFTER INSERT ON Sales_Invoice_Item BEGIN
+    INSERT INTO Daily_Rollup (day, sale_value, cost_amount)
+        SELECT si.sales_date, NEW.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE NEW.unit_price END),
+               NEW.quantity * COALESCE(NEW.unit_cost, ps.unit_cost)
+        FROM Sales_Invoice si, ProductionStock ps
+        WHERE si.sales_invoice_id = NEW.sales_invoice_id AND ps.production_id = NEW.production_stock_id
+        ON CONFLICT(day) DO UPDATE SET sale_value = sale_value + excluded.sale_value,
+                                       cost_amount = cost_amount + excluded.cost_amount;
+    INSERT INTO Daily_Brand_Rollup (day, brand_id, quantity, sales_amount, sale_value, cost_amount)
+        SELECT si.sales_date, ps.brand_id, NEW.quantity, NEW.total_price,
+               NEW.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE NEW.unit_price END),
+               NEW.quantity * COALESCE(NEW.unit_cost, ps.unit_cost)
+        FROM Sales_Invoice si, ProductionStock ps
+        WHERE si.sales_invoice_id = NEW.sales_invoice_id AND ps.production_id = NEW.production_stock_id
+        ON CONFLICT(day, brand_id) DO UPDATE SET quantity = quantity + excluded.quantity,
+                                                 sales_amount = sales_amount + excluded.sales_amount,
+                                                 sale_value = sale_value + excluded.sale_value,
+                                                 cost_amount = cost_amount + excluded.cost_amount;
+END;
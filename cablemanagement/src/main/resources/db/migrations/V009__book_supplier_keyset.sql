@@ -0,0 +1,5 @@
+-- Keyset pagination of the purchase and purchase return books filtered by
+-- supplier: one supplier's invoices in invoice id order, so each page
+-- starts with an index seek instead of walking every invoice before it.
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_supplier_keyset ON Raw_Purchase_Invoice(supplier_id, raw_purchase_invoice_id);
+CREATE INDEX IF NOT EXISTS idx_raw_purchase_return_supplier_keyset ON Raw_Purchase_Return_Invoice(supplier_id, raw_purchase_return_invoice_id);
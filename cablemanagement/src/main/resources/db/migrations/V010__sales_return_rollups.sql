@@ -0,0 +1,72 @@
+-- Sales returns take their goods back out of the day's sale value and cost
+-- in Daily_Rollup and Daily_Brand_Rollup, on the day of the return. The
+-- value is worked out as for the sale (the product's sale price, else the
+-- line's price); the cost is the one stamped on the original invoice's line
+-- for the product, the cost the goods went back on hand at, or the
+-- product's cost when the line has none. Quantity and billed amounts are
+-- left alone: the brand and summary reports show returns separately.
+
+-- Returns already on file
+INSERT INTO Daily_Rollup (day, sale_value, cost_amount)
+    SELECT day, -SUM(sale_value), -SUM(cost_amount)
+    FROM (
+        SELECT sri.return_date AS day,
+               srii.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE srii.unit_price END) AS sale_value,
+               srii.quantity * COALESCE((SELECT sii.unit_cost FROM Sales_Invoice_Item sii
+                                         WHERE sii.sales_invoice_id = sri.original_sales_invoice_id
+                                           AND sii.production_stock_id = srii.production_stock_id
+                                           AND sii.unit_cost IS NOT NULL LIMIT 1),
+                                        ps.unit_cost) AS cost_amount
+        FROM Sales_Return_Invoice_Item srii
+        JOIN Sales_Return_Invoice sri ON sri.sales_return_invoice_id = srii.sales_return_invoice_id
+        JOIN ProductionStock ps ON ps.production_id = srii.production_stock_id
+    )
+    GROUP BY day
+    ON CONFLICT(day) DO UPDATE SET sale_value = sale_value + excluded.sale_value,
+                                   cost_amount = cost_amount + excluded.cost_amount;
+
+INSERT INTO Daily_Brand_Rollup (day, brand_id, sale_value, cost_amount)
+    SELECT day, brand_id, -SUM(sale_value), -SUM(cost_amount)
+    FROM (
+        SELECT sri.return_date AS day, ps.brand_id,
+               srii.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE srii.unit_price END) AS sale_value,
+               srii.quantity * COALESCE((SELECT sii.unit_cost FROM Sales_Invoice_Item sii
+                                         WHERE sii.sales_invoice_id = sri.original_sales_invoice_id
+                                           AND sii.production_stock_id = srii.production_stock_id
+                                           AND sii.unit_cost IS NOT NULL LIMIT 1),
+                                        ps.unit_cost) AS cost_amount
+        FROM Sales_Return_Invoice_Item srii
+        JOIN Sales_Return_Invoice sri ON sri.sales_return_invoice_id = srii.sales_return_invoice_id
+        JOIN ProductionStock ps ON ps.production_id = srii.production_stock_id
+    )
+    GROUP BY day, brand_id
+    ON CONFLICT(day, brand_id) DO UPDATE SET sale_value = sale_value + excluded.sale_value,
+                                             cost_amount = cost_amount + excluded.cost_amount;
+
+-- Sales return item: its value and cost come off the return's day and the product's brand
+CREATE TRIGGER IF NOT EXISTS trg_rollup_sales_return_item_insert AFTER INSERT ON Sales_Return_Invoice_Item BEGIN
+    INSERT INTO Daily_Rollup (day, sale_value, cost_amount)
+        SELECT sri.return_date,
+               -NEW.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE NEW.unit_price END),
+               -NEW.quantity * COALESCE((SELECT sii.unit_cost FROM Sales_Invoice_Item sii
+                                         WHERE sii.sales_invoice_id = sri.original_sales_invoice_id
+                                           AND sii.production_stock_id = NEW.production_stock_id
+                                           AND sii.unit_cost IS NOT NULL LIMIT 1),
+                                        ps.unit_cost)
+        FROM Sales_Return_Invoice sri, ProductionStock ps
+        WHERE sri.sales_return_invoice_id = NEW.sales_return_invoice_id AND ps.production_id = NEW.production_stock_id
+        ON CONFLICT(day) DO UPDATE SET sale_value = sale_value + excluded.sale_value,
+                                       cost_amount = cost_amount + excluded.cost_amount;
+    INSERT INTO Daily_Brand_Rollup (day, brand_id, sale_value, cost_amount)
+        SELECT sri.return_date, ps.brand_id,
+               -NEW.quantity * (CASE WHEN ps.sale_price > 0 THEN ps.sale_price ELSE NEW.unit_price END),
+               -NEW.quantity * COALESCE((SELECT sii.unit_cost FROM Sales_Invoice_Item sii
+                                         WHERE sii.sales_invoice_id = sri.original_sales_invoice_id
+                                           AND sii.production_stock_id = NEW.production_stock_id
+                                           AND sii.unit_cost IS NOT NULL LIMIT 1),
+                                        ps.unit_cost)
+        FROM Sales_Return_Invoice sri, ProductionStock ps
+        WHERE sri.sales_return_invoice_id = NEW.sales_return_invoice_id AND ps.production_id = NEW.production_stock_id
+        ON CONFLICT(day, brand_id) DO UPDATE SET sale_value = sale_value + excluded.sale_value,
+                                                 cost_amount = cost_amount + excluded.cost_amount;
+END;
@@ -0,0 +1,117 @@
+-- The Books views. SchemaBootstrap drops and recreates all of them whenever
+-- this file, schema.sql or the migration level changes, and leaves them
+-- alone otherwise. The purchase, purchase return and raw stock books share
+-- one 14 column layout, so the Books pages can read them alike.
+
+-- Purchases, one row per item
+DROP VIEW IF EXISTS View_Purchase_Book;
+CREATE VIEW View_Purchase_Book AS
+SELECT
+    rpi.raw_purchase_invoice_id,
+    rpi.invoice_number,
+    s.supplier_name,
+    rpi.invoice_date,
+    rs.item_name,
+    b.brand_name,
+    m.manufacturer_name,
+    rpii.quantity,
+    rpii.unit_price,
+    (rpii.quantity * rpii.unit_price) AS item_total,
+    rpi.total_amount,
+    rpi.discount_amount,
+    rpi.paid_amount,
+    (rpi.total_amount - rpi.paid_amount) AS balance
+FROM Raw_Purchase_Invoice rpi
+JOIN Supplier s ON rpi.supplier_id = s.supplier_id
+JOIN Raw_Purchase_Invoice_Item rpii ON rpi.raw_purchase_invoice_id = rpii.raw_purchase_invoice_id
+JOIN Raw_Stock rs ON rpii.raw_stock_id = rs.stock_id
+JOIN Brand b ON rs.brand_id = b.brand_id
+JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id;
+
+-- Purchase returns in the purchase layout: no discount, fully settled
+DROP VIEW IF EXISTS View_Return_Purchase_Book;
+CREATE VIEW View_Return_Purchase_Book AS
+SELECT
+    rpri.raw_purchase_return_invoice_id AS raw_purchase_invoice_id,
+    rpri.return_invoice_number AS invoice_number,
+    s.supplier_name,
+    rpri.return_date AS invoice_date,
+    rs.item_name,
+    b.brand_name,
+    m.manufacturer_name,
+    rprii.quantity AS quantity,
+    rprii.unit_price,
+    (rprii.quantity * rprii.unit_price) AS item_total,
+    rpri.total_return_amount AS total_amount,
+    0 AS discount_amount,
+    rpri.total_return_amount AS paid_amount,
+    0 AS balance
+FROM Raw_Purchase_Return_Invoice rpri
+JOIN Supplier s ON rpri.supplier_id = s.supplier_id
+JOIN Raw_Purchase_Return_Invoice_Item rprii ON rpri.raw_purchase_return_invoice_id = rprii.raw_purchase_return_invoice_id
+JOIN Raw_Stock rs ON rprii.raw_stock_id = rs.stock_id
+JOIN Brand b ON rs.brand_id = b.brand_id
+JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id;
+
+-- Raw stock issued for internal use, in the purchase layout
+DROP VIEW IF EXISTS View_Raw_Stock_Book;
+CREATE VIEW View_Raw_Stock_Book AS
+SELECT
+    rsui.raw_stock_use_invoice_id AS raw_purchase_invoice_id,
+    rsui.use_invoice_number AS invoice_number,
+    'Internal Usage' AS supplier_name,
+    rsui.usage_date AS invoice_date,
+    rs.item_name,
+    b.brand_name,
+    m.manufacturer_name,
+    rsuii.quantity_used AS quantity,
+    rsuii.unit_cost AS unit_price,
+    rsuii.total_cost AS item_total,
+    rsui.total_usage_amount AS total_amount,
+    0.0 AS discount_amount,
+    rsui.total_usage_amount AS paid_amount,
+    0.0 AS balance
+FROM Raw_Stock_Use_Invoice rsui
+JOIN Raw_Stock_Use_Invoice_Item rsuii ON rsui.raw_stock_use_invoice_id = rsuii.raw_stock_use_invoice_id
+JOIN Raw_Stock rs ON rsuii.raw_stock_id = rs.stock_id
+JOIN Brand b ON rs.brand_id = b.brand_id
+JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id;
+
+-- Production runs, one row per product made
+DROP VIEW IF EXISTS View_Production_Book;
+CREATE VIEW View_Production_Book AS
+SELECT
+    pi.production_invoice_id,
+    pi.production_date,
+    ps.product_name,
+    pii.quantity_produced AS quantity,
+    ps.unit_cost,
+    (pii.quantity_produced * ps.unit_cost) AS total_cost,
+    b.brand_name,
+    m.manufacturer_name,
+    pi.notes
+FROM Production_Invoice pi
+JOIN Production_Invoice_Item pii ON pi.production_invoice_id = pii.production_invoice_id
+JOIN ProductionStock ps ON pii.production_id = ps.production_id
+JOIN Brand b ON ps.brand_id = b.brand_id
+JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id;
+
+-- Production returns, one row per product returned
+DROP VIEW IF EXISTS View_Return_Production_Book;
+CREATE VIEW View_Return_Production_Book AS
+SELECT
+    pri.production_return_invoice_id,
+    pri.return_invoice_number,
+    pri.return_date,
+    prii.quantity_returned AS quantity,
+    prii.unit_cost,
+    prii.total_cost,
+    ps.product_name,
+    b.brand_name,
+    m.manufacturer_name,
+    pri.notes
+FROM Production_Return_Invoice pri
+JOIN Production_Return_Invoice_Item prii ON pri.production_return_invoice_id = prii.production_return_invoice_id
+JOIN ProductionStock ps ON prii.production_id = ps.production_id
+JOIN Brand b ON ps.brand_id = b.brand_id
+JOIN Manufacturer m ON b.manufacturer_id = m.manufacturer_id;
@@ -0,0 +1,88 @@
+package com.cablemanagement.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChangeBusTest {
+
+    private static final int COMMITS = 200;
+
+    @TempDir
+    Path dir;
+
+    private SQLiteDatabase database;
+
+    @BeforeEach
+    void open() {
+        database = new SQLiteDatabase(dir.resolve("bus.db").toString());
+    }
+
+    @AfterEach
+    void close() {
+        database.disconnect();
+    }
+
+    @Test
+    void subscriberReadsTheCommittedRowsOnAReader() throws Exception {
+        List<Long> missing = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(COMMITS);
+        ConnectionPool pool = database.getConnectionPool();
+        ChangeBus.Subscription subscription = database.getChangeBus().subscribe(changes -> {
+            for (ChangeBus.Change change : changes) {
+                // What a LiveRows loader does with an inserted row
+                if (!rowExists(pool, change.id())) {
+                    missing.add(change.id());
+                }
+                delivered.countDown();
+            }
+        }, "Province");
+
+        Connection writer = database.getConnection();
+        for (int i = 0; i < COMMITS; i++) {
+            if (i % 2 == 0) {
+                assertTrue(database.insertProvince("Province " + i));
+            } else {
+                writer.setAutoCommit(false);
+                assertTrue(database.insertProvince("Province " + i));
+                writer.commit();
+                writer.setAutoCommit(true);
+            }
+        }
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        subscription.close();
+        assertEquals(List.of(), missing);
+    }
+
+    private static boolean rowExists(ConnectionPool pool, long id) {
+        Connection reader = null;
+        try {
+            reader = pool.borrowReader();
+            try (PreparedStatement pstmt = reader.prepareStatement("SELECT 1 FROM Province WHERE province_id = ?")) {
+                pstmt.setLong(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        } catch (SQLException e) {
+            return false;
+        } finally {
+            pool.release(reader);
+        }
+    }
+}
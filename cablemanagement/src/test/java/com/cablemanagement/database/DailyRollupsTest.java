@@ -0,0 +1,115 @@
+package com.cablemanagement.database;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DailyRollupsTest {
+
+    @TempDir
+    Path dir;
+
+    private SQLiteDatabase database;
+    private int customerId;
+    private int productId;
+
+    @BeforeEach
+    void open() throws SQLException {
+        database = new SQLiteDatabase(dir.resolve("rollups.db").toString());
+        assertTrue(database.insertProvince("Punjab"));
+        assertTrue(database.insertDistrict("Lahore", "Punjab"));
+        assertTrue(database.insertTehsil("Model Town", "Lahore"));
+        assertTrue(database.insertCustomer("Ali Traders", "0300", "Model Town"));
+        customerId = database.getCustomerIdByName("Ali Traders");
+        assertTrue(database.insertBrand("Fast", "Punjab", "Lahore", "Model Town"));
+        // Costs 80 and sells at 100
+        assertTrue(database.insertProductionStock("Cable 1.5mm", "", "Fast", "Meter", 100, 80.0, 100.0, 0));
+        productId = ((Number) rows("SELECT production_id FROM ProductionStock").get(0)[0]).intValue();
+    }
+
+    @AfterEach
+    void close() {
+        database.disconnect();
+    }
+
+    @Test
+    void salesReturnTakesItsValueAndCostOffTheReturnDay() throws SQLException {
+        List<Object[]> sold = new ArrayList<>();
+        sold.add(new Object[] {productId, 10.0, 100.0, 0.0, 0.0});
+        assertTrue(database.insertSalesInvoice("SI-001", customerId, "2024-05-01", 1000, 0, 0, sold));
+        int invoiceId = database.getSalesInvoiceIdByNumber("SI-001");
+
+        List<Object[]> returned = new ArrayList<>();
+        returned.add(new Object[] {productId, 4.0, 100.0});
+        assertTrue(database.insertSalesReturnInvoice("SRI-001", invoiceId, customerId, "2024-05-03", 400, returned));
+
+        assertArrayEquals(new Object[] {1000.0, 800.0}, dayTotals("2024-05-01"));
+        // At the cost the goods were sold at, not the product's current one
+        assertArrayEquals(new Object[] {-400.0, -320.0}, dayTotals("2024-05-03"));
+        List<Object[]> brandDays = rows("SELECT day, quantity, sale_value, cost_amount FROM Daily_Brand_Rollup ORDER BY day");
+        assertEquals(2, brandDays.size());
+        assertArrayEquals(new Object[] {"2024-05-03", 0.0, -400.0, -320.0}, brandDays.get(1));
+    }
+
+    @Test
+    void rebuildMatchesTheTriggers() throws SQLException {
+        List<Object[]> sold = new ArrayList<>();
+        sold.add(new Object[] {productId, 10.0, 100.0, 0.0, 0.0});
+        assertTrue(database.insertSalesInvoice("SI-001", customerId, "2024-05-01", 1000, 0, 0, sold));
+        List<Object[]> returned = new ArrayList<>();
+        returned.add(new Object[] {productId, 4.0, 100.0});
+        assertTrue(database.insertSalesReturnInvoice("SRI-001", database.getSalesInvoiceIdByNumber("SI-001"),
+                                                     customerId, "2024-05-03", 400, returned));
+
+        String daily = "SELECT * FROM Daily_Rollup ORDER BY day";
+        String brand = "SELECT * FROM Daily_Brand_Rollup ORDER BY day, brand_id";
+        List<Object[]> dailyBefore = rows(daily);
+        List<Object[]> brandBefore = rows(brand);
+
+        assertTrue(database.rebuildRollups());
+
+        assertRowsEqual(dailyBefore, rows(daily));
+        assertRowsEqual(brandBefore, rows(brand));
+    }
+
+    private Object[] dayTotals(String day) throws SQLException {
+        List<Object[]> found = rows("SELECT sale_value, cost_amount FROM Daily_Rollup WHERE day = '" + day + "'");
+        assertEquals(1, found.size());
+        return found.get(0);
+    }
+
+    private static void assertRowsEqual(List<Object[]> expected, List<Object[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    private List<Object[]> rows(String sql) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (PreparedStatement pstmt = database.getConnection().prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                Object[] row = new Object[columns];
+                for (int i = 0; i < columns; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,67 @@
+package com.cablemanagement.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InvoiceSequenceTest {
+
+    @TempDir
+    Path dir;
+
+    private SQLiteDatabase first;
+    private SQLiteDatabase second;
+
+    @BeforeEach
+    void open() {
+        String path = dir.resolve("sequence.db").toString();
+        first = new SQLiteDatabase(path);
+        second = new SQLiteDatabase(path);
+    }
+
+    @AfterEach
+    void close() {
+        first.disconnect();
+        second.disconnect();
+    }
+
+    @Test
+    void twoTerminalsPreviewingTheSameNumberStoreDifferentOnes() {
+        String previewed = first.generateUseInvoiceNumber();
+        assertEquals(previewed, second.generateUseInvoiceNumber());
+
+        assertTrue(first.insertRawStockUseInvoiceAndGetId(previewed, "2024-05-01", 10, "Cutting") > 0);
+        // Without the reservation this insert failed on the UNIQUE number
+        assertTrue(second.insertRawStockUseInvoiceAndGetId(previewed, "2024-05-01", 20, "Cutting") > 0);
+
+        assertEquals("INV-RSU-001", first.getAssignedInvoiceNumber(previewed));
+        assertEquals("INV-RSU-002", second.getAssignedInvoiceNumber(previewed));
+        assertEquals("INV-RSU-003", first.generateUseInvoiceNumber());
+    }
+
+    @Test
+    void rolledBackInsertLeavesNoGap() throws Exception {
+        Connection connection = first.getConnection();
+        connection.setAutoCommit(false);
+        assertTrue(first.insertRawStockUseInvoiceAndGetId(first.generateUseInvoiceNumber(), "2024-05-01", 10, "Cutting") > 0);
+        connection.rollback();
+        connection.setAutoCommit(true);
+
+        assertEquals("INV-RSU-001", first.generateUseInvoiceNumber());
+    }
+
+    @Test
+    void numberTypedByHandIsKept() {
+        assertTrue(first.insertRawStockUseInvoiceAndGetId("USE/MAY/7", "2024-05-01", 10, "Cutting") > 0);
+
+        assertEquals("USE/MAY/7", first.getAssignedInvoiceNumber("USE/MAY/7"));
+        assertEquals("INV-RSU-001", first.generateUseInvoiceNumber());
+    }
+}
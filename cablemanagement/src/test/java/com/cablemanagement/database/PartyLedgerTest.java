@@ -0,0 +1,70 @@
+package com.cablemanagement.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PartyLedgerTest {
+
+    @TempDir
+    Path dir;
+
+    private SQLiteDatabase database;
+
+    @BeforeEach
+    void open() {
+        database = new SQLiteDatabase(dir.resolve("ledger.db").toString());
+        assertTrue(database.insertProvince("Punjab"));
+        assertTrue(database.insertDistrict("Lahore", "Punjab"));
+        assertTrue(database.insertTehsil("Model Town", "Lahore"));
+    }
+
+    @AfterEach
+    void close() {
+        database.disconnect();
+    }
+
+    @Test
+    void backDatedCustomerPostingCountsFromItsOwnDate() throws SQLException {
+        assertTrue(database.insertCustomer("Ali Traders", "0300", "Model Town"));
+        int id = database.getCustomerIdByName("Ali Traders");
+
+        charge(PartyLedger.CUSTOMER, id, 1000, "2024-03-10");
+        assertTrue(database.addCustomerPayment(id, 300, "2024-03-20", "Cash"));
+        // Posted last, dated first: its balance_after_transaction (700 + 200) is no balance of 2024-03-05
+        charge(PartyLedger.CUSTOMER, id, 200, "2024-03-05");
+
+        assertEquals(0.0, database.getCustomerBalanceAsOf("Ali Traders", "2024-03-04"));
+        assertEquals(200.0, database.getCustomerBalanceAsOf("Ali Traders", "2024-03-05"));
+        assertEquals(1200.0, database.getCustomerBalanceAsOf("Ali Traders", "2024-03-19"));
+        assertEquals(900.0, database.getCustomerBalanceAsOf("Ali Traders", "2024-03-20"));
+    }
+
+    @Test
+    void backDatedSupplierPaymentCountsFromItsOwnDate() throws SQLException {
+        assertTrue(database.insertSupplier("Khan Copper", "0321", "Model Town"));
+        int id = database.getSupplierIdByName("Khan Copper");
+
+        charge(PartyLedger.SUPPLIER, id, 5000, "2024-03-01");
+        charge(PartyLedger.SUPPLIER, id, 1500, "2024-03-15");
+        assertTrue(database.addSupplierPayment(id, 2000, "2024-03-10", "Bank"));
+
+        assertEquals(5000.0, database.getSupplierBalanceAsOf("Khan Copper", "2024-03-09"));
+        assertEquals(3000.0, database.getSupplierBalanceAsOf("Khan Copper", "2024-03-10"));
+        assertEquals(4500.0, database.getSupplierBalanceAsOf("Khan Copper", "2024-03-15"));
+    }
+
+    private void charge(PartyLedger ledger, int partyId, double amount, String date) throws SQLException {
+        database.getConnection().setAutoCommit(false);
+        ledger.post(database.getConnection(), partyId, amount, date, PartyLedger.INVOICE_CHARGE, "Invoice", null);
+        database.getConnection().commit();
+        database.getConnection().setAutoCommit(true);
+    }
+}
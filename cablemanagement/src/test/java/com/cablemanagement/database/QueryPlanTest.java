@@ -0,0 +1,167 @@
+package com.cablemanagement.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs EXPLAIN QUERY PLAN over the statements the hot paths execute, taken
+ * from the code rather than copied, and fails on a full scan of a table
+ * that should be searched through an index. A statement that no longer
+ * prepares against the schema fails as well.
+ */
+class QueryPlanTest {
+
+    private static final String[] REPORT_VARIANTS = {
+        ReportSpec.ALL_REPORTS, "Product-wise Report", "Category-wise Report",
+        "Brand-wise Report", "Manufacturer-wise Report"
+    };
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    @TempDir
+    static Path dir;
+
+    private static SQLiteDatabase database;
+
+    private final List<String> problems = new ArrayList<>();
+
+    @BeforeAll
+    static void open() {
+        database = new SQLiteDatabase(dir.resolve("plans.db").toString());
+    }
+
+    @AfterAll
+    static void close() {
+        database.disconnect();
+    }
+
+    @Test
+    void dateRangeReportsSearchByIndex() {
+        for (String variant : REPORT_VARIANTS) {
+            check(ReportSpec.purchase(FROM, TO, variant));
+            check(ReportSpec.sales(FROM, TO, variant));
+            check(ReportSpec.returnPurchase(FROM, TO, variant));
+            check(ReportSpec.returnSales(FROM, TO, variant));
+        }
+        check(ReportSpec.bankTransfers(FROM, TO));
+        check(ReportSpec.profit(FROM, TO));
+        check(ReportSpec.brandSales(FROM, TO));
+        check(ReportSpec.customerSales(FROM, TO));
+        // The rollup subquery is one row; the bank total reads every bank by definition
+        check(ReportSpec.summary(FROM, TO), "r", "Bank");
+        assertEquals(List.of(), problems);
+    }
+
+    @Test
+    void listingReportsScanOnlyTheListedTable() {
+        check(ReportSpec.bankBalances(), "Bank");
+        check(ReportSpec.customers(), "Customer");
+        check(ReportSpec.suppliers(), "Supplier");
+        for (String party : new String[] {"Customer", "Supplier", "Both"}) {
+            check(ReportSpec.areaWise(party, "all", null), "c", "s");
+            check(ReportSpec.areaWise(party, "district", "Lahore"), "c", "s");
+        }
+        assertEquals(List.of(), problems);
+    }
+
+    @Test
+    void ledgerStatementsSearchByParty() {
+        check("customer by name", SQLiteDatabase.CUSTOMER_ID_BY_NAME_SQL);
+        check("supplier by name", SQLiteDatabase.SUPPLIER_ID_BY_NAME_SQL);
+        check("customer ledger", SQLiteDatabase.CUSTOMER_LEDGER_SQL);
+        check("supplier ledger", SQLiteDatabase.SUPPLIER_LEDGER_SQL);
+        check("customer ledger by dates", SQLiteDatabase.CUSTOMER_LEDGER_RANGE_SQL);
+        check("supplier ledger by dates", SQLiteDatabase.SUPPLIER_LEDGER_RANGE_SQL);
+        for (boolean from : new boolean[] {false, true}) {
+            for (boolean to : new boolean[] {false, true}) {
+                check("customer ledger page", SQLiteDatabase.ledgerPageSql(SQLiteDatabase.CUSTOMER_LEDGER_PAGE_SQL, from, to));
+                check("supplier ledger page", SQLiteDatabase.ledgerPageSql(SQLiteDatabase.SUPPLIER_LEDGER_PAGE_SQL, from, to));
+            }
+        }
+        for (PartyLedger ledger : new PartyLedger[] {PartyLedger.CUSTOMER, PartyLedger.SUPPLIER}) {
+            check(ledger.partyTable + " balance before invoice", ledger.balanceBeforeInvoiceSql());
+            check(ledger.partyTable + " balance as of", ledger.balanceAsOfSql());
+        }
+        assertEquals(List.of(), problems);
+    }
+
+    @Test
+    void laterSalesInvoicePagesSearchTheKey() {
+        for (boolean from : new boolean[] {false, true}) {
+            for (boolean to : new boolean[] {false, true}) {
+                for (boolean customer : new boolean[] {false, true}) {
+                    check("sales invoices page", SQLiteDatabase.salesInvoicesPageSql(true, from, to, customer));
+                }
+            }
+        }
+        assertEquals(List.of(), problems);
+    }
+
+    @Test
+    void supplierBookPagesSeekTheSuppliersInvoices() {
+        for (String view : new String[] {"View_Purchase_Book", "View_Return_Purchase_Book"}) {
+            for (boolean from : new boolean[] {false, true}) {
+                for (boolean to : new boolean[] {false, true}) {
+                    String window = SQLiteDatabase.bookWindowSql(view, from, to, true);
+                    check(view + " window", window);
+                    // A sort would read all of the supplier's later invoices before LIMIT applies
+                    if (plan(window).stream().anyMatch(detail -> detail.startsWith("USE TEMP B-TREE"))) {
+                        problems.add(view + " window sorts: " + window);
+                    }
+                }
+            }
+        }
+        assertEquals(List.of(), problems);
+    }
+
+    private static List<String> plan(String sql) {
+        List<String> details = new ArrayList<>();
+        try (PreparedStatement pstmt = database.getConnection().prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                details.add(rs.getString("detail"));
+            }
+        } catch (SQLException e) {
+            details.add(e.getMessage());
+        }
+        return details;
+    }
+
+    private void check(ReportSpec<?> spec, String... wholeTable) {
+        check(spec.toString(), SQLiteDatabase.reportQuery(spec).sql, wholeTable);
+    }
+
+    /**
+     * Note each full scan of a table other than those the statement reads whole on purpose.
+     * @param wholeTable Aliases (or table names) that may be scanned
+     */
+    private void check(String label, String sql, String... wholeTable) {
+        Set<String> allowed = Set.of(wholeTable);
+        try (PreparedStatement pstmt = database.getConnection().prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                String detail = rs.getString("detail");
+                // "SCAN si" reads the whole table, "SCAN si USING [COVERING] INDEX ..." walks an index
+                if (detail.startsWith("SCAN ") && !detail.contains(" USING ")
+                        && !allowed.contains(detail.substring(5).split(" ")[0])) {
+                    problems.add(label + ": " + detail);
+                }
+            }
+        } catch (SQLException e) {
+            problems.add(label + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.cablemanagement.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Calls every public get* method of the db interface against a generated
+ * database, with sample arguments taken from the data (first customer,
+ * supplier and employee, a date range covering everything), and fails on a
+ * call that throws or executes more than {@value #BUDGET} statements. A
+ * method whose count grows with the number of rows it returns is an N+1 and
+ * shows up here long before it shows up on a slow screen.
+ */
+class StatementBudgetTest {
+
+    private static final int BUDGET = 5;
+    private static final String FROM_DATE = "2000-01-01";
+    private static final String TO_DATE = "2999-12-31";
+
+    @TempDir
+    static Path dir;
+
+    private static SQLiteDatabase database;
+    private static String sampleCustomer;
+    private static String sampleSupplier;
+    private static String sampleEmployee;
+
+    @BeforeAll
+    static void open() {
+        StatementCounter.setEnabled(true);
+        database = new SQLiteDatabase(dir.resolve("budget.db").toString());
+        // A few months of a small shop: enough rows per party for an N+1 to show
+        DataGenerator.generate(database, new DataGenerator.Profile(DataGenerator.DEFAULT_SEED,
+            LocalDate.of(2024, 1, 1), 1, 20, 6, 30, 10, 5, 4));
+        Connection writer = database.getConnection();
+        sampleCustomer = firstValue(writer, "SELECT customer_name FROM Customer ORDER BY customer_id LIMIT 1");
+        sampleSupplier = firstValue(writer, "SELECT supplier_name FROM Supplier ORDER BY supplier_id LIMIT 1");
+        sampleEmployee = firstValue(writer, "SELECT employee_name FROM Employee ORDER BY employee_id LIMIT 1");
+    }
+
+    @AfterAll
+    static void close() {
+        database.disconnect();
+        StatementCounter.setEnabled(false);
+    }
+
+    @Test
+    void readMethodsStayWithinTheBudget() {
+        List<String> problems = new ArrayList<>();
+        Method[] methods = db.class.getMethods();
+        Arrays.sort(methods, Comparator.comparing(Method::getName).thenComparing(Method::getParameterCount));
+
+        for (Method method : methods) {
+            if (!method.getName().startsWith("get") || method.getReturnType() == Connection.class) {
+                continue;
+            }
+            Object[] args = sampleArguments(method);
+            if (args == null) {
+                continue; // parameter types we can't make up
+            }
+
+            StatementCounter.reset();
+            try {
+                Object result = method.invoke(database, args);
+                if (result instanceof ResultSet) {
+                    drain((ResultSet) result);
+                }
+            } catch (InvocationTargetException e) {
+                problems.add(signature(method) + " threw " + e.getCause());
+                continue;
+            } catch (Exception e) {
+                problems.add(signature(method) + " could not be called: " + e);
+                continue;
+            }
+            long count = StatementCounter.get();
+            if (count > BUDGET) {
+                problems.add(signature(method) + ": " + count + " statement(s)");
+            }
+        }
+        assertEquals(List.of(), problems);
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        String name = method.getName();
+        int stringCount = 0;
+        for (Class<?> type : types) {
+            if (type == String.class) {
+                stringCount++;
+            }
+        }
+        // Trailing string parameters that are dates: "as of" takes one, ranges take two
+        int dateStrings = 0;
+        if (name.contains("AsOf")) {
+            dateStrings = 1;
+        } else if ((name.contains("Date") || name.contains("Range")) && stringCount >= 2) {
+            dateStrings = 2;
+        }
+
+        int stringIndex = 0;
+        int dateIndex = 0;
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == String.class) {
+                int fromEnd = stringCount - stringIndex++;
+                if (fromEnd <= dateStrings) {
+                    args[i] = fromEnd == 2 ? FROM_DATE : TO_DATE;
+                } else {
+                    args[i] = samplePartyName(name);
+                }
+            } else if (type == int.class || type == Integer.class) {
+                args[i] = 1;
+            } else if (type == double.class || type == Double.class) {
+                args[i] = 0.0;
+            } else if (type == boolean.class || type == Boolean.class) {
+                args[i] = Boolean.FALSE;
+            } else if (type == Date.class) {
+                args[i] = Date.valueOf(dateIndex++ == 0 ? FROM_DATE : TO_DATE);
+            } else if (type == LocalDate.class) {
+                args[i] = LocalDate.parse(dateIndex++ == 0 ? FROM_DATE : TO_DATE);
+            } else {
+                return null;
+            }
+        }
+        return args;
+    }
+
+    private static String samplePartyName(String methodName) {
+        if (methodName.contains("Supplier")) {
+            return sampleSupplier;
+        }
+        if (methodName.contains("Employee") || methodName.contains("Salary") || methodName.contains("Loan")) {
+            return sampleEmployee;
+        }
+        return sampleCustomer;
+    }
+
+    private static String firstValue(Connection conn, String query) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            return rs.next() ? rs.getString(1) : "";
+        } catch (SQLException e) {
+            return "";
+        }
+    }
+
+    private static void drain(ResultSet rs) throws SQLException {
+        Statement stmt = rs.getStatement();
+        while (rs.next()) {
+            // read every row so lazily stepped statements finish
+        }
+        rs.close();
+        if (stmt != null) {
+            stmt.close();
+        }
+    }
+
+    private static String signature(Method method) {
+        StringBuilder sb = new StringBuilder(method.getName()).append('(');
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(types[i].getSimpleName());
+        }
+        return sb.append(')').toString();
+    }
+}
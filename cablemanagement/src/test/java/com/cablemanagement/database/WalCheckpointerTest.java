@@ -0,0 +1,43 @@
+package com.cablemanagement.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WalCheckpointerTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void clearLimit() {
+        System.clearProperty("cablemanagement.walLimitMb");
+    }
+
+    @Test
+    void walOverTheLimitIsTruncated() throws Exception {
+        System.setProperty("cablemanagement.walLimitMb", "0");
+        Path path = dir.resolve("wal.db");
+        Path wal = dir.resolve("wal.db-wal");
+        SQLiteDatabase database = new SQLiteDatabase(path.toString());
+        try {
+            assertTrue(database.insertProvince("Punjab"));
+            assertTrue(Files.size(wal) > 0);
+
+            // The first run is a second after opening; allow a few
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.size(wal) > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertEquals(0, Files.size(wal));
+        } finally {
+            database.disconnect();
+        }
+    }
+}
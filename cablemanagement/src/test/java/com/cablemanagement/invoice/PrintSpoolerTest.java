@@ -0,0 +1,378 @@
+package com.cablemanagement.invoice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.print.CancelablePrintJob;
+import javax.print.Doc;
+import javax.print.DocFlavor;
+import javax.print.DocPrintJob;
+import javax.print.PrintException;
+import javax.print.PrintService;
+import javax.print.ServiceUIFactory;
+import javax.print.attribute.Attribute;
+import javax.print.attribute.AttributeSet;
+import javax.print.attribute.HashAttributeSet;
+import javax.print.attribute.HashPrintJobAttributeSet;
+import javax.print.attribute.HashPrintServiceAttributeSet;
+import javax.print.attribute.PrintJobAttributeSet;
+import javax.print.attribute.PrintRequestAttributeSet;
+import javax.print.attribute.PrintServiceAttribute;
+import javax.print.attribute.PrintServiceAttributeSet;
+import javax.print.event.PrintJobAttributeListener;
+import javax.print.event.PrintJobEvent;
+import javax.print.event.PrintJobListener;
+import javax.print.event.PrintServiceAttributeListener;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the spooler against a stub print service. The stub renderer writes
+ * the invoice number as the "PDF", and the stub printer reads it back, so the
+ * order the printer received the jobs in is known. How each job ends is
+ * scripted by invoice number.
+ */
+class PrintSpoolerTest {
+
+    private static final long WAIT_MILLIS = 5000;
+
+    private final StubPrinter printer = new StubPrinter();
+    private PrintSpooler spooler;
+
+    @AfterEach
+    void shutdown() {
+        if (spooler != null) {
+            spooler.shutdown();
+        }
+    }
+
+    @Test
+    void printsInSubmissionOrderWhateverTheRenderOrder() throws Exception {
+        // Earlier invoices take longer to render, so they finish rendering last
+        spooler = new PrintSpooler(printer, (data, filename) -> {
+            int n = Integer.parseInt(data.getInvoiceNumber().substring(4));
+            Thread.sleep((5 - n) * 30L);
+            write(data, filename);
+        }, 3, 2, WAIT_MILLIS);
+        printer.outcomes.put("INV-4", Event.NO_MORE_EVENTS);
+
+        List<PrintSpooler.Job> jobs = spooler.submit(invoices(5), "Sales");
+
+        for (PrintSpooler.Job job : jobs) {
+            awaitStatus(job, PrintSpooler.Status.PRINTED);
+            assertEquals(1, job.getAttempts());
+        }
+        assertEquals(List.of("INV-0", "INV-1", "INV-2", "INV-3", "INV-4"), printer.received);
+    }
+
+    @Test
+    void failedJobPrintsOnRetry() throws Exception {
+        spooler = new PrintSpooler(printer, PrintSpoolerTest::write, 2, 4, WAIT_MILLIS);
+        printer.outcomes.put("INV-1", Event.FAILED);
+
+        List<PrintSpooler.Job> jobs = spooler.submit(invoices(3), "Sales");
+        PrintSpooler.Job failing = jobs.get(1);
+        awaitStatus(failing, PrintSpooler.Status.FAILED);
+        assertNotNull(failing.getError());
+        // The failure doesn't hold up the jobs behind it
+        awaitStatus(jobs.get(2), PrintSpooler.Status.PRINTED);
+
+        printer.outcomes.put("INV-1", Event.COMPLETED);
+        assertTrue(failing.retry());
+        awaitStatus(failing, PrintSpooler.Status.PRINTED);
+        assertEquals(2, failing.getAttempts());
+        assertFalse(failing.retry());
+        assertEquals(List.of("INV-0", "INV-1", "INV-2", "INV-1"), printer.received);
+    }
+
+    @Test
+    void cancelledJobsAreSkippedOrStoppedAtThePrinter() throws Exception {
+        spooler = new PrintSpooler(printer, PrintSpoolerTest::write, 2, 4, WAIT_MILLIS);
+        // The printer sits on the first job until it is cancelled
+        printer.outcomes.put("INV-0", Event.NONE);
+
+        List<PrintSpooler.Job> jobs = spooler.submit(invoices(3), "Sales");
+        awaitReceived("INV-0");
+        assertEquals(PrintSpooler.Status.PRINTING, jobs.get(0).getStatus());
+        assertTrue(jobs.get(1).cancel());
+        assertEquals(PrintSpooler.Status.CANCELLED, jobs.get(1).getStatus());
+
+        assertTrue(jobs.get(0).cancel());
+        awaitStatus(jobs.get(0), PrintSpooler.Status.CANCELLED);
+        awaitStatus(jobs.get(2), PrintSpooler.Status.PRINTED);
+        assertFalse(jobs.get(2).cancel());
+        assertEquals(List.of("INV-0", "INV-2"), printer.received);
+    }
+
+    @Test
+    void jobCancelledAndRetriedWhileQueuedPrintsOnce() throws Exception {
+        // One rendered job fits ahead of the printer, so the dispatcher stalls with INV-3 still queued
+        spooler = new PrintSpooler(printer, PrintSpoolerTest::write, 1, 1, WAIT_MILLIS);
+        printer.outcomes.put("INV-0", Event.HELD);
+
+        List<PrintSpooler.Job> jobs = spooler.submit(invoices(4), "Sales");
+        awaitReceived("INV-0");
+        awaitStatus(jobs.get(2), PrintSpooler.Status.WAITING);
+        PrintSpooler.Job queued = jobs.get(3);
+        assertEquals(PrintSpooler.Status.QUEUED, queued.getStatus());
+        assertTrue(queued.cancel());
+        assertTrue(queued.retry());
+        PrintSpooler.Job last = spooler.submit(List.of(invoice(4)), "Sales").get(0);
+
+        printer.held.complete();
+        awaitStatus(last, PrintSpooler.Status.PRINTED);
+        assertEquals(PrintSpooler.Status.PRINTED, queued.getStatus());
+        assertEquals(1, queued.getAttempts());
+        assertEquals(List.of("INV-0", "INV-1", "INV-2", "INV-3", "INV-4"), printer.received);
+    }
+
+    @Test
+    void jobThePrinterCannotCancelStillPrints() throws Exception {
+        spooler = new PrintSpooler(printer, PrintSpoolerTest::write, 1, 2, WAIT_MILLIS);
+        printer.cancelable = false;
+        printer.outcomes.put("INV-0", Event.HELD);
+
+        PrintSpooler.Job job = spooler.submit(invoices(1), "Sales").get(0);
+        awaitReceived("INV-0");
+        assertFalse(job.cancel());
+
+        printer.held.complete();
+        awaitStatus(job, PrintSpooler.Status.PRINTED);
+    }
+
+    @Test
+    void printerThatNeverAnswersTimesOut() throws Exception {
+        spooler = new PrintSpooler(printer, PrintSpoolerTest::write, 1, 2, 200);
+        printer.outcomes.put("INV-0", Event.NONE);
+
+        List<PrintSpooler.Job> jobs = spooler.submit(invoices(2), "Sales");
+
+        awaitStatus(jobs.get(0), PrintSpooler.Status.FAILED);
+        assertTrue(jobs.get(0).getError().contains("did not confirm"));
+        awaitStatus(jobs.get(1), PrintSpooler.Status.PRINTED);
+    }
+
+    @Test
+    void listenersSeeEveryStepOfAJob() throws Exception {
+        spooler = new PrintSpooler(printer, PrintSpoolerTest::write, 1, 2, WAIT_MILLIS);
+        List<PrintSpooler.Status> seen = new CopyOnWriteArrayList<>();
+        spooler.addListener(job -> seen.add(job.getStatus()));
+
+        PrintSpooler.Job job = spooler.submit(invoices(1), "Sales").get(0);
+
+        awaitStatus(job, PrintSpooler.Status.PRINTED);
+        assertEquals(List.of(PrintSpooler.Status.QUEUED, PrintSpooler.Status.RENDERING, PrintSpooler.Status.WAITING,
+                             PrintSpooler.Status.PRINTING, PrintSpooler.Status.PRINTED), seen);
+    }
+
+    private static List<InvoiceData> invoices(int count) {
+        List<InvoiceData> invoices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            invoices.add(invoice(i));
+        }
+        return invoices;
+    }
+
+    private static InvoiceData invoice(int number) {
+        return new InvoiceData("INV-" + number, "Ali Traders", "Model Town", "2024-05-01", List.of(), 0);
+    }
+
+    private static void write(InvoiceData data, String filename) throws Exception {
+        Files.write(Paths.get(filename), data.getInvoiceNumber().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void awaitStatus(PrintSpooler.Job job, PrintSpooler.Status status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (job.getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(status, job.getStatus(), job.getInvoiceNumber());
+    }
+
+    private void awaitReceived(String invoiceNumber) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!printer.received.contains(invoiceNumber) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(printer.received.contains(invoiceNumber), invoiceNumber + " never reached the printer");
+    }
+
+    /**
+     * What the stub printer reports for a job; COMPLETED unless scripted
+     * otherwise. A HELD job reports nothing until the test completes it.
+     */
+    private enum Event { COMPLETED, NO_MORE_EVENTS, FAILED, NONE, HELD }
+
+    private static final class StubPrinter implements PrintService {
+        final Map<String, Event> outcomes = new ConcurrentHashMap<>();
+        final List<String> received = new CopyOnWriteArrayList<>();
+        volatile boolean cancelable = true;
+        volatile StubJob held;
+
+        @Override
+        public DocPrintJob createPrintJob() {
+            return cancelable ? new CancelableStubJob(this) : new StubJob(this);
+        }
+
+        @Override
+        public String getName() {
+            return "Stub printer";
+        }
+
+        @Override
+        public DocFlavor[] getSupportedDocFlavors() {
+            return new DocFlavor[] {DocFlavor.INPUT_STREAM.PDF};
+        }
+
+        @Override
+        public boolean isDocFlavorSupported(DocFlavor flavor) {
+            return DocFlavor.INPUT_STREAM.PDF.equals(flavor);
+        }
+
+        @Override
+        public void addPrintServiceAttributeListener(PrintServiceAttributeListener listener) {}
+
+        @Override
+        public void removePrintServiceAttributeListener(PrintServiceAttributeListener listener) {}
+
+        @Override
+        public PrintServiceAttributeSet getAttributes() {
+            return new HashPrintServiceAttributeSet();
+        }
+
+        @Override
+        public <T extends PrintServiceAttribute> T getAttribute(Class<T> category) {
+            return null;
+        }
+
+        @Override
+        public Class<?>[] getSupportedAttributeCategories() {
+            return new Class<?>[0];
+        }
+
+        @Override
+        public boolean isAttributeCategorySupported(Class<? extends Attribute> category) {
+            return true;
+        }
+
+        @Override
+        public Object getDefaultAttributeValue(Class<? extends Attribute> category) {
+            return null;
+        }
+
+        @Override
+        public Object getSupportedAttributeValues(Class<? extends Attribute> category, DocFlavor flavor,
+                                                  AttributeSet attributes) {
+            return null;
+        }
+
+        @Override
+        public boolean isAttributeValueSupported(Attribute attrval, DocFlavor flavor, AttributeSet attributes) {
+            return true;
+        }
+
+        @Override
+        public AttributeSet getUnsupportedAttributes(DocFlavor flavor, AttributeSet attributes) {
+            return new HashAttributeSet();
+        }
+
+        @Override
+        public ServiceUIFactory getServiceUIFactory() {
+            return null;
+        }
+    }
+
+    private static class StubJob implements DocPrintJob {
+        final StubPrinter printer;
+        final List<PrintJobListener> listeners = new CopyOnWriteArrayList<>();
+
+        StubJob(StubPrinter printer) {
+            this.printer = printer;
+        }
+
+        @Override
+        public void print(Doc doc, PrintRequestAttributeSet attributes) throws PrintException {
+            String invoiceNumber;
+            try (InputStream in = (InputStream) doc.getPrintData()) {
+                invoiceNumber = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                throw new PrintException(e);
+            }
+            printer.received.add(invoiceNumber);
+            PrintJobEvent event = new PrintJobEvent(this, PrintJobEvent.JOB_COMPLETE);
+            switch (printer.outcomes.getOrDefault(invoiceNumber, Event.COMPLETED)) {
+                case COMPLETED:
+                    complete();
+                    break;
+                case NO_MORE_EVENTS:
+                    listeners.forEach(listener -> listener.printJobNoMoreEvents(event));
+                    break;
+                case FAILED:
+                    listeners.forEach(listener -> listener.printJobFailed(event));
+                    break;
+                case HELD:
+                    printer.held = this;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void complete() {
+            PrintJobEvent event = new PrintJobEvent(this, PrintJobEvent.JOB_COMPLETE);
+            listeners.forEach(listener -> listener.printJobCompleted(event));
+        }
+
+        @Override
+        public PrintService getPrintService() {
+            return printer;
+        }
+
+        @Override
+        public PrintJobAttributeSet getAttributes() {
+            return new HashPrintJobAttributeSet();
+        }
+
+        @Override
+        public void addPrintJobListener(PrintJobListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removePrintJobListener(PrintJobListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public void addPrintJobAttributeListener(PrintJobAttributeListener listener, PrintJobAttributeSet attributes) {}
+
+        @Override
+        public void removePrintJobAttributeListener(PrintJobAttributeListener listener) {}
+    }
+
+    private static final class CancelableStubJob extends StubJob implements CancelablePrintJob {
+
+        CancelableStubJob(StubPrinter printer) {
+            super(printer);
+        }
+
+        @Override
+        public void cancel() {
+            PrintJobEvent event = new PrintJobEvent(this, PrintJobEvent.JOB_CANCELED);
+            listeners.forEach(listener -> listener.printJobCanceled(event));
+        }
+    }
+}